@@ -0,0 +1,106 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for calls through a JDK dynamic proxy with an empty advice chain
+ * and with a single interceptor, invoking the target method via reflection
+ * or via a generated {@link JoinpointInvoker}.
+ *
+ * <p>Run with {@code -prof gc} to compare the allocation rate per call as well.
+ *
+ * @author agent
+ * @since 5.2.6
+ * @see ProxyConfig#setGenerateInvokers
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JoinpointInvokerBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"false", "true"})
+		public boolean generateInvokers;
+
+		@Param({"0", "1"})
+		public int interceptorCount;
+
+		public Service proxy;
+
+		public int argument = 42;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			ProxyFactory proxyFactory = new ProxyFactory(new DefaultService());
+			proxyFactory.setInterfaces(Service.class);
+			proxyFactory.setGenerateInvokers(this.generateInvokers);
+			for (int i = 0; i < this.interceptorCount; i++) {
+				proxyFactory.addAdvice((MethodInterceptor) invocation -> invocation.proceed());
+			}
+			proxyFactory.setFrozen(true);
+			this.proxy = (Service) proxyFactory.getProxy();
+		}
+	}
+
+
+	@Benchmark
+	public String noArguments(BenchmarkState state) {
+		return state.proxy.getName();
+	}
+
+	@Benchmark
+	public int primitiveArgument(BenchmarkState state) {
+		return state.proxy.increment(state.argument);
+	}
+
+
+	public interface Service {
+
+		String getName();
+
+		int increment(int value);
+	}
+
+
+	public static class DefaultService implements Service {
+
+		@Override
+		public String getName() {
+			return "service";
+		}
+
+		@Override
+		public int increment(int value) {
+			return value + 1;
+		}
+	}
+
+}
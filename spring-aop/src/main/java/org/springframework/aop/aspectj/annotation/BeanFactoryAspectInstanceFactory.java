@@ -17,9 +17,11 @@
 package org.springframework.aop.aspectj.annotation;
 
 import java.io.Serializable;
+import java.util.function.Supplier;
 
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.beans.factory.support.DefaultSingletonBeanRegistry;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.OrderUtils;
 import org.springframework.lang.Nullable;
@@ -121,6 +123,31 @@ public class BeanFactoryAspectInstanceFactory implements MetadataAwareAspectInst
 		}
 	}
 
+	/**
+	 * Execute the given action while holding the {@link #getAspectCreationMutex()
+	 * aspect creation mutex}. If that is the bean factory's singleton mutex, the
+	 * action goes through {@link DefaultSingletonBeanRegistry#doWithSingletonMutex},
+	 * taking part in its deadlock detection when singletons may get created
+	 * concurrently. The action may get retried then, so it needs to be idempotent.
+	 * @param lockKey the key identifying the caller's lock
+	 * @param action the action to execute
+	 * @return the result of the action
+	 * @since 5.2.6
+	 */
+	<T> T doWithAspectCreationMutex(Object lockKey, Supplier<T> action) {
+		Object mutex = getAspectCreationMutex();
+		if (mutex == null) {
+			return action.get();
+		}
+		if (this.beanFactory instanceof DefaultSingletonBeanRegistry &&
+				mutex == ((DefaultSingletonBeanRegistry) this.beanFactory).getSingletonMutex()) {
+			return ((DefaultSingletonBeanRegistry) this.beanFactory).doWithSingletonMutex(lockKey, action);
+		}
+		synchronized (mutex) {
+			return action.get();
+		}
+	}
+
 	/**
 	 * Determine the order for this factory's target aspect, either
 	 * an instance-specific order expressed through implementing the
@@ -51,6 +51,12 @@ public class LazySingletonAspectInstanceFactoryDecorator implements MetadataAwar
 	public Object getAspectInstance() {
 		Object aspectInstance = this.materialized;
 		if (aspectInstance == null) {
+			if (this.maaif instanceof BeanFactoryAspectInstanceFactory) {
+				// Lock through the bean factory, taking part in its deadlock detection
+				// when singletons may get created concurrently...
+				return ((BeanFactoryAspectInstanceFactory) this.maaif).doWithAspectCreationMutex(
+						this, this::materializeAspectInstance);
+			}
 			Object mutex = this.maaif.getAspectCreationMutex();
 			if (mutex == null) {
 				aspectInstance = this.maaif.getAspectInstance();
@@ -58,17 +64,22 @@ public class LazySingletonAspectInstanceFactoryDecorator implements MetadataAwar
 			}
 			else {
 				synchronized (mutex) {
-					aspectInstance = this.materialized;
-					if (aspectInstance == null) {
-						aspectInstance = this.maaif.getAspectInstance();
-						this.materialized = aspectInstance;
-					}
+					aspectInstance = materializeAspectInstance();
 				}
 			}
 		}
 		return aspectInstance;
 	}
 
+	private Object materializeAspectInstance() {
+		Object aspectInstance = this.materialized;
+		if (aspectInstance == null) {
+			aspectInstance = this.maaif.getAspectInstance();
+			this.materialized = aspectInstance;
+		}
+		return aspectInstance;
+	}
+
 	public boolean isMaterialized() {
 		return (this.materialized != null);
 	}
@@ -80,8 +80,8 @@ public class AdvisedSupport extends ProxyConfig implements Advised {
 	/** The AdvisorChainFactory to use. */
 	AdvisorChainFactory advisorChainFactory = new DefaultAdvisorChainFactory();
 
-	/** Cache with Method as key and advisor chain List as value. */
-	private transient Map<MethodCacheKey, List<Object>> methodCache;
+	/** Cache with Method as key and advisor chain List plus joinpoint invoker as value. */
+	private transient Map<MethodCacheKey, MethodCacheEntry> methodCache;
 
 	/**
 	 * Interfaces to be implemented by the proxy. Held in List to keep the order
@@ -476,11 +476,24 @@ public class AdvisedSupport extends ProxyConfig implements Advised {
 	 * @return a List of MethodInterceptors (may also include InterceptorAndDynamicMethodMatchers)
 	 */
 	public List<Object> getInterceptorsAndDynamicInterceptionAdvice(Method method, @Nullable Class<?> targetClass) {
+		return getMethodCacheEntry(method, targetClass).chain;
+	}
+
+	/**
+	 * Determine the cache entry for the given method, holding its interceptor
+	 * chain as well as its {@link JoinpointInvoker}, if requested.
+	 * @param method the proxied method
+	 * @param targetClass the target class
+	 * @return the cache entry for the given method
+	 * @since 5.2.6
+	 * @see #getInterceptorsAndDynamicInterceptionAdvice
+	 */
+	MethodCacheEntry getMethodCacheEntry(Method method, @Nullable Class<?> targetClass) {
 		MethodCacheKey cacheKey = new MethodCacheKey(method);
-		List<Object> cached = this.methodCache.get(cacheKey);
+		MethodCacheEntry cached = this.methodCache.get(cacheKey);
 		if (cached == null) {
-			cached = this.advisorChainFactory.getInterceptorsAndDynamicInterceptionAdvice(
-					this, method, targetClass);
+			cached = new MethodCacheEntry(method,
+					this.advisorChainFactory.getInterceptorsAndDynamicInterceptionAdvice(this, method, targetClass));
 			this.methodCache.put(cacheKey, cached);
 		}
 		return cached;
@@ -616,4 +629,43 @@ public class AdvisedSupport extends ProxyConfig implements Advised {
 		}
 	}
 
+
+	/**
+	 * Cached advisor chain for a Method, along with its joinpoint invoker
+	 * once requested.
+	 */
+	static final class MethodCacheEntry {
+
+		private final Method method;
+
+		final List<Object> chain;
+
+		@Nullable
+		private volatile JoinpointInvoker invoker;
+
+		MethodCacheEntry(Method method, List<Object> chain) {
+			this.method = method;
+			this.chain = chain;
+		}
+
+		/**
+		 * Return the generated invoker for the target method,
+		 * obtaining it on first access.
+		 * @see JoinpointInvokerGenerator#getInvoker
+		 */
+		JoinpointInvoker getInvoker() {
+			JoinpointInvoker invoker = this.invoker;
+			if (invoker == null) {
+				invoker = JoinpointInvokerGenerator.getInvoker(this.method);
+				this.invoker = invoker;
+			}
+			return invoker;
+		}
+
+		@Override
+		public String toString() {
+			return this.method.toString();
+		}
+	}
+
 }
@@ -674,7 +674,17 @@ class CglibAopProxy implements AopProxy, Serializable {
 				// Get as late as possible to minimize the time we "own" the target, in case it comes from a pool...
 				target = targetSource.getTarget();
 				Class<?> targetClass = (target != null ? target.getClass() : null);
-				List<Object> chain = this.advised.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass);
+				List<Object> chain;
+				JoinpointInvoker invoker = null;
+				if (this.advised.isGenerateInvokers() && !Modifier.isPublic(method.getModifiers())) {
+					// Public methods are invoked through the CGLIB method proxy anyway.
+					AdvisedSupport.MethodCacheEntry cacheEntry = this.advised.getMethodCacheEntry(method, targetClass);
+					chain = cacheEntry.chain;
+					invoker = cacheEntry.getInvoker();
+				}
+				else {
+					chain = this.advised.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass);
+				}
 				Object retVal;
 				// Check whether we only have one InvokerInterceptor: that is,
 				// no real advice, but just reflective invocation of the target.
@@ -688,7 +698,10 @@ class CglibAopProxy implements AopProxy, Serializable {
 				}
 				else {
 					// We need to create a method invocation...
-					retVal = new CglibMethodInvocation(proxy, target, method, args, targetClass, chain, methodProxy).proceed();
+					CglibMethodInvocation invocation =
+							new CglibMethodInvocation(proxy, target, method, args, targetClass, chain, methodProxy);
+					invocation.setJoinpointInvoker(invoker);
+					retVal = invocation.proceed();
 				}
 				retVal = processReturnType(proxy, target, method, retVal);
 				return retVal;
@@ -192,8 +192,17 @@ final class JdkDynamicAopProxy implements AopProxy, InvocationHandler, Serializa
 			target = targetSource.getTarget();
 			Class<?> targetClass = (target != null ? target.getClass() : null);
 
-			// Get the interception chain for this method.
-			List<Object> chain = this.advised.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass);
+			// Get the interception chain for this method, along with its invoker if requested.
+			List<Object> chain;
+			JoinpointInvoker invoker = null;
+			if (this.advised.isGenerateInvokers()) {
+				AdvisedSupport.MethodCacheEntry cacheEntry = this.advised.getMethodCacheEntry(method, targetClass);
+				chain = cacheEntry.chain;
+				invoker = cacheEntry.getInvoker();
+			}
+			else {
+				chain = this.advised.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass);
+			}
 
 			// Check whether we have any advice. If we don't, we can fallback on direct
 			// reflective invocation of the target, and avoid creating a MethodInvocation.
@@ -202,12 +211,18 @@ final class JdkDynamicAopProxy implements AopProxy, InvocationHandler, Serializa
 				// Note that the final invoker must be an InvokerInterceptor so we know it does
 				// nothing but a reflective operation on the target, and no hot swapping or fancy proxying.
 				Object[] argsToUse = AopProxyUtils.adaptArgumentsIfNecessary(method, args);
-				retVal = AopUtils.invokeJoinpointUsingReflection(target, method, argsToUse);
+				if (invoker != null) {
+					retVal = JoinpointInvokerGenerator.invoke(invoker, target, method, argsToUse);
+				}
+				else {
+					retVal = AopUtils.invokeJoinpointUsingReflection(target, method, argsToUse);
+				}
 			}
 			else {
 				// We need to create a method invocation...
-				MethodInvocation invocation =
+				ReflectiveMethodInvocation invocation =
 						new ReflectiveMethodInvocation(proxy, target, method, args, targetClass, chain);
+				invocation.setJoinpointInvoker(invoker);
 				// Proceed to the joinpoint through the interceptor chain.
 				retVal = invocation.proceed();
 			}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Invoker for the target method of an AOP method invocation, as an
+ * alternative to {@link org.springframework.aop.support.AopUtils#invokeJoinpointUsingReflection}.
+ *
+ * <p>Implementations are generated per method when the
+ * {@link ProxyConfig#setGenerateInvokers "generateInvokers"} flag is active,
+ * calling the target method directly instead of through reflection.
+ * This interface is only public for access from generated classes;
+ * it is not intended to be used in application code.
+ *
+ * @author agent
+ * @since 5.2.6
+ * @see ProxyConfig#setGenerateInvokers
+ */
+@FunctionalInterface
+public interface JoinpointInvoker {
+
+	/**
+	 * Invoke the target method on the given target object.
+	 * @param target the target object
+	 * @param args the arguments for the method
+	 * @return the invocation result, if any
+	 * @throws Throwable exactly as thrown by the target method
+	 */
+	@Nullable
+	Object invoke(@Nullable Object target, Object[] args) throws Throwable;
+
+}
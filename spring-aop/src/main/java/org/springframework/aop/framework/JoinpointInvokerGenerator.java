@@ -0,0 +1,186 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.aop.AopInvocationException;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+import org.springframework.core.GeneratedClassUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Generates a {@link JoinpointInvoker} class per target method, calling the
+ * method through a direct {@code invokevirtual} or {@code invokeinterface}
+ * instruction instead of through reflection.
+ *
+ * <p>The generated class is defined in the package and class loader of the
+ * method's declaring class, so that non-public methods are accessible as well.
+ * Its name is derived from the method signature, allowing a class that has been
+ * generated before to be reused after its invoker has been evicted from the cache.
+ * Private methods as well as methods declared by classes that the generated
+ * class cannot be defined next to (e.g. JDK classes) are invoked via reflection.
+ * Concurrent requests for the same method may generate its class more than once,
+ * in which case the class that has been defined first is used.
+ *
+ * @author agent
+ * @since 5.2.6
+ * @see ProxyConfig#setGenerateInvokers
+ */
+abstract class JoinpointInvokerGenerator {
+
+	private static final String INVOKER_CLASS_SUFFIX = "$$JoinpointInvoker$$";
+
+	private static final String JOINPOINT_FIELD_NAME = "JOINPOINT";
+
+	private static final String INVOKE_DESCRIPTOR =
+			"(" + Type.getDescriptor(Object.class) + Type.getDescriptor(Object[].class) + ")" +
+			Type.getDescriptor(Object.class);
+
+	private static final Log logger = LogFactory.getLog(JoinpointInvokerGenerator.class);
+
+	private static final Map<Method, JoinpointInvoker> invokerCache = new ConcurrentReferenceHashMap<>(256);
+
+
+	/**
+	 * Return an invoker for the given method, generating it if necessary.
+	 * @param method the target method
+	 * @return a generated invoker, or a reflective invoker if the method
+	 * is not eligible for a generated invoker
+	 */
+	static JoinpointInvoker getInvoker(Method method) {
+		return invokerCache.computeIfAbsent(method, JoinpointInvokerGenerator::createInvoker);
+	}
+
+	/**
+	 * Invoke the given method through the given invoker, translating invalid
+	 * arguments into an {@link AopInvocationException} like
+	 * {@link AopUtils#invokeJoinpointUsingReflection} does.
+	 * @param invoker the invoker for the method
+	 * @param target the target object
+	 * @param method the method to invoke
+	 * @param args the arguments for the method
+	 * @return the invocation result, if any
+	 * @throws Throwable if thrown by the target method
+	 */
+	@Nullable
+	static Object invoke(JoinpointInvoker invoker, @Nullable Object target, Method method, Object[] args)
+			throws Throwable {
+
+		try {
+			return invoker.invoke(target, args);
+		}
+		catch (ClassCastException | NullPointerException | ArrayIndexOutOfBoundsException ex) {
+			// Possibly thrown by the generated invoker rather than by the target method
+			if (!isApplicable(method, target, args)) {
+				throw new AopInvocationException("AOP configuration seems to be invalid: tried calling method [" +
+						method + "] on target [" + target + "]", ex);
+			}
+			throw ex;
+		}
+	}
+
+	private static boolean isApplicable(Method method, @Nullable Object target, Object[] args) {
+		if (!method.getDeclaringClass().isInstance(target)) {
+			return false;
+		}
+		Class<?>[] parameterTypes = method.getParameterTypes();
+		if (parameterTypes.length != args.length) {
+			return false;
+		}
+		for (int i = 0; i < parameterTypes.length; i++) {
+			if (!ClassUtils.isAssignableValue(parameterTypes[i], args[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Determine whether the given invoker has been generated,
+	 * as opposed to falling back to reflection.
+	 */
+	static boolean isGenerated(JoinpointInvoker invoker) {
+		return invoker.getClass().getName().contains(INVOKER_CLASS_SUFFIX);
+	}
+
+	private static JoinpointInvoker createInvoker(Method method) {
+		Class<?> declaringClass = method.getDeclaringClass();
+		ClassLoader classLoader = declaringClass.getClassLoader();
+		int modifiers = method.getModifiers();
+		if (!Modifier.isPrivate(modifiers) && !Modifier.isStatic(modifiers) && classLoader != null &&
+				ClassUtils.isVisible(JoinpointInvoker.class, classLoader)) {
+			String joinpoint = method.getName() + Type.getMethodDescriptor(method);
+			String className = declaringClass.getName() + INVOKER_CLASS_SUFFIX +
+					Integer.toHexString(joinpoint.hashCode());
+			try {
+				Class<?> invokerClass = GeneratedClassUtils.findClass(className, classLoader);
+				if (invokerClass == null) {
+					invokerClass = GeneratedClassUtils.defineClass(
+							className, generateInvokerClass(className, method, joinpoint), declaringClass);
+				}
+				if (joinpoint.equals(invokerClass.getField(JOINPOINT_FIELD_NAME).get(null))) {
+					return (JoinpointInvoker) ReflectionUtils.accessibleConstructor(invokerClass).newInstance();
+				}
+			}
+			catch (Throwable ex) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Could not generate invoker for method [" + method +
+							"] - falling back to reflection: " + ex);
+				}
+			}
+		}
+		return (target, args) -> AopUtils.invokeJoinpointUsingReflection(target, method, args);
+	}
+
+	private static byte[] generateInvokerClass(String className, Method method, String joinpoint) {
+		Class<?> declaringClass = method.getDeclaringClass();
+		boolean isInterface = declaringClass.isInterface();
+		String owner = Type.getInternalName(declaringClass);
+
+		ClassWriter cw = GeneratedClassUtils.beginClass(className, JoinpointInvoker.class);
+		cw.visitField(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL,
+				JOINPOINT_FIELD_NAME, Type.getDescriptor(String.class), null, joinpoint).visitEnd();
+
+		MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "invoke", INVOKE_DESCRIPTOR, null,
+				new String[] {Type.getInternalName(Throwable.class)});
+		mv.visitCode();
+		mv.visitVarInsn(Opcodes.ALOAD, 1);
+		mv.visitTypeInsn(Opcodes.CHECKCAST, owner);
+		GeneratedClassUtils.loadArguments(mv, 2, method.getParameterTypes());
+		mv.visitMethodInsn(isInterface ? Opcodes.INVOKEINTERFACE : Opcodes.INVOKEVIRTUAL,
+				owner, method.getName(), Type.getMethodDescriptor(method), isInterface);
+		GeneratedClassUtils.box(mv, method.getReturnType());
+		mv.visitInsn(Opcodes.ARETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+		return GeneratedClassUtils.endClass(cw);
+	}
+
+}
@@ -18,6 +18,7 @@ package org.springframework.aop.framework;
 
 import java.io.Serializable;
 
+import org.springframework.core.SpringProperties;
 import org.springframework.util.Assert;
 
 /**
@@ -33,6 +34,16 @@ public class ProxyConfig implements Serializable {
 	/** use serialVersionUID from Spring 1.2 for interoperability. */
 	private static final long serialVersionUID = -8409359707199703185L;
 
+	/**
+	 * System property that instructs Spring to generate invokers for target
+	 * methods by default, i.e. the default for {@link #setGenerateInvokers}.
+	 * <p>The default is "false". Consider switching this flag to "true" to
+	 * apply generated invokers to all proxies, including those created by
+	 * auto-proxy creators for transactional or caching annotations.
+	 * @since 5.2.6
+	 */
+	public static final String GENERATE_INVOKERS_PROPERTY_NAME = "spring.aop.generateInvokers";
+
 
 	private boolean proxyTargetClass = false;
 
@@ -44,6 +55,8 @@ public class ProxyConfig implements Serializable {
 
 	private boolean frozen = false;
 
+	private boolean generateInvokers = SpringProperties.getFlag(GENERATE_INVOKERS_PROPERTY_NAME);
+
 
 	/**
 	 * Set whether to proxy the target class directly, instead of just proxying
@@ -146,6 +159,33 @@ public class ProxyConfig implements Serializable {
 		return this.frozen;
 	}
 
+	/**
+	 * Set whether proxies should invoke the target method through a generated
+	 * class per method rather than through reflection. Default is "false",
+	 * unless the "spring.aop.generateInvokers" system property is set.
+	 * <p>A generated invoker calls the target method directly, avoiding the
+	 * reflective overhead for each invocation at the expense of one generated
+	 * class per advised method. Methods that a class cannot be generated for,
+	 * e.g. private methods, are still invoked via reflection. For CGLIB proxies,
+	 * this applies to non-public methods only, with public methods invoked
+	 * through CGLIB's method proxies in any case.
+	 * @since 5.2.6
+	 * @see #GENERATE_INVOKERS_PROPERTY_NAME
+	 * @see JoinpointInvoker
+	 */
+	public void setGenerateInvokers(boolean generateInvokers) {
+		this.generateInvokers = generateInvokers;
+	}
+
+	/**
+	 * Return whether proxies should invoke the target method through a
+	 * generated class per method rather than through reflection.
+	 * @since 5.2.6
+	 */
+	public boolean isGenerateInvokers() {
+		return this.generateInvokers;
+	}
+
 
 	/**
 	 * Copy configuration from the other config object.
@@ -158,6 +198,7 @@ public class ProxyConfig implements Serializable {
 		this.exposeProxy = other.exposeProxy;
 		this.frozen = other.frozen;
 		this.opaque = other.opaque;
+		this.generateInvokers = other.generateInvokers;
 	}
 
 	@Override
@@ -167,7 +208,8 @@ public class ProxyConfig implements Serializable {
 		sb.append("optimize=").append(this.optimize).append("; ");
 		sb.append("opaque=").append(this.opaque).append("; ");
 		sb.append("exposeProxy=").append(this.exposeProxy).append("; ");
-		sb.append("frozen=").append(this.frozen);
+		sb.append("frozen=").append(this.frozen).append("; ");
+		sb.append("generateInvokers=").append(this.generateInvokers);
 		return sb.toString();
 	}
 
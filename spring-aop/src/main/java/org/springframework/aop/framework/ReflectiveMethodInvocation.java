@@ -91,6 +91,12 @@ public class ReflectiveMethodInvocation implements ProxyMethodInvocation, Clonea
 	 */
 	private int currentInterceptorIndex = -1;
 
+	/**
+	 * Generated invoker for the target method, if any.
+	 */
+	@Nullable
+	private JoinpointInvoker joinpointInvoker;
+
 
 	/**
 	 * Construct a new ReflectiveMethodInvocation with the given arguments.
@@ -195,9 +201,21 @@ public class ReflectiveMethodInvocation implements ProxyMethodInvocation, Clonea
 	 */
 	@Nullable
 	protected Object invokeJoinpoint() throws Throwable {
+		if (this.joinpointInvoker != null) {
+			return JoinpointInvokerGenerator.invoke(this.joinpointInvoker, this.target, this.method, this.arguments);
+		}
 		return AopUtils.invokeJoinpointUsingReflection(this.target, this.method, this.arguments);
 	}
 
+	/**
+	 * Invoke the joinpoint through the given generated invoker instead of reflection.
+	 * @since 5.2.6
+	 * @see ProxyConfig#setGenerateInvokers
+	 */
+	void setJoinpointInvoker(@Nullable JoinpointInvoker joinpointInvoker) {
+		this.joinpointInvoker = joinpointInvoker;
+	}
+
 
 	/**
 	 * This implementation returns a shallow copy of this invocation object,
@@ -16,16 +16,32 @@
 
 package org.springframework.aop.framework.autoproxy;
 
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
 import org.springframework.aop.Advisor;
+import org.springframework.aop.IntroductionAdvisor;
 import org.springframework.aop.TargetSource;
 import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.function.SingletonSupplier;
 
 /**
  * Generic auto proxy creator that builds AOP proxies for specific beans
@@ -42,6 +58,12 @@ import org.springframework.util.Assert;
  * Ordered interface will be considered as unordered; they will appear
  * at the end of the advisor chain in undefined order.
  *
+ * <p>With trace logging or a non-default {@link ApplicationStartup} on the bean
+ * factory, the time spent on matching each Advisor against bean classes is
+ * recorded, exposed through {@link #getAdvisorMatchingTimes()} for identifying
+ * costly pointcuts. With a {@link #setMatchingPool matching pool}, the Advisors
+ * for a bean are matched in parallel.
+ *
  * @author Rod Johnson
  * @author Juergen Hoeller
  * @see #findCandidateAdvisors
@@ -49,9 +71,78 @@ import org.springframework.util.Assert;
 @SuppressWarnings("serial")
 public abstract class AbstractAdvisorAutoProxyCreator extends AbstractAutoProxyCreator {
 
+	/** Minimum number of pointcut advisors to match in parallel. */
+	private static final int PARALLEL_MATCHING_THRESHOLD = 8;
+
+
 	@Nullable
 	private BeanFactoryAdvisorRetrievalHelper advisorRetrievalHelper;
 
+	@Nullable
+	private ForkJoinPool matchingPool;
+
+	private final Map<Advisor, LongAdder> advisorMatchingTimes =
+			new ConcurrentReferenceHashMap<>(64, ConcurrentReferenceHashMap.ReferenceType.WEAK);
+
+
+	/**
+	 * Specify a {@link ForkJoinPool} for matching the candidate Advisors
+	 * against a bean class in parallel.
+	 * <p>Default is none, matching on the thread that creates the bean, unless
+	 * the bean factory is a {@link DefaultListableBeanFactory} with a
+	 * {@link DefaultListableBeanFactory#setBootstrapPool bootstrap pool} and
+	 * {@link DefaultListableBeanFactory#setConcurrentSingletonCreation concurrent
+	 * singleton creation}, in which case its bootstrap pool is used.
+	 * <p>Note that pointcuts are evaluated on the pool's threads then, while the
+	 * bean is being created: pointcut implementations must be thread-safe and
+	 * must not obtain beans from the bean factory. This is the case for Spring's
+	 * own pointcuts, including AspectJ expressions with {@code bean()} designators.
+	 * @since 5.2.6
+	 */
+	public void setMatchingPool(@Nullable ForkJoinPool matchingPool) {
+		this.matchingPool = matchingPool;
+	}
+
+	/**
+	 * Return the pool for matching Advisors in parallel, if any.
+	 * @since 5.2.6
+	 * @see #setMatchingPool
+	 */
+	@Nullable
+	public ForkJoinPool getMatchingPool() {
+		if (this.matchingPool != null) {
+			return this.matchingPool;
+		}
+		BeanFactory beanFactory = getBeanFactory();
+		if (beanFactory instanceof DefaultListableBeanFactory) {
+			DefaultListableBeanFactory dlbf = (DefaultListableBeanFactory) beanFactory;
+			if (dlbf.isConcurrentSingletonCreation()) {
+				return dlbf.getBootstrapPool();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Return the total time spent on matching each Advisor against bean classes
+	 * so far, in descending order, i.e. starting with the most costly Advisors.
+	 * <p>Typically inspected after the application context has been refreshed,
+	 * for identifying pointcuts that are expensive to evaluate at startup.
+	 * Advisors which are equal to each other are reported as one entry.
+	 * <p>Times are only recorded with trace logging enabled for this class or
+	 * with a non-default {@link ApplicationStartup} on the bean factory, which
+	 * also receives a {@code "spring.aop.advisors.match"} step for each bean.
+	 * This map is empty otherwise.
+	 * @since 5.2.6
+	 */
+	public Map<Advisor, Duration> getAdvisorMatchingTimes() {
+		Map<Advisor, Duration> result = new LinkedHashMap<>(this.advisorMatchingTimes.size());
+		this.advisorMatchingTimes.entrySet().stream()
+				.sorted((entry1, entry2) -> Long.compare(entry2.getValue().sum(), entry1.getValue().sum()))
+				.forEach(entry -> result.put(entry.getKey(), Duration.ofNanos(entry.getValue().sum())));
+		return result;
+	}
+
 
 	@Override
 	public void setBeanFactory(BeanFactory beanFactory) {
@@ -123,13 +214,121 @@ public abstract class AbstractAdvisorAutoProxyCreator extends AbstractAutoProxyC
 
 		ProxyCreationContext.setCurrentProxiedBeanName(beanName);
 		try {
-			return AopUtils.findAdvisorsThatCanApply(candidateAdvisors, beanClass);
+			ForkJoinPool matchingPool = getMatchingPool();
+			boolean parallel = (matchingPool != null && candidateAdvisors.size() >= PARALLEL_MATCHING_THRESHOLD);
+			ApplicationStartup applicationStartup = getApplicationStartup();
+			boolean recordTimes = (logger.isTraceEnabled() || applicationStartup != ApplicationStartup.DEFAULT);
+			if (!parallel && !recordTimes) {
+				return AopUtils.findAdvisorsThatCanApply(candidateAdvisors, beanClass);
+			}
+			StartupStep matchAdvisors = applicationStartup.start("spring.aop.advisors.match")
+					.tag("beanName", beanName);
+			List<Advisor> eligibleAdvisors = findAdvisorsThatCanApply(
+					candidateAdvisors, beanClass, beanName, (parallel ? matchingPool : null), recordTimes);
+			matchAdvisors.tag("eligibleAdvisors", String.valueOf(eligibleAdvisors.size())).end();
+			return eligibleAdvisors;
 		}
 		finally {
 			ProxyCreationContext.setCurrentProxiedBeanName(null);
 		}
 	}
 
+	/**
+	 * Match the given candidate Advisors like
+	 * {@link AopUtils#findAdvisorsThatCanApply(List, Class)} does,
+	 * in parallel if a matching pool is given.
+	 */
+	private List<Advisor> findAdvisorsThatCanApply(List<Advisor> candidateAdvisors, Class<?> beanClass,
+			String beanName, @Nullable ForkJoinPool matchingPool, boolean recordTimes) {
+
+		// Determine the methods once for all advisors, and only if a ClassFilter matched
+		Supplier<Method[]> candidateMethods = SingletonSupplier.of(() -> AopUtils.getCandidateMethods(beanClass));
+		List<Advisor> eligibleAdvisors = new ArrayList<>();
+		List<Advisor> pointcutAdvisors = new ArrayList<>(candidateAdvisors.size());
+		for (Advisor candidate : candidateAdvisors) {
+			if (!(candidate instanceof IntroductionAdvisor)) {
+				pointcutAdvisors.add(candidate);
+			}
+			else if (canApply(candidate, beanClass, false, candidateMethods, recordTimes)) {
+				eligibleAdvisors.add(candidate);
+			}
+		}
+
+		boolean hasIntroductions = !eligibleAdvisors.isEmpty();
+		if (matchingPool != null) {
+			List<ForkJoinTask<Boolean>> tasks = new ArrayList<>(pointcutAdvisors.size());
+			for (Advisor candidate : pointcutAdvisors) {
+				tasks.add(matchingPool.submit(() -> canApplyForBean(
+						candidate, beanClass, beanName, hasIntroductions, candidateMethods, recordTimes)));
+			}
+			try {
+				for (int i = 0; i < tasks.size(); i++) {
+					if (tasks.get(i).join()) {
+						eligibleAdvisors.add(pointcutAdvisors.get(i));
+					}
+				}
+			}
+			finally {
+				tasks.forEach(task -> task.cancel(false));
+			}
+		}
+		else {
+			for (Advisor candidate : pointcutAdvisors) {
+				if (canApply(candidate, beanClass, hasIntroductions, candidateMethods, recordTimes)) {
+					eligibleAdvisors.add(candidate);
+				}
+			}
+		}
+		return eligibleAdvisors;
+	}
+
+	/**
+	 * Match the given Advisor on a pool thread, exposing the given bean name
+	 * through the {@link ProxyCreationContext} for the duration of the match.
+	 */
+	private boolean canApplyForBean(Advisor advisor, Class<?> beanClass, String beanName,
+			boolean hasIntroductions, Supplier<Method[]> candidateMethods, boolean recordTimes) {
+
+		String previousBeanName = ProxyCreationContext.getCurrentProxiedBeanName();
+		ProxyCreationContext.setCurrentProxiedBeanName(beanName);
+		try {
+			return canApply(advisor, beanClass, hasIntroductions, candidateMethods, recordTimes);
+		}
+		finally {
+			ProxyCreationContext.setCurrentProxiedBeanName(previousBeanName);
+		}
+	}
+
+	/**
+	 * Match the given Advisor against the given bean class, recording
+	 * the time spent for {@link #getAdvisorMatchingTimes()} if requested.
+	 */
+	private boolean canApply(Advisor advisor, Class<?> beanClass, boolean hasIntroductions,
+			Supplier<Method[]> candidateMethods, boolean recordTimes) {
+
+		if (!recordTimes) {
+			return AopUtils.canApply(advisor, beanClass, hasIntroductions, candidateMethods);
+		}
+		long startTime = System.nanoTime();
+		try {
+			return AopUtils.canApply(advisor, beanClass, hasIntroductions, candidateMethods);
+		}
+		finally {
+			this.advisorMatchingTimes.computeIfAbsent(advisor, key -> new LongAdder())
+					.add(System.nanoTime() - startTime);
+		}
+	}
+
+	/**
+	 * Return the {@link ApplicationStartup} of the bean factory, if any,
+	 * for recording the matching of Advisors against each bean.
+	 */
+	private ApplicationStartup getApplicationStartup() {
+		BeanFactory beanFactory = getBeanFactory();
+		return (beanFactory instanceof ConfigurableBeanFactory ?
+				((ConfigurableBeanFactory) beanFactory).getApplicationStartup() : ApplicationStartup.DEFAULT);
+	}
+
 	/**
 	 * Return whether the Advisor bean with the given name is eligible
 	 * for proxying in the first place.
@@ -24,6 +24,7 @@ import org.aopalliance.aop.Advice;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanFactoryAware;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.beans.factory.support.DefaultSingletonBeanRegistry;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 
@@ -82,7 +83,11 @@ public abstract class AbstractBeanFactoryPointcutAdvisor extends AbstractPointcu
 	}
 
 	private void resetAdviceMonitor() {
-		if (this.beanFactory instanceof ConfigurableBeanFactory) {
+		if (this.beanFactory instanceof DefaultSingletonBeanRegistry) {
+			// Locking through the factory in getAdvice, see below
+			this.adviceMonitor = new Object();
+		}
+		else if (this.beanFactory instanceof ConfigurableBeanFactory) {
 			this.adviceMonitor = ((ConfigurableBeanFactory) this.beanFactory).getSingletonMutex();
 		}
 		else {
@@ -117,21 +122,38 @@ public abstract class AbstractBeanFactoryPointcutAdvisor extends AbstractPointcu
 			this.advice = advice;
 			return advice;
 		}
+		else if (this.beanFactory instanceof DefaultSingletonBeanRegistry) {
+			// No singleton guarantees from the factory -> let's lock locally through
+			// the factory's singleton mutex, taking part in its deadlock detection
+			// when singletons may get created concurrently...
+			return ((DefaultSingletonBeanRegistry) this.beanFactory).doWithSingletonMutex(
+					this.adviceMonitor, this::resolveAdvice);
+		}
 		else {
 			// No singleton guarantees from the factory -> let's lock locally but
 			// reuse the factory's singleton lock, just in case a lazy dependency
 			// of our advice bean happens to trigger the singleton lock implicitly...
 			synchronized (this.adviceMonitor) {
-				advice = this.advice;
-				if (advice == null) {
-					advice = this.beanFactory.getBean(this.adviceBeanName, Advice.class);
-					this.advice = advice;
-				}
-				return advice;
+				return resolveAdvice();
 			}
 		}
 	}
 
+	/**
+	 * Resolve the advice bean unless already resolved. Idempotent, since it may
+	 * get retried after a conflict with concurrent singleton creation: the advice
+	 * is only stored once it has been obtained successfully.
+	 */
+	private Advice resolveAdvice() {
+		Advice advice = this.advice;
+		if (advice == null) {
+			Assert.state(this.adviceBeanName != null && this.beanFactory != null, "No advice bean to resolve");
+			advice = this.beanFactory.getBean(this.adviceBeanName, Advice.class);
+			this.advice = advice;
+		}
+		return advice;
+	}
+
 	@Override
 	public String toString() {
 		StringBuilder sb = new StringBuilder(getClass().getName());
@@ -21,9 +21,11 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Proxy;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import org.springframework.aop.Advisor;
 import org.springframework.aop.AopInvocationException;
@@ -40,6 +42,7 @@ import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.ReflectionUtils;
+import org.springframework.util.function.SingletonSupplier;
 
 /**
  * Utility methods for AOP support code.
@@ -222,6 +225,26 @@ public abstract class AopUtils {
 	 * @return whether the pointcut can apply on any method
 	 */
 	public static boolean canApply(Pointcut pc, Class<?> targetClass, boolean hasIntroductions) {
+		return canApply(pc, targetClass, hasIntroductions, () -> getCandidateMethods(targetClass));
+	}
+
+	/**
+	 * Can the given pointcut apply at all on the given class?
+	 * <p>This variant checks the candidate methods from the given supplier, as
+	 * determined through {@link #getCandidateMethods}, allowing for the methods of
+	 * a target class to be determined once when matching several pointcuts against
+	 * it. The supplier is only called once the pointcut's {@code ClassFilter} matched.
+	 * @param pc the static or dynamic pointcut to check
+	 * @param targetClass the class to test
+	 * @param hasIntroductions whether or not the advisor chain
+	 * for this bean includes any introductions
+	 * @param candidateMethods the supplier of the methods of the target class to check
+	 * @return whether the pointcut can apply on any method
+	 * @since 5.2.6
+	 */
+	public static boolean canApply(Pointcut pc, Class<?> targetClass, boolean hasIntroductions,
+			Supplier<Method[]> candidateMethods) {
+
 		Assert.notNull(pc, "Pointcut must not be null");
 		if (!pc.getClassFilter().matches(targetClass)) {
 			return false;
@@ -238,24 +261,38 @@ public abstract class AopUtils {
 			introductionAwareMethodMatcher = (IntroductionAwareMethodMatcher) methodMatcher;
 		}
 
+		for (Method method : candidateMethods.get()) {
+			if (introductionAwareMethodMatcher != null ?
+					introductionAwareMethodMatcher.matches(method, targetClass, hasIntroductions) :
+					methodMatcher.matches(method, targetClass)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Determine the methods to check when matching a pointcut against the given
+	 * class: all methods declared by the user class and its superclasses, followed
+	 * by the methods of all interfaces implemented by the given class.
+	 * @param targetClass the class to introspect
+	 * @return the candidate methods, in the order of checking
+	 * @since 5.2.6
+	 * @see #canApply(Pointcut, Class, boolean, Supplier)
+	 */
+	public static Method[] getCandidateMethods(Class<?> targetClass) {
 		Set<Class<?>> classes = new LinkedHashSet<>();
 		if (!Proxy.isProxyClass(targetClass)) {
 			classes.add(ClassUtils.getUserClass(targetClass));
 		}
 		classes.addAll(ClassUtils.getAllInterfacesForClassAsSet(targetClass));
 
+		List<Method> methods = new ArrayList<>();
 		for (Class<?> clazz : classes) {
-			Method[] methods = ReflectionUtils.getAllDeclaredMethods(clazz);
-			for (Method method : methods) {
-				if (introductionAwareMethodMatcher != null ?
-						introductionAwareMethodMatcher.matches(method, targetClass, hasIntroductions) :
-						methodMatcher.matches(method, targetClass)) {
-					return true;
-				}
-			}
+			Collections.addAll(methods, ReflectionUtils.getAllDeclaredMethods(clazz));
 		}
-
-		return false;
+		return methods.toArray(new Method[0]);
 	}
 
 	/**
@@ -281,12 +318,31 @@ public abstract class AopUtils {
 	 * @return whether the pointcut can apply on any method
 	 */
 	public static boolean canApply(Advisor advisor, Class<?> targetClass, boolean hasIntroductions) {
+		return canApply(advisor, targetClass, hasIntroductions, () -> getCandidateMethods(targetClass));
+	}
+
+	/**
+	 * Can the given advisor apply at all on the given class?
+	 * <p>This variant checks the candidate methods from the given supplier, as
+	 * determined through {@link #getCandidateMethods}, allowing for the methods of
+	 * a target class to be determined once when matching several advisors against it.
+	 * @param advisor the advisor to check
+	 * @param targetClass class we're testing
+	 * @param hasIntroductions whether or not the advisor chain for this bean includes
+	 * any introductions
+	 * @param candidateMethods the supplier of the methods of the target class to check
+	 * @return whether the pointcut can apply on any method
+	 * @since 5.2.6
+	 */
+	public static boolean canApply(Advisor advisor, Class<?> targetClass, boolean hasIntroductions,
+			Supplier<Method[]> candidateMethods) {
+
 		if (advisor instanceof IntroductionAdvisor) {
 			return ((IntroductionAdvisor) advisor).getClassFilter().matches(targetClass);
 		}
 		else if (advisor instanceof PointcutAdvisor) {
 			PointcutAdvisor pca = (PointcutAdvisor) advisor;
-			return canApply(pca.getPointcut(), targetClass, hasIntroductions);
+			return canApply(pca.getPointcut(), targetClass, hasIntroductions, candidateMethods);
 		}
 		else {
 			// It doesn't have a pointcut so we assume it applies.
@@ -313,12 +369,14 @@ public abstract class AopUtils {
 			}
 		}
 		boolean hasIntroductions = !eligibleAdvisors.isEmpty();
+		// Determine the methods once for all advisors, rather than per advisor
+		Supplier<Method[]> candidateMethods = SingletonSupplier.of(() -> getCandidateMethods(clazz));
 		for (Advisor candidate : candidateAdvisors) {
 			if (candidate instanceof IntroductionAdvisor) {
 				// already processed
 				continue;
 			}
-			if (canApply(candidate, clazz, hasIntroductions)) {
+			if (canApply(candidate, clazz, hasIntroductions, candidateMethods)) {
 				eligibleAdvisors.add(candidate);
 			}
 		}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.aop.AopInvocationException;
+import org.springframework.aop.testfixture.interceptor.NopInterceptor;
+import org.springframework.util.ReflectionUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+
+/**
+ * Unit tests for {@link JoinpointInvokerGenerator} and proxies
+ * with {@link ProxyConfig#setGenerateInvokers generated invokers}.
+ *
+ * @author agent
+ */
+class JoinpointInvokerGeneratorTests {
+
+	@Test
+	void generatedInvokerForInterfaceMethod() throws Throwable {
+		Method method = Calculator.class.getMethod("add", int.class, long.class);
+		JoinpointInvoker invoker = JoinpointInvokerGenerator.getInvoker(method);
+		assertThat(JoinpointInvokerGenerator.isGenerated(invoker)).isTrue();
+		assertThat(invoker.invoke(new SimpleCalculator(), new Object[] {1, 2L})).isEqualTo(3L);
+		assertThat(JoinpointInvokerGenerator.getInvoker(method)).isSameAs(invoker);
+	}
+
+	@Test
+	void generatedInvokerForVoidAndObjectMethods() throws Throwable {
+		SimpleCalculator calculator = new SimpleCalculator();
+		JoinpointInvoker reset = JoinpointInvokerGenerator.getInvoker(Calculator.class.getMethod("reset"));
+		JoinpointInvoker describe = JoinpointInvokerGenerator.getInvoker(
+				SimpleCalculator.class.getMethod("describe", String.class, Object[].class));
+		assertThat(reset.invoke(calculator, new Object[0])).isNull();
+		assertThat(calculator.resetCount).isEqualTo(1);
+		assertThat(describe.invoke(calculator, new Object[] {"sum", new Object[] {1, 2}})).isEqualTo("sum: 2");
+	}
+
+	@Test
+	void generatedInvokerForPackagePrivateMethod() throws Throwable {
+		Method method = ReflectionUtils.findMethod(SimpleCalculator.class, "negate", double.class);
+		JoinpointInvoker invoker = JoinpointInvokerGenerator.getInvoker(method);
+		assertThat(JoinpointInvokerGenerator.isGenerated(invoker)).isTrue();
+		assertThat(invoker.invoke(new SimpleCalculator(), new Object[] {1.5})).isEqualTo(-1.5);
+	}
+
+	@Test
+	void generatedInvokerRethrowsTargetException() throws Throwable {
+		JoinpointInvoker invoker = JoinpointInvokerGenerator.getInvoker(Calculator.class.getMethod("fail"));
+		assertThatIOException().isThrownBy(() -> invoker.invoke(new SimpleCalculator(), new Object[0]))
+				.withMessage("failed");
+	}
+
+	@Test
+	void invalidArgumentsTranslatedToAopInvocationException() throws Throwable {
+		Method method = Calculator.class.getMethod("add", int.class, long.class);
+		JoinpointInvoker invoker = JoinpointInvokerGenerator.getInvoker(method);
+		assertThatExceptionOfType(AopInvocationException.class).isThrownBy(() ->
+				JoinpointInvokerGenerator.invoke(invoker, new SimpleCalculator(), method, new Object[] {"1", 2L}));
+		assertThatExceptionOfType(AopInvocationException.class).isThrownBy(() ->
+				JoinpointInvokerGenerator.invoke(invoker, new SimpleCalculator(), method, new Object[] {null, 2L}));
+		assertThatExceptionOfType(AopInvocationException.class).isThrownBy(() ->
+				JoinpointInvokerGenerator.invoke(invoker, "target", method, new Object[] {1, 2L}));
+		assertThatExceptionOfType(AopInvocationException.class).isThrownBy(() ->
+				JoinpointInvokerGenerator.invoke(invoker, new SimpleCalculator(), method, new Object[] {1}));
+	}
+
+	@Test
+	void targetClassCastExceptionPropagated() throws Throwable {
+		Method method = SimpleCalculator.class.getMethod("cast", Object.class);
+		JoinpointInvoker invoker = JoinpointInvokerGenerator.getInvoker(method);
+		assertThatExceptionOfType(ClassCastException.class).isThrownBy(() ->
+				JoinpointInvokerGenerator.invoke(invoker, new SimpleCalculator(), method, new Object[] {1}));
+	}
+
+	@Test
+	void invokerCachedWithInterceptorChain() throws Exception {
+		ProxyFactory proxyFactory = new ProxyFactory(new SimpleCalculator());
+		proxyFactory.addAdvice(new NopInterceptor());
+		Method method = Calculator.class.getMethod("add", int.class, long.class);
+		AdvisedSupport.MethodCacheEntry cacheEntry = proxyFactory.getMethodCacheEntry(method, SimpleCalculator.class);
+		assertThat(proxyFactory.getMethodCacheEntry(method, SimpleCalculator.class)).isSameAs(cacheEntry);
+		assertThat(proxyFactory.getInterceptorsAndDynamicInterceptionAdvice(method, SimpleCalculator.class))
+				.isSameAs(cacheEntry.chain).hasSize(1);
+		assertThat(cacheEntry.getInvoker()).isSameAs(JoinpointInvokerGenerator.getInvoker(method));
+	}
+
+	@Test
+	void reflectiveInvokerForJdkMethod() throws Throwable {
+		JoinpointInvoker invoker = JoinpointInvokerGenerator.getInvoker(CharSequence.class.getMethod("length"));
+		assertThat(JoinpointInvokerGenerator.isGenerated(invoker)).isFalse();
+		assertThat(invoker.invoke("abc", new Object[0])).isEqualTo(3);
+	}
+
+	@Test
+	void jdkProxyWithGeneratedInvokers() throws IOException {
+		ProxyFactory proxyFactory = new ProxyFactory(new SimpleCalculator());
+		proxyFactory.setInterfaces(Calculator.class);
+		proxyFactory.setGenerateInvokers(true);
+		Calculator proxy = (Calculator) proxyFactory.getProxy();
+		assertThat(proxy.add(1, 2L)).isEqualTo(3L);
+
+		NopInterceptor interceptor = new NopInterceptor();
+		proxyFactory.addAdvice(interceptor);
+		proxy = (Calculator) proxyFactory.getProxy();
+		assertThat(proxy.add(2, 3L)).isEqualTo(5L);
+		assertThatIOException().isThrownBy(proxy::fail);
+		assertThat(interceptor.getCount()).isEqualTo(2);
+	}
+
+	@Test
+	void cglibProxyWithGeneratedInvokers() {
+		ProxyFactory proxyFactory = new ProxyFactory(new SimpleCalculator());
+		proxyFactory.setProxyTargetClass(true);
+		proxyFactory.setGenerateInvokers(true);
+		NopInterceptor interceptor = new NopInterceptor();
+		proxyFactory.addAdvice(interceptor);
+		SimpleCalculator proxy = (SimpleCalculator) proxyFactory.getProxy();
+		assertThat(proxy.add(1, 2L)).isEqualTo(3L);
+		assertThat(proxy.negate(2.0)).isEqualTo(-2.0);
+		assertThat(interceptor.getCount()).isEqualTo(2);
+	}
+
+	@Test
+	void generateInvokersCopiedFromConfig() {
+		ProxyConfig config = new ProxyConfig();
+		config.setGenerateInvokers(true);
+		ProxyFactory proxyFactory = new ProxyFactory();
+		proxyFactory.copyFrom(config);
+		assertThat(proxyFactory.isGenerateInvokers()).isTrue();
+		assertThat(proxyFactory.toString()).contains("generateInvokers=true");
+	}
+
+
+	public interface Calculator {
+
+		long add(int a, long b);
+
+		void reset();
+
+		void fail() throws IOException;
+	}
+
+
+	public static class SimpleCalculator implements Calculator {
+
+		int resetCount;
+
+		@Override
+		public long add(int a, long b) {
+			return a + b;
+		}
+
+		@Override
+		public void reset() {
+			this.resetCount++;
+		}
+
+		@Override
+		public void fail() throws IOException {
+			throw new IOException("failed");
+		}
+
+		public String describe(String name, Object... values) {
+			return name + ": " + values.length;
+		}
+
+		public String cast(Object value) {
+			return (String) value;
+		}
+
+		double negate(double value) {
+			return -value;
+		}
+	}
+
+}
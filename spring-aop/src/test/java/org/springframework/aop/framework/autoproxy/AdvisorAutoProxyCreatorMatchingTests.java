@@ -0,0 +1,139 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework.autoproxy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.aspectj.AspectJExpressionPointcutAdvisor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.support.NameMatchMethodPointcutAdvisor;
+import org.springframework.aop.testfixture.interceptor.NopInterceptor;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.beans.testfixture.beans.ITestBean;
+import org.springframework.beans.testfixture.beans.TestBean;
+import org.springframework.core.metrics.BufferingApplicationStartup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for Advisor matching in {@link AbstractAdvisorAutoProxyCreator},
+ * sequentially as well as in parallel.
+ *
+ * @author agent
+ */
+class AdvisorAutoProxyCreatorMatchingTests {
+
+	private final ForkJoinPool matchingPool = new ForkJoinPool(4);
+
+	private final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+
+	private final DefaultAdvisorAutoProxyCreator autoProxyCreator = new DefaultAdvisorAutoProxyCreator();
+
+	private final List<Advisor> advisors = new ArrayList<>();
+
+	private final List<Advisor> expectedAdvisors = new ArrayList<>();
+
+
+	@AfterEach
+	void shutdownPool() {
+		this.matchingPool.shutdownNow();
+	}
+
+
+	@Test
+	void sequentialMatching() {
+		assertThat(this.autoProxyCreator.getMatchingPool()).isNull();
+		assertMatchingAdvisors();
+		assertThat(this.autoProxyCreator.getAdvisorMatchingTimes()).isEmpty();
+	}
+
+	@Test
+	void parallelMatching() {
+		this.autoProxyCreator.setMatchingPool(this.matchingPool);
+		assertMatchingAdvisors();
+		assertThat(this.autoProxyCreator.getAdvisorMatchingTimes()).isEmpty();
+	}
+
+	@Test
+	void matchingTimesWithApplicationStartup() {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup();
+		this.beanFactory.setApplicationStartup(applicationStartup);
+		assertMatchingAdvisors();
+		assertThat(this.autoProxyCreator.getAdvisorMatchingTimes()).containsKeys(this.advisors.toArray(new Advisor[0]));
+		assertThat(applicationStartup.getBufferedSteps())
+				.filteredOn(step -> step.getName().equals("spring.aop.advisors.match")).hasSize(1);
+	}
+
+	@Test
+	void parallelMatchingTimesWithApplicationStartup() {
+		this.beanFactory.setApplicationStartup(new BufferingApplicationStartup());
+		this.autoProxyCreator.setMatchingPool(this.matchingPool);
+		assertMatchingAdvisors();
+		assertThat(this.autoProxyCreator.getAdvisorMatchingTimes()).containsKeys(this.advisors.toArray(new Advisor[0]));
+	}
+
+	@Test
+	void matchingPoolFromBeanFactory() {
+		this.autoProxyCreator.setBeanFactory(this.beanFactory);
+		assertThat(this.autoProxyCreator.getMatchingPool()).isNull();
+		this.beanFactory.setBootstrapPool(this.matchingPool);
+		assertThat(this.beanFactory.isConcurrentSingletonCreation()).isTrue();
+		assertThat(this.autoProxyCreator.getMatchingPool()).isSameAs(this.matchingPool);
+	}
+
+	private void assertMatchingAdvisors() {
+		for (int i = 0; i < 12; i++) {
+			NameMatchMethodPointcutAdvisor advisor = new NameMatchMethodPointcutAdvisor(new NopInterceptor());
+			advisor.setMappedName(i % 3 == 0 ? "noSuchMethod" : "getAge");
+			registerAdvisor("advisor" + i, advisor, i % 3 != 0);
+		}
+		AspectJExpressionPointcutAdvisor beanNameAdvisor = new AspectJExpressionPointcutAdvisor();
+		beanNameAdvisor.setExpression("bean(test*)");
+		beanNameAdvisor.setAdvice(new NopInterceptor());
+		registerAdvisor("beanNameAdvisor", beanNameAdvisor, true);
+		AspectJExpressionPointcutAdvisor otherBeanNameAdvisor = new AspectJExpressionPointcutAdvisor();
+		otherBeanNameAdvisor.setExpression("bean(other*)");
+		otherBeanNameAdvisor.setAdvice(new NopInterceptor());
+		registerAdvisor("otherBeanNameAdvisor", otherBeanNameAdvisor, false);
+
+		this.beanFactory.registerBeanDefinition("testBean", new RootBeanDefinition(TestBean.class));
+		this.autoProxyCreator.setBeanFactory(this.beanFactory);
+		this.beanFactory.addBeanPostProcessor(this.autoProxyCreator);
+
+		ITestBean testBean = this.beanFactory.getBean("testBean", ITestBean.class);
+		assertThat(Arrays.asList(((Advised) testBean).getAdvisors())).containsExactlyElementsOf(this.expectedAdvisors);
+		testBean.setAge(5);
+		assertThat(testBean.getAge()).isEqualTo(5);
+	}
+
+	private void registerAdvisor(String beanName, Advisor advisor, boolean expected) {
+		this.beanFactory.registerSingleton(beanName, advisor);
+		this.advisors.add(advisor);
+		if (expected) {
+			this.expectedAdvisors.add(advisor);
+		}
+	}
+
+}
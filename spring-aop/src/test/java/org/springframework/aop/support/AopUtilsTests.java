@@ -72,6 +72,22 @@ public class AopUtilsTests {
 		assertThat(AopUtils.canApply(pc, Object.class)).isTrue();
 	}
 
+	@Test
+	public void testPointcutAppliesWithCandidateMethods() throws Exception {
+		Method[] candidateMethods = AopUtils.getCandidateMethods(TestBean.class);
+		assertThat(candidateMethods).contains(TestBean.class.getMethod("getAge"), Object.class.getMethod("hashCode"));
+
+		NameMatchMethodPointcut pc = new NameMatchMethodPointcut();
+		pc.setMappedName("getAge");
+		assertThat(AopUtils.canApply(pc, TestBean.class, false, () -> candidateMethods)).isTrue();
+		assertThat(AopUtils.canApply(pc, TestBean.class, false, () -> new Method[0])).isFalse();
+		assertThat(AopUtils.canApply(new DefaultPointcutAdvisor(pc, new NopInterceptor()),
+				TestBean.class, false, () -> candidateMethods)).isTrue();
+		assertThat(AopUtils.canApply(new ComposablePointcut(clazz -> false, pc), TestBean.class, false, () -> {
+			throw new IllegalStateException("Candidate methods not to be determined without ClassFilter match");
+		})).isFalse();
+	}
+
 	/**
 	 * Test that when we serialize and deserialize various canonical instances
 	 * of AOP classes, they return the same instance, not a new instance
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+
+/**
+ * Benchmark for lazy singleton creation from many threads at once, comparing
+ * the shared singleton mutex against per-bean creation locks.
+ *
+ * @author agent
+ * @since 5.2.6
+ * @see DefaultSingletonBeanRegistry#setConcurrentSingletonCreation
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+@Threads(8)
+public class ConcurrentSingletonCreationBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"false", "true"})
+		public boolean concurrentSingletonCreation;
+
+		@Param({"1000"})
+		public int beanCount;
+
+		@Param({"2000"})
+		public long tokens;
+
+		public DefaultListableBeanFactory beanFactory;
+
+		@Setup(Level.Iteration)
+		public void setup() {
+			this.beanFactory = new DefaultListableBeanFactory();
+			this.beanFactory.setConcurrentSingletonCreation(this.concurrentSingletonCreation);
+			for (int i = 0; i < this.beanCount; i++) {
+				RootBeanDefinition bd = new RootBeanDefinition(ExpensiveBean.class);
+				bd.setLazyInit(true);
+				bd.getConstructorArgumentValues().addGenericArgumentValue(this.tokens);
+				if (i % 10 != 0) {
+					// Short chains of references, exercising nested creation locks
+					bd.getPropertyValues().add("reference", new RuntimeBeanReference("bean" + (i - 1)));
+				}
+				this.beanFactory.registerBeanDefinition("bean" + i, bd);
+			}
+			this.beanFactory.freezeConfiguration();
+		}
+
+		@TearDown(Level.Iteration)
+		public void tearDown() {
+			this.beanFactory.destroySingletons();
+		}
+	}
+
+
+	@State(Scope.Thread)
+	public static class ThreadState {
+
+		public List<String> beanNames;
+
+		@Setup(Level.Iteration)
+		public void setup(BenchmarkState state, ThreadParams threadParams) {
+			this.beanNames = new ArrayList<>(state.beanCount);
+			for (int i = 0; i < state.beanCount; i++) {
+				this.beanNames.add("bean" + i);
+			}
+			Collections.shuffle(this.beanNames, new Random(threadParams.getThreadIndex()));
+		}
+	}
+
+
+	@Benchmark
+	public void lazySingletons(BenchmarkState state, ThreadState threadState, Blackhole bh) {
+		for (String beanName : threadState.beanNames) {
+			bh.consume(state.beanFactory.getBean(beanName));
+		}
+	}
+
+
+	public static class ExpensiveBean {
+
+		private ExpensiveBean reference;
+
+		public ExpensiveBean(long tokens) {
+			Blackhole.consumeCPU(tokens);
+		}
+
+		public void setReference(ExpensiveBean reference) {
+			this.reference = reference;
+		}
+
+		public ExpensiveBean getReference() {
+			return this.reference;
+		}
+	}
+
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+
+/**
+ * Benchmark for {@link DefaultListableBeanFactory#getBean} lookups of singletons
+ * and prototypes, by name and by type, in a factory with many bean definitions.
+ *
+ * @author agent
+ * @since 5.2.6
+ * @see ConcurrentSingletonCreationBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DefaultListableBeanFactoryBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"10", "1000"})
+		public int beanCount;
+
+		public DefaultListableBeanFactory beanFactory;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.beanFactory = new DefaultListableBeanFactory();
+			for (int i = 0; i < this.beanCount; i++) {
+				this.beanFactory.registerBeanDefinition("filler" + i, new RootBeanDefinition(FillerBean.class));
+			}
+			this.beanFactory.registerBeanDefinition("singleton", new RootBeanDefinition(SingletonBean.class));
+
+			RootBeanDefinition prototype = new RootBeanDefinition(PrototypeBean.class);
+			prototype.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+			prototype.getPropertyValues().add("name", "prototype");
+			prototype.getPropertyValues().add("singleton", new RuntimeBeanReference("singleton"));
+			this.beanFactory.registerBeanDefinition("prototype", prototype);
+
+			RootBeanDefinition autowired = new RootBeanDefinition(AutowiredPrototypeBean.class);
+			autowired.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+			autowired.setAutowireMode(AbstractBeanDefinition.AUTOWIRE_CONSTRUCTOR);
+			this.beanFactory.registerBeanDefinition("autowiredPrototype", autowired);
+
+			this.beanFactory.preInstantiateSingletons();
+		}
+	}
+
+
+	@Benchmark
+	public Object singletonByName(BenchmarkState state) {
+		return state.beanFactory.getBean("singleton");
+	}
+
+	@Benchmark
+	public Object singletonByType(BenchmarkState state) {
+		return state.beanFactory.getBean(SingletonBean.class);
+	}
+
+	@Benchmark
+	public Object prototypeByName(BenchmarkState state) {
+		return state.beanFactory.getBean("prototype");
+	}
+
+	@Benchmark
+	public Object autowiredPrototypeByType(BenchmarkState state) {
+		return state.beanFactory.getBean(AutowiredPrototypeBean.class);
+	}
+
+	@Benchmark
+	public String[] beanNamesForType(BenchmarkState state) {
+		return state.beanFactory.getBeanNamesForType(SingletonBean.class);
+	}
+
+
+	public static class FillerBean {
+	}
+
+
+	public static class SingletonBean {
+	}
+
+
+	public static class PrototypeBean {
+
+		private String name;
+
+		private SingletonBean singleton;
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setSingleton(SingletonBean singleton) {
+			this.singleton = singleton;
+		}
+
+		public SingletonBean getSingleton() {
+			return this.singleton;
+		}
+	}
+
+
+	public static class AutowiredPrototypeBean {
+
+		private final SingletonBean singleton;
+
+		public AutowiredPrototypeBean(SingletonBean singleton) {
+			this.singleton = singleton;
+		}
+
+		public SingletonBean getSingleton() {
+			return this.singleton;
+		}
+	}
+
+}
@@ -36,7 +36,10 @@ import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.core.io.support.SpringFactoriesLoader;
 import org.springframework.lang.Nullable;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentLruCache;
+import org.springframework.util.ConcurrentLruCacheRegistry;
 import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ConcurrentReferenceHashMap.ReferenceType;
 import org.springframework.util.StringUtils;
 
 /**
@@ -110,18 +113,29 @@ public final class CachedIntrospectionResults {
 			Collections.newSetFromMap(new ConcurrentHashMap<>(16));
 
 	/**
-	 * Map keyed by Class containing CachedIntrospectionResults, strongly held.
+	 * The name that the class caches are registered under with the
+	 * {@link ConcurrentLruCacheRegistry}: {@value}.
+	 */
+	static final String CACHE_NAME = "beanIntrospection";
+
+	/**
+	 * The default maximum number of classes in each of the class caches.
+	 */
+	static final int CACHE_LIMIT = 16384;
+
+	/**
+	 * Cache keyed by Class containing CachedIntrospectionResults, strongly held.
 	 * This variant is being used for cache-safe bean classes.
 	 */
-	static final ConcurrentMap<Class<?>, CachedIntrospectionResults> strongClassCache =
-			new ConcurrentHashMap<>(64);
+	static final ConcurrentLruCache<Class<?>, CachedIntrospectionResults> strongClassCache =
+			ConcurrentLruCacheRegistry.register(CACHE_NAME, createClassCache(null));
 
 	/**
-	 * Map keyed by Class containing CachedIntrospectionResults, softly held.
+	 * Cache keyed by Class containing CachedIntrospectionResults, softly held.
 	 * This variant is being used for non-cache-safe bean classes.
 	 */
-	static final ConcurrentMap<Class<?>, CachedIntrospectionResults> softClassCache =
-			new ConcurrentReferenceHashMap<>(64);
+	static final ConcurrentLruCache<Class<?>, CachedIntrospectionResults> softClassCache =
+			ConcurrentLruCacheRegistry.register(CACHE_NAME, createClassCache(ReferenceType.SOFT));
 
 
 	/**
@@ -151,12 +165,22 @@ public final class CachedIntrospectionResults {
 	public static void clearClassLoader(@Nullable ClassLoader classLoader) {
 		acceptedClassLoaders.removeIf(registeredLoader ->
 				isUnderneathClassLoader(registeredLoader, classLoader));
-		strongClassCache.keySet().removeIf(beanClass ->
+		strongClassCache.removeIf(beanClass ->
 				isUnderneathClassLoader(beanClass.getClassLoader(), classLoader));
-		softClassCache.keySet().removeIf(beanClass ->
+		softClassCache.removeIf(beanClass ->
 				isUnderneathClassLoader(beanClass.getClassLoader(), classLoader));
 	}
 
+	private static ConcurrentLruCache<Class<?>, CachedIntrospectionResults> createClassCache(
+			@Nullable ReferenceType referenceType) {
+
+		ConcurrentLruCache<Class<?>, CachedIntrospectionResults> cache =
+				new ConcurrentLruCache<>(CACHE_LIMIT, null, referenceType);
+		// BeanInfo plus an estimated 256 bytes per (generic type aware) property descriptor
+		cache.setWeigher((beanClass, results) -> 512 + 256 * results.propertyDescriptorCache.size());
+		return cache;
+	}
+
 	/**
 	 * Create CachedIntrospectionResults for the given bean class.
 	 * @param beanClass the bean class to analyze
@@ -164,17 +188,17 @@ public final class CachedIntrospectionResults {
 	 * @throws BeansException in case of introspection failure
 	 */
 	static CachedIntrospectionResults forClass(Class<?> beanClass) throws BeansException {
-		CachedIntrospectionResults results = strongClassCache.get(beanClass);
+		CachedIntrospectionResults results = strongClassCache.getIfPresent(beanClass);
 		if (results != null) {
 			return results;
 		}
-		results = softClassCache.get(beanClass);
+		results = softClassCache.getIfPresent(beanClass);
 		if (results != null) {
 			return results;
 		}
 
 		results = new CachedIntrospectionResults(beanClass);
-		ConcurrentMap<Class<?>, CachedIntrospectionResults> classCacheToUse;
+		ConcurrentLruCache<Class<?>, CachedIntrospectionResults> classCacheToUse;
 
 		if (ClassUtils.isCacheSafe(beanClass, CachedIntrospectionResults.class.getClassLoader()) ||
 				isClassLoaderAccepted(beanClass.getClassLoader())) {
@@ -51,6 +51,7 @@ import org.springframework.beans.factory.UnsatisfiedDependencyException;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.beans.factory.config.DependencyDescriptor;
 import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessorAdapter;
+import org.springframework.beans.factory.support.GeneratedAccessors;
 import org.springframework.beans.factory.support.LookupOverride;
 import org.springframework.beans.factory.support.MergedBeanDefinitionPostProcessor;
 import org.springframework.beans.factory.support.RootBeanDefinition;
@@ -141,6 +142,8 @@ public class AutowiredAnnotationBeanPostProcessor extends InstantiationAwareBean
 
 	private int order = Ordered.LOWEST_PRECEDENCE - 2;
 
+	private boolean useGeneratedAccessors = GeneratedAccessors.isEnabledByDefault();
+
 	@Nullable
 	private ConfigurableListableBeanFactory beanFactory;
 
@@ -226,6 +229,18 @@ public class AutowiredAnnotationBeanPostProcessor extends InstantiationAwareBean
 		this.order = order;
 	}
 
+	/**
+	 * Set whether to inject into public fields and methods of public classes
+	 * through {@link GeneratedAccessors generated accessors} instead of reflection,
+	 * falling back to reflection for any other field or method.
+	 * <p>Default is "false", unless the
+	 * {@link GeneratedAccessors#GENERATED_ACCESSORS_PROPERTY_NAME} property is set.
+	 * @since 5.2.6
+	 */
+	public void setUseGeneratedAccessors(boolean useGeneratedAccessors) {
+		this.useGeneratedAccessors = useGeneratedAccessors;
+	}
+
 	@Override
 	public int getOrder() {
 		return this.order;
@@ -664,8 +679,15 @@ public class AutowiredAnnotationBeanPostProcessor extends InstantiationAwareBean
 				}
 			}
 			if (value != null) {
-				ReflectionUtils.makeAccessible(field);
-				field.set(bean, value);
+				GeneratedAccessors.FieldAccessor accessor =
+						(useGeneratedAccessors ? GeneratedAccessors.forField(field) : null);
+				if (accessor != null && ClassUtils.isAssignableValue(field.getType(), value)) {
+					accessor.set(bean, value);
+				}
+				else {
+					ReflectionUtils.makeAccessible(field);
+					field.set(bean, value);
+				}
 			}
 		}
 	}
@@ -750,6 +772,12 @@ public class AutowiredAnnotationBeanPostProcessor extends InstantiationAwareBean
 				}
 			}
 			if (arguments != null) {
+				GeneratedAccessors.MethodAccessor accessor =
+						(useGeneratedAccessors ? GeneratedAccessors.forMethod(method) : null);
+				if (accessor != null && GeneratedAccessors.argumentsMatch(method.getParameterTypes(), arguments)) {
+					accessor.invoke(bean, arguments);
+					return;
+				}
 				try {
 					ReflectionUtils.makeAccessible(method);
 					method.invoke(bean, arguments);
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Index of bean definition names by the types in the hierarchy of their bean
+ * class (the class itself, its superclasses and all of its interfaces), for
+ * narrowing down by-type lookups in {@link DefaultListableBeanFactory} before
+ * its configuration is frozen.
+ *
+ * <p>Only bean definitions whose type match is fully determined by their bean
+ * class get indexed; for all other bean definitions (e.g. factory methods, factory
+ * beans, unresolved bean classes, or singleton instances of a different class),
+ * the factory needs to check the type match one by one. The index is therefore
+ * a pre-filter: it returns the candidate names that a type match needs to be
+ * checked for, in registration order, and the factory applies its regular type
+ * matching (including generics) to those candidates only.
+ *
+ * <p>The factory keeps the index up to date incrementally: registered and removed
+ * bean definitions, alias changes, merged bean definition changes as well as
+ * singleton registrations move the affected names back to the unindexed names.
+ * Unindexed names get re-evaluated on every lookup, so bean definitions get
+ * indexed as soon as their bean class has been resolved.
+ *
+ * @author agent
+ * @since 5.2.6
+ * @see DefaultListableBeanFactory#getBeanNamesForType(Class, boolean, boolean)
+ */
+final class BeanDefinitionTypeIndex {
+
+	/** Registration sequence per bean definition name, in the order of bean definition names. */
+	private final Map<String, Long> sequences = new HashMap<>(256);
+
+	/** Indexed bean definition names per type in the hierarchy of their bean class. */
+	private final Map<Class<?>, Set<String>> namesByType = new HashMap<>(256);
+
+	/** Bean class per indexed bean definition name. */
+	private final Map<String, Class<?>> indexedTypes = new HashMap<>(256);
+
+	/** Bean definition names to check one by one, including names not evaluated yet. */
+	private final Set<String> unindexedNames = new LinkedHashSet<>();
+
+	private long nextSequence;
+
+	/** Number of modifications, for detecting changes during an evaluation. */
+	private long modCount;
+
+
+	/**
+	 * Register the given bean definition name, keeping its position
+	 * in case of an overriding bean definition.
+	 * @param beanName the name of the bean definition
+	 */
+	public synchronized void register(String beanName) {
+		if (!this.sequences.containsKey(beanName)) {
+			this.sequences.put(beanName, this.nextSequence++);
+		}
+		unindex(beanName);
+	}
+
+	/**
+	 * Remove the given bean definition name from the index.
+	 * @param beanName the name of the bean definition
+	 */
+	public synchronized void remove(String beanName) {
+		if (this.sequences.remove(beanName) != null) {
+			unindex(beanName);
+			this.unindexedNames.remove(beanName);
+		}
+	}
+
+	/**
+	 * Re-evaluate the given bean definition name on the next lookup,
+	 * e.g. after a change of its merged bean definition.
+	 * @param beanName the name of the bean definition (ignored if not registered)
+	 */
+	public synchronized void invalidate(String beanName) {
+		if (this.sequences.containsKey(beanName)) {
+			unindex(beanName);
+		}
+	}
+
+	/**
+	 * Re-evaluate all bean definition names on the next lookup.
+	 */
+	public synchronized void invalidateAll() {
+		this.namesByType.clear();
+		this.indexedTypes.clear();
+		this.unindexedNames.addAll(this.sequences.keySet());
+		this.modCount++;
+	}
+
+	/**
+	 * Determine the names of the bean definitions that may match the given type,
+	 * in registration order: indexed bean definitions with the given type in the
+	 * hierarchy of their bean class, plus all bean definitions that are not indexed.
+	 * @param type the raw type to match
+	 * @param indexableType the function to determine the bean class to index a
+	 * bean definition under, returning {@code null} if it cannot be indexed (yet)
+	 * @return the candidate names to check the full type match for
+	 */
+	public List<String> getCandidateNames(Class<?> type, Function<String, Class<?>> indexableType) {
+		evaluateUnindexedNames(indexableType);
+		synchronized (this) {
+			Set<String> indexedNames = this.namesByType.getOrDefault(type, Collections.emptySet());
+			List<String> candidates = new ArrayList<>(indexedNames.size() + this.unindexedNames.size());
+			candidates.addAll(indexedNames);
+			candidates.addAll(this.unindexedNames);
+			candidates.sort(Comparator.comparing(this.sequences::get));
+			return candidates;
+		}
+	}
+
+	/**
+	 * Evaluate the unindexed names outside of the index lock, since the given
+	 * function may need to merge bean definitions. The results are discarded
+	 * if the index has been modified in the meantime.
+	 */
+	private void evaluateUnindexedNames(Function<String, Class<?>> indexableType) {
+		List<String> unindexed;
+		long expectedModCount;
+		synchronized (this) {
+			if (this.unindexedNames.isEmpty()) {
+				return;
+			}
+			unindexed = new ArrayList<>(this.unindexedNames);
+			expectedModCount = this.modCount;
+		}
+		Map<String, Class<?>> resolved = new LinkedHashMap<>();
+		for (String beanName : unindexed) {
+			Class<?> beanType = indexableType.apply(beanName);
+			if (beanType != null) {
+				resolved.put(beanName, beanType);
+			}
+		}
+		if (!resolved.isEmpty()) {
+			synchronized (this) {
+				if (this.modCount == expectedModCount) {
+					resolved.forEach((beanName, beanType) -> {
+						this.unindexedNames.remove(beanName);
+						addToIndex(beanName, beanType);
+					});
+				}
+			}
+		}
+	}
+
+	private void unindex(String beanName) {
+		removeFromIndex(beanName);
+		this.unindexedNames.add(beanName);
+		this.modCount++;
+	}
+
+	private void addToIndex(String beanName, Class<?> beanType) {
+		this.indexedTypes.put(beanName, beanType);
+		for (Class<?> type : getTypeHierarchy(beanType)) {
+			this.namesByType.computeIfAbsent(type, key -> new LinkedHashSet<>()).add(beanName);
+		}
+	}
+
+	private void removeFromIndex(String beanName) {
+		Class<?> beanType = this.indexedTypes.remove(beanName);
+		if (beanType != null) {
+			for (Class<?> type : getTypeHierarchy(beanType)) {
+				Set<String> names = this.namesByType.get(type);
+				if (names != null) {
+					names.remove(beanName);
+					if (names.isEmpty()) {
+						this.namesByType.remove(type);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Return the given class along with all of its superclasses and all
+	 * interfaces implemented by it, including inherited ones.
+	 */
+	private static Set<Class<?>> getTypeHierarchy(Class<?> beanType) {
+		Set<Class<?>> types = new LinkedHashSet<>();
+		addTypeHierarchy(beanType, types);
+		types.add(Object.class);
+		return types;
+	}
+
+	private static void addTypeHierarchy(@Nullable Class<?> type, Set<Class<?>> types) {
+		if (type != null && types.add(type)) {
+			addTypeHierarchy(type.getSuperclass(), types);
+			for (Class<?> ifc : type.getInterfaces()) {
+				addTypeHierarchy(ifc, types);
+			}
+		}
+	}
+
+}
@@ -40,6 +40,9 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
@@ -168,12 +171,12 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	/**  这个东西就是所谓的bean工厂 key代表bean名称  BeanDefinition就是Bean的属性信息 */
 	private final Map<String, BeanDefinition> beanDefinitionMap = new ConcurrentHashMap<>(256);
 
-	/** Map of singleton and non-singleton bean names, keyed by dependency type. */
+	/** Map of singleton and non-singleton bean names, keyed by dependency type (Class or ResolvableType). */
 	/** 单例和非单例 bean的映射 */
-	private final Map<Class<?>, String[]> allBeanNamesByType = new ConcurrentHashMap<>(64);
+	private final Map<Object, BeanNamesForType> allBeanNamesByType = new ConcurrentHashMap<>(64);
 
-	/** Map of singleton-only bean names, keyed by dependency type. */
-	private final Map<Class<?>, String[]> singletonBeanNamesByType = new ConcurrentHashMap<>(64);
+	/** Map of singleton-only bean names, keyed by dependency type (Class or ResolvableType). */
+	private final Map<Object, BeanNamesForType> singletonBeanNamesByType = new ConcurrentHashMap<>(64);
 
 	/** List of bean definition names, in registration order. */
 	/** 所有的bean的名称 */
@@ -182,6 +185,9 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	/** List of names of manually registered singletons, in registration order. */
 	private volatile Set<String> manualSingletonNames = new LinkedHashSet<>(16);
 
+	/** Index of bean definition names by type, for by-type lookups which are not cached. */
+	private final BeanDefinitionTypeIndex beanDefinitionTypeIndex = new BeanDefinitionTypeIndex();
+
 	/** Cached array of bean definition names in case of frozen configuration. */
 	@Nullable
 	private volatile String[] frozenBeanDefinitionNames;
@@ -189,6 +195,10 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	/** Whether bean definition metadata may be cached for all beans. */
 	private volatile boolean configurationFrozen = false;
 
+	/** Optional pool for pre-instantiating singletons in parallel. */
+	@Nullable
+	private ForkJoinPool bootstrapPool;
+
 
 	/**
 	 * Create a new DefaultListableBeanFactory.
@@ -292,6 +302,50 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		return this.dependencyComparator;
 	}
 
+	/**
+	 * Specify a {@link ForkJoinPool} for pre-instantiating non-lazy singletons in parallel.
+	 * <p>Default is none, creating all singletons one after another on the bootstrap
+	 * thread. If specified, {@link #preInstantiateSingletons()} splits the singletons
+	 * into subgraphs which are independent according to their declared dependencies
+	 * (depends-on, factory beans, bean references in constructor arguments and property
+	 * values) and creates those subgraphs concurrently on the given pool. Dependencies
+	 * that only show up during creation, e.g. through autowiring, are coordinated
+	 * through per-bean creation locks, with circular references between threads
+	 * being resolved the same way as on a single thread.
+	 * <p>Setting a pool switches on {@link #setConcurrentSingletonCreation concurrent
+	 * singleton creation} for the entire lifecycle of this factory, so it needs to be
+	 * specified before any singleton gets created.
+	 * @since 5.2.6
+	 * @see #setConcurrentSingletonCreation
+	 */
+	public void setBootstrapPool(@Nullable ForkJoinPool bootstrapPool) {
+		if (bootstrapPool != null) {
+			setConcurrentSingletonCreation(true);
+		}
+		this.bootstrapPool = bootstrapPool;
+	}
+
+	/**
+	 * Return the pool for pre-instantiating singletons in parallel, if any.
+	 * @since 5.2.6
+	 */
+	@Nullable
+	public ForkJoinPool getBootstrapPool() {
+		return this.bootstrapPool;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>Concurrent singleton creation cannot be switched off while a
+	 * {@link #setBootstrapPool bootstrap pool} is specified.
+	 */
+	@Override
+	public void setConcurrentSingletonCreation(boolean concurrentSingletonCreation) {
+		Assert.state(concurrentSingletonCreation || this.bootstrapPool == null,
+				"Concurrent singleton creation required for parallel pre-instantiation on a bootstrap pool");
+		super.setConcurrentSingletonCreation(concurrentSingletonCreation);
+	}
+
 	/**
 	 * Set a custom autowire candidate resolver for this BeanFactory to use
 	 * when deciding whether a bean definition should be considered as a
@@ -329,6 +383,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 			this.allowBeanDefinitionOverriding = otherListableFactory.allowBeanDefinitionOverriding;
 			this.allowEagerClassLoading = otherListableFactory.allowEagerClassLoading;
 			this.dependencyComparator = otherListableFactory.dependencyComparator;
+			setBootstrapPool(otherListableFactory.bootstrapPool);
 			// A clone of the AutowireCandidateResolver since it is potentially BeanFactoryAware...
 			setAutowireCandidateResolver(
 					BeanUtils.instantiateClass(otherListableFactory.getAutowireCandidateResolver().getClass()));
@@ -483,6 +538,9 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		if (resolved != null && !type.hasGenerics()) {
 			return getBeanNamesForType(resolved, includeNonSingletons, allowEagerInit);
 		}
+		else if (isConfigurationFrozen() && allowEagerInit && isCacheSafe(type)) {
+			return getCachedBeanNamesForType(type, type, includeNonSingletons);
+		}
 		else {
 			return doGetBeanNamesForType(type, includeNonSingletons, allowEagerInit);
 		}
@@ -495,27 +553,135 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 
 	@Override
 	public String[] getBeanNamesForType(@Nullable Class<?> type, boolean includeNonSingletons, boolean allowEagerInit) {
-		if (!isConfigurationFrozen() || type == null || !allowEagerInit) {
+		if (!isConfigurationFrozen() || type == null || !allowEagerInit ||
+				!ClassUtils.isCacheSafe(type, getBeanClassLoader())) {
 			return doGetBeanNamesForType(ResolvableType.forRawClass(type), includeNonSingletons, allowEagerInit);
 		}
-		Map<Class<?>, String[]> cache =
+		return getCachedBeanNamesForType(type, ResolvableType.forRawClass(type), includeNonSingletons);
+	}
+
+	/**
+	 * Determine the bean names matching the given type through the by-type cache,
+	 * only checking bean definitions and manual singletons which have been
+	 * registered since the cached result was determined.
+	 * <p>Only to be used once the configuration is frozen: before, bean types may
+	 * still change without any registration, e.g. through factory post-processors
+	 * modifying bean definitions in place or through singletons refining their
+	 * predicted type on creation.
+	 * <p>Bean names are only ever appended between invalidations of the cache,
+	 * so a cached result can be extended with the matches among the newly
+	 * registered names, keeping the overall registration order.
+	 * @param cacheKey the Class or ResolvableType to cache the result for
+	 * @param type the type to match
+	 * @param includeNonSingletons whether to include prototype or scoped beans too
+	 * @see #clearByTypeCache()
+	 */
+	private String[] getCachedBeanNamesForType(Object cacheKey, ResolvableType type, boolean includeNonSingletons) {
+		Map<Object, BeanNamesForType> cache =
 				(includeNonSingletons ? this.allBeanNamesByType : this.singletonBeanNamesByType);
-		String[] resolvedBeanNames = cache.get(type);
-		if (resolvedBeanNames != null) {
-			return resolvedBeanNames;
-		}
-		resolvedBeanNames = doGetBeanNamesForType(ResolvableType.forRawClass(type), includeNonSingletons, true);
-		if (ClassUtils.isCacheSafe(type, getBeanClassLoader())) {
-			cache.put(type, resolvedBeanNames);
+		BeanNamesForType cached = cache.get(cacheKey);
+		if (cached != null && cached.definitionCount == this.beanDefinitionNames.size() &&
+				cached.singletonCount == this.manualSingletonNames.size()) {
+			return cached.beanNames;
 		}
-		return resolvedBeanNames;
+		BeanNamesForType resolved = collectBeanNamesForType(type, includeNonSingletons, true, cached, null);
+		cache.put(cacheKey, resolved);
+		return resolved.beanNames;
 	}
 
+	/**
+	 * Determine the bean names matching the given type without the by-type cache,
+	 * only checking the bean definitions that the {@link BeanDefinitionTypeIndex}
+	 * considers as candidates for the raw type, unless instantiation-aware
+	 * post-processors may predict bean types beyond their bean class.
+	 * @param type the type to match
+	 * @param includeNonSingletons whether to include prototype or scoped beans too
+	 * @param allowEagerInit whether to initialize lazy-init singletons and
+	 * objects created by FactoryBeans (or by factory methods with a
+	 * "factory-bean" reference) for the type check
+	 */
 	private String[] doGetBeanNamesForType(ResolvableType type, boolean includeNonSingletons, boolean allowEagerInit) {
-		List<String> result = new ArrayList<>();
+		Class<?> rawType = type.resolve();
+		if (rawType == null || hasInstantiationAwareBeanPostProcessors()) {
+			return collectBeanNamesForType(type, includeNonSingletons, allowEagerInit, null, null).beanNames;
+		}
+		List<String> candidateNames =
+				this.beanDefinitionTypeIndex.getCandidateNames(rawType, this::getIndexableBeanType);
+		return collectBeanNamesForType(
+				type, includeNonSingletons, allowEagerInit, null, candidateNames).beanNames;
+	}
 
-		// Check all bean definitions.
-		for (String beanName : this.beanDefinitionNames) {
+	/**
+	 * Determine the class to index the given bean definition under in the
+	 * {@link BeanDefinitionTypeIndex}: the bean class, provided that it fully
+	 * determines the type match without instantiation-aware post-processors.
+	 * @param beanName the name of the bean definition
+	 * @return the bean class, or {@code null} if the bean definition cannot be
+	 * indexed (yet), e.g. for factory methods, FactoryBeans, unresolved bean
+	 * classes or singleton instances of a different class
+	 */
+	@Nullable
+	private Class<?> getIndexableBeanType(String beanName) {
+		if (isAlias(beanName)) {
+			return null;
+		}
+		RootBeanDefinition mbd;
+		try {
+			mbd = getMergedLocalBeanDefinition(beanName);
+		}
+		catch (BeansException ex) {
+			return null;
+		}
+		if (mbd.isAbstract() || !mbd.hasBeanClass() || mbd.getFactoryMethodName() != null ||
+				mbd.getFactoryBeanName() != null || mbd.getDecoratedDefinition() != null ||
+				mbd.getInstanceSupplier() != null || mbd.hasMethodOverrides()) {
+			return null;
+		}
+		Class<?> beanClass = mbd.getBeanClass();
+		Class<?> targetType = mbd.getTargetType();
+		if (FactoryBean.class.isAssignableFrom(beanClass) || (targetType != null && targetType != beanClass)) {
+			return null;
+		}
+		Object beanInstance = getSingleton(beanName, false);
+		if (beanInstance != null && beanInstance.getClass() != beanClass && beanInstance.getClass() != NullBean.class) {
+			return null;
+		}
+		return beanClass;
+	}
+
+	/**
+	 * Collect the bean names matching the given type.
+	 * @param type the type to match
+	 * @param includeNonSingletons whether to include prototype or scoped beans too
+	 * @param allowEagerInit whether to allow eager initialization for the type check
+	 * @param previous a previous result to extend with the bean definitions and
+	 * manual singletons registered since, if any
+	 * @param candidateNames the bean definition names to check (in registration
+	 * order), or {@code null} to check all bean definitions not covered by the
+	 * previous result
+	 */
+	private BeanNamesForType collectBeanNamesForType(ResolvableType type, boolean includeNonSingletons,
+			boolean allowEagerInit, @Nullable BeanNamesForType previous, @Nullable List<String> candidateNames) {
+
+		List<String> definitionMatches = new ArrayList<>();
+		List<String> singletonMatches = new ArrayList<>();
+		int definitionOffset = 0;
+		int singletonOffset = 0;
+		if (previous != null) {
+			definitionMatches.addAll(Arrays.asList(previous.definitionMatches));
+			singletonMatches.addAll(Arrays.asList(previous.singletonMatches));
+			definitionOffset = previous.definitionCount;
+			singletonOffset = previous.singletonCount;
+		}
+
+		// Check all bean definitions (or the given candidates among them).
+		List<String> definitionNames = this.beanDefinitionNames;
+		int definitionCount = definitionNames.size();
+		List<String> namesToCheck = (candidateNames != null ? candidateNames : definitionNames);
+		int checkOffset = (candidateNames != null ? 0 : definitionOffset);
+		int checkCount = (candidateNames != null ? candidateNames.size() : definitionCount);
+		for (int i = checkOffset; i < checkCount; i++) {
+			String beanName = namesToCheck.get(i);
 			// Only consider bean as eligible if the bean name
 			// is not defined as alias for some other bean.
 			if (!isAlias(beanName)) {
@@ -547,7 +713,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 							}
 						}
 						if (matchFound) {
-							result.add(beanName);
+							definitionMatches.add(beanName);
 						}
 					}
 				}
@@ -567,12 +733,17 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 
 
 		// Check manually registered singletons too.
-		for (String beanName : this.manualSingletonNames) {
+		Set<String> singletonNames = this.manualSingletonNames;
+		int singletonCount = 0;
+		for (String beanName : singletonNames) {
+			if (singletonCount++ < singletonOffset) {
+				continue;
+			}
 			try {
 				// In case of FactoryBean, match object created by FactoryBean.
 				if (isFactoryBean(beanName)) {
 					if ((includeNonSingletons || isSingleton(beanName)) && isTypeMatch(beanName, type)) {
-						result.add(beanName);
+						singletonMatches.add(beanName);
 						// Match found for this bean: do not match FactoryBean itself anymore.
 						continue;
 					}
@@ -581,7 +752,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 				}
 				// Match raw bean instance (might be raw FactoryBean).
 				if (isTypeMatch(beanName, type)) {
-					result.add(beanName);
+					singletonMatches.add(beanName);
 				}
 			}
 			catch (NoSuchBeanDefinitionException ex) {
@@ -590,7 +761,21 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 			}
 		}
 
-		return StringUtils.toStringArray(result);
+		return new BeanNamesForType(StringUtils.toStringArray(definitionMatches), definitionCount,
+				StringUtils.toStringArray(singletonMatches), singletonCount);
+	}
+
+	private boolean isCacheSafe(ResolvableType type) {
+		Class<?> resolved = type.resolve();
+		if (resolved == null || !ClassUtils.isCacheSafe(resolved, getBeanClassLoader())) {
+			return false;
+		}
+		for (ResolvableType generic : type.getGenerics()) {
+			if (!isCacheSafe(generic)) {
+				return false;
+			}
+		}
+		return true;
 	}
 
 	private boolean isSingleton(String beanName, RootBeanDefinition mbd, @Nullable BeanDefinitionHolder dbd) {
@@ -823,9 +1008,16 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		return iterator;
 	}
 
+	@Override
+	protected void clearMergedBeanDefinition(String beanName) {
+		super.clearMergedBeanDefinition(beanName);
+		this.beanDefinitionTypeIndex.invalidate(beanName);
+	}
+
 	@Override
 	public void clearMetadataCache() {
 		super.clearMetadataCache();
+		this.beanDefinitionTypeIndex.invalidateAll();
 		clearByTypeCache();
 	}
 
@@ -862,34 +1054,14 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		List<String> beanNames = new ArrayList<>(this.beanDefinitionNames);
 
 		// Trigger initialization of all non-lazy singleton beans...
-		//遍历所有的beanDefinition 根据名字 beanDefinition
-		for (String beanName : beanNames) {
-			RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
-			//如果是非抽象的 非单例的 非懒加载的
-			if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
-				if (isFactoryBean(beanName)) {
-					Object bean = getBean(FACTORY_BEAN_PREFIX + beanName);
-					if (bean instanceof FactoryBean) {
-						final FactoryBean<?> factory = (FactoryBean<?>) bean;
-						boolean isEagerInit;
-						if (System.getSecurityManager() != null && factory instanceof SmartFactoryBean) {
-							isEagerInit = AccessController.doPrivileged((PrivilegedAction<Boolean>)
-											((SmartFactoryBean<?>) factory)::isEagerInit,
-									getAccessControlContext());
-						}
-						else {
-							isEagerInit = (factory instanceof SmartFactoryBean &&
-									((SmartFactoryBean<?>) factory).isEagerInit());
-						}
-						if (isEagerInit) {
-							getBean(beanName);
-						}
-					}
-				}
-				else {
-					//实例化普通的bean
-					getBean(beanName);
-				}
+		ForkJoinPool bootstrapPool = this.bootstrapPool;
+		if (bootstrapPool != null) {
+			preInstantiateSingletons(beanNames, bootstrapPool);
+		}
+		else {
+			//遍历所有的beanDefinition 根据名字 beanDefinition
+			for (String beanName : beanNames) {
+				preInstantiateSingleton(beanName);
 			}
 		}
 
@@ -911,6 +1083,106 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		}
 	}
 
+	/**
+	 * Pre-instantiate the given singleton if it is eligible for eager initialization:
+	 * that is, a non-abstract, non-lazy singleton, or a {@link SmartFactoryBean}
+	 * which requests eager initialization of its object.
+	 * @param beanName the name of the bean
+	 */
+	private void preInstantiateSingleton(String beanName) {
+		RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
+		//如果是非抽象的 非单例的 非懒加载的
+		if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
+			if (isFactoryBean(beanName)) {
+				Object bean = getBean(FACTORY_BEAN_PREFIX + beanName);
+				if (bean instanceof FactoryBean) {
+					final FactoryBean<?> factory = (FactoryBean<?>) bean;
+					boolean isEagerInit;
+					if (System.getSecurityManager() != null && factory instanceof SmartFactoryBean) {
+						isEagerInit = AccessController.doPrivileged((PrivilegedAction<Boolean>)
+										((SmartFactoryBean<?>) factory)::isEagerInit,
+								getAccessControlContext());
+					}
+					else {
+						isEagerInit = (factory instanceof SmartFactoryBean &&
+								((SmartFactoryBean<?>) factory).isEagerInit());
+					}
+					if (isEagerInit) {
+						getBean(beanName);
+					}
+				}
+			}
+			else {
+				//实例化普通的bean
+				getBean(beanName);
+			}
+		}
+	}
+
+	/**
+	 * Pre-instantiate the given singletons in parallel, creating subgraphs of beans
+	 * which do not declare dependencies on each other concurrently on the given pool.
+	 * <p>If the creation of any singleton fails, the exception for the first failed
+	 * subgraph in registration order gets rethrown once all subgraphs completed.
+	 * @param beanNames the names of all bean definitions, in registration order
+	 * @param bootstrapPool the pool to create the singletons on
+	 * @see #setBootstrapPool
+	 */
+	private void preInstantiateSingletons(List<String> beanNames, ForkJoinPool bootstrapPool) {
+		SingletonDependencyGraph graph = new SingletonDependencyGraph(this);
+		List<String> eagerBeanNames = new ArrayList<>(beanNames.size());
+		for (String beanName : beanNames) {
+			RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
+			graph.addBean(beanName, bd);
+			if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
+				eagerBeanNames.add(beanName);
+			}
+		}
+		List<List<String>> subgraphs = graph.getSubgraphs(eagerBeanNames);
+		if (logger.isDebugEnabled()) {
+			logger.debug("Pre-instantiating " + eagerBeanNames.size() + " singletons in " +
+					subgraphs.size() + " independent subgraphs on " + bootstrapPool);
+		}
+
+		ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+		List<ForkJoinTask<?>> tasks = new ArrayList<>(subgraphs.size());
+		for (List<String> subgraph : subgraphs) {
+			tasks.add(bootstrapPool.submit(() -> {
+				Thread currentThread = Thread.currentThread();
+				ClassLoader previousClassLoader = currentThread.getContextClassLoader();
+				currentThread.setContextClassLoader(classLoader);
+				try {
+					for (String beanName : subgraph) {
+						preInstantiateSingleton(beanName);
+					}
+				}
+				finally {
+					currentThread.setContextClassLoader(previousClassLoader);
+				}
+			}));
+		}
+		Throwable failure = null;
+		for (ForkJoinTask<?> task : tasks) {
+			try {
+				task.get();
+			}
+			catch (ExecutionException ex) {
+				if (failure == null) {
+					failure = ex.getCause();
+				}
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted during parallel pre-instantiation of singletons", ex);
+			}
+		}
+		if (failure instanceof RuntimeException) {
+			throw (RuntimeException) failure;
+		}
+		if (failure instanceof Error) {
+			throw (Error) failure;
+		}
+	}
 
 	//---------------------------------------------------------------------
 	// Implementation of BeanDefinitionRegistry interface
@@ -983,6 +1255,8 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 			this.frozenBeanDefinitionNames = null;
 		}
 
+		this.beanDefinitionTypeIndex.register(beanName);
+
 		if (existingDefinition != null || containsSingleton(beanName)) {
 			resetBeanDefinition(beanName);
 		}
@@ -1016,6 +1290,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 			this.beanDefinitionNames.remove(beanName);
 		}
 		this.frozenBeanDefinitionNames = null;
+		this.beanDefinitionTypeIndex.remove(beanName);
 
 		resetBeanDefinition(beanName);
 	}
@@ -1068,17 +1343,29 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		return isAllowBeanDefinitionOverriding();
 	}
 
+	@Override
+	protected void addSingleton(String beanName, Object singletonObject) {
+		super.addSingleton(beanName, singletonObject);
+		// Instance for a bean definition: might change its type match.
+		this.beanDefinitionTypeIndex.invalidate(beanName);
+	}
+
 	@Override
 	public void registerSingleton(String beanName, Object singletonObject) throws IllegalStateException {
 		super.registerSingleton(beanName, singletonObject);
 		updateManualSingletonNames(set -> set.add(beanName), set -> !this.beanDefinitionMap.containsKey(beanName));
-		clearByTypeCache();
+		if (this.beanDefinitionMap.containsKey(beanName)) {
+			// Instance for a bean definition: might change its type match.
+			// Otherwise, the by-type cache picks up the newly appended singleton name on demand.
+			clearByTypeCache();
+		}
 	}
 
 	@Override
 	public void destroySingletons() {
 		super.destroySingletons();
 		updateManualSingletonNames(Set::clear, set -> !set.isEmpty());
+		this.beanDefinitionTypeIndex.invalidateAll();
 		clearByTypeCache();
 	}
 
@@ -1086,6 +1373,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	public void destroySingleton(String beanName) {
 		super.destroySingleton(beanName);
 		removeManualSingletonName(beanName);
+		this.beanDefinitionTypeIndex.invalidate(beanName);
 		clearByTypeCache();
 	}
 
@@ -1118,6 +1406,31 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		}
 	}
 
+	@Override
+	public void registerAlias(String name, String alias) {
+		super.registerAlias(name, alias);
+		if (this.beanDefinitionMap.containsKey(alias)) {
+			this.beanDefinitionTypeIndex.invalidate(alias);
+			clearByTypeCache();
+		}
+	}
+
+	@Override
+	public void removeAlias(String alias) {
+		super.removeAlias(alias);
+		if (this.beanDefinitionMap.containsKey(alias)) {
+			this.beanDefinitionTypeIndex.invalidate(alias);
+			clearByTypeCache();
+		}
+	}
+
+	@Override
+	public void addBeanPostProcessor(BeanPostProcessor beanPostProcessor) {
+		super.addBeanPostProcessor(beanPostProcessor);
+		// Post-processors may predict different bean types
+		clearByTypeCache();
+	}
+
 	/**
 	 * Remove any assumptions about by-type mappings.
 	 */
@@ -1796,6 +2109,33 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	}
 
 
+	/**
+	 * Cached by-type lookup result, along with the number of bean definition
+	 * names and manual singleton names that it covers.
+	 */
+	private static final class BeanNamesForType {
+
+		final String[] definitionMatches;
+
+		final int definitionCount;
+
+		final String[] singletonMatches;
+
+		final int singletonCount;
+
+		final String[] beanNames;
+
+		BeanNamesForType(String[] definitionMatches, int definitionCount, String[] singletonMatches, int singletonCount) {
+			this.definitionMatches = definitionMatches;
+			this.definitionCount = definitionCount;
+			this.singletonMatches = singletonMatches;
+			this.singletonCount = singletonCount;
+			this.beanNames = (singletonMatches.length == 0 ? definitionMatches :
+					StringUtils.concatenateStringArrays(definitionMatches, singletonMatches));
+		}
+	}
+
+
 	/**
 	 * Minimal id reference to the factory.
 	 * Resolved to the actual factory instance on deserialization.
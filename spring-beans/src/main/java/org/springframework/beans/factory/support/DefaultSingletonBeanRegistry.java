@@ -25,6 +25,7 @@ import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 import org.springframework.beans.factory.BeanCreationException;
 import org.springframework.beans.factory.BeanCreationNotAllowedException;
@@ -32,6 +33,8 @@ import org.springframework.beans.factory.BeanCurrentlyInCreationException;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.beans.factory.config.SingletonBeanRegistry;
+import org.springframework.beans.factory.support.SingletonCreationLocks.SingletonCreationConflictException;
+import org.springframework.core.NamedThreadLocal;
 import org.springframework.core.SimpleAliasRegistry;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -113,6 +116,60 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 */
 	private final Map<String, Set<String>> dependenciesForBeanMap = new ConcurrentHashMap<>(64);
 
+	/** Per-bean creation locks, if singletons may be created concurrently. */
+	@Nullable
+	private volatile SingletonCreationLocks singletonCreationLocks;
+
+	/** Whether singleton creation has started, fixing the creation mode. */
+	private volatile boolean singletonCreationStarted = false;
+
+	/** Suppressed Exceptions per thread, if singletons may be created concurrently. */
+	private final ThreadLocal<Set<Exception>> suppressedExceptionsPerThread =
+			new NamedThreadLocal<>("Suppressed exceptions during singleton creation");
+
+
+	/**
+	 * Set whether singletons may be created concurrently, with a creation lock per
+	 * bean name instead of the shared singleton mutex.
+	 * <p>Default is "false": all singleton creation is serialized on the
+	 * {@link #getSingletonMutex() singleton mutex}. When switched on, threads only
+	 * wait for each other when requesting the same bean; a wait that would deadlock
+	 * with another thread is detected and resolved by backing off and retrying the
+	 * outermost singleton request of the current thread once the other thread is done.
+	 * Note that this may lead to a partially created bean being discarded and created
+	 * again, so constructors and initializers should not have external side effects.
+	 * <p>This is primarily useful for lazy-init singletons and {@code ObjectProvider}
+	 * lookups which get resolved from many threads at runtime. Fully initialized
+	 * singletons are always returned without locking, in either mode; early singleton
+	 * references for circular references are only exposed to the creating thread.
+	 * <p>Collaborators which synchronize on the {@link #getSingletonMutex() singleton
+	 * mutex} and call back into the factory while holding it are not covered by the
+	 * deadlock detection: they need to go through {@link #doWithSingletonMutex} instead,
+	 * as the common framework collaborators do.
+	 * <p>The mode needs to be chosen before any singleton gets created, i.e. before
+	 * the refresh of a containing application context; it cannot be switched later on.
+	 * @throws IllegalStateException if singleton creation has started already
+	 * @since 5.2.6
+	 */
+	public void setConcurrentSingletonCreation(boolean concurrentSingletonCreation) {
+		synchronized (this.singletonObjects) {
+			if (concurrentSingletonCreation == isConcurrentSingletonCreation()) {
+				return;
+			}
+			Assert.state(!this.singletonCreationStarted,
+					"Cannot switch concurrent singleton creation once singletons are being created");
+			this.singletonCreationLocks = (concurrentSingletonCreation ? new SingletonCreationLocks() : null);
+		}
+	}
+
+	/**
+	 * Return whether singletons may be created concurrently.
+	 * @since 5.2.6
+	 */
+	public boolean isConcurrentSingletonCreation() {
+		return (this.singletonCreationLocks != null);
+	}
+
 
 	@Override
 	public void registerSingleton(String beanName, Object singletonObject) throws IllegalStateException {
@@ -187,6 +244,10 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		Object singletonObject = this.singletonObjects.get(beanName);
 		//如果是null或者在创建中
 	if (singletonObject == null && isSingletonCurrentlyInCreation(beanName)) {
+			SingletonCreationLocks locks = this.singletonCreationLocks;
+			if (locks != null) {
+				return getEarlySingleton(locks, beanName, allowEarlyReference);
+			}
 			synchronized (this.singletonObjects) {
 				singletonObject = this.earlySingletonObjects.get(beanName);
 				if (singletonObject == null && allowEarlyReference) {
@@ -204,6 +265,112 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		return singletonObject;
 	}
 
+	/**
+	 * Obtain an early reference to a singleton currently in creation, with
+	 * concurrent singleton creation enabled.
+	 * <p>Early references are only exposed to the thread which creates the
+	 * singleton; other threads receive {@code null} and will subsequently wait
+	 * for the creation lock of the singleton, obtaining the fully initialized
+	 * instance. The singleton factory is invoked outside of the singleton mutex,
+	 * under the protection of the creation lock held by the current thread.
+	 */
+	@Nullable
+	private Object getEarlySingleton(SingletonCreationLocks locks, String beanName, boolean allowEarlyReference) {
+		if (!locks.isHeldByCurrentThread(beanName)) {
+			return null;
+		}
+		ObjectFactory<?> singletonFactory;
+		synchronized (this.singletonObjects) {
+			Object singletonObject = this.earlySingletonObjects.get(beanName);
+			if (singletonObject != null || !allowEarlyReference) {
+				return singletonObject;
+			}
+			singletonFactory = this.singletonFactories.get(beanName);
+		}
+		if (singletonFactory == null) {
+			return null;
+		}
+		Object singletonObject = singletonFactory.getObject();
+		synchronized (this.singletonObjects) {
+			this.earlySingletonObjects.put(beanName, singletonObject);
+			this.singletonFactories.remove(beanName);
+		}
+		return singletonObject;
+	}
+
+	/**
+	 * Execute the given action while holding the creation lock for the specified
+	 * singleton: the bean's own creation lock if singletons may be created
+	 * concurrently, or the shared {@link #getSingletonMutex() singleton mutex} otherwise.
+	 * <p>Subclasses should use this for any sort of extended singleton creation phase
+	 * instead of synchronizing on the singleton mutex directly. If the current thread
+	 * had to back off from a deadlock with another thread creating singletons, the
+	 * outermost action of the current thread is retried once its locks are released.
+	 * @param beanName the name of the bean
+	 * @param action the action to execute
+	 * @return the result of the action
+	 * @since 5.2.6
+	 * @see #setConcurrentSingletonCreation
+	 */
+	protected <T> T doWithSingletonLock(String beanName, Supplier<T> action) {
+		return doWithLock(beanName, "singleton bean '" + beanName + "'", action);
+	}
+
+	/**
+	 * Execute the given action on behalf of an external collaborator which would
+	 * otherwise synchronize on the {@link #getSingletonMutex() singleton mutex},
+	 * e.g. for lazily resolving a bean reference of its own.
+	 * <p>Synchronizes on the singleton mutex by default. If singletons may be created
+	 * concurrently, a lock for the given key is acquired instead, taking part in the
+	 * detection of deadlocks between threads creating singletons: a collaborator
+	 * calling back into the factory while holding its lock cannot block a thread
+	 * creating singletons without this being detected and resolved.
+	 * <p>Like singleton creation itself, the action gets retried as a whole after
+	 * a conflict with another thread, so it needs to be idempotent: in particular,
+	 * it must not have external side effects before its last call into the factory.
+	 * @param lockKey the key identifying the collaborator's lock, typically the
+	 * collaborator itself (must not be a String, to not collide with bean names)
+	 * @param action the action to execute
+	 * @return the result of the action
+	 * @since 5.2.6
+	 * @see #setConcurrentSingletonCreation
+	 */
+	public <T> T doWithSingletonMutex(Object lockKey, Supplier<T> action) {
+		Assert.isTrue(!(lockKey instanceof String), "Lock key must not be a String");
+		return doWithLock(lockKey, lockKey.toString(), action);
+	}
+
+	private <T> T doWithLock(Object lockKey, String description, Supplier<T> action) {
+		SingletonCreationLocks locks = this.singletonCreationLocks;
+		if (locks != null) {
+			while (true) {
+				try {
+					locks.lock(lockKey);
+					try {
+						return action.get();
+					}
+					finally {
+						locks.unlock(lockKey);
+					}
+				}
+				catch (BeanCreationException ex) {
+					if (locks.isAnyHeldByCurrentThread() || !isCausedByCreationConflict(ex)) {
+						throw ex;
+					}
+					// Outermost lock backed off from a deadlock with another thread:
+					// all our locks are released now, so the other thread is able to proceed.
+					if (logger.isDebugEnabled()) {
+						logger.debug("Retrying action for " + description +
+								" after conflict with concurrent singleton creation: " + ex.getMessage());
+					}
+				}
+			}
+		}
+		synchronized (this.singletonObjects) {
+			return action.get();
+		}
+	}
+
 	/**
 	 * Return the (raw) singleton object registered under the given name,
 	 * creating and registering a new one if none registered yet.
@@ -214,55 +381,102 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 */
 	public Object getSingleton(String beanName, ObjectFactory<?> singletonFactory) {
 		Assert.notNull(beanName, "Bean name must not be null");
-		synchronized (this.singletonObjects) {
+		if (!this.singletonCreationStarted) {
+			synchronized (this.singletonObjects) {
+				this.singletonCreationStarted = true;
+			}
+		}
+		if (this.singletonCreationLocks != null) {
 			Object singletonObject = this.singletonObjects.get(beanName);
-			if (singletonObject == null) {
-				if (this.singletonsCurrentlyInDestruction) {
-					throw new BeanCreationNotAllowedException(beanName,
-							"Singleton bean creation not allowed while singletons of this factory are in destruction " +
-							"(Do not request a bean from a BeanFactory in a destroy method implementation!)");
-				}
-				if (logger.isDebugEnabled()) {
-					logger.debug("Creating shared instance of singleton bean '" + beanName + "'");
-				}
-				beforeSingletonCreation(beanName);
-				boolean newSingleton = false;
-				boolean recordSuppressedExceptions = (this.suppressedExceptions == null);
-				if (recordSuppressedExceptions) {
-					this.suppressedExceptions = new LinkedHashSet<>();
+			if (singletonObject != null) {
+				return singletonObject;
+			}
+			return doWithSingletonLock(beanName, () -> doGetSingleton(beanName, singletonFactory));
+		}
+		synchronized (this.singletonObjects) {
+			return doGetSingleton(beanName, singletonFactory);
+		}
+	}
+
+	private Object doGetSingleton(String beanName, ObjectFactory<?> singletonFactory) {
+		Object singletonObject = this.singletonObjects.get(beanName);
+		if (singletonObject == null) {
+			if (this.singletonsCurrentlyInDestruction) {
+				throw new BeanCreationNotAllowedException(beanName,
+						"Singleton bean creation not allowed while singletons of this factory are in destruction " +
+						"(Do not request a bean from a BeanFactory in a destroy method implementation!)");
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Creating shared instance of singleton bean '" + beanName + "'");
+			}
+			beforeSingletonCreation(beanName);
+			boolean newSingleton = false;
+			boolean concurrent = (this.singletonCreationLocks != null);
+			boolean recordSuppressedExceptions = (concurrent ?
+					this.suppressedExceptionsPerThread.get() == null : this.suppressedExceptions == null);
+			Set<Exception> suppressedExceptions = null;
+			if (recordSuppressedExceptions) {
+				suppressedExceptions = new LinkedHashSet<>();
+				if (concurrent) {
+					this.suppressedExceptionsPerThread.set(suppressedExceptions);
 				}
-				try {
-					singletonObject = singletonFactory.getObject();
-					newSingleton = true;
+				else {
+					this.suppressedExceptions = suppressedExceptions;
 				}
-				catch (IllegalStateException ex) {
-					// Has the singleton object implicitly appeared in the meantime ->
-					// if yes, proceed with it since the exception indicates that state.
-					singletonObject = this.singletonObjects.get(beanName);
-					if (singletonObject == null) {
-						throw ex;
-					}
+			}
+			try {
+				singletonObject = singletonFactory.getObject();
+				newSingleton = true;
+			}
+			catch (IllegalStateException ex) {
+				// Has the singleton object implicitly appeared in the meantime ->
+				// if yes, proceed with it since the exception indicates that state.
+				singletonObject = this.singletonObjects.get(beanName);
+				if (singletonObject == null) {
+					throw ex;
 				}
-				catch (BeanCreationException ex) {
-					if (recordSuppressedExceptions) {
-						for (Exception suppressedException : this.suppressedExceptions) {
+			}
+			catch (BeanCreationException ex) {
+				if (suppressedExceptions != null) {
+					synchronized (this.singletonObjects) {
+						for (Exception suppressedException : suppressedExceptions) {
 							ex.addRelatedCause(suppressedException);
 						}
 					}
-					throw ex;
 				}
-				finally {
-					if (recordSuppressedExceptions) {
+				throw ex;
+			}
+			finally {
+				if (recordSuppressedExceptions) {
+					if (concurrent) {
+						this.suppressedExceptionsPerThread.remove();
+					}
+					else {
 						this.suppressedExceptions = null;
 					}
-					afterSingletonCreation(beanName);
-				}
-				if (newSingleton) {
-					addSingleton(beanName, singletonObject);
 				}
+				afterSingletonCreation(beanName);
+			}
+			if (newSingleton) {
+				addSingleton(beanName, singletonObject);
+			}
+		}
+		return singletonObject;
+	}
+
+	/**
+	 * Check whether the given exception was caused by backing off from
+	 * a deadlock with another thread creating singletons.
+	 */
+	private static boolean isCausedByCreationConflict(Throwable ex) {
+		Throwable cause = ex;
+		while (cause != null) {
+			if (cause instanceof SingletonCreationConflictException) {
+				return true;
 			}
-			return singletonObject;
+			cause = (cause.getCause() != cause ? cause.getCause() : null);
 		}
+		return false;
 	}
 
 	/**
@@ -271,6 +485,11 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 * @param ex the Exception to register
 	 */
 	protected void onSuppressedException(Exception ex) {
+		Set<Exception> suppressedExceptions = this.suppressedExceptionsPerThread.get();
+		if (suppressedExceptions != null) {
+			suppressedExceptions.add(ex);
+			return;
+		}
 		synchronized (this.singletonObjects) {
 			if (this.suppressedExceptions != null) {
 				this.suppressedExceptions.add(ex);
@@ -0,0 +1,353 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+import org.springframework.core.GeneratedClassUtils;
+import org.springframework.core.KotlinDetector;
+import org.springframework.core.SpringProperties;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+/**
+ * Factory for accessors to constructors, fields and methods which are generated
+ * as bytecode on first use, avoiding the overhead of reflective invocation for
+ * beans that get created and wired repeatedly, e.g. prototypes and scoped beans.
+ *
+ * <p>Accessors can only be generated for public members of public classes with
+ * publicly accessible parameter types, declared in a ClassLoader which can see
+ * this class. The accessor methods return {@code null} for any other member,
+ * in which case callers are expected to fall back to reflection.
+ *
+ * <p>Used by {@link SimpleInstantiationStrategy} and by
+ * {@link org.springframework.beans.factory.annotation.AutowiredAnnotationBeanPostProcessor}
+ * if the {@link #GENERATED_ACCESSORS_PROPERTY_NAME "spring.beans.generated-accessors"}
+ * property is set to "true", or if enabled for them explicitly.
+ *
+ * @author agent
+ * @since 5.2.6
+ * @see SimpleInstantiationStrategy#setUseGeneratedAccessors
+ */
+public abstract class GeneratedAccessors {
+
+	/**
+	 * System property that instructs Spring to use generated accessors instead of
+	 * reflection for bean instantiation and annotation-driven injection by default:
+	 * "spring.beans.generated-accessors".
+	 * <p>The default is "false". May be overridden per component through
+	 * {@link SimpleInstantiationStrategy#setUseGeneratedAccessors} and
+	 * {@link org.springframework.beans.factory.annotation.AutowiredAnnotationBeanPostProcessor#setUseGeneratedAccessors}.
+	 * @see org.springframework.core.SpringProperties
+	 */
+	public static final String GENERATED_ACCESSORS_PROPERTY_NAME = "spring.beans.generated-accessors";
+
+	private static final boolean enabledByDefault = SpringProperties.getFlag(GENERATED_ACCESSORS_PROPERTY_NAME);
+
+	private static final Object NOT_GENERATED = new Object();
+
+	private static final AtomicInteger counter = new AtomicInteger();
+
+	private static final Log logger = LogFactory.getLog(GeneratedAccessors.class);
+
+	/** Generated accessor (or NOT_GENERATED marker) per member. */
+	private static final Map<Member, Object> accessorCache = new ConcurrentReferenceHashMap<>(256);
+
+	/** ClassLoader for generated accessors per ClassLoader of the accessed classes. */
+	private static final Map<ClassLoader, AccessorClassLoader> classLoaderCache =
+			new ConcurrentReferenceHashMap<>(16, ConcurrentReferenceHashMap.ReferenceType.WEAK);
+
+
+	/**
+	 * Return whether generated accessors are to be used by default,
+	 * as indicated by the {@link #GENERATED_ACCESSORS_PROPERTY_NAME} property.
+	 */
+	public static boolean isEnabledByDefault() {
+		return enabledByDefault;
+	}
+
+	/**
+	 * Return a generated accessor for the given constructor.
+	 * @param ctor the constructor to invoke
+	 * @return the accessor, or {@code null} if none can be generated
+	 */
+	@Nullable
+	public static ConstructorAccessor forConstructor(Constructor<?> ctor) {
+		return (ConstructorAccessor) getAccessor(ctor);
+	}
+
+	/**
+	 * Return a generated accessor for the given (non-static, non-final) field.
+	 * @param field the field to set
+	 * @return the accessor, or {@code null} if none can be generated
+	 */
+	@Nullable
+	public static FieldAccessor forField(Field field) {
+		return (FieldAccessor) getAccessor(field);
+	}
+
+	/**
+	 * Return a generated accessor for the given method.
+	 * @param method the method to invoke
+	 * @return the accessor, or {@code null} if none can be generated
+	 */
+	@Nullable
+	public static MethodAccessor forMethod(Method method) {
+		return (MethodAccessor) getAccessor(method);
+	}
+
+	/**
+	 * Determine whether the given arguments can be passed to a generated accessor
+	 * for the given parameter types as-is: that is, whether each argument is an
+	 * instance of its parameter type, with no {@code null} values for primitives.
+	 * @param paramTypes the parameter types of the constructor or method
+	 * @param args the arguments to pass
+	 */
+	public static boolean argumentsMatch(Class<?>[] paramTypes, Object[] args) {
+		if (paramTypes.length != args.length) {
+			return false;
+		}
+		for (int i = 0; i < paramTypes.length; i++) {
+			if (!ClassUtils.isAssignableValue(paramTypes[i], args[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	@Nullable
+	private static Object getAccessor(Member member) {
+		Object accessor = accessorCache.get(member);
+		if (accessor == null) {
+			accessor = generateAccessor(member);
+			accessorCache.put(member, accessor);
+		}
+		return (accessor != NOT_GENERATED ? accessor : null);
+	}
+
+	private static Object generateAccessor(Member member) {
+		Class<?> declaringClass = member.getDeclaringClass();
+		ClassLoader classLoader = declaringClass.getClassLoader();
+		if (!isGeneratable(member, classLoader)) {
+			return NOT_GENERATED;
+		}
+		String className = declaringClass.getName() + "$$SpringAccessor$$" + counter.getAndIncrement();
+		byte[] bytes;
+		if (member instanceof Constructor) {
+			bytes = generateConstructorAccessor(className, (Constructor<?>) member);
+		}
+		else if (member instanceof Field) {
+			bytes = generateFieldAccessor(className, (Field) member);
+		}
+		else {
+			bytes = generateMethodAccessor(className, (Method) member);
+		}
+		try {
+			AccessorClassLoader accessorClassLoader =
+					classLoaderCache.computeIfAbsent(classLoader, AccessorClassLoader::new);
+			Class<?> accessorClass = accessorClassLoader.defineClass(className, bytes);
+			return accessorClass.getDeclaredConstructor().newInstance();
+		}
+		catch (Throwable ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Failed to generate accessor for " + member + " - falling back to reflection", ex);
+			}
+			return NOT_GENERATED;
+		}
+	}
+
+	private static boolean isGeneratable(Member member, @Nullable ClassLoader classLoader) {
+		Class<?> declaringClass = member.getDeclaringClass();
+		if (classLoader == null || !Modifier.isPublic(member.getModifiers()) ||
+				!isAccessible(declaringClass, classLoader) || declaringClass.getName().startsWith("java.") ||
+				!ClassUtils.isVisible(GeneratedAccessors.class, classLoader)) {
+			return false;
+		}
+		if (member instanceof Constructor) {
+			return (!Modifier.isAbstract(declaringClass.getModifiers()) && !declaringClass.isInterface() &&
+					!(KotlinDetector.isKotlinReflectPresent() && KotlinDetector.isKotlinType(declaringClass)) &&
+					isAccessible(((Constructor<?>) member).getParameterTypes(), classLoader));
+		}
+		if (member instanceof Field) {
+			return (!Modifier.isStatic(member.getModifiers()) && !Modifier.isFinal(member.getModifiers()) &&
+					isAccessible(((Field) member).getType(), classLoader));
+		}
+		Method method = (Method) member;
+		return (!method.isBridge() && isAccessible(method.getParameterTypes(), classLoader) &&
+				isAccessible(method.getReturnType(), classLoader));
+	}
+
+	private static boolean isAccessible(Class<?>[] types, ClassLoader classLoader) {
+		for (Class<?> type : types) {
+			if (!isAccessible(type, classLoader)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isAccessible(Class<?> type, ClassLoader classLoader) {
+		Class<?> componentType = type;
+		while (componentType.isArray()) {
+			componentType = componentType.getComponentType();
+		}
+		return (componentType.isPrimitive() || (Modifier.isPublic(componentType.getModifiers()) &&
+				ClassUtils.isVisible(componentType, classLoader)));
+	}
+
+
+	private static byte[] generateConstructorAccessor(String className, Constructor<?> ctor) {
+		ClassWriter cw = GeneratedClassUtils.beginClass(className, ConstructorAccessor.class);
+		MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "newInstance",
+				"([Ljava/lang/Object;)Ljava/lang/Object;", null, null);
+		mv.visitCode();
+		String owner = Type.getInternalName(ctor.getDeclaringClass());
+		mv.visitTypeInsn(Opcodes.NEW, owner);
+		mv.visitInsn(Opcodes.DUP);
+		GeneratedClassUtils.loadArguments(mv, 1, ctor.getParameterTypes());
+		mv.visitMethodInsn(Opcodes.INVOKESPECIAL, owner, "<init>", Type.getConstructorDescriptor(ctor), false);
+		mv.visitInsn(Opcodes.ARETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+		return GeneratedClassUtils.endClass(cw);
+	}
+
+	private static byte[] generateFieldAccessor(String className, Field field) {
+		ClassWriter cw = GeneratedClassUtils.beginClass(className, FieldAccessor.class);
+		MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "set",
+				"(Ljava/lang/Object;Ljava/lang/Object;)V", null, null);
+		mv.visitCode();
+		String owner = Type.getInternalName(field.getDeclaringClass());
+		mv.visitVarInsn(Opcodes.ALOAD, 1);
+		mv.visitTypeInsn(Opcodes.CHECKCAST, owner);
+		mv.visitVarInsn(Opcodes.ALOAD, 2);
+		GeneratedClassUtils.unboxOrCast(mv, field.getType());
+		mv.visitFieldInsn(Opcodes.PUTFIELD, owner, field.getName(), Type.getDescriptor(field.getType()));
+		mv.visitInsn(Opcodes.RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+		return GeneratedClassUtils.endClass(cw);
+	}
+
+	private static byte[] generateMethodAccessor(String className, Method method) {
+		ClassWriter cw = GeneratedClassUtils.beginClass(className, MethodAccessor.class);
+		MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "invoke",
+				"(Ljava/lang/Object;[Ljava/lang/Object;)Ljava/lang/Object;", null, null);
+		mv.visitCode();
+		Class<?> declaringClass = method.getDeclaringClass();
+		String owner = Type.getInternalName(declaringClass);
+		boolean isInterface = declaringClass.isInterface();
+		int opcode;
+		if (Modifier.isStatic(method.getModifiers())) {
+			opcode = Opcodes.INVOKESTATIC;
+		}
+		else {
+			mv.visitVarInsn(Opcodes.ALOAD, 1);
+			mv.visitTypeInsn(Opcodes.CHECKCAST, owner);
+			opcode = (isInterface ? Opcodes.INVOKEINTERFACE : Opcodes.INVOKEVIRTUAL);
+		}
+		GeneratedClassUtils.loadArguments(mv, 2, method.getParameterTypes());
+		mv.visitMethodInsn(opcode, owner, method.getName(), Type.getMethodDescriptor(method), isInterface);
+		GeneratedClassUtils.box(mv, method.getReturnType());
+		mv.visitInsn(Opcodes.ARETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+		return GeneratedClassUtils.endClass(cw);
+	}
+
+
+	/**
+	 * Generated accessor for a constructor.
+	 */
+	public interface ConstructorAccessor {
+
+		/**
+		 * Invoke the constructor with the given arguments, which are expected
+		 * to {@linkplain #argumentsMatch match} the parameter types.
+		 * @param args the constructor arguments
+		 * @return the new instance
+		 */
+		Object newInstance(Object[] args);
+	}
+
+
+	/**
+	 * Generated accessor for a field.
+	 */
+	public interface FieldAccessor {
+
+		/**
+		 * Set the field on the given target object.
+		 * @param target the object to set the field on
+		 * @param value the value to set, expected to match the field type
+		 */
+		void set(Object target, @Nullable Object value);
+	}
+
+
+	/**
+	 * Generated accessor for a method.
+	 */
+	public interface MethodAccessor {
+
+		/**
+		 * Invoke the method on the given target object with the given arguments,
+		 * which are expected to {@linkplain #argumentsMatch match} the parameter types.
+		 * @param target the object to invoke the method on ({@code null} for static methods)
+		 * @param args the method arguments
+		 * @return the return value, with primitives boxed ({@code null} for void methods)
+		 */
+		@Nullable
+		Object invoke(@Nullable Object target, Object[] args);
+	}
+
+
+	/**
+	 * ClassLoader for generated accessors, delegating to the ClassLoader
+	 * of the accessed classes.
+	 */
+	private static class AccessorClassLoader extends ClassLoader {
+
+		static {
+			ClassLoader.registerAsParallelCapable();
+		}
+
+		AccessorClassLoader(ClassLoader parent) {
+			super(parent);
+		}
+
+		Class<?> defineClass(String name, byte[] bytes) {
+			return defineClass(name, bytes, 0, bytes.length);
+		}
+	}
+
+}
@@ -19,6 +19,7 @@ package org.springframework.beans.factory.support;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.security.PrivilegedExceptionAction;
@@ -45,6 +46,8 @@ public class SimpleInstantiationStrategy implements InstantiationStrategy {
 
 	private static final ThreadLocal<Method> currentlyInvokedFactoryMethod = new ThreadLocal<>();
 
+	private boolean useGeneratedAccessors = GeneratedAccessors.isEnabledByDefault();
+
 
 	/**
 	 * Return the factory method currently being invoked or {@code null} if none.
@@ -57,6 +60,27 @@ public class SimpleInstantiationStrategy implements InstantiationStrategy {
 	}
 
 
+	/**
+	 * Set whether to invoke public constructors and factory methods of public
+	 * classes through {@link GeneratedAccessors generated accessors} instead of
+	 * reflection, falling back to reflection for any other constructor or method.
+	 * <p>Default is "false", unless the
+	 * {@link GeneratedAccessors#GENERATED_ACCESSORS_PROPERTY_NAME} property is set.
+	 * @since 5.2.6
+	 */
+	public void setUseGeneratedAccessors(boolean useGeneratedAccessors) {
+		this.useGeneratedAccessors = useGeneratedAccessors;
+	}
+
+	/**
+	 * Return whether to use generated accessors instead of reflection.
+	 * @since 5.2.6
+	 */
+	public boolean isUseGeneratedAccessors() {
+		return this.useGeneratedAccessors;
+	}
+
+
 	@Override
 	public Object instantiate(RootBeanDefinition bd, @Nullable String beanName, BeanFactory owner) {
 		// Don't override the class with CGLIB if no overrides.
@@ -84,7 +108,7 @@ public class SimpleInstantiationStrategy implements InstantiationStrategy {
 					}
 				}
 			}
-			return BeanUtils.instantiateClass(constructorToUse);
+			return instantiateClass(constructorToUse);
 		}
 		else {
 			// Must generate CGLIB subclass.
@@ -114,7 +138,7 @@ public class SimpleInstantiationStrategy implements InstantiationStrategy {
 					return null;
 				});
 			}
-			return BeanUtils.instantiateClass(ctor, args);
+			return instantiateClass(ctor, args);
 		}
 		else {
 			return instantiateWithMethodInjection(bd, beanName, owner, ctor, args);
@@ -151,7 +175,7 @@ public class SimpleInstantiationStrategy implements InstantiationStrategy {
 			Method priorInvokedFactoryMethod = currentlyInvokedFactoryMethod.get();
 			try {
 				currentlyInvokedFactoryMethod.set(factoryMethod);
-				Object result = factoryMethod.invoke(factoryBean, args);
+				Object result = invokeFactoryMethod(factoryMethod, factoryBean, args);
 				if (result == null) {
 					result = new NullBean();
 				}
@@ -186,4 +210,38 @@ public class SimpleInstantiationStrategy implements InstantiationStrategy {
 		}
 	}
 
+	private Object instantiateClass(Constructor<?> ctor, Object... args) {
+		if (this.useGeneratedAccessors) {
+			GeneratedAccessors.ConstructorAccessor accessor = GeneratedAccessors.forConstructor(ctor);
+			if (accessor != null && GeneratedAccessors.argumentsMatch(ctor.getParameterTypes(), args)) {
+				try {
+					return accessor.newInstance(args);
+				}
+				catch (Throwable ex) {
+					throw new BeanInstantiationException(ctor, "Constructor threw exception", ex);
+				}
+			}
+		}
+		return BeanUtils.instantiateClass(ctor, args);
+	}
+
+	@Nullable
+	private Object invokeFactoryMethod(Method factoryMethod, @Nullable Object factoryBean, Object... args)
+			throws IllegalAccessException, InvocationTargetException {
+
+		if (this.useGeneratedAccessors) {
+			GeneratedAccessors.MethodAccessor accessor = GeneratedAccessors.forMethod(factoryMethod);
+			if (accessor != null && GeneratedAccessors.argumentsMatch(factoryMethod.getParameterTypes(), args) &&
+					(factoryBean != null || Modifier.isStatic(factoryMethod.getModifiers()))) {
+				try {
+					return accessor.invoke(factoryBean, args);
+				}
+				catch (Throwable ex) {
+					throw new InvocationTargetException(ex);
+				}
+			}
+		}
+		return factoryMethod.invoke(factoryBean, args);
+	}
+
 }
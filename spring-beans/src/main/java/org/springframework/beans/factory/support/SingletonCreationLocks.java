@@ -0,0 +1,211 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.BeanCurrentlyInCreationException;
+import org.springframework.lang.Nullable;
+
+/**
+ * Per-bean creation locks for {@link DefaultSingletonBeanRegistry}, used instead
+ * of the shared singleton mutex when singletons may be created concurrently.
+ *
+ * <p>Keeps track of which thread waits for which bean, so that a wait which would
+ * close a cycle between threads (thread 1 holds bean A and waits for bean B while
+ * thread 2 holds bean B and waits for bean A) is detected before blocking. In such
+ * a case, the thread closing the cycle backs off with a
+ * {@link SingletonCreationConflictException}, releasing its locks on the way up
+ * and retrying its outermost singleton request once the other thread got through.
+ *
+ * <p>Creation locks are reference-counted: a lock gets removed as soon as
+ * no thread holds or waits for it anymore, so the number of locks kept
+ * is bounded by the number of singletons currently in creation.
+ *
+ * @author agent
+ * @since 5.2.6
+ * @see DefaultSingletonBeanRegistry#setConcurrentSingletonCreation
+ */
+final class SingletonCreationLocks {
+
+	/** Creation lock per bean name, or per collaborator key, while in use. */
+	private final Map<Object, CreationLock> locks = new ConcurrentHashMap<>(256);
+
+	/** Lock key that a thread is currently waiting for: guarded by "this". */
+	private final Map<Thread, Object> waitingThreads = new HashMap<>(16);
+
+	/** Number of creation locks held by the current thread. */
+	private final ThreadLocal<int[]> holdCount = ThreadLocal.withInitial(() -> new int[1]);
+
+
+	/**
+	 * Acquire the creation lock for the given bean, blocking until available.
+	 * @param lockKey the name of the bean, or a collaborator's lock key
+	 * @throws SingletonCreationConflictException if waiting for the lock
+	 * would deadlock with another thread creating singletons
+	 */
+	public void lock(Object lockKey) {
+		CreationLock lock = this.locks.compute(lockKey, (key, existing) -> {
+			CreationLock lockToUse = (existing != null ? existing : new CreationLock());
+			lockToUse.users++;
+			return lockToUse;
+		});
+		// No barging ahead of waiting threads, in particular not when retrying after a conflict
+		boolean acquired = ((lock.isHeldByCurrentThread() || !lock.hasQueuedThreads()) && lock.tryLock());
+		if (!acquired) {
+			Thread currentThread = Thread.currentThread();
+			try {
+				synchronized (this) {
+					if (closesCycle(currentThread, lockKey)) {
+						throw new SingletonCreationConflictException(lockKey.toString());
+					}
+					this.waitingThreads.put(currentThread, lockKey);
+				}
+				try {
+					lock.lock();
+				}
+				finally {
+					synchronized (this) {
+						this.waitingThreads.remove(currentThread);
+					}
+				}
+			}
+			catch (RuntimeException | Error ex) {
+				release(lockKey);
+				throw ex;
+			}
+		}
+		this.holdCount.get()[0]++;
+	}
+
+	/**
+	 * Release the creation lock for the given bean.
+	 * @param lockKey the name of the bean, or a collaborator's lock key
+	 */
+	public void unlock(Object lockKey) {
+		CreationLock lock = this.locks.get(lockKey);
+		if (lock == null || !lock.isHeldByCurrentThread()) {
+			throw new IllegalStateException("Creation lock for [" + lockKey + "] not held");
+		}
+		this.holdCount.get()[0]--;
+		lock.unlock();
+		release(lockKey);
+	}
+
+	/**
+	 * Determine whether the current thread holds the creation lock for the given bean.
+	 * @param beanName the name of the bean
+	 */
+	public boolean isHeldByCurrentThread(String beanName) {
+		CreationLock lock = this.locks.get(beanName);
+		return (lock != null && lock.isHeldByCurrentThread());
+	}
+
+	/**
+	 * Determine whether the current thread holds any creation locks at all,
+	 * i.e. whether it is nested within a singleton creation process.
+	 */
+	public boolean isAnyHeldByCurrentThread() {
+		return (this.holdCount.get()[0] > 0);
+	}
+
+	/**
+	 * Return the number of creation locks currently in use.
+	 */
+	int getLockCount() {
+		return this.locks.size();
+	}
+
+	/**
+	 * Drop one use of the creation lock for the given bean, removing the lock
+	 * once it is neither held nor waited for anymore.
+	 */
+	private void release(Object lockKey) {
+		this.locks.computeIfPresent(lockKey, (key, lock) -> (--lock.users > 0 ? lock : null));
+	}
+
+	/**
+	 * Check whether the current thread waiting for the given bean would close a
+	 * cycle in the wait-for graph: following the chain of lock owners and the beans
+	 * that they are waiting for ends up at the current thread again.
+	 * <p>Owners along the chain are blocked and therefore cannot release their locks
+	 * while we are looking; a chain ending at a running thread cannot be a deadlock.
+	 */
+	private boolean closesCycle(Thread currentThread, Object lockKey) {
+		Set<Thread> visited = null;
+		Object waitingFor = lockKey;
+		while (waitingFor != null) {
+			CreationLock lock = this.locks.get(waitingFor);
+			Thread owner = (lock != null ? lock.getOwner() : null);
+			if (owner == null) {
+				return false;
+			}
+			if (owner == currentThread) {
+				return true;
+			}
+			if (visited == null) {
+				visited = new HashSet<>();
+			}
+			if (!visited.add(owner)) {
+				return false;
+			}
+			waitingFor = this.waitingThreads.get(owner);
+		}
+		return false;
+	}
+
+
+	/**
+	 * Fair ReentrantLock variant which exposes its current owner.
+	 */
+	@SuppressWarnings("serial")
+	private static class CreationLock extends ReentrantLock {
+
+		/** Number of pending lock/unlock pairs: guarded by the locks map. */
+		int users;
+
+		public CreationLock() {
+			super(true);
+		}
+
+		@Override
+		@Nullable
+		public Thread getOwner() {
+			return super.getOwner();
+		}
+	}
+
+
+	/**
+	 * Exception thrown when a thread backs off from a singleton creation lock
+	 * since waiting for it would deadlock with another thread.
+	 */
+	@SuppressWarnings("serial")
+	static class SingletonCreationConflictException extends BeanCurrentlyInCreationException {
+
+		public SingletonCreationConflictException(String beanName) {
+			super(beanName, "Requested bean is currently in creation in another thread which " +
+					"is waiting for a bean that the current thread is creating: backing off");
+		}
+	}
+
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.BeanFactoryUtils;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+
+/**
+ * Dependency graph between bean definitions, as declared in their merged
+ * metadata: depends-on relationships, factory beans, and bean references in
+ * constructor arguments and property values (including inner beans and
+ * managed collections).
+ *
+ * <p>Used for splitting the singletons to pre-instantiate into subgraphs
+ * which do not depend on each other and can therefore be created concurrently.
+ * Dependencies which are only discovered during creation (e.g. through
+ * autowiring) are not covered here; those are coordinated at runtime through
+ * per-bean creation locks.
+ *
+ * @author agent
+ * @since 5.2.6
+ * @see DefaultListableBeanFactory#setBootstrapPool
+ */
+final class SingletonDependencyGraph {
+
+	private final AbstractBeanFactory beanFactory;
+
+	/** Union-find structure: bean name to parent bean name within the same subgraph. */
+	private final Map<String, String> parents = new HashMap<>(256);
+
+
+	SingletonDependencyGraph(AbstractBeanFactory beanFactory) {
+		this.beanFactory = beanFactory;
+	}
+
+
+	/**
+	 * Register the declared dependencies of the given bean.
+	 * @param beanName the name of the bean
+	 * @param bd the merged bean definition for the bean
+	 */
+	public void addBean(String beanName, BeanDefinition bd) {
+		find(beanName);
+		addDependencies(beanName, bd);
+	}
+
+	/**
+	 * Group the given bean names into independent subgraphs, each containing
+	 * its bean names in the given order, with subgraphs ordered by their first
+	 * bean name.
+	 * @param beanNames the bean names, in registration order
+	 */
+	public List<List<String>> getSubgraphs(List<String> beanNames) {
+		Map<String, List<String>> subgraphs = new LinkedHashMap<>();
+		for (String beanName : beanNames) {
+			subgraphs.computeIfAbsent(find(beanName), root -> new ArrayList<>()).add(beanName);
+		}
+		return new ArrayList<>(subgraphs.values());
+	}
+
+
+	private void addDependencies(String beanName, BeanDefinition bd) {
+		String[] dependsOn = bd.getDependsOn();
+		if (dependsOn != null) {
+			for (String dependency : dependsOn) {
+				connect(beanName, dependency);
+			}
+		}
+		if (bd.getFactoryBeanName() != null) {
+			connect(beanName, bd.getFactoryBeanName());
+		}
+		addReferences(beanName, bd);
+	}
+
+	private void addReferences(String beanName, BeanDefinition bd) {
+		ConstructorArgumentValues args = bd.getConstructorArgumentValues();
+		for (ConstructorArgumentValues.ValueHolder holder : args.getIndexedArgumentValues().values()) {
+			addReferences(beanName, holder.getValue());
+		}
+		for (ConstructorArgumentValues.ValueHolder holder : args.getGenericArgumentValues()) {
+			addReferences(beanName, holder.getValue());
+		}
+		for (PropertyValue pv : bd.getPropertyValues().getPropertyValueList()) {
+			addReferences(beanName, pv.getValue());
+		}
+	}
+
+	private void addReferences(String beanName, Object value) {
+		if (value instanceof RuntimeBeanReference) {
+			RuntimeBeanReference ref = (RuntimeBeanReference) value;
+			if (!ref.isToParent()) {
+				connect(beanName, ref.getBeanName());
+			}
+		}
+		else if (value instanceof BeanDefinitionHolder) {
+			addDependencies(beanName, ((BeanDefinitionHolder) value).getBeanDefinition());
+		}
+		else if (value instanceof BeanDefinition) {
+			addDependencies(beanName, (BeanDefinition) value);
+		}
+		else if (value instanceof Collection) {
+			for (Object element : (Collection<?>) value) {
+				addReferences(beanName, element);
+			}
+		}
+		else if (value instanceof Map) {
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				addReferences(beanName, entry.getKey());
+				addReferences(beanName, entry.getValue());
+			}
+		}
+	}
+
+	private void connect(String beanName, String dependency) {
+		String rootA = find(beanName);
+		String rootB = find(this.beanFactory.canonicalName(BeanFactoryUtils.transformedBeanName(dependency)));
+		if (!rootA.equals(rootB)) {
+			this.parents.put(rootB, rootA);
+		}
+	}
+
+	private String find(String beanName) {
+		String root = beanName;
+		String parent = this.parents.putIfAbsent(root, root);
+		while (parent != null && !parent.equals(root)) {
+			root = parent;
+			parent = this.parents.get(root);
+		}
+		// Path compression for subsequent lookups
+		String current = beanName;
+		while (!current.equals(root)) {
+			String next = this.parents.get(current);
+			this.parents.put(current, root);
+			current = next;
+		}
+		return root;
+	}
+
+}
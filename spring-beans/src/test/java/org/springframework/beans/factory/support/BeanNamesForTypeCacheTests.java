@@ -0,0 +1,268 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.SmartInstantiationAwareBeanPostProcessor;
+import org.springframework.beans.testfixture.beans.DerivedTestBean;
+import org.springframework.beans.testfixture.beans.ITestBean;
+import org.springframework.beans.testfixture.beans.NestedTestBean;
+import org.springframework.beans.testfixture.beans.TestBean;
+import org.springframework.core.ResolvableType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the by-type bean name cache and the {@link BeanDefinitionTypeIndex}
+ * in {@link DefaultListableBeanFactory}, before and after freezing the configuration.
+ *
+ * @author agent
+ * @since 5.2.6
+ */
+public class BeanNamesForTypeCacheTests {
+
+	private final DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
+
+
+	@Test
+	public void incrementalRegistrationBeforeFreeze() {
+		lbf.registerBeanDefinition("tb1", new RootBeanDefinition(TestBean.class));
+		lbf.registerBeanDefinition("nested", new RootBeanDefinition(NestedTestBean.class));
+		assertThat(lbf.getBeanNamesForType(ITestBean.class)).containsExactly("tb1");
+
+		lbf.registerBeanDefinition("tb2", new RootBeanDefinition(DerivedTestBean.class));
+		assertThat(lbf.getBeanNamesForType(ITestBean.class)).containsExactly("tb1", "tb2");
+		assertThat(lbf.getBeanNamesForType(TestBean.class)).containsExactly("tb1", "tb2");
+		assertThat(lbf.getBeanNamesForType(DerivedTestBean.class)).containsExactly("tb2");
+		assertThat(lbf.getBeanNamesForType(NestedTestBean.class)).containsExactly("nested");
+	}
+
+	@Test
+	public void incrementalRegistrationAfterFreeze() {
+		lbf.registerBeanDefinition("tb1", new RootBeanDefinition(TestBean.class));
+		lbf.freezeConfiguration();
+		assertThat(lbf.getBeanNamesForType(ITestBean.class)).containsExactly("tb1");
+
+		lbf.registerBeanDefinition("tb2", new RootBeanDefinition(TestBean.class));
+		assertThat(lbf.getBeanNamesForType(ITestBean.class)).containsExactly("tb1", "tb2");
+	}
+
+	@Test
+	public void singletonsOnlyVersusAll() {
+		RootBeanDefinition prototype = new RootBeanDefinition(TestBean.class);
+		prototype.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		lbf.registerBeanDefinition("tb1", new RootBeanDefinition(TestBean.class));
+		lbf.registerBeanDefinition("tb2", prototype);
+		assertThat(lbf.getBeanNamesForType(TestBean.class, true, true)).containsExactly("tb1", "tb2");
+		assertThat(lbf.getBeanNamesForType(TestBean.class, false, true)).containsExactly("tb1");
+
+		lbf.registerBeanDefinition("tb3", new RootBeanDefinition(TestBean.class));
+		assertThat(lbf.getBeanNamesForType(TestBean.class, true, true)).containsExactly("tb1", "tb2", "tb3");
+		assertThat(lbf.getBeanNamesForType(TestBean.class, false, true)).containsExactly("tb1", "tb3");
+	}
+
+	@Test
+	public void manualSingletonsAfterBeanDefinitions() {
+		lbf.registerBeanDefinition("tb1", new RootBeanDefinition(TestBean.class));
+		lbf.registerSingleton("manual1", new TestBean());
+		assertThat(lbf.getBeanNamesForType(TestBean.class)).containsExactly("tb1", "manual1");
+
+		lbf.registerBeanDefinition("tb2", new RootBeanDefinition(TestBean.class));
+		lbf.registerSingleton("manual2", new TestBean());
+		assertThat(lbf.getBeanNamesForType(TestBean.class)).containsExactly("tb1", "tb2", "manual1", "manual2");
+
+		lbf.destroySingleton("manual1");
+		assertThat(lbf.getBeanNamesForType(TestBean.class)).containsExactly("tb1", "tb2", "manual2");
+	}
+
+	@Test
+	public void singletonForBeanDefinitionInvalidatesCache() {
+		lbf.registerBeanDefinition("bean", new RootBeanDefinition(TestBean.class));
+		assertThat(lbf.getBeanNamesForType(NestedTestBean.class)).isEmpty();
+
+		lbf.registerSingleton("bean", new NestedTestBean());
+		assertThat(lbf.getBeanNamesForType(NestedTestBean.class)).containsExactly("bean");
+	}
+
+	@Test
+	public void removalAndOverrideInvalidateCache() {
+		lbf.registerBeanDefinition("tb1", new RootBeanDefinition(TestBean.class));
+		lbf.registerBeanDefinition("tb2", new RootBeanDefinition(TestBean.class));
+		lbf.freezeConfiguration();
+		assertThat(lbf.getBeanNamesForType(TestBean.class)).containsExactly("tb1", "tb2");
+
+		lbf.removeBeanDefinition("tb1");
+		assertThat(lbf.getBeanNamesForType(TestBean.class)).containsExactly("tb2");
+
+		lbf.registerBeanDefinition("tb2", new RootBeanDefinition(NestedTestBean.class));
+		assertThat(lbf.getBeanNamesForType(TestBean.class)).isEmpty();
+		assertThat(lbf.getBeanNamesForType(NestedTestBean.class)).containsExactly("tb2");
+	}
+
+	@Test
+	public void beanPostProcessorInvalidatesCache() {
+		lbf.registerBeanDefinition("bean", new RootBeanDefinition(TestBean.class));
+		assertThat(lbf.getBeanNamesForType(NestedTestBean.class)).isEmpty();
+
+		lbf.addBeanPostProcessor(new SmartInstantiationAwareBeanPostProcessor() {
+			@Override
+			public Class<?> predictBeanType(Class<?> beanClass, String beanName) {
+				return NestedTestBean.class;
+			}
+		});
+		assertThat(lbf.getBeanNamesForType(NestedTestBean.class)).containsExactly("bean");
+	}
+
+	@Test
+	public void inPlaceModificationBeforeFreeze() {
+		RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+		lbf.registerBeanDefinition("bean", bd);
+		assertThat(lbf.getBeanNamesForType(NestedTestBean.class)).isEmpty();
+
+		// As done by factory post-processors, e.g. for enhanced configuration classes
+		bd.setBeanClass(NestedTestBean.class);
+		lbf.clearMetadataCache();
+		assertThat(lbf.getBeanNamesForType(TestBean.class)).isEmpty();
+		assertThat(lbf.getBeanNamesForType(NestedTestBean.class)).containsExactly("bean");
+	}
+
+	@Test
+	public void sameNameOverrideBeforeFreeze() {
+		lbf.registerBeanDefinition("bean", new RootBeanDefinition(TestBean.class));
+		assertThat(lbf.getBeanNamesForType(TestBean.class)).containsExactly("bean");
+		assertThat(lbf.getBeanNamesForType(NestedTestBean.class)).isEmpty();
+
+		lbf.registerBeanDefinition("bean", new RootBeanDefinition(NestedTestBean.class));
+		assertThat(lbf.getBeanNamesForType(TestBean.class)).isEmpty();
+		assertThat(lbf.getBeanNamesForType(NestedTestBean.class)).containsExactly("bean");
+	}
+
+	@Test
+	public void typeRefinedOnCreationBeforeFreeze() {
+		RootBeanDefinition bd = new RootBeanDefinition(BeanNamesForTypeCacheTests.class);
+		bd.setFactoryMethodName("createTestBean");
+		lbf.registerBeanDefinition("bean", bd);
+		assertThat(lbf.getBeanNamesForType(TestBean.class)).isEmpty();
+
+		lbf.getBean("bean");
+		assertThat(lbf.getBeanNamesForType(TestBean.class)).containsExactly("bean");
+	}
+
+	@Test
+	public void typeIndexWithAliasShadowingBeanDefinition() {
+		lbf.registerBeanDefinition("tb1", new RootBeanDefinition(TestBean.class));
+		lbf.registerBeanDefinition("nested", new RootBeanDefinition(NestedTestBean.class));
+		assertThat(lbf.getBeanNamesForType(NestedTestBean.class)).containsExactly("nested");
+
+		lbf.registerAlias("tb1", "nested");
+		assertThat(lbf.getBeanNamesForType(NestedTestBean.class)).isEmpty();
+		assertThat(lbf.getBeanNamesForType(TestBean.class)).containsExactly("tb1");
+
+		lbf.removeAlias("nested");
+		assertThat(lbf.getBeanNamesForType(NestedTestBean.class)).containsExactly("nested");
+	}
+
+	@Test
+	public void typeIndexWithParentOverride() {
+		lbf.registerBeanDefinition("parent", new RootBeanDefinition(TestBean.class));
+		lbf.registerBeanDefinition("child", new ChildBeanDefinition("parent"));
+		assertThat(lbf.getBeanNamesForType(TestBean.class)).containsExactly("parent", "child");
+
+		lbf.registerBeanDefinition("parent", new RootBeanDefinition(NestedTestBean.class));
+		assertThat(lbf.getBeanNamesForType(TestBean.class)).isEmpty();
+		assertThat(lbf.getBeanNamesForType(NestedTestBean.class)).containsExactly("parent", "child");
+	}
+
+	@Test
+	public void typeIndexWithRemovalAndReregistration() {
+		lbf.registerBeanDefinition("tb1", new RootBeanDefinition(TestBean.class));
+		lbf.registerBeanDefinition("tb2", new RootBeanDefinition(TestBean.class));
+		assertThat(lbf.getBeanNamesForType(ITestBean.class)).containsExactly("tb1", "tb2");
+
+		lbf.removeBeanDefinition("tb1");
+		assertThat(lbf.getBeanNamesForType(ITestBean.class)).containsExactly("tb2");
+
+		lbf.registerBeanDefinition("tb1", new RootBeanDefinition(DerivedTestBean.class));
+		assertThat(lbf.getBeanNamesForType(ITestBean.class)).containsExactly("tb2", "tb1");
+		assertThat(lbf.getBeanNamesForType(DerivedTestBean.class)).containsExactly("tb1");
+	}
+
+	@Test
+	public void typeIndexWithLazilyResolvedBeanClass() {
+		lbf.registerBeanDefinition("tb", new RootBeanDefinition(TestBean.class.getName()));
+		lbf.registerBeanDefinition("nested", new RootBeanDefinition(NestedTestBean.class.getName()));
+		assertThat(lbf.getBeanNamesForType(TestBean.class)).containsExactly("tb");
+		assertThat(lbf.getBeanNamesForType(TestBean.class)).containsExactly("tb");
+		assertThat(lbf.getBeanNamesForType(NestedTestBean.class)).containsExactly("nested");
+	}
+
+	@Test
+	public void typeIndexWithBeanWrappedOnCreation() {
+		lbf.registerBeanDefinition("bean", new RootBeanDefinition(TestBean.class));
+		lbf.addBeanPostProcessor(new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				return new NestedTestBean();
+			}
+		});
+		assertThat(lbf.getBeanNamesForType(TestBean.class)).containsExactly("bean");
+		assertThat(lbf.getBeanNamesForType(NestedTestBean.class)).isEmpty();
+
+		lbf.getBean("bean");
+		assertThat(lbf.getBeanNamesForType(TestBean.class)).isEmpty();
+		assertThat(lbf.getBeanNamesForType(NestedTestBean.class)).containsExactly("bean");
+
+		lbf.destroySingleton("bean");
+		assertThat(lbf.getBeanNamesForType(TestBean.class)).containsExactly("bean");
+		assertThat(lbf.getBeanNamesForType(NestedTestBean.class)).isEmpty();
+	}
+
+	@Test
+	public void genericTypes() {
+		lbf.registerBeanDefinition("stringRepo", new RootBeanDefinition(StringRepository.class));
+		ResolvableType stringType = ResolvableType.forClassWithGenerics(Repository.class, String.class);
+		ResolvableType integerType = ResolvableType.forClassWithGenerics(Repository.class, Integer.class);
+		assertThat(lbf.getBeanNamesForType(stringType)).containsExactly("stringRepo");
+		assertThat(lbf.getBeanNamesForType(integerType)).isEmpty();
+
+		lbf.registerBeanDefinition("integerRepo", new RootBeanDefinition(IntegerRepository.class));
+		assertThat(lbf.getBeanNamesForType(stringType)).containsExactly("stringRepo");
+		assertThat(lbf.getBeanNamesForType(integerType)).containsExactly("integerRepo");
+		assertThat(lbf.getBeanNamesForType(Repository.class)).containsExactly("stringRepo", "integerRepo");
+	}
+
+
+	public static Object createTestBean() {
+		return new TestBean();
+	}
+
+
+	interface Repository<T> {
+	}
+
+
+	static class StringRepository implements Repository<String> {
+	}
+
+
+	static class IntegerRepository implements Repository<Integer> {
+	}
+
+}
@@ -16,6 +16,16 @@
 
 package org.springframework.beans.factory.support;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.jupiter.api.Test;
 
 import org.springframework.beans.BeansException;
@@ -101,4 +111,95 @@ public class DefaultSingletonBeanRegistryTests {
 		assertThat(beanRegistry.isDependent("c", "c")).isTrue();
 	}
 
+	@Test
+	public void testConcurrentSingletonCreation() throws Exception {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		beanRegistry.setConcurrentSingletonCreation(true);
+		assertThat(beanRegistry.isConcurrentSingletonCreation()).isTrue();
+
+		AtomicInteger creationCount = new AtomicInteger();
+		CountDownLatch startLatch = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Object>> futures = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				futures.add(executor.submit((Callable<Object>) () -> {
+					startLatch.await();
+					return beanRegistry.getSingleton("tb", () -> {
+						creationCount.incrementAndGet();
+						return new TestBean();
+					});
+				}));
+			}
+			startLatch.countDown();
+			Object tb = beanRegistry.getSingleton("tb", TestBean::new);
+			for (Future<Object> future : futures) {
+				assertThat(future.get(10, TimeUnit.SECONDS)).isSameAs(tb);
+			}
+			assertThat(creationCount.get()).isLessThanOrEqualTo(1);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testCreationLocksAreRemovedOnceUnused() throws Exception {
+		SingletonCreationLocks locks = new SingletonCreationLocks();
+		locks.lock("a");
+		locks.lock("a");
+		locks.lock("b");
+		assertThat(locks.getLockCount()).isEqualTo(2);
+		locks.unlock("b");
+		locks.unlock("a");
+		assertThat(locks.getLockCount()).isEqualTo(1);
+		assertThat(locks.isHeldByCurrentThread("a")).isTrue();
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<?> waiter = executor.submit(() -> {
+				locks.lock("a");
+				locks.unlock("a");
+			});
+			// Give the other thread a chance to queue up for the lock
+			Thread.sleep(50);
+			locks.unlock("a");
+			waiter.get(10, TimeUnit.SECONDS);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		assertThat(locks.getLockCount()).isEqualTo(0);
+		assertThat(locks.isAnyHeldByCurrentThread()).isFalse();
+	}
+
+	@Test
+	public void testEarlySingletonReferenceWithConcurrentSingletonCreation() throws Exception {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		beanRegistry.setConcurrentSingletonCreation(true);
+
+		TestBean tb = new TestBean();
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Object result = beanRegistry.getSingleton("tb", () -> {
+				beanRegistry.addSingletonFactory("tb", () -> tb);
+				// Early reference exposed to the creating thread only
+				assertThat(beanRegistry.getSingleton("tb")).isSameAs(tb);
+				Future<Object> other = executor.submit(() -> beanRegistry.getSingleton("tb", true));
+				try {
+					assertThat(other.get(10, TimeUnit.SECONDS)).isNull();
+				}
+				catch (Exception ex) {
+					throw new IllegalStateException(ex);
+				}
+				return tb;
+			});
+			assertThat(result).isSameAs(tb);
+			assertThat(executor.submit(() -> beanRegistry.getSingleton("tb")).get(10, TimeUnit.SECONDS)).isSameAs(tb);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
 }
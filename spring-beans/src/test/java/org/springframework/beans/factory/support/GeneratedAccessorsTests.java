@@ -0,0 +1,211 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.BeanInstantiationException;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.AutowiredAnnotationBeanPostProcessor;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.testfixture.beans.TestBean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for {@link GeneratedAccessors} and their use in bean creation.
+ *
+ * @author agent
+ * @since 5.2.6
+ */
+public class GeneratedAccessorsTests {
+
+	@Test
+	public void constructorAccessor() throws Exception {
+		GeneratedAccessors.ConstructorAccessor accessor = GeneratedAccessors.forConstructor(
+				AccessibleBean.class.getConstructor(String.class, int.class));
+		assertThat(accessor).isNotNull();
+		assertThat(accessor.getClass().getClassLoader()).isNotSameAs(AccessibleBean.class.getClassLoader());
+		AccessibleBean bean = (AccessibleBean) accessor.newInstance(new Object[] {"name", 42});
+		assertThat(bean.name).isEqualTo("name");
+		assertThat(bean.getAge()).isEqualTo(42);
+		assertThat(GeneratedAccessors.forConstructor(AccessibleBean.class.getConstructor(String.class, int.class)))
+				.isSameAs(accessor);
+	}
+
+	@Test
+	public void constructorAccessorPropagatesException() throws Exception {
+		GeneratedAccessors.ConstructorAccessor accessor = GeneratedAccessors.forConstructor(
+				AccessibleBean.class.getConstructor(boolean.class));
+		assertThat(accessor).isNotNull();
+		assertThatIllegalStateException().isThrownBy(() -> accessor.newInstance(new Object[] {true}));
+	}
+
+	@Test
+	public void fieldAccessor() throws Exception {
+		GeneratedAccessors.FieldAccessor accessor = GeneratedAccessors.forField(AccessibleBean.class.getField("name"));
+		assertThat(accessor).isNotNull();
+		AccessibleBean bean = new AccessibleBean();
+		accessor.set(bean, "value");
+		assertThat(bean.name).isEqualTo("value");
+	}
+
+	@Test
+	public void methodAccessors() throws Exception {
+		AccessibleBean bean = new AccessibleBean();
+		GeneratedAccessors.MethodAccessor setter = GeneratedAccessors.forMethod(
+				AccessibleBean.class.getMethod("setAge", int.class));
+		GeneratedAccessors.MethodAccessor getter = GeneratedAccessors.forMethod(
+				AccessibleBean.class.getMethod("getAge"));
+		GeneratedAccessors.MethodAccessor factory = GeneratedAccessors.forMethod(
+				AccessibleBean.class.getMethod("create", String.class));
+		assertThat(setter.invoke(bean, new Object[] {7})).isNull();
+		assertThat(getter.invoke(bean, new Object[0])).isEqualTo(7);
+		assertThat(((AccessibleBean) factory.invoke(null, new Object[] {"created"})).name).isEqualTo("created");
+	}
+
+	@Test
+	public void noAccessorsForInaccessibleMembers() throws Exception {
+		assertThat(GeneratedAccessors.forConstructor(AccessibleBean.class.getDeclaredConstructor(String.class))).isNull();
+		assertThat(GeneratedAccessors.forField(AccessibleBean.class.getField("id"))).isNull();
+		assertThat(GeneratedAccessors.forField(AccessibleBean.class.getDeclaredField("age"))).isNull();
+		assertThat(GeneratedAccessors.forConstructor(HiddenBean.class.getDeclaredConstructor())).isNull();
+		assertThat(GeneratedAccessors.forMethod(HiddenBean.class.getMethod("toString"))).isNull();
+		assertThat(GeneratedAccessors.forMethod(HiddenBean.class.getMethod("setName", String.class))).isNull();
+	}
+
+	@Test
+	public void argumentsMatch() {
+		Class<?>[] paramTypes = new Class<?>[] {String.class, int.class};
+		assertThat(GeneratedAccessors.argumentsMatch(paramTypes, new Object[] {"name", 1})).isTrue();
+		assertThat(GeneratedAccessors.argumentsMatch(paramTypes, new Object[] {null, 1})).isTrue();
+		assertThat(GeneratedAccessors.argumentsMatch(paramTypes, new Object[] {"name", null})).isFalse();
+		assertThat(GeneratedAccessors.argumentsMatch(paramTypes, new Object[] {"name", 1L})).isFalse();
+		assertThat(GeneratedAccessors.argumentsMatch(paramTypes, new Object[] {"name"})).isFalse();
+	}
+
+	@Test
+	public void beanCreationWithGeneratedAccessors() {
+		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
+		CglibSubclassingInstantiationStrategy strategy = new CglibSubclassingInstantiationStrategy();
+		strategy.setUseGeneratedAccessors(true);
+		lbf.setInstantiationStrategy(strategy);
+		AutowiredAnnotationBeanPostProcessor bpp = new AutowiredAnnotationBeanPostProcessor();
+		bpp.setBeanFactory(lbf);
+		bpp.setUseGeneratedAccessors(true);
+		lbf.addBeanPostProcessor(bpp);
+
+		RootBeanDefinition bd = new RootBeanDefinition(AccessibleBean.class);
+		bd.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		bd.getConstructorArgumentValues().addGenericArgumentValue("name");
+		bd.getConstructorArgumentValues().addGenericArgumentValue("5");
+		lbf.registerBeanDefinition("bean", bd);
+		RootBeanDefinition factoryBd = new RootBeanDefinition(AccessibleBean.class);
+		factoryBd.setFactoryMethodName("create");
+		factoryBd.getConstructorArgumentValues().addGenericArgumentValue("factory");
+		lbf.registerBeanDefinition("factoryBean", factoryBd);
+		lbf.registerBeanDefinition("testBean", new RootBeanDefinition(TestBean.class));
+
+		for (int i = 0; i < 3; i++) {
+			AccessibleBean bean = lbf.getBean("bean", AccessibleBean.class);
+			assertThat(bean.name).isEqualTo("name");
+			assertThat(bean.getAge()).isEqualTo(5);
+			assertThat(bean.testBean).isSameAs(lbf.getBean("testBean"));
+			assertThat(bean.otherTestBean).isSameAs(lbf.getBean("testBean"));
+		}
+		assertThat(lbf.getBean("factoryBean", AccessibleBean.class).name).isEqualTo("factory");
+	}
+
+	@Test
+	public void constructorExceptionWithGeneratedAccessors() {
+		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
+		CglibSubclassingInstantiationStrategy strategy = new CglibSubclassingInstantiationStrategy();
+		strategy.setUseGeneratedAccessors(true);
+		lbf.setInstantiationStrategy(strategy);
+		RootBeanDefinition bd = new RootBeanDefinition(AccessibleBean.class);
+		bd.getConstructorArgumentValues().addGenericArgumentValue(true);
+		lbf.registerBeanDefinition("bean", bd);
+
+		assertThatExceptionOfType(BeanCreationException.class).isThrownBy(() -> lbf.getBean("bean"))
+				.withCauseInstanceOf(BeanInstantiationException.class)
+				.withRootCauseInstanceOf(IllegalStateException.class);
+	}
+
+
+	public static class AccessibleBean {
+
+		public String name;
+
+		public final String id = "id";
+
+		private int age;
+
+		@Autowired
+		public TestBean testBean;
+
+		TestBean otherTestBean;
+
+		public AccessibleBean() {
+		}
+
+		public AccessibleBean(String name, int age) {
+			this.name = name;
+			this.age = age;
+		}
+
+		public AccessibleBean(boolean fail) {
+			throw new IllegalStateException("fail");
+		}
+
+		AccessibleBean(String name) {
+			this.name = name;
+		}
+
+		public static AccessibleBean create(String name) {
+			return new AccessibleBean(name);
+		}
+
+		public int getAge() {
+			return this.age;
+		}
+
+		public void setAge(int age) {
+			this.age = age;
+		}
+
+		@Autowired
+		public void setOtherTestBean(TestBean otherTestBean) {
+			this.otherTestBean = otherTestBean;
+		}
+	}
+
+
+	static class HiddenBean {
+
+		public void setName(String name) {
+		}
+
+		@Override
+		public String toString() {
+			return "hidden";
+		}
+	}
+
+}
@@ -0,0 +1,408 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.BeanCurrentlyInCreationException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.SmartFactoryBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.testfixture.beans.TestBean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for parallel singleton pre-instantiation in {@link DefaultListableBeanFactory}.
+ *
+ * @author agent
+ * @since 5.2.6
+ */
+public class ParallelPreInstantiationTests {
+
+	private final ForkJoinPool pool = new ForkJoinPool(4);
+
+	private final DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
+
+
+	@AfterEach
+	public void shutdownPool() {
+		this.pool.shutdownNow();
+	}
+
+
+	@Test
+	public void independentSingletons() {
+		this.lbf.setBootstrapPool(this.pool);
+		for (int i = 0; i < 20; i++) {
+			this.lbf.registerBeanDefinition("bean" + i, new RootBeanDefinition(ThreadRecordingBean.class));
+		}
+		RootBeanDefinition lazy = new RootBeanDefinition(ThreadRecordingBean.class);
+		lazy.setLazyInit(true);
+		this.lbf.registerBeanDefinition("lazy", lazy);
+		this.lbf.preInstantiateSingletons();
+
+		for (int i = 0; i < 20; i++) {
+			assertThat(this.lbf.containsSingleton("bean" + i)).isTrue();
+			ThreadRecordingBean bean = this.lbf.getBean("bean" + i, ThreadRecordingBean.class);
+			assertThat(bean.thread.getName()).contains("ForkJoinPool");
+			assertThat(bean.initialized).isTrue();
+		}
+		assertThat(this.lbf.containsSingleton("lazy")).isFalse();
+		assertThat(this.lbf.isConcurrentSingletonCreation()).isTrue();
+	}
+
+	@Test
+	public void bootstrapPoolRequiresConcurrentSingletonCreation() {
+		this.lbf.setBootstrapPool(this.pool);
+		assertThat(this.lbf.isConcurrentSingletonCreation()).isTrue();
+		assertThatIllegalStateException().isThrownBy(() -> this.lbf.setConcurrentSingletonCreation(false));
+
+		this.lbf.setBootstrapPool(null);
+		this.lbf.setConcurrentSingletonCreation(false);
+		assertThat(this.lbf.isConcurrentSingletonCreation()).isFalse();
+	}
+
+	@Test
+	public void concurrentSingletonCreationFixedOnceSingletonsGetCreated() {
+		this.lbf.registerBeanDefinition("tb", new RootBeanDefinition(TestBean.class));
+		this.lbf.getBean("tb");
+
+		assertThatIllegalStateException().isThrownBy(() -> this.lbf.setConcurrentSingletonCreation(true));
+		assertThatIllegalStateException().isThrownBy(() -> this.lbf.setBootstrapPool(this.pool));
+		assertThat(this.lbf.isConcurrentSingletonCreation()).isFalse();
+		assertThat(this.lbf.getBootstrapPool()).isNull();
+		this.lbf.setConcurrentSingletonCreation(false);
+	}
+
+	@Test
+	public void declaredDependenciesInSameSubgraph() {
+		RootBeanDefinition bd1 = new RootBeanDefinition(TestBean.class);
+		bd1.getPropertyValues().add("spouse", new RuntimeBeanReference("tb2"));
+		RootBeanDefinition bd2 = new RootBeanDefinition(TestBean.class);
+		bd2.setDependsOn("alias3");
+		RootBeanDefinition bd4 = new RootBeanDefinition(TestBean.class);
+		ManagedList<Object> list = new ManagedList<>();
+		list.add(new RuntimeBeanReference("&tb5"));
+		bd4.getPropertyValues().add("someList", list);
+		this.lbf.registerBeanDefinition("tb1", bd1);
+		this.lbf.registerBeanDefinition("tb2", bd2);
+		this.lbf.registerBeanDefinition("tb3", new RootBeanDefinition(TestBean.class));
+		this.lbf.registerBeanDefinition("tb4", bd4);
+		this.lbf.registerBeanDefinition("tb5", new RootBeanDefinition(TestBean.class));
+		this.lbf.registerBeanDefinition("tb6", new RootBeanDefinition(TestBean.class));
+		this.lbf.registerAlias("tb3", "alias3");
+
+		SingletonDependencyGraph graph = new SingletonDependencyGraph(this.lbf);
+		List<String> beanNames = Arrays.asList(this.lbf.getBeanDefinitionNames());
+		for (String beanName : beanNames) {
+			graph.addBean(beanName, this.lbf.getMergedLocalBeanDefinition(beanName));
+		}
+		assertThat(graph.getSubgraphs(beanNames)).containsExactly(
+				Arrays.asList("tb1", "tb2", "tb3"), Arrays.asList("tb4", "tb5"), Arrays.asList("tb6"));
+	}
+
+	@Test
+	public void circularReferenceAcrossThreads() {
+		this.lbf.setBootstrapPool(this.pool);
+		RootBeanDefinition bd1 = new RootBeanDefinition(CircularBean.class);
+		bd1.setAutowireMode(AutowireCapableBeanFactory.AUTOWIRE_BY_NAME);
+		RootBeanDefinition bd2 = new RootBeanDefinition(CircularBean.class);
+		bd2.setAutowireMode(AutowireCapableBeanFactory.AUTOWIRE_BY_NAME);
+		CircularBean.latch = new CountDownLatch(2);
+		this.lbf.registerBeanDefinition("other", bd1);
+		this.lbf.registerBeanDefinition("self", bd2);
+		this.lbf.preInstantiateSingletons();
+
+		CircularBean other = this.lbf.getBean("other", CircularBean.class);
+		CircularBean self = this.lbf.getBean("self", CircularBean.class);
+		assertThat(other.getOther()).isSameAs(other);
+		assertThat(other.getSelf()).isSameAs(self);
+		assertThat(self.getOther()).isSameAs(other);
+		assertThat(self.getSelf()).isSameAs(self);
+	}
+
+	@Test
+	public void factoryBeanConflictAcrossThreads() {
+		this.lbf.setBootstrapPool(this.pool);
+		ConflictingFactoryBean.latch = new CountDownLatch(2);
+		this.lbf.registerBeanDefinition("product", new RootBeanDefinition(ConflictingFactoryBean.class));
+		this.lbf.registerBeanDefinition("consumer", new RootBeanDefinition(ProductConsumer.class));
+		this.lbf.preInstantiateSingletons();
+
+		Product product = this.lbf.getBean("product", Product.class);
+		ProductConsumer consumer = this.lbf.getBean("consumer", ProductConsumer.class);
+		assertThat(product.consumer).isSameAs(consumer);
+		assertThat(consumer.product).isSameAs(product);
+		assertThat(ConflictingFactoryBean.conflicts.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void collaboratorMutexConflictAcrossThreads() throws Exception {
+		this.lbf.setConcurrentSingletonCreation(true);
+		this.lbf.registerBeanDefinition("collaborating", new RootBeanDefinition(MutexCollaboratingBean.class));
+		MutexCollaboratingBean.lockKey = new Object();
+		MutexCollaboratingBean.latch = new CountDownLatch(1);
+
+		Object[] created = new Object[1];
+		Thread creator = new Thread(() -> created[0] = this.lbf.getBean("collaborating"));
+		// Holding the collaborator's lock while the bean, in creation in another thread,
+		// requests the same lock: one of the two threads needs to back off and retry
+		Object bean = this.pool.submit(() -> this.lbf.doWithSingletonMutex(MutexCollaboratingBean.lockKey, () -> {
+			MutexCollaboratingBean.collaboratorThread = Thread.currentThread();
+			if (creator.getState() == Thread.State.NEW) {
+				creator.start();
+			}
+			try {
+				MutexCollaboratingBean.latch.await(1, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			return this.lbf.getBean("collaborating");
+		})).get(5, TimeUnit.SECONDS);
+		creator.join(5000);
+
+		assertThat(creator.isAlive()).isFalse();
+		assertThat(created[0]).isSameAs(bean);
+		assertThat(((MutexCollaboratingBean) bean).collaborated).isTrue();
+	}
+
+	@Test
+	public void unresolvableCircularReferenceAcrossThreads() {
+		this.lbf.setBootstrapPool(this.pool);
+		RootBeanDefinition bd1 = new RootBeanDefinition(ConstructorCircularBean.class);
+		bd1.setAutowireMode(AutowireCapableBeanFactory.AUTOWIRE_CONSTRUCTOR);
+		RootBeanDefinition bd2 = new RootBeanDefinition(ConstructorCircularBean.class);
+		bd2.setAutowireMode(AutowireCapableBeanFactory.AUTOWIRE_CONSTRUCTOR);
+		this.lbf.registerBeanDefinition("tb1", bd1);
+		this.lbf.registerBeanDefinition("tb2", bd2);
+
+		assertThatExceptionOfType(BeanCreationException.class).isThrownBy(
+				this.lbf::preInstantiateSingletons)
+			.satisfies(ex -> assertThat(ex.contains(BeanCurrentlyInCreationException.class)).isTrue());
+		assertThat(this.lbf.containsSingleton("tb1")).isFalse();
+		assertThat(this.lbf.containsSingleton("tb2")).isFalse();
+	}
+
+	@Test
+	public void firstFailureInRegistrationOrder() {
+		this.lbf.setBootstrapPool(this.pool);
+		for (int i = 0; i < 10; i++) {
+			RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+			bd.setInitMethodName(i % 3 == 2 ? "unknownInitMethod" + i : null);
+			this.lbf.registerBeanDefinition("bean" + i, bd);
+		}
+		assertThatExceptionOfType(BeanCreationException.class).isThrownBy(
+				this.lbf::preInstantiateSingletons)
+			.satisfies(ex -> assertThat(ex.getBeanName()).isEqualTo("bean2"));
+	}
+
+
+	public static class ThreadRecordingBean implements SmartInitializingSingleton {
+
+		final Thread thread = Thread.currentThread();
+
+		boolean initialized;
+
+		@Override
+		public void afterSingletonsInstantiated() {
+			this.initialized = true;
+		}
+	}
+
+
+	public static class CircularBean {
+
+		static CountDownLatch latch;
+
+		static final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+		private CircularBean other;
+
+		private CircularBean self;
+
+		public CircularBean() throws InterruptedException {
+			// Make sure that both beans are in creation at the same time on first attempt
+			if (threads.add(Thread.currentThread())) {
+				latch.countDown();
+				latch.await(1, TimeUnit.SECONDS);
+			}
+		}
+
+		public CircularBean getOther() {
+			return this.other;
+		}
+
+		public void setOther(CircularBean other) {
+			this.other = other;
+		}
+
+		public CircularBean getSelf() {
+			return this.self;
+		}
+
+		public void setSelf(CircularBean self) {
+			this.self = self;
+		}
+	}
+
+
+	public static class Product {
+
+		final Object consumer;
+
+		Product(Object consumer) {
+			this.consumer = consumer;
+		}
+	}
+
+
+	/**
+	 * FactoryBean whose first {@code getObject()} call requests the consumer
+	 * while the consumer is in creation in another thread, waiting for the product.
+	 */
+	public static class ConflictingFactoryBean implements SmartFactoryBean<Product>, BeanFactoryAware {
+
+		static CountDownLatch latch;
+
+		static final AtomicInteger conflicts = new AtomicInteger();
+
+		private static final AtomicBoolean firstCall = new AtomicBoolean(true);
+
+		private BeanFactory beanFactory;
+
+		@Override
+		public void setBeanFactory(BeanFactory beanFactory) {
+			this.beanFactory = beanFactory;
+		}
+
+		@Override
+		public Product getObject() throws Exception {
+			if (firstCall.compareAndSet(true, false)) {
+				latch.countDown();
+				latch.await(1, TimeUnit.SECONDS);
+				// Wait for the consumer's thread to block on this FactoryBean's creation lock
+				for (int i = 0; i < 100 && ProductConsumer.thread != null &&
+						ProductConsumer.thread.getState() != Thread.State.WAITING; i++) {
+					Thread.sleep(10);
+				}
+				try {
+					return new Product(this.beanFactory.getBean("consumer"));
+				}
+				catch (BeanCurrentlyInCreationException ex) {
+					conflicts.incrementAndGet();
+					throw ex;
+				}
+			}
+			return new Product(this.beanFactory.getBean("consumer"));
+		}
+
+		@Override
+		public Class<?> getObjectType() {
+			return Product.class;
+		}
+
+		@Override
+		public boolean isEagerInit() {
+			return true;
+		}
+	}
+
+
+	public static class ProductConsumer implements BeanFactoryAware {
+
+		static volatile Thread thread;
+
+		Object product;
+
+		@Override
+		public void setBeanFactory(BeanFactory beanFactory) {
+			if (thread == null) {
+				thread = Thread.currentThread();
+				ConflictingFactoryBean.latch.countDown();
+				try {
+					ConflictingFactoryBean.latch.await(1, TimeUnit.SECONDS);
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			this.product = beanFactory.getBean("product");
+		}
+	}
+
+
+	/**
+	 * Bean calling back into a collaborator which holds its own lock through
+	 * {@link DefaultSingletonBeanRegistry#doWithSingletonMutex} while requesting this bean.
+	 */
+	public static class MutexCollaboratingBean implements BeanFactoryAware {
+
+		static Object lockKey;
+
+		static CountDownLatch latch;
+
+		static volatile Thread collaboratorThread;
+
+		private static final AtomicBoolean firstCall = new AtomicBoolean(true);
+
+		boolean collaborated;
+
+		@Override
+		public void setBeanFactory(BeanFactory beanFactory) {
+			if (firstCall.compareAndSet(true, false)) {
+				latch.countDown();
+				// Wait for the collaborator's thread to block on this bean's creation lock
+				for (int i = 0; i < 100 && collaboratorThread.getState() != Thread.State.WAITING; i++) {
+					try {
+						Thread.sleep(10);
+					}
+					catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			}
+			this.collaborated = ((DefaultListableBeanFactory) beanFactory).doWithSingletonMutex(lockKey, () -> true);
+		}
+	}
+
+
+	public static class ConstructorCircularBean {
+
+		public ConstructorCircularBean(ConstructorCircularBean other) {
+		}
+	}
+
+}
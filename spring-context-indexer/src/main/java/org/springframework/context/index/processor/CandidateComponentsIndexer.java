@@ -38,7 +38,8 @@ import javax.lang.model.element.TypeElement;
 
 /**
  * Annotation {@link Processor} that writes {@link CandidateComponentsMetadata}
- * file for spring components.
+ * file for spring components, as well as {@link ConfigurationClassMetadata}
+ * for configuration classes.
  *
  * @author Stephane Nicoll
  * @author Juergen Hoeller
@@ -57,6 +58,8 @@ public class CandidateComponentsIndexer implements Processor {
 
 	private List<StereotypesProvider> stereotypesProviders;
 
+	private ConfigurationClassMetadataProvider configurationClassMetadataProvider;
+
 
 	@Override
 	public Set<String> getSupportedOptions() {
@@ -78,12 +81,15 @@ public class CandidateComponentsIndexer implements Processor {
 		this.stereotypesProviders = getStereotypesProviders(env);
 		this.typeHelper = new TypeHelper(env);
 		this.metadataStore = new MetadataStore(env);
-		this.metadataCollector = new MetadataCollector(env, this.metadataStore.readMetadata());
+		this.configurationClassMetadataProvider = new ConfigurationClassMetadataProvider(env);
+		this.metadataCollector = new MetadataCollector(env, this.metadataStore.readMetadata(),
+				this.metadataStore.readConfigurationMetadata());
 	}
 
 	@Override
 	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
 		this.metadataCollector.processing(roundEnv);
+		this.configurationClassMetadataProvider.processing(roundEnv);
 		roundEnv.getRootElements().forEach(this::processElement);
 		if (roundEnv.processingOver()) {
 			writeMetaData();
@@ -119,6 +125,7 @@ public class CandidateComponentsIndexer implements Processor {
 		if (!stereotypes.isEmpty()) {
 			this.metadataCollector.add(new ItemMetadata(this.typeHelper.getType(element), stereotypes));
 		}
+		this.configurationClassMetadataProvider.getMetadata(element).forEach(this.metadataCollector::add);
 	}
 
 	private void writeMetaData() {
@@ -131,6 +138,15 @@ public class CandidateComponentsIndexer implements Processor {
 				throw new IllegalStateException("Failed to write metadata", ex);
 			}
 		}
+		List<ConfigurationClassMetadata> configurationMetadata = this.metadataCollector.getConfigurationMetadata();
+		if (!configurationMetadata.isEmpty()) {
+			try {
+				this.metadataStore.writeConfigurationMetadata(configurationMetadata);
+			}
+			catch (IOException ex) {
+				throw new IllegalStateException("Failed to write configuration metadata", ex);
+			}
+		}
 	}
 
 	private static List<TypeElement> staticTypesIn(Iterable<? extends Element> elements) {
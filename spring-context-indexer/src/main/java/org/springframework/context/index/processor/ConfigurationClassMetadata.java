@@ -0,0 +1,64 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index.processor;
+
+import java.util.Map;
+
+/**
+ * Represents the index entry of a class that configuration class processing
+ * introspects: the declaration of the class (its modifiers and kind of type)
+ * and the details of its type hierarchy, annotations and annotated methods,
+ * keyed by their name.
+ *
+ * @author agent
+ * @since 5.2.6
+ */
+class ConfigurationClassMetadata {
+
+	private final String type;
+
+	private final String declaration;
+
+	private final Map<String, String> details;
+
+
+	public ConfigurationClassMetadata(String type, String declaration, Map<String, String> details) {
+		this.type = type;
+		this.declaration = declaration;
+		this.details = details;
+	}
+
+
+	public String getType() {
+		return this.type;
+	}
+
+	public String getDeclaration() {
+		return this.declaration;
+	}
+
+	public Map<String, String> getDetails() {
+		return this.details;
+	}
+
+	@Override
+	public String toString() {
+		return "ConfigurationClassMetadata{" + "type=" + this.type + ", declaration=" + this.declaration +
+				", details=" + this.details + '}';
+	}
+
+}
@@ -0,0 +1,379 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index.processor;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+
+/**
+ * Extract the {@link ConfigurationClassMetadata} of a configuration class
+ * candidate, i.e. a class with component, {@code @ComponentScan}, {@code @Import}
+ * or {@code @ImportResource} annotations or with {@code @Bean} methods, declared
+ * directly or through a meta-annotation.
+ *
+ * <p>Along with the candidate, the metadata of the superclasses, interfaces,
+ * member classes and imported classes that configuration class processing
+ * introspects for it is extracted as well, as far as they are part of the
+ * current compilation. The metadata mirrors what is read from the class file:
+ * runtime-visible annotations with their explicitly declared attribute values,
+ * and annotated methods in declaration order.
+ *
+ * @author agent
+ * @since 5.2.6
+ */
+class ConfigurationClassMetadataProvider {
+
+	static final String ENCLOSING_CLASS = "enclosingClass";
+
+	static final String SUPER_CLASS = "superClass";
+
+	static final String INTERFACES = "interfaces";
+
+	static final String MEMBER_CLASSES = "memberClasses";
+
+	static final String ANNOTATIONS = "annotations";
+
+	static final String METHODS = "methods";
+
+	private static final String BEAN = "org.springframework.context.annotation.Bean";
+
+	private static final String IMPORT = "org.springframework.context.annotation.Import";
+
+	private static final List<String> CANDIDATE_INDICATORS = Arrays.asList(
+			"org.springframework.stereotype.Component",
+			"org.springframework.context.annotation.ComponentScan",
+			IMPORT,
+			"org.springframework.context.annotation.ImportResource");
+
+
+	private final Elements elements;
+
+	private final Types types;
+
+	private final Set<String> sourceTypes = new HashSet<>();
+
+
+	ConfigurationClassMetadataProvider(ProcessingEnvironment env) {
+		this.elements = env.getElementUtils();
+		this.types = env.getTypeUtils();
+	}
+
+
+	/**
+	 * Register the types of the given round as part of the current compilation.
+	 */
+	public void processing(RoundEnvironment roundEnv) {
+		for (Element element : roundEnv.getRootElements()) {
+			if (element instanceof TypeElement) {
+				this.sourceTypes.add(((TypeElement) element).getQualifiedName().toString());
+			}
+		}
+	}
+
+	/**
+	 * Return the configuration class metadata for the specified {@link Element}
+	 * and for the related classes of the current compilation, or an empty list
+	 * if the element is not a configuration class candidate.
+	 */
+	public List<ConfigurationClassMetadata> getMetadata(Element element) {
+		if (element.getKind() != ElementKind.CLASS || !isConfigurationCandidate(element)) {
+			return new ArrayList<>();
+		}
+		Map<String, ConfigurationClassMetadata> result = new LinkedHashMap<>();
+		collectMetadata((TypeElement) element, result);
+		return new ArrayList<>(result.values());
+	}
+
+	private boolean isConfigurationCandidate(Element element) {
+		for (String indicator : CANDIDATE_INDICATORS) {
+			if (isAnnotated(element, indicator, new HashSet<>())) {
+				return true;
+			}
+		}
+		for (ExecutableElement method : ElementFilter.methodsIn(element.getEnclosedElements())) {
+			if (isAnnotated(method, BEAN, new HashSet<>())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void collectMetadata(TypeElement type, Map<String, ConfigurationClassMetadata> result) {
+		String typeName = getBinaryName(type);
+		if (result.containsKey(typeName)) {
+			return;
+		}
+		result.put(typeName, createMetadata(type));
+		List<TypeElement> related = new ArrayList<>();
+		addTypeElement(type.getSuperclass(), related);
+		type.getInterfaces().forEach(ifc -> addTypeElement(ifc, related));
+		related.addAll(ElementFilter.typesIn(type.getEnclosedElements()));
+		collectImports(type, related, new HashSet<>());
+		for (TypeElement candidate : related) {
+			if (isSourceType(candidate)) {
+				collectMetadata(candidate, result);
+			}
+		}
+	}
+
+	/**
+	 * Collect the classes imported by the given element, through {@code @Import}
+	 * declared directly or as a meta-annotation at any depth.
+	 */
+	private void collectImports(Element element, List<TypeElement> imports, Set<String> visited) {
+		for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+			TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+			String typeName = annotationType.getQualifiedName().toString();
+			if (typeName.equals(IMPORT)) {
+				annotation.getElementValues().forEach((attribute, value) -> {
+					if (attribute.getSimpleName().contentEquals("value") && value.getValue() instanceof List) {
+						for (Object imported : (List<?>) value.getValue()) {
+							Object importedType = ((AnnotationValue) imported).getValue();
+							if (importedType instanceof TypeMirror) {
+								addTypeElement((TypeMirror) importedType, imports);
+							}
+						}
+					}
+				});
+			}
+			else if (!typeName.startsWith("java.lang.annotation.") && visited.add(typeName)) {
+				collectImports(annotationType, imports, visited);
+			}
+		}
+	}
+
+	private void addTypeElement(TypeMirror type, List<TypeElement> typeElements) {
+		if (type.getKind() == TypeKind.DECLARED) {
+			typeElements.add((TypeElement) ((DeclaredType) type).asElement());
+		}
+	}
+
+	/**
+	 * Determine whether the given type is declared in a source file of
+	 * the current compilation.
+	 */
+	private boolean isSourceType(TypeElement type) {
+		Element outermost = type;
+		while (outermost.getEnclosingElement() instanceof TypeElement) {
+			outermost = outermost.getEnclosingElement();
+		}
+		return this.sourceTypes.contains(((TypeElement) outermost).getQualifiedName().toString());
+	}
+
+	private ConfigurationClassMetadata createMetadata(TypeElement type) {
+		ElementKind kind = type.getKind();
+		boolean isInterface = (kind == ElementKind.INTERFACE || kind == ElementKind.ANNOTATION_TYPE);
+		Element enclosingElement = type.getEnclosingElement();
+		boolean isNested = (enclosingElement instanceof TypeElement);
+		StringJoiner declaration = new StringJoiner(" ");
+		if (isInterface || type.getModifiers().contains(Modifier.ABSTRACT)) {
+			declaration.add("abstract");
+		}
+		if (type.getModifiers().contains(Modifier.FINAL)) {
+			declaration.add("final");
+		}
+		if (isNested && (isInterface || kind == ElementKind.ENUM || type.getModifiers().contains(Modifier.STATIC))) {
+			declaration.add("static");
+		}
+		declaration.add(kind == ElementKind.ANNOTATION_TYPE ? "@interface" : (isInterface ? "interface" : "class"));
+
+		Map<String, String> details = new LinkedHashMap<>();
+		if (isNested) {
+			details.put(ENCLOSING_CLASS, getBinaryName((TypeElement) enclosingElement));
+		}
+		if (!isInterface && type.getSuperclass().getKind() == TypeKind.DECLARED) {
+			details.put(SUPER_CLASS, getTypeName(type.getSuperclass()));
+		}
+		putIfNotEmpty(details, INTERFACES, joinTypeNames(type.getInterfaces()));
+		// Member classes in the order that javac writes them to the class file
+		List<TypeMirror> memberClasses = new ArrayList<>();
+		ElementFilter.typesIn(type.getEnclosedElements()).forEach(member -> memberClasses.add(0, member.asType()));
+		putIfNotEmpty(details, MEMBER_CLASSES, joinTypeNames(memberClasses));
+		putIfNotEmpty(details, ANNOTATIONS, getAnnotations(type));
+		putIfNotEmpty(details, METHODS, getAnnotatedMethods(type, isInterface));
+		return new ConfigurationClassMetadata(getBinaryName(type), declaration.toString(), details);
+	}
+
+	private String getAnnotatedMethods(TypeElement type, boolean isInterface) {
+		StringJoiner methods = new StringJoiner("; ");
+		for (Element element : type.getEnclosedElements()) {
+			if (element.getKind() != ElementKind.METHOD && element.getKind() != ElementKind.CONSTRUCTOR) {
+				continue;
+			}
+			String annotations = getAnnotations(element);
+			if (annotations.isEmpty()) {
+				continue;
+			}
+			ExecutableElement method = (ExecutableElement) element;
+			Set<Modifier> modifiers = method.getModifiers();
+			StringJoiner declaration = new StringJoiner(" ");
+			if (modifiers.contains(Modifier.ABSTRACT) || (isInterface && element.getKind() == ElementKind.METHOD &&
+					!modifiers.contains(Modifier.DEFAULT) && !modifiers.contains(Modifier.STATIC) &&
+					!modifiers.contains(Modifier.PRIVATE))) {
+				declaration.add("abstract");
+			}
+			for (Modifier modifier : Arrays.asList(Modifier.STATIC, Modifier.FINAL, Modifier.PRIVATE)) {
+				if (modifiers.contains(modifier)) {
+					declaration.add(modifier.toString());
+				}
+			}
+			if (element.getKind() == ElementKind.CONSTRUCTOR) {
+				declaration.add("void").add("<init>");
+			}
+			else {
+				declaration.add(getTypeName(method.getReturnType())).add(method.getSimpleName());
+			}
+			methods.add(declaration.add(annotations).toString());
+		}
+		return methods.toString();
+	}
+
+	/**
+	 * Return the runtime-visible annotations of the given element, as they
+	 * are available from the class file, in the format of the index.
+	 */
+	private String getAnnotations(Element element) {
+		StringJoiner annotations = new StringJoiner(" ");
+		for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+			TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+			String typeName = annotationType.getQualifiedName().toString();
+			Retention retention = annotationType.getAnnotation(Retention.class);
+			if (retention != null && retention.value() == RetentionPolicy.RUNTIME &&
+					!typeName.startsWith("java.lang.") && !typeName.startsWith("org.springframework.lang.")) {
+				annotations.add(formatAnnotation(annotation));
+			}
+		}
+		return annotations.toString();
+	}
+
+	private String formatAnnotation(AnnotationMirror annotation) {
+		StringBuilder result = new StringBuilder("@");
+		result.append(getTypeName(annotation.getAnnotationType()));
+		Map<? extends ExecutableElement, ? extends AnnotationValue> values = annotation.getElementValues();
+		if (!values.isEmpty()) {
+			StringJoiner attributes = new StringJoiner(",", "(", ")");
+			values.forEach((attribute, value) ->
+					attributes.add(attribute.getSimpleName() + "=" + formatValue(value.getValue())));
+			result.append(attributes);
+		}
+		return result.toString();
+	}
+
+	private String formatValue(Object value) {
+		if (value instanceof String || value instanceof Character) {
+			String string = value.toString();
+			return '"' + string.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+		}
+		if (value instanceof TypeMirror) {
+			return getTypeName((TypeMirror) value);
+		}
+		if (value instanceof VariableElement) {
+			return ((VariableElement) value).getSimpleName().toString();
+		}
+		if (value instanceof AnnotationMirror) {
+			return formatAnnotation((AnnotationMirror) value);
+		}
+		if (value instanceof List) {
+			StringJoiner elements = new StringJoiner(",", "{", "}");
+			for (Object element : (List<?>) value) {
+				elements.add(formatValue(((AnnotationValue) element).getValue()));
+			}
+			return elements.toString();
+		}
+		return String.valueOf(value);
+	}
+
+	private String joinTypeNames(List<? extends TypeMirror> types) {
+		StringJoiner names = new StringJoiner(",");
+		types.forEach(type -> names.add(getTypeName(type)));
+		return names.toString();
+	}
+
+	/**
+	 * Return the erased name of the given type as used in class files:
+	 * binary names for classes, with a {@code []} suffix for arrays.
+	 */
+	private String getTypeName(TypeMirror type) {
+		if (type.getKind().isPrimitive() || type.getKind() == TypeKind.VOID) {
+			return type.toString();
+		}
+		TypeMirror erasure = this.types.erasure(type);
+		if (erasure.getKind() == TypeKind.ARRAY) {
+			return getTypeName(((ArrayType) erasure).getComponentType()) + "[]";
+		}
+		if (erasure.getKind() == TypeKind.DECLARED) {
+			return getBinaryName((TypeElement) ((DeclaredType) erasure).asElement());
+		}
+		return erasure.toString();
+	}
+
+	private String getBinaryName(TypeElement type) {
+		return this.elements.getBinaryName(type).toString();
+	}
+
+	private static void putIfNotEmpty(Map<String, String> details, String name, String value) {
+		if (!value.isEmpty()) {
+			details.put(name, value);
+		}
+	}
+
+	/**
+	 * Determine whether the given element carries the given annotation,
+	 * directly or as a meta-annotation at any depth.
+	 */
+	private boolean isAnnotated(Element element, String annotationType, Set<String> visited) {
+		for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+			TypeElement candidate = (TypeElement) annotation.getAnnotationType().asElement();
+			String typeName = candidate.getQualifiedName().toString();
+			if (typeName.equals(annotationType)) {
+				return true;
+			}
+			if (!typeName.startsWith("java.lang.annotation.") && visited.add(typeName) &&
+					isAnnotated(candidate, annotationType, visited)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
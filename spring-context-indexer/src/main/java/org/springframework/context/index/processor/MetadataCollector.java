@@ -18,7 +18,9 @@ package org.springframework.context.index.processor;
 
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.annotation.processing.ProcessingEnvironment;
@@ -36,10 +38,14 @@ class MetadataCollector {
 
 	private final List<ItemMetadata> metadataItems = new ArrayList<>();
 
+	private final Map<String, ConfigurationClassMetadata> configurationItems = new LinkedHashMap<>();
+
 	private final ProcessingEnvironment processingEnvironment;
 
 	private final CandidateComponentsMetadata previousMetadata;
 
+	private final List<ConfigurationClassMetadata> previousConfigurationMetadata;
+
 	private final TypeHelper typeHelper;
 
 	private final Set<String> processedSourceTypes = new HashSet<>();
@@ -53,8 +59,24 @@ class MetadataCollector {
 	public MetadataCollector(ProcessingEnvironment processingEnvironment,
 			CandidateComponentsMetadata previousMetadata) {
 
+		this(processingEnvironment, previousMetadata, null);
+	}
+
+	/**
+	 * Create a new {@code MetadataProcessor} instance.
+	 * @param processingEnvironment the processing environment of the build
+	 * @param previousMetadata any previous metadata or {@code null}
+	 * @param previousConfigurationMetadata any previous configuration class
+	 * metadata or {@code null}
+	 * @since 5.2.6
+	 */
+	public MetadataCollector(ProcessingEnvironment processingEnvironment,
+			CandidateComponentsMetadata previousMetadata,
+			List<ConfigurationClassMetadata> previousConfigurationMetadata) {
+
 		this.processingEnvironment = processingEnvironment;
 		this.previousMetadata = previousMetadata;
+		this.previousConfigurationMetadata = previousConfigurationMetadata;
 		this.typeHelper = new TypeHelper(processingEnvironment);
 	}
 
@@ -75,6 +97,10 @@ class MetadataCollector {
 		this.metadataItems.add(metadata);
 	}
 
+	public void add(ConfigurationClassMetadata metadata) {
+		this.configurationItems.putIfAbsent(metadata.getType(), metadata);
+	}
+
 	public CandidateComponentsMetadata getMetadata() {
 		CandidateComponentsMetadata metadata = new CandidateComponentsMetadata();
 		for (ItemMetadata item : this.metadataItems) {
@@ -91,8 +117,33 @@ class MetadataCollector {
 		return metadata;
 	}
 
+	public List<ConfigurationClassMetadata> getConfigurationMetadata() {
+		List<ConfigurationClassMetadata> metadata = new ArrayList<>(this.configurationItems.values());
+		if (this.previousConfigurationMetadata != null) {
+			for (ConfigurationClassMetadata item : this.previousConfigurationMetadata) {
+				if (!this.configurationItems.containsKey(item.getType()) && shouldBeMerged(item)) {
+					metadata.add(item);
+				}
+			}
+		}
+		return metadata;
+	}
+
 	private boolean shouldBeMerged(ItemMetadata itemMetadata) {
-		String sourceType = itemMetadata.getType();
+		return shouldBeMerged(itemMetadata.getType());
+	}
+
+	private boolean shouldBeMerged(ConfigurationClassMetadata configurationMetadata) {
+		// Nested classes are processed along with their top-level class, and
+		// their binary names need to be turned into canonical names for lookup
+		String type = configurationMetadata.getType();
+		int nestedIndex = type.indexOf('$');
+		return (nestedIndex == -1 ? shouldBeMerged(type) :
+				!deletedInCurrentBuild(type.replace('$', '.')) &&
+						!processedInCurrentBuild(type.substring(0, nestedIndex)));
+	}
+
+	private boolean shouldBeMerged(String sourceType) {
 		return (sourceType != null && !deletedInCurrentBuild(sourceType)
 				&& !processedInCurrentBuild(sourceType));
 	}
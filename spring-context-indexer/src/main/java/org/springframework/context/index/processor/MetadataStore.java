@@ -19,13 +19,15 @@ package org.springframework.context.index.processor;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.List;
 
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.tools.FileObject;
 import javax.tools.StandardLocation;
 
 /**
- * Store {@link CandidateComponentsMetadata} on the filesystem.
+ * Store {@link CandidateComponentsMetadata} and {@link ConfigurationClassMetadata}
+ * on the filesystem.
  *
  * @author Stephane Nicoll
  * @since 5.0
@@ -34,6 +36,8 @@ class MetadataStore {
 
 	static final String METADATA_PATH = "META-INF/spring.components";
 
+	static final String CONFIGURATION_METADATA_PATH = "META-INF/spring.configurations";
+
 	private final ProcessingEnvironment environment;
 
 
@@ -52,6 +56,24 @@ class MetadataStore {
 		}
 	}
 
+	public List<ConfigurationClassMetadata> readConfigurationMetadata() {
+		try (InputStream in = getMetadataResource(CONFIGURATION_METADATA_PATH).openInputStream()) {
+			return PropertiesMarshaller.readConfigurations(in);
+		}
+		catch (IOException ex) {
+			// Failed to read metadata -> ignore.
+			return null;
+		}
+	}
+
+	public void writeConfigurationMetadata(List<ConfigurationClassMetadata> metadata) throws IOException {
+		if (!metadata.isEmpty()) {
+			try (OutputStream outputStream = createMetadataResource(CONFIGURATION_METADATA_PATH).openOutputStream()) {
+				PropertiesMarshaller.writeConfigurations(metadata, outputStream);
+			}
+		}
+	}
+
 	public void writeMetadata(CandidateComponentsMetadata metadata) throws IOException {
 		if (!metadata.getItems().isEmpty()) {
 			try (OutputStream outputStream = createMetadataResource().openOutputStream()) {
@@ -71,11 +93,19 @@ class MetadataStore {
 	}
 
 	private FileObject getMetadataResource() throws IOException {
-		return this.environment.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", METADATA_PATH);
+		return getMetadataResource(METADATA_PATH);
+	}
+
+	private FileObject getMetadataResource(String path) throws IOException {
+		return this.environment.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", path);
 	}
 
 	private FileObject createMetadataResource() throws IOException {
-		return this.environment.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", METADATA_PATH);
+		return createMetadataResource(METADATA_PATH);
+	}
+
+	private FileObject createMetadataResource(String path) throws IOException {
+		return this.environment.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", path);
 	}
 
 }
@@ -19,13 +19,20 @@ package org.springframework.context.index.processor;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.TreeMap;
 
 /**
- * Marshaller to write {@link CandidateComponentsMetadata} as properties.
+ * Marshaller to write {@link CandidateComponentsMetadata} and
+ * {@link ConfigurationClassMetadata} as properties.
  *
  * @author Stephane Nicoll
  * @author Vedran Pavic
@@ -33,6 +40,8 @@ import java.util.Set;
  */
 abstract class PropertiesMarshaller {
 
+	private static final String DETAIL_SEPARATOR = "#";
+
 	public static void write(CandidateComponentsMetadata metadata, OutputStream out) throws IOException {
 		Properties props = new SortedProperties(true);
 		metadata.getItems().forEach(m -> props.put(m.getType(), String.join(",", m.getStereotypes())));
@@ -50,4 +59,37 @@ abstract class PropertiesMarshaller {
 		return result;
 	}
 
+	public static void writeConfigurations(List<ConfigurationClassMetadata> metadata, OutputStream out)
+			throws IOException {
+
+		Properties props = new SortedProperties(true);
+		metadata.forEach(m -> {
+			props.put(m.getType(), m.getDeclaration());
+			m.getDetails().forEach((name, value) -> props.put(m.getType() + DETAIL_SEPARATOR + name, value));
+		});
+		props.store(out, null);
+	}
+
+	public static List<ConfigurationClassMetadata> readConfigurations(InputStream in) throws IOException {
+		Properties props = new Properties();
+		props.load(in);
+		Map<String, String> declarations = new TreeMap<>();
+		Map<String, Map<String, String>> details = new HashMap<>();
+		props.forEach((key, value) -> {
+			String name = (String) key;
+			int separatorIndex = name.indexOf(DETAIL_SEPARATOR);
+			if (separatorIndex != -1) {
+				details.computeIfAbsent(name.substring(0, separatorIndex), type -> new TreeMap<>())
+						.put(name.substring(separatorIndex + 1), (String) value);
+			}
+			else {
+				declarations.put(name, (String) value);
+			}
+		});
+		List<ConfigurationClassMetadata> result = new ArrayList<>();
+		declarations.forEach((type, declaration) -> result.add(new ConfigurationClassMetadata(
+				type, declaration, details.getOrDefault(type, Collections.emptyMap()))));
+		return result;
+	}
+
 }
@@ -20,6 +20,8 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
 
 import javax.annotation.ManagedBean;
 import javax.inject.Named;
@@ -47,6 +49,11 @@ import org.springframework.context.index.sample.SampleService;
 import org.springframework.context.index.sample.cdi.SampleManagedBean;
 import org.springframework.context.index.sample.cdi.SampleNamed;
 import org.springframework.context.index.sample.cdi.SampleTransactional;
+import org.springframework.context.index.sample.config.SampleCondition;
+import org.springframework.context.index.sample.config.SampleConfiguration;
+import org.springframework.context.index.sample.config.SampleImportedBean;
+import org.springframework.context.index.sample.config.SampleImportedConfiguration;
+import org.springframework.context.index.sample.config.SampleLiteConfiguration;
 import org.springframework.context.index.sample.jpa.SampleConverter;
 import org.springframework.context.index.sample.jpa.SampleEmbeddable;
 import org.springframework.context.index.sample.jpa.SampleEntity;
@@ -218,6 +225,70 @@ class CandidateComponentsIndexerTests {
 		assertThat(metadata.getItems()).hasSize(0);
 	}
 
+	@Test
+	void configurationClass() {
+		ConfigurationClassMetadata metadata = compileConfiguration(SampleConfiguration.class);
+		assertThat(metadata.getType()).isEqualTo(SampleConfiguration.class.getName());
+		assertThat(metadata.getDeclaration()).isEqualTo("class");
+		assertThat(metadata.getDetails()).containsOnlyKeys("superClass", "annotations", "methods");
+		assertThat(metadata.getDetails().get("superClass")).isEqualTo("java.lang.Object");
+		assertThat(metadata.getDetails().get("annotations")).isEqualTo(
+				"@org.springframework.context.annotation.Configuration " +
+				"@org.springframework.context.annotation.Import(value={" +
+				"org.springframework.context.index.sample.config.SampleImportedConfiguration," +
+				"org.springframework.context.index.sample.config.SampleImportedBean}) " +
+				"@org.springframework.context.annotation.PropertySource(value={\"classpath:sample.properties\"}) " +
+				"@org.springframework.context.annotation.Profile(value={\"sample\"})");
+		assertThat(metadata.getDetails().get("methods")).isEqualTo(
+				"java.lang.String firstBean @org.springframework.context.annotation.Bean; " +
+				"static java.lang.Integer secondBean @org.springframework.context.annotation.Bean " +
+				"@org.springframework.context.annotation.Conditional(value={" +
+				"org.springframework.context.index.sample.config.SampleCondition}); " +
+				"java.lang.String[] thirdBean @org.springframework.context.annotation.Bean");
+	}
+
+	@Test
+	void configurationClassFromBeanMethods() {
+		ConfigurationClassMetadata metadata = compileConfiguration(SampleImportedConfiguration.class);
+		assertThat(metadata.getDetails().get("methods")).isEqualTo(
+				"java.lang.Object importedBean @org.springframework.context.annotation.Bean");
+	}
+
+	@Test
+	void configurationClassWithoutBeanMethods() {
+		ConfigurationClassMetadata metadata = compileConfiguration(SampleLiteConfiguration.class);
+		assertThat(metadata.getDetails().get("annotations")).isEqualTo(
+				"@org.springframework.context.annotation.Configuration(proxyBeanMethods=false)");
+		assertThat(metadata.getDetails()).doesNotContainKey("methods");
+	}
+
+	@Test
+	void configurationClassWithImportedClasses() {
+		CandidateComponentsIndexer processor = new CandidateComponentsIndexer();
+		this.compiler.getTask(SampleConfiguration.class, SampleImportedConfiguration.class,
+				SampleImportedBean.class, SampleCondition.class).call(processor);
+		List<ConfigurationClassMetadata> metadata = readGeneratedConfigurationMetadata(this.compiler.getOutputLocation());
+		assertThat(metadata).extracting(ConfigurationClassMetadata::getType).containsExactlyInAnyOrder(
+				SampleConfiguration.class.getName(), SampleImportedConfiguration.class.getName(),
+				SampleImportedBean.class.getName());
+	}
+
+	@Test
+	void configurationClassWithImportedClassesFromOtherCompilation() {
+		CandidateComponentsIndexer processor = new CandidateComponentsIndexer();
+		this.compiler.getTask(SampleConfiguration.class).call(processor);
+		List<ConfigurationClassMetadata> metadata = readGeneratedConfigurationMetadata(this.compiler.getOutputLocation());
+		assertThat(metadata).extracting(ConfigurationClassMetadata::getType).containsExactly(
+				SampleConfiguration.class.getName());
+	}
+
+	@Test
+	void noConfigurationClass() {
+		CandidateComponentsIndexer processor = new CandidateComponentsIndexer();
+		this.compiler.getTask(SampleNone.class, SampleCondition.class).call(processor);
+		assertThat(readGeneratedConfigurationMetadata(this.compiler.getOutputLocation())).isEmpty();
+	}
+
 	private void testComponent(Class<?>... classes) {
 		CandidateComponentsMetadata metadata = compile(classes);
 		for (Class<?> c : classes) {
@@ -244,6 +315,29 @@ class CandidateComponentsIndexerTests {
 		return readGeneratedMetadata(this.compiler.getOutputLocation());
 	}
 
+	private ConfigurationClassMetadata compileConfiguration(Class<?> type) {
+		CandidateComponentsIndexer processor = new CandidateComponentsIndexer();
+		this.compiler.getTask(type).call(processor);
+		return readGeneratedConfigurationMetadata(this.compiler.getOutputLocation()).stream()
+				.filter(item -> item.getType().equals(type.getName()))
+				.findFirst().orElseThrow(() -> new IllegalStateException("No metadata for " + type));
+	}
+
+	private List<ConfigurationClassMetadata> readGeneratedConfigurationMetadata(File outputLocation) {
+		File metadataFile = new File(outputLocation, MetadataStore.CONFIGURATION_METADATA_PATH);
+		if (metadataFile.isFile()) {
+			try (FileInputStream fileInputStream = new FileInputStream(metadataFile)) {
+				return PropertiesMarshaller.readConfigurations(fileInputStream);
+			}
+			catch (IOException ex) {
+				throw new IllegalStateException("Failed to read metadata from disk", ex);
+			}
+		}
+		else {
+			return Collections.emptyList();
+		}
+	}
+
 	private CandidateComponentsMetadata readGeneratedMetadata(File outputLocation) {
 		File metadataFile = new File(outputLocation, MetadataStore.METADATA_PATH);
 		if (metadataFile.isFile()) {
@@ -21,11 +21,16 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 
 /**
  * Tests for {@link PropertiesMarshaller}.
@@ -63,6 +68,35 @@ public class PropertiesMarshallerTests {
 		assertThat(contents.split(System.lineSeparator())).containsExactly("com.a=type", "com.b=type", "com.c=type");
 	}
 
+	@Test
+	public void readWriteConfigurations() throws IOException {
+		Map<String, String> details = new LinkedHashMap<>();
+		details.put("superClass", "java.lang.Object");
+		details.put("memberClasses", "com.foo.Config$Nested");
+		details.put("methods", "java.lang.String second @com.foo.Bean; java.lang.String first @com.foo.Bean");
+		List<ConfigurationClassMetadata> metadata = Arrays.asList(
+				new ConfigurationClassMetadata("com.foo.Config", "class", details),
+				new ConfigurationClassMetadata("com.foo.Config$Nested", "static class",
+						Collections.singletonMap("enclosingClass", "com.foo.Config")));
+
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		PropertiesMarshaller.writeConfigurations(metadata, outputStream);
+		List<ConfigurationClassMetadata> readMetadata = PropertiesMarshaller.readConfigurations(
+				new ByteArrayInputStream(outputStream.toByteArray()));
+		assertThat(readMetadata).hasSize(2);
+		for (ConfigurationClassMetadata item : readMetadata) {
+			if (item.getType().equals("com.foo.Config")) {
+				assertThat(item.getDeclaration()).isEqualTo("class");
+				assertThat(item.getDetails()).isEqualTo(details);
+			}
+			else {
+				assertThat(item.getType()).isEqualTo("com.foo.Config$Nested");
+				assertThat(item.getDeclaration()).isEqualTo("static class");
+				assertThat(item.getDetails()).containsOnly(entry("enclosingClass", "com.foo.Config"));
+			}
+		}
+	}
+
 	private static ItemMetadata createItem(String type, String... stereotypes) {
 		return new ItemMetadata(type, new HashSet<>(Arrays.asList(stereotypes)));
 	}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index.sample.config;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.annotation.PropertySource;
+
+/**
+ * Test candidate for a full {@link Configuration} class.
+ *
+ * @author agent
+ */
+@Configuration
+@Import({SampleImportedConfiguration.class, SampleImportedBean.class})
+@PropertySource("classpath:sample.properties")
+@Profile("sample")
+public class SampleConfiguration {
+
+	@Bean
+	public String firstBean() {
+		return "first";
+	}
+
+	@Bean
+	@Conditional(SampleCondition.class)
+	public static Integer secondBean(List<String> names, int[] counts) {
+		return names.size();
+	}
+
+	public String noBean() {
+		return "none";
+	}
+
+	@Bean
+	public String[] thirdBean(String firstBean) {
+		return new String[] {firstBean};
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package org.springframework.context.annotation;
 
 import java.lang.annotation.Annotation;
+import java.util.Collection;
 import java.util.function.Supplier;
 
 import org.springframework.beans.factory.annotation.AnnotatedGenericBeanDefinition;
@@ -56,6 +57,9 @@ public class AnnotatedBeanDefinitionReader {
 
 	private ConditionEvaluator conditionEvaluator;
 
+	@Nullable
+	private Collection<String> conditionalItems;
+
 
 	/**
 	 为给定的注册表创建一个新的{@code AnnotatedBeanDefinitionReader} for the given registry.
@@ -104,6 +108,17 @@ public class AnnotatedBeanDefinitionReader {
 	 */
 	public void setEnvironment(Environment environment) {
 		this.conditionEvaluator = new ConditionEvaluator(this.registry, environment, null);
+		this.conditionEvaluator.setConditionalItems(this.conditionalItems);
+	}
+
+	/**
+	 * Specify a collection to record component classes guarded by conditions
+	 * other than profiles into, as needed by {@link BeanDefinitionSnapshotGenerator}.
+	 * @since 5.2.6
+	 */
+	void setConditionalItems(@Nullable Collection<String> conditionalItems) {
+		this.conditionalItems = conditionalItems;
+		this.conditionEvaluator.setConditionalItems(conditionalItems);
 	}
 
 	/**
@@ -16,15 +16,25 @@
 
 package org.springframework.context.annotation;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Supplier;
 
+import org.springframework.beans.factory.BeanDefinitionStoreException;
 import org.springframework.beans.factory.config.BeanDefinitionCustomizer;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.beans.factory.support.BeanNameGenerator;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.context.support.GenericApplicationContext;
 import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.io.Resource;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
 
 /**
  * 独立应用程序上下文，接受<em>组件类</em>作为输入&mdash;
@@ -57,6 +67,13 @@ public class AnnotationConfigApplicationContext extends GenericApplicationContex
 
 	private final ClassPathBeanDefinitionScanner scanner;
 
+	@Nullable
+	private Resource beanDefinitionSnapshot;
+
+	private final List<String> componentClassNames = new ArrayList<>();
+
+	private final List<String> deferredBasePackages = new ArrayList<>();
+
 
 	/**
 	 *创建一个新的需要填充的AnnotationConfigApplicationContext
@@ -152,6 +169,41 @@ public class AnnotationConfigApplicationContext extends GenericApplicationContex
 		this.scanner.setScopeMetadataResolver(scopeMetadataResolver);
 	}
 
+	/**
+	 * Specify a {@link ForkJoinPool} for scanning the class path in parallel,
+	 * for {@link #scan} as well as for {@link ComponentScan @ComponentScan}
+	 * declarations on configuration classes.
+	 * <p>Default is none, scanning sequentially. Note that the bean factory's
+	 * {@linkplain DefaultListableBeanFactory#setBootstrapPool bootstrap pool}
+	 * is not used for scanning unless specified here as well.
+	 * <p>Any call to this method must occur prior to calls to {@link #scan(String...)}.
+	 * @since 5.2.6
+	 * @see ClassPathScanningCandidateComponentProvider#setScanningPool
+	 * @see ConfigurationClassPostProcessor#setScanningPool
+	 */
+	public void setScanningPool(@Nullable ForkJoinPool scanningPool) {
+		this.scanner.setScanningPool(scanningPool);
+		if (scanningPool != null) {
+			getBeanFactory().registerSingleton(AnnotationConfigUtils.CONFIGURATION_SCANNING_POOL, scanningPool);
+		}
+	}
+
+	/**
+	 * Specify a bean definition snapshot generated at build time through
+	 * {@link BeanDefinitionSnapshotGenerator}, to be applied on refresh instead of
+	 * classpath scanning and configuration class parsing.
+	 * <p>The snapshot is only applied if it is up to date: that is, if it has been
+	 * generated for the same component classes, base packages and active profiles
+	 * and if none of the class files that it was derived from changed since then.
+	 * Otherwise, or if the resource does not exist, live processing happens as usual.
+	 * <p>Any call to this method must occur prior to calls to {@link #scan(String...)}.
+	 * @since 5.2.6
+	 * @see BeanDefinitionSnapshotGenerator
+	 */
+	public void setBeanDefinitionSnapshot(@Nullable Resource beanDefinitionSnapshot) {
+		this.beanDefinitionSnapshot = beanDefinitionSnapshot;
+	}
+
 
 	//---------------------------------------------------------------------
 	// 实现AnnotationConfigRegistry
@@ -172,6 +224,9 @@ public class AnnotationConfigApplicationContext extends GenericApplicationContex
 		Assert.notEmpty(componentClasses, "At least one component class must be specified");
 		//处理组件类
 		this.reader.register(componentClasses);
+		for (Class<?> componentClass : componentClasses) {
+			this.componentClassNames.add(componentClass.getName());
+		}
 	}
 
 	/**
@@ -185,7 +240,55 @@ public class AnnotationConfigApplicationContext extends GenericApplicationContex
 	@Override
 	public void scan(String... basePackages) {
 		Assert.notEmpty(basePackages, "At least one base package must be specified");
-		this.scanner.scan(basePackages);
+		if (this.beanDefinitionSnapshot != null) {
+			// Scan on refresh only if the snapshot turns out to be stale
+			this.deferredBasePackages.addAll(Arrays.asList(basePackages));
+		}
+		else {
+			this.scanner.scan(basePackages);
+		}
+	}
+
+
+	/**
+	 * Apply the bean definition snapshot, if any, or perform deferred scanning.
+	 * @see #setBeanDefinitionSnapshot
+	 */
+	@Override
+	protected void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+		super.postProcessBeanFactory(beanFactory);
+		Resource snapshotResource = this.beanDefinitionSnapshot;
+		if (snapshotResource == null) {
+			return;
+		}
+		BeanDefinitionSnapshot snapshot = null;
+		if (snapshotResource.exists()) {
+			try (InputStream is = snapshotResource.getInputStream()) {
+				snapshot = BeanDefinitionSnapshot.readFrom(is, getClassLoader());
+			}
+			catch (IOException ex) {
+				if (logger.isInfoEnabled()) {
+					logger.info("Ignoring unreadable bean definition snapshot " + snapshotResource + ": " + ex);
+				}
+			}
+		}
+		if (snapshot != null && snapshot.isUpToDate(
+				this.componentClassNames, this.deferredBasePackages, getEnvironment(), this, this)) {
+			try {
+				snapshot.applyTo(beanFactory, getEnvironment(), this);
+			}
+			catch (IOException ex) {
+				throw new BeanDefinitionStoreException(
+						"Failed to apply bean definition snapshot " + snapshotResource, ex);
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Applied " + snapshot.getBeanDefinitions().size() +
+						" bean definitions from snapshot " + snapshotResource);
+			}
+		}
+		else if (!this.deferredBasePackages.isEmpty()) {
+			this.scanner.scan(StringUtils.toStringArray(this.deferredBasePackages));
+		}
 	}
 
 
@@ -76,6 +76,16 @@ public abstract class AnnotationConfigUtils {
 	public static final String CONFIGURATION_BEAN_NAME_GENERATOR =
 			"org.springframework.context.annotation.internalConfigurationBeanNameGenerator";
 
+	/**
+	 * The bean name of the internally managed ForkJoinPool for scanning the class path
+	 * in parallel when processing {@link ComponentScan @ComponentScan} declarations.
+	 * Set by {@link AnnotationConfigApplicationContext#setScanningPool} in order to
+	 * make it available to the underlying {@link ConfigurationClassPostProcessor}.
+	 * @since 5.2.6
+	 */
+	public static final String CONFIGURATION_SCANNING_POOL =
+			"org.springframework.context.annotation.internalConfigurationScanningPool";
+
 	/**
 	 * The bean name of the internally managed Autowired annotation processor.
 	 */
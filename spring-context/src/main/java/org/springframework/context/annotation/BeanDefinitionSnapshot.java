@@ -0,0 +1,910 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.zip.CRC32;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.MutablePropertyValues;
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
+import org.springframework.beans.factory.config.RuntimeBeanNameReference;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.config.TypedStringValue;
+import org.springframework.beans.factory.parsing.FailFastProblemReporter;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.GenericBeanDefinition;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.core.annotation.AnnotationAttributes;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PropertySourceFactory;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.ResourceUtils;
+
+/**
+ * Serialized form of the bean definitions that configuration class processing
+ * and classpath scanning contribute to an {@link AnnotationConfigApplicationContext},
+ * along with the information needed to tell whether it still matches the classpath.
+ *
+ * <p>Written at build time by {@link BeanDefinitionSnapshotGenerator} and applied
+ * through {@link AnnotationConfigApplicationContext#setBeanDefinitionSnapshot}
+ * instead of scanning and parsing on every startup. A snapshot is only applied if
+ * the registered component classes, the scanned base packages and the active
+ * profiles are the same as at build time, and if none of the class files that it
+ * was derived from changed in the meantime: this includes the presence of every
+ * class file within the scanned packages. Fingerprints are based on the CRC-32
+ * checksum and the size of the content of the class files, so they remain valid
+ * when the classes get packaged into a jar file. For classes in a jar file, the
+ * checksum recorded in the jar's central directory is used, avoiding to read the
+ * class files themselves on startup.
+ *
+ * <p>Only bean definitions with declarative metadata can be represented: plain
+ * values, typed String values, classes and bean references as constructor arguments,
+ * property values and attributes. {@code @Conditional} declarations other than
+ * profiles are not supported, since they need to be evaluated at runtime.
+ *
+ * @author agent
+ * @since 5.2.6
+ * @see BeanDefinitionSnapshotGenerator
+ */
+final class BeanDefinitionSnapshot {
+
+	private static final int MAGIC = 0x53424453;
+
+	private static final int FORMAT_VERSION = 4;
+
+	private static final byte NULL_VALUE = 0;
+
+	private static final byte STRING_VALUE = 1;
+
+	private static final byte TYPED_STRING_VALUE = 2;
+
+	private static final byte BOOLEAN_VALUE = 3;
+
+	private static final byte INTEGER_VALUE = 4;
+
+	private static final byte LONG_VALUE = 5;
+
+	private static final byte CLASS_VALUE = 6;
+
+	private static final byte BEAN_REFERENCE = 7;
+
+	private static final byte BEAN_NAME_REFERENCE = 8;
+
+	private static final byte NEW_DEFINITION = 1;
+
+	private static final byte BEAN_METHOD_DEFINITION = 2;
+
+	private static final byte UNIQUE_FACTORY_METHOD = 4;
+
+	private static final Log logger = LogFactory.getLog(BeanDefinitionSnapshot.class);
+
+
+	private final List<String> componentClasses;
+
+	private final List<String> basePackages;
+
+	private final List<String> activeProfiles;
+
+	private final Map<String, Long> classFingerprints;
+
+	private final Map<String, Long> packageFingerprints;
+
+	private final List<AnnotationAttributes> propertySources;
+
+	private final Map<String, String> imports;
+
+	private final Map<String, String> aliases;
+
+	private final Map<String, BeanDefinition> beanDefinitions;
+
+
+	/**
+	 * Create a new snapshot for the given metadata.
+	 * @param componentClasses the names of the component classes registered upfront
+	 * @param basePackages the base packages scanned through the context itself
+	 * @param activeProfiles the profiles active at build time
+	 * @param classFingerprints fingerprints of the class files that the bean definitions
+	 * were derived from, keyed by class name
+	 * @param packageFingerprints fingerprints of all class files in the scanned packages,
+	 * keyed by base package
+	 * @param propertySources the processed {@code @PropertySource} declarations, in order
+	 * @param imports the importing class name per imported configuration class
+	 * @param aliases the registered aliases, mapped to the canonical bean name
+	 * @param beanDefinitions the bean definitions to register, in registration order;
+	 * {@link ExistingBeanDefinition} entries just carry attributes for definitions
+	 * that the context registers upfront
+	 */
+	BeanDefinitionSnapshot(List<String> componentClasses, List<String> basePackages, List<String> activeProfiles,
+			Map<String, Long> classFingerprints, Map<String, Long> packageFingerprints,
+			List<AnnotationAttributes> propertySources, Map<String, String> imports,
+			Map<String, String> aliases, Map<String, BeanDefinition> beanDefinitions) {
+
+		this.componentClasses = componentClasses;
+		this.basePackages = basePackages;
+		this.activeProfiles = activeProfiles;
+		this.classFingerprints = classFingerprints;
+		this.packageFingerprints = packageFingerprints;
+		this.propertySources = propertySources;
+		this.imports = imports;
+		this.aliases = aliases;
+		this.beanDefinitions = beanDefinitions;
+	}
+
+
+	/**
+	 * Return the bean definitions in this snapshot, in registration order.
+	 */
+	public Map<String, BeanDefinition> getBeanDefinitions() {
+		return this.beanDefinitions;
+	}
+
+	/**
+	 * Determine whether this snapshot still reflects what live processing would
+	 * produce for the given context setup.
+	 * @param componentClasses the names of the component classes registered upfront
+	 * @param basePackages the base packages to scan
+	 * @param environment the environment to check the active profiles against
+	 * @param registry the registry containing the upfront registrations
+	 * @param resourcePatternResolver the resolver to check class files against
+	 */
+	public boolean isUpToDate(List<String> componentClasses, List<String> basePackages,
+			ConfigurableEnvironment environment, BeanDefinitionRegistry registry,
+			ResourcePatternResolver resourcePatternResolver) {
+
+		if (!this.componentClasses.equals(componentClasses)) {
+			return stale("component classes " + componentClasses + " differ from " + this.componentClasses);
+		}
+		if (!this.basePackages.equals(basePackages)) {
+			return stale("base packages " + basePackages + " differ from " + this.basePackages);
+		}
+		if (!new HashSet<>(this.activeProfiles).equals(new HashSet<>(Arrays.asList(environment.getActiveProfiles())))) {
+			return stale("active profiles " + Arrays.toString(environment.getActiveProfiles()) +
+					" differ from " + this.activeProfiles);
+		}
+		for (Map.Entry<String, BeanDefinition> entry : this.beanDefinitions.entrySet()) {
+			if (entry.getValue() instanceof ExistingBeanDefinition &&
+					!registry.containsBeanDefinition(entry.getKey())) {
+				return stale("bean definition '" + entry.getKey() + "' has not been registered upfront");
+			}
+		}
+		for (Map.Entry<String, Long> entry : this.classFingerprints.entrySet()) {
+			if (classFingerprint(entry.getKey(), resourcePatternResolver) != entry.getValue()) {
+				return stale("class file for [" + entry.getKey() + "] changed");
+			}
+		}
+		try {
+			for (Map.Entry<String, Long> entry : this.packageFingerprints.entrySet()) {
+				if (packageFingerprint(entry.getKey(), resourcePatternResolver) != entry.getValue()) {
+					return stale("class files in package '" + entry.getKey() + "' changed");
+				}
+			}
+		}
+		catch (IOException ex) {
+			return stale("package contents not resolvable: " + ex);
+		}
+		return true;
+	}
+
+	private boolean stale(String reason) {
+		if (logger.isInfoEnabled()) {
+			logger.info("Bean definition snapshot is stale: " + reason);
+		}
+		return false;
+	}
+
+	/**
+	 * Apply this snapshot to the given bean factory: register its bean definitions
+	 * and aliases, add its property sources to the environment, and expose its
+	 * import metadata for {@link ImportAware} configuration classes.
+	 * @param beanFactory the bean factory to apply the snapshot to
+	 * @param environment the environment to add property sources to
+	 * @param resourcePatternResolver the resolver to load property sources with
+	 * @throws IOException if a property source could not be loaded
+	 */
+	public void applyTo(ConfigurableListableBeanFactory beanFactory, ConfigurableEnvironment environment,
+			ResourcePatternResolver resourcePatternResolver) throws IOException {
+
+		BeanDefinitionRegistry registry = (BeanDefinitionRegistry) beanFactory;
+		for (Map.Entry<String, BeanDefinition> entry : this.beanDefinitions.entrySet()) {
+			BeanDefinition bd = entry.getValue();
+			if (bd instanceof ExistingBeanDefinition) {
+				BeanDefinition existing = registry.getBeanDefinition(entry.getKey());
+				for (String attributeName : bd.attributeNames()) {
+					existing.setAttribute(attributeName, bd.getAttribute(attributeName));
+				}
+			}
+			else {
+				registry.registerBeanDefinition(entry.getKey(), ((AbstractBeanDefinition) bd).cloneBeanDefinition());
+			}
+		}
+		for (Map.Entry<String, BeanDefinition> entry : this.beanDefinitions.entrySet()) {
+			if (entry.getValue() instanceof DecoratingBeanDefinition) {
+				String targetBeanName = ((DecoratingBeanDefinition) entry.getValue()).targetBeanName;
+				if (targetBeanName != null) {
+					BeanDefinition target = registry.getBeanDefinition(targetBeanName);
+					RootBeanDefinition bd = (RootBeanDefinition) registry.getBeanDefinition(entry.getKey());
+					bd.setDecoratedDefinition(new BeanDefinitionHolder(target, targetBeanName));
+					bd.setOriginatingBeanDefinition(target);
+				}
+			}
+		}
+		this.aliases.forEach((alias, beanName) -> registry.registerAlias(beanName, alias));
+
+		if (!this.propertySources.isEmpty()) {
+			ConfigurationClassParser parser = new ConfigurationClassParser(
+					new CachingMetadataReaderFactory(resourcePatternResolver), new FailFastProblemReporter(),
+					environment, resourcePatternResolver, AnnotationBeanNameGenerator.INSTANCE, registry);
+			for (AnnotationAttributes propertySource : this.propertySources) {
+				parser.processPropertySource(propertySource);
+			}
+		}
+
+		if (!beanFactory.containsSingleton(ConfigurationClassPostProcessor.IMPORT_REGISTRY_BEAN_NAME)) {
+			beanFactory.registerSingleton(ConfigurationClassPostProcessor.IMPORT_REGISTRY_BEAN_NAME,
+					new SnapshotImportRegistry(this.imports, beanFactory.getBeanClassLoader()));
+		}
+	}
+
+
+	/**
+	 * Write this snapshot to the given stream.
+	 * @param outputStream the stream to write to (left open)
+	 * @throws IOException in case of I/O errors
+	 * @throws IllegalArgumentException if a bean definition cannot be represented
+	 */
+	public void writeTo(OutputStream outputStream) throws IOException {
+		DataOutputStream out = new DataOutputStream(outputStream);
+		out.writeInt(MAGIC);
+		out.writeInt(FORMAT_VERSION);
+		writeStrings(out, this.componentClasses);
+		writeStrings(out, this.basePackages);
+		writeStrings(out, this.activeProfiles);
+		writeFingerprints(out, this.classFingerprints);
+		writeFingerprints(out, this.packageFingerprints);
+		out.writeInt(this.propertySources.size());
+		for (AnnotationAttributes propertySource : this.propertySources) {
+			out.writeUTF(propertySource.getString("name"));
+			writeStrings(out, Arrays.asList(propertySource.getStringArray("value")));
+			out.writeBoolean(propertySource.getBoolean("ignoreResourceNotFound"));
+			out.writeUTF(propertySource.getString("encoding"));
+			out.writeUTF(propertySource.getClass("factory").getName());
+		}
+		writeNames(out, this.imports);
+		writeNames(out, this.aliases);
+		out.writeInt(this.beanDefinitions.size());
+		for (Map.Entry<String, BeanDefinition> entry : this.beanDefinitions.entrySet()) {
+			out.writeUTF(entry.getKey());
+			writeBeanDefinition(out, entry.getKey(), entry.getValue());
+		}
+		out.flush();
+	}
+
+	/**
+	 * Read a snapshot from the given stream.
+	 * @param inputStream the stream to read from (left open)
+	 * @param classLoader the ClassLoader to resolve class values against
+	 * @throws IOException in case of I/O errors or an unsupported format
+	 */
+	public static BeanDefinitionSnapshot readFrom(InputStream inputStream, @Nullable ClassLoader classLoader)
+			throws IOException {
+
+		DataInputStream in = new DataInputStream(inputStream);
+		if (in.readInt() != MAGIC) {
+			throw new IOException("Not a bean definition snapshot");
+		}
+		int version = in.readInt();
+		if (version != FORMAT_VERSION) {
+			throw new IOException("Unsupported bean definition snapshot format version " + version);
+		}
+		List<String> componentClasses = readStrings(in);
+		List<String> basePackages = readStrings(in);
+		List<String> activeProfiles = readStrings(in);
+		Map<String, Long> classFingerprints = readFingerprints(in);
+		Map<String, Long> packageFingerprints = readFingerprints(in);
+		int propertySourceCount = in.readInt();
+		List<AnnotationAttributes> propertySources = new ArrayList<>(propertySourceCount);
+		for (int i = 0; i < propertySourceCount; i++) {
+			AnnotationAttributes propertySource = new AnnotationAttributes(PropertySource.class);
+			propertySource.put("name", in.readUTF());
+			propertySource.put("value", readStrings(in).toArray(new String[0]));
+			propertySource.put("ignoreResourceNotFound", in.readBoolean());
+			propertySource.put("encoding", in.readUTF());
+			propertySource.put("factory", resolveClass(in.readUTF(), classLoader, PropertySourceFactory.class));
+			propertySources.add(propertySource);
+		}
+		Map<String, String> imports = readNames(in);
+		Map<String, String> aliases = readNames(in);
+		int beanDefinitionCount = in.readInt();
+		Map<String, BeanDefinition> beanDefinitions = new LinkedHashMap<>(beanDefinitionCount);
+		for (int i = 0; i < beanDefinitionCount; i++) {
+			beanDefinitions.put(in.readUTF(), readBeanDefinition(in, classLoader));
+		}
+		return new BeanDefinitionSnapshot(componentClasses, basePackages, activeProfiles,
+				classFingerprints, packageFingerprints, propertySources, imports, aliases, beanDefinitions);
+	}
+
+
+	/**
+	 * Compute a fingerprint for the class file of the given class:
+	 * based on its content, or -1 if not present.
+	 */
+	static long classFingerprint(String className, ResourcePatternResolver resourcePatternResolver) {
+		Resource resource = resourcePatternResolver.getResource(ResourcePatternResolver.CLASSPATH_URL_PREFIX +
+				ClassUtils.convertClassNameToResourcePath(className) + ClassUtils.CLASS_FILE_SUFFIX);
+		try {
+			return (resource.exists() ? resourceFingerprint(resource) : -1);
+		}
+		catch (IOException ex) {
+			return -1;
+		}
+	}
+
+	/**
+	 * Compute a fingerprint for all class files in the given package and its
+	 * subpackages: based on their path within the package and their content,
+	 * independent of the location of the package on the classpath.
+	 */
+	static long packageFingerprint(String basePackage, ResourcePatternResolver resourcePatternResolver)
+			throws IOException {
+
+		String packagePath = ClassUtils.convertClassNameToResourcePath(basePackage) + "/";
+		Resource[] resources = resourcePatternResolver.getResources(
+				ResourcePatternResolver.CLASSPATH_ALL_URL_PREFIX + packagePath + "**/*" + ClassUtils.CLASS_FILE_SUFFIX);
+		Map<String, Resource> sorted = new TreeMap<>();
+		for (Resource resource : resources) {
+			String url = resource.getURL().toString();
+			int index = url.lastIndexOf(packagePath);
+			String path = (index != -1 ? url.substring(index) : url);
+			// Resources with the same path in several classpath roots: keep all of them
+			String key = path;
+			for (int i = 1; sorted.containsKey(key); i++) {
+				key = path + "#" + i;
+			}
+			sorted.put(key, resource);
+		}
+		long fingerprint = 1;
+		for (Map.Entry<String, Resource> entry : sorted.entrySet()) {
+			fingerprint = 31 * fingerprint + entry.getKey().hashCode();
+			fingerprint = 31 * fingerprint + resourceFingerprint(entry.getValue());
+		}
+		return fingerprint;
+	}
+
+	/**
+	 * Compute a fingerprint for the content of the given class file: its size
+	 * combined with its CRC-32 checksum, taken from the jar's central directory
+	 * for jar entries and computed from the content otherwise.
+	 */
+	private static long resourceFingerprint(Resource resource) throws IOException {
+		URL url = resource.getURL();
+		if (ResourceUtils.isJarURL(url)) {
+			URLConnection con = url.openConnection();
+			ResourceUtils.useCachesIfNecessary(con);
+			if (con instanceof JarURLConnection) {
+				JarEntry jarEntry = ((JarURLConnection) con).getJarEntry();
+				if (jarEntry != null && jarEntry.getCrc() != -1 && jarEntry.getSize() != -1) {
+					return (jarEntry.getSize() << 32 | jarEntry.getCrc());
+				}
+			}
+		}
+		CRC32 crc = new CRC32();
+		long size = 0;
+		byte[] buffer = new byte[4096];
+		try (InputStream is = resource.getInputStream()) {
+			int bytesRead;
+			while ((bytesRead = is.read(buffer)) != -1) {
+				crc.update(buffer, 0, bytesRead);
+				size += bytesRead;
+			}
+		}
+		return (size << 32 | crc.getValue());
+	}
+
+
+	private static void writeBeanDefinition(DataOutputStream out, String beanName, BeanDefinition bd)
+			throws IOException {
+
+		if (bd instanceof ExistingBeanDefinition) {
+			out.writeByte(0);
+			writeAttributes(out, beanName, bd);
+			return;
+		}
+		if (!(bd instanceof AbstractBeanDefinition)) {
+			throw unrepresentable(beanName, "unsupported definition type " + bd.getClass().getName());
+		}
+		AbstractBeanDefinition abd = (AbstractBeanDefinition) bd;
+		if (abd.getInstanceSupplier() != null) {
+			throw unrepresentable(beanName, "instance supplier");
+		}
+		if (!abd.getMethodOverrides().isEmpty()) {
+			throw unrepresentable(beanName, "method overrides");
+		}
+		if (!abd.getQualifiers().isEmpty()) {
+			throw unrepresentable(beanName, "qualifiers");
+		}
+		int flags = NEW_DEFINITION;
+		if (bd instanceof BeanMethodDefinition) {
+			flags |= BEAN_METHOD_DEFINITION;
+			if (((BeanMethodDefinition) bd).unique) {
+				flags |= UNIQUE_FACTORY_METHOD;
+			}
+		}
+		out.writeByte(flags);
+		writeNullableString(out, abd.getBeanClassName());
+		writeNullableString(out, abd.getParentName());
+		writeNullableString(out, abd.getScope());
+		writeNullableString(out, abd.getFactoryBeanName());
+		writeNullableString(out, abd.getFactoryMethodName());
+		writeNullableString(out, abd.getInitMethodName());
+		writeNullableString(out, abd.getDestroyMethodName());
+		writeNullableString(out, abd.getDescription());
+		writeNullableString(out, abd.getResourceDescription());
+		writeValue(out, beanName, abd.getLazyInit());
+		out.writeBoolean(abd.isAbstract());
+		out.writeBoolean(abd.isPrimary());
+		out.writeBoolean(abd.isAutowireCandidate());
+		out.writeBoolean(abd.isSynthetic());
+		out.writeBoolean(abd.isEnforceInitMethod());
+		out.writeBoolean(abd.isEnforceDestroyMethod());
+		out.writeBoolean(abd.isNonPublicAccessAllowed());
+		out.writeBoolean(abd.isLenientConstructorResolution());
+		out.writeInt(abd.getAutowireMode());
+		out.writeInt(abd.getDependencyCheck());
+		out.writeInt(abd.getRole());
+		writeStrings(out, (abd.getDependsOn() != null ? Arrays.asList(abd.getDependsOn()) : new ArrayList<>()));
+
+		ConstructorArgumentValues args = abd.getConstructorArgumentValues();
+		out.writeInt(args.getIndexedArgumentValues().size());
+		for (Map.Entry<Integer, ConstructorArgumentValues.ValueHolder> entry :
+				args.getIndexedArgumentValues().entrySet()) {
+			out.writeInt(entry.getKey());
+			writeValueHolder(out, beanName, entry.getValue());
+		}
+		out.writeInt(args.getGenericArgumentValues().size());
+		for (ConstructorArgumentValues.ValueHolder holder : args.getGenericArgumentValues()) {
+			writeValueHolder(out, beanName, holder);
+		}
+		out.writeInt(abd.getPropertyValues().size());
+		for (PropertyValue pv : abd.getPropertyValues().getPropertyValueList()) {
+			out.writeUTF(pv.getName());
+			writeValue(out, beanName, pv.getValue());
+		}
+
+		BeanDefinitionHolder decorated = (bd instanceof RootBeanDefinition ?
+				((RootBeanDefinition) bd).getDecoratedDefinition() : null);
+		writeNullableString(out, (decorated != null ? decorated.getBeanName() : null));
+		writeAttributes(out, beanName, bd);
+	}
+
+	private static BeanDefinition readBeanDefinition(DataInputStream in, @Nullable ClassLoader classLoader)
+			throws IOException {
+
+		int flags = in.readByte();
+		if ((flags & NEW_DEFINITION) == 0) {
+			ExistingBeanDefinition bd = new ExistingBeanDefinition();
+			readAttributes(in, bd, classLoader);
+			return bd;
+		}
+		String beanClassName = readNullableString(in);
+		String parentName = readNullableString(in);
+		AbstractBeanDefinition abd;
+		if (parentName != null) {
+			abd = new GenericBeanDefinition();
+			abd.setParentName(parentName);
+		}
+		else if ((flags & BEAN_METHOD_DEFINITION) != 0) {
+			abd = new BeanMethodDefinition((flags & UNIQUE_FACTORY_METHOD) != 0);
+		}
+		else {
+			abd = new DecoratingBeanDefinition();
+		}
+		abd.setBeanClassName(beanClassName);
+		abd.setScope(readNullableString(in));
+		abd.setFactoryBeanName(readNullableString(in));
+		String factoryMethodName = readNullableString(in);
+		if (abd instanceof BeanMethodDefinition && factoryMethodName != null) {
+			if (((BeanMethodDefinition) abd).unique) {
+				((BeanMethodDefinition) abd).setUniqueFactoryMethodName(factoryMethodName);
+			}
+			else {
+				((BeanMethodDefinition) abd).setNonUniqueFactoryMethodName(factoryMethodName);
+			}
+		}
+		else {
+			abd.setFactoryMethodName(factoryMethodName);
+		}
+		abd.setInitMethodName(readNullableString(in));
+		abd.setDestroyMethodName(readNullableString(in));
+		abd.setDescription(readNullableString(in));
+		abd.setResourceDescription(readNullableString(in));
+		Boolean lazyInit = (Boolean) readValue(in, classLoader);
+		if (lazyInit != null) {
+			abd.setLazyInit(lazyInit);
+		}
+		abd.setAbstract(in.readBoolean());
+		abd.setPrimary(in.readBoolean());
+		abd.setAutowireCandidate(in.readBoolean());
+		abd.setSynthetic(in.readBoolean());
+		abd.setEnforceInitMethod(in.readBoolean());
+		abd.setEnforceDestroyMethod(in.readBoolean());
+		abd.setNonPublicAccessAllowed(in.readBoolean());
+		abd.setLenientConstructorResolution(in.readBoolean());
+		abd.setAutowireMode(in.readInt());
+		abd.setDependencyCheck(in.readInt());
+		abd.setRole(in.readInt());
+		List<String> dependsOn = readStrings(in);
+		abd.setDependsOn(dependsOn.isEmpty() ? null : dependsOn.toArray(new String[0]));
+
+		ConstructorArgumentValues args = abd.getConstructorArgumentValues();
+		int indexedCount = in.readInt();
+		for (int i = 0; i < indexedCount; i++) {
+			args.addIndexedArgumentValue(in.readInt(), readValueHolder(in, classLoader));
+		}
+		int genericCount = in.readInt();
+		for (int i = 0; i < genericCount; i++) {
+			args.addGenericArgumentValue(readValueHolder(in, classLoader));
+		}
+		MutablePropertyValues pvs = abd.getPropertyValues();
+		int propertyCount = in.readInt();
+		for (int i = 0; i < propertyCount; i++) {
+			pvs.add(in.readUTF(), readValue(in, classLoader));
+		}
+
+		String targetBeanName = readNullableString(in);
+		if (targetBeanName != null) {
+			if (!(abd instanceof DecoratingBeanDefinition)) {
+				throw new IOException("Unexpected decorated definition for parent-based bean definition");
+			}
+			((DecoratingBeanDefinition) abd).targetBeanName = targetBeanName;
+		}
+		readAttributes(in, abd, classLoader);
+		return abd;
+	}
+
+	private static void writeValueHolder(DataOutputStream out, String beanName,
+			ConstructorArgumentValues.ValueHolder holder) throws IOException {
+
+		writeValue(out, beanName, holder.getValue());
+		writeNullableString(out, holder.getType());
+		writeNullableString(out, holder.getName());
+	}
+
+	private static ConstructorArgumentValues.ValueHolder readValueHolder(
+			DataInputStream in, @Nullable ClassLoader classLoader) throws IOException {
+
+		Object value = readValue(in, classLoader);
+		return new ConstructorArgumentValues.ValueHolder(value, readNullableString(in), readNullableString(in));
+	}
+
+	private static void writeAttributes(DataOutputStream out, String beanName, BeanDefinition bd)
+			throws IOException {
+
+		String[] attributeNames = bd.attributeNames();
+		out.writeInt(attributeNames.length);
+		for (String attributeName : attributeNames) {
+			out.writeUTF(attributeName);
+			writeValue(out, beanName, bd.getAttribute(attributeName));
+		}
+	}
+
+	private static void readAttributes(DataInputStream in, BeanDefinition bd, @Nullable ClassLoader classLoader)
+			throws IOException {
+
+		int count = in.readInt();
+		for (int i = 0; i < count; i++) {
+			bd.setAttribute(in.readUTF(), readValue(in, classLoader));
+		}
+	}
+
+	private static void writeValue(DataOutputStream out, String beanName, @Nullable Object value)
+			throws IOException {
+
+		if (value == null) {
+			out.writeByte(NULL_VALUE);
+		}
+		else if (value instanceof String) {
+			out.writeByte(STRING_VALUE);
+			out.writeUTF((String) value);
+		}
+		else if (value instanceof TypedStringValue) {
+			TypedStringValue typedValue = (TypedStringValue) value;
+			out.writeByte(TYPED_STRING_VALUE);
+			writeNullableString(out, typedValue.getValue());
+			writeNullableString(out, typedValue.getTargetTypeName());
+		}
+		else if (value instanceof Boolean) {
+			out.writeByte(BOOLEAN_VALUE);
+			out.writeBoolean((Boolean) value);
+		}
+		else if (value instanceof Integer) {
+			out.writeByte(INTEGER_VALUE);
+			out.writeInt((Integer) value);
+		}
+		else if (value instanceof Long) {
+			out.writeByte(LONG_VALUE);
+			out.writeLong((Long) value);
+		}
+		else if (value instanceof Class) {
+			out.writeByte(CLASS_VALUE);
+			out.writeUTF(((Class<?>) value).getName());
+		}
+		else if (value instanceof RuntimeBeanReference) {
+			RuntimeBeanReference ref = (RuntimeBeanReference) value;
+			out.writeByte(BEAN_REFERENCE);
+			out.writeUTF(ref.getBeanName());
+			out.writeBoolean(ref.isToParent());
+		}
+		else if (value instanceof RuntimeBeanNameReference) {
+			out.writeByte(BEAN_NAME_REFERENCE);
+			out.writeUTF(((RuntimeBeanNameReference) value).getBeanName());
+		}
+		else {
+			throw unrepresentable(beanName, "value of type " + value.getClass().getName());
+		}
+	}
+
+	@Nullable
+	private static Object readValue(DataInputStream in, @Nullable ClassLoader classLoader) throws IOException {
+		byte type = in.readByte();
+		switch (type) {
+			case NULL_VALUE:
+				return null;
+			case STRING_VALUE:
+				return in.readUTF();
+			case TYPED_STRING_VALUE:
+				String value = readNullableString(in);
+				String targetTypeName = readNullableString(in);
+				return (targetTypeName != null ? new TypedStringValue(value, targetTypeName) :
+						new TypedStringValue(value));
+			case BOOLEAN_VALUE:
+				return in.readBoolean();
+			case INTEGER_VALUE:
+				return in.readInt();
+			case LONG_VALUE:
+				return in.readLong();
+			case CLASS_VALUE:
+				return resolveClass(in.readUTF(), classLoader, Object.class);
+			case BEAN_REFERENCE:
+				String beanName = in.readUTF();
+				return new RuntimeBeanReference(beanName, in.readBoolean());
+			case BEAN_NAME_REFERENCE:
+				return new RuntimeBeanNameReference(in.readUTF());
+			default:
+				throw new IOException("Unknown value type " + type);
+		}
+	}
+
+	private static Class<?> resolveClass(String className, @Nullable ClassLoader classLoader, Class<?> requiredType)
+			throws IOException {
+
+		try {
+			Class<?> clazz = ClassUtils.forName(className, classLoader);
+			if (!requiredType.isAssignableFrom(clazz)) {
+				throw new IOException("Class [" + className + "] is not assignable to " + requiredType.getName());
+			}
+			return clazz;
+		}
+		catch (ClassNotFoundException | LinkageError ex) {
+			throw new IOException("Class [" + className + "] referenced in snapshot not resolvable", ex);
+		}
+	}
+
+	private static IllegalArgumentException unrepresentable(String beanName, String reason) {
+		return new IllegalArgumentException(
+				"Bean definition '" + beanName + "' cannot be represented in a snapshot: " + reason);
+	}
+
+	private static void writeNullableString(DataOutputStream out, @Nullable String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeUTF(value);
+		}
+	}
+
+	@Nullable
+	private static String readNullableString(DataInputStream in) throws IOException {
+		return (in.readBoolean() ? in.readUTF() : null);
+	}
+
+	private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+		out.writeInt(values.size());
+		for (String value : values) {
+			out.writeUTF(value);
+		}
+	}
+
+	private static List<String> readStrings(DataInputStream in) throws IOException {
+		int count = in.readInt();
+		List<String> values = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			values.add(in.readUTF());
+		}
+		return values;
+	}
+
+	private static void writeNames(DataOutputStream out, Map<String, String> names) throws IOException {
+		out.writeInt(names.size());
+		for (Map.Entry<String, String> entry : names.entrySet()) {
+			out.writeUTF(entry.getKey());
+			out.writeUTF(entry.getValue());
+		}
+	}
+
+	private static Map<String, String> readNames(DataInputStream in) throws IOException {
+		int count = in.readInt();
+		Map<String, String> names = new LinkedHashMap<>(count);
+		for (int i = 0; i < count; i++) {
+			names.put(in.readUTF(), in.readUTF());
+		}
+		return names;
+	}
+
+	private static void writeFingerprints(DataOutputStream out, Map<String, Long> fingerprints) throws IOException {
+		out.writeInt(fingerprints.size());
+		for (Map.Entry<String, Long> entry : fingerprints.entrySet()) {
+			out.writeUTF(entry.getKey());
+			out.writeLong(entry.getValue());
+		}
+	}
+
+	private static Map<String, Long> readFingerprints(DataInputStream in) throws IOException {
+		int count = in.readInt();
+		Map<String, Long> fingerprints = new LinkedHashMap<>(count);
+		for (int i = 0; i < count; i++) {
+			fingerprints.put(in.readUTF(), in.readLong());
+		}
+		return fingerprints;
+	}
+
+
+	/**
+	 * Placeholder for a bean definition that the context registers upfront,
+	 * carrying the attributes that processing added to it.
+	 */
+	@SuppressWarnings("serial")
+	static class ExistingBeanDefinition extends GenericBeanDefinition {
+	}
+
+
+	/**
+	 * Bean definition restored from a snapshot, possibly decorating another
+	 * bean definition (e.g. a scoped proxy for its target bean).
+	 */
+	@SuppressWarnings("serial")
+	static class DecoratingBeanDefinition extends RootBeanDefinition {
+
+		@Nullable
+		String targetBeanName;
+
+		DecoratingBeanDefinition() {
+		}
+
+		DecoratingBeanDefinition(DecoratingBeanDefinition original) {
+			super(original);
+			this.targetBeanName = original.targetBeanName;
+		}
+
+		@Override
+		public DecoratingBeanDefinition cloneBeanDefinition() {
+			return new DecoratingBeanDefinition(this);
+		}
+	}
+
+
+	/**
+	 * Bean definition for a {@link Bean @Bean} method, only matching factory methods
+	 * which carry the annotation, just like the bean definitions that configuration
+	 * class processing registers.
+	 */
+	@SuppressWarnings("serial")
+	static class BeanMethodDefinition extends DecoratingBeanDefinition {
+
+		final boolean unique;
+
+		BeanMethodDefinition(boolean unique) {
+			this.unique = unique;
+		}
+
+		BeanMethodDefinition(BeanMethodDefinition original) {
+			super(original);
+			this.unique = original.unique;
+		}
+
+		@Override
+		public boolean isFactoryMethod(Method candidate) {
+			return (super.isFactoryMethod(candidate) && BeanAnnotationHelper.isBeanAnnotated(candidate));
+		}
+
+		@Override
+		public BeanMethodDefinition cloneBeanDefinition() {
+			return new BeanMethodDefinition(this);
+		}
+	}
+
+
+	/**
+	 * {@link ImportRegistry} backed by the import relationships in a snapshot,
+	 * introspecting importing classes on demand.
+	 */
+	private static class SnapshotImportRegistry implements ImportRegistry {
+
+		private final Map<String, String> imports;
+
+		@Nullable
+		private final ClassLoader classLoader;
+
+		private final Map<String, AnnotationMetadata> metadataCache = new ConcurrentHashMap<>();
+
+		SnapshotImportRegistry(Map<String, String> imports, @Nullable ClassLoader classLoader) {
+			this.imports = new ConcurrentHashMap<>(imports);
+			this.classLoader = classLoader;
+		}
+
+		@Override
+		@Nullable
+		public AnnotationMetadata getImportingClassFor(String importedClass) {
+			String importingClass = this.imports.get(importedClass);
+			if (importingClass == null) {
+				return null;
+			}
+			return this.metadataCache.computeIfAbsent(importingClass, className ->
+					AnnotationMetadata.introspect(ClassUtils.resolveClassName(className, this.classLoader)));
+		}
+
+		@Override
+		public void removeImportingClass(String importingClass) {
+			for (Iterator<String> it = this.imports.values().iterator(); it.hasNext();) {
+				if (ObjectUtils.nullSafeEquals(it.next(), importingClass)) {
+					it.remove();
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,335 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.annotation.AnnotationAttributes;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Build-time generator for a bean definition snapshot, to be applied through
+ * {@link AnnotationConfigApplicationContext#setBeanDefinitionSnapshot} at runtime.
+ *
+ * <p>Registers the given component classes and scans the given base packages
+ * just like an {@code AnnotationConfigApplicationContext} would, runs configuration
+ * class processing against the resulting bean definitions and writes the outcome
+ * to a snapshot file, without instantiating any beans.
+ *
+ * <p>Designed to be run from a build, e.g. as a Gradle {@code JavaExec} task
+ * against the runtime classpath of the application, writing the snapshot into
+ * the output resources:
+ *
+ * <pre class="code">
+ * task beanDefinitionSnapshot(type: JavaExec) {
+ *     classpath = sourceSets.main.runtimeClasspath
+ *     main = "org.springframework.context.annotation.BeanDefinitionSnapshotGenerator"
+ *     args = ["--output=$buildDir/resources/main/META-INF/spring.snapshot",
+ *             "--profiles=cloud", "com.example.AppConfig"]
+ * }
+ * classes.finalizedBy beanDefinitionSnapshot</pre>
+ *
+ * The context setup at runtime needs to match the arguments given here:
+ * the same component classes, the same base packages and the same active
+ * profiles. Otherwise the snapshot is ignored and live processing happens.
+ * Component classes and bean methods guarded by {@code @Conditional}
+ * declarations other than {@link Profile @Profile} are rejected, since their
+ * outcome may differ at runtime.
+ *
+ * @author agent
+ * @since 5.2.6
+ * @see AnnotationConfigApplicationContext#setBeanDefinitionSnapshot
+ */
+public class BeanDefinitionSnapshotGenerator {
+
+	@Nullable
+	private ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+
+	private final List<Class<?>> componentClasses = new ArrayList<>();
+
+	private final List<String> basePackages = new ArrayList<>();
+
+	private final List<String> activeProfiles = new ArrayList<>();
+
+
+	/**
+	 * Specify the ClassLoader to load component classes and resources with.
+	 * <p>Default is the thread context ClassLoader.
+	 */
+	public void setClassLoader(@Nullable ClassLoader classLoader) {
+		this.classLoader = classLoader;
+	}
+
+	/**
+	 * Specify the component classes to register, e.g. {@link Configuration @Configuration} classes.
+	 * @see AnnotationConfigApplicationContext#register
+	 */
+	public void setComponentClasses(Class<?>... componentClasses) {
+		this.componentClasses.clear();
+		this.componentClasses.addAll(Arrays.asList(componentClasses));
+	}
+
+	/**
+	 * Specify the base packages to scan.
+	 * @see AnnotationConfigApplicationContext#scan
+	 */
+	public void setBasePackages(String... basePackages) {
+		this.basePackages.clear();
+		this.basePackages.addAll(Arrays.asList(basePackages));
+	}
+
+	/**
+	 * Specify the profiles to activate.
+	 * @see ConfigurableEnvironment#setActiveProfiles
+	 */
+	public void setActiveProfiles(String... activeProfiles) {
+		this.activeProfiles.clear();
+		this.activeProfiles.addAll(Arrays.asList(activeProfiles));
+	}
+
+
+	/**
+	 * Process the configured component classes and base packages and
+	 * write the resulting snapshot to the given stream.
+	 * @param outputStream the stream to write to (left open)
+	 * @throws IOException in case of I/O errors
+	 * @throws IllegalArgumentException if a bean definition cannot be represented,
+	 * or if processing encountered {@code @Conditional} declarations other than
+	 * profiles (which need to be evaluated at runtime)
+	 */
+	public void generate(OutputStream outputStream) throws IOException {
+		Assert.state(!this.componentClasses.isEmpty() || !this.basePackages.isEmpty(),
+				"At least one component class or base package must be specified");
+		createSnapshot().writeTo(outputStream);
+	}
+
+	BeanDefinitionSnapshot createSnapshot() throws IOException {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.setClassLoader(this.classLoader);
+		ConfigurableEnvironment environment = context.getEnvironment();
+		environment.setActiveProfiles(StringUtils.toStringArray(this.activeProfiles));
+		DefaultListableBeanFactory beanFactory = context.getDefaultListableBeanFactory();
+		// Items guarded by @Conditional declarations other than profiles, as encountered during processing
+		Set<String> conditionalItems = new LinkedHashSet<>();
+
+		Set<String> infrastructureNames = new HashSet<>(Arrays.asList(beanFactory.getBeanDefinitionNames()));
+		List<String> componentClassNames = new ArrayList<>(this.componentClasses.size());
+		if (!this.componentClasses.isEmpty()) {
+			AnnotatedBeanDefinitionReader reader = new AnnotatedBeanDefinitionReader(context, environment);
+			reader.setConditionalItems(conditionalItems);
+			reader.register(ClassUtils.toClassArray(this.componentClasses));
+			for (Class<?> componentClass : this.componentClasses) {
+				componentClassNames.add(componentClass.getName());
+			}
+		}
+		Set<String> existingNames = new HashSet<>(Arrays.asList(beanFactory.getBeanDefinitionNames()));
+		existingNames.removeAll(infrastructureNames);
+		if (!this.basePackages.isEmpty()) {
+			ClassPathBeanDefinitionScanner scanner = new ClassPathBeanDefinitionScanner(context, true, environment, context);
+			scanner.setConditionalItems(conditionalItems);
+			scanner.scan(StringUtils.toStringArray(this.basePackages));
+		}
+
+		ConfigurationClassPostProcessor postProcessor = new ConfigurationClassPostProcessor();
+		postProcessor.setEnvironment(environment);
+		postProcessor.setResourceLoader(context);
+		postProcessor.setBeanClassLoader(this.classLoader);
+		postProcessor.setConditionalItems(conditionalItems);
+		postProcessor.postProcessBeanDefinitionRegistry(beanFactory);
+		ImportRegistry importRegistry = (ImportRegistry)
+				beanFactory.getSingleton(ConfigurationClassPostProcessor.IMPORT_REGISTRY_BEAN_NAME);
+		if (!conditionalItems.isEmpty()) {
+			throw new IllegalArgumentException("Cannot create bean definition snapshot: " +
+					"the outcome of @Conditional declarations other than @Profile depends on the runtime " +
+					"environment, but has been encountered for " + conditionalItems);
+		}
+
+		Map<String, BeanDefinition> beanDefinitions = new LinkedHashMap<>();
+		Map<String, String> aliases = new LinkedHashMap<>();
+		Map<String, String> imports = new LinkedHashMap<>();
+		Set<String> classNames = new LinkedHashSet<>(componentClassNames);
+		Set<String> scannedPackages = new LinkedHashSet<>(this.basePackages);
+		for (String beanName : beanFactory.getBeanDefinitionNames()) {
+			if (infrastructureNames.contains(beanName)) {
+				continue;
+			}
+			BeanDefinition bd = beanFactory.getBeanDefinition(beanName);
+			beanDefinitions.put(beanName, (existingNames.contains(beanName) ?
+					existingDefinition(bd) : snapshotDefinition(bd, beanFactory)));
+			for (String alias : beanFactory.getAliases(beanName)) {
+				aliases.put(alias, beanName);
+			}
+			String className = bd.getBeanClassName();
+			if (className != null) {
+				classNames.add(className);
+				if (bd.getAttribute(ConfigurationClassUtils.CONFIGURATION_CLASS_ATTRIBUTE) != null) {
+					AnnotationMetadata importingClass = (importRegistry != null ?
+							importRegistry.getImportingClassFor(className) : null);
+					if (importingClass != null) {
+						imports.put(className, importingClass.getClassName());
+						classNames.add(importingClass.getClassName());
+					}
+					addComponentScanPackages(className, environment, scannedPackages);
+				}
+			}
+		}
+
+		Map<String, Long> classFingerprints = new LinkedHashMap<>(classNames.size());
+		for (String className : classNames) {
+			classFingerprints.put(className, BeanDefinitionSnapshot.classFingerprint(className, context));
+		}
+		Map<String, Long> packageFingerprints = new LinkedHashMap<>(scannedPackages.size());
+		for (String scannedPackage : scannedPackages) {
+			packageFingerprints.put(scannedPackage, BeanDefinitionSnapshot.packageFingerprint(scannedPackage, context));
+		}
+		List<AnnotationAttributes> propertySources = postProcessor.getProcessedPropertySources();
+
+		return new BeanDefinitionSnapshot(componentClassNames, new ArrayList<>(this.basePackages),
+				new ArrayList<>(this.activeProfiles), classFingerprints, packageFingerprints,
+				propertySources, imports, aliases, beanDefinitions);
+	}
+
+	private BeanDefinition existingDefinition(BeanDefinition bd) {
+		BeanDefinition existing = new BeanDefinitionSnapshot.ExistingBeanDefinition();
+		for (String attributeName : bd.attributeNames()) {
+			existing.setAttribute(attributeName, bd.getAttribute(attributeName));
+		}
+		return existing;
+	}
+
+	private BeanDefinition snapshotDefinition(BeanDefinition bd, DefaultListableBeanFactory beanFactory) {
+		MethodMetadata factoryMethod = (bd instanceof AnnotatedBeanDefinition ?
+				((AnnotatedBeanDefinition) bd).getFactoryMethodMetadata() : null);
+		if (factoryMethod == null || !(bd instanceof AbstractBeanDefinition) || bd.getParentName() != null) {
+			return bd;
+		}
+		String factoryClassName = (bd.getFactoryBeanName() != null ?
+				beanFactory.getMergedBeanDefinition(bd.getFactoryBeanName()).getBeanClassName() :
+				bd.getBeanClassName());
+		boolean unique = true;
+		if (factoryClassName != null) {
+			Class<?> factoryClass = ClassUtils.resolveClassName(factoryClassName, this.classLoader);
+			int count = 0;
+			for (Method method : ReflectionUtils.getUniqueDeclaredMethods(factoryClass)) {
+				if (method.getName().equals(factoryMethod.getMethodName()) &&
+						BeanAnnotationHelper.isBeanAnnotated(method)) {
+					count++;
+				}
+			}
+			unique = (count <= 1);
+		}
+		BeanDefinitionSnapshot.BeanMethodDefinition beanMethodDefinition =
+				new BeanDefinitionSnapshot.BeanMethodDefinition(unique);
+		beanMethodDefinition.overrideFrom(bd);
+		return beanMethodDefinition;
+	}
+
+	private void addComponentScanPackages(
+			String configClassName, ConfigurableEnvironment environment, Set<String> scannedPackages) {
+
+		AnnotationMetadata metadata = AnnotationMetadata.introspect(
+				ClassUtils.resolveClassName(configClassName, this.classLoader));
+		Set<AnnotationAttributes> componentScans = AnnotationConfigUtils.attributesForRepeatable(
+				metadata, ComponentScans.class, ComponentScan.class);
+		for (AnnotationAttributes componentScan : componentScans) {
+			// Same base package determination as in ComponentScanAnnotationParser
+			Set<String> basePackages = new LinkedHashSet<>();
+			String[] basePackagesArray = componentScan.getStringArray("basePackages");
+			for (String pkg : basePackagesArray) {
+				String[] tokenized = StringUtils.tokenizeToStringArray(environment.resolvePlaceholders(pkg),
+						ConfigurableApplicationContext.CONFIG_LOCATION_DELIMITERS);
+				basePackages.addAll(Arrays.asList(tokenized));
+			}
+			for (Class<?> clazz : componentScan.getClassArray("basePackageClasses")) {
+				basePackages.add(ClassUtils.getPackageName(clazz));
+			}
+			if (basePackages.isEmpty()) {
+				basePackages.add(ClassUtils.getPackageName(configClassName));
+			}
+			scannedPackages.addAll(basePackages);
+		}
+	}
+
+
+	/**
+	 * Generate a snapshot from the command line.
+	 * <p>Supported arguments: {@code --output=<file>} (required),
+	 * {@code --profiles=<comma-separated profiles>},
+	 * {@code --scan=<comma-separated base packages>},
+	 * followed by the fully qualified names of the component classes.
+	 */
+	public static void main(String[] args) throws Exception {
+		BeanDefinitionSnapshotGenerator generator = new BeanDefinitionSnapshotGenerator();
+		String output = null;
+		List<Class<?>> componentClasses = new ArrayList<>();
+		for (String arg : args) {
+			if (arg.startsWith("--output=")) {
+				output = arg.substring("--output=".length());
+			}
+			else if (arg.startsWith("--profiles=")) {
+				generator.setActiveProfiles(
+						StringUtils.commaDelimitedListToStringArray(arg.substring("--profiles=".length())));
+			}
+			else if (arg.startsWith("--scan=")) {
+				generator.setBasePackages(
+						StringUtils.commaDelimitedListToStringArray(arg.substring("--scan=".length())));
+			}
+			else {
+				componentClasses.add(ClassUtils.forName(arg, generator.classLoader));
+			}
+		}
+		if (output == null) {
+			throw new IllegalArgumentException(
+					"Usage: BeanDefinitionSnapshotGenerator --output=<file> [--profiles=<profiles>] " +
+					"[--scan=<packages>] <component classes>");
+		}
+		generator.setComponentClasses(ClassUtils.toClassArray(componentClasses));
+		File outputFile = new File(output);
+		File parent = outputFile.getAbsoluteFile().getParentFile();
+		if (parent != null) {
+			Files.createDirectories(parent.toPath());
+		}
+		try (OutputStream out = Files.newOutputStream(outputFile.toPath())) {
+			generator.generate(out);
+		}
+	}
+
+}
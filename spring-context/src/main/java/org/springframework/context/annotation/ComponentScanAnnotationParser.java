@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,10 +18,12 @@ package org.springframework.context.annotation;
 
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.regex.Pattern;
 
 import org.springframework.beans.BeanUtils;
@@ -32,12 +34,14 @@ import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.core.annotation.AnnotationAttributes;
 import org.springframework.core.env.Environment;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
 import org.springframework.core.type.filter.AbstractTypeHierarchyTraversingFilter;
 import org.springframework.core.type.filter.AnnotationTypeFilter;
 import org.springframework.core.type.filter.AspectJTypeFilter;
 import org.springframework.core.type.filter.AssignableTypeFilter;
 import org.springframework.core.type.filter.RegexPatternTypeFilter;
 import org.springframework.core.type.filter.TypeFilter;
+import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.StringUtils;
@@ -62,6 +66,15 @@ class ComponentScanAnnotationParser {
 
 	private final BeanDefinitionRegistry registry;
 
+	@Nullable
+	private Collection<String> conditionalItems;
+
+	@Nullable
+	private MetadataReaderFactory metadataReaderFactory;
+
+	@Nullable
+	private ForkJoinPool scanningPool;
+
 
 	public ComponentScanAnnotationParser(Environment environment, ResourceLoader resourceLoader,
 			BeanNameGenerator beanNameGenerator, BeanDefinitionRegistry registry) {
@@ -73,6 +86,36 @@ class ComponentScanAnnotationParser {
 	}
 
 
+	/**
+	 * Specify a collection to record scanned candidates guarded by conditions
+	 * other than profiles into.
+	 * @since 5.2.6
+	 * @see ConditionEvaluator#setConditionalItems
+	 */
+	void setConditionalItems(@Nullable Collection<String> conditionalItems) {
+		this.conditionalItems = conditionalItems;
+	}
+
+	/**
+	 * Specify the {@link MetadataReaderFactory} for the scanners to use.
+	 * <p>Default is a separate factory per scanner, based on the resource loader.
+	 * @since 5.2.6
+	 */
+	void setMetadataReaderFactory(@Nullable MetadataReaderFactory metadataReaderFactory) {
+		this.metadataReaderFactory = metadataReaderFactory;
+	}
+
+	/**
+	 * Specify a pool for the scanners to scan the class path in parallel.
+	 * <p>Default is none, scanning sequentially.
+	 * @since 5.2.6
+	 * @see ClassPathScanningCandidateComponentProvider#setScanningPool
+	 */
+	void setScanningPool(@Nullable ForkJoinPool scanningPool) {
+		this.scanningPool = scanningPool;
+	}
+
+
 	public Set<BeanDefinitionHolder> parse(AnnotationAttributes componentScan, final String declaringClass) {
 		ClassPathBeanDefinitionScanner scanner = new ClassPathBeanDefinitionScanner(this.registry,
 				componentScan.getBoolean("useDefaultFilters"), this.environment, this.resourceLoader);
@@ -92,6 +135,11 @@ class ComponentScanAnnotationParser {
 		}
 
 		scanner.setResourcePattern(componentScan.getString("resourcePattern"));
+		scanner.setConditionalItems(this.conditionalItems);
+		if (this.metadataReaderFactory != null) {
+			scanner.setMetadataReaderFactory(this.metadataReaderFactory);
+		}
+		scanner.setScanningPool(this.scanningPool);
 
 		for (AnnotationAttributes filter : componentScan.getAnnotationArray("includeFilters")) {
 			for (TypeFilter typeFilter : typeFiltersFor(filter)) {
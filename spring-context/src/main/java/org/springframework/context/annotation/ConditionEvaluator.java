@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package org.springframework.context.annotation;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
@@ -33,6 +34,7 @@ import org.springframework.core.io.DefaultResourceLoader;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.core.type.AnnotatedTypeMetadata;
 import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.MethodMetadata;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
@@ -49,6 +51,9 @@ class ConditionEvaluator {
 
 	private final ConditionContextImpl context;
 
+	@Nullable
+	private Collection<String> conditionalItems;
+
 
 	/**
 	 * Create a new {@link ConditionEvaluator} instance.
@@ -60,6 +65,17 @@ class ConditionEvaluator {
 	}
 
 
+	/**
+	 * Specify a collection to record items guarded by conditions other than
+	 * profiles into, as needed by {@link BeanDefinitionSnapshotGenerator}.
+	 * <p>Default is none, not recording anything.
+	 * @since 5.2.6
+	 */
+	void setConditionalItems(@Nullable Collection<String> conditionalItems) {
+		this.conditionalItems = conditionalItems;
+	}
+
+
 	/**
 	 * 根据{@code @Conditional}注释确定是否应该跳过某项。
 	 * * {@link ConfigurationPhase}将从项目的类型(即a
@@ -105,6 +121,9 @@ class ConditionEvaluator {
 		}
 
 		AnnotationAwareOrderComparator.sort(conditions);
+		if (this.conditionalItems != null) {
+			recordConditionalItem(metadata, conditions, this.conditionalItems);
+		}
 
 		for (Condition condition : conditions) {
 			ConfigurationPhase requiredPhase = null;
@@ -119,6 +138,30 @@ class ConditionEvaluator {
 		return false;
 	}
 
+	/**
+	 * Record the given item if guarded by conditions other than profiles.
+	 */
+	private void recordConditionalItem(
+			AnnotatedTypeMetadata metadata, List<Condition> conditions, Collection<String> conditionalItems) {
+
+		for (Condition condition : conditions) {
+			if (!(condition instanceof ProfileCondition)) {
+				if (metadata instanceof MethodMetadata) {
+					MethodMetadata methodMetadata = (MethodMetadata) metadata;
+					conditionalItems.add(methodMetadata.getDeclaringClassName() + "." +
+							methodMetadata.getMethodName() + "()");
+				}
+				else if (metadata instanceof AnnotationMetadata) {
+					conditionalItems.add(((AnnotationMetadata) metadata).getClassName());
+				}
+				else {
+					conditionalItems.add(metadata.toString());
+				}
+				return;
+			}
+		}
+	}
+
 	@SuppressWarnings("unchecked")
 	private List<String[]> getConditionClasses(AnnotatedTypeMetadata metadata) {
 		MultiValueMap<String, Object> attributes = metadata.getAllAnnotationAttributes(Conditional.class.getName(), true);
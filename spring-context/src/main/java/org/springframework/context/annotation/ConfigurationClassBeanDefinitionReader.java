@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,7 @@ package org.springframework.context.annotation;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -53,6 +54,7 @@ import org.springframework.core.type.MethodMetadata;
 import org.springframework.core.type.StandardAnnotationMetadata;
 import org.springframework.core.type.StandardMethodMetadata;
 import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 
@@ -110,6 +112,17 @@ class ConfigurationClassBeanDefinitionReader {
 	}
 
 
+	/**
+	 * Specify a collection to record bean methods and imported classes guarded
+	 * by conditions other than profiles into.
+	 * @since 5.2.6
+	 * @see ConditionEvaluator#setConditionalItems
+	 */
+	void setConditionalItems(@Nullable Collection<String> conditionalItems) {
+		this.conditionEvaluator.setConditionalItems(conditionalItems);
+	}
+
+
 	/**
 	 * Read {@code configurationModel}, registering bean definitions
 	 * with the registry based on its contents.
@@ -34,6 +34,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.StringJoiner;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Predicate;
 
 import org.apache.commons.logging.Log;
@@ -53,6 +54,7 @@ import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.beans.factory.support.BeanNameGenerator;
 import org.springframework.context.annotation.ConfigurationCondition.ConfigurationPhase;
 import org.springframework.context.annotation.DeferredImportSelector.Group;
+import org.springframework.context.index.IndexedMetadataReaderFactory;
 import org.springframework.core.NestedIOException;
 import org.springframework.core.OrderComparator;
 import org.springframework.core.Ordered;
@@ -75,6 +77,7 @@ import org.springframework.core.type.MethodMetadata;
 import org.springframework.core.type.StandardAnnotationMetadata;
 import org.springframework.core.type.classreading.MetadataReader;
 import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.core.type.classreading.PersistentMetadataReaderFactory;
 import org.springframework.core.type.filter.AssignableTypeFilter;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
@@ -140,6 +143,8 @@ class ConfigurationClassParser {
 
 	private final List<String> propertySourceNames = new ArrayList<>();
 
+	private final List<AnnotationAttributes> processedPropertySources = new ArrayList<>();
+
 	private final ImportStack importStack = new ImportStack();
 
 	private final DeferredImportSelectorHandler deferredImportSelectorHandler = new DeferredImportSelectorHandler();
@@ -162,10 +167,36 @@ class ConfigurationClassParser {
 		this.registry = registry;
 		this.componentScanParser = new ComponentScanAnnotationParser(
 				environment, resourceLoader, componentScanBeanNameGenerator, registry);
+		if (metadataReaderFactory instanceof PersistentMetadataReaderFactory ||
+				metadataReaderFactory instanceof IndexedMetadataReaderFactory) {
+			// Let scanned candidates benefit from the persistent or indexed metadata as well
+			this.componentScanParser.setMetadataReaderFactory(metadataReaderFactory);
+		}
 		this.conditionEvaluator = new ConditionEvaluator(registry, environment, resourceLoader);
 	}
 
 
+	/**
+	 * Specify a collection to record configuration classes, bean methods and
+	 * scanned candidates guarded by conditions other than profiles into.
+	 * @since 5.2.6
+	 * @see ConditionEvaluator#setConditionalItems
+	 */
+	void setConditionalItems(@Nullable Collection<String> conditionalItems) {
+		this.conditionEvaluator.setConditionalItems(conditionalItems);
+		this.componentScanParser.setConditionalItems(conditionalItems);
+	}
+
+	/**
+	 * Specify a pool for scanning the class path in parallel.
+	 * @since 5.2.6
+	 * @see ClassPathScanningCandidateComponentProvider#setScanningPool
+	 */
+	void setScanningPool(@Nullable ForkJoinPool scanningPool) {
+		this.componentScanParser.setScanningPool(scanningPool);
+	}
+
+
 	public void parse(Set<BeanDefinitionHolder> configCandidates) {
 		for (BeanDefinitionHolder holder : configCandidates) {
 			BeanDefinition bd = holder.getBeanDefinition();
@@ -401,7 +432,8 @@ class ConfigurationClassParser {
 		AnnotationMetadata original = sourceClass.getMetadata();
 		Set<MethodMetadata> beanMethods = original.getAnnotatedMethods(Bean.class.getName());
 		if (beanMethods.size() > 1 && original instanceof StandardAnnotationMetadata) {
-			// Try reading the class file via ASM for deterministic declaration order...
+			// Try reading the class file via ASM (or the configuration classes index,
+			// if available) for deterministic declaration order...
 			// Unfortunately, the JVM's standard reflection returns methods in arbitrary
 			// order, even between different runs of the same application on the same JVM.
 			try {
@@ -438,7 +470,8 @@ class ConfigurationClassParser {
 	 * @param propertySource metadata for the <code>@PropertySource</code> annotation found
 	 * @throws IOException if loading a property source failed
 	 */
-	private void processPropertySource(AnnotationAttributes propertySource) throws IOException {
+	void processPropertySource(AnnotationAttributes propertySource) throws IOException {
+		this.processedPropertySources.add(propertySource);
 		String name = propertySource.getString("name");
 		if (!StringUtils.hasLength(name)) {
 			name = null;
@@ -632,6 +665,15 @@ class ConfigurationClassParser {
 		return this.importStack;
 	}
 
+	/**
+	 * Return the <code>@PropertySource</code> declarations processed so far,
+	 * in processing order.
+	 * @since 5.2.6
+	 */
+	List<AnnotationAttributes> getProcessedPropertySources() {
+		return this.processedPropertySources;
+	}
+
 
 	/**
 	 * Factory method to obtain a {@link SourceClass} from a {@link ConfigurationClass}.
@@ -16,14 +16,18 @@
 
 package org.springframework.context.annotation;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -37,6 +41,7 @@ import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.BeanDefinitionHolder;
 import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessorAdapter;
 import org.springframework.beans.factory.config.SingletonBeanRegistry;
@@ -48,19 +53,29 @@ import org.springframework.beans.factory.support.AbstractBeanDefinition;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
 import org.springframework.beans.factory.support.BeanNameGenerator;
+import org.springframework.context.ApplicationListener;
 import org.springframework.context.EnvironmentAware;
 import org.springframework.context.ResourceLoaderAware;
 import org.springframework.context.annotation.ConfigurationClassEnhancer.EnhancedConfiguration;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.index.CandidateComponentsIndexLoader;
+import org.springframework.context.index.ConfigurationClassesIndex;
+import org.springframework.context.index.IndexedMetadataReaderFactory;
 import org.springframework.core.Ordered;
 import org.springframework.core.PriorityOrdered;
+import org.springframework.core.SpringProperties;
+import org.springframework.core.annotation.AnnotationAttributes;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.StandardEnvironment;
 import org.springframework.core.io.DefaultResourceLoader;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.core.type.MethodMetadata;
 import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
 import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.core.type.classreading.PersistentMetadataReaderFactory;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
@@ -98,9 +113,25 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 	public static final AnnotationBeanNameGenerator IMPORT_BEAN_NAME_GENERATOR =
 			new FullyQualifiedAnnotationBeanNameGenerator();
 
-	private static final String IMPORT_REGISTRY_BEAN_NAME =
+	/**
+	 * System property that instructs Spring to keep the class metadata read during
+	 * configuration class processing and component scanning in the specified file,
+	 * reusing it on subsequent startups: e.g. {@code spring.metadata-cache.file=/tmp/app.metadata}.
+	 * <p>Not set by default. If set, a {@link PersistentMetadataReaderFactory} for the
+	 * given file is used unless a custom {@link #setMetadataReaderFactory MetadataReaderFactory}
+	 * has been specified, with the cache file being written once the application
+	 * context has been refreshed.
+	 * @since 5.2.6
+	 * @see org.springframework.core.SpringProperties
+	 */
+	public static final String METADATA_CACHE_FILE_PROPERTY_NAME = "spring.metadata-cache.file";
+
+	static final String IMPORT_REGISTRY_BEAN_NAME =
 			ConfigurationClassPostProcessor.class.getName() + ".importRegistry";
 
+	static final String METADATA_CACHE_WRITER_BEAN_NAME =
+			ConfigurationClassPostProcessor.class.getName() + ".metadataCacheWriter";
+
 
 	private final Log logger = LogFactory.getLog(getClass());
 
@@ -120,13 +151,26 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 
 	private boolean setMetadataReaderFactoryCalled = false;
 
+	@Nullable
+	private final String metadataCacheFile = SpringProperties.getProperty(METADATA_CACHE_FILE_PROPERTY_NAME);
+
 	private final Set<Integer> registriesPostProcessed = new HashSet<>();
 
 	private final Set<Integer> factoriesPostProcessed = new HashSet<>();
 
+	private final List<AnnotationAttributes> processedPropertySources = new ArrayList<>();
+
 	@Nullable
 	private ConfigurationClassBeanDefinitionReader reader;
 
+	@Nullable
+	private Collection<String> conditionalItems;
+
+	@Nullable
+	private ForkJoinPool scanningPool;
+
+	private boolean localScanningPoolSet = false;
+
 	private boolean localBeanNameGeneratorSet = false;
 
 	/* Using short class names as default bean names by default. */
@@ -162,7 +206,10 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 	/**
 	 * Set the {@link MetadataReaderFactory} to use.
 	 * <p>Default is a {@link CachingMetadataReaderFactory} for the specified
-	 * {@linkplain #setBeanClassLoader bean class loader}.
+	 * {@linkplain #setBeanClassLoader bean class loader}, or a
+	 * {@link PersistentMetadataReaderFactory} for the specified
+	 * {@linkplain #setResourceLoader resource loader} if the
+	 * {@link #METADATA_CACHE_FILE_PROPERTY_NAME} property has been set.
 	 */
 	public void setMetadataReaderFactory(MetadataReaderFactory metadataReaderFactory) {
 		Assert.notNull(metadataReaderFactory, "MetadataReaderFactory must not be null");
@@ -193,6 +240,21 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 		this.importBeanNameGenerator = beanNameGenerator;
 	}
 
+	/**
+	 * Specify a {@link ForkJoinPool} for scanning the class path in parallel when
+	 * processing {@link ComponentScan @ComponentScan} declarations.
+	 * <p>Default is none, scanning sequentially. Any scanning pool specified
+	 * against the application context will be used unless specified here.
+	 * @since 5.2.6
+	 * @see ClassPathScanningCandidateComponentProvider#setScanningPool
+	 * @see AnnotationConfigApplicationContext#setScanningPool
+	 * @see AnnotationConfigUtils#CONFIGURATION_SCANNING_POOL
+	 */
+	public void setScanningPool(@Nullable ForkJoinPool scanningPool) {
+		this.localScanningPoolSet = true;
+		this.scanningPool = scanningPool;
+	}
+
 	@Override
 	public void setEnvironment(Environment environment) {
 		Assert.notNull(environment, "Environment must not be null");
@@ -204,7 +266,9 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 		Assert.notNull(resourceLoader, "ResourceLoader must not be null");
 		this.resourceLoader = resourceLoader;
 		if (!this.setMetadataReaderFactoryCalled) {
-			this.metadataReaderFactory = new CachingMetadataReaderFactory(resourceLoader);
+			this.metadataReaderFactory = (this.metadataCacheFile != null ?
+					new PersistentMetadataReaderFactory(resourceLoader, new File(this.metadataCacheFile)) :
+					new CachingMetadataReaderFactory(resourceLoader));
 		}
 	}
 
@@ -263,6 +327,14 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 	 * {@link Configuration} classes.
 	 */
 	public void processConfigBeanDefinitions(BeanDefinitionRegistry registry) {
+		MetadataReaderFactory metadataReaderFactory = this.metadataReaderFactory;
+		ConfigurationClassesIndex configurationIndex =
+				CandidateComponentsIndexLoader.loadConfigurationIndex(this.resourceLoader.getClassLoader());
+		if (configurationIndex != null) {
+			// Prefer the class metadata from the index over reading class files
+			metadataReaderFactory = new IndexedMetadataReaderFactory(configurationIndex, metadataReaderFactory);
+		}
+
 		List<BeanDefinitionHolder> configCandidates = new ArrayList<>();
 		String[] candidateNames = registry.getBeanDefinitionNames();
 
@@ -273,7 +345,7 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 					logger.debug("Bean definition has already been processed as a configuration class: " + beanDef);
 				}
 			}
-			else if (ConfigurationClassUtils.checkConfigurationClassCandidate(beanDef, this.metadataReaderFactory)) {
+			else if (ConfigurationClassUtils.checkConfigurationClassCandidate(beanDef, metadataReaderFactory)) {
 				configCandidates.add(new BeanDefinitionHolder(beanDef, beanName));
 			}
 		}
@@ -302,6 +374,9 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 					this.importBeanNameGenerator = generator;
 				}
 			}
+			if (!this.localScanningPoolSet) {
+				this.scanningPool = (ForkJoinPool) sbr.getSingleton(AnnotationConfigUtils.CONFIGURATION_SCANNING_POOL);
+			}
 		}
 
 		if (this.environment == null) {
@@ -310,26 +385,36 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 
 		// Parse each @Configuration class
 		ConfigurationClassParser parser = new ConfigurationClassParser(
-				this.metadataReaderFactory, this.problemReporter, this.environment,
+				metadataReaderFactory, this.problemReporter, this.environment,
 				this.resourceLoader, this.componentScanBeanNameGenerator, registry);
+		parser.setConditionalItems(this.conditionalItems);
+		parser.setScanningPool(this.scanningPool);
 
 		Set<BeanDefinitionHolder> candidates = new LinkedHashSet<>(configCandidates);
 		Set<ConfigurationClass> alreadyParsed = new HashSet<>(configCandidates.size());
 		do {
-			parser.parse(candidates);
-			parser.validate();
-
-			Set<ConfigurationClass> configClasses = new LinkedHashSet<>(parser.getConfigurationClasses());
-			configClasses.removeAll(alreadyParsed);
-
-			// Read the model and create bean definitions based on its content
-			if (this.reader == null) {
-				this.reader = new ConfigurationClassBeanDefinitionReader(
-						registry, this.sourceExtractor, this.resourceLoader, this.environment,
-						this.importBeanNameGenerator, parser.getImportRegistry());
+			StartupStep processConfig = getApplicationStartup(registry).start("spring.context.config-classes.parse");
+			try {
+				parser.parse(candidates);
+				parser.validate();
+
+				Set<ConfigurationClass> configClasses = new LinkedHashSet<>(parser.getConfigurationClasses());
+				configClasses.removeAll(alreadyParsed);
+
+				// Read the model and create bean definitions based on its content
+				if (this.reader == null) {
+					this.reader = new ConfigurationClassBeanDefinitionReader(
+							registry, this.sourceExtractor, this.resourceLoader, this.environment,
+							this.importBeanNameGenerator, parser.getImportRegistry());
+				}
+				this.reader.setConditionalItems(this.conditionalItems);
+				this.reader.loadBeanDefinitions(configClasses);
+				alreadyParsed.addAll(configClasses);
+				processConfig.tag("classCount", () -> String.valueOf(configClasses.size()));
+			}
+			finally {
+				processConfig.end();
 			}
-			this.reader.loadBeanDefinitions(configClasses);
-			alreadyParsed.addAll(configClasses);
 
 			candidates.clear();
 			if (registry.getBeanDefinitionCount() > candidateNames.length) {
@@ -342,7 +427,7 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 				for (String candidateName : newCandidateNames) {
 					if (!oldCandidateNames.contains(candidateName)) {
 						BeanDefinition bd = registry.getBeanDefinition(candidateName);
-						if (ConfigurationClassUtils.checkConfigurationClassCandidate(bd, this.metadataReaderFactory) &&
+						if (ConfigurationClassUtils.checkConfigurationClassCandidate(bd, metadataReaderFactory) &&
 								!alreadyParsedClasses.contains(bd.getBeanClassName())) {
 							candidates.add(new BeanDefinitionHolder(bd, candidateName));
 						}
@@ -353,6 +438,8 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 		}
 		while (!candidates.isEmpty());
 
+		this.processedPropertySources.addAll(parser.getProcessedPropertySources());
+
 		// Register the ImportRegistry as a bean in order to support ImportAware @Configuration classes
 		if (sbr != null && !sbr.containsSingleton(IMPORT_REGISTRY_BEAN_NAME)) {
 			sbr.registerSingleton(IMPORT_REGISTRY_BEAN_NAME, parser.getImportRegistry());
@@ -363,6 +450,35 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 			// for a shared cache since it'll be cleared by the ApplicationContext.
 			((CachingMetadataReaderFactory) this.metadataReaderFactory).clearCache();
 		}
+		else if (this.metadataReaderFactory instanceof PersistentMetadataReaderFactory) {
+			PersistentMetadataReaderFactory persistentFactory = (PersistentMetadataReaderFactory) this.metadataReaderFactory;
+			persistentFactory.clearCache();
+			// Write the cache file once the application context has been refreshed
+			if (sbr != null && !sbr.containsSingleton(METADATA_CACHE_WRITER_BEAN_NAME)) {
+				sbr.registerSingleton(METADATA_CACHE_WRITER_BEAN_NAME, new MetadataCacheWriter(persistentFactory));
+			}
+		}
+	}
+
+	/**
+	 * Specify a collection to record items guarded by {@code @Conditional}
+	 * declarations other than profiles into, as encountered during processing.
+	 * <p>Default is none, not recording anything.
+	 * @since 5.2.6
+	 * @see BeanDefinitionSnapshotGenerator
+	 */
+	void setConditionalItems(@Nullable Collection<String> conditionalItems) {
+		this.conditionalItems = conditionalItems;
+	}
+
+	/**
+	 * Return the <code>@PropertySource</code> declarations processed so far,
+	 * in processing order.
+	 * @since 5.2.6
+	 * @see BeanDefinitionSnapshotGenerator
+	 */
+	List<AnnotationAttributes> getProcessedPropertySources() {
+		return this.processedPropertySources;
 	}
 
 	/**
@@ -372,65 +488,81 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 	 * @see ConfigurationClassEnhancer
 	 */
 	public void enhanceConfigurationClasses(ConfigurableListableBeanFactory beanFactory) {
-		Map<String, AbstractBeanDefinition> configBeanDefs = new LinkedHashMap<>();
-		for (String beanName : beanFactory.getBeanDefinitionNames()) {
-			BeanDefinition beanDef = beanFactory.getBeanDefinition(beanName);
-			Object configClassAttr = beanDef.getAttribute(ConfigurationClassUtils.CONFIGURATION_CLASS_ATTRIBUTE);
-			MethodMetadata methodMetadata = null;
-			if (beanDef instanceof AnnotatedBeanDefinition) {
-				methodMetadata = ((AnnotatedBeanDefinition) beanDef).getFactoryMethodMetadata();
-			}
-			if ((configClassAttr != null || methodMetadata != null) && beanDef instanceof AbstractBeanDefinition) {
-				// Configuration class (full or lite) or a configuration-derived @Bean method
-				// -> resolve bean class at this point...
-				AbstractBeanDefinition abd = (AbstractBeanDefinition) beanDef;
-				if (!abd.hasBeanClass()) {
-					try {
-						abd.resolveBeanClass(this.beanClassLoader);
+		StartupStep enhanceConfigClasses = beanFactory.getApplicationStartup().start("spring.context.config-classes.enhance");
+		try {
+			Map<String, AbstractBeanDefinition> configBeanDefs = new LinkedHashMap<>();
+			for (String beanName : beanFactory.getBeanDefinitionNames()) {
+				BeanDefinition beanDef = beanFactory.getBeanDefinition(beanName);
+				Object configClassAttr = beanDef.getAttribute(ConfigurationClassUtils.CONFIGURATION_CLASS_ATTRIBUTE);
+				MethodMetadata methodMetadata = null;
+				if (beanDef instanceof AnnotatedBeanDefinition) {
+					methodMetadata = ((AnnotatedBeanDefinition) beanDef).getFactoryMethodMetadata();
+				}
+				if ((configClassAttr != null || methodMetadata != null) && beanDef instanceof AbstractBeanDefinition) {
+					// Configuration class (full or lite) or a configuration-derived @Bean method
+					// -> resolve bean class at this point...
+					AbstractBeanDefinition abd = (AbstractBeanDefinition) beanDef;
+					if (!abd.hasBeanClass()) {
+						try {
+							abd.resolveBeanClass(this.beanClassLoader);
+						}
+						catch (Throwable ex) {
+							throw new IllegalStateException(
+									"Cannot load configuration class: " + beanDef.getBeanClassName(), ex);
+						}
 					}
-					catch (Throwable ex) {
-						throw new IllegalStateException(
-								"Cannot load configuration class: " + beanDef.getBeanClassName(), ex);
+				}
+				if (ConfigurationClassUtils.CONFIGURATION_CLASS_FULL.equals(configClassAttr)) {
+					if (!(beanDef instanceof AbstractBeanDefinition)) {
+						throw new BeanDefinitionStoreException("Cannot enhance @Configuration bean definition '" +
+								beanName + "' since it is not stored in an AbstractBeanDefinition subclass");
+					}
+					else if (logger.isInfoEnabled() && beanFactory.containsSingleton(beanName)) {
+						logger.info("Cannot enhance @Configuration bean definition '" + beanName +
+								"' since its singleton instance has been created too early. The typical cause " +
+								"is a non-static @Bean method with a BeanDefinitionRegistryPostProcessor " +
+								"return type: Consider declaring such methods as 'static'.");
 					}
+					configBeanDefs.put(beanName, (AbstractBeanDefinition) beanDef);
 				}
 			}
-			if (ConfigurationClassUtils.CONFIGURATION_CLASS_FULL.equals(configClassAttr)) {
-				if (!(beanDef instanceof AbstractBeanDefinition)) {
-					throw new BeanDefinitionStoreException("Cannot enhance @Configuration bean definition '" +
-							beanName + "' since it is not stored in an AbstractBeanDefinition subclass");
-				}
-				else if (logger.isInfoEnabled() && beanFactory.containsSingleton(beanName)) {
-					logger.info("Cannot enhance @Configuration bean definition '" + beanName +
-							"' since its singleton instance has been created too early. The typical cause " +
-							"is a non-static @Bean method with a BeanDefinitionRegistryPostProcessor " +
-							"return type: Consider declaring such methods as 'static'.");
-				}
-				configBeanDefs.put(beanName, (AbstractBeanDefinition) beanDef);
+			if (configBeanDefs.isEmpty()) {
+				// nothing to enhance -> return immediately
+				return;
 			}
-		}
-		if (configBeanDefs.isEmpty()) {
-			// nothing to enhance -> return immediately
-			return;
-		}
 
-		ConfigurationClassEnhancer enhancer = new ConfigurationClassEnhancer();
-		for (Map.Entry<String, AbstractBeanDefinition> entry : configBeanDefs.entrySet()) {
-			AbstractBeanDefinition beanDef = entry.getValue();
-			// If a @Configuration class gets proxied, always proxy the target class
-			beanDef.setAttribute(AutoProxyUtils.PRESERVE_TARGET_CLASS_ATTRIBUTE, Boolean.TRUE);
-			// Set enhanced subclass of the user-specified bean class
-			Class<?> configClass = beanDef.getBeanClass();
-			Class<?> enhancedClass = enhancer.enhance(configClass, this.beanClassLoader);
-			if (configClass != enhancedClass) {
-				if (logger.isTraceEnabled()) {
-					logger.trace(String.format("Replacing bean definition '%s' existing class '%s' with " +
-							"enhanced class '%s'", entry.getKey(), configClass.getName(), enhancedClass.getName()));
+			ConfigurationClassEnhancer enhancer = new ConfigurationClassEnhancer();
+			for (Map.Entry<String, AbstractBeanDefinition> entry : configBeanDefs.entrySet()) {
+				AbstractBeanDefinition beanDef = entry.getValue();
+				// If a @Configuration class gets proxied, always proxy the target class
+				beanDef.setAttribute(AutoProxyUtils.PRESERVE_TARGET_CLASS_ATTRIBUTE, Boolean.TRUE);
+				// Set enhanced subclass of the user-specified bean class
+				Class<?> configClass = beanDef.getBeanClass();
+				Class<?> enhancedClass = enhancer.enhance(configClass, this.beanClassLoader);
+				if (configClass != enhancedClass) {
+					if (logger.isTraceEnabled()) {
+						logger.trace(String.format("Replacing bean definition '%s' existing class '%s' with " +
+								"enhanced class '%s'", entry.getKey(), configClass.getName(), enhancedClass.getName()));
+					}
+					beanDef.setBeanClass(enhancedClass);
 				}
-				beanDef.setBeanClass(enhancedClass);
 			}
+			enhanceConfigClasses.tag("classCount", () -> String.valueOf(configBeanDefs.keySet().size()));
+		}
+		finally {
+			enhanceConfigClasses.end();
 		}
 	}
 
+	/**
+	 * Determine the {@link ApplicationStartup} of the given registry,
+	 * falling back to the no-op default for a plain registry.
+	 */
+	private static ApplicationStartup getApplicationStartup(BeanDefinitionRegistry registry) {
+		return (registry instanceof ConfigurableBeanFactory ?
+				((ConfigurableBeanFactory) registry).getApplicationStartup() : ApplicationStartup.DEFAULT);
+	}
+
 
 	private static class ImportAwareBeanPostProcessor extends InstantiationAwareBeanPostProcessorAdapter {
 
@@ -463,4 +595,32 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 		}
 	}
 
+
+	/**
+	 * Writes the class metadata cache file once the application context has been refreshed.
+	 */
+	private static class MetadataCacheWriter implements ApplicationListener<ContextRefreshedEvent> {
+
+		private static final Log logger = LogFactory.getLog(MetadataCacheWriter.class);
+
+		private final PersistentMetadataReaderFactory metadataReaderFactory;
+
+		public MetadataCacheWriter(PersistentMetadataReaderFactory metadataReaderFactory) {
+			this.metadataReaderFactory = metadataReaderFactory;
+		}
+
+		@Override
+		public void onApplicationEvent(ContextRefreshedEvent event) {
+			try {
+				this.metadataReaderFactory.writeCache();
+			}
+			catch (IOException ex) {
+				if (logger.isWarnEnabled()) {
+					logger.warn("Failed to write class metadata cache file " +
+							this.metadataReaderFactory.getCacheFile() + ": " + ex);
+				}
+			}
+		}
+	}
+
 }
@@ -18,6 +18,7 @@ package org.springframework.context.event;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -31,14 +32,13 @@ import org.springframework.beans.factory.BeanFactoryAware;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.beans.factory.support.DefaultSingletonBeanRegistry;
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationListener;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.annotation.AnnotationAwareOrderComparator;
 import org.springframework.lang.Nullable;
-import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
-import org.springframework.util.ObjectUtils;
 
 /**
  * Abstract implementation of the {@link ApplicationEventMulticaster} interface,
@@ -49,6 +49,12 @@ import org.springframework.util.ObjectUtils;
  * ApplicationListener objects can be overridden through the "collectionClass"
  * bean property.
  *
+ * <p>Registered listeners are kept in copy-on-write snapshots, and the pre-filtered
+ * listeners per event type and source type get cached without locking: once cached,
+ * retrieving the listeners for an event neither synchronizes nor sorts, and does not
+ * allocate a cache key. Adding or removing a listener only evicts the cached entries
+ * that it is relevant for.
+ *
  * <p>Implementing ApplicationEventMulticaster's actual {@link #multicastEvent} method
  * is left to subclasses. {@link SimpleApplicationEventMulticaster} simply multicasts
  * all events to all registered listeners, invoking them in the calling thread.
@@ -63,9 +69,14 @@ import org.springframework.util.ObjectUtils;
 public abstract class AbstractApplicationEventMulticaster
 		implements ApplicationEventMulticaster, BeanClassLoaderAware, BeanFactoryAware {
 
-	private final ListenerRetriever defaultRetriever = new ListenerRetriever(false);
+	/** Key for events without a source in the cached retrievers per event type. */
+	private static final Class<?> NO_SOURCE_TYPE = Void.class;
+
 
-	final Map<ListenerCacheKey, ListenerRetriever> retrieverCache = new ConcurrentHashMap<>(64);
+	private final DefaultListenerRetriever defaultRetriever = new DefaultListenerRetriever();
+
+	/** Cached ListenerRetrievers per event type, keyed by source type within. */
+	final Map<ResolvableType, Map<Class<?>, CachedListenerRetriever>> retrieverCache = new ConcurrentHashMap<>(64);
 
 	@Nullable
 	private ClassLoader beanClassLoader;
@@ -93,6 +104,29 @@ public abstract class AbstractApplicationEventMulticaster
 		this.retrievalMutex = this.beanFactory.getSingletonMutex();
 	}
 
+	/**
+	 * Apply a registration change while holding the retrieval mutex, going through
+	 * the bean factory's singleton lock handling if available, since evicting
+	 * cached retrievers may call back into the bean factory.
+	 * <p>An action may get retried after a conflict with concurrent singleton
+	 * creation. This is safe since all actions are idempotent: they derive the
+	 * new listener sets from the current ones and only evict cache entries,
+	 * with type checks against the bean factory that never create beans.
+	 */
+	private void doWithRetrievalMutex(Runnable action) {
+		if (this.beanFactory instanceof DefaultSingletonBeanRegistry) {
+			((DefaultSingletonBeanRegistry) this.beanFactory).doWithSingletonMutex(this.defaultRetriever, () -> {
+				action.run();
+				return null;
+			});
+		}
+		else {
+			synchronized (this.retrievalMutex) {
+				action.run();
+			}
+		}
+	}
+
 	private ConfigurableBeanFactory getBeanFactory() {
 		if (this.beanFactory == null) {
 			throw new IllegalStateException("ApplicationEventMulticaster cannot retrieve listener beans " +
@@ -104,48 +138,106 @@ public abstract class AbstractApplicationEventMulticaster
 
 	@Override
 	public void addApplicationListener(ApplicationListener<?> listener) {
-		synchronized (this.retrievalMutex) {
+		doWithRetrievalMutex(() -> {
+			Set<ApplicationListener<?>> listeners = new LinkedHashSet<>(this.defaultRetriever.applicationListeners);
 			// Explicitly remove target for a proxy, if registered already,
 			// in order to avoid double invocations of the same listener.
 			Object singletonTarget = AopProxyUtils.getSingletonTarget(listener);
-			if (singletonTarget instanceof ApplicationListener) {
-				this.defaultRetriever.applicationListeners.remove(singletonTarget);
-			}
-			this.defaultRetriever.applicationListeners.add(listener);
-			this.retrieverCache.clear();
-		}
+			boolean targetRemoved = (singletonTarget instanceof ApplicationListener && listeners.remove(singletonTarget));
+			listeners.add(listener);
+			this.defaultRetriever.update(listeners, this.defaultRetriever.applicationListenerBeans);
+			evictRetrievers((eventType, sourceType, retriever) ->
+					(targetRemoved && retriever.containsListener(singletonTarget)) ||
+					supportsEvent(listener, eventType, sourceType));
+		});
 	}
 
 	@Override
 	public void addApplicationListenerBean(String listenerBeanName) {
-		synchronized (this.retrievalMutex) {
-			this.defaultRetriever.applicationListenerBeans.add(listenerBeanName);
-			this.retrieverCache.clear();
-		}
+		doWithRetrievalMutex(() -> {
+			Set<String> listenerBeans = new LinkedHashSet<>(this.defaultRetriever.applicationListenerBeans);
+			listenerBeans.add(listenerBeanName);
+			this.defaultRetriever.update(this.defaultRetriever.applicationListeners, listenerBeans);
+			evictListenerBean(listenerBeanName);
+		});
 	}
 
 	@Override
 	public void removeApplicationListener(ApplicationListener<?> listener) {
-		synchronized (this.retrievalMutex) {
-			this.defaultRetriever.applicationListeners.remove(listener);
-			this.retrieverCache.clear();
-		}
+		doWithRetrievalMutex(() -> {
+			Set<ApplicationListener<?>> listeners = new LinkedHashSet<>(this.defaultRetriever.applicationListeners);
+			listeners.remove(listener);
+			this.defaultRetriever.update(listeners, this.defaultRetriever.applicationListenerBeans);
+			evictRetrievers((eventType, sourceType, retriever) -> retriever.containsListener(listener));
+		});
 	}
 
 	@Override
 	public void removeApplicationListenerBean(String listenerBeanName) {
-		synchronized (this.retrievalMutex) {
-			this.defaultRetriever.applicationListenerBeans.remove(listenerBeanName);
-			this.retrieverCache.clear();
-		}
+		doWithRetrievalMutex(() -> {
+			Set<String> listenerBeans = new LinkedHashSet<>(this.defaultRetriever.applicationListenerBeans);
+			listenerBeans.remove(listenerBeanName);
+			this.defaultRetriever.update(this.defaultRetriever.applicationListeners, listenerBeans);
+			evictListenerBean(listenerBeanName);
+		});
 	}
 
 	@Override
 	public void removeAllListeners() {
-		synchronized (this.retrievalMutex) {
-			this.defaultRetriever.applicationListeners.clear();
-			this.defaultRetriever.applicationListenerBeans.clear();
+		doWithRetrievalMutex(() -> {
+			this.defaultRetriever.update(Collections.emptySet(), Collections.emptySet());
 			this.retrieverCache.clear();
+		});
+	}
+
+	/**
+	 * Evict the cached ListenerRetrievers that the given listener bean is relevant for:
+	 * the ones that contain it as well as the ones for event types that it may support,
+	 * as far as determinable without initializing any FactoryBean.
+	 */
+	private void evictListenerBean(String listenerBeanName) {
+		if (this.retrieverCache.isEmpty()) {
+			return;
+		}
+		ConfigurableBeanFactory beanFactory = this.beanFactory;
+		if (beanFactory == null) {
+			this.retrieverCache.clear();
+			return;
+		}
+		Class<?> listenerType;
+		try {
+			listenerType = beanFactory.getType(listenerBeanName, false);
+		}
+		catch (NoSuchBeanDefinitionException ex) {
+			listenerType = null;
+		}
+		Object singleton = beanFactory.getSingleton(listenerBeanName);
+		Class<?> typeToMatch = listenerType;
+		evictRetrievers((eventType, sourceType, retriever) -> {
+			if (retriever.applicationListenerBeans.contains(listenerBeanName) ||
+					(singleton != null && retriever.containsListener(singleton))) {
+				return true;
+			}
+			return (typeToMatch == null || GenericApplicationListener.class.isAssignableFrom(typeToMatch) ||
+					SmartApplicationListener.class.isAssignableFrom(typeToMatch) ||
+					supportsEvent(typeToMatch, eventType));
+		});
+	}
+
+	/**
+	 * Evict the cached ListenerRetrievers that match the given filter,
+	 * dropping the entries for event types without any retrievers left.
+	 */
+	private void evictRetrievers(RetrieverFilter filter) {
+		for (Map.Entry<ResolvableType, Map<Class<?>, CachedListenerRetriever>> entry : this.retrieverCache.entrySet()) {
+			ResolvableType eventType = entry.getKey();
+			Map<Class<?>, CachedListenerRetriever> retrievers = entry.getValue();
+			retrievers.entrySet().removeIf(retrieverEntry -> filter.matches(
+					eventType, getSourceType(retrieverEntry.getKey()), retrieverEntry.getValue()));
+			if (retrievers.isEmpty()) {
+				// A retriever concurrently added to this map just gets built again
+				this.retrieverCache.remove(eventType, retrievers);
+			}
 		}
 	}
 
@@ -156,9 +248,7 @@ public abstract class AbstractApplicationEventMulticaster
 	 * @see org.springframework.context.ApplicationListener
 	 */
 	protected Collection<ApplicationListener<?>> getApplicationListeners() {
-		synchronized (this.retrievalMutex) {
-			return this.defaultRetriever.getApplicationListeners();
-		}
+		return this.defaultRetriever.getApplicationListeners();
 	}
 
 	/**
@@ -167,7 +257,8 @@ public abstract class AbstractApplicationEventMulticaster
 	 * @param event the event to be propagated. Allows for excluding
 	 * non-matching listeners early, based on cached matching information.
 	 * @param eventType the event type
-	 * @return a Collection of ApplicationListeners
+	 * @return a Collection of ApplicationListeners (possibly an unmodifiable
+	 * snapshot shared across calls, to be copied by callers that modify it)
 	 * @see org.springframework.context.ApplicationListener
 	 */
 	protected Collection<ApplicationListener<?>> getApplicationListeners(
@@ -175,10 +266,11 @@ public abstract class AbstractApplicationEventMulticaster
 
 		Object source = event.getSource();
 		Class<?> sourceType = (source != null ? source.getClass() : null);
-		ListenerCacheKey cacheKey = new ListenerCacheKey(eventType, sourceType);
+		Class<?> sourceKey = (sourceType != null ? sourceType : NO_SOURCE_TYPE);
 
 		// Quick check for existing entry on ConcurrentHashMap...
-		ListenerRetriever retriever = this.retrieverCache.get(cacheKey);
+		Map<Class<?>, CachedListenerRetriever> retrievers = this.retrieverCache.get(eventType);
+		CachedListenerRetriever retriever = (retrievers != null ? retrievers.get(sourceKey) : null);
 		if (retriever != null) {
 			return retriever.getApplicationListeners();
 		}
@@ -186,18 +278,19 @@ public abstract class AbstractApplicationEventMulticaster
 		if (this.beanClassLoader == null ||
 				(ClassUtils.isCacheSafe(event.getClass(), this.beanClassLoader) &&
 						(sourceType == null || ClassUtils.isCacheSafe(sourceType, this.beanClassLoader)))) {
-			// Fully synchronized building and caching of a ListenerRetriever
-			synchronized (this.retrievalMutex) {
-				retriever = this.retrieverCache.get(cacheKey);
-				if (retriever != null) {
-					return retriever.getApplicationListeners();
-				}
-				retriever = new ListenerRetriever(true);
-				Collection<ApplicationListener<?>> listeners =
-						retrieveApplicationListeners(eventType, sourceType, retriever);
-				this.retrieverCache.put(cacheKey, retriever);
-				return listeners;
+			// Build a ListenerRetriever from the current listener snapshot without locking,
+			// discarding it again if the registered listeners changed in the meantime:
+			// in that case, the eviction for the change may have missed the new entry.
+			long version = this.defaultRetriever.version;
+			retriever = new CachedListenerRetriever();
+			Collection<ApplicationListener<?>> listeners =
+					retrieveApplicationListeners(eventType, sourceType, retriever);
+			retrievers = this.retrieverCache.computeIfAbsent(eventType, key -> new ConcurrentHashMap<>(4));
+			if (retrievers.putIfAbsent(sourceKey, retriever) == null &&
+					this.defaultRetriever.version != version) {
+				retrievers.remove(sourceKey, retriever);
 			}
+			return listeners;
 		}
 		else {
 			// No ListenerRetriever caching -> no synchronization necessary
@@ -213,15 +306,12 @@ public abstract class AbstractApplicationEventMulticaster
 	 * @return the pre-filtered list of application listeners for the given event and source type
 	 */
 	private Collection<ApplicationListener<?>> retrieveApplicationListeners(
-			ResolvableType eventType, @Nullable Class<?> sourceType, @Nullable ListenerRetriever retriever) {
+			ResolvableType eventType, @Nullable Class<?> sourceType, @Nullable CachedListenerRetriever retriever) {
 
 		List<ApplicationListener<?>> allListeners = new ArrayList<>();
-		Set<ApplicationListener<?>> listeners;
-		Set<String> listenerBeans;
-		synchronized (this.retrievalMutex) {
-			listeners = new LinkedHashSet<>(this.defaultRetriever.applicationListeners);
-			listenerBeans = new LinkedHashSet<>(this.defaultRetriever.applicationListenerBeans);
-		}
+		// Immutable snapshots, replaced on every registration change
+		Set<ApplicationListener<?>> listeners = this.defaultRetriever.applicationListeners;
+		Set<String> listenerBeans = this.defaultRetriever.applicationListenerBeans;
 
 		// Add programmatically registered listeners, including ones coming
 		// from ApplicationListenerDetector (singleton beans and inner beans).
@@ -275,8 +365,10 @@ public abstract class AbstractApplicationEventMulticaster
 
 		AnnotationAwareOrderComparator.sort(allListeners);
 		if (retriever != null && retriever.applicationListenerBeans.isEmpty()) {
-			retriever.applicationListeners.clear();
-			retriever.applicationListeners.addAll(allListeners);
+			// Only singleton listeners -> keep the sorted result for all subsequent events
+			List<ApplicationListener<?>> preFilteredListeners = Collections.unmodifiableList(allListeners);
+			retriever.preFilteredListeners = preFilteredListeners;
+			return preFilteredListeners;
 		}
 		return allListeners;
 	}
@@ -355,57 +447,67 @@ public abstract class AbstractApplicationEventMulticaster
 
 
 	/**
-	 * Cache key for ListenerRetrievers, based on event type and source type.
+	 * Return the source type for the given key in the cached retrievers per event type.
 	 */
-	private static final class ListenerCacheKey implements Comparable<ListenerCacheKey> {
+	@Nullable
+	private static Class<?> getSourceType(Class<?> sourceKey) {
+		return (sourceKey != NO_SOURCE_TYPE ? sourceKey : null);
+	}
 
-		private final ResolvableType eventType;
 
-		@Nullable
-		private final Class<?> sourceType;
+	/**
+	 * Filter for cached ListenerRetrievers to evict.
+	 */
+	@FunctionalInterface
+	private interface RetrieverFilter {
 
-		public ListenerCacheKey(ResolvableType eventType, @Nullable Class<?> sourceType) {
-			Assert.notNull(eventType, "Event type must not be null");
-			this.eventType = eventType;
-			this.sourceType = sourceType;
-		}
+		boolean matches(ResolvableType eventType, @Nullable Class<?> sourceType, CachedListenerRetriever retriever);
+	}
 
-		@Override
-		public boolean equals(@Nullable Object other) {
-			if (this == other) {
-				return true;
-			}
-			if (!(other instanceof ListenerCacheKey)) {
-				return false;
-			}
-			ListenerCacheKey otherKey = (ListenerCacheKey) other;
-			return (this.eventType.equals(otherKey.eventType) &&
-					ObjectUtils.nullSafeEquals(this.sourceType, otherKey.sourceType));
-		}
 
-		@Override
-		public int hashCode() {
-			return this.eventType.hashCode() * 29 + ObjectUtils.nullSafeHashCode(this.sourceType);
-		}
+	/**
+	 * Helper class that encapsulates the complete set of registered listeners,
+	 * kept in immutable snapshots that get replaced on every registration change.
+	 * <p>Modifications are synchronized on the retrieval mutex, whereas the
+	 * snapshots can be read without any synchronization.
+	 */
+	private class DefaultListenerRetriever {
+
+		public volatile Set<ApplicationListener<?>> applicationListeners = Collections.emptySet();
+
+		public volatile Set<String> applicationListenerBeans = Collections.emptySet();
 
-		@Override
-		public String toString() {
-			return "ListenerCacheKey [eventType = " + this.eventType + ", sourceType = " + this.sourceType + "]";
+		/** Incremented after every registration change, read before the snapshots. */
+		public volatile long version;
+
+		public void update(Set<ApplicationListener<?>> applicationListeners, Set<String> applicationListenerBeans) {
+			this.applicationListeners = Collections.unmodifiableSet(applicationListeners);
+			this.applicationListenerBeans = Collections.unmodifiableSet(applicationListenerBeans);
+			this.version++;
 		}
 
-		@Override
-		public int compareTo(ListenerCacheKey other) {
-			int result = this.eventType.toString().compareTo(other.eventType.toString());
-			if (result == 0) {
-				if (this.sourceType == null) {
-					return (other.sourceType == null ? 0 : -1);
-				}
-				if (other.sourceType == null) {
-					return 1;
+		public Collection<ApplicationListener<?>> getApplicationListeners() {
+			Set<ApplicationListener<?>> listeners = this.applicationListeners;
+			Set<String> listenerBeans = this.applicationListenerBeans;
+			List<ApplicationListener<?>> allListeners = new ArrayList<>(listeners.size() + listenerBeans.size());
+			allListeners.addAll(listeners);
+			if (!listenerBeans.isEmpty()) {
+				BeanFactory beanFactory = getBeanFactory();
+				for (String listenerBeanName : listenerBeans) {
+					try {
+						ApplicationListener<?> listener = beanFactory.getBean(listenerBeanName, ApplicationListener.class);
+						if (!allListeners.contains(listener)) {
+							allListeners.add(listener);
+						}
+					}
+					catch (NoSuchBeanDefinitionException ex) {
+						// Singleton listener instance (without backing bean definition) disappeared -
+						// probably in the middle of the destruction phase
+					}
 				}
-				result = this.sourceType.getName().compareTo(other.sourceType.getName());
 			}
-			return result;
+			AnnotationAwareOrderComparator.sort(allListeners);
+			return allListeners;
 		}
 	}
 
@@ -414,43 +516,46 @@ public abstract class AbstractApplicationEventMulticaster
 	 * Helper class that encapsulates a specific set of target listeners,
 	 * allowing for efficient retrieval of pre-filtered listeners.
 	 * <p>An instance of this helper gets cached per event type and source type.
+	 * It is fully populated before getting published through the cache and
+	 * never modified afterwards.
 	 */
-	private class ListenerRetriever {
+	private class CachedListenerRetriever {
 
 		public final Set<ApplicationListener<?>> applicationListeners = new LinkedHashSet<>();
 
 		public final Set<String> applicationListenerBeans = new LinkedHashSet<>();
 
-		private final boolean preFiltered;
-
-		public ListenerRetriever(boolean preFiltered) {
-			this.preFiltered = preFiltered;
-		}
+		/** Unmodifiable sorted listeners, if all of them are singletons. */
+		@Nullable
+		public List<ApplicationListener<?>> preFilteredListeners;
 
 		public Collection<ApplicationListener<?>> getApplicationListeners() {
+			List<ApplicationListener<?>> preFilteredListeners = this.preFilteredListeners;
+			if (preFilteredListeners != null) {
+				return preFilteredListeners;
+			}
 			List<ApplicationListener<?>> allListeners = new ArrayList<>(
 					this.applicationListeners.size() + this.applicationListenerBeans.size());
 			allListeners.addAll(this.applicationListeners);
-			if (!this.applicationListenerBeans.isEmpty()) {
-				BeanFactory beanFactory = getBeanFactory();
-				for (String listenerBeanName : this.applicationListenerBeans) {
-					try {
-						ApplicationListener<?> listener = beanFactory.getBean(listenerBeanName, ApplicationListener.class);
-						if (this.preFiltered || !allListeners.contains(listener)) {
-							allListeners.add(listener);
-						}
-					}
-					catch (NoSuchBeanDefinitionException ex) {
-						// Singleton listener instance (without backing bean definition) disappeared -
-						// probably in the middle of the destruction phase
-					}
+			BeanFactory beanFactory = getBeanFactory();
+			for (String listenerBeanName : this.applicationListenerBeans) {
+				try {
+					allListeners.add(beanFactory.getBean(listenerBeanName, ApplicationListener.class));
+				}
+				catch (NoSuchBeanDefinitionException ex) {
+					// Singleton listener instance (without backing bean definition) disappeared -
+					// probably in the middle of the destruction phase
 				}
 			}
-			if (!this.preFiltered || !this.applicationListenerBeans.isEmpty()) {
-				AnnotationAwareOrderComparator.sort(allListeners);
-			}
+			AnnotationAwareOrderComparator.sort(allListeners);
 			return allListeners;
 		}
+
+		public boolean containsListener(Object listener) {
+			List<ApplicationListener<?>> preFilteredListeners = this.preFilteredListeners;
+			return (preFilteredListeners != null ? preFilteredListeners.contains(listener) :
+					this.applicationListeners.contains(listener));
+		}
 	}
 
 }
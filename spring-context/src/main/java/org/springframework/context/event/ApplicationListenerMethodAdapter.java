@@ -42,6 +42,7 @@ import org.springframework.core.ReactiveAdapterRegistry;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.core.annotation.Order;
+import org.springframework.expression.Expression;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
@@ -94,6 +95,11 @@ public class ApplicationListenerMethodAdapter implements GenericApplicationListe
 	@Nullable
 	private EventExpressionEvaluator evaluator;
 
+	@Nullable
+	private Expression conditionExpression;
+
+	private volatile boolean conditionResolved;
+
 
 	public ApplicationListenerMethodAdapter(String beanName, Class<?> targetClass, Method method) {
 		this.beanName = beanName;
@@ -280,15 +286,31 @@ public class ApplicationListenerMethodAdapter implements GenericApplicationListe
 		if (args == null) {
 			return false;
 		}
-		String condition = getCondition();
-		if (StringUtils.hasText(condition)) {
+		Expression condition = resolveCondition();
+		if (condition != null) {
 			Assert.notNull(this.evaluator, "EventExpressionEvaluator must not be null");
-			return this.evaluator.condition(
-					condition, event, this.targetMethod, this.methodKey, args, this.applicationContext);
+			return this.evaluator.condition(condition, event, this.targetMethod, args, this.applicationContext);
 		}
 		return true;
 	}
 
+	/**
+	 * Resolve the {@link #getCondition() condition} once, keeping the parsed
+	 * expression for all subsequent events (or none if there is no condition).
+	 */
+	@Nullable
+	private Expression resolveCondition() {
+		if (!this.conditionResolved) {
+			String condition = getCondition();
+			if (StringUtils.hasText(condition)) {
+				Assert.notNull(this.evaluator, "EventExpressionEvaluator must not be null");
+				this.conditionExpression = this.evaluator.parseCondition(condition, this.methodKey);
+			}
+			this.conditionResolved = true;
+		}
+		return this.conditionExpression;
+	}
+
 	/**
 	 * Invoke the event listener method with the given argument values.
 	 */
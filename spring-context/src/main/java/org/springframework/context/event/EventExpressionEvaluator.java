@@ -27,6 +27,7 @@ import org.springframework.context.expression.BeanFactoryResolver;
 import org.springframework.context.expression.CachedExpressionEvaluator;
 import org.springframework.context.expression.MethodBasedEvaluationContext;
 import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.lang.Nullable;
 
 /**
@@ -42,6 +43,20 @@ class EventExpressionEvaluator extends CachedExpressionEvaluator {
 	private final Map<ExpressionKey, Expression> conditionCache = new ConcurrentHashMap<>(64);
 
 
+	/**
+	 * Create a new evaluator with a default parser.
+	 */
+	public EventExpressionEvaluator() {
+	}
+
+	/**
+	 * Create a new evaluator with the given parser.
+	 * @since 5.2.6
+	 */
+	public EventExpressionEvaluator(SpelExpressionParser parser) {
+		super(parser);
+	}
+
 	/**
 	 * Determine if the condition defined by the specified expression evaluates
 	 * to {@code true}.
@@ -49,6 +64,27 @@ class EventExpressionEvaluator extends CachedExpressionEvaluator {
 	public boolean condition(String conditionExpression, ApplicationEvent event, Method targetMethod,
 			AnnotatedElementKey methodKey, Object[] args, @Nullable BeanFactory beanFactory) {
 
+		return condition(parseCondition(conditionExpression, methodKey), event, targetMethod, args, beanFactory);
+	}
+
+	/**
+	 * Return the parsed {@link Expression} for the specified condition,
+	 * allowing the caller to hold on to it for subsequent evaluations.
+	 * @since 5.2.6
+	 * @see #condition(Expression, ApplicationEvent, Method, Object[], BeanFactory)
+	 */
+	public Expression parseCondition(String conditionExpression, AnnotatedElementKey methodKey) {
+		return getExpression(this.conditionCache, methodKey, conditionExpression);
+	}
+
+	/**
+	 * Determine if the specified pre-parsed condition evaluates to {@code true}.
+	 * @since 5.2.6
+	 * @see #parseCondition(String, AnnotatedElementKey)
+	 */
+	public boolean condition(Expression condition, ApplicationEvent event, Method targetMethod,
+			Object[] args, @Nullable BeanFactory beanFactory) {
+
 		EventExpressionRootObject root = new EventExpressionRootObject(event, args);
 		MethodBasedEvaluationContext evaluationContext = new MethodBasedEvaluationContext(
 				root, targetMethod, args, getParameterNameDiscoverer());
@@ -56,8 +92,7 @@ class EventExpressionEvaluator extends CachedExpressionEvaluator {
 			evaluationContext.setBeanResolver(new BeanFactoryResolver(beanFactory));
 		}
 
-		return (Boolean.TRUE.equals(getExpression(this.conditionCache, methodKey, conditionExpression).getValue(
-				evaluationContext, Boolean.class)));
+		return (Boolean.TRUE.equals(condition.getValue(evaluationContext, Boolean.class)));
 	}
 
 }
@@ -25,7 +25,10 @@ import org.springframework.beans.factory.BeanFactory;
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationListener;
 import org.springframework.core.ResolvableType;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
 import org.springframework.util.ErrorHandler;
 
 /**
@@ -54,6 +57,8 @@ public class SimpleApplicationEventMulticaster extends AbstractApplicationEventM
 	@Nullable
 	private ErrorHandler errorHandler;
 
+	private ApplicationStartup applicationStartup = ApplicationStartup.DEFAULT;
+
 
 	/**
 	 * Create a new SimpleApplicationEventMulticaster.
@@ -121,6 +126,25 @@ public class SimpleApplicationEventMulticaster extends AbstractApplicationEventM
 		return this.errorHandler;
 	}
 
+	/**
+	 * Set the {@link ApplicationStartup} to track event listener invocations,
+	 * recording a {@code "spring.event.invoke-listener"} step for each of them.
+	 * <p>Default is {@link ApplicationStartup#DEFAULT}, not recording anything.
+	 * @since 5.2.6
+	 */
+	public void setApplicationStartup(ApplicationStartup applicationStartup) {
+		Assert.notNull(applicationStartup, "ApplicationStartup must not be null");
+		this.applicationStartup = applicationStartup;
+	}
+
+	/**
+	 * Return the current application startup for this multicaster.
+	 * @since 5.2.6
+	 */
+	public ApplicationStartup getApplicationStartup() {
+		return this.applicationStartup;
+	}
+
 
 	@Override
 	public void multicastEvent(ApplicationEvent event) {
@@ -168,6 +192,14 @@ public class SimpleApplicationEventMulticaster extends AbstractApplicationEventM
 
 	@SuppressWarnings({"rawtypes", "unchecked"})
 	private void doInvokeListener(ApplicationListener listener, ApplicationEvent event) {
+		ApplicationStartup applicationStartup = this.applicationStartup;
+		StartupStep invokeListener = null;
+		if (applicationStartup != ApplicationStartup.DEFAULT) {
+			// Only pay for tagging if somebody actually records the steps
+			invokeListener = applicationStartup.start("spring.event.invoke-listener")
+					.tag("event", event.getClass().getName())
+					.tag("listener", listener.getClass().getName());
+		}
 		try {
 			listener.onApplicationEvent(event);
 		}
@@ -185,6 +217,11 @@ public class SimpleApplicationEventMulticaster extends AbstractApplicationEventM
 				throw ex;
 			}
 		}
+		finally {
+			if (invokeListener != null) {
+				invokeListener.end();
+			}
+		}
 	}
 
 	private boolean matchesClassCastMessage(String classCastMessage, Class<?> eventClass) {
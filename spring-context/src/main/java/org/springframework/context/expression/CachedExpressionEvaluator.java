@@ -17,10 +17,13 @@
 package org.springframework.context.expression;
 
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 import org.springframework.core.DefaultParameterNameDiscoverer;
 import org.springframework.core.ParameterNameDiscoverer;
 import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionCache;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -30,13 +33,22 @@ import org.springframework.util.ObjectUtils;
  * Shared utility class used to evaluate and cache SpEL expressions that
  * are defined on {@link java.lang.reflect.AnnotatedElement}.
  *
+ * <p>Each element gets its own parsed expression, configured through the
+ * evaluator's {@link SpelExpressionCache}: Expressions parsed in
+ * {@link org.springframework.expression.spel.SpelCompilerMode#MIXED} mode are
+ * compiled in the background, by default on the {@link ForkJoinPool#commonPool()
+ * common pool}, rather than on the evaluating thread. Parsed expressions are only
+ * shared between elements if a {@link SpelExpressionCache} is specified.
+ *
  * @author Stephane Nicoll
  * @since 4.2
  * @see AnnotatedElementKey
  */
 public abstract class CachedExpressionEvaluator {
 
-	private final SpelExpressionParser parser;
+	private final SpelExpressionCache expressionCache;
+
+	private final boolean shareExpressions;
 
 	private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
 
@@ -46,7 +58,25 @@ public abstract class CachedExpressionEvaluator {
 	 */
 	protected CachedExpressionEvaluator(SpelExpressionParser parser) {
 		Assert.notNull(parser, "SpelExpressionParser must not be null");
-		this.parser = parser;
+		this.expressionCache = new SpelExpressionCache(parser);
+		this.expressionCache.setCompilationExecutor(ForkJoinPool.commonPool());
+		this.shareExpressions = false;
+	}
+
+	/**
+	 * Create a new instance with the specified {@link SpelExpressionCache},
+	 * parsing expressions with the cache's parser and sharing them with all
+	 * other elements and users of the cache which declare the same expression.
+	 * <p>Note that a parsed expression caches the accessors and methods that it
+	 * resolved for the types it has been evaluated with, and a compiled expression
+	 * is specialized for those types: Sharing is only appropriate for expressions
+	 * that are evaluated against consistent types.
+	 * @since 5.2.6
+	 */
+	protected CachedExpressionEvaluator(SpelExpressionCache expressionCache) {
+		Assert.notNull(expressionCache, "SpelExpressionCache must not be null");
+		this.expressionCache = expressionCache;
+		this.shareExpressions = true;
 	}
 
 	/**
@@ -57,11 +87,35 @@ public abstract class CachedExpressionEvaluator {
 	}
 
 
+	/**
+	 * Specify an executor for compiling expressions in the background in
+	 * {@link org.springframework.expression.spel.SpelCompilerMode#MIXED} mode.
+	 * <p>Default is the {@link ForkJoinPool#commonPool() common pool}, unless a
+	 * {@link SpelExpressionCache} has been specified. Applies to expressions
+	 * parsed after this call, so is typically set right after construction.
+	 * @param compilationExecutor the executor to use, or {@code null} to
+	 * compile on the evaluating thread
+	 * @since 5.2.6
+	 * @see SpelExpressionCache#setCompilationExecutor
+	 */
+	public void setCompilationExecutor(@Nullable Executor compilationExecutor) {
+		this.expressionCache.setCompilationExecutor(compilationExecutor);
+	}
+
 	/**
 	 * Return the {@link SpelExpressionParser} to use.
 	 */
 	protected SpelExpressionParser getParser() {
-		return this.parser;
+		return this.expressionCache.getParser();
+	}
+
+	/**
+	 * Return the {@link SpelExpressionCache} that configures and, if specified
+	 * on construction, shares the parsed expressions.
+	 * @since 5.2.6
+	 */
+	protected SpelExpressionCache getExpressionCache() {
+		return this.expressionCache;
 	}
 
 	/**
@@ -86,7 +140,8 @@ public abstract class CachedExpressionEvaluator {
 		ExpressionKey expressionKey = createKey(elementKey, expression);
 		Expression expr = cache.get(expressionKey);
 		if (expr == null) {
-			expr = getParser().parseExpression(expression);
+			expr = (this.shareExpressions ? this.expressionCache.getExpression(expression) :
+					this.expressionCache.createExpression(expression));
 			cache.put(expressionKey, expr);
 		}
 		return expr;
@@ -28,6 +28,7 @@ import org.springframework.expression.Expression;
 import org.springframework.expression.ExpressionParser;
 import org.springframework.expression.ParserContext;
 import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionCache;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.expression.spel.support.StandardTypeConverter;
@@ -62,6 +63,9 @@ public class StandardBeanExpressionResolver implements BeanExpressionResolver {
 
 	private ExpressionParser expressionParser;
 
+	@Nullable
+	private SpelExpressionCache spelExpressionCache;
+
 	private final Map<String, Expression> expressionCache = new ConcurrentHashMap<>(256);
 
 	private final Map<BeanExpressionContext, StandardEvaluationContext> evaluationCache = new ConcurrentHashMap<>(8);
@@ -86,7 +90,8 @@ public class StandardBeanExpressionResolver implements BeanExpressionResolver {
 	 * Create a new {@code StandardBeanExpressionResolver} with default settings.
 	 */
 	public StandardBeanExpressionResolver() {
-		this.expressionParser = new SpelExpressionParser();
+		this.spelExpressionCache = new SpelExpressionCache();
+		this.expressionParser = this.spelExpressionCache.getParser();
 	}
 
 	/**
@@ -95,7 +100,9 @@ public class StandardBeanExpressionResolver implements BeanExpressionResolver {
 	 * @param beanClassLoader the factory's bean class loader
 	 */
 	public StandardBeanExpressionResolver(@Nullable ClassLoader beanClassLoader) {
-		this.expressionParser = new SpelExpressionParser(new SpelParserConfiguration(null, beanClassLoader));
+		this.spelExpressionCache = new SpelExpressionCache(
+				new SpelExpressionParser(new SpelParserConfiguration(null, beanClassLoader)));
+		this.expressionParser = this.spelExpressionCache.getParser();
 	}
 
 
@@ -123,10 +130,31 @@ public class StandardBeanExpressionResolver implements BeanExpressionResolver {
 	 * Specify the EL parser to use for expression parsing.
 	 * <p>Default is a {@link org.springframework.expression.spel.standard.SpelExpressionParser},
 	 * compatible with standard Unified EL style expression syntax.
+	 * <p>A given {@code SpelExpressionParser} comes with a bounded
+	 * {@link SpelExpressionCache} for its parsed expressions, whereas
+	 * expressions from any other parser are cached in a plain map.
+	 * @see #setExpressionCache
 	 */
 	public void setExpressionParser(ExpressionParser expressionParser) {
 		Assert.notNull(expressionParser, "ExpressionParser must not be null");
 		this.expressionParser = expressionParser;
+		this.spelExpressionCache = (expressionParser instanceof SpelExpressionParser ?
+				new SpelExpressionCache((SpelExpressionParser) expressionParser) : null);
+		this.expressionCache.clear();
+	}
+
+	/**
+	 * Specify a {@link SpelExpressionCache} to obtain parsed expressions from,
+	 * e.g. a cache shared with other components or a cache configured for
+	 * background compilation, implying the cache's expression parser.
+	 * @since 5.2.6
+	 * @see SpelExpressionCache#setCompilationExecutor
+	 */
+	public void setExpressionCache(SpelExpressionCache expressionCache) {
+		Assert.notNull(expressionCache, "SpelExpressionCache must not be null");
+		this.spelExpressionCache = expressionCache;
+		this.expressionParser = expressionCache.getParser();
+		this.expressionCache.clear();
 	}
 
 
@@ -137,11 +165,7 @@ public class StandardBeanExpressionResolver implements BeanExpressionResolver {
 			return value;
 		}
 		try {
-			Expression expr = this.expressionCache.get(value);
-			if (expr == null) {
-				expr = this.expressionParser.parseExpression(value, this.beanExpressionParserContext);
-				this.expressionCache.put(value, expr);
-			}
+			Expression expr = getExpression(value);
 			StandardEvaluationContext sec = this.evaluationCache.get(evalContext);
 			if (sec == null) {
 				sec = new StandardEvaluationContext(evalContext);
@@ -165,6 +189,18 @@ public class StandardBeanExpressionResolver implements BeanExpressionResolver {
 		}
 	}
 
+	private Expression getExpression(String value) {
+		if (this.spelExpressionCache != null) {
+			return this.spelExpressionCache.getExpression(value, this.beanExpressionParserContext);
+		}
+		Expression expr = this.expressionCache.get(value);
+		if (expr == null) {
+			expr = this.expressionParser.parseExpression(value, this.beanExpressionParserContext);
+			this.expressionCache.put(value, expr);
+		}
+		return expr;
+	}
+
 	/**
 	 * Template method for customizing the expression evaluation context.
 	 * <p>The default implementation is empty.
@@ -19,8 +19,10 @@ package org.springframework.context.index;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
-import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentMap;
 
@@ -47,6 +49,13 @@ public final class CandidateComponentsIndexLoader {
 	 */
 	public static final String COMPONENTS_RESOURCE_LOCATION = "META-INF/spring.components";
 
+	/**
+	 * The location to look for configuration classes.
+	 * <p>Can be present in multiple JAR files.
+	 * @since 5.2.6
+	 */
+	public static final String CONFIGURATIONS_RESOURCE_LOCATION = "META-INF/spring.configurations";
+
 	/**
 	 * System property that instructs Spring to ignore the index, i.e.
 	 * to always return {@code null} from {@link #loadIndex(ClassLoader)}.
@@ -66,6 +75,13 @@ public final class CandidateComponentsIndexLoader {
 	private static final ConcurrentMap<ClassLoader, CandidateComponentsIndex> cache =
 			new ConcurrentReferenceHashMap<>();
 
+	/** Marker for class loaders without a configuration classes index. */
+	private static final ConfigurationClassesIndex NO_CONFIGURATION_INDEX =
+			new ConfigurationClassesIndex(null, Collections.emptyMap());
+
+	private static final ConcurrentMap<ClassLoader, ConfigurationClassesIndex> configurationCache =
+			new ConcurrentReferenceHashMap<>();
+
 
 	private CandidateComponentsIndexLoader() {
 	}
@@ -89,32 +105,70 @@ public final class CandidateComponentsIndexLoader {
 		return cache.computeIfAbsent(classLoaderToUse, CandidateComponentsIndexLoader::doLoadIndex);
 	}
 
+	/**
+	 * Load and instantiate the {@link ConfigurationClassesIndex} from
+	 * {@value #CONFIGURATIONS_RESOURCE_LOCATION}, using the given class loader.
+	 * If no index is available, return {@code null}.
+	 * <p>Like the candidate components index, the configuration classes index
+	 * is ignored if the {@value #IGNORE_INDEX} flag is set.
+	 * <p>The outcome is cached per class loader, including the absence of an
+	 * index, so the class path is only searched once.
+	 * @param classLoader the ClassLoader to use for loading (can be {@code null} to use the default)
+	 * @return the index to use or {@code null} if no index was found
+	 * @throws IllegalStateException if any module index cannot be loaded
+	 * @since 5.2.6
+	 */
+	@Nullable
+	public static ConfigurationClassesIndex loadConfigurationIndex(@Nullable ClassLoader classLoader) {
+		ClassLoader classLoaderToUse = classLoader;
+		if (classLoaderToUse == null) {
+			classLoaderToUse = CandidateComponentsIndexLoader.class.getClassLoader();
+		}
+		ConfigurationClassesIndex index = configurationCache.computeIfAbsent(classLoaderToUse,
+				CandidateComponentsIndexLoader::doLoadConfigurationIndex);
+		return (index != NO_CONFIGURATION_INDEX ? index : null);
+	}
+
 	@Nullable
 	private static CandidateComponentsIndex doLoadIndex(ClassLoader classLoader) {
+		Map<String, Properties> result = loadProperties(classLoader, COMPONENTS_RESOURCE_LOCATION);
+		return (result != null ? new CandidateComponentsIndex(new ArrayList<>(result.values())) : null);
+	}
+
+	private static ConfigurationClassesIndex doLoadConfigurationIndex(ClassLoader classLoader) {
+		Map<String, Properties> result = loadProperties(classLoader, CONFIGURATIONS_RESOURCE_LOCATION);
+		return (result != null ? new ConfigurationClassesIndex(classLoader, result) : NO_CONFIGURATION_INDEX);
+	}
+
+	/**
+	 * Load the index files at the given location, keyed by their URL.
+	 */
+	@Nullable
+	private static Map<String, Properties> loadProperties(ClassLoader classLoader, String location) {
 		if (shouldIgnoreIndex) {
 			return null;
 		}
 
 		try {
-			Enumeration<URL> urls = classLoader.getResources(COMPONENTS_RESOURCE_LOCATION);
+			Enumeration<URL> urls = classLoader.getResources(location);
 			if (!urls.hasMoreElements()) {
 				return null;
 			}
-			List<Properties> result = new ArrayList<>();
+			Map<String, Properties> result = new LinkedHashMap<>();
 			while (urls.hasMoreElements()) {
 				URL url = urls.nextElement();
 				Properties properties = PropertiesLoaderUtils.loadProperties(new UrlResource(url));
-				result.add(properties);
+				result.put(url.toExternalForm(), properties);
 			}
 			if (logger.isDebugEnabled()) {
 				logger.debug("Loaded " + result.size() + "] index(es)");
 			}
-			int totalCount = result.stream().mapToInt(Properties::size).sum();
-			return (totalCount > 0 ? new CandidateComponentsIndex(result) : null);
+			int totalCount = result.values().stream().mapToInt(Properties::size).sum();
+			return (totalCount > 0 ? result : null);
 		}
 		catch (IOException ex) {
 			throw new IllegalStateException("Unable to load indexes from location [" +
-					COMPONENTS_RESOURCE_LOCATION + "]", ex);
+					location + "]", ex);
 		}
 	}
 
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index;
+
+import java.net.URL;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Provide access to the class metadata that is defined in
+ * {@code META-INF/spring.configurations}, as generated by the
+ * {@code spring-context-indexer} annotation processor.
+ *
+ * <p>The index holds the metadata that configuration class processing needs
+ * for the configuration class candidates of a compilation (classes with
+ * component, {@code @ComponentScan}, {@code @Import} or {@code @ImportResource}
+ * annotations or with {@code @Bean} methods), as well as for the superclasses,
+ * interfaces, member classes and imported classes that get introspected along
+ * with them. For each class, the index declares the class itself, its type
+ * hierarchy, its runtime-visible annotations with their explicitly declared
+ * attribute values (including {@code @Import}, {@code @Conditional} and
+ * {@code @PropertySource} declarations) and its annotated methods (including
+ * {@code @Bean} method signatures, in source declaration order):
+ * <pre class="code">
+ * com.example.AppConfig=class
+ * com.example.AppConfig#superClass=java.lang.Object
+ * com.example.AppConfig#memberClasses=com.example.AppConfig$Nested
+ * com.example.AppConfig#annotations=@org.springframework.context.annotation.Configuration \
+ *   @org.springframework.context.annotation.Import(value={com.example.OtherConfig}) \
+ *   @org.springframework.context.annotation.PropertySource(value={"classpath:app.properties"})
+ * com.example.AppConfig#methods=javax.sql.DataSource dataSource @org.springframework.context.annotation.Bean; \
+ *   static com.example.Cache cache @org.springframework.context.annotation.Bean \
+ *   @org.springframework.context.annotation.Conditional(value={com.example.CacheCondition})
+ * </pre>
+ *
+ * <p>The class declaration consists of the modifiers {@code abstract},
+ * {@code final} and {@code static} (for independent member classes) and the
+ * kind of type ({@code class}, {@code interface} or {@code @interface}).
+ * Method declarations are separated by semicolons and consist of their
+ * modifiers ({@code abstract}, {@code static}, {@code final} or {@code private}),
+ * their erased return type, their name and their annotations. Annotation
+ * attribute values are given as quoted strings (for {@code String} and
+ * {@code char} values), as plain literals (for primitives, class names and
+ * enum constant names), as nested annotations or as arrays in braces, to be
+ * interpreted according to the attribute types of the annotation.
+ *
+ * <p>If several index files declare the same class, the first one in class
+ * path order wins. An entry only {@link #matchesClassFile matches} the class
+ * file in the class path root of the index file that declares it.
+ *
+ * @author agent
+ * @since 5.2.6
+ * @see CandidateComponentsIndexLoader#loadConfigurationIndex
+ * @see IndexedMetadataReaderFactory
+ */
+public class ConfigurationClassesIndex {
+
+	private static final String DETAIL_SEPARATOR = "#";
+
+	@Nullable
+	private final ClassLoader classLoader;
+
+	private final Map<String, Entry> index;
+
+
+	ConfigurationClassesIndex(@Nullable ClassLoader classLoader, Map<String, Properties> content) {
+		this.classLoader = classLoader;
+		this.index = parseIndex(content);
+	}
+
+
+	/**
+	 * Return the ClassLoader that this index has been loaded with.
+	 */
+	@Nullable
+	ClassLoader getClassLoader() {
+		return this.classLoader;
+	}
+
+	/**
+	 * Return the names of all classes in the index.
+	 */
+	public Set<String> getConfigurationClasses() {
+		return Collections.unmodifiableSet(this.index.keySet());
+	}
+
+	/**
+	 * Determine whether the given class is in the index.
+	 * @param className the name of the class to check
+	 */
+	public boolean containsConfigurationClass(String className) {
+		return this.index.containsKey(className);
+	}
+
+	/**
+	 * Determine whether the index entry for the given class has been generated
+	 * along with the given class file, i.e. whether the class file resides in
+	 * the class path root of the index file that declares the class.
+	 * <p>If not, e.g. for a class that is shadowed by another class path entry,
+	 * the index entry must not be used for the class.
+	 * @param className the name of the class
+	 * @param classFile the URL of the class file that the ClassLoader resolves
+	 */
+	public boolean matchesClassFile(String className, URL classFile) {
+		Entry entry = this.index.get(className);
+		return (entry != null && entry.root != null && classFile.toExternalForm().equals(
+				entry.root + ClassUtils.convertClassNameToResourcePath(className) + ClassUtils.CLASS_FILE_SUFFIX));
+	}
+
+	/**
+	 * Return the metadata for the given class, as declared in the index.
+	 * <p>Annotation and enum types are resolved against the ClassLoader of
+	 * this index. Just like for class files, annotations of types that are
+	 * not present are ignored.
+	 * @param className the name of the class
+	 * @return the metadata, or {@code null} if the class is not in the index
+	 * @throws IllegalStateException if the index entry does not match the
+	 * current annotation types, e.g. for an outdated index file
+	 */
+	@Nullable
+	public AnnotationMetadata getAnnotationMetadata(String className) {
+		Entry entry = this.index.get(className);
+		if (entry == null) {
+			return null;
+		}
+		return new IndexedAnnotationMetadataParser(className, this.classLoader).parse(
+				entry.declaration, entry.details);
+	}
+
+
+	private static Map<String, Entry> parseIndex(Map<String, Properties> content) {
+		Map<String, Entry> index = new LinkedHashMap<>();
+		content.forEach((location, properties) -> {
+			String root = (location.endsWith(CandidateComponentsIndexLoader.CONFIGURATIONS_RESOURCE_LOCATION) ?
+					location.substring(0, location.length() -
+							CandidateComponentsIndexLoader.CONFIGURATIONS_RESOURCE_LOCATION.length()) : null);
+			Map<String, Entry> entries = new HashMap<>();
+			properties.forEach((key, value) -> {
+				String name = (String) key;
+				int separatorIndex = name.indexOf(DETAIL_SEPARATOR);
+				String className = (separatorIndex != -1 ? name.substring(0, separatorIndex) : name);
+				Entry entry = entries.computeIfAbsent(className, ignored -> new Entry(root));
+				if (separatorIndex != -1) {
+					entry.details.put(name.substring(separatorIndex + 1), (String) value);
+				}
+				else {
+					entry.declaration = (String) value;
+				}
+			});
+			entries.forEach((className, entry) -> {
+				if (entry.declaration != null) {
+					index.putIfAbsent(className, entry);
+				}
+			});
+		});
+		return index;
+	}
+
+
+	/**
+	 * The index entry for a class.
+	 */
+	private static class Entry {
+
+		@Nullable
+		final String root;
+
+		@Nullable
+		String declaration;
+
+		final Map<String, String> details = new HashMap<>();
+
+		Entry(@Nullable String root) {
+			this.root = root;
+		}
+	}
+
+}
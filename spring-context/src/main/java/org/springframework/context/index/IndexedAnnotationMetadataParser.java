@@ -0,0 +1,389 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.core.annotation.MergedAnnotation;
+import org.springframework.core.annotation.MergedAnnotations;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Parser for the index entry of a class in a {@link ConfigurationClassesIndex},
+ * creating {@link IndexedAnnotationMetadata} from it.
+ *
+ * <p>Annotation attribute values are converted to the same representation as
+ * for class metadata read via ASM: class names for class values, maps for
+ * nested annotations, and the declared types for all other values.
+ *
+ * @author agent
+ * @since 5.2.6
+ * @see ConfigurationClassesIndex#getAnnotationMetadata(String)
+ */
+final class IndexedAnnotationMetadataParser {
+
+	private static final Set<String> CLASS_MODIFIERS =
+			new HashSet<>(Arrays.asList("abstract", "final", "static"));
+
+	private static final Set<String> METHOD_MODIFIERS =
+			new HashSet<>(Arrays.asList("abstract", "static", "final", "private"));
+
+	private static final String DELIMITERS = "@(){},=;\"";
+
+
+	private final String className;
+
+	@Nullable
+	private final ClassLoader classLoader;
+
+	private String input = "";
+
+	private int position;
+
+
+	IndexedAnnotationMetadataParser(String className, @Nullable ClassLoader classLoader) {
+		this.className = className;
+		this.classLoader = classLoader;
+	}
+
+
+	/**
+	 * Parse the given index entry.
+	 * @param declaration the declaration of the class
+	 * @param details the details of the class, keyed by their name
+	 * @return the metadata of the class
+	 * @throws IllegalStateException if the entry cannot be parsed
+	 */
+	public IndexedAnnotationMetadata parse(String declaration, Map<String, String> details) {
+		this.input = declaration;
+		this.position = 0;
+		String[] tokens = StringUtils.tokenizeToStringArray(declaration, " ");
+		Set<String> modifiers = new HashSet<>();
+		for (int i = 0; i < tokens.length - 1; i++) {
+			if (!CLASS_MODIFIERS.contains(tokens[i])) {
+				throw parseError("Unknown class modifier '" + tokens[i] + "'");
+			}
+			modifiers.add(tokens[i]);
+		}
+		String kind = (tokens.length > 0 ? tokens[tokens.length - 1] : "");
+		if (!kind.equals("class") && !kind.equals("interface") && !kind.equals("@interface")) {
+			throw parseError("Unknown kind of type '" + kind + "'");
+		}
+		MergedAnnotations annotations = parseAnnotations(details.get("annotations"), this.className);
+		MethodMetadata[] annotatedMethods = parseMethods(details.get("methods"));
+		return new IndexedAnnotationMetadata(this.className, !kind.equals("class"), kind.equals("@interface"),
+				modifiers.contains("abstract"), modifiers.contains("final"), modifiers.contains("static"),
+				details.get("enclosingClass"), details.get("superClass"),
+				StringUtils.tokenizeToStringArray(details.get("interfaces"), ","),
+				StringUtils.tokenizeToStringArray(details.get("memberClasses"), ","),
+				annotatedMethods, annotations);
+	}
+
+	private MergedAnnotations parseAnnotations(@Nullable String annotations, Object source) {
+		this.input = (annotations != null ? annotations : "");
+		this.position = 0;
+		List<MergedAnnotation<?>> result = parseAnnotationList(source);
+		if (!atEnd()) {
+			throw parseError("Annotation expected");
+		}
+		return MergedAnnotations.of(result);
+	}
+
+	private MethodMetadata[] parseMethods(@Nullable String methods) {
+		this.input = (methods != null ? methods : "");
+		this.position = 0;
+		List<MethodMetadata> result = new ArrayList<>();
+		while (!atEnd()) {
+			Set<String> modifiers = new HashSet<>();
+			String returnTypeName = readWord();
+			while (METHOD_MODIFIERS.contains(returnTypeName)) {
+				modifiers.add(returnTypeName);
+				returnTypeName = readWord();
+			}
+			String methodName = readWord();
+			List<MergedAnnotation<?>> annotations = parseAnnotationList(this.className + "." + methodName);
+			result.add(new IndexedMethodMetadata(methodName, this.className, returnTypeName,
+					modifiers.contains("abstract"), modifiers.contains("static"), modifiers.contains("final"),
+					modifiers.contains("private"), MergedAnnotations.of(annotations)));
+			if (!atEnd()) {
+				expect(';');
+			}
+		}
+		return result.toArray(new MethodMetadata[0]);
+	}
+
+	private List<MergedAnnotation<?>> parseAnnotationList(Object source) {
+		List<MergedAnnotation<?>> annotations = new ArrayList<>();
+		while (peek() == '@') {
+			MergedAnnotation<?> annotation = parseAnnotation(source);
+			if (annotation != null) {
+				annotations.add(annotation);
+			}
+		}
+		return annotations;
+	}
+
+	@Nullable
+	private MergedAnnotation<?> parseAnnotation(Object source) {
+		expect('@');
+		Class<? extends Annotation> annotationType = resolveAnnotationType(readWord());
+		Map<String, Object> attributes = parseAttributes(annotationType);
+		return (annotationType != null ?
+				MergedAnnotation.of(this.classLoader, source, annotationType, attributes) : null);
+	}
+
+	/**
+	 * Parse the attributes of an annotation, skipping them if the annotation
+	 * type is not present.
+	 */
+	private Map<String, Object> parseAttributes(@Nullable Class<? extends Annotation> annotationType) {
+		Map<String, Object> attributes = new LinkedHashMap<>();
+		if (consume('(') && !consume(')')) {
+			do {
+				String attributeName = readWord();
+				expect('=');
+				if (annotationType != null) {
+					attributes.put(attributeName, parseValue(getAttributeType(annotationType, attributeName)));
+				}
+				else {
+					skipValue();
+				}
+			}
+			while (consume(','));
+			expect(')');
+		}
+		return attributes;
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private Object parseValue(Class<?> type) {
+		if (type.isArray()) {
+			Class<?> componentType = type.getComponentType();
+			List<Object> elements = new ArrayList<>();
+			if (!consume('{')) {
+				elements.add(parseValue(componentType));
+			}
+			else if (!consume('}')) {
+				do {
+					elements.add(parseValue(componentType));
+				}
+				while (consume(','));
+				expect('}');
+			}
+			Object array = Array.newInstance(getValueType(componentType), elements.size());
+			for (int i = 0; i < elements.size(); i++) {
+				Array.set(array, i, elements.get(i));
+			}
+			return array;
+		}
+		if (type == String.class) {
+			return readString();
+		}
+		if (type == char.class) {
+			String value = readString();
+			if (value.length() != 1) {
+				throw parseError("Single character expected");
+			}
+			return value.charAt(0);
+		}
+		if (type.isAnnotation()) {
+			expect('@');
+			String annotationName = readWord();
+			if (!annotationName.equals(type.getName())) {
+				throw parseError("Nested annotation of type [" + type.getName() + "] expected");
+			}
+			return parseAttributes((Class<? extends Annotation>) type);
+		}
+		String literal = readWord();
+		if (type == Class.class) {
+			return literal;
+		}
+		try {
+			if (type.isEnum()) {
+				return Enum.valueOf((Class<Enum>) type, literal);
+			}
+			if (type == boolean.class && (literal.equals("true") || literal.equals("false"))) {
+				return Boolean.valueOf(literal);
+			}
+			if (type == byte.class) {
+				return Byte.valueOf(literal);
+			}
+			if (type == short.class) {
+				return Short.valueOf(literal);
+			}
+			if (type == int.class) {
+				return Integer.valueOf(literal);
+			}
+			if (type == long.class) {
+				return Long.valueOf(literal);
+			}
+			if (type == float.class) {
+				return Float.valueOf(literal);
+			}
+			if (type == double.class) {
+				return Double.valueOf(literal);
+			}
+		}
+		catch (IllegalArgumentException ex) {
+			throw parseError("Invalid value '" + literal + "': " + ex.getMessage());
+		}
+		throw parseError("Invalid value '" + literal + "' for type [" + type.getName() + "]");
+	}
+
+	private void skipValue() {
+		char next = peek();
+		if (next == '"') {
+			readString();
+		}
+		else if (next == '@') {
+			expect('@');
+			readWord();
+			parseAttributes(null);
+		}
+		else if (consume('{')) {
+			if (!consume('}')) {
+				do {
+					skipValue();
+				}
+				while (consume(','));
+				expect('}');
+			}
+		}
+		else {
+			readWord();
+		}
+	}
+
+	@Nullable
+	@SuppressWarnings("unchecked")
+	private Class<? extends Annotation> resolveAnnotationType(String typeName) {
+		Class<?> type;
+		try {
+			type = ClassUtils.forName(typeName, this.classLoader);
+		}
+		catch (ClassNotFoundException | LinkageError ex) {
+			// Annotation type not present: skip it, just like when reading the class file
+			return null;
+		}
+		if (!type.isAnnotation()) {
+			throw parseError("Type [" + typeName + "] is not an annotation");
+		}
+		return (Class<? extends Annotation>) type;
+	}
+
+	private Class<?> getAttributeType(Class<? extends Annotation> annotationType, String attributeName) {
+		try {
+			return annotationType.getDeclaredMethod(attributeName).getReturnType();
+		}
+		catch (NoSuchMethodException ex) {
+			throw parseError("No attribute '" + attributeName + "' in annotation [" + annotationType.getName() + "]");
+		}
+	}
+
+	/**
+	 * Return the type of the values in an array of the given component type,
+	 * using class names for classes and maps for nested annotations.
+	 */
+	private static Class<?> getValueType(Class<?> componentType) {
+		if (componentType == Class.class) {
+			return String.class;
+		}
+		if (componentType.isAnnotation()) {
+			return Map.class;
+		}
+		return componentType;
+	}
+
+	private String readWord() {
+		skipWhitespace();
+		int start = this.position;
+		while (this.position < this.input.length() && !isDelimiter(this.input.charAt(this.position))) {
+			this.position++;
+		}
+		if (this.position == start) {
+			throw parseError("Name or value expected");
+		}
+		return this.input.substring(start, this.position);
+	}
+
+	private String readString() {
+		expect('"');
+		StringBuilder value = new StringBuilder();
+		while (this.position < this.input.length()) {
+			char c = this.input.charAt(this.position++);
+			if (c == '"') {
+				return value.toString();
+			}
+			if (c == '\\' && this.position < this.input.length()) {
+				c = this.input.charAt(this.position++);
+			}
+			value.append(c);
+		}
+		throw parseError("Unterminated string");
+	}
+
+	private void expect(char c) {
+		if (!consume(c)) {
+			throw parseError("'" + c + "' expected");
+		}
+	}
+
+	private boolean consume(char c) {
+		if (peek() == c) {
+			this.position++;
+			return true;
+		}
+		return false;
+	}
+
+	private char peek() {
+		skipWhitespace();
+		return (this.position < this.input.length() ? this.input.charAt(this.position) : 0);
+	}
+
+	private boolean atEnd() {
+		skipWhitespace();
+		return (this.position >= this.input.length());
+	}
+
+	private void skipWhitespace() {
+		while (this.position < this.input.length() && Character.isWhitespace(this.input.charAt(this.position))) {
+			this.position++;
+		}
+	}
+
+	private static boolean isDelimiter(char c) {
+		return (Character.isWhitespace(c) || DELIMITERS.indexOf(c) != -1);
+	}
+
+	private IllegalStateException parseError(String message) {
+		return new IllegalStateException(message + " at position " + this.position +
+				" in index entry for class [" + this.className + "]: " + this.input);
+	}
+
+}
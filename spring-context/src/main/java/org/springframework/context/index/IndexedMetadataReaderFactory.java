@@ -0,0 +1,176 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.annotation.MergedAnnotation;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.ClassMetadata;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * {@link MetadataReaderFactory} that serves class metadata from a
+ * {@link ConfigurationClassesIndex} without reading the class files,
+ * delegating to another {@code MetadataReaderFactory} (typically reading
+ * the class files via ASM) for classes that are not in the index.
+ *
+ * <p>An index entry is only used if it has been generated along with the
+ * class file that the ClassLoader resolves, see
+ * {@link ConfigurationClassesIndex#matchesClassFile}. Entries that do not
+ * match, as well as entries that cannot be parsed against the current
+ * annotation types, are considered stale and ignored in favor of the delegate.
+ *
+ * <p>The annotation types (including meta-annotation types) on classes from the
+ * index have been loaded along with their metadata already, so the metadata for
+ * those annotation types, e.g. for detecting {@code @Import} meta-annotations,
+ * is obtained through reflection rather than from their class files.
+ *
+ * <p>Metadata obtained from the index is cached for the lifetime of this factory.
+ *
+ * @author agent
+ * @since 5.2.6
+ * @see CandidateComponentsIndexLoader#loadConfigurationIndex
+ */
+public class IndexedMetadataReaderFactory implements MetadataReaderFactory {
+
+	private static final Log logger = LogFactory.getLog(IndexedMetadataReaderFactory.class);
+
+	private final ConfigurationClassesIndex index;
+
+	private final MetadataReaderFactory delegate;
+
+	private final Map<String, MetadataReader> metadataReaderCache = new ConcurrentHashMap<>(256);
+
+	/** Annotation types on classes from the index, keyed by name. */
+	private final Map<String, Class<?>> annotationTypes = new ConcurrentHashMap<>(64);
+
+
+	/**
+	 * Create a new IndexedMetadataReaderFactory for the given index.
+	 * @param index the configuration classes index to serve metadata from
+	 * @param delegate the factory to use for classes that are not in the index
+	 * or whose index entry is stale
+	 */
+	public IndexedMetadataReaderFactory(ConfigurationClassesIndex index, MetadataReaderFactory delegate) {
+		Assert.notNull(index, "ConfigurationClassesIndex must not be null");
+		Assert.notNull(delegate, "Delegate MetadataReaderFactory must not be null");
+		this.index = index;
+		this.delegate = delegate;
+	}
+
+
+	@Override
+	public MetadataReader getMetadataReader(String className) throws IOException {
+		MetadataReader metadataReader = this.metadataReaderCache.get(className);
+		if (metadataReader == null) {
+			metadataReader = readIndexEntry(className);
+			if (metadataReader == null) {
+				Class<?> annotationType = this.annotationTypes.get(className);
+				if (annotationType == null) {
+					return this.delegate.getMetadataReader(className);
+				}
+				metadataReader = new IndexedMetadataReader(getClassResource(className),
+						AnnotationMetadata.introspect(annotationType));
+			}
+			for (MergedAnnotation<Annotation> annotation : metadataReader.getAnnotationMetadata().getAnnotations()) {
+				this.annotationTypes.putIfAbsent(annotation.getType().getName(), annotation.getType());
+			}
+			this.metadataReaderCache.put(className, metadataReader);
+		}
+		return metadataReader;
+	}
+
+	@Override
+	public MetadataReader getMetadataReader(Resource resource) throws IOException {
+		return this.delegate.getMetadataReader(resource);
+	}
+
+	@Nullable
+	private MetadataReader readIndexEntry(String className) {
+		if (!this.index.containsConfigurationClass(className)) {
+			return null;
+		}
+		Resource resource = getClassResource(className);
+		try {
+			if (!this.index.matchesClassFile(className, resource.getURL())) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Ignoring index entry for class [" + className + "] since " + resource +
+							" does not reside in the class path root of the declaring index");
+				}
+				return null;
+			}
+			AnnotationMetadata metadata = this.index.getAnnotationMetadata(className);
+			return (metadata != null ? new IndexedMetadataReader(resource, metadata) : null);
+		}
+		catch (IOException | RuntimeException | LinkageError ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Ignoring stale index entry for class [" + className + "]: " + ex);
+			}
+			return null;
+		}
+	}
+
+	private Resource getClassResource(String className) {
+		return new ClassPathResource(ClassUtils.convertClassNameToResourcePath(className) +
+				ClassUtils.CLASS_FILE_SUFFIX, this.index.getClassLoader());
+	}
+
+
+	/**
+	 * {@link MetadataReader} for metadata obtained without reading the class file.
+	 */
+	private static class IndexedMetadataReader implements MetadataReader {
+
+		private final Resource resource;
+
+		private final AnnotationMetadata metadata;
+
+		IndexedMetadataReader(Resource resource, AnnotationMetadata metadata) {
+			this.resource = resource;
+			this.metadata = metadata;
+		}
+
+		@Override
+		public Resource getResource() {
+			return this.resource;
+		}
+
+		@Override
+		public ClassMetadata getClassMetadata() {
+			return this.metadata;
+		}
+
+		@Override
+		public AnnotationMetadata getAnnotationMetadata() {
+			return this.metadata;
+		}
+	}
+
+}
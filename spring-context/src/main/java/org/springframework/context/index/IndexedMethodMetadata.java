@@ -0,0 +1,109 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index;
+
+import org.springframework.core.annotation.MergedAnnotations;
+import org.springframework.core.type.MethodMetadata;
+
+/**
+ * {@link MethodMetadata} declared in a {@link ConfigurationClassesIndex},
+ * equivalent to the metadata read from the class file via ASM.
+ *
+ * @author agent
+ * @since 5.2.6
+ * @see IndexedAnnotationMetadata
+ */
+final class IndexedMethodMetadata implements MethodMetadata {
+
+	private final String methodName;
+
+	private final String declaringClassName;
+
+	private final String returnTypeName;
+
+	private final boolean isAbstract;
+
+	private final boolean isStatic;
+
+	private final boolean isFinal;
+
+	private final boolean isPrivate;
+
+	private final MergedAnnotations annotations;
+
+
+	IndexedMethodMetadata(String methodName, String declaringClassName, String returnTypeName,
+			boolean isAbstract, boolean isStatic, boolean isFinal, boolean isPrivate,
+			MergedAnnotations annotations) {
+
+		this.methodName = methodName;
+		this.declaringClassName = declaringClassName;
+		this.returnTypeName = returnTypeName;
+		this.isAbstract = isAbstract;
+		this.isStatic = isStatic;
+		this.isFinal = isFinal;
+		this.isPrivate = isPrivate;
+		this.annotations = annotations;
+	}
+
+
+	@Override
+	public String getMethodName() {
+		return this.methodName;
+	}
+
+	@Override
+	public String getDeclaringClassName() {
+		return this.declaringClassName;
+	}
+
+	@Override
+	public String getReturnTypeName() {
+		return this.returnTypeName;
+	}
+
+	@Override
+	public boolean isAbstract() {
+		return this.isAbstract;
+	}
+
+	@Override
+	public boolean isStatic() {
+		return this.isStatic;
+	}
+
+	@Override
+	public boolean isFinal() {
+		return this.isFinal;
+	}
+
+	@Override
+	public boolean isOverridable() {
+		return (!isStatic() && !isFinal() && !this.isPrivate);
+	}
+
+	@Override
+	public MergedAnnotations getAnnotations() {
+		return this.annotations;
+	}
+
+	@Override
+	public String toString() {
+		return this.declaringClassName + "." + this.methodName;
+	}
+
+}
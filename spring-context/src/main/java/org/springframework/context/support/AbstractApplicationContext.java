@@ -77,6 +77,8 @@ import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ObjectUtils;
@@ -245,6 +247,11 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 	@Nullable
 	private ApplicationEventMulticaster applicationEventMulticaster;
 
+	/**
+	 * Application startup metrics.
+	 */
+	private ApplicationStartup applicationStartup = ApplicationStartup.DEFAULT;
+
 	/**
 	 * Statically specified listeners.
 	 */
@@ -380,6 +387,17 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 		return new StandardEnvironment();
 	}
 
+	@Override
+	public void setApplicationStartup(ApplicationStartup applicationStartup) {
+		Assert.notNull(applicationStartup, "ApplicationStartup must not be null");
+		this.applicationStartup = applicationStartup;
+	}
+
+	@Override
+	public ApplicationStartup getApplicationStartup() {
+		return this.applicationStartup;
+	}
+
 	/**
 	 * Return this context's internal bean factory as AutowireCapableBeanFactory,
 	 * if already available.
@@ -571,62 +589,74 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 	@Override
 	public void refresh() throws BeansException, IllegalStateException {
 		synchronized (this.startupShutdownMonitor) {
-			// 准备这个上下文以进行刷新。
-			prepareRefresh();
+			StartupStep contextRefresh = this.applicationStartup.start("spring.context.refresh");
+			try {
+				// 准备这个上下文以进行刷新。
+				prepareRefresh();
 
-			// 告诉子类刷新内部bean工厂。
-			ConfigurableListableBeanFactory beanFactory = obtainFreshBeanFactory();
+				// 告诉子类刷新内部bean工厂。
+				ConfigurableListableBeanFactory beanFactory = obtainFreshBeanFactory();
 
-			//准备在此上下文中使用的bean工厂。
-			prepareBeanFactory(beanFactory);
+				//准备在此上下文中使用的bean工厂。
+				prepareBeanFactory(beanFactory);
 
-			try {
-				//允许在上下文子类中对bean工厂进行后处理。
-				postProcessBeanFactory(beanFactory);
+				try {
+					//允许在上下文子类中对bean工厂进行后处理。
+					postProcessBeanFactory(beanFactory);
 
-				//完成扫描
-				//调用上下文中注册为bean的工厂处理器。
-				invokeBeanFactoryPostProcessors(beanFactory);
+					StartupStep beanPostProcess = this.applicationStartup.start("spring.context.beans.post-process");
+					try {
+						//完成扫描
+						//调用上下文中注册为bean的工厂处理器。
+						invokeBeanFactoryPostProcessors(beanFactory);
 
-				// 注册拦截bean创建的bean处理器。
-				registerBeanPostProcessors(beanFactory);
+						// 注册拦截bean创建的bean处理器。
+						registerBeanPostProcessors(beanFactory);
+					}
+					finally {
+						beanPostProcess.end();
+					}
 
-				// 为此上下文初始化消息源。
-				initMessageSource();
+					// 为此上下文初始化消息源。
+					initMessageSource();
 
-				// 为此上下文初始化事件多播器。
-				initApplicationEventMulticaster();
+					// 为此上下文初始化事件多播器。
+					initApplicationEventMulticaster();
 
-				// 初始化特定上下文子类中的其他特殊bean。
-				onRefresh();
+					// 初始化特定上下文子类中的其他特殊bean。
+					onRefresh();
 
-				// 检查侦听器bean并注册它们。
-				registerListeners();
+					// 检查侦听器bean并注册它们。
+					registerListeners();
 
-				//此处初始化Bean
-				// 实例化所有剩余的(非延迟-init)单例。
-				finishBeanFactoryInitialization(beanFactory);
+					//此处初始化Bean
+					// 实例化所有剩余的(非延迟-init)单例。
+					finishBeanFactoryInitialization(beanFactory);
 
-				//最后一步:发布相应的事件。
-				finishRefresh();
-			} catch (BeansException ex) {
-				if (logger.isWarnEnabled()) {
-					logger.warn("Exception encountered during context initialization - " +
-							"cancelling refresh attempt: " + ex);
-				}
+					//最后一步:发布相应的事件。
+					finishRefresh();
+				} catch (BeansException ex) {
+					if (logger.isWarnEnabled()) {
+						logger.warn("Exception encountered during context initialization - " +
+								"cancelling refresh attempt: " + ex);
+					}
 
-				// 销毁已经创建的单例，以避免悬空资源。
-				destroyBeans();
+					// 销毁已经创建的单例，以避免悬空资源。
+					destroyBeans();
 
-				// Reset 'active' flag.
-				cancelRefresh(ex);
+					// Reset 'active' flag.
+					cancelRefresh(ex);
 
-				// 将异常传播给调用者。
-				throw ex;
-			} finally {
-				// 重置Spring核心中的普通自省缓存，因为我们
-				//可能再也不需要单例bean的元数据了……
-				resetCommonCaches();
+					// 将异常传播给调用者。
+					throw ex;
+				} finally {
+					// 重置Spring核心中的普通自省缓存，因为我们
+					//可能再也不需要单例bean的元数据了……
+					resetCommonCaches();
+				}
+			}
+			finally {
+				contextRefresh.end();
 			}
 		}
 	}
@@ -713,6 +743,7 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 	protected void prepareBeanFactory(ConfigurableListableBeanFactory beanFactory) {
 		// Tell the internal bean factory to use the context's class loader etc. 告诉内部bean工厂使用上下文的类装入器等。
 		beanFactory.setBeanClassLoader(getClassLoader());
+		beanFactory.setApplicationStartup(getApplicationStartup());
 		beanFactory.setBeanExpressionResolver(new StandardBeanExpressionResolver(beanFactory.getBeanClassLoader()));
 		beanFactory.addPropertyEditorRegistrar(new ResourceEditorRegistrar(this, getEnvironment()));
 		//用上下文回调配置bean工厂。
@@ -754,6 +785,9 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 		if (!beanFactory.containsLocalBean(SYSTEM_ENVIRONMENT_BEAN_NAME)) {
 			beanFactory.registerSingleton(SYSTEM_ENVIRONMENT_BEAN_NAME, getEnvironment().getSystemEnvironment());
 		}
+		if (!beanFactory.containsLocalBean(APPLICATION_STARTUP_BEAN_NAME)) {
+			beanFactory.registerSingleton(APPLICATION_STARTUP_BEAN_NAME, getApplicationStartup());
+		}
 	}
 
 	/**
@@ -840,7 +874,9 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 				logger.trace("Using ApplicationEventMulticaster [" + this.applicationEventMulticaster + "]");
 			}
 		} else {
-			this.applicationEventMulticaster = new SimpleApplicationEventMulticaster(beanFactory);
+			SimpleApplicationEventMulticaster eventMulticaster = new SimpleApplicationEventMulticaster(beanFactory);
+			eventMulticaster.setApplicationStartup(getApplicationStartup());
+			this.applicationEventMulticaster = eventMulticaster;
 			beanFactory.registerSingleton(APPLICATION_EVENT_MULTICASTER_BEAN_NAME, this.applicationEventMulticaster);
 			if (logger.isTraceEnabled()) {
 				logger.trace("No '" + APPLICATION_EVENT_MULTICASTER_BEAN_NAME + "' bean, using " +
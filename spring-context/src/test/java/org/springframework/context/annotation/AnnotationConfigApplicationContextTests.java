@@ -16,6 +16,7 @@
 
 package org.springframework.context.annotation;
 
+import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
 
@@ -27,10 +28,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.beans.factory.support.RootBeanDefinition;
 import org.springframework.context.ApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation6.ComponentForScanning;
 import org.springframework.context.annotation6.ConfigForScanning;
 import org.springframework.context.annotation6.Jsr330NamedForScanning;
 import org.springframework.core.ResolvableType;
+import org.springframework.core.metrics.BufferingApplicationStartup;
+import org.springframework.core.metrics.BufferingApplicationStartup.BufferedStartupStep;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.util.ObjectUtils;
 
 import static java.lang.String.format;
@@ -390,6 +395,58 @@ class AnnotationConfigApplicationContextTests {
 		assertThat(context.getBeanNamesForType(TypedFactoryBean.class)).hasSize(1);
 	}
 
+	@Test
+	void refreshWithApplicationStartup() {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup();
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.setApplicationStartup(applicationStartup);
+		context.register(Config.class, NameConfig.class);
+		context.addApplicationListener(event -> {});
+		context.refresh();
+
+		assertThat(context.getBean(ConfigurableApplicationContext.APPLICATION_STARTUP_BEAN_NAME)).isSameAs(applicationStartup);
+		List<BufferedStartupStep> steps = applicationStartup.getBufferedSteps();
+		assertThat(steps).extracting(StartupStep::getName).contains("spring.context.refresh",
+				"spring.context.beans.post-process", "spring.context.beandef-registry.post-process",
+				"spring.context.bean-factory.post-process", "spring.context.config-classes.parse",
+				"spring.context.config-classes.enhance", "spring.beans.instantiate", "spring.event.invoke-listener");
+		BufferedStartupStep refresh = steps.stream()
+				.filter(step -> step.getName().equals("spring.context.refresh")).findFirst().get();
+		assertThat(refresh.getParentId()).isNull();
+		BufferedStartupStep instantiate = steps.stream()
+				.filter(step -> step.getName().equals("spring.beans.instantiate"))
+				.filter(step -> tagValue(step, "beanName").equals("testBean")).findFirst().get();
+		assertThat(instantiate.getParentId()).isNotNull();
+		assertThat(tagValue(instantiate, "beanType")).isEqualTo(TestBean.class.getName());
+		assertThat(applicationStartup.toJson()).contains("\"name\":\"spring.context.refresh\"");
+	}
+
+	@Test
+	void refreshFailureEndsStartupSteps() {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup();
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.setApplicationStartup(applicationStartup);
+		context.register(Config.class);
+		context.addBeanFactoryPostProcessor(beanFactory -> {
+			throw new IllegalStateException("failing post-processor");
+		});
+		assertThatExceptionOfType(IllegalStateException.class).isThrownBy(context::refresh);
+
+		assertThat(applicationStartup.getBufferedSteps()).extracting(StartupStep::getName).contains(
+				"spring.context.refresh", "spring.context.beans.post-process", "spring.context.bean-factory.post-process");
+		// All steps ended -> new steps start without a parent
+		assertThat(((BufferedStartupStep) applicationStartup.start("test")).getParentId()).isNull();
+	}
+
+	private static String tagValue(StartupStep step, String key) {
+		for (StartupStep.Tag tag : step.getTags()) {
+			if (tag.getKey().equals(key)) {
+				return tag.getValue();
+			}
+		}
+		return "";
+	}
+
 
 	@Configuration
 	static class Config {
@@ -0,0 +1,289 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.testfixture.beans.TestBean;
+import org.springframework.context.annotation.componentscan.level3.Level3Component;
+import org.springframework.context.annotation.componentscan.simple.SimpleComponent;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StreamUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests for {@link BeanDefinitionSnapshotGenerator} and the application of
+ * bean definition snapshots in {@link AnnotationConfigApplicationContext}.
+ *
+ * @author agent
+ * @since 5.2.6
+ */
+public class BeanDefinitionSnapshotTests {
+
+	private static final String SCANNED_PACKAGE = SimpleComponent.class.getPackage().getName();
+
+
+	@Test
+	public void snapshotForComponentClasses() throws IOException {
+		BeanDefinitionSnapshotGenerator generator = new BeanDefinitionSnapshotGenerator();
+		generator.setComponentClasses(SnapshotConfig.class);
+		Resource snapshot = generate(generator);
+
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.register(SnapshotConfig.class);
+		context.setBeanDefinitionSnapshot(snapshot);
+		context.refresh();
+
+		assertThat(context.getBeanDefinition("simpleComponent")).isNotInstanceOf(AnnotatedBeanDefinition.class);
+		assertThat(context.getBean("exampleBean")).isEqualTo("example");
+		assertThat(context.getBean(SimpleComponent.class)).isNotNull();
+		assertThat(context.getBean("testBean", TestBean.class).getName()).isEqualTo("p2TestBean");
+		assertThat(context.getBean(ImportedConfig.class).importingClass).isEqualTo(SnapshotConfig.class.getName());
+		assertThat(context.getBean(SnapshotConfig.class)).isInstanceOf(ConfigurationClassEnhancer.EnhancedConfiguration.class);
+		TestBean scoped = context.getBean("scopedTestBean", TestBean.class);
+		assertThat(AopUtils.isAopProxy(scoped)).isTrue();
+		assertThat(scoped.getName()).isEqualTo("scoped");
+		context.close();
+	}
+
+	@Test
+	public void snapshotForBasePackages() throws IOException {
+		BeanDefinitionSnapshotGenerator generator = new BeanDefinitionSnapshotGenerator();
+		generator.setBasePackages(SCANNED_PACKAGE);
+		Resource snapshot = generate(generator);
+
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.setBeanDefinitionSnapshot(snapshot);
+		context.scan(SCANNED_PACKAGE);
+		context.refresh();
+
+		assertThat(context.getBeanDefinition("simpleComponent")).isNotInstanceOf(AnnotatedBeanDefinition.class);
+		assertThat(context.getBean("exampleBean")).isEqualTo("example");
+		assertThat(context.getBeansOfType(SimpleComponent.class)).hasSize(1);
+		context.close();
+	}
+
+	@Test
+	public void snapshotIgnoredForDifferentProfiles() throws IOException {
+		BeanDefinitionSnapshotGenerator generator = new BeanDefinitionSnapshotGenerator();
+		generator.setComponentClasses(SnapshotConfig.class);
+		generator.setActiveProfiles("other");
+		Resource snapshot = generate(generator);
+
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.register(SnapshotConfig.class);
+		context.setBeanDefinitionSnapshot(snapshot);
+		context.refresh();
+
+		assertThat(context.getBeanDefinition("simpleComponent")).isInstanceOf(AnnotatedBeanDefinition.class);
+		assertThat(context.getBean("testBean", TestBean.class).getName()).isEqualTo("p2TestBean");
+		assertThat(context.getBean(ImportedConfig.class).importingClass).isEqualTo(SnapshotConfig.class.getName());
+		context.close();
+	}
+
+	@Test
+	public void snapshotIgnoredForDifferentBasePackages() throws IOException {
+		BeanDefinitionSnapshotGenerator generator = new BeanDefinitionSnapshotGenerator();
+		generator.setBasePackages(SCANNED_PACKAGE);
+		Resource snapshot = generate(generator);
+
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.setBeanDefinitionSnapshot(snapshot);
+		context.scan(SCANNED_PACKAGE, Level3Component.class.getPackage().getName());
+		context.refresh();
+
+		assertThat(context.getBeanDefinition("simpleComponent")).isInstanceOf(AnnotatedBeanDefinition.class);
+		assertThat(context.getBean(Level3Component.class)).isNotNull();
+		context.close();
+	}
+
+	@Test
+	public void missingSnapshotFallsBackToScanning() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.setBeanDefinitionSnapshot(new ClassPathResource("nonExistent.snapshot", getClass()));
+		context.scan(SCANNED_PACKAGE);
+		context.refresh();
+
+		assertThat(context.getBeanDefinition("simpleComponent")).isInstanceOf(AnnotatedBeanDefinition.class);
+		assertThat(context.getBean("exampleBean")).isEqualTo("example");
+		context.close();
+	}
+
+
+	@Test
+	public void snapshotRejectedForNonProfileConditions() {
+		BeanDefinitionSnapshotGenerator generator = new BeanDefinitionSnapshotGenerator();
+		generator.setComponentClasses(ConditionalConfig.class);
+		assertThatIllegalArgumentException().isThrownBy(() -> generate(generator))
+				.withMessageContaining(ConditionalConfig.class.getName() + ".conditionalBean()");
+	}
+
+	@Test
+	public void fingerprintsIndependentOfClasspathLocation(@TempDir Path tempDir) throws IOException {
+		PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+		String packagePath = ClassUtils.convertClassNameToResourcePath(SCANNED_PACKAGE) + "/";
+		File jarFile = tempDir.resolve("classes.jar").toFile();
+		try (JarOutputStream jar = new JarOutputStream(new FileOutputStream(jarFile))) {
+			Set<String> directories = new HashSet<>();
+			for (Resource resource : resolver.getResources("classpath*:" + packagePath + "**/*.class")) {
+				String url = resource.getURL().toString();
+				String path = url.substring(url.lastIndexOf(packagePath));
+				for (int index = path.indexOf('/'); index != -1; index = path.indexOf('/', index + 1)) {
+					String directory = path.substring(0, index + 1);
+					if (directories.add(directory)) {
+						jar.putNextEntry(new JarEntry(directory));
+						jar.closeEntry();
+					}
+				}
+				jar.putNextEntry(new JarEntry(path));
+				try (InputStream in = resource.getInputStream()) {
+					StreamUtils.copy(in, jar);
+				}
+				jar.closeEntry();
+			}
+		}
+
+		try (URLClassLoader jarClassLoader = new URLClassLoader(new URL[] {jarFile.toURI().toURL()}, null)) {
+			PathMatchingResourcePatternResolver jarResolver = new PathMatchingResourcePatternResolver(jarClassLoader);
+			String className = SimpleComponent.class.getName();
+			assertThat(BeanDefinitionSnapshot.classFingerprint(className, jarResolver))
+					.isEqualTo(BeanDefinitionSnapshot.classFingerprint(className, resolver))
+					.isNotEqualTo(-1);
+			assertThat(BeanDefinitionSnapshot.packageFingerprint(SCANNED_PACKAGE, jarResolver))
+					.isEqualTo(BeanDefinitionSnapshot.packageFingerprint(SCANNED_PACKAGE, resolver));
+		}
+	}
+
+	@Test
+	public void fingerprintsBasedOnContent(@TempDir Path tempDir) throws IOException {
+		String className = SimpleComponent.class.getName();
+		String classFile = ClassUtils.convertClassNameToResourcePath(className) + ClassUtils.CLASS_FILE_SUFFIX;
+		Path copy = tempDir.resolve(classFile);
+		Files.createDirectories(copy.getParent());
+		try (InputStream in = new ClassPathResource(classFile).getInputStream()) {
+			Files.copy(in, copy);
+		}
+
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[] {tempDir.toUri().toURL()}, null)) {
+			PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver(classLoader);
+			long classFingerprint = BeanDefinitionSnapshot.classFingerprint(className, resolver);
+			long packageFingerprint = BeanDefinitionSnapshot.packageFingerprint(SCANNED_PACKAGE, resolver);
+			assertThat(classFingerprint).isNotEqualTo(-1);
+			assertThat(BeanDefinitionSnapshot.classFingerprint(className, resolver)).isEqualTo(classFingerprint);
+
+			// Timestamp changes alone do not matter
+			FileTime lastModified = Files.getLastModifiedTime(copy);
+			Files.setLastModifiedTime(copy, FileTime.fromMillis(lastModified.toMillis() - 60000));
+			assertThat(BeanDefinitionSnapshot.classFingerprint(className, resolver)).isEqualTo(classFingerprint);
+
+			// Same-size edit with a preserved timestamp
+			byte[] content = Files.readAllBytes(copy);
+			content[content.length - 1]++;
+			Files.write(copy, content);
+			Files.setLastModifiedTime(copy, lastModified);
+			assertThat(BeanDefinitionSnapshot.classFingerprint(className, resolver)).isNotEqualTo(classFingerprint);
+			assertThat(BeanDefinitionSnapshot.packageFingerprint(SCANNED_PACKAGE, resolver)).isNotEqualTo(packageFingerprint);
+			assertThat(BeanDefinitionSnapshot.classFingerprint(className + "Missing", resolver)).isEqualTo(-1);
+		}
+	}
+
+
+	private static Resource generate(BeanDefinitionSnapshotGenerator generator) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		generator.generate(out);
+		return new ByteArrayResource(out.toByteArray());
+	}
+
+
+	@Configuration
+	@ComponentScan(basePackageClasses = SimpleComponent.class)
+	@Import(ImportedConfig.class)
+	@PropertySource("classpath:org/springframework/context/annotation/p2.properties")
+	static class SnapshotConfig {
+
+		@Bean
+		public TestBean testBean(@Value("${testbean.name}") String name) {
+			return new TestBean(name);
+		}
+
+		@Bean
+		@Scope(proxyMode = ScopedProxyMode.TARGET_CLASS, scopeName = "prototype")
+		public TestBean scopedTestBean() {
+			return new TestBean("scoped");
+		}
+	}
+
+
+	@Configuration
+	static class ConditionalConfig {
+
+		@Bean
+		@Conditional(AlwaysMatchingCondition.class)
+		public TestBean conditionalBean() {
+			return new TestBean();
+		}
+	}
+
+
+	static class AlwaysMatchingCondition implements Condition {
+
+		@Override
+		public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+			return true;
+		}
+	}
+
+
+	@Configuration
+	static class ImportedConfig implements ImportAware {
+
+		String importingClass;
+
+		@Override
+		public void setImportMetadata(AnnotationMetadata importMetadata) {
+			this.importingClass = importMetadata.getClassName();
+		}
+	}
+
+}
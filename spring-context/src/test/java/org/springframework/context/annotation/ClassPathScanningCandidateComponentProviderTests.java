@@ -18,8 +18,11 @@ package org.springframework.context.annotation;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import example.gh24375.AnnotatedComponent;
 import example.profilescan.DevComponent;
@@ -41,6 +44,7 @@ import example.scannable.sub.BarComponent;
 import org.aspectj.lang.annotation.Aspect;
 import org.junit.jupiter.api.Test;
 
+import org.springframework.beans.factory.BeanDefinitionStoreException;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.testfixture.index.CandidateComponentsTestClassLoader;
 import org.springframework.core.env.ConfigurableEnvironment;
@@ -56,6 +60,7 @@ import org.springframework.stereotype.Repository;
 import org.springframework.stereotype.Service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 
 /**
  * @author Mark Fisher
@@ -141,6 +146,61 @@ public class ClassPathScanningCandidateComponentProviderTests {
 		assertThat(candidates.size()).isEqualTo(0);
 	}
 
+	@Test
+	public void defaultsWithParallelScan() {
+		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(true);
+		provider.setResourceLoader(new DefaultResourceLoader(
+				CandidateComponentsTestClassLoader.disableIndex(getClass().getClassLoader())));
+		List<String> sequential = beanClassNames(provider.findCandidateComponents(TEST_BASE_PACKAGE));
+		ForkJoinPool scanningPool = new ForkJoinPool(4);
+		try {
+			provider.setScanningPool(scanningPool);
+			testDefault(provider);
+			for (int i = 0; i < 10; i++) {
+				assertThat(beanClassNames(provider.findCandidateComponents(TEST_BASE_PACKAGE)))
+						.containsExactlyElementsOf(sequential);
+			}
+		}
+		finally {
+			scanningPool.shutdown();
+		}
+	}
+
+	@Test
+	public void antStylePackageWithParallelScan() {
+		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(true);
+		provider.setResourceLoader(new DefaultResourceLoader(
+				CandidateComponentsTestClassLoader.disableIndex(getClass().getClassLoader())));
+		ForkJoinPool scanningPool = new ForkJoinPool(4);
+		try {
+			provider.setScanningPool(scanningPool);
+			testAntStyle(provider);
+			assertThat(provider.findCandidateComponents("bogus")).isEmpty();
+		}
+		finally {
+			scanningPool.shutdown();
+		}
+	}
+
+	@Test
+	public void failureWithParallelScan() {
+		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(false);
+		provider.addIncludeFilter((metadataReader, metadataReaderFactory) -> {
+			throw new IllegalStateException(metadataReader.getClassMetadata().getClassName());
+		});
+		ForkJoinPool scanningPool = new ForkJoinPool(4);
+		try {
+			provider.setScanningPool(scanningPool);
+			assertThatExceptionOfType(BeanDefinitionStoreException.class).isThrownBy(() ->
+					provider.findCandidateComponents(TEST_BASE_PACKAGE))
+				.withMessageStartingWith("Failed to read candidate component class")
+				.withCauseInstanceOf(IllegalStateException.class);
+		}
+		finally {
+			scanningPool.shutdown();
+		}
+	}
+
 	@Test
 	public void customFiltersFollowedByResetUseIndex() {
 		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(false);
@@ -380,6 +440,24 @@ public class ClassPathScanningCandidateComponentProviderTests {
 		assertThat(containsBeanClass(candidates, ProfileAnnotatedComponent.class)).isTrue();
 	}
 
+	@Test
+	public void testWithActiveProfileAndParallelScan() {
+		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(true);
+		ConfigurableEnvironment env = new StandardEnvironment();
+		env.setActiveProfiles(ProfileAnnotatedComponent.PROFILE_NAME);
+		provider.setEnvironment(env);
+		ForkJoinPool scanningPool = new ForkJoinPool(4);
+		try {
+			provider.setScanningPool(scanningPool);
+			Set<BeanDefinition> candidates = provider.findCandidateComponents(TEST_PROFILE_PACKAGE);
+			assertThat(containsBeanClass(candidates, ProfileAnnotatedComponent.class)).isTrue();
+			assertThat(containsBeanClass(candidates, ProfileMetaAnnotatedComponent.class)).isFalse();
+		}
+		finally {
+			scanningPool.shutdown();
+		}
+	}
+
 	@Test
 	public void testIntegrationWithAnnotationConfigApplicationContext_noProfile() {
 		AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext();
@@ -512,6 +590,10 @@ public class ClassPathScanningCandidateComponentProviderTests {
 		return false;
 	}
 
+	private List<String> beanClassNames(Set<BeanDefinition> candidates) {
+		return candidates.stream().map(BeanDefinition::getBeanClassName).collect(Collectors.toList());
+	}
+
 	private void assertBeanDefinitionType(Set<BeanDefinition> candidates) {
 		candidates.forEach(c ->
 			assertThat(c).isInstanceOf(ScannedGenericBeanDefinition.class)
@@ -16,18 +16,23 @@
 
 package org.springframework.context.annotation;
 
+import java.io.File;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.PostConstruct;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import org.springframework.aop.framework.autoproxy.DefaultAdvisorAutoProxyCreator;
 import org.springframework.aop.interceptor.SimpleTraceInterceptor;
@@ -58,6 +63,7 @@ import org.springframework.beans.testfixture.beans.TestBean;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.componentscan.simple.SimpleComponent;
 import org.springframework.core.ResolvableType;
+import org.springframework.core.SpringProperties;
 import org.springframework.core.annotation.Order;
 import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.core.env.StandardEnvironment;
@@ -1096,9 +1102,64 @@ public class ConfigurationClassPostProcessorTests {
 		assertThat(condition).isTrue();
 	}
 
+	@Test
+	public void testComponentScanWithScanningPool() {
+		AtomicInteger workerThreads = new AtomicInteger();
+		ForkJoinPool scanningPool = new ForkJoinPool(2, pool -> {
+			workerThreads.incrementAndGet();
+			return ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+		}, null, false);
+		try {
+			AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext();
+			ctx.setScanningPool(scanningPool);
+			ctx.register(ScanningConfig.class);
+			ctx.refresh();
+			assertThat(ctx.getBean(SimpleComponent.class)).isNotNull();
+			assertThat(workerThreads.get()).isGreaterThan(0);
+			ctx.close();
+		}
+		finally {
+			scanningPool.shutdown();
+		}
+	}
+
+	@Test
+	public void testMetadataCacheFileWrittenAfterRefresh(@TempDir Path tempDir) {
+		File cacheFile = tempDir.resolve("app.metadata").toFile();
+		SpringProperties.setProperty(ConfigurationClassPostProcessor.METADATA_CACHE_FILE_PROPERTY_NAME, cacheFile.getPath());
+		try {
+			AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext(ScanningConfig.class);
+			assertThat(ctx.getBean(SimpleComponent.class)).isNotNull();
+			assertThat(cacheFile).exists();
+			ctx.close();
+
+			long lastModified = cacheFile.lastModified();
+			ctx = new AnnotationConfigApplicationContext(ScanningConfig.class);
+			assertThat(ctx.getBean(SimpleComponent.class)).isNotNull();
+			// Unchanged metadata -> cache file not rewritten
+			assertThat(cacheFile.lastModified()).isEqualTo(lastModified);
+			ctx.close();
+		}
+		finally {
+			SpringProperties.setProperty(ConfigurationClassPostProcessor.METADATA_CACHE_FILE_PROPERTY_NAME, null);
+		}
+	}
+
+	@Test
+	public void testMetadataCacheNotUsedByDefault() {
+		AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext(ScanningConfig.class);
+		assertThat(ctx.containsBean(ConfigurationClassPostProcessor.METADATA_CACHE_WRITER_BEAN_NAME)).isFalse();
+		ctx.close();
+	}
+
 
 	// -------------------------------------------------------------------------
 
+	@Configuration
+	@ComponentScan(basePackageClasses = SimpleComponent.class)
+	static class ScanningConfig {
+	}
+
 	@Configuration
 	@Order(1)
 	static class SingletonBeanConfig {
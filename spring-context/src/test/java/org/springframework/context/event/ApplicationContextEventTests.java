@@ -16,6 +16,7 @@
 
 package org.springframework.context.event;
 
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -195,6 +196,54 @@ public class ApplicationContextEventTests extends AbstractApplicationEventListen
 		assertThat(listener1.seenEvents.size()).isEqualTo(2);
 	}
 
+	@Test
+	public void listenerRegistrationEvictsMatchingCacheEntriesOnly() {
+		MyOrderedListener3 listener1 = new MyOrderedListener3();
+		MyOrderedListener4 listener2 = new MyOrderedListener4(listener1);
+		MyEvent event1 = new MyEvent(this);
+		MyOtherEvent event2 = new MyOtherEvent(this);
+
+		SimpleApplicationEventMulticaster smc = new SimpleApplicationEventMulticaster();
+		smc.addApplicationListener(listener1);
+		smc.multicastEvent(event1);
+		smc.multicastEvent(event2);
+		assertThat(smc.retrieverCache).hasSize(2);
+		Object otherRetrievers = smc.retrieverCache.get(ResolvableType.forInstance(event2));
+		assertThat(otherRetrievers).isNotNull();
+
+		smc.addApplicationListener(listener2);
+		assertThat(smc.retrieverCache).hasSize(1);
+		assertThat(smc.retrieverCache.get(ResolvableType.forInstance(event2))).isSameAs(otherRetrievers);
+		smc.multicastEvent(event1);
+		assertThat(smc.getApplicationListeners(event1, ResolvableType.forInstance(event1)))
+				.containsExactly(listener1, listener2);
+
+		smc.removeApplicationListener(listener2);
+		assertThat(smc.retrieverCache).hasSize(1);
+		assertThat(smc.getApplicationListeners(event1, ResolvableType.forInstance(event1))).containsExactly(listener1);
+		assertThat(smc.retrieverCache.get(ResolvableType.forInstance(event2))).isSameAs(otherRetrievers);
+		assertThat(smc.getApplicationListeners(event2, ResolvableType.forInstance(event2))).containsExactly(listener1);
+	}
+
+	@Test
+	public void cachedListenersAreReturnedAsUnmodifiableSnapshot() {
+		MyOrderedListener3 listener1 = new MyOrderedListener3();
+		MyEvent event = new MyEvent(this);
+		SimpleApplicationEventMulticaster smc = new SimpleApplicationEventMulticaster();
+		smc.addApplicationListener(listener1);
+
+		Collection<ApplicationListener<?>> listeners = smc.getApplicationListeners(event, ResolvableType.forInstance(event));
+		assertThat(listeners).containsExactly(listener1);
+		assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(listeners::clear);
+		assertThat(smc.getApplicationListeners(event, ResolvableType.forInstance(event))).isSameAs(listeners);
+
+		MyOrderedListener4 listener2 = new MyOrderedListener4(listener1);
+		smc.addApplicationListener(listener2);
+		assertThat(smc.getApplicationListeners(event, ResolvableType.forInstance(event)))
+				.isNotSameAs(listeners).containsExactly(listener1, listener2);
+		assertThat(listeners).containsExactly(listener1);
+	}
+
 	@Test
 	public void orderedListenersWithAnnotation() {
 		MyOrderedListener3 listener1 = new MyOrderedListener3();
@@ -298,8 +347,9 @@ public class ApplicationContextEventTests extends AbstractApplicationEventListen
 		assertThat(listener1.seenEvents.contains(event3)).isTrue();
 		assertThat(listener1.seenEvents.contains(event4)).isTrue();
 
+		// ContextRefreshedEvent entry retained: lazy listener2 registration only evicts MyEvent entry
 		AbstractApplicationEventMulticaster multicaster = context.getBean(AbstractApplicationEventMulticaster.class);
-		assertThat(multicaster.retrieverCache.size()).isEqualTo(2);
+		assertThat(multicaster.retrieverCache.size()).isEqualTo(3);
 
 		context.close();
 	}
@@ -19,6 +19,8 @@ package org.springframework.context.event;
 import java.io.IOException;
 import java.lang.reflect.Method;
 import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
@@ -26,9 +28,15 @@ import org.springframework.aop.framework.ProxyFactory;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.PayloadApplicationEvent;
+import org.springframework.context.expression.AnnotatedElementKey;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.ResolvableTypeProvider;
 import org.springframework.core.annotation.Order;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpression;
+import org.springframework.expression.spel.standard.SpelExpressionCache;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.util.ReflectionUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -324,6 +332,32 @@ public class ApplicationListenerMethodAdapterTests extends AbstractApplicationEv
 		verify(this.context, times(2)).getBean("testBean");
 	}
 
+	@Test
+	public void conditionCompiledInBackgroundInMixedMode() {
+		EventExpressionEvaluator evaluator = new EventExpressionEvaluator(new SpelExpressionParser(
+				new SpelParserConfiguration(SpelCompilerMode.MIXED, getClass().getClassLoader())));
+		List<Runnable> compilationTasks = new ArrayList<>();
+		evaluator.setCompilationExecutor(compilationTasks::add);
+		Method method = ReflectionUtils.findMethod(SampleEvents.class, "handleString", String.class);
+		SpelExpression condition = (SpelExpression) evaluator.parseCondition(
+				"#p0.length() > 2", new AnnotatedElementKey(method, SampleEvents.class));
+		PayloadApplicationEvent<String> event = new PayloadApplicationEvent<>(this, "test");
+		Object[] args = new Object[] {"test"};
+
+		for (int i = 0; i < SpelExpressionCache.DEFAULT_COMPILATION_THRESHOLD; i++) {
+			assertThat(evaluator.condition(condition, event, method, args, null)).isTrue();
+		}
+		assertThat(compilationTasks).isEmpty();
+		assertThat(evaluator.condition(condition, event, method, args, null)).isTrue();
+		assertThat(compilationTasks).hasSize(1);
+		assertThat(condition.isCompiled()).isFalse();
+
+		compilationTasks.get(0).run();
+		assertThat(condition.isCompiled()).isTrue();
+		assertThat(evaluator.condition(condition, event, method, args, null)).isTrue();
+		assertThat(evaluator.condition(condition, event, method, new Object[] {"x"}, null)).isFalse();
+	}
+
 
 	private void supportsEventType(boolean match, Method method, ResolvableType eventType) {
 		ApplicationListenerMethodAdapter adapter = createTestInstance(method);
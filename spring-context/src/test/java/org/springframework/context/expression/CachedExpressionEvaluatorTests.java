@@ -19,11 +19,16 @@ package org.springframework.context.expression;
 import java.lang.reflect.Method;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 
 import org.junit.jupiter.api.Test;
 
 import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionCache;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.util.ReflectionUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -66,10 +71,63 @@ public class CachedExpressionEvaluatorTests {
 		assertThat(expressionEvaluator.testCache.size()).as("Cached expression should be based on type").isEqualTo(2);
 	}
 
+	@Test
+	public void parseExpressionPerElementByDefault() {
+		Method toString = ReflectionUtils.findMethod(getClass(), "toString");
+		Method hashCode = ReflectionUtils.findMethod(getClass(), "hashCode");
+		Expression expression = expressionEvaluator.getTestExpression("true", toString, getClass());
+		assertThat(expressionEvaluator.getTestExpression("true", hashCode, getClass())).isNotSameAs(expression);
+		verify(expressionEvaluator.getParser(), times(2)).parseExpression("true");
+		assertThat(expressionEvaluator.getExpressionCache().size()).isEqualTo(0);
+		assertThat(expressionEvaluator.getExpressionCache().getCompilationExecutor()).isSameAs(ForkJoinPool.commonPool());
+	}
+
+	@Test
+	public void shareExpressionBetweenElementsWithExpressionCache() {
+		TestExpressionEvaluator sharingEvaluator =
+				new TestExpressionEvaluator(new SpelExpressionCache(mockSpelExpressionParser()));
+		Method toString = ReflectionUtils.findMethod(getClass(), "toString");
+		Method hashCode = ReflectionUtils.findMethod(getClass(), "hashCode");
+		Expression expression = sharingEvaluator.getTestExpression("true", toString, getClass());
+		assertThat(sharingEvaluator.getTestExpression("true", hashCode, getClass())).isSameAs(expression);
+		verify(sharingEvaluator.getParser(), times(1)).parseExpression("true");
+		assertThat(sharingEvaluator.testCache.size()).as("Expression should be cached per element").isEqualTo(2);
+		assertThat(sharingEvaluator.getExpressionCache().size()).isEqualTo(1);
+	}
+
+	@Test
+	public void compileSameExpressionForDifferentArgumentTypes() {
+		TestExpressionEvaluator compilingEvaluator = new TestExpressionEvaluator(new SpelExpressionParser(
+				new SpelParserConfiguration(SpelCompilerMode.IMMEDIATE, getClass().getClassLoader())));
+		Method userMethod = ReflectionUtils.findMethod(getClass(), "handleUser", User.class);
+		Method orderMethod = ReflectionUtils.findMethod(getClass(), "handleOrder", Order.class);
+		for (int i = 0; i < 3; i++) {
+			assertThat(evaluateId(compilingEvaluator, userMethod, new User("juergen"))).isEqualTo("juergen");
+			assertThat(evaluateId(compilingEvaluator, orderMethod, new Order(42L))).isEqualTo(42L);
+		}
+	}
+
+	private Object evaluateId(TestExpressionEvaluator evaluator, Method method, Object argument) {
+		StandardEvaluationContext context = new StandardEvaluationContext();
+		context.setVariable("p0", argument);
+		return evaluator.getTestExpression("#p0.id", method, getClass()).getValue(context);
+	}
+
 	private void hasParsedExpression(String expression) {
 		verify(expressionEvaluator.getParser(), times(1)).parseExpression(expression);
 	}
 
+	private static SpelExpressionParser mockSpelExpressionParser() {
+		SpelExpressionParser parser = new SpelExpressionParser();
+		return spy(parser);
+	}
+
+	void handleUser(User user) {
+	}
+
+	void handleOrder(Order order) {
+	}
+
 	private static class TestExpressionEvaluator extends CachedExpressionEvaluator {
 
 		private final Map<ExpressionKey, Expression> testCache = new ConcurrentHashMap<>();
@@ -78,13 +136,44 @@ public class CachedExpressionEvaluatorTests {
 			super(mockSpelExpressionParser());
 		}
 
+		public TestExpressionEvaluator(SpelExpressionParser parser) {
+			super(parser);
+		}
+
+		public TestExpressionEvaluator(SpelExpressionCache expressionCache) {
+			super(expressionCache);
+		}
+
 		public Expression getTestExpression(String expression, Method method, Class<?> type) {
 			return getExpression(this.testCache, new AnnotatedElementKey(method, type), expression);
 		}
+	}
+
+
+	public static class User {
+
+		private final String id;
+
+		public User(String id) {
+			this.id = id;
+		}
+
+		public String getId() {
+			return this.id;
+		}
+	}
+
+
+	public static class Order {
+
+		private final Long id;
+
+		public Order(Long id) {
+			this.id = id;
+		}
 
-		private static SpelExpressionParser mockSpelExpressionParser() {
-			SpelExpressionParser parser = new SpelExpressionParser();
-			return spy(parser);
+		public Long getId() {
+			return this.id;
 		}
 	}
 
@@ -0,0 +1,342 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.MethodMetadata;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for {@link ConfigurationClassesIndex}.
+ *
+ * @author agent
+ * @since 5.2.6
+ */
+public class ConfigurationClassesIndexTests {
+
+	private static final String INDEX_LOCATION = "file:/app/" + CandidateComponentsIndexLoader.CONFIGURATIONS_RESOURCE_LOCATION;
+
+
+	@Test
+	public void getConfigurationClasses() {
+		ConfigurationClassesIndex index = createIndex(createSampleProperties());
+		assertThat(index.getConfigurationClasses()).containsOnly("com.example.AppConfig", "com.example.OtherConfig");
+		assertThat(index.containsConfigurationClass("com.example.AppConfig")).isTrue();
+		assertThat(index.containsConfigurationClass("com.example.Other")).isFalse();
+		assertThat(index.getAnnotationMetadata("com.example.Other")).isNull();
+	}
+
+	@Test
+	public void getAnnotationMetadata() {
+		AnnotationMetadata metadata = createIndex(createSampleProperties()).getAnnotationMetadata("com.example.AppConfig");
+		assertThat(metadata.getClassName()).isEqualTo("com.example.AppConfig");
+		assertThat(metadata.isConcrete()).isTrue();
+		assertThat(metadata.isIndependent()).isTrue();
+		assertThat(metadata.getSuperClassName()).isEqualTo("com.example.BaseConfig");
+		assertThat(metadata.getMemberClassNames()).containsExactly("com.example.AppConfig$Nested");
+		assertThat(metadata.getAnnotationTypes()).containsExactly(
+				Configuration.class.getName(), Import.class.getName());
+		assertThat(metadata.isAnnotated("org.springframework.stereotype.Component")).isTrue();
+		assertThat(metadata.getAnnotationAttributes(Import.class.getName(), true).get("value"))
+				.isEqualTo(new String[] {"com.example.OtherConfig"});
+		assertThat(metadata.getAnnotatedMethods(Bean.class.getName()))
+				.extracting(MethodMetadata::getMethodName).containsExactly("dataSource", "cache");
+	}
+
+	@Test
+	public void getAnnotationMetadataForMethods() {
+		AnnotationMetadata metadata = createIndex(createSampleProperties()).getAnnotationMetadata("com.example.AppConfig");
+		MethodMetadata cache = metadata.getAnnotatedMethods(Conditional.class.getName()).iterator().next();
+		assertThat(cache.getMethodName()).isEqualTo("cache");
+		assertThat(cache.getDeclaringClassName()).isEqualTo("com.example.AppConfig");
+		assertThat(cache.getReturnTypeName()).isEqualTo("java.lang.String[]");
+		assertThat(cache.isStatic()).isTrue();
+		assertThat(cache.isOverridable()).isFalse();
+		assertThat(cache.getAnnotationAttributes(Bean.class.getName()).get("name"))
+				.isEqualTo(new String[] {"a \"quoted\" name"});
+		assertThat(cache.getAnnotationAttributes(Conditional.class.getName(), true).get("value"))
+				.isEqualTo(new String[] {"com.example.CacheCondition"});
+	}
+
+	@Test
+	public void getAnnotationMetadataIgnoresAbsentAnnotationTypes() {
+		Properties properties = new Properties();
+		properties.put("com.example.AppConfig", "class");
+		properties.put("com.example.AppConfig#annotations", "@com.example.Absent(value={@com.example.Other(name=\"x\")}) " +
+				"@org.springframework.context.annotation.Configuration");
+		AnnotationMetadata metadata = createIndex(properties).getAnnotationMetadata("com.example.AppConfig");
+		assertThat(metadata.getAnnotationTypes()).containsExactly(Configuration.class.getName());
+	}
+
+	@Test
+	public void getAnnotationMetadataWithInvalidAttribute() {
+		Properties properties = new Properties();
+		properties.put("com.example.AppConfig", "class");
+		properties.put("com.example.AppConfig#annotations", "@org.springframework.context.annotation.Configuration(absent=true)");
+		ConfigurationClassesIndex index = createIndex(properties);
+		assertThatIllegalStateException().isThrownBy(() -> index.getAnnotationMetadata("com.example.AppConfig"));
+	}
+
+	@Test
+	public void firstIndexWins() {
+		Properties first = new Properties();
+		first.put("com.example.AppConfig", "final class");
+		Properties second = new Properties();
+		second.put("com.example.AppConfig", "class");
+		second.put("com.example.OtherConfig", "class");
+		Map<String, Properties> content = new LinkedHashMap<>();
+		content.put(INDEX_LOCATION, first);
+		content.put("file:/lib/" + CandidateComponentsIndexLoader.CONFIGURATIONS_RESOURCE_LOCATION, second);
+		ConfigurationClassesIndex index = new ConfigurationClassesIndex(null, content);
+		assertThat(index.getAnnotationMetadata("com.example.AppConfig").isFinal()).isTrue();
+		assertThat(index.containsConfigurationClass("com.example.OtherConfig")).isTrue();
+	}
+
+	@Test
+	public void matchesClassFile() throws MalformedURLException {
+		ConfigurationClassesIndex index = createIndex(createSampleProperties());
+		assertThat(index.matchesClassFile("com.example.AppConfig", new URL("file:/app/com/example/AppConfig.class"))).isTrue();
+		assertThat(index.matchesClassFile("com.example.AppConfig", new URL("file:/lib/com/example/AppConfig.class"))).isFalse();
+		assertThat(index.matchesClassFile("com.example.Other", new URL("file:/app/com/example/Other.class"))).isFalse();
+	}
+
+	@Test
+	public void noIndexByDefault() {
+		assertThat(CandidateComponentsIndexLoader.loadConfigurationIndex(null)).isNull();
+	}
+
+	@Test
+	public void absentIndexIsLoadedOncePerClassLoader() {
+		CountingClassLoader classLoader = new CountingClassLoader(getClass().getClassLoader());
+		assertThat(CandidateComponentsIndexLoader.loadConfigurationIndex(classLoader)).isNull();
+		assertThat(CandidateComponentsIndexLoader.loadConfigurationIndex(classLoader)).isNull();
+		assertThat(classLoader.configurationLookups).isEqualTo(1);
+	}
+
+	@Test
+	public void configurationClassesFromIndex() {
+		ConfigurationIndexClassLoader classLoader = new ConfigurationIndexClassLoader(getClass().getClassLoader(),
+				IndexedConfig.class, ImportedConfig.class);
+		AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext();
+		ctx.setClassLoader(classLoader);
+		ctx.registerBeanDefinition("indexedConfig", new RootBeanDefinition(IndexedConfig.class.getName()));
+		ctx.refresh();
+		assertThat(ctx.getBeanNamesForType(String.class)).containsExactly(
+				"importedBean", "thirdBean", "firstBean", "secondBean");
+		assertThat(classLoader.classFileReads).isEmpty();
+		ctx.close();
+	}
+
+	@Test
+	public void staleIndexEntryIsIgnored() {
+		ConfigurationIndexClassLoader classLoader = new ConfigurationIndexClassLoader(getClass().getClassLoader());
+		AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext();
+		ctx.setClassLoader(classLoader);
+		ctx.registerBeanDefinition("staleConfig", new RootBeanDefinition(StaleConfig.class.getName()));
+		ctx.refresh();
+		assertThat(ctx.getBeanNamesForType(String.class)).containsExactly("staleFirstBean", "staleSecondBean");
+		assertThat(classLoader.classFileReads).contains(getClassFile(StaleConfig.class));
+		ctx.close();
+	}
+
+
+	private static ConfigurationClassesIndex createIndex(Properties properties) {
+		return new ConfigurationClassesIndex(ConfigurationClassesIndexTests.class.getClassLoader(),
+				Collections.singletonMap(INDEX_LOCATION, properties));
+	}
+
+	private static Properties createSampleProperties() {
+		Properties properties = new Properties();
+		properties.put("com.example.AppConfig", "class");
+		properties.put("com.example.AppConfig#superClass", "com.example.BaseConfig");
+		properties.put("com.example.AppConfig#memberClasses", "com.example.AppConfig$Nested");
+		properties.put("com.example.AppConfig#annotations", "@org.springframework.context.annotation.Configuration " +
+				"@org.springframework.context.annotation.Import(value={com.example.OtherConfig})");
+		properties.put("com.example.AppConfig#methods", "java.lang.String dataSource @org.springframework.context.annotation.Bean; " +
+				"static java.lang.String[] cache @org.springframework.context.annotation.Bean(name={\"a \\\"quoted\\\" name\"}) " +
+				"@org.springframework.context.annotation.Conditional(value={com.example.CacheCondition})");
+		properties.put("com.example.OtherConfig", "final class");
+		return properties;
+	}
+
+	private static String getClassFile(Class<?> clazz) {
+		return clazz.getName().replace('.', '/') + ".class";
+	}
+
+
+	@Configuration(proxyBeanMethods = false)
+	@Import(ImportedConfig.class)
+	static class IndexedConfig {
+
+		@Bean
+		public String firstBean() {
+			return "first";
+		}
+
+		@Bean
+		public String secondBean() {
+			return "second";
+		}
+
+		@Bean
+		public String thirdBean() {
+			return "third";
+		}
+
+		@Bean
+		@Conditional(NeverCondition.class)
+		public String conditionalBean() {
+			return "conditional";
+		}
+	}
+
+
+	@Configuration(proxyBeanMethods = false)
+	static class ImportedConfig {
+
+		@Bean
+		public String importedBean() {
+			return "imported";
+		}
+	}
+
+
+	@Configuration(proxyBeanMethods = false)
+	static class StaleConfig {
+
+		@Bean
+		public String staleFirstBean() {
+			return "first";
+		}
+
+		@Bean
+		public String staleSecondBean() {
+			return "second";
+		}
+	}
+
+
+	static class NeverCondition implements Condition {
+
+		@Override
+		public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+			return false;
+		}
+	}
+
+
+	private static class CountingClassLoader extends ClassLoader {
+
+		int configurationLookups;
+
+		CountingClassLoader(ClassLoader parent) {
+			super(parent);
+		}
+
+		@Override
+		public Enumeration<URL> getResources(String name) throws IOException {
+			if (CandidateComponentsIndexLoader.CONFIGURATIONS_RESOURCE_LOCATION.equals(name)) {
+				this.configurationLookups++;
+			}
+			return super.getResources(name);
+		}
+	}
+
+
+	/**
+	 * ClassLoader that exposes the test index as if it had been generated in the
+	 * class path root of the given classes, recording all class file reads.
+	 */
+	private static class ConfigurationIndexClassLoader extends ClassLoader {
+
+		private final URL index;
+
+		private final Set<String> indexedClassFiles = new HashSet<>();
+
+		final Set<String> classFileReads = new HashSet<>();
+
+		ConfigurationIndexClassLoader(ClassLoader parent, Class<?>... indexedClasses) {
+			super(parent);
+			try {
+				this.index = new ClassPathResource("configurations/" +
+						CandidateComponentsIndexLoader.CONFIGURATIONS_RESOURCE_LOCATION, getClass()).getURL();
+			}
+			catch (IOException ex) {
+				throw new IllegalStateException(ex);
+			}
+			for (Class<?> indexedClass : indexedClasses) {
+				this.indexedClassFiles.add(getClassFile(indexedClass));
+			}
+		}
+
+		@Override
+		public Enumeration<URL> getResources(String name) throws IOException {
+			if (CandidateComponentsIndexLoader.CONFIGURATIONS_RESOURCE_LOCATION.equals(name)) {
+				return Collections.enumeration(Collections.singletonList(this.index));
+			}
+			return super.getResources(name);
+		}
+
+		@Override
+		public URL getResource(String name) {
+			if (this.indexedClassFiles.contains(name)) {
+				try {
+					return new URL(this.index, "../" + name);
+				}
+				catch (MalformedURLException ex) {
+					throw new IllegalStateException(ex);
+				}
+			}
+			return super.getResource(name);
+		}
+
+		@Override
+		public InputStream getResourceAsStream(String name) {
+			if (name.endsWith(".class")) {
+				this.classFileReads.add(name);
+			}
+			return super.getResourceAsStream(name);
+		}
+	}
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for {@link ResolvableType} lookups and assignability checks,
+ * as performed for generic event types and generic injection points.
+ *
+ * <p>Run with {@code -prof gc} to check the allocation rate of repeated
+ * {@code forClass} lookups and {@code isAssignableFrom} checks.
+ *
+ * @author agent
+ * @since 5.2.6
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ResolvableTypeBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		public Field stringListField;
+
+		public Field charSequenceListField;
+
+		public ResolvableType stringList;
+
+		public ResolvableType charSequenceList;
+
+		public ResolvableType listType;
+
+		@Setup(Level.Trial)
+		public void setup() throws Exception {
+			this.stringListField = BenchmarkState.class.getField("stringListValue");
+			this.charSequenceListField = BenchmarkState.class.getField("charSequenceListValue");
+			this.stringList = ResolvableType.forField(this.stringListField);
+			this.charSequenceList = ResolvableType.forField(this.charSequenceListField);
+			this.listType = ResolvableType.forClassWithGenerics(List.class, CharSequence.class);
+		}
+
+		public List<String> stringListValue;
+
+		public List<CharSequence> charSequenceListValue;
+	}
+
+
+	@Benchmark
+	public ResolvableType forClass() {
+		return ResolvableType.forClass(StringList.class);
+	}
+
+	@Benchmark
+	public boolean isAssignableFromClass(BenchmarkState state) {
+		return state.listType.isAssignableFrom(StringList.class);
+	}
+
+	@Benchmark
+	public boolean isAssignableFromResolvedFields(BenchmarkState state) {
+		return state.charSequenceList.isAssignableFrom(state.stringList);
+	}
+
+	@Benchmark
+	public boolean isAssignableFromFieldLookup(BenchmarkState state) {
+		ResolvableType target = ResolvableType.forField(state.charSequenceListField);
+		return target.isAssignableFrom(ResolvableType.forField(state.stringListField));
+	}
+
+
+	@SuppressWarnings("serial")
+	static class StringList extends ArrayList<CharSequence> {
+	}
+
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Method;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.core.annotation.MergedAnnotations.SearchStrategy;
+
+/**
+ * Benchmark for {@link MergedAnnotations#from} lookups on classes and methods
+ * with meta-annotations, attribute aliases and inherited annotations,
+ * as performed by component scanning and request mapping detection.
+ *
+ * @author agent
+ * @since 5.2.6
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MergedAnnotationsBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"DIRECT", "INHERITED_ANNOTATIONS", "TYPE_HIERARCHY"})
+		public SearchStrategy searchStrategy;
+
+		public Class<?> annotatedClass;
+
+		public Method annotatedMethod;
+
+		public Class<?> plainClass;
+
+		@Setup(Level.Trial)
+		public void setup() throws Exception {
+			this.annotatedClass = AnnotatedController.class;
+			this.annotatedMethod = AnnotatedController.class.getMethod("handle", String.class);
+			this.plainClass = String.class;
+		}
+	}
+
+
+	@Benchmark
+	public boolean isPresentOnClass(BenchmarkState state) {
+		return MergedAnnotations.from(state.annotatedClass, state.searchStrategy).isPresent(Component.class);
+	}
+
+	@Benchmark
+	public boolean isPresentOnPlainClass(BenchmarkState state) {
+		return MergedAnnotations.from(state.plainClass, state.searchStrategy).isPresent(Component.class);
+	}
+
+	@Benchmark
+	public String getAliasedAttributeOnClass(BenchmarkState state) {
+		return MergedAnnotations.from(state.annotatedClass, state.searchStrategy)
+				.get(Component.class).getValue("value", String.class).orElse(null);
+	}
+
+	@Benchmark
+	public Mapping synthesizeOnMethod(BenchmarkState state) {
+		return MergedAnnotations.from(state.annotatedMethod, state.searchStrategy)
+				.get(Mapping.class).synthesize(MergedAnnotation::isPresent).orElse(null);
+	}
+
+	@Benchmark
+	public long streamOnMethod(BenchmarkState state) {
+		return MergedAnnotations.from(state.annotatedMethod, state.searchStrategy).stream().count();
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target(ElementType.TYPE)
+	@Documented
+	@interface Component {
+
+		String value() default "";
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target(ElementType.TYPE)
+	@Component
+	@Inherited
+	@interface Controller {
+
+		@AliasFor(annotation = Component.class)
+		String value() default "";
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ElementType.TYPE, ElementType.METHOD})
+	@interface Mapping {
+
+		@AliasFor("path")
+		String[] value() default {};
+
+		@AliasFor("value")
+		String[] path() default {};
+
+		String[] produces() default {};
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target(ElementType.METHOD)
+	@Mapping(produces = "application/json")
+	@interface GetMapping {
+
+		@AliasFor(annotation = Mapping.class)
+		String[] value() default {};
+	}
+
+
+	@Controller("baseController")
+	@Mapping("/api")
+	static class BaseController {
+
+		public String handle(String id) {
+			return id;
+		}
+	}
+
+
+	static class AnnotatedController extends BaseController implements Handler {
+
+		@Override
+		@GetMapping("/users/{id}")
+		public String handle(String id) {
+			return id;
+		}
+	}
+
+
+	interface Handler {
+
+		@Mapping("/handle")
+		String handle(String id);
+	}
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark for {@link AntPathMatcher}, matching request paths against
+ * the route patterns of a typical REST API the way a handler mapping does.
+ *
+ * @author agent
+ * @since 5.2.6
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AntPathMatcherBenchmark {
+
+	static final List<String> ROUTES = Arrays.asList(
+			"/", "/login", "/logout", "/static/**", "/resources/**/*.css", "/resources/**/*.js",
+			"/api/users", "/api/users/{userId}", "/api/users/{userId}/repos", "/api/users/{userId}/followers",
+			"/api/users/{userId}/orgs", "/api/orgs/{org}", "/api/orgs/{org}/members", "/api/orgs/{org}/teams",
+			"/api/orgs/{org}/teams/{team}/members/{member}", "/api/repos/{owner}/{repo}",
+			"/api/repos/{owner}/{repo}/issues", "/api/repos/{owner}/{repo}/issues/{number}",
+			"/api/repos/{owner}/{repo}/issues/{number}/comments", "/api/repos/{owner}/{repo}/pulls",
+			"/api/repos/{owner}/{repo}/pulls/{number}/files", "/api/repos/{owner}/{repo}/commits/{sha}",
+			"/api/repos/{owner}/{repo}/contents/**", "/api/repos/{owner}/{repo}/releases/tags/{tag}",
+			"/api/search/*", "/api/gists/{gistId:[a-f0-9]+}", "/api/gists/{gistId:[a-f0-9]+}/star",
+			"/admin/**", "/files/{filename}.{extension}", "/docs/{version}/reference/**/*.html");
+
+	static final List<String> REQUESTS = Arrays.asList(
+			"/", "/login", "/static/css/main.css", "/resources/js/vendor/app.js", "/api/users",
+			"/api/users/jhoeller", "/api/users/jhoeller/repos", "/api/orgs/spring-projects/teams",
+			"/api/orgs/spring-projects/teams/core/members/sbrannen", "/api/repos/spring-projects/spring-framework",
+			"/api/repos/spring-projects/spring-framework/issues/24900/comments",
+			"/api/repos/spring-projects/spring-framework/pulls/24901/files",
+			"/api/repos/spring-projects/spring-framework/contents/spring-core/src/main/java",
+			"/api/search/repositories", "/api/gists/aa5a315d61ae9438b18d", "/api/gists/not-a-gist/star",
+			"/admin/users/42/roles", "/files/report.pdf", "/docs/5.2.6/reference/html/core.html",
+			"/unknown/path/that/does/not/match");
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"true", "false"})
+		public boolean cachePatterns;
+
+		public AntPathMatcher pathMatcher;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.pathMatcher = new AntPathMatcher();
+			this.pathMatcher.setCachePatterns(this.cachePatterns);
+		}
+	}
+
+
+	@Benchmark
+	public void matchAllRoutes(BenchmarkState state, Blackhole bh) {
+		for (String request : REQUESTS) {
+			for (String route : ROUTES) {
+				bh.consume(state.pathMatcher.match(route, request));
+			}
+		}
+	}
+
+	@Benchmark
+	public void bestMatchWithUriVariables(BenchmarkState state, Blackhole bh) {
+		for (String request : REQUESTS) {
+			List<String> matches = new ArrayList<>();
+			for (String route : ROUTES) {
+				if (state.pathMatcher.match(route, request)) {
+					matches.add(route);
+				}
+			}
+			if (!matches.isEmpty()) {
+				matches.sort(state.pathMatcher.getPatternComparator(request));
+				bh.consume(state.pathMatcher.extractUriTemplateVariables(matches.get(0), request));
+			}
+		}
+	}
+
+}
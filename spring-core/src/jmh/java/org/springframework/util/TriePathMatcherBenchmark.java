@@ -0,0 +1,86 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import static org.springframework.util.AntPathMatcherBenchmark.REQUESTS;
+import static org.springframework.util.AntPathMatcherBenchmark.ROUTES;
+
+/**
+ * Benchmark for {@link TriePathMatcher}, matching the same request paths
+ * and route patterns as {@link AntPathMatcherBenchmark} for comparison.
+ *
+ * @author agent
+ * @since 5.2.6
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TriePathMatcherBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		public TriePathMatcher pathMatcher;
+
+		public TriePathMatcher.PatternSet patternSet;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.pathMatcher = new TriePathMatcher();
+			this.patternSet = this.pathMatcher.compile(ROUTES);
+		}
+	}
+
+
+	@Benchmark
+	public void matchAllRoutes(BenchmarkState state, Blackhole bh) {
+		for (String request : REQUESTS) {
+			for (String route : ROUTES) {
+				bh.consume(state.pathMatcher.match(route, request));
+			}
+		}
+	}
+
+	@Benchmark
+	public void matchingPatterns(BenchmarkState state, Blackhole bh) {
+		for (String request : REQUESTS) {
+			bh.consume(state.patternSet.getMatchingPatterns(request));
+		}
+	}
+
+	@Benchmark
+	public void bestMatchWithUriVariables(BenchmarkState state, Blackhole bh) {
+		for (String request : REQUESTS) {
+			String bestMatch = state.patternSet.getBestMatchingPattern(request);
+			if (bestMatch != null) {
+				bh.consume(state.pathMatcher.extractUriTemplateVariables(bestMatch, request));
+			}
+		}
+	}
+
+}
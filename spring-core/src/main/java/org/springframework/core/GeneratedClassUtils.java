@@ -0,0 +1,180 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core;
+
+import java.security.ProtectionDomain;
+
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+import org.springframework.cglib.core.CodeGenerationException;
+import org.springframework.cglib.core.ReflectUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Utility methods for generating small accessor classes with ASM which call
+ * a constructor, method or field directly instead of through reflection,
+ * e.g. for AOP joinpoints, SpEL members and bean instantiation.
+ *
+ * <p>Only intended for internal use.
+ *
+ * @author agent
+ * @since 5.2.6
+ */
+public abstract class GeneratedClassUtils {
+
+	private static final String OBJECT_TYPE = Type.getInternalName(Object.class);
+
+
+	/**
+	 * Start a public final class implementing the given interface,
+	 * with a public no-arg constructor.
+	 * @param className the fully qualified name of the class
+	 * @param interfaceType the interface to implement
+	 * @return the {@code ClassWriter} to add methods to
+	 * @see #endClass
+	 */
+	public static ClassWriter beginClass(String className, Class<?> interfaceType) {
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER,
+				className.replace('.', '/'), null, OBJECT_TYPE,
+				new String[] {Type.getInternalName(interfaceType)});
+		MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(Opcodes.ALOAD, 0);
+		mv.visitMethodInsn(Opcodes.INVOKESPECIAL, OBJECT_TYPE, "<init>", "()V", false);
+		mv.visitInsn(Opcodes.RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+		return cw;
+	}
+
+	/**
+	 * Finish the given class.
+	 * @param cw the {@code ClassWriter} obtained from {@link #beginClass}
+	 * @return the bytecode of the class
+	 */
+	public static byte[] endClass(ClassWriter cw) {
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	/**
+	 * Push the elements of an {@code Object[]} local variable onto the stack,
+	 * unboxed or cast to the given parameter types.
+	 * @param mv the method to generate code for
+	 * @param arrayIndex the local variable index of the array
+	 * @param parameterTypes the parameter types to convert the elements to
+	 */
+	public static void loadArguments(MethodVisitor mv, int arrayIndex, Class<?>[] parameterTypes) {
+		for (int i = 0; i < parameterTypes.length; i++) {
+			mv.visitVarInsn(Opcodes.ALOAD, arrayIndex);
+			mv.visitLdcInsn(i);
+			mv.visitInsn(Opcodes.AALOAD);
+			unboxOrCast(mv, parameterTypes[i]);
+		}
+	}
+
+	/**
+	 * Convert the object on top of the stack to the given type:
+	 * unboxing it for a primitive type, casting it otherwise.
+	 * @param mv the method to generate code for
+	 * @param type the type to convert to
+	 */
+	public static void unboxOrCast(MethodVisitor mv, Class<?> type) {
+		if (type.isPrimitive()) {
+			String wrapper = Type.getInternalName(ClassUtils.resolvePrimitiveIfNecessary(type));
+			mv.visitTypeInsn(Opcodes.CHECKCAST, wrapper);
+			mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, wrapper, type.getName() + "Value",
+					"()" + Type.getDescriptor(type), false);
+		}
+		else if (type != Object.class) {
+			mv.visitTypeInsn(Opcodes.CHECKCAST, Type.getInternalName(type));
+		}
+	}
+
+	/**
+	 * Convert the value of the given type on top of the stack to an object:
+	 * boxing it for a primitive type, pushing {@code null} for {@code void}.
+	 * @param mv the method to generate code for
+	 * @param type the type of the value
+	 */
+	public static void box(MethodVisitor mv, Class<?> type) {
+		if (type == void.class) {
+			mv.visitInsn(Opcodes.ACONST_NULL);
+		}
+		else if (type.isPrimitive()) {
+			String wrapper = Type.getInternalName(ClassUtils.resolvePrimitiveIfNecessary(type));
+			mv.visitMethodInsn(Opcodes.INVOKESTATIC, wrapper, "valueOf",
+					"(" + Type.getDescriptor(type) + ")L" + wrapper + ";", false);
+		}
+	}
+
+	/**
+	 * Find a class that has been generated before.
+	 * @param className the fully qualified name of the class
+	 * @param classLoader the class loader to look in
+	 * @return the class, or {@code null} if not defined yet
+	 */
+	@Nullable
+	public static Class<?> findClass(String className, ClassLoader classLoader) {
+		try {
+			return Class.forName(className, false, classLoader);
+		}
+		catch (ClassNotFoundException ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * Define the given class next to the given neighbor class, i.e. in its
+	 * class loader and package, or return the class of that name if it has
+	 * been defined concurrently.
+	 * @param className the fully qualified name of the class
+	 * @param bytes the bytecode of the class
+	 * @param neighbor the class to define the class next to
+	 * @return the defined class
+	 * @throws Exception if the class could not be defined
+	 */
+	public static Class<?> defineClass(String className, byte[] bytes, Class<?> neighbor) throws Exception {
+		ClassLoader classLoader = neighbor.getClassLoader();
+		try {
+			return ReflectUtils.defineClass(className, bytes, classLoader, getProtectionDomain(neighbor), neighbor);
+		}
+		catch (CodeGenerationException | LinkageError ex) {
+			// Possibly defined concurrently
+			Class<?> existing = findClass(className, classLoader);
+			if (existing == null) {
+				throw ex;
+			}
+			return existing;
+		}
+	}
+
+	@Nullable
+	private static ProtectionDomain getProtectionDomain(Class<?> neighbor) {
+		try {
+			return neighbor.getProtectionDomain();
+		}
+		catch (SecurityException ex) {
+			return null;
+		}
+	}
+
+}
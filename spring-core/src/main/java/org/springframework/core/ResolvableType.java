@@ -31,6 +31,7 @@ import java.util.Collection;
 import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.core.SerializableTypeWrapper.FieldTypeProvider;
 import org.springframework.core.SerializableTypeWrapper.MethodParameterTypeProvider;
@@ -67,6 +68,12 @@ import org.springframework.util.StringUtils;
  * }
  * </pre>
  *
+ * <p>As of 5.2.6, {@link #forClass(Class)} returns shared instances per class,
+ * and the results of {@link #isAssignableFrom(ResolvableType)} checks between
+ * such shared class types and cached generic types (as obtained from
+ * {@link #forField}, {@link #forMethodParameter} and the like) are kept for
+ * repeated checks against structurally equal types.
+ *
  * @author Phillip Webb
  * @author Juergen Hoeller
  * @author Stephane Nicoll
@@ -94,6 +101,15 @@ public class ResolvableType implements Serializable {
 	private static final ConcurrentReferenceHashMap<ResolvableType, ResolvableType> cache =
 			new ConcurrentReferenceHashMap<>(256);
 
+	private static final ConcurrentReferenceHashMap<Class<?>, ResolvableType> classCache =
+			new ConcurrentReferenceHashMap<>(256);
+
+	/**
+	 * Maximum number of {@link #isAssignableFrom(ResolvableType)} results
+	 * to keep per cached type.
+	 */
+	private static final int ASSIGNABLE_FROM_CACHE_LIMIT = 32;
+
 
 	/**
 	 * The underlying Java type being managed.
@@ -125,13 +141,20 @@ public class ResolvableType implements Serializable {
 	private Class<?> resolved;
 
 	@Nullable
-	private volatile ResolvableType superType;
+	private transient volatile ResolvableType superType;
+
+	@Nullable
+	private transient volatile ResolvableType[] interfaces;
 
 	@Nullable
-	private volatile ResolvableType[] interfaces;
+	private transient volatile ResolvableType[] generics;
 
+	/**
+	 * {@code isAssignableFrom} results against other cached types, shared
+	 * between structurally equal instances; {@code null} if not cached.
+	 */
 	@Nullable
-	private volatile ResolvableType[] generics;
+	private transient Map<ResolvableType, Boolean> assignableFromCache;
 
 
 	/**
@@ -163,6 +186,7 @@ public class ResolvableType implements Serializable {
 		this.componentType = null;
 		this.hash = hash;
 		this.resolved = resolveClass();
+		this.assignableFromCache = new ConcurrentHashMap<>(4);
 	}
 
 	/**
@@ -260,7 +284,7 @@ public class ResolvableType implements Serializable {
 	 * @see #isAssignableFrom(ResolvableType)
 	 */
 	public boolean isAssignableFrom(Class<?> other) {
-		return isAssignableFrom(forClass(other), null);
+		return isAssignableFrom(forClass(other));
 	}
 
 	/**
@@ -275,7 +299,19 @@ public class ResolvableType implements Serializable {
 	 * {@code ResolvableType}; {@code false} otherwise
 	 */
 	public boolean isAssignableFrom(ResolvableType other) {
-		return isAssignableFrom(other, null);
+		Assert.notNull(other, "ResolvableType must not be null");
+		Map<ResolvableType, Boolean> assignableFromCache = this.assignableFromCache;
+		if (assignableFromCache == null || other.assignableFromCache == null) {
+			return isAssignableFrom(other, null);
+		}
+		Boolean assignable = assignableFromCache.get(other);
+		if (assignable == null) {
+			assignable = isAssignableFrom(other, null);
+			if (assignableFromCache.size() < ASSIGNABLE_FROM_CACHE_LIMIT) {
+				assignableFromCache.put(other, assignable);
+			}
+		}
+		return assignable;
 	}
 
 	private boolean isAssignableFrom(ResolvableType other, @Nullable Map<Type, Type> matchedBefore) {
@@ -992,7 +1028,14 @@ public class ResolvableType implements Serializable {
 	 * @see #forClassWithGenerics(Class, Class...)
 	 */
 	public static ResolvableType forClass(@Nullable Class<?> clazz) {
-		return new ResolvableType(clazz);
+		Class<?> key = (clazz != null ? clazz : Object.class);
+		ResolvableType resolvableType = classCache.get(key);
+		if (resolvableType == null) {
+			resolvableType = new ResolvableType(key);
+			resolvableType.assignableFromCache = new ConcurrentHashMap<>(4);
+			classCache.put(key, resolvableType);
+		}
+		return resolvableType;
 	}
 
 	/**
@@ -1426,6 +1469,7 @@ public class ResolvableType implements Serializable {
 			cache.put(cachedType, cachedType);
 		}
 		resultType.resolved = cachedType.resolved;
+		resultType.assignableFromCache = cachedType.assignableFromCache;
 		return resultType;
 	}
 
@@ -1435,6 +1479,7 @@ public class ResolvableType implements Serializable {
 	 */
 	public static void clearCache() {
 		cache.clear();
+		classCache.clear();
 		SerializableTypeWrapper.cache.clear();
 	}
 
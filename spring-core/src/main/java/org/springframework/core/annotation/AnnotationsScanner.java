@@ -22,7 +22,6 @@ import java.lang.reflect.Member;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.Arrays;
-import java.util.Map;
 import java.util.function.BiPredicate;
 
 import org.springframework.core.BridgeMethodResolver;
@@ -30,7 +29,9 @@ import org.springframework.core.Ordered;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.annotation.MergedAnnotations.SearchStrategy;
 import org.springframework.lang.Nullable;
-import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ConcurrentLruCache;
+import org.springframework.util.ConcurrentLruCacheRegistry;
+import org.springframework.util.ConcurrentReferenceHashMap.ReferenceType;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.ReflectionUtils;
 
@@ -50,11 +51,11 @@ abstract class AnnotationsScanner {
 	private static final Method[] NO_METHODS = {};
 
 
-	private static final Map<AnnotatedElement, Annotation[]> declaredAnnotationCache =
-			new ConcurrentReferenceHashMap<>(256);
+	private static final ConcurrentLruCache<AnnotatedElement, Annotation[]> declaredAnnotationCache =
+			ConcurrentLruCacheRegistry.register("declaredAnnotations", createCache(32768));
 
-	private static final Map<Class<?>, Method[]> baseTypeMethodsCache =
-			new ConcurrentReferenceHashMap<>(256);
+	private static final ConcurrentLruCache<Class<?>, Method[]> baseTypeMethodsCache =
+			ConcurrentLruCacheRegistry.register("baseTypeMethods", createCache(8192));
 
 
 	private AnnotationsScanner() {
@@ -370,7 +371,7 @@ abstract class AnnotationsScanner {
 			return NO_METHODS;
 		}
 
-		Method[] methods = baseTypeMethodsCache.get(baseType);
+		Method[] methods = baseTypeMethodsCache.getIfPresent(baseType);
 		if (methods == null) {
 			boolean isInterface = baseType.isInterface();
 			methods = isInterface ? baseType.getMethods() : ReflectionUtils.getDeclaredMethods(baseType);
@@ -386,7 +387,7 @@ abstract class AnnotationsScanner {
 			if (cleared == methods.length) {
 				methods = NO_METHODS;
 			}
-			baseTypeMethodsCache.put(baseType, methods);
+			baseTypeMethodsCache.putIfAbsent(baseType, methods);
 		}
 		return methods;
 	}
@@ -491,7 +492,7 @@ abstract class AnnotationsScanner {
 
 	static Annotation[] getDeclaredAnnotations(AnnotatedElement source, boolean defensive) {
 		boolean cached = false;
-		Annotation[] annotations = declaredAnnotationCache.get(source);
+		Annotation[] annotations = declaredAnnotationCache.getIfPresent(source);
 		if (annotations != null) {
 			cached = true;
 		}
@@ -511,7 +512,7 @@ abstract class AnnotationsScanner {
 				}
 				annotations = (allIgnored ? NO_ANNOTATIONS : annotations);
 				if (source instanceof Class || source instanceof Member) {
-					declaredAnnotationCache.put(source, annotations);
+					declaredAnnotationCache.putIfAbsent(source, annotations);
 					cached = true;
 				}
 			}
@@ -585,4 +586,15 @@ abstract class AnnotationsScanner {
 		baseTypeMethodsCache.clear();
 	}
 
+	/**
+	 * Create a softly referenced cache for arrays, which does not prevent class
+	 * loaders from being garbage collected. The array elements are typically shared
+	 * with other caches or the JDK's reflection data, so only arrays are weighed.
+	 */
+	private static <K, T> ConcurrentLruCache<K, T[]> createCache(int sizeLimit) {
+		ConcurrentLruCache<K, T[]> cache = new ConcurrentLruCache<>(sizeLimit, null, ReferenceType.SOFT);
+		cache.setWeigher((key, array) -> 16 + array.length * 4);
+		return cache;
+	}
+
 }
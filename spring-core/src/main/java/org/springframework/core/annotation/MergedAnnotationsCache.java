@@ -0,0 +1,149 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.annotation;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Member;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.core.annotation.MergedAnnotations.SearchStrategy;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ConcurrentLruCache;
+import org.springframework.util.ConcurrentLruCacheRegistry;
+import org.springframework.util.ConcurrentReferenceHashMap.ReferenceType;
+
+/**
+ * Cache for the {@link MergedAnnotations} of classes, methods, fields and
+ * constructors, as returned by {@link MergedAnnotations#from(AnnotatedElement,
+ * SearchStrategy, RepeatableContainers)} for the
+ * {@linkplain RepeatableContainers#standardRepeatables() standard} or
+ * {@linkplain RepeatableContainers#none() no} repeatable containers and the
+ * {@linkplain AnnotationFilter#PLAIN plain} annotation filter.
+ *
+ * <p>The cached instances keep the results of their lookups, so repeated
+ * {@code get}, {@code isPresent} and {@code stream} calls for the same element
+ * and search strategy do not walk the type hierarchy again. This is mainly
+ * useful for the repeated lookups by {@link AnnotatedElementUtils} and
+ * {@link AnnotationUtils} on the same handler methods and classes.
+ *
+ * <p>The cache is bounded by {@link #CACHE_LIMIT}, evicting the least recently
+ * used elements once that number of elements has been cached. It is registered
+ * with the {@link ConcurrentLruCacheRegistry} under the name {@value #CACHE_NAME},
+ * so its limit can be tuned at runtime. Entries are softly referenced, so the
+ * cache does not keep the class loaders of cached elements from being garbage
+ * collected. {@link AnnotationUtils#clearCache()} clears this cache along with
+ * the other annotation caches.
+ *
+ * @author agent
+ * @since 5.2.6
+ * @see AnnotationUtils#clearCache()
+ */
+public abstract class MergedAnnotationsCache {
+
+	/**
+	 * The name that the cache is registered under: {@value}.
+	 * @see ConcurrentLruCacheRegistry#setSizeLimit
+	 */
+	public static final String CACHE_NAME = "mergedAnnotations";
+
+	/**
+	 * The default maximum number of annotated elements held in the cache: {@value}.
+	 */
+	public static final int CACHE_LIMIT = 8192;
+
+	private static final int SEARCH_STRATEGY_COUNT = SearchStrategy.values().length;
+
+
+	private static final ConcurrentLruCache<AnnotatedElement, AtomicReferenceArray<MergedAnnotations>> cache =
+			ConcurrentLruCacheRegistry.register(CACHE_NAME, new ConcurrentLruCache<>(CACHE_LIMIT,
+					element -> new AtomicReferenceArray<>(SEARCH_STRATEGY_COUNT * 2), ReferenceType.SOFT));
+
+	private static final LongAdder hitCount = new LongAdder();
+
+	private static final LongAdder missCount = new LongAdder();
+
+
+	/**
+	 * Return the number of lookups that have been served from the cache.
+	 */
+	public static long getHitCount() {
+		return hitCount.sum();
+	}
+
+	/**
+	 * Return the number of lookups that have resolved a new cache entry.
+	 */
+	public static long getMissCount() {
+		return missCount.sum();
+	}
+
+	/**
+	 * Return the number of annotated elements currently held in the cache.
+	 */
+	public static int getSize() {
+		return cache.size();
+	}
+
+	/**
+	 * Clear the cache, along with the hit and miss counts.
+	 * @see AnnotationUtils#clearCache()
+	 */
+	public static void clear() {
+		cache.clear();
+		hitCount.reset();
+		missCount.reset();
+	}
+
+
+	/**
+	 * Return the cached {@link MergedAnnotations} for the given element,
+	 * resolving them on a cache miss.
+	 * @return the merged annotations, or {@code null} if the given element
+	 * and repeatable containers are not eligible for caching
+	 */
+	@Nullable
+	static MergedAnnotations get(AnnotatedElement element, SearchStrategy searchStrategy,
+			RepeatableContainers repeatableContainers) {
+
+		if (!(element instanceof Class || element instanceof Member)) {
+			return null;
+		}
+		int index;
+		if (repeatableContainers == RepeatableContainers.standardRepeatables()) {
+			index = searchStrategy.ordinal();
+		}
+		else if (repeatableContainers == RepeatableContainers.none()) {
+			index = SEARCH_STRATEGY_COUNT + searchStrategy.ordinal();
+		}
+		else {
+			return null;
+		}
+
+		AtomicReferenceArray<MergedAnnotations> entries = cache.get(element);
+		MergedAnnotations cached = entries.get(index);
+		if (cached != null) {
+			hitCount.increment();
+			return cached;
+		}
+		missCount.increment();
+		MergedAnnotations annotations = TypeMappedAnnotations.resolve(
+				element, searchStrategy, repeatableContainers, AnnotationFilter.PLAIN);
+		return (entries.compareAndSet(index, null, annotations) ? annotations : entries.get(index));
+	}
+
+}
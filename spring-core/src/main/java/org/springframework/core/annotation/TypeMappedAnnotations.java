@@ -22,8 +22,10 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Spliterator;
 import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
@@ -63,12 +65,16 @@ final class TypeMappedAnnotations implements MergedAnnotations {
 
 	private final AnnotationFilter annotationFilter;
 
+	@Nullable
+	private final ResolvedLookups resolvedLookups;
+
 	@Nullable
 	private volatile List<Aggregate> aggregates;
 
 
 	private TypeMappedAnnotations(AnnotatedElement element, SearchStrategy searchStrategy,
-			RepeatableContainers repeatableContainers, AnnotationFilter annotationFilter) {
+			RepeatableContainers repeatableContainers, AnnotationFilter annotationFilter,
+			boolean keepResolvedLookups) {
 
 		this.source = element;
 		this.element = element;
@@ -76,6 +82,7 @@ final class TypeMappedAnnotations implements MergedAnnotations {
 		this.annotations = null;
 		this.repeatableContainers = repeatableContainers;
 		this.annotationFilter = annotationFilter;
+		this.resolvedLookups = (keepResolvedLookups ? new ResolvedLookups() : null);
 	}
 
 	private TypeMappedAnnotations(@Nullable Object source, Annotation[] annotations,
@@ -87,6 +94,7 @@ final class TypeMappedAnnotations implements MergedAnnotations {
 		this.annotations = annotations;
 		this.repeatableContainers = repeatableContainers;
 		this.annotationFilter = annotationFilter;
+		this.resolvedLookups = null;
 	}
 
 
@@ -95,8 +103,7 @@ final class TypeMappedAnnotations implements MergedAnnotations {
 		if (this.annotationFilter.matches(annotationType)) {
 			return false;
 		}
-		return Boolean.TRUE.equals(scan(annotationType,
-				IsPresent.get(this.repeatableContainers, this.annotationFilter, false)));
+		return isPresent(annotationType, false);
 	}
 
 	@Override
@@ -104,8 +111,7 @@ final class TypeMappedAnnotations implements MergedAnnotations {
 		if (this.annotationFilter.matches(annotationType)) {
 			return false;
 		}
-		return Boolean.TRUE.equals(scan(annotationType,
-				IsPresent.get(this.repeatableContainers, this.annotationFilter, false)));
+		return isPresent(annotationType, false);
 	}
 
 	@Override
@@ -113,8 +119,7 @@ final class TypeMappedAnnotations implements MergedAnnotations {
 		if (this.annotationFilter.matches(annotationType)) {
 			return false;
 		}
-		return Boolean.TRUE.equals(scan(annotationType,
-				IsPresent.get(this.repeatableContainers, this.annotationFilter, true)));
+		return isPresent(annotationType, true);
 	}
 
 	@Override
@@ -122,8 +127,23 @@ final class TypeMappedAnnotations implements MergedAnnotations {
 		if (this.annotationFilter.matches(annotationType)) {
 			return false;
 		}
-		return Boolean.TRUE.equals(scan(annotationType,
-				IsPresent.get(this.repeatableContainers, this.annotationFilter, true)));
+		return isPresent(annotationType, true);
+	}
+
+	private boolean isPresent(Object annotationType, boolean directOnly) {
+		ResolvedLookups resolvedLookups = this.resolvedLookups;
+		if (resolvedLookups == null) {
+			return Boolean.TRUE.equals(scan(annotationType,
+					IsPresent.get(this.repeatableContainers, this.annotationFilter, directOnly)));
+		}
+		Map<Object, Boolean> presence = (directOnly ? resolvedLookups.directlyPresent : resolvedLookups.present);
+		Boolean present = presence.get(annotationType);
+		if (present == null) {
+			present = Boolean.TRUE.equals(scan(annotationType,
+					IsPresent.get(this.repeatableContainers, this.annotationFilter, directOnly)));
+			ResolvedLookups.keep(presence, annotationType, present);
+		}
+		return present;
 	}
 
 	@Override
@@ -146,6 +166,9 @@ final class TypeMappedAnnotations implements MergedAnnotations {
 		if (this.annotationFilter.matches(annotationType)) {
 			return MergedAnnotation.missing();
 		}
+		if (predicate == null && selector == null) {
+			return getResolved(annotationType);
+		}
 		MergedAnnotation<A> result = scan(annotationType,
 				new MergedAnnotationFinder<>(annotationType, predicate, selector));
 		return (result != null ? result : MergedAnnotation.missing());
@@ -171,11 +194,34 @@ final class TypeMappedAnnotations implements MergedAnnotations {
 		if (this.annotationFilter.matches(annotationType)) {
 			return MergedAnnotation.missing();
 		}
+		if (predicate == null && selector == null) {
+			return getResolved(annotationType);
+		}
 		MergedAnnotation<A> result = scan(annotationType,
 				new MergedAnnotationFinder<>(annotationType, predicate, selector));
 		return (result != null ? result : MergedAnnotation.missing());
 	}
 
+	/**
+	 * Find the nearest annotation of the given type, keeping the result
+	 * if this instance has been resolved for caching.
+	 */
+	@SuppressWarnings("unchecked")
+	private <A extends Annotation> MergedAnnotation<A> getResolved(Object annotationType) {
+		ResolvedLookups resolvedLookups = this.resolvedLookups;
+		MergedAnnotation<?> result = (resolvedLookups != null ? resolvedLookups.nearest.get(annotationType) : null);
+		if (result == null) {
+			result = scan(annotationType, new MergedAnnotationFinder<>(annotationType, null, null));
+			if (result == null) {
+				result = MergedAnnotation.missing();
+			}
+			if (resolvedLookups != null) {
+				ResolvedLookups.keep(resolvedLookups.nearest, annotationType, result);
+			}
+		}
+		return (MergedAnnotation<A>) result;
+	}
+
 	@Override
 	public <A extends Annotation> Stream<MergedAnnotation<A>> stream(Class<A> annotationType) {
 		if (this.annotationFilter == AnnotationFilter.ALL) {
@@ -248,10 +294,29 @@ final class TypeMappedAnnotations implements MergedAnnotations {
 	static MergedAnnotations from(AnnotatedElement element, SearchStrategy searchStrategy,
 			RepeatableContainers repeatableContainers, AnnotationFilter annotationFilter) {
 
+		if (annotationFilter == AnnotationFilter.PLAIN) {
+			MergedAnnotations cached = MergedAnnotationsCache.get(element, searchStrategy, repeatableContainers);
+			if (cached != null) {
+				return cached;
+			}
+		}
 		if (AnnotationsScanner.isKnownEmpty(element, searchStrategy)) {
 			return NONE;
 		}
-		return new TypeMappedAnnotations(element, searchStrategy, repeatableContainers, annotationFilter);
+		return new TypeMappedAnnotations(element, searchStrategy, repeatableContainers, annotationFilter, false);
+	}
+
+	/**
+	 * Create a {@link MergedAnnotations} instance for the {@link MergedAnnotationsCache},
+	 * keeping the results of its {@code get} and {@code isPresent} lookups.
+	 */
+	static MergedAnnotations resolve(AnnotatedElement element, SearchStrategy searchStrategy,
+			RepeatableContainers repeatableContainers, AnnotationFilter annotationFilter) {
+
+		if (AnnotationsScanner.isKnownEmpty(element, searchStrategy)) {
+			return NONE;
+		}
+		return new TypeMappedAnnotations(element, searchStrategy, repeatableContainers, annotationFilter, true);
 	}
 
 	static MergedAnnotations from(@Nullable Object source, Annotation[] annotations,
@@ -272,6 +337,30 @@ final class TypeMappedAnnotations implements MergedAnnotations {
 	}
 
 
+	/**
+	 * Results of the lookups on a cached {@link TypeMappedAnnotations} instance,
+	 * keyed by annotation type or annotation type name. Each kind of lookup keeps
+	 * at most {@value #LOOKUP_LIMIT} results; any further annotation types are
+	 * looked up by scanning the element again.
+	 */
+	private static final class ResolvedLookups {
+
+		static final int LOOKUP_LIMIT = 16;
+
+		final Map<Object, MergedAnnotation<?>> nearest = new ConcurrentHashMap<>(8);
+
+		final Map<Object, Boolean> present = new ConcurrentHashMap<>(8);
+
+		final Map<Object, Boolean> directlyPresent = new ConcurrentHashMap<>(8);
+
+		static <V> void keep(Map<Object, V> lookups, Object annotationType, V result) {
+			if (lookups.size() < LOOKUP_LIMIT) {
+				lookups.put(annotationType, result);
+			}
+		}
+	}
+
+
 	/**
 	 * {@link AnnotationsProcessor} used to detect if an annotation is directly
 	 * present or meta-present.
@@ -17,6 +17,7 @@
 package org.springframework.core.convert.support;
 
 import java.lang.reflect.Array;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
@@ -45,7 +46,11 @@ import org.springframework.core.convert.converter.GenericConverter.ConvertiblePa
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentLruCache;
+import org.springframework.util.ConcurrentLruCacheRegistry;
 import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ConcurrentReferenceHashMap.ReferenceType;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 
 /**
@@ -53,6 +58,12 @@ import org.springframework.util.StringUtils;
  * Indirectly implements {@link ConverterRegistry} as registration API through the
  * {@link ConfigurableConversionService} interface.
  *
+ * <p>As of 5.2.6, converters for type pairs without generics and annotations
+ * are cached per source and target class, with the corresponding
+ * type descriptors kept along. Conversions via {@link #convert(Object, Class)}
+ * and conversions between such plain type descriptors therefore do not allocate
+ * a cache key or type descriptors once the converter has been resolved.
+ *
  * @author Keith Donald
  * @author Juergen Hoeller
  * @author Chris Beams
@@ -73,10 +84,24 @@ public class GenericConversionService implements ConfigurableConversionService {
 	 */
 	private static final GenericConverter NO_MATCH = new NoOpConverter("NO_MATCH");
 
+	/**
+	 * The default maximum number of source and target type pairs in the
+	 * converter cache of each instance, tunable through the
+	 * {@link ConcurrentLruCacheRegistry} under the name "converters".
+	 */
+	private static final int CONVERTER_CACHE_LIMIT = 1024;
+
 
 	private final Converters converters = new Converters();
 
-	private final Map<ConverterCacheKey, GenericConverter> converterCache = new ConcurrentReferenceHashMap<>(64);
+	private final ConcurrentLruCache<ConverterCacheKey, GenericConverter> converterCache =
+			ConcurrentLruCacheRegistry.register("converters",
+					new ConcurrentLruCache<>(CONVERTER_CACHE_LIMIT, null, ReferenceType.SOFT));
+
+	private final Map<Class<?>, Map<Class<?>, ClassPairConverter>> classPairConverterCache =
+			new ConcurrentReferenceHashMap<>(64);
+
+	private final boolean classPairFastPath = isDefaultConverterLookup(getClass());
 
 
 	// ConverterRegistry implementation
@@ -132,6 +157,9 @@ public class GenericConversionService implements ConfigurableConversionService {
 	@Override
 	public boolean canConvert(@Nullable Class<?> sourceType, Class<?> targetType) {
 		Assert.notNull(targetType, "Target type to convert to cannot be null");
+		if (sourceType != null && this.classPairFastPath) {
+			return (getClassPairConverter(sourceType, targetType).converter != NO_MATCH);
+		}
 		return canConvert((sourceType != null ? TypeDescriptor.valueOf(sourceType) : null),
 				TypeDescriptor.valueOf(targetType));
 	}
@@ -171,6 +199,17 @@ public class GenericConversionService implements ConfigurableConversionService {
 	@Nullable
 	public <T> T convert(@Nullable Object source, Class<T> targetType) {
 		Assert.notNull(targetType, "Target type to convert to cannot be null");
+		if (source != null && this.classPairFastPath) {
+			ClassPairConverter classPairConverter = getClassPairConverter(source.getClass(), targetType);
+			if (classPairConverter.converter == NO_OP_CONVERTER) {
+				return (T) source;
+			}
+			if (classPairConverter.converter != NO_MATCH) {
+				Object result = ConversionUtils.invokeConverter(classPairConverter.converter, source,
+						classPairConverter.sourceType, classPairConverter.targetType);
+				return (T) handleResult(classPairConverter.sourceType, classPairConverter.targetType, result);
+			}
+		}
 		return (T) convert(source, TypeDescriptor.forObject(source), TypeDescriptor.valueOf(targetType));
 	}
 
@@ -243,6 +282,8 @@ public class GenericConversionService implements ConfigurableConversionService {
 	 * First queries this ConversionService's converter cache.
 	 * On a cache miss, then performs an exhaustive search for a matching converter.
 	 * If no converter matches, returns the default converter.
+	 * <p>Note that {@link #convert(Object, Class)} and {@link #canConvert(Class, Class)}
+	 * only go through this method if it is overridden in a subclass.
 	 * @param sourceType the source type to convert from
 	 * @param targetType the target type to convert to
 	 * @return the generic converter that will perform the conversion,
@@ -251,24 +292,20 @@ public class GenericConversionService implements ConfigurableConversionService {
 	 */
 	@Nullable
 	protected GenericConverter getConverter(TypeDescriptor sourceType, TypeDescriptor targetType) {
-		ConverterCacheKey key = new ConverterCacheKey(sourceType, targetType);
-		GenericConverter converter = this.converterCache.get(key);
-		if (converter != null) {
+		if (isPlainType(sourceType) && isPlainType(targetType)) {
+			GenericConverter converter = getClassPairConverter(sourceType.getType(), targetType.getType()).converter;
 			return (converter != NO_MATCH ? converter : null);
 		}
 
-		converter = this.converters.find(sourceType, targetType);
-		if (converter == null) {
-			converter = getDefaultConverter(sourceType, targetType);
-		}
-
+		ConverterCacheKey key = new ConverterCacheKey(sourceType, targetType);
+		GenericConverter converter = this.converterCache.getIfPresent(key);
 		if (converter != null) {
-			this.converterCache.put(key, converter);
-			return converter;
+			return (converter != NO_MATCH ? converter : null);
 		}
 
-		this.converterCache.put(key, NO_MATCH);
-		return null;
+		converter = findConverter(sourceType, targetType);
+		this.converterCache.putIfAbsent(key, converter);
+		return (converter != NO_MATCH ? converter : null);
 	}
 
 	/**
@@ -302,8 +339,81 @@ public class GenericConversionService implements ConfigurableConversionService {
 		return generics;
 	}
 
+	/**
+	 * Perform an exhaustive search for a converter for the given type pair,
+	 * falling back to the default converter.
+	 * @return the converter, or {@code NO_MATCH} if none was found
+	 */
+	private GenericConverter findConverter(TypeDescriptor sourceType, TypeDescriptor targetType) {
+		GenericConverter converter = this.converters.find(sourceType, targetType);
+		if (converter == null) {
+			converter = getDefaultConverter(sourceType, targetType);
+		}
+		return (converter != null ? converter : NO_MATCH);
+	}
+
+	/**
+	 * Return the cached converter for the given source and target class,
+	 * resolving it against the type descriptors for the plain classes on a cache miss.
+	 * <p>Two-level lookup by source and target class, avoiding the allocation of
+	 * a cache key on the hot path.
+	 */
+	private ClassPairConverter getClassPairConverter(Class<?> sourceType, Class<?> targetType) {
+		Map<Class<?>, ClassPairConverter> convertersForSource = this.classPairConverterCache.get(sourceType);
+		ClassPairConverter classPairConverter =
+				(convertersForSource != null ? convertersForSource.get(targetType) : null);
+		if (classPairConverter == null) {
+			TypeDescriptor sourceDescriptor = TypeDescriptor.valueOf(sourceType);
+			TypeDescriptor targetDescriptor = TypeDescriptor.valueOf(targetType);
+			classPairConverter = new ClassPairConverter(
+					findConverter(sourceDescriptor, targetDescriptor), sourceDescriptor, targetDescriptor);
+			if (convertersForSource == null) {
+				convertersForSource = this.classPairConverterCache.computeIfAbsent(
+						sourceType, key -> new ConcurrentReferenceHashMap<>(16));
+			}
+			convertersForSource.put(targetType, classPairConverter);
+		}
+		return classPairConverter;
+	}
+
 	private void invalidateCache() {
 		this.converterCache.clear();
+		this.classPairConverterCache.clear();
+	}
+
+	/**
+	 * Determine whether the given type descriptor is equivalent to the type
+	 * descriptor for its plain class, i.e. has no annotations and no generics
+	 * or element types that could affect converter matching.
+	 */
+	private static boolean isPlainType(TypeDescriptor typeDescriptor) {
+		return (typeDescriptor.getResolvableType().getType() instanceof Class &&
+				typeDescriptor.getAnnotations().length == 0 && !typeDescriptor.isArray() &&
+				!typeDescriptor.isCollection() && !typeDescriptor.isMap());
+	}
+
+	/**
+	 * Determine whether the given conversion service class uses the default
+	 * converter lookup and conversion, i.e. does not override {@link #getConverter},
+	 * {@link #canConvert(TypeDescriptor, TypeDescriptor)} or
+	 * {@link #convert(Object, TypeDescriptor, TypeDescriptor)} which the
+	 * class-based {@code canConvert} and {@code convert} variants would otherwise
+	 * delegate to.
+	 */
+	private static boolean isDefaultConverterLookup(Class<?> conversionServiceClass) {
+		return (isDeclaredByGenericConversionService(conversionServiceClass,
+						"getConverter", TypeDescriptor.class, TypeDescriptor.class) &&
+				isDeclaredByGenericConversionService(conversionServiceClass,
+						"canConvert", TypeDescriptor.class, TypeDescriptor.class) &&
+				isDeclaredByGenericConversionService(conversionServiceClass,
+						"convert", Object.class, TypeDescriptor.class, TypeDescriptor.class));
+	}
+
+	private static boolean isDeclaredByGenericConversionService(
+			Class<?> conversionServiceClass, String methodName, Class<?>... paramTypes) {
+
+		Method method = ReflectionUtils.findMethod(conversionServiceClass, methodName, paramTypes);
+		return (method != null && method.getDeclaringClass() == GenericConversionService.class);
 	}
 
 	@Nullable
@@ -494,6 +604,26 @@ public class GenericConversionService implements ConfigurableConversionService {
 	}
 
 
+	/**
+	 * Cache entry for a source and target class, holding the resolved converter
+	 * along with the type descriptors for the plain classes.
+	 */
+	private static final class ClassPairConverter {
+
+		final GenericConverter converter;
+
+		final TypeDescriptor sourceType;
+
+		final TypeDescriptor targetType;
+
+		ClassPairConverter(GenericConverter converter, TypeDescriptor sourceType, TypeDescriptor targetType) {
+			this.converter = converter;
+			this.sourceType = sourceType;
+			this.targetType = targetType;
+		}
+	}
+
+
 	/**
 	 * Manages all converters registered with the service.
 	 */
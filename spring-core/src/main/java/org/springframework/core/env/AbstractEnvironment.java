@@ -66,6 +66,18 @@ public abstract class AbstractEnvironment implements ConfigurableEnvironment {
 	 */
 	public static final String IGNORE_GETENV_PROPERTY_NAME = "spring.getenv.ignore";
 
+	/**
+	 * System property that instructs Spring to cache resolved property values
+	 * and placeholders, i.e. to use a {@link CachingPropertySourcesPropertyResolver}.
+	 * <p>The default is "false". Consider switching this flag to "true" if environment
+	 * properties are resolved on hot code paths and their values do not change at
+	 * runtime; modifications of the {@link #getPropertySources() property sources}
+	 * are detected, whereas changes to their content (e.g. to system properties) are not.
+	 * @since 5.2.6
+	 * @see #createPropertyResolver(MutablePropertySources)
+	 */
+	public static final String CACHE_PROPERTIES_PROPERTY_NAME = "spring.environment.cache";
+
 	/**
 	 * Name of property to set to specify active profiles: {@value}. Value may be comma
 	 * delimited.
@@ -109,8 +121,7 @@ public abstract class AbstractEnvironment implements ConfigurableEnvironment {
 
 	private final MutablePropertySources propertySources = new MutablePropertySources();
 
-	private final ConfigurablePropertyResolver propertyResolver =
-			new PropertySourcesPropertyResolver(this.propertySources);
+	private final ConfigurablePropertyResolver propertyResolver = createPropertyResolver(this.propertySources);
 
 
 	/**
@@ -437,6 +448,23 @@ public abstract class AbstractEnvironment implements ConfigurableEnvironment {
 		}
 	}
 
+	/**
+	 * Create the {@link ConfigurablePropertyResolver} for resolving properties
+	 * against the given property sources.
+	 * <p>The default implementation creates a {@link PropertySourcesPropertyResolver},
+	 * or a {@link CachingPropertySourcesPropertyResolver} if the "spring.environment.cache"
+	 * system property is "true". Note that this method is called during construction,
+	 * before any subclass state has been initialized.
+	 * @param propertySources the property sources of this environment
+	 * @since 5.2.6
+	 * @see #CACHE_PROPERTIES_PROPERTY_NAME
+	 */
+	protected ConfigurablePropertyResolver createPropertyResolver(MutablePropertySources propertySources) {
+		return (SpringProperties.getFlag(CACHE_PROPERTIES_PROPERTY_NAME) ?
+				new CachingPropertySourcesPropertyResolver(propertySources) :
+				new PropertySourcesPropertyResolver(propertySources));
+	}
+
 	/**
 	 * Determine whether to suppress {@link System#getenv()}/{@link System#getenv(String)}
 	 * access for the purposes of {@link #getSystemEnvironment()}.
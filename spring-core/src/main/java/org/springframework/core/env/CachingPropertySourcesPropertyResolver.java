@@ -0,0 +1,182 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.env;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.ConcurrentLruCache;
+import org.springframework.util.ConcurrentLruCacheRegistry;
+
+/**
+ * {@link PropertySourcesPropertyResolver} variant that caches resolved
+ * property values as well as placeholder resolution results, avoiding a
+ * search through all property sources for repeated lookups.
+ *
+ * <p>The cache is invalidated whenever the underlying
+ * {@link MutablePropertySources} are modified, i.e. when property sources
+ * are added, removed or replaced, and when the placeholder settings of this
+ * resolver change. Changes to the content of individual property sources,
+ * e.g. through {@link System#setProperty}, are <i>not</i> detected: use this
+ * resolver only if property values are not expected to change, or call
+ * {@link #clearCache()} after changing them. Type conversion is applied to
+ * the cached values on each call, not being cached itself.
+ *
+ * @author agent
+ * @since 5.2.6
+ * @see AbstractEnvironment#createPropertyResolver
+ * @see AbstractEnvironment#CACHE_PROPERTIES_PROPERTY_NAME
+ */
+public class CachingPropertySourcesPropertyResolver extends PropertySourcesPropertyResolver {
+
+	private static final int CACHE_LIMIT = 1024;
+
+	/** Marker for a property that has not been found in any property source. */
+	private static final Object NOT_FOUND = new Object();
+
+
+	@Nullable
+	private final MutablePropertySources mutablePropertySources;
+
+	private final ConcurrentLruCache<String, Object> resolvedValues = ConcurrentLruCacheRegistry.register(
+			"environmentProperties", new ConcurrentLruCache<>(CACHE_LIMIT));
+
+	private final ConcurrentLruCache<String, Object> rawValues = ConcurrentLruCacheRegistry.register(
+			"environmentProperties", new ConcurrentLruCache<>(CACHE_LIMIT));
+
+	private final ConcurrentLruCache<String, String> placeholders = ConcurrentLruCacheRegistry.register(
+			"environmentPlaceholders", new ConcurrentLruCache<>(CACHE_LIMIT));
+
+	private final ConcurrentLruCache<String, String> requiredPlaceholders = ConcurrentLruCacheRegistry.register(
+			"environmentPlaceholders", new ConcurrentLruCache<>(CACHE_LIMIT));
+
+	/** The modification count of the property sources that the cached values refer to. */
+	private volatile int cachedModificationCount;
+
+
+	/**
+	 * Create a new resolver against the given property sources.
+	 * @param propertySources the set of {@link PropertySource} objects to use
+	 */
+	public CachingPropertySourcesPropertyResolver(@Nullable PropertySources propertySources) {
+		super(propertySources);
+		this.mutablePropertySources = (propertySources instanceof MutablePropertySources ?
+				(MutablePropertySources) propertySources : null);
+		this.cachedModificationCount = getModificationCount();
+	}
+
+
+	@Override
+	public void setPlaceholderPrefix(String placeholderPrefix) {
+		super.setPlaceholderPrefix(placeholderPrefix);
+		clearCache();
+	}
+
+	@Override
+	public void setPlaceholderSuffix(String placeholderSuffix) {
+		super.setPlaceholderSuffix(placeholderSuffix);
+		clearCache();
+	}
+
+	@Override
+	public void setValueSeparator(@Nullable String valueSeparator) {
+		super.setValueSeparator(valueSeparator);
+		clearCache();
+	}
+
+	@Override
+	public void setIgnoreUnresolvableNestedPlaceholders(boolean ignoreUnresolvableNestedPlaceholders) {
+		super.setIgnoreUnresolvableNestedPlaceholders(ignoreUnresolvableNestedPlaceholders);
+		clearCache();
+	}
+
+	/**
+	 * Clear the cache of resolved property values and placeholders,
+	 * e.g. after the content of a property source has changed.
+	 */
+	public void clearCache() {
+		this.cachedModificationCount = getModificationCount();
+		this.resolvedValues.clear();
+		this.rawValues.clear();
+		this.placeholders.clear();
+		this.requiredPlaceholders.clear();
+	}
+
+
+	@Override
+	@Nullable
+	protected <T> T getProperty(String key, Class<T> targetValueType, boolean resolveNestedPlaceholders) {
+		int modificationCount = validateCache();
+		ConcurrentLruCache<String, Object> cache = (resolveNestedPlaceholders ? this.resolvedValues : this.rawValues);
+		Object value = cache.getIfPresent(key);
+		if (value == null) {
+			value = super.getProperty(key, Object.class, resolveNestedPlaceholders);
+			cache(cache, key, (value != null ? value : NOT_FOUND), modificationCount);
+		}
+		return (value != null && value != NOT_FOUND ? convertValueIfNecessary(value, targetValueType) : null);
+	}
+
+	@Override
+	public String resolvePlaceholders(String text) {
+		int modificationCount = validateCache();
+		String result = this.placeholders.getIfPresent(text);
+		if (result == null) {
+			result = super.resolvePlaceholders(text);
+			cache(this.placeholders, text, result, modificationCount);
+		}
+		return result;
+	}
+
+	@Override
+	public String resolveRequiredPlaceholders(String text) throws IllegalArgumentException {
+		int modificationCount = validateCache();
+		String result = this.requiredPlaceholders.getIfPresent(text);
+		if (result == null) {
+			result = super.resolveRequiredPlaceholders(text);
+			cache(this.requiredPlaceholders, text, result, modificationCount);
+		}
+		return result;
+	}
+
+	/**
+	 * Clear the cache if the property sources have been modified since.
+	 * @return the current modification count of the property sources
+	 */
+	private int validateCache() {
+		int modificationCount = getModificationCount();
+		if (this.cachedModificationCount != modificationCount) {
+			clearCache();
+		}
+		return modificationCount;
+	}
+
+	/**
+	 * Cache the given value unless the property sources have been modified
+	 * while resolving it, in which case it may refer to their previous state.
+	 */
+	private <V> void cache(ConcurrentLruCache<String, V> cache, String key, V value, int modificationCount) {
+		if (getModificationCount() == modificationCount) {
+			cache.putIfAbsent(key, value);
+			if (getModificationCount() != modificationCount) {
+				cache.remove(key);
+			}
+		}
+	}
+
+	private int getModificationCount() {
+		return (this.mutablePropertySources != null ? this.mutablePropertySources.getModificationCount() : 0);
+	}
+
+}
@@ -16,7 +16,10 @@
 
 package org.springframework.core.env;
 
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -65,12 +68,25 @@ import org.springframework.util.Assert;
  */
 public class SystemEnvironmentPropertySource extends MapPropertySource {
 
+	private static final Class<?> UNMODIFIABLE_MAP_TYPE = Collections.unmodifiableMap(Collections.emptyMap()).getClass();
+
+
+	/**
+	 * Canonical forms of all variable names if the source is the immutable
+	 * {@link System#getenv()} map, allowing for misses to be detected with a
+	 * single lookup instead of checking all name variants.
+	 */
+	@Nullable
+	private final Set<String> canonicalNames;
+
+
 	/**
 	 * Create a new {@code SystemEnvironmentPropertySource} with the given name and
 	 * delegating to the given {@code MapPropertySource}.
 	 */
 	public SystemEnvironmentPropertySource(String name, Map<String, Object> source) {
 		super(name, source);
+		this.canonicalNames = buildCanonicalNames(source);
 	}
 
 
@@ -105,6 +121,10 @@ public class SystemEnvironmentPropertySource extends MapPropertySource {
 	 */
 	protected final String resolvePropertyName(String name) {
 		Assert.notNull(name, "Property name must not be null");
+		if (this.canonicalNames != null && !this.canonicalNames.contains(canonicalName(name))) {
+			// None of the variants can be present
+			return name;
+		}
 		String resolvedName = checkPropertyName(name);
 		if (resolvedName != null) {
 			return resolvedName;
@@ -152,4 +172,38 @@ public class SystemEnvironmentPropertySource extends MapPropertySource {
 		return (System.getSecurityManager() != null);
 	}
 
+
+	/**
+	 * Build the canonical names for the given source if it is the system
+	 * environment, which cannot change at runtime; otherwise {@code null}.
+	 */
+	@Nullable
+	private static Set<String> buildCanonicalNames(Map<String, Object> source) {
+		// Avoid System.getenv() call for custom maps, e.g. with "spring.getenv.ignore"
+		if (source.getClass() != UNMODIFIABLE_MAP_TYPE) {
+			return null;
+		}
+		try {
+			if (source != (Map<?, ?>) System.getenv()) {
+				return null;
+			}
+		}
+		catch (SecurityException ex) {
+			return null;
+		}
+		Set<String> canonicalNames = new HashSet<>(source.size() * 2);
+		for (String name : source.keySet()) {
+			canonicalNames.add(canonicalName(name));
+		}
+		return canonicalNames;
+	}
+
+	/**
+	 * Return the uppercase form of the given name with dots and hyphens replaced,
+	 * shared by all variants that {@link #resolvePropertyName} checks for.
+	 */
+	private static String canonicalName(String name) {
+		return name.toUpperCase().replace('.', '_').replace('-', '_');
+	}
+
 }
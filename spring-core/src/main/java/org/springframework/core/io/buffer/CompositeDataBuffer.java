@@ -0,0 +1,659 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.IntPredicate;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * {@link DataBuffer} that presents the readable bytes of several component
+ * buffers as a single logical buffer, without copying them.
+ *
+ * <p>Reading, searching, {@linkplain #slice slicing} and
+ * {@linkplain #asInputStream() streaming} work across component boundaries.
+ * {@link #asByteBuffer(int, int)} returns a shared view if the requested range
+ * lies within a single component, and a read-only copy otherwise. Written bytes are
+ * appended to a buffer allocated from the {@linkplain #factory() factory};
+ * writing after the {@linkplain #writePosition(int) write position} has been
+ * moved back discards the content beyond it.
+ *
+ * <p>The composite takes over the given buffers: they are released once the
+ * reference count of the composite drops to zero. Slices share the reference
+ * count of the buffer that they have been sliced from, and do not support
+ * writing.
+ *
+ * @author agent
+ * @since 5.2.6
+ * @see DataBufferUtils#compose(List)
+ */
+public class CompositeDataBuffer implements PooledDataBuffer {
+
+	private static final int DEFAULT_TAIL_CAPACITY = 256;
+
+	private static final AtomicIntegerFieldUpdater<CompositeDataBuffer> REF_COUNT_UPDATER =
+			AtomicIntegerFieldUpdater.newUpdater(CompositeDataBuffer.class, "refCount");
+
+
+	private final DataBufferFactory dataBufferFactory;
+
+	/** The buffer that holds the reference count: this buffer, or the origin of a slice. */
+	private final CompositeDataBuffer owner;
+
+	private final boolean slice;
+
+	private DataBuffer[] components;
+
+	/** The index of the first byte of each component within the component. */
+	private int[] bases;
+
+	/** The index of the first byte of each component within this buffer. */
+	private int[] offsets;
+
+	private int[] lengths;
+
+	private int componentCount;
+
+	/** Whether the last component has been allocated by this buffer for writing. */
+	private boolean tailOwned;
+
+	private int lastComponent;
+
+	private int readPosition;
+
+	private int writePosition;
+
+	private volatile int refCount = 1;
+
+
+	/**
+	 * Create a new {@code CompositeDataBuffer} for the readable bytes
+	 * of the given buffers.
+	 * @param dataBufferFactory the factory to allocate buffers for written bytes with
+	 * @param dataBuffers the buffers to compose, to be released with this buffer
+	 */
+	public CompositeDataBuffer(DataBufferFactory dataBufferFactory, List<? extends DataBuffer> dataBuffers) {
+		this(dataBufferFactory, dataBuffers, null);
+	}
+
+	private CompositeDataBuffer(DataBufferFactory dataBufferFactory, List<? extends DataBuffer> dataBuffers,
+			@Nullable CompositeDataBuffer origin) {
+
+		Assert.notNull(dataBufferFactory, "DataBufferFactory must not be null");
+		Assert.notNull(dataBuffers, "DataBuffer List must not be null");
+		this.dataBufferFactory = dataBufferFactory;
+		this.owner = (origin != null ? origin.owner : this);
+		this.slice = (origin != null);
+		int capacity = Math.max(dataBuffers.size(), 4);
+		this.components = new DataBuffer[capacity];
+		this.bases = new int[capacity];
+		this.offsets = new int[capacity];
+		this.lengths = new int[capacity];
+		for (DataBuffer dataBuffer : dataBuffers) {
+			addComponent(dataBuffer, dataBuffer.readPosition(), dataBuffer.readableByteCount());
+		}
+		this.writePosition = contentLength();
+	}
+
+
+	/**
+	 * Return the number of component buffers.
+	 */
+	public int componentCount() {
+		return this.componentCount;
+	}
+
+	private void addComponent(DataBuffer dataBuffer, int base, int length) {
+		int index = this.componentCount;
+		if (index == this.components.length) {
+			int capacity = index * 2;
+			this.components = Arrays.copyOf(this.components, capacity);
+			this.bases = Arrays.copyOf(this.bases, capacity);
+			this.offsets = Arrays.copyOf(this.offsets, capacity);
+			this.lengths = Arrays.copyOf(this.lengths, capacity);
+		}
+		this.components[index] = dataBuffer;
+		this.bases[index] = base;
+		this.offsets[index] = contentLength();
+		this.lengths[index] = length;
+		this.componentCount = index + 1;
+	}
+
+	private int contentLength() {
+		int last = this.componentCount - 1;
+		return (last >= 0 ? this.offsets[last] + this.lengths[last] : 0);
+	}
+
+	/**
+	 * Return the index of the component that holds the given byte.
+	 */
+	private int componentIndex(int index) {
+		int i = this.lastComponent;
+		if (i < this.componentCount && index >= this.offsets[i] && index < this.offsets[i] + this.lengths[i]) {
+			return i;
+		}
+		int low = 0;
+		int high = this.componentCount - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (index < this.offsets[mid]) {
+				high = mid - 1;
+			}
+			else if (index >= this.offsets[mid] + this.lengths[mid]) {
+				low = mid + 1;
+			}
+			else {
+				this.lastComponent = mid;
+				return mid;
+			}
+		}
+		throw new IndexOutOfBoundsException(String.format("index %d must be < %d", index, contentLength()));
+	}
+
+
+	@Override
+	public DataBufferFactory factory() {
+		return this.dataBufferFactory;
+	}
+
+	@Override
+	public int indexOf(IntPredicate predicate, int fromIndex) {
+		Assert.notNull(predicate, "IntPredicate must not be null");
+		if (fromIndex < 0) {
+			fromIndex = 0;
+		}
+		else if (fromIndex >= this.writePosition) {
+			return -1;
+		}
+		for (int i = componentIndex(fromIndex); i < this.componentCount; i++) {
+			int offset = this.offsets[i];
+			if (offset >= this.writePosition) {
+				break;
+			}
+			int base = this.bases[i];
+			int end = base + Math.min(this.lengths[i], this.writePosition - offset);
+			int result = this.components[i].indexOf(predicate, base + Math.max(fromIndex - offset, 0));
+			if (result != -1 && result < end) {
+				return offset + result - base;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public int lastIndexOf(IntPredicate predicate, int fromIndex) {
+		Assert.notNull(predicate, "IntPredicate must not be null");
+		int index = Math.min(fromIndex, this.writePosition - 1);
+		if (index < 0) {
+			return -1;
+		}
+		for (int i = componentIndex(index); i >= 0; i--) {
+			int offset = this.offsets[i];
+			int base = this.bases[i];
+			int from = base + Math.min(index - offset, this.lengths[i] - 1);
+			int result = this.components[i].lastIndexOf(predicate, from);
+			if (result >= base) {
+				return offset + result - base;
+			}
+			index = offset - 1;
+		}
+		return -1;
+	}
+
+	@Override
+	public int readableByteCount() {
+		return this.writePosition - this.readPosition;
+	}
+
+	@Override
+	public int writableByteCount() {
+		return capacity() - this.writePosition;
+	}
+
+	@Override
+	public int capacity() {
+		int capacity = contentLength();
+		if (this.tailOwned) {
+			capacity += this.components[this.componentCount - 1].writableByteCount();
+		}
+		return capacity;
+	}
+
+	@Override
+	public CompositeDataBuffer capacity(int newCapacity) {
+		if (newCapacity <= 0) {
+			throw new IllegalArgumentException(String.format("'newCapacity' %d must be higher than 0", newCapacity));
+		}
+		int capacity = capacity();
+		if (newCapacity > capacity) {
+			assertNotSliced();
+			if (this.tailOwned) {
+				DataBuffer tail = this.components[this.componentCount - 1];
+				tail.capacity(tail.capacity() + newCapacity - capacity);
+			}
+			else {
+				addComponent(this.dataBufferFactory.allocateBuffer(newCapacity - capacity), 0, 0);
+				this.tailOwned = true;
+			}
+		}
+		else if (newCapacity < capacity) {
+			throw new UnsupportedOperationException("Decreasing the capacity of a composite buffer is not supported");
+		}
+		return this;
+	}
+
+	@Override
+	public CompositeDataBuffer ensureCapacity(int length) {
+		if (length > writableByteCount()) {
+			capacity(this.writePosition + length);
+		}
+		return this;
+	}
+
+	@Override
+	public int readPosition() {
+		return this.readPosition;
+	}
+
+	@Override
+	public CompositeDataBuffer readPosition(int readPosition) {
+		assertIndex(readPosition >= 0, "'readPosition' %d must be >= 0", readPosition);
+		assertIndex(readPosition <= this.writePosition, "'readPosition' %d must be <= %d",
+				readPosition, this.writePosition);
+		this.readPosition = readPosition;
+		return this;
+	}
+
+	@Override
+	public int writePosition() {
+		return this.writePosition;
+	}
+
+	@Override
+	public CompositeDataBuffer writePosition(int writePosition) {
+		assertIndex(writePosition >= this.readPosition, "'writePosition' %d must be >= %d",
+				writePosition, this.readPosition);
+		int capacity = capacity();
+		assertIndex(writePosition <= capacity, "'writePosition' %d must be <= %d", writePosition, capacity);
+		int contentLength = contentLength();
+		if (writePosition > contentLength) {
+			// Bytes written into the tail via asByteBuffer
+			DataBuffer tail = this.components[this.componentCount - 1];
+			tail.writePosition(tail.writePosition() + writePosition - contentLength);
+			this.lengths[this.componentCount - 1] = tail.writePosition();
+		}
+		this.writePosition = writePosition;
+		return this;
+	}
+
+	@Override
+	public byte getByte(int index) {
+		assertIndex(index >= 0, "index %d must be >= 0", index);
+		assertIndex(index <= this.writePosition - 1, "index %d must be <= %d", index, this.writePosition - 1);
+		int i = componentIndex(index);
+		return this.components[i].getByte(this.bases[i] + index - this.offsets[i]);
+	}
+
+	@Override
+	public byte read() {
+		assertIndex(this.readPosition <= this.writePosition - 1, "readPosition %d must be <= %d",
+				this.readPosition, this.writePosition - 1);
+		byte b = getByte(this.readPosition);
+		this.readPosition++;
+		return b;
+	}
+
+	@Override
+	public CompositeDataBuffer read(byte[] destination) {
+		Assert.notNull(destination, "Byte array must not be null");
+		read(destination, 0, destination.length);
+		return this;
+	}
+
+	@Override
+	public CompositeDataBuffer read(byte[] destination, int offset, int length) {
+		Assert.notNull(destination, "Byte array must not be null");
+		assertIndex(this.readPosition <= this.writePosition - length,
+				"readPosition %d and length %d should be smaller than writePosition %d",
+				this.readPosition, length, this.writePosition);
+		copy(this.readPosition, destination, offset, length);
+		this.readPosition += length;
+		return this;
+	}
+
+	private void copy(int index, byte[] destination, int offset, int length) {
+		while (length > 0) {
+			int i = componentIndex(index);
+			int componentOffset = index - this.offsets[i];
+			int count = Math.min(length, this.lengths[i] - componentOffset);
+			this.components[i].asByteBuffer(this.bases[i] + componentOffset, count).get(destination, offset, count);
+			index += count;
+			offset += count;
+			length -= count;
+		}
+	}
+
+	@Override
+	public CompositeDataBuffer write(byte b) {
+		tail(1).write(b);
+		afterWrite();
+		return this;
+	}
+
+	@Override
+	public CompositeDataBuffer write(byte[] source) {
+		Assert.notNull(source, "Byte array must not be null");
+		write(source, 0, source.length);
+		return this;
+	}
+
+	@Override
+	public CompositeDataBuffer write(byte[] source, int offset, int length) {
+		Assert.notNull(source, "Byte array must not be null");
+		tail(length).write(source, offset, length);
+		afterWrite();
+		return this;
+	}
+
+	@Override
+	public CompositeDataBuffer write(DataBuffer... buffers) {
+		if (!ObjectUtils.isEmpty(buffers)) {
+			int length = Arrays.stream(buffers).mapToInt(DataBuffer::readableByteCount).sum();
+			tail(length).write(buffers);
+			afterWrite();
+		}
+		return this;
+	}
+
+	@Override
+	public CompositeDataBuffer write(ByteBuffer... buffers) {
+		if (!ObjectUtils.isEmpty(buffers)) {
+			int length = Arrays.stream(buffers).mapToInt(ByteBuffer::remaining).sum();
+			tail(length).write(buffers);
+			afterWrite();
+		}
+		return this;
+	}
+
+	@Override
+	public CompositeDataBuffer write(CharSequence charSequence, Charset charset) {
+		Assert.notNull(charSequence, "CharSequence must not be null");
+		Assert.notNull(charset, "Charset must not be null");
+		if (charSequence.length() != 0) {
+			tail(charSequence.length()).write(charSequence, charset);
+			afterWrite();
+		}
+		return this;
+	}
+
+	/**
+	 * Prepare the buffer to append written bytes to, discarding any content
+	 * beyond the current write position.
+	 */
+	private DataBuffer tail(int length) {
+		assertNotSliced();
+		while (this.componentCount > 0 && this.offsets[this.componentCount - 1] >= this.writePosition &&
+				this.lengths[this.componentCount - 1] > 0) {
+			int last = --this.componentCount;
+			DataBufferUtils.release(this.components[last]);
+			this.components[last] = null;
+			this.tailOwned = false;
+		}
+		this.lastComponent = 0;
+		int last = this.componentCount - 1;
+		if (last >= 0 && this.offsets[last] + this.lengths[last] > this.writePosition) {
+			this.lengths[last] = this.writePosition - this.offsets[last];
+			if (this.tailOwned) {
+				this.components[last].writePosition(this.lengths[last]);
+			}
+		}
+		if (!this.tailOwned) {
+			addComponent(this.dataBufferFactory.allocateBuffer(Math.max(length, DEFAULT_TAIL_CAPACITY)), 0, 0);
+			this.tailOwned = true;
+		}
+		return this.components[this.componentCount - 1];
+	}
+
+	private void afterWrite() {
+		int last = this.componentCount - 1;
+		this.lengths[last] = this.components[last].writePosition();
+		this.writePosition = this.offsets[last] + this.lengths[last];
+	}
+
+	@Override
+	public CompositeDataBuffer slice(int index, int length) {
+		checkIndex(index, length);
+		assertIndex(index + length <= contentLength(), "index %d and length %d must be <= %d",
+				index, length, contentLength());
+		List<DataBuffer> slices = new ArrayList<>();
+		int end = index + length;
+		while (index < end) {
+			int i = componentIndex(index);
+			int componentOffset = index - this.offsets[i];
+			int count = Math.min(end - index, this.lengths[i] - componentOffset);
+			slices.add(this.components[i].slice(this.bases[i] + componentOffset, count));
+			index += count;
+		}
+		return new CompositeDataBuffer(this.dataBufferFactory, slices, this);
+	}
+
+	@Override
+	public ByteBuffer asByteBuffer() {
+		return asByteBuffer(this.readPosition, readableByteCount());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>This implementation returns a view on the component buffer if the
+	 * requested range lies within a single component. Otherwise it returns a
+	 * read-only copy of the range, so that writing to it fails rather than
+	 * silently not being reflected in this buffer.
+	 */
+	@Override
+	public ByteBuffer asByteBuffer(int index, int length) {
+		checkIndex(index, length);
+		int contentLength = contentLength();
+		if (length > 0 && index < contentLength) {
+			int i = componentIndex(index);
+			int componentOffset = index - this.offsets[i];
+			int available = (i == this.componentCount - 1 && this.tailOwned ?
+					this.components[i].capacity() : this.lengths[i]) - componentOffset;
+			if (length <= available) {
+				return this.components[i].asByteBuffer(this.bases[i] + componentOffset, length);
+			}
+		}
+		else if (this.tailOwned && index >= contentLength) {
+			DataBuffer tail = this.components[this.componentCount - 1];
+			int tailIndex = index - this.offsets[this.componentCount - 1];
+			if (tailIndex + length <= tail.capacity()) {
+				return tail.asByteBuffer(tailIndex, length);
+			}
+		}
+		ByteBuffer copy = ByteBuffer.allocate(length);
+		copy(index, copy.array(), 0, Math.max(0, Math.min(length, contentLength - index)));
+		return copy.asReadOnlyBuffer();
+	}
+
+	@Override
+	public InputStream asInputStream() {
+		return new CompositeDataBufferInputStream(false);
+	}
+
+	@Override
+	public InputStream asInputStream(boolean releaseOnClose) {
+		return new CompositeDataBufferInputStream(releaseOnClose);
+	}
+
+	@Override
+	public OutputStream asOutputStream() {
+		return new CompositeDataBufferOutputStream();
+	}
+
+	@Override
+	public String toString(int index, int length, Charset charset) {
+		checkIndex(index, length);
+		Assert.notNull(charset, "Charset must not be null");
+		if (length == 0) {
+			return "";
+		}
+		int i = componentIndex(index);
+		int componentOffset = index - this.offsets[i];
+		if (length <= this.lengths[i] - componentOffset) {
+			return this.components[i].toString(this.bases[i] + componentOffset, length, charset);
+		}
+		byte[] bytes = new byte[length];
+		copy(index, bytes, 0, length);
+		return new String(bytes, charset);
+	}
+
+
+	@Override
+	public boolean isAllocated() {
+		return (this.owner.refCount > 0);
+	}
+
+	@Override
+	public PooledDataBuffer retain() {
+		CompositeDataBuffer owner = this.owner;
+		int refCount;
+		do {
+			refCount = owner.refCount;
+			if (refCount <= 0) {
+				throw new IllegalStateException("Cannot retain deallocated buffer: " + this);
+			}
+		}
+		while (!REF_COUNT_UPDATER.compareAndSet(owner, refCount, refCount + 1));
+		return this;
+	}
+
+	@Override
+	public boolean release() {
+		CompositeDataBuffer owner = this.owner;
+		int refCount;
+		do {
+			refCount = owner.refCount;
+			if (refCount <= 0) {
+				throw new IllegalStateException("Cannot release deallocated buffer: " + this);
+			}
+		}
+		while (!REF_COUNT_UPDATER.compareAndSet(owner, refCount, refCount - 1));
+		if (refCount == 1) {
+			for (int i = 0; i < owner.componentCount; i++) {
+				DataBufferUtils.release(owner.components[i]);
+			}
+			return true;
+		}
+		return false;
+	}
+
+
+	@Override
+	public String toString() {
+		return String.format("CompositeDataBuffer (r: %d, w: %d, c: %d, components: %d)",
+				this.readPosition, this.writePosition, capacity(), this.componentCount);
+	}
+
+
+	private void assertNotSliced() {
+		if (this.slice) {
+			throw new UnsupportedOperationException("Writing to a sliced composite buffer is not supported");
+		}
+	}
+
+	private void checkIndex(int index, int length) {
+		int capacity = capacity();
+		assertIndex(index >= 0, "index %d must be >= 0", index);
+		assertIndex(length >= 0, "length %d must be >= 0", length);
+		assertIndex(index + length <= capacity, "index %d and length %d must be <= %d", index, length, capacity);
+	}
+
+	private void assertIndex(boolean expression, String format, Object... args) {
+		if (!expression) {
+			String message = String.format(format, args);
+			throw new IndexOutOfBoundsException(message);
+		}
+	}
+
+
+	private class CompositeDataBufferInputStream extends InputStream {
+
+		private final boolean releaseOnClose;
+
+		private boolean closed;
+
+		CompositeDataBufferInputStream(boolean releaseOnClose) {
+			this.releaseOnClose = releaseOnClose;
+		}
+
+		@Override
+		public int available() {
+			return readableByteCount();
+		}
+
+		@Override
+		public int read() {
+			return available() > 0 ? CompositeDataBuffer.this.read() & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] bytes, int off, int len) throws IOException {
+			int available = available();
+			if (available > 0) {
+				len = Math.min(len, available);
+				CompositeDataBuffer.this.read(bytes, off, len);
+				return len;
+			}
+			else {
+				return -1;
+			}
+		}
+
+		@Override
+		public void close() {
+			if (this.releaseOnClose && !this.closed) {
+				this.closed = true;
+				release();
+			}
+		}
+	}
+
+
+	private class CompositeDataBufferOutputStream extends OutputStream {
+
+		@Override
+		public void write(int b) throws IOException {
+			CompositeDataBuffer.this.write((byte) b);
+		}
+
+		@Override
+		public void write(byte[] bytes, int off, int len) throws IOException {
+			CompositeDataBuffer.this.write(bytes, off, len);
+		}
+	}
+
+}
@@ -311,6 +311,9 @@ public interface DataBuffer {
 	 * {@code DataBuffer} and the returned {@code ByteBuffer} is shared; though
 	 * changes in the returned buffer's {@linkplain ByteBuffer#position() position}
 	 * will not be reflected in the reading nor writing position of this data buffer.
+	 * <p>Buffers composed of several components, such as {@link CompositeDataBuffer},
+	 * can only share data for bytes within a single component and return a
+	 * read-only copy otherwise.
 	 * @return this data buffer as a byte buffer
 	 */
 	ByteBuffer asByteBuffer();
@@ -320,6 +323,9 @@ public interface DataBuffer {
 	 * this {@code DataBuffer} and the returned {@code ByteBuffer} is shared; though
 	 * changes in the returned buffer's {@linkplain ByteBuffer#position() position}
 	 * will not be reflected in the reading nor writing position of this data buffer.
+	 * <p>Buffers composed of several components, such as {@link CompositeDataBuffer},
+	 * can only share data if the given range lies within a single component and
+	 * return a read-only copy otherwise.
 	 * @param index the index at which to start the byte buffer
 	 * @param length the length of the returned byte buffer
 	 * @return this data buffer as a byte buffer
@@ -25,6 +25,7 @@ import java.nio.channels.AsynchronousFileChannel;
 import java.nio.channels.Channel;
 import java.nio.channels.Channels;
 import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.nio.file.OpenOption;
@@ -32,6 +33,7 @@ import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -229,6 +231,43 @@ public abstract class DataBufferUtils {
 		return position == 0 ? result : skipUntilByteCount(result, position);
 	}
 
+	/**
+	 * Read the given region of a file into a {@code Flux} of memory-mapped
+	 * {@code DataBuffer}s, without copying the file content.
+	 * <p>Each buffer wraps a read-only mapping of at most {@code windowSize}
+	 * bytes of the file. Windows are mapped one at a time as buffers are
+	 * requested, so the number of mapped windows follows the demand of the
+	 * subscriber. The file channel is closed when the flux is terminated; the
+	 * mappings themselves stay valid until the buffers are garbage collected.
+	 * <p>Note that the file must not be truncated while the buffers are in
+	 * use: accessing a mapping beyond the end of the file fails with an
+	 * unspecified exception.
+	 * @param path the path of the file to read from
+	 * @param position the position to start reading from
+	 * @param count the number of bytes to read, capped at the end of the file
+	 * @param bufferFactory the factory to wrap the mapped windows with
+	 * @param windowSize the maximum size of each mapped window
+	 * @return a Flux of data buffers for the mapped windows
+	 * @since 5.2.6
+	 * @see FileChannel#map
+	 */
+	public static Flux<DataBuffer> readMapped(
+			Path path, long position, long count, DataBufferFactory bufferFactory, int windowSize) {
+
+		Assert.notNull(path, "Path must not be null");
+		Assert.notNull(bufferFactory, "BufferFactory must not be null");
+		Assert.isTrue(position >= 0, "'position' must be >= 0");
+		Assert.isTrue(count >= 0, "'count' must be >= 0");
+		Assert.isTrue(windowSize > 0, "'windowSize' must be > 0");
+
+		return Flux.using(() -> FileChannel.open(path, StandardOpenOption.READ),
+				channel -> Flux.generate(
+						new MappedFileChannelGenerator(channel, position, count, bufferFactory, windowSize)),
+				DataBufferUtils::closeChannel);
+
+		// No doOnDiscard as operators used do not cache
+	}
+
 
 	//---------------------------------------------------------------------
 	// Writing
@@ -550,10 +589,39 @@ public abstract class DataBufferUtils {
 		return Flux.from(buffers)
 				.collect(() -> new LimitedDataBufferList(maxByteCount), LimitedDataBufferList::add)
 				.filter(list -> !list.isEmpty())
-				.map(list -> list.get(0).factory().join(list))
+				.map(DataBufferUtils::compose)
 				.doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release);
 	}
 
+	/**
+	 * Compose the given buffers into a single logical buffer, avoiding a copy
+	 * where possible. Buffers from a {@link DefaultDataBufferFactory}, pooled
+	 * or not, are presented as a {@link CompositeDataBuffer}, while other
+	 * buffers are {@linkplain DataBufferFactory#join(List) joined} by their
+	 * factory, e.g. into a Netty {@code CompositeByteBuf}.
+	 * <p>Note that the composite is a {@link PooledDataBuffer} even for
+	 * non-pooled components; releasing it is harmless but not required then,
+	 * since the components are simply garbage collected.
+	 * <p>Note that the given data buffers do <strong>not</strong> have to be
+	 * released. They will be released as part of the returned buffer.
+	 * @param dataBuffers the data buffers to compose
+	 * @return a buffer that is composed from the {@code dataBuffers} argument,
+	 * or the buffer itself if there is only one
+	 * @since 5.2.6
+	 */
+	public static DataBuffer compose(List<? extends DataBuffer> dataBuffers) {
+		Assert.notEmpty(dataBuffers, "DataBuffer List must not be empty");
+		DataBuffer first = dataBuffers.get(0);
+		if (dataBuffers.size() == 1) {
+			return first;
+		}
+		DataBufferFactory bufferFactory = first.factory();
+		if (bufferFactory instanceof DefaultDataBufferFactory) {
+			return new CompositeDataBuffer(bufferFactory, dataBuffers);
+		}
+		return bufferFactory.join(dataBuffers);
+	}
+
 	/**
 	 * Return a {@link Matcher} for the given delimiter.
 	 * The matcher can be used to find the delimiters in data buffers.
@@ -659,6 +727,53 @@ public abstract class DataBufferUtils {
 	}
 
 
+	private static class MappedFileChannelGenerator implements Consumer<SynchronousSink<DataBuffer>> {
+
+		private final FileChannel channel;
+
+		private long position;
+
+		private final long count;
+
+		private final DataBufferFactory dataBufferFactory;
+
+		private final int windowSize;
+
+		private long end = -1;
+
+		public MappedFileChannelGenerator(FileChannel channel, long position, long count,
+				DataBufferFactory dataBufferFactory, int windowSize) {
+
+			this.channel = channel;
+			this.position = position;
+			this.count = count;
+			this.dataBufferFactory = dataBufferFactory;
+			this.windowSize = windowSize;
+		}
+
+		@Override
+		public void accept(SynchronousSink<DataBuffer> sink) {
+			try {
+				if (this.end == -1) {
+					long size = this.channel.size();
+					this.end = (this.count > size - this.position ? size : this.position + this.count);
+				}
+				if (this.position >= this.end) {
+					sink.complete();
+					return;
+				}
+				int length = (int) Math.min(this.windowSize, this.end - this.position);
+				ByteBuffer mapped = this.channel.map(FileChannel.MapMode.READ_ONLY, this.position, length);
+				this.position += length;
+				sink.next(this.dataBufferFactory.wrap(mapped));
+			}
+			catch (IOException ex) {
+				sink.error(ex);
+			}
+		}
+	}
+
+
 	private static class ReadCompletionHandler implements CompletionHandler<Integer, DataBuffer> {
 
 		private final AsynchronousFileChannel channel;
@@ -0,0 +1,466 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link DefaultDataBufferFactory} variant that allocates reference-counted
+ * {@link PooledDataBuffer PooledDataBuffers} from pooled direct memory, for use
+ * on runtimes without Netty (e.g. Undertow, Jetty or Servlet 3.1 containers).
+ *
+ * <p>Requested capacities are rounded up to power-of-two size classes between
+ * 64 bytes and the {@linkplain #getMaxPooledCapacity() maximum pooled capacity}.
+ * Each size class has an arena that carves segments out of larger direct memory
+ * chunks, with a per-thread cache in front of it for the smaller size classes.
+ * Once a buffer's reference count drops to zero, its segment is returned to the
+ * current thread's cache or to the arena for reuse. Larger buffers, as well as
+ * any buffers beyond the {@linkplain #getMaxPooledMemory() pooled memory limit},
+ * are allocated as individual direct buffers but still reference-counted.
+ *
+ * <p>Buffers must be released through {@link DataBufferUtils#release} (or
+ * {@link PooledDataBuffer#release()}) once consumed. Buffers that are garbage
+ * collected without having been released are logged when
+ * {@linkplain #setLeakDetection leak detection} is switched on, in which case
+ * their segments are returned to the pool as well; without leak detection,
+ * such segments are lost. The segments held in the cache of a terminated
+ * thread are moved back to the arenas once an arena runs out of segments.
+ *
+ * <p>Slices of a released buffer reject any further access, whereas
+ * {@link ByteBuffer} views obtained through {@link DataBuffer#asByteBuffer()}
+ * must not be used after the release of the buffer since its segment may
+ * have been handed out to another buffer already.
+ *
+ * <p>Note that {@link #wrap} returns unpooled buffers for the given content,
+ * as with {@link DefaultDataBufferFactory}.
+ *
+ * @author agent
+ * @since 5.2.6
+ * @see PooledDataBuffer
+ * @see DataBufferUtils#release
+ */
+public class PooledDataBufferFactory extends DefaultDataBufferFactory {
+
+	/**
+	 * The default maximum capacity of pooled buffers: 1 MB.
+	 */
+	public static final int DEFAULT_MAX_POOLED_CAPACITY = 1024 * 1024;
+
+	/**
+	 * The default maximum amount of direct memory held by the pool: 64 MB.
+	 */
+	public static final long DEFAULT_MAX_POOLED_MEMORY = 64L * 1024 * 1024;
+
+	private static final int MIN_SIZE_CLASS_SHIFT = 6;
+
+	private static final int MIN_SIZE_CLASS = 1 << MIN_SIZE_CLASS_SHIFT;
+
+	private static final int CHUNK_SIZE = 256 * 1024;
+
+	private static final int MAX_THREAD_CACHED_CAPACITY = 32 * 1024;
+
+	private static final int THREAD_CACHE_SIZE = 32;
+
+	private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocateDirect(0);
+
+	private static final Log logger = LogFactory.getLog(PooledDataBufferFactory.class);
+
+
+	private final int maxPooledCapacity;
+
+	private final long maxPooledMemory;
+
+	private final Arena[] arenas;
+
+	private final int cachedSizeClasses;
+
+	private final ThreadLocal<ThreadCache> threadCache;
+
+	private final Set<ThreadCache> threadCaches = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+	private final AtomicLong pooledMemory = new AtomicLong();
+
+	private final LongAdder activeAllocations = new LongAdder();
+
+	private volatile boolean leakDetection;
+
+	private final ReferenceQueue<Object> leakQueue = new ReferenceQueue<>();
+
+	private final Set<LeakTracker> leakTrackers = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+	private final LongAdder leakCount = new LongAdder();
+
+
+	/**
+	 * Create a new {@code PooledDataBufferFactory} with default settings.
+	 */
+	public PooledDataBufferFactory() {
+		this(DEFAULT_INITIAL_CAPACITY, DEFAULT_MAX_POOLED_CAPACITY, DEFAULT_MAX_POOLED_MEMORY);
+	}
+
+	/**
+	 * Create a new {@code PooledDataBufferFactory} with the given settings.
+	 * @param defaultInitialCapacity the capacity to use for {@link #allocateBuffer()}
+	 * @param maxPooledCapacity the maximum capacity of pooled buffers, as a power of
+	 * two (larger buffers are allocated individually)
+	 * @param maxPooledMemory the maximum amount of direct memory to hold in the pool
+	 * (further buffers are allocated individually)
+	 */
+	public PooledDataBufferFactory(int defaultInitialCapacity, int maxPooledCapacity, long maxPooledMemory) {
+		super(true, defaultInitialCapacity);
+		Assert.isTrue(maxPooledCapacity >= MIN_SIZE_CLASS && Integer.bitCount(maxPooledCapacity) == 1,
+				"'maxPooledCapacity' must be a power of two larger than or equal to " + MIN_SIZE_CLASS);
+		Assert.isTrue(maxPooledMemory >= 0, "'maxPooledMemory' must not be negative");
+		this.maxPooledCapacity = maxPooledCapacity;
+		this.maxPooledMemory = maxPooledMemory;
+		this.arenas = new Arena[sizeClassIndex(maxPooledCapacity) + 1];
+		for (int i = 0; i < this.arenas.length; i++) {
+			this.arenas[i] = new Arena(MIN_SIZE_CLASS << i);
+		}
+		this.cachedSizeClasses = sizeClassIndex(Math.min(maxPooledCapacity, MAX_THREAD_CACHED_CAPACITY)) + 1;
+		this.threadCache = ThreadLocal.withInitial(() -> {
+			ThreadCache cache = new ThreadCache(this.cachedSizeClasses);
+			this.threadCaches.add(cache);
+			return cache;
+		});
+	}
+
+
+	/**
+	 * Return the maximum capacity of pooled buffers.
+	 */
+	public int getMaxPooledCapacity() {
+		return this.maxPooledCapacity;
+	}
+
+	/**
+	 * Return the maximum amount of direct memory to hold in the pool.
+	 */
+	public long getMaxPooledMemory() {
+		return this.maxPooledMemory;
+	}
+
+	/**
+	 * Return the amount of direct memory currently held by the pool,
+	 * including the segments in use.
+	 */
+	public long getPooledMemory() {
+		return this.pooledMemory.get();
+	}
+
+	/**
+	 * Return the number of buffers allocated by this factory which have
+	 * not been released yet.
+	 */
+	public long getActiveAllocations() {
+		return this.activeAllocations.sum();
+	}
+
+	/**
+	 * Specify whether to track buffers allocated by this factory in order to
+	 * log those that are garbage collected without having been released.
+	 * <p>Default is "false". Switching this on records the allocation stack
+	 * trace of every buffer, so is meant for development and testing.
+	 * @see #getLeakCount()
+	 */
+	public void setLeakDetection(boolean leakDetection) {
+		this.leakDetection = leakDetection;
+	}
+
+	/**
+	 * Return whether leak detection is switched on.
+	 */
+	public boolean isLeakDetection() {
+		return this.leakDetection;
+	}
+
+	/**
+	 * Return the number of leaked buffers detected so far.
+	 * <p>Leaks are detected on subsequent allocations once the garbage
+	 * collector has picked up the unreleased buffers.
+	 * @see #setLeakDetection
+	 */
+	public long getLeakCount() {
+		return this.leakCount.sum();
+	}
+
+
+	@Override
+	public DefaultDataBuffer allocateBuffer(int initialCapacity) {
+		Assert.isTrue(initialCapacity >= 0, "'initialCapacity' must not be negative");
+		reportLeaks();
+		PooledDefaultDataBuffer dataBuffer = new PooledDefaultDataBuffer(this, initialCapacity);
+		if (this.leakDetection) {
+			LeakTracker tracker = new LeakTracker(dataBuffer, this.leakQueue);
+			this.leakTrackers.add(tracker);
+			dataBuffer.setLeakTracker(tracker);
+		}
+		this.activeAllocations.increment();
+		return dataBuffer;
+	}
+
+	/**
+	 * Allocate a pooled segment for the given capacity.
+	 * @return the segment, or {@code null} if the capacity is too large
+	 * or the pooled memory limit has been reached
+	 */
+	@Nullable
+	ByteBuffer allocateSegment(int capacity) {
+		if (capacity > this.maxPooledCapacity) {
+			return null;
+		}
+		int index = sizeClassIndex(capacity);
+		ByteBuffer segment = null;
+		if (index < this.cachedSizeClasses) {
+			segment = this.threadCache.get().poll(index);
+			if (segment != null) {
+				return segment;
+			}
+		}
+		Arena arena = this.arenas[index];
+		segment = arena.poll();
+		if (segment == null && index < this.cachedSizeClasses && drainTerminatedThreadCaches()) {
+			segment = arena.poll();
+		}
+		return (segment != null ? segment : arena.allocateChunk(this.pooledMemory, this.maxPooledMemory));
+	}
+
+	/**
+	 * Return the given segment to the pool.
+	 */
+	void recycleSegment(ByteBuffer segment) {
+		int index = sizeClassIndex(segment.capacity());
+		if (index >= this.cachedSizeClasses || !this.threadCache.get().offer(index, segment)) {
+			this.arenas[index].recycle(segment);
+		}
+	}
+
+	/**
+	 * Callback for a buffer whose reference count has dropped to zero.
+	 */
+	void deallocated(@Nullable LeakTracker tracker) {
+		if (tracker != null) {
+			tracker.segment = null;
+			tracker.clear();
+			this.leakTrackers.remove(tracker);
+		}
+		this.activeAllocations.decrement();
+	}
+
+	private void reportLeaks() {
+		Reference<?> ref;
+		while ((ref = this.leakQueue.poll()) != null) {
+			LeakTracker tracker = (LeakTracker) ref;
+			if (this.leakTrackers.remove(tracker)) {
+				this.leakCount.increment();
+				this.activeAllocations.decrement();
+				ByteBuffer segment = tracker.segment;
+				if (segment != null) {
+					tracker.segment = null;
+					this.arenas[sizeClassIndex(segment.capacity())].recycle(segment);
+				}
+				logger.error("LEAK: DataBuffer.release() was not called before it was garbage collected. " +
+						"Allocated at:", tracker.allocation);
+			}
+		}
+	}
+
+	/**
+	 * Move the segments held in the caches of terminated threads back to the arenas.
+	 * @return whether any cache of a terminated thread has been found
+	 */
+	private boolean drainTerminatedThreadCaches() {
+		boolean drained = false;
+		for (ThreadCache cache : this.threadCaches) {
+			Thread owner = cache.owner.get();
+			if ((owner == null || !owner.isAlive()) && this.threadCaches.remove(cache)) {
+				for (int i = 0; i < this.cachedSizeClasses; i++) {
+					ByteBuffer segment;
+					while ((segment = cache.poll(i)) != null) {
+						this.arenas[i].recycle(segment);
+					}
+				}
+				drained = true;
+			}
+		}
+		return drained;
+	}
+
+
+	@Override
+	public String toString() {
+		return "PooledDataBufferFactory (maxPooledCapacity=" + this.maxPooledCapacity +
+				", pooledMemory=" + getPooledMemory() + ")";
+	}
+
+
+	/**
+	 * Return a view on the given segment with exactly the given capacity.
+	 * <p>Segments are exclusively owned by a single buffer while allocated,
+	 * so their position and limit can be adapted for slicing.
+	 */
+	static ByteBuffer slice(ByteBuffer segment, int capacity) {
+		// Explicit access via Buffer base type for compatibility
+		// with covariant return type on JDK 9's ByteBuffer...
+		Buffer buffer = segment;
+		buffer.clear().limit(capacity);
+		return segment.slice();
+	}
+
+	/**
+	 * Return the shared empty buffer that released buffers switch to.
+	 */
+	static ByteBuffer emptyBuffer() {
+		return EMPTY_BUFFER;
+	}
+
+	private static int sizeClassIndex(int capacity) {
+		if (capacity <= MIN_SIZE_CLASS) {
+			return 0;
+		}
+		return (32 - Integer.numberOfLeadingZeros(capacity - 1)) - MIN_SIZE_CLASS_SHIFT;
+	}
+
+
+	/**
+	 * The pool for a single size class: a stack of free segments, filled
+	 * by carving up direct memory chunks on demand.
+	 */
+	private static final class Arena {
+
+		private final int segmentSize;
+
+		private final ArrayDeque<ByteBuffer> freeSegments = new ArrayDeque<>();
+
+		Arena(int segmentSize) {
+			this.segmentSize = segmentSize;
+		}
+
+		@Nullable
+		synchronized ByteBuffer poll() {
+			return this.freeSegments.pollLast();
+		}
+
+		@Nullable
+		synchronized ByteBuffer allocateChunk(AtomicLong pooledMemory, long maxPooledMemory) {
+			ByteBuffer segment = this.freeSegments.pollLast();
+			if (segment != null) {
+				return segment;
+			}
+			int chunkSize = Math.max(this.segmentSize, CHUNK_SIZE);
+			long current;
+			do {
+				current = pooledMemory.get();
+				if (current + chunkSize > maxPooledMemory) {
+					return null;
+				}
+			}
+			while (!pooledMemory.compareAndSet(current, current + chunkSize));
+			ByteBuffer chunk = ByteBuffer.allocateDirect(chunkSize);
+			Buffer buffer = chunk;
+			for (int offset = chunkSize - this.segmentSize; offset > 0; offset -= this.segmentSize) {
+				buffer.limit(offset + this.segmentSize).position(offset);
+				this.freeSegments.addLast(chunk.slice());
+			}
+			buffer.limit(this.segmentSize).position(0);
+			return chunk.slice();
+		}
+
+		synchronized void recycle(ByteBuffer segment) {
+			this.freeSegments.addLast(segment);
+		}
+	}
+
+
+	/**
+	 * Per-thread stacks of free segments for the smaller size classes.
+	 * <p>Only accessed by the owning thread, or by any other thread once
+	 * the owning thread has terminated.
+	 */
+	private static final class ThreadCache {
+
+		private final WeakReference<Thread> owner = new WeakReference<>(Thread.currentThread());
+
+		private final ByteBuffer[][] segments;
+
+		private final int[] counts;
+
+		ThreadCache(int sizeClasses) {
+			this.segments = new ByteBuffer[sizeClasses][THREAD_CACHE_SIZE];
+			this.counts = new int[sizeClasses];
+		}
+
+		@Nullable
+		ByteBuffer poll(int index) {
+			int count = this.counts[index];
+			if (count == 0) {
+				return null;
+			}
+			count--;
+			ByteBuffer segment = this.segments[index][count];
+			this.segments[index][count] = null;
+			this.counts[index] = count;
+			return segment;
+		}
+
+		boolean offer(int index, ByteBuffer segment) {
+			int count = this.counts[index];
+			if (count == THREAD_CACHE_SIZE) {
+				return false;
+			}
+			this.segments[index][count] = segment;
+			this.counts[index] = count + 1;
+			return true;
+		}
+	}
+
+
+	/**
+	 * Weak reference to an allocated buffer, registered for leak detection.
+	 * Holds on to the pooled segment of the buffer, if any, in order to
+	 * return it to the pool once the buffer turns out to have leaked.
+	 */
+	static final class LeakTracker extends WeakReference<Object> {
+
+		final Throwable allocation;
+
+		@Nullable
+		volatile ByteBuffer segment;
+
+		LeakTracker(Object dataBuffer, ReferenceQueue<Object> queue) {
+			super(dataBuffer, queue);
+			this.allocation = new Throwable("DataBuffer allocation");
+		}
+	}
+
+}
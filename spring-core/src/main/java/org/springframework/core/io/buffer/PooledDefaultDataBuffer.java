@@ -0,0 +1,333 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.IntPredicate;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Reference-counted {@link DefaultDataBuffer} backed by a segment of pooled
+ * direct memory, as allocated by a {@link PooledDataBufferFactory}.
+ *
+ * <p>Slices share the reference count of their parent buffer and reject
+ * any access once it has been released. {@link ByteBuffer} views obtained
+ * through {@link #asByteBuffer} cannot be checked that way and must not be
+ * used after the release of the buffer, since the underlying segment is
+ * recycled.
+ *
+ * @author agent
+ * @since 5.2.6
+ * @see PooledDataBufferFactory
+ */
+class PooledDefaultDataBuffer extends DefaultDataBuffer implements PooledDataBuffer {
+
+	private static final AtomicIntegerFieldUpdater<PooledDefaultDataBuffer> REF_COUNT_UPDATER =
+			AtomicIntegerFieldUpdater.newUpdater(PooledDefaultDataBuffer.class, "refCount");
+
+
+	private final PooledDataBufferFactory dataBufferFactory;
+
+	/** The pooled segment that the native buffer is a view on, if any. */
+	@Nullable
+	private ByteBuffer segment;
+
+	/** The pooled segment for a native buffer allocated on a capacity change. */
+	@Nullable
+	private ByteBuffer newSegment;
+
+	@Nullable
+	private PooledDataBufferFactory.LeakTracker leakTracker;
+
+	private volatile int refCount = 1;
+
+
+	PooledDefaultDataBuffer(PooledDataBufferFactory dataBufferFactory, int capacity) {
+		this(dataBufferFactory, dataBufferFactory.allocateSegment(capacity), capacity);
+	}
+
+	private PooledDefaultDataBuffer(
+			PooledDataBufferFactory dataBufferFactory, @Nullable ByteBuffer segment, int capacity) {
+
+		super(dataBufferFactory, nativeBuffer(segment, capacity));
+		this.dataBufferFactory = dataBufferFactory;
+		this.segment = segment;
+	}
+
+	private static ByteBuffer nativeBuffer(@Nullable ByteBuffer segment, int capacity) {
+		return (segment != null ? PooledDataBufferFactory.slice(segment, capacity) :
+				ByteBuffer.allocateDirect(capacity));
+	}
+
+
+	void setLeakTracker(PooledDataBufferFactory.LeakTracker leakTracker) {
+		leakTracker.segment = this.segment;
+		this.leakTracker = leakTracker;
+	}
+
+	@Override
+	public boolean isAllocated() {
+		return (this.refCount > 0);
+	}
+
+	@Override
+	public PooledDataBuffer retain() {
+		int refCount;
+		do {
+			refCount = this.refCount;
+			if (refCount <= 0) {
+				throw new IllegalStateException("Cannot retain deallocated buffer: " + this);
+			}
+		}
+		while (!REF_COUNT_UPDATER.compareAndSet(this, refCount, refCount + 1));
+		return this;
+	}
+
+	@Override
+	public boolean release() {
+		int refCount;
+		do {
+			refCount = this.refCount;
+			if (refCount <= 0) {
+				throw new IllegalStateException("Cannot release deallocated buffer: " + this);
+			}
+		}
+		while (!REF_COUNT_UPDATER.compareAndSet(this, refCount, refCount - 1));
+		if (refCount == 1) {
+			deallocate();
+			return true;
+		}
+		return false;
+	}
+
+	private void deallocate() {
+		ByteBuffer segment = this.segment;
+		this.segment = null;
+		readPosition(0);
+		writePosition(0);
+		setNativeBuffer(PooledDataBufferFactory.emptyBuffer());
+		if (segment != null) {
+			this.dataBufferFactory.recycleSegment(segment);
+		}
+		this.dataBufferFactory.deallocated(this.leakTracker);
+		this.leakTracker = null;
+	}
+
+	private void assertAllocated() {
+		if (!isAllocated()) {
+			throw new IllegalStateException("Buffer has been deallocated: " + this);
+		}
+	}
+
+
+	@Override
+	public DefaultDataBuffer capacity(int newCapacity) {
+		assertAllocated();
+		return super.capacity(newCapacity);
+	}
+
+	@Override
+	public DataBuffer ensureCapacity(int length) {
+		assertAllocated();
+		return super.ensureCapacity(length);
+	}
+
+	@Override
+	ByteBuffer allocateNativeBuffer(int capacity, boolean direct) {
+		ByteBuffer segment = this.dataBufferFactory.allocateSegment(capacity);
+		this.newSegment = segment;
+		return nativeBuffer(segment, capacity);
+	}
+
+	@Override
+	void releaseNativeBuffer(ByteBuffer nativeBuffer) {
+		ByteBuffer oldSegment = this.segment;
+		this.segment = this.newSegment;
+		this.newSegment = null;
+		if (this.leakTracker != null) {
+			this.leakTracker.segment = this.segment;
+		}
+		if (oldSegment != null) {
+			this.dataBufferFactory.recycleSegment(oldSegment);
+		}
+	}
+
+	@Override
+	public DefaultDataBuffer slice(int index, int length) {
+		assertAllocated();
+		ByteBuffer slice = asByteBuffer(index, length);
+		return new PooledSlice(this, slice);
+	}
+
+	@Override
+	public InputStream asInputStream(boolean releaseOnClose) {
+		InputStream inputStream = asInputStream();
+		return (releaseOnClose ? new ReleasingInputStream(inputStream, this) : inputStream);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("PooledDefaultDataBuffer (r: %d, w: %d, c: %d, refCount: %d)",
+				readPosition(), writePosition(), capacity(), this.refCount);
+	}
+
+
+	/**
+	 * Slice of a pooled buffer, sharing the reference count of its parent.
+	 * <p>The segment of the parent may be handed out to another buffer once
+	 * released, so all accessors check that the parent is still allocated.
+	 */
+	private static class PooledSlice extends DefaultDataBuffer implements PooledDataBuffer {
+
+		private final PooledDefaultDataBuffer parent;
+
+		PooledSlice(PooledDefaultDataBuffer parent, ByteBuffer slice) {
+			super(parent.dataBufferFactory, slice);
+			this.parent = parent;
+			writePosition(slice.remaining());
+		}
+
+		@Override
+		public boolean isAllocated() {
+			return this.parent.isAllocated();
+		}
+
+		@Override
+		public PooledDataBuffer retain() {
+			this.parent.retain();
+			return this;
+		}
+
+		@Override
+		public boolean release() {
+			return this.parent.release();
+		}
+
+		@Override
+		public DefaultDataBuffer capacity(int newCapacity) {
+			throw new UnsupportedOperationException("Changing the capacity of a sliced buffer is not supported");
+		}
+
+		@Override
+		public DataBuffer ensureCapacity(int length) {
+			this.parent.assertAllocated();
+			return super.ensureCapacity(length);
+		}
+
+		@Override
+		public int indexOf(IntPredicate predicate, int fromIndex) {
+			this.parent.assertAllocated();
+			return super.indexOf(predicate, fromIndex);
+		}
+
+		@Override
+		public int lastIndexOf(IntPredicate predicate, int fromIndex) {
+			this.parent.assertAllocated();
+			return super.lastIndexOf(predicate, fromIndex);
+		}
+
+		@Override
+		public byte getByte(int index) {
+			this.parent.assertAllocated();
+			return super.getByte(index);
+		}
+
+		@Override
+		public byte read() {
+			this.parent.assertAllocated();
+			return super.read();
+		}
+
+		@Override
+		public DefaultDataBuffer read(byte[] destination, int offset, int length) {
+			this.parent.assertAllocated();
+			return super.read(destination, offset, length);
+		}
+
+		@Override
+		public DefaultDataBuffer write(byte b) {
+			this.parent.assertAllocated();
+			return super.write(b);
+		}
+
+		@Override
+		public DefaultDataBuffer write(byte[] source, int offset, int length) {
+			this.parent.assertAllocated();
+			return super.write(source, offset, length);
+		}
+
+		@Override
+		public DefaultDataBuffer write(ByteBuffer... buffers) {
+			this.parent.assertAllocated();
+			return super.write(buffers);
+		}
+
+		@Override
+		public DefaultDataBuffer slice(int index, int length) {
+			return new PooledSlice(this.parent, asByteBuffer(index, length));
+		}
+
+		@Override
+		public ByteBuffer asByteBuffer(int index, int length) {
+			this.parent.assertAllocated();
+			return super.asByteBuffer(index, length);
+		}
+
+		@Override
+		public String toString(int index, int length, Charset charset) {
+			this.parent.assertAllocated();
+			return super.toString(index, length, charset);
+		}
+
+		@Override
+		public InputStream asInputStream(boolean releaseOnClose) {
+			InputStream inputStream = asInputStream();
+			return (releaseOnClose ? new ReleasingInputStream(inputStream, this) : inputStream);
+		}
+	}
+
+
+	/**
+	 * InputStream that releases the underlying buffer once closed.
+	 */
+	private static class ReleasingInputStream extends FilterInputStream {
+
+		private final PooledDataBuffer dataBuffer;
+
+		private boolean closed;
+
+		ReleasingInputStream(InputStream inputStream, PooledDataBuffer dataBuffer) {
+			super(inputStream);
+			this.dataBuffer = dataBuffer;
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (!this.closed) {
+				this.closed = true;
+				this.dataBuffer.release();
+			}
+		}
+	}
+
+}
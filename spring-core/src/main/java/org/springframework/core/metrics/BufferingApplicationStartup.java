@@ -0,0 +1,386 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.metrics;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+import org.springframework.core.NamedThreadLocal;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ApplicationStartup} implementation that buffers {@link StartupStep steps}
+ * in a fixed-size ring buffer and exports them as JSON.
+ *
+ * <p>Recording a step only involves a couple of atomic operations: ended steps
+ * are written into the next slot of the ring buffer, overwriting the oldest
+ * entries once the buffer capacity has been reached. Steps are nested per thread,
+ * so steps recorded by concurrent bootstrap threads get their own parent chain.
+ * Ending a step that still has running children on the same thread also
+ * closes the nesting of those children: subsequent steps become siblings
+ * of the ended step rather than children of an abandoned one.
+ *
+ * <p>Step start times are expressed in nanoseconds since the epoch: they are
+ * derived from the wall-clock time at construction of this instance plus the
+ * monotonic {@link System#nanoTime()} offset, so that durations are not affected
+ * by clock adjustments while start times remain comparable across exports.
+ *
+ * <p>The recorded steps can be retrieved via {@link #getBufferedSteps()} or
+ * written out in JSON format via {@link #writeJson(Writer)}:
+ * <pre class="code">
+ * [{"id":2,"parentId":1,"name":"spring.beans.instantiate","thread":"main",
+ *   "startTime":1587473294467000000,"duration":1208311,
+ *   "tags":{"beanName":"myService","beanType":"com.example.MyService"}}]
+ * </pre>
+ *
+ * @author agent
+ * @since 5.2.6
+ */
+public class BufferingApplicationStartup implements ApplicationStartup {
+
+	/** Default capacity of the ring buffer: 4096 steps. */
+	public static final int DEFAULT_CAPACITY = 4096;
+
+
+	private final AtomicReferenceArray<BufferedStartupStep> buffer;
+
+	private final long epochNanosBase = System.currentTimeMillis() * 1_000_000L;
+
+	private final long nanoTimeBase = System.nanoTime();
+
+	private final AtomicLong idSequence = new AtomicLong();
+
+	private final AtomicLong writeSequence = new AtomicLong();
+
+	private final ThreadLocal<BufferedStartupStep> currentStep = new NamedThreadLocal<>("Current startup step");
+
+
+	/**
+	 * Create a new {@code BufferingApplicationStartup} with the
+	 * {@link #DEFAULT_CAPACITY default capacity}.
+	 */
+	public BufferingApplicationStartup() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Create a new {@code BufferingApplicationStartup} with the given capacity.
+	 * @param capacity the maximum number of ended steps to keep
+	 */
+	public BufferingApplicationStartup(int capacity) {
+		Assert.isTrue(capacity > 0, "Capacity must be greater than 0");
+		this.buffer = new AtomicReferenceArray<>(capacity);
+	}
+
+
+	@Override
+	public StartupStep start(String name) {
+		BufferedStartupStep parent = this.currentStep.get();
+		BufferedStartupStep step = new BufferedStartupStep(
+				this.idSequence.incrementAndGet(), name, parent, System.nanoTime());
+		this.currentStep.set(step);
+		return step;
+	}
+
+	/**
+	 * Return the capacity of the ring buffer.
+	 */
+	public int getCapacity() {
+		return this.buffer.length();
+	}
+
+	/**
+	 * Return the total number of steps ended so far, including
+	 * the ones that have been overwritten in the ring buffer.
+	 */
+	public long getRecordedStepCount() {
+		return this.writeSequence.get();
+	}
+
+	/**
+	 * Return a snapshot of the ended steps currently held in the ring buffer,
+	 * in the order of their start.
+	 */
+	public List<BufferedStartupStep> getBufferedSteps() {
+		List<BufferedStartupStep> steps = new ArrayList<>(this.buffer.length());
+		for (int i = 0; i < this.buffer.length(); i++) {
+			BufferedStartupStep step = this.buffer.get(i);
+			if (step != null) {
+				steps.add(step);
+			}
+		}
+		steps.sort(Comparator.comparingLong(BufferedStartupStep::getId));
+		return steps;
+	}
+
+	/**
+	 * Clear the ring buffer, removing all ended steps.
+	 * <p>Steps that are still running will be recorded when they end.
+	 */
+	public void clear() {
+		for (int i = 0; i < this.buffer.length(); i++) {
+			this.buffer.set(i, null);
+		}
+	}
+
+	/**
+	 * Write the ended steps currently held in the ring buffer as a JSON array
+	 * to the given {@link Writer}.
+	 * @param writer the writer to write to (not closed by this method)
+	 * @throws IOException in case of I/O errors
+	 */
+	public void writeJson(Writer writer) throws IOException {
+		writer.write('[');
+		boolean first = true;
+		for (BufferedStartupStep step : getBufferedSteps()) {
+			if (!first) {
+				writer.write(',');
+			}
+			first = false;
+			writer.write("{\"id\":");
+			writer.write(Long.toString(step.getId()));
+			if (step.getParentId() != null) {
+				writer.write(",\"parentId\":");
+				writer.write(step.getParentId().toString());
+			}
+			writer.write(",\"name\":");
+			writeJsonString(writer, step.getName());
+			writer.write(",\"thread\":");
+			writeJsonString(writer, step.getThreadName());
+			writer.write(",\"startTime\":");
+			writer.write(Long.toString(step.getStartTime()));
+			writer.write(",\"duration\":");
+			writer.write(Long.toString(step.getDuration()));
+			writer.write(",\"tags\":{");
+			boolean firstTag = true;
+			for (StartupStep.Tag tag : step.getTags()) {
+				if (!firstTag) {
+					writer.write(',');
+				}
+				firstTag = false;
+				writeJsonString(writer, tag.getKey());
+				writer.write(':');
+				writeJsonString(writer, tag.getValue());
+			}
+			writer.write("}}");
+		}
+		writer.write(']');
+	}
+
+	/**
+	 * Return the ended steps currently held in the ring buffer as a JSON array.
+	 * @see #writeJson(Writer)
+	 */
+	public String toJson() {
+		StringWriter writer = new StringWriter();
+		try {
+			writeJson(writer);
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		return writer.toString();
+	}
+
+	private void record(BufferedStartupStep step) {
+		int index = (int) (this.writeSequence.getAndIncrement() % this.buffer.length());
+		this.buffer.set(index, step);
+		// Pop the ended step from the current thread's nesting, together with any
+		// children left running - a no-op if the step is not on this thread's chain
+		for (BufferedStartupStep candidate = this.currentStep.get(); candidate != null; candidate = candidate.parent) {
+			if (candidate == step) {
+				if (step.parent != null) {
+					this.currentStep.set(step.parent);
+				}
+				else {
+					this.currentStep.remove();
+				}
+				break;
+			}
+		}
+	}
+
+	private static void writeJsonString(Writer writer, String value) throws IOException {
+		writer.write('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+				case '"':
+					writer.write("\\\"");
+					break;
+				case '\\':
+					writer.write("\\\\");
+					break;
+				case '\n':
+					writer.write("\\n");
+					break;
+				case '\r':
+					writer.write("\\r");
+					break;
+				case '\t':
+					writer.write("\\t");
+					break;
+				default:
+					if (c < 0x20) {
+						writer.write(String.format("\\u%04x", (int) c));
+					}
+					else {
+						writer.write(c);
+					}
+			}
+		}
+		writer.write('"');
+	}
+
+
+	/**
+	 * {@link StartupStep} recorded by a {@link BufferingApplicationStartup}.
+	 */
+	public class BufferedStartupStep implements StartupStep {
+
+		private final long id;
+
+		private final String name;
+
+		@Nullable
+		private final BufferedStartupStep parent;
+
+		private final long startNanoTime;
+
+		private final String threadName;
+
+		private final List<StartupStep.Tag> tags = new ArrayList<>(2);
+
+		private volatile long duration = -1;
+
+		BufferedStartupStep(long id, String name, @Nullable BufferedStartupStep parent, long startNanoTime) {
+			this.id = id;
+			this.name = name;
+			this.parent = parent;
+			this.startNanoTime = startNanoTime;
+			this.threadName = Thread.currentThread().getName();
+		}
+
+		@Override
+		public String getName() {
+			return this.name;
+		}
+
+		@Override
+		public long getId() {
+			return this.id;
+		}
+
+		@Override
+		@Nullable
+		public Long getParentId() {
+			return (this.parent != null ? this.parent.getId() : null);
+		}
+
+		/**
+		 * Return the name of the thread that started this step.
+		 */
+		public String getThreadName() {
+			return this.threadName;
+		}
+
+		/**
+		 * Return the start time of this step, in nanoseconds since the epoch.
+		 * @see System#currentTimeMillis()
+		 */
+		public long getStartTime() {
+			return epochNanosBase + (this.startNanoTime - nanoTimeBase);
+		}
+
+		/**
+		 * Return the duration of this step in nanoseconds,
+		 * or {@code -1} if the step has not ended yet.
+		 */
+		public long getDuration() {
+			return this.duration;
+		}
+
+		@Override
+		public StartupStep tag(String key, String value) {
+			Assert.state(this.duration < 0, "StartupStep has already ended");
+			this.tags.add(new BufferedTag(key, value));
+			return this;
+		}
+
+		@Override
+		public StartupStep tag(String key, Supplier<String> value) {
+			return tag(key, value.get());
+		}
+
+		@Override
+		public Tags getTags() {
+			List<StartupStep.Tag> tags = Collections.unmodifiableList(this.tags);
+			return tags::iterator;
+		}
+
+		@Override
+		public void end() {
+			Assert.state(this.duration < 0, "StartupStep has already ended");
+			this.duration = System.nanoTime() - this.startNanoTime;
+			record(this);
+		}
+
+		@Override
+		public String toString() {
+			return "StartupStep '" + this.name + "' [id=" + this.id + ", duration=" + this.duration + "ns]";
+		}
+	}
+
+
+	private static class BufferedTag implements StartupStep.Tag {
+
+		private final String key;
+
+		private final String value;
+
+		BufferedTag(String key, String value) {
+			this.key = key;
+			this.value = value;
+		}
+
+		@Override
+		public String getKey() {
+			return this.key;
+		}
+
+		@Override
+		public String getValue() {
+			return this.value;
+		}
+
+		@Override
+		public String toString() {
+			return this.key + "=" + this.value;
+		}
+	}
+
+}
@@ -0,0 +1,366 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.asm.Opcodes;
+import org.springframework.core.annotation.MergedAnnotation;
+import org.springframework.core.annotation.MergedAnnotation.Adapt;
+import org.springframework.core.annotation.MergedAnnotations;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Compact binary encoding of {@link SimpleAnnotationMetadata}, as used by
+ * {@link PersistentMetadataReaderFactory}.
+ *
+ * <p>Annotations are stored with their merged attribute values, class values
+ * as class names and nested annotations as attribute maps, and are turned back
+ * into {@link MergedAnnotation} instances via {@link MergedAnnotation#of}.
+ * Annotation and enum types are resolved against the given ClassLoader on
+ * decoding, just like when reading the class file through ASM.
+ *
+ * @author agent
+ * @since 5.2.6
+ */
+final class AnnotationMetadataCodec {
+
+	private static final int STRING = 1;
+
+	private static final int BOOLEAN = 2;
+
+	private static final int BYTE = 3;
+
+	private static final int CHAR = 4;
+
+	private static final int SHORT = 5;
+
+	private static final int INT = 6;
+
+	private static final int LONG = 7;
+
+	private static final int FLOAT = 8;
+
+	private static final int DOUBLE = 9;
+
+	private static final int ENUM = 10;
+
+	private static final int MAP = 11;
+
+	private static final int ARRAY = 12;
+
+
+	private AnnotationMetadataCodec() {
+	}
+
+
+	/**
+	 * Encode the given metadata, as obtained from a {@link SimpleMetadataReader}.
+	 * @param metadata the metadata to encode
+	 * @return the encoded form
+	 * @throws IllegalArgumentException if the metadata cannot be encoded
+	 */
+	public static byte[] encode(AnnotationMetadata metadata) {
+		if (!(metadata instanceof SimpleAnnotationMetadata)) {
+			throw new IllegalArgumentException("Unsupported AnnotationMetadata type: " + metadata.getClass());
+		}
+		try {
+			ByteArrayOutputStream bos = new ByteArrayOutputStream(256);
+			DataOutputStream out = new DataOutputStream(bos);
+			out.writeUTF(metadata.getClassName());
+			int access = (metadata.isInterface() ? Opcodes.ACC_INTERFACE : 0) |
+					(metadata.isAnnotation() ? Opcodes.ACC_ANNOTATION : 0) |
+					(metadata.isAbstract() ? Opcodes.ACC_ABSTRACT : 0) |
+					(metadata.isFinal() ? Opcodes.ACC_FINAL : 0);
+			out.writeInt(access);
+			writeNullableString(out, metadata.getEnclosingClassName());
+			writeNullableString(out, metadata.getSuperClassName());
+			out.writeBoolean(metadata.isIndependent());
+			writeStrings(out, metadata.getInterfaceNames());
+			writeStrings(out, metadata.getMemberClassNames());
+			writeAnnotations(out, metadata.getAnnotations());
+			MethodMetadata[] methods = ((SimpleAnnotationMetadata) metadata).getAllAnnotatedMethods();
+			out.writeInt(methods.length);
+			for (MethodMetadata method : methods) {
+				writeMethod(out, method);
+			}
+			out.flush();
+			return bos.toByteArray();
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Unexpected I/O exception on in-memory stream", ex);
+		}
+	}
+
+	/**
+	 * Decode metadata from the given bytes.
+	 * @param bytes the encoded form
+	 * @param classLoader the ClassLoader to resolve annotation and enum types against
+	 * @return the decoded metadata
+	 * @throws IOException if the encoded form is corrupt
+	 * @throws IllegalArgumentException if an enum value cannot be resolved
+	 */
+	public static AnnotationMetadata decode(byte[] bytes, @Nullable ClassLoader classLoader) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+		String className = in.readUTF();
+		int access = in.readInt();
+		String enclosingClassName = readNullableString(in);
+		String superClassName = readNullableString(in);
+		boolean independent = in.readBoolean();
+		String[] interfaceNames = readStrings(in);
+		String[] memberClassNames = readStrings(in);
+		MergedAnnotations annotations = readAnnotations(in, classLoader,
+				new SimpleAnnotationMetadataReadingVisitor.Source(className));
+		MethodMetadata[] methods = new MethodMetadata[in.readInt()];
+		for (int i = 0; i < methods.length; i++) {
+			methods[i] = readMethod(in, classLoader);
+		}
+		return new SimpleAnnotationMetadata(className, access, enclosingClassName, superClassName,
+				independent, interfaceNames, memberClassNames, methods, annotations);
+	}
+
+
+	private static void writeMethod(DataOutputStream out, MethodMetadata method) throws IOException {
+		if (!(method instanceof SimpleMethodMetadata)) {
+			throw new IllegalArgumentException("Unsupported MethodMetadata type: " + method.getClass());
+		}
+		Iterator<MergedAnnotation<Annotation>> it = method.getAnnotations().iterator();
+		Object source = (it.hasNext() ? it.next().getSource() : null);
+		if (!(source instanceof SimpleMethodMetadataReadingVisitor.Source)) {
+			throw new IllegalArgumentException("Unsupported method annotation source: " + source);
+		}
+		int access = (method.isAbstract() ? Opcodes.ACC_ABSTRACT : 0) |
+				(method.isStatic() ? Opcodes.ACC_STATIC : 0) |
+				(method.isFinal() ? Opcodes.ACC_FINAL : 0) |
+				(((SimpleMethodMetadata) method).isPrivate() ? Opcodes.ACC_PRIVATE : 0);
+		out.writeUTF(method.getMethodName());
+		out.writeInt(access);
+		out.writeUTF(method.getDeclaringClassName());
+		out.writeUTF(method.getReturnTypeName());
+		out.writeUTF(((SimpleMethodMetadataReadingVisitor.Source) source).getDescriptor());
+		writeAnnotations(out, method.getAnnotations());
+	}
+
+	private static MethodMetadata readMethod(DataInputStream in, @Nullable ClassLoader classLoader)
+			throws IOException {
+
+		String methodName = in.readUTF();
+		int access = in.readInt();
+		String declaringClassName = in.readUTF();
+		String returnTypeName = in.readUTF();
+		String descriptor = in.readUTF();
+		MergedAnnotations annotations = readAnnotations(in, classLoader,
+				new SimpleMethodMetadataReadingVisitor.Source(declaringClassName, methodName, descriptor));
+		return new SimpleMethodMetadata(methodName, access, declaringClassName, returnTypeName, annotations);
+	}
+
+	private static void writeAnnotations(DataOutputStream out, MergedAnnotations annotations) throws IOException {
+		List<MergedAnnotation<Annotation>> directAnnotations = new ArrayList<>();
+		for (MergedAnnotation<Annotation> annotation : annotations) {
+			if (annotation.getDistance() == 0) {
+				directAnnotations.add(annotation);
+			}
+		}
+		out.writeInt(directAnnotations.size());
+		for (MergedAnnotation<Annotation> annotation : directAnnotations) {
+			out.writeUTF(annotation.getType().getName());
+			writeMap(out, annotation.asMap(Adapt.CLASS_TO_STRING, Adapt.ANNOTATION_TO_MAP));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static MergedAnnotations readAnnotations(DataInputStream in, @Nullable ClassLoader classLoader,
+			Object source) throws IOException {
+
+		int count = in.readInt();
+		List<MergedAnnotation<?>> annotations = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			String typeName = in.readUTF();
+			Map<String, Object> attributes = readMap(in, classLoader);
+			try {
+				Class<Annotation> type = (Class<Annotation>) ClassUtils.forName(typeName, classLoader);
+				annotations.add(MergedAnnotation.of(classLoader, source, type, attributes));
+			}
+			catch (ClassNotFoundException | LinkageError ex) {
+				// Annotation type not present anymore: skip it, just like when reading the class file
+			}
+		}
+		return MergedAnnotations.of(annotations);
+	}
+
+	private static void writeMap(DataOutputStream out, Map<?, ?> map) throws IOException {
+		out.writeInt(map.size());
+		for (Map.Entry<?, ?> entry : map.entrySet()) {
+			out.writeUTF((String) entry.getKey());
+			writeValue(out, entry.getValue());
+		}
+	}
+
+	private static Map<String, Object> readMap(DataInputStream in, @Nullable ClassLoader classLoader)
+			throws IOException {
+
+		int size = in.readInt();
+		Map<String, Object> map = new LinkedHashMap<>(size * 2);
+		for (int i = 0; i < size; i++) {
+			map.put(in.readUTF(), readValue(in, classLoader));
+		}
+		return map;
+	}
+
+	private static void writeValue(DataOutputStream out, Object value) throws IOException {
+		if (value instanceof String) {
+			out.writeByte(STRING);
+			out.writeUTF((String) value);
+		}
+		else if (value instanceof Boolean) {
+			out.writeByte(BOOLEAN);
+			out.writeBoolean((Boolean) value);
+		}
+		else if (value instanceof Byte) {
+			out.writeByte(BYTE);
+			out.writeByte((Byte) value);
+		}
+		else if (value instanceof Character) {
+			out.writeByte(CHAR);
+			out.writeChar((Character) value);
+		}
+		else if (value instanceof Short) {
+			out.writeByte(SHORT);
+			out.writeShort((Short) value);
+		}
+		else if (value instanceof Integer) {
+			out.writeByte(INT);
+			out.writeInt((Integer) value);
+		}
+		else if (value instanceof Long) {
+			out.writeByte(LONG);
+			out.writeLong((Long) value);
+		}
+		else if (value instanceof Float) {
+			out.writeByte(FLOAT);
+			out.writeFloat((Float) value);
+		}
+		else if (value instanceof Double) {
+			out.writeByte(DOUBLE);
+			out.writeDouble((Double) value);
+		}
+		else if (value instanceof Enum) {
+			out.writeByte(ENUM);
+			out.writeUTF(((Enum<?>) value).getDeclaringClass().getName());
+			out.writeUTF(((Enum<?>) value).name());
+		}
+		else if (value instanceof Map) {
+			out.writeByte(MAP);
+			writeMap(out, (Map<?, ?>) value);
+		}
+		else if (value.getClass().isArray()) {
+			Class<?> componentType = value.getClass().getComponentType();
+			int length = Array.getLength(value);
+			out.writeByte(ARRAY);
+			out.writeUTF(Map.class.isAssignableFrom(componentType) ? Map.class.getName() : componentType.getName());
+			out.writeInt(length);
+			for (int i = 0; i < length; i++) {
+				writeValue(out, Array.get(value, i));
+			}
+		}
+		else {
+			throw new IllegalArgumentException("Unsupported annotation attribute value: " + value);
+		}
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static Object readValue(DataInputStream in, @Nullable ClassLoader classLoader) throws IOException {
+		int tag = in.readByte();
+		switch (tag) {
+			case STRING:
+				return in.readUTF();
+			case BOOLEAN:
+				return in.readBoolean();
+			case BYTE:
+				return in.readByte();
+			case CHAR:
+				return in.readChar();
+			case SHORT:
+				return in.readShort();
+			case INT:
+				return in.readInt();
+			case LONG:
+				return in.readLong();
+			case FLOAT:
+				return in.readFloat();
+			case DOUBLE:
+				return in.readDouble();
+			case ENUM:
+				Class enumType = ClassUtils.resolveClassName(in.readUTF(), classLoader);
+				return Enum.valueOf(enumType, in.readUTF());
+			case MAP:
+				return readMap(in, classLoader);
+			case ARRAY:
+				Class<?> componentType = ClassUtils.resolveClassName(in.readUTF(), classLoader);
+				int length = in.readInt();
+				Object array = Array.newInstance(componentType, length);
+				for (int i = 0; i < length; i++) {
+					Array.set(array, i, readValue(in, classLoader));
+				}
+				return array;
+			default:
+				throw new IOException("Corrupt annotation attribute value with tag " + tag);
+		}
+	}
+
+	private static void writeNullableString(DataOutputStream out, @Nullable String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeUTF(value);
+		}
+	}
+
+	@Nullable
+	private static String readNullableString(DataInputStream in) throws IOException {
+		return (in.readBoolean() ? in.readUTF() : null);
+	}
+
+	private static void writeStrings(DataOutputStream out, String[] values) throws IOException {
+		out.writeInt(values.length);
+		for (String value : values) {
+			out.writeUTF(value);
+		}
+	}
+
+	private static String[] readStrings(DataInputStream in) throws IOException {
+		String[] values = new String[in.readInt()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = in.readUTF();
+		}
+		return values;
+	}
+
+}
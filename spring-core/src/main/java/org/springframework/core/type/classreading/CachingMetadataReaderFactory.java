@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,7 +19,10 @@ package org.springframework.core.type.classreading;
 import java.io.IOException;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 import org.springframework.core.io.DefaultResourceLoader;
 import org.springframework.core.io.Resource;
@@ -44,6 +47,9 @@ public class CachingMetadataReaderFactory extends SimpleMetadataReaderFactory {
 	@Nullable
 	private Map<Resource, MetadataReader> metadataReaderCache;
 
+	/** MetadataReaders currently being loaded, for concurrent requests to wait for. */
+	private final ConcurrentMap<Resource, FutureTask<MetadataReader>> loadingTasks = new ConcurrentHashMap<>(16);
+
 
 	/**
 	 * Create a new CachingMetadataReaderFactory for the default class loader,
@@ -116,28 +122,77 @@ public class CachingMetadataReaderFactory extends SimpleMetadataReaderFactory {
 
 	@Override
 	public MetadataReader getMetadataReader(Resource resource) throws IOException {
-		if (this.metadataReaderCache instanceof ConcurrentMap) {
+		Map<Resource, MetadataReader> cache = this.metadataReaderCache;
+		if (cache == null) {
+			return super.getMetadataReader(resource);
+		}
+		MetadataReader metadataReader;
+		if (cache instanceof ConcurrentMap) {
 			// No synchronization necessary...
-			MetadataReader metadataReader = this.metadataReaderCache.get(resource);
-			if (metadataReader == null) {
-				metadataReader = super.getMetadataReader(resource);
-				this.metadataReaderCache.put(resource, metadataReader);
+			metadataReader = cache.get(resource);
+		}
+		else {
+			synchronized (cache) {
+				metadataReader = cache.get(resource);
 			}
-			return metadataReader;
 		}
-		else if (this.metadataReaderCache != null) {
-			synchronized (this.metadataReaderCache) {
-				MetadataReader metadataReader = this.metadataReaderCache.get(resource);
-				if (metadataReader == null) {
-					metadataReader = super.getMetadataReader(resource);
-					this.metadataReaderCache.put(resource, metadataReader);
+		if (metadataReader == null) {
+			metadataReader = loadMetadataReader(resource, cache);
+		}
+		return metadataReader;
+	}
+
+	/**
+	 * Load the MetadataReader for the given resource and put it into the given cache.
+	 * <p>Concurrent requests for the same resource wait for the first one to parse it,
+	 * whereas different resources are parsed concurrently, outside of the cache lock.
+	 */
+	private MetadataReader loadMetadataReader(Resource resource, Map<Resource, MetadataReader> cache)
+			throws IOException {
+
+		FutureTask<MetadataReader> newTask = new FutureTask<>(() -> super.getMetadataReader(resource));
+		FutureTask<MetadataReader> loadingTask = this.loadingTasks.putIfAbsent(resource, newTask);
+		if (loadingTask == null) {
+			loadingTask = newTask;
+			newTask.run();
+		}
+		try {
+			MetadataReader metadataReader = loadingTask.get();
+			if (loadingTask == newTask) {
+				if (cache instanceof ConcurrentMap) {
+					cache.put(resource, metadataReader);
+				}
+				else {
+					synchronized (cache) {
+						cache.put(resource, metadataReader);
+					}
 				}
-				return metadataReader;
 			}
+			return metadataReader;
 		}
-		else {
+		catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException("Failed to read class metadata for " + resource, cause);
+		}
+		catch (InterruptedException ex) {
+			// Interrupted while waiting for another thread: parse it ourselves
+			Thread.currentThread().interrupt();
 			return super.getMetadataReader(resource);
 		}
+		finally {
+			if (loadingTask == newTask) {
+				this.loadingTasks.remove(resource, newTask);
+			}
+		}
 	}
 
 	/**
@@ -156,8 +211,13 @@ public class CachingMetadataReaderFactory extends SimpleMetadataReaderFactory {
 	}
 
 
+	/**
+	 * Local MetadataReader cache with a limit on the number of entries,
+	 * evicting the least recently accessed entries. Not thread-safe:
+	 * access needs to be synchronized on the cache instance.
+	 */
 	@SuppressWarnings("serial")
-	private static class LocalResourceCache extends LinkedHashMap<Resource, MetadataReader> {
+	static class LocalResourceCache extends LinkedHashMap<Resource, MetadataReader> {
 
 		private volatile int cacheLimit;
 
@@ -0,0 +1,363 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link MetadataReaderFactory} implementation which keeps the class metadata
+ * that it reads in a binary cache file, avoiding ASM parsing of unchanged class
+ * files on subsequent starts of the same application.
+ *
+ * <p>Cache entries are keyed by the URL of the class file resource and validated
+ * against its last-modified timestamp and content length. An existing cache file
+ * is read into memory on construction, with individual entries only being decoded
+ * when requested; the file itself is not held open, so it can be replaced on
+ * {@link #writeCache()} on any platform. Class files which changed in the meantime, as well as resources
+ * without a last-modified timestamp, are parsed through ASM as usual.
+ *
+ * <p>The metadata obtained during the current run is written back to the cache
+ * file on {@link #writeCache()}, typically once the application context has been
+ * refreshed. Entries which have not been requested during the current run are
+ * dropped at that point, so the cache file only ever reflects the most recent run.
+ *
+ * <p>Like a {@link CachingMetadataReaderFactory} with a local resource cache,
+ * this factory holds on to a limited number of {@link MetadataReader} instances
+ * that it returned, as specified through {@link #setCacheLimit}.
+ *
+ * @author agent
+ * @since 5.2.6
+ * @see org.springframework.context.annotation.ConfigurationClassPostProcessor#setMetadataReaderFactory
+ * @see org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider#setMetadataReaderFactory
+ */
+public class PersistentMetadataReaderFactory extends SimpleMetadataReaderFactory {
+
+	private static final int MAGIC = 0x53504d43;
+
+	private static final int FORMAT_VERSION = 1;
+
+	private static final Log logger = LogFactory.getLog(PersistentMetadataReaderFactory.class);
+
+
+	private final File cacheFile;
+
+	/** Entries in the existing cache file, keyed by resource URL. */
+	private final Map<String, CacheEntry> persistentEntries;
+
+	/** Entries requested during the current run, keyed by resource URL. */
+	private final Map<String, CacheEntry> currentEntries = new ConcurrentHashMap<>(256);
+
+	/** MetadataReader cache, keeping the most recently requested readers. */
+	private final CachingMetadataReaderFactory.LocalResourceCache metadataReaderCache =
+			new CachingMetadataReaderFactory.LocalResourceCache(CachingMetadataReaderFactory.DEFAULT_CACHE_LIMIT);
+
+	private volatile boolean modified;
+
+
+	/**
+	 * Create a new PersistentMetadataReaderFactory for the default class loader.
+	 * @param cacheFile the cache file to read from and write to
+	 * (does not need to exist yet)
+	 */
+	public PersistentMetadataReaderFactory(File cacheFile) {
+		super();
+		this.cacheFile = cacheFile;
+		this.persistentEntries = readCacheFile(cacheFile);
+	}
+
+	/**
+	 * Create a new PersistentMetadataReaderFactory for the given resource loader.
+	 * @param resourceLoader the Spring ResourceLoader to use
+	 * (also determines the ClassLoader to use)
+	 * @param cacheFile the cache file to read from and write to
+	 * (does not need to exist yet)
+	 */
+	public PersistentMetadataReaderFactory(@Nullable ResourceLoader resourceLoader, File cacheFile) {
+		super(resourceLoader);
+		this.cacheFile = cacheFile;
+		this.persistentEntries = readCacheFile(cacheFile);
+	}
+
+	/**
+	 * Create a new PersistentMetadataReaderFactory for the given class loader.
+	 * @param classLoader the ClassLoader to use
+	 * @param cacheFile the cache file to read from and write to
+	 * (does not need to exist yet)
+	 */
+	public PersistentMetadataReaderFactory(@Nullable ClassLoader classLoader, File cacheFile) {
+		super(classLoader);
+		this.cacheFile = cacheFile;
+		this.persistentEntries = readCacheFile(cacheFile);
+	}
+
+
+	/**
+	 * Return the cache file that this factory reads from and writes to.
+	 */
+	public final File getCacheFile() {
+		return this.cacheFile;
+	}
+
+	/**
+	 * Specify the maximum number of entries for the MetadataReader cache.
+	 * <p>Default is 256, as for a local cache in {@link CachingMetadataReaderFactory}.
+	 * Metadata obtained during the current run is kept in encoded form for
+	 * {@link #writeCache()} in any case, independent of this limit.
+	 */
+	public void setCacheLimit(int cacheLimit) {
+		this.metadataReaderCache.setCacheLimit(cacheLimit);
+	}
+
+	/**
+	 * Return the maximum number of entries for the MetadataReader cache.
+	 */
+	public int getCacheLimit() {
+		return this.metadataReaderCache.getCacheLimit();
+	}
+
+	@Override
+	public MetadataReader getMetadataReader(Resource resource) throws IOException {
+		MetadataReader metadataReader;
+		synchronized (this.metadataReaderCache) {
+			metadataReader = this.metadataReaderCache.get(resource);
+		}
+		if (metadataReader == null) {
+			// Read outside of the lock, allowing for concurrent reads of different class files
+			metadataReader = readMetadata(resource);
+			synchronized (this.metadataReaderCache) {
+				this.metadataReaderCache.put(resource, metadataReader);
+			}
+		}
+		return metadataReader;
+	}
+
+	private MetadataReader readMetadata(Resource resource) throws IOException {
+		long lastModified = resource.lastModified();
+		if (lastModified <= 0) {
+			return super.getMetadataReader(resource);
+		}
+		long contentLength = resource.contentLength();
+		String key = resource.getURL().toExternalForm();
+		ClassLoader classLoader = getResourceLoader().getClassLoader();
+
+		CacheEntry entry = this.persistentEntries.get(key);
+		if (entry != null && entry.lastModified == lastModified && entry.contentLength == contentLength) {
+			try {
+				AnnotationMetadata metadata = AnnotationMetadataCodec.decode(entry.getContent(), classLoader);
+				this.currentEntries.put(key, entry);
+				return new SimpleMetadataReader(resource, metadata);
+			}
+			catch (IOException | RuntimeException | LinkageError ex) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Failed to decode cached metadata for " + resource + ": " + ex);
+				}
+			}
+		}
+
+		MetadataReader metadataReader = super.getMetadataReader(resource);
+		try {
+			byte[] content = AnnotationMetadataCodec.encode(metadataReader.getAnnotationMetadata());
+			this.currentEntries.put(key, new CacheEntry(lastModified, contentLength, ByteBuffer.wrap(content)));
+			this.modified = true;
+		}
+		catch (IllegalArgumentException ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Cannot cache metadata for " + resource + ": " + ex.getMessage());
+			}
+		}
+		return metadataReader;
+	}
+
+	/**
+	 * Write the metadata obtained during the current run to the cache file,
+	 * if any metadata had to be read from class files.
+	 * <p>The file gets written to a temporary file next to it first, then
+	 * replacing the existing cache file.
+	 * @throws IOException in case of I/O errors
+	 */
+	public synchronized void writeCache() throws IOException {
+		if (!this.modified) {
+			return;
+		}
+		List<Map.Entry<String, CacheEntry>> entries = new ArrayList<>(this.currentEntries.entrySet());
+		Path targetFile = this.cacheFile.toPath().toAbsolutePath();
+		Path parentDir = targetFile.getParent();
+		Files.createDirectories(parentDir);
+		Path tempFile = Files.createTempFile(parentDir, this.cacheFile.getName(), ".tmp");
+		try {
+			try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(tempFile))) {
+				writeCacheFile(entries, new DataOutputStream(os));
+			}
+			try {
+				Files.move(tempFile, targetFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch (AtomicMoveNotSupportedException ex) {
+				Files.move(tempFile, targetFile, StandardCopyOption.REPLACE_EXISTING);
+			}
+			this.modified = false;
+		}
+		finally {
+			Files.deleteIfExists(tempFile);
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("Wrote " + entries.size() + " class metadata entries to " + this.cacheFile);
+		}
+	}
+
+	/**
+	 * Clear the in-memory MetadataReader cache, removing all cached class metadata.
+	 * <p>Metadata obtained during the current run is still kept in encoded form,
+	 * for writing it to the cache file.
+	 */
+	public void clearCache() {
+		synchronized (this.metadataReaderCache) {
+			this.metadataReaderCache.clear();
+		}
+	}
+
+
+	/**
+	 * Read the index of the given cache file, keeping its content in memory.
+	 * A missing, outdated or corrupt cache file leads to an empty index.
+	 */
+	private static Map<String, CacheEntry> readCacheFile(File cacheFile) {
+		Assert.notNull(cacheFile, "Cache file must not be null");
+		if (!cacheFile.isFile()) {
+			return Collections.emptyMap();
+		}
+		try {
+			ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(cacheFile.toPath()));
+			if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+				return Collections.emptyMap();
+			}
+			byte[] index = new byte[buffer.getInt()];
+			buffer.get(index);
+			int contentOffset = buffer.position();
+			DataInputStream in = new DataInputStream(new ByteArrayInputStream(index));
+			int count = in.readInt();
+			Map<String, CacheEntry> entries = new HashMap<>(count * 2);
+			for (int i = 0; i < count; i++) {
+				String key = in.readUTF();
+				long lastModified = in.readLong();
+				long contentLength = in.readLong();
+				int offset = in.readInt();
+				int length = in.readInt();
+				ByteBuffer content = buffer.duplicate();
+				content.position(contentOffset + offset);
+				content.limit(contentOffset + offset + length);
+				entries.put(key, new CacheEntry(lastModified, contentLength, content.slice()));
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Read " + count + " class metadata entries from " + cacheFile);
+			}
+			return entries;
+		}
+		catch (IOException | BufferUnderflowException | IllegalArgumentException ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Ignoring unreadable metadata cache file " + cacheFile + ": " + ex);
+			}
+			return Collections.emptyMap();
+		}
+	}
+
+	private static void writeCacheFile(List<Map.Entry<String, CacheEntry>> entries, DataOutputStream out)
+			throws IOException {
+
+		ByteArrayOutputStream indexBytes = new ByteArrayOutputStream(entries.size() * 128);
+		DataOutputStream index = new DataOutputStream(indexBytes);
+		index.writeInt(entries.size());
+		int offset = 0;
+		for (Map.Entry<String, CacheEntry> entry : entries) {
+			CacheEntry cacheEntry = entry.getValue();
+			index.writeUTF(entry.getKey());
+			index.writeLong(cacheEntry.lastModified);
+			index.writeLong(cacheEntry.contentLength);
+			index.writeInt(offset);
+			index.writeInt(cacheEntry.length());
+			offset += cacheEntry.length();
+		}
+		index.flush();
+
+		out.writeInt(MAGIC);
+		out.writeInt(FORMAT_VERSION);
+		out.writeInt(indexBytes.size());
+		indexBytes.writeTo(out);
+		for (Map.Entry<String, CacheEntry> entry : entries) {
+			out.write(entry.getValue().getContent());
+		}
+		out.flush();
+	}
+
+
+	/**
+	 * Encoded metadata for a class file, along with the class file's
+	 * last-modified timestamp and content length at the time of encoding.
+	 */
+	private static final class CacheEntry {
+
+		final long lastModified;
+
+		final long contentLength;
+
+		private final ByteBuffer content;
+
+		CacheEntry(long lastModified, long contentLength, ByteBuffer content) {
+			this.lastModified = lastModified;
+			this.contentLength = contentLength;
+			this.content = content;
+		}
+
+		int length() {
+			return this.content.remaining();
+		}
+
+		byte[] getContent() {
+			byte[] bytes = new byte[this.content.remaining()];
+			this.content.duplicate().get(bytes);
+			return bytes;
+		}
+	}
+
+}
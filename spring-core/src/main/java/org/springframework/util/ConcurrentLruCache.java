@@ -0,0 +1,796 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToIntBiFunction;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.ConcurrentReferenceHashMap.ReferenceType;
+
+/**
+ * Bounded, thread-safe cache that evicts the least recently used entries
+ * once its size limit has been reached.
+ *
+ * <p>Entries are distributed across segments, each of which keeps its share
+ * of the size limit. Lookups are lock-free: they read from a concurrent map
+ * and only mark the entry as recently used. Additions and removals lock the
+ * affected segment, with eviction giving recently used entries a second
+ * chance (a "clock" approximation of least-recently-used order) instead of
+ * reordering entries on every read.
+ *
+ * <p>Values are either computed by a generator function on {@link #get(Object)},
+ * or explicitly added through {@link #putIfAbsent}. The generator is invoked
+ * outside of any lock, so it may access this cache itself; concurrent misses
+ * for the same key may compute the value more than once, with the first stored
+ * value winning. {@code null} keys and values are not supported.
+ *
+ * <p>By default, keys and values are strongly referenced until evicted. A cache
+ * may also be created with a {@link ReferenceType}, holding each entry through
+ * a soft or weak reference as in {@link ConcurrentReferenceHashMap}: such a cache
+ * is suitable for keys such as {@code Class} or {@code Method} instances from
+ * arbitrary class loaders, since it does not prevent their garbage collection.
+ * Entries cleared by the garbage collector are treated as absent.
+ *
+ * <p>Hit, miss and eviction counts are recorded for tuning the size limit, along
+ * with an estimate of the memory retained by the cache (see {@link #setWeigher}),
+ * and caches may be registered with the {@link ConcurrentLruCacheRegistry}
+ * for reporting.
+ *
+ * @author agent
+ * @since 5.2.6
+ * @param <K> the type of the key used for caching
+ * @param <V> the type of the cached values
+ * @see ConcurrentLruCacheRegistry
+ */
+public class ConcurrentLruCache<K, V> {
+
+	private static final int MAXIMUM_SEGMENT_COUNT = 16;
+
+	private static final int MINIMUM_SEGMENT_SIZE = 8;
+
+	/**
+	 * Estimated memory in bytes for the structures of a strongly referenced
+	 * entry: entries in the concurrent map and the eviction queue plus the node.
+	 */
+	private static final int STRONG_ENTRY_OVERHEAD = 112;
+
+	/**
+	 * Estimated memory in bytes for the structures of a softly or weakly referenced
+	 * entry, additionally holding the reference object and the referenced entry.
+	 */
+	private static final int REFERENCE_ENTRY_OVERHEAD = 176;
+
+
+	@Nullable
+	private final Function<K, V> generator;
+
+	@Nullable
+	private final ReferenceType referenceType;
+
+	@Nullable
+	private final ReferenceQueue<Object> referenceQueue;
+
+	private final Segment<K, V>[] segments;
+
+	private volatile int sizeLimit;
+
+	@Nullable
+	private volatile ToIntBiFunction<? super K, ? super V> weigher;
+
+	private final LongAdder hitCount = new LongAdder();
+
+	private final LongAdder missCount = new LongAdder();
+
+	private final LongAdder evictionCount = new LongAdder();
+
+
+	/**
+	 * Create a new cache with the given size limit, for values to be
+	 * added through {@link #putIfAbsent}.
+	 * @param sizeLimit the maximum number of entries in the cache
+	 */
+	public ConcurrentLruCache(int sizeLimit) {
+		this(sizeLimit, null);
+	}
+
+	/**
+	 * Create a new cache with the given size limit and generator function.
+	 * @param sizeLimit the maximum number of entries in the cache
+	 * @param generator the function to compute values for keys not cached yet
+	 */
+	public ConcurrentLruCache(int sizeLimit, @Nullable Function<K, V> generator) {
+		this(sizeLimit, generator, null);
+	}
+
+	/**
+	 * Create a new cache with the given size limit and generator function,
+	 * holding its entries through references of the given type.
+	 * @param sizeLimit the maximum number of entries in the cache
+	 * @param generator the function to compute values for keys not cached yet
+	 * @param referenceType the type of references to hold entries through,
+	 * or {@code null} for strong references
+	 */
+	@SuppressWarnings("unchecked")
+	public ConcurrentLruCache(int sizeLimit, @Nullable Function<K, V> generator,
+			@Nullable ReferenceType referenceType) {
+
+		Assert.isTrue(sizeLimit > 0, "Cache size limit must be positive");
+		this.generator = generator;
+		this.referenceType = referenceType;
+		this.referenceQueue = (referenceType != null ? new ReferenceQueue<>() : null);
+		int segmentCount = 1;
+		while (segmentCount < MAXIMUM_SEGMENT_COUNT && segmentCount * 2 * MINIMUM_SEGMENT_SIZE <= sizeLimit) {
+			segmentCount *= 2;
+		}
+		this.segments = new Segment[segmentCount];
+		for (int i = 0; i < segmentCount; i++) {
+			this.segments[i] = new Segment<>(this.evictionCount);
+		}
+		setSizeLimit(sizeLimit);
+	}
+
+
+	/**
+	 * Change the size limit of this cache, evicting the least recently used
+	 * entries if the cache currently holds more entries than the new limit.
+	 * @param sizeLimit the maximum number of entries in the cache
+	 */
+	public void setSizeLimit(int sizeLimit) {
+		Assert.isTrue(sizeLimit > 0, "Cache size limit must be positive");
+		this.sizeLimit = sizeLimit;
+		int segmentCount = this.segments.length;
+		for (int i = 0; i < segmentCount; i++) {
+			// Distribute the remainder so that the segment limits add up to the size limit
+			int segmentLimit = sizeLimit / segmentCount + (i < sizeLimit % segmentCount ? 1 : 0);
+			this.segments[i].setLimit(Math.max(segmentLimit, 1));
+		}
+	}
+
+	/**
+	 * Return the maximum number of entries in this cache.
+	 */
+	public int sizeLimit() {
+		return this.sizeLimit;
+	}
+
+	/**
+	 * Specify a function estimating the memory in bytes retained by a key and
+	 * its value, for the {@linkplain #estimatedMemory() memory estimate} of this
+	 * cache. Applies to entries added from now on.
+	 * <p>Without a weigher, only the cache's own structures per entry are
+	 * taken into account.
+	 * @param weigher the function estimating the size of a key and value
+	 */
+	public void setWeigher(@Nullable ToIntBiFunction<? super K, ? super V> weigher) {
+		this.weigher = weigher;
+	}
+
+	/**
+	 * Return the value for the given key, computing it through the
+	 * generator function if not cached yet.
+	 * @param key the key to look up
+	 * @return the cached or newly computed value
+	 * @throws IllegalStateException if no generator function has been specified
+	 */
+	public V get(K key) {
+		Object mapKey = mapKey(key);
+		Segment<K, V> segment = segmentFor(mapKey);
+		V value = segment.get(mapKey);
+		if (value != null) {
+			this.hitCount.increment();
+			return value;
+		}
+		this.missCount.increment();
+		Assert.state(this.generator != null, "No generator function specified");
+		value = this.generator.apply(key);
+		Assert.state(value != null, "Generator function must not return null");
+		V existing = putIfAbsent(segment, mapKey, key, value);
+		return (existing != null ? existing : value);
+	}
+
+	/**
+	 * Return the value for the given key, if cached.
+	 * @param key the key to look up
+	 * @return the cached value, or {@code null} if none
+	 */
+	@Nullable
+	public V getIfPresent(K key) {
+		Object mapKey = mapKey(key);
+		V value = segmentFor(mapKey).get(mapKey);
+		if (value != null) {
+			this.hitCount.increment();
+		}
+		else {
+			this.missCount.increment();
+		}
+		return value;
+	}
+
+	/**
+	 * Add the given value for the given key, unless a value is cached already.
+	 * @param key the key to cache the value for
+	 * @param value the value to cache
+	 * @return the previously cached value, or {@code null} if none
+	 */
+	@Nullable
+	public V putIfAbsent(K key, V value) {
+		Assert.notNull(value, "Value must not be null");
+		Object mapKey = mapKey(key);
+		return putIfAbsent(segmentFor(mapKey), mapKey, key, value);
+	}
+
+	@Nullable
+	private V putIfAbsent(Segment<K, V> segment, Object mapKey, K key, V value) {
+		purgeClearedEntries();
+		return segment.putIfAbsent(mapKey, () -> createNode(key, value));
+	}
+
+	/**
+	 * Determine whether a value is cached for the given key,
+	 * without affecting its recency or the statistics.
+	 * @param key the key to check
+	 */
+	public boolean containsKey(K key) {
+		Object mapKey = mapKey(key);
+		return segmentFor(mapKey).containsKey(mapKey);
+	}
+
+	/**
+	 * Remove the entry for the given key, if any.
+	 * @param key the key to remove
+	 * @return whether an entry has been removed
+	 */
+	public boolean remove(K key) {
+		Object mapKey = mapKey(key);
+		return segmentFor(mapKey).remove(mapKey);
+	}
+
+	/**
+	 * Remove all entries whose key matches the given predicate.
+	 * @param keyFilter the predicate for keys to remove
+	 */
+	public void removeIf(Predicate<? super K> keyFilter) {
+		for (Segment<K, V> segment : this.segments) {
+			segment.removeIf(keyFilter);
+		}
+	}
+
+	/**
+	 * Perform the given action for each entry in this cache, without
+	 * affecting the recency of entries. Each segment is copied before the action
+	 * is applied to its entries, so the action may access the cache itself.
+	 * @param action the action to perform for each key and value
+	 */
+	public void forEach(BiConsumer<? super K, ? super V> action) {
+		for (Segment<K, V> segment : this.segments) {
+			segment.copyEntries().forEach(action);
+		}
+	}
+
+	/**
+	 * Remove all entries from this cache.
+	 */
+	public void clear() {
+		for (Segment<K, V> segment : this.segments) {
+			segment.clear();
+		}
+	}
+
+	/**
+	 * Return the current number of entries in this cache.
+	 */
+	public int size() {
+		purgeClearedEntries();
+		int size = 0;
+		for (Segment<K, V> segment : this.segments) {
+			size += segment.size();
+		}
+		return size;
+	}
+
+	/**
+	 * Return an estimate of the memory in bytes retained by this cache: the
+	 * cache's own structures per entry plus the size of keys and values as
+	 * estimated by the {@linkplain #setWeigher weigher}, if any.
+	 * <p>For softly or weakly referenced entries, this is the memory
+	 * that the cache keeps from being reclaimed as long as the garbage
+	 * collector does not clear the references.
+	 */
+	public long estimatedMemory() {
+		purgeClearedEntries();
+		long memory = 0;
+		for (Segment<K, V> segment : this.segments) {
+			memory += segment.weight();
+		}
+		return memory;
+	}
+
+	/**
+	 * Return the number of lookups that found a cached value.
+	 */
+	public long hitCount() {
+		return this.hitCount.sum();
+	}
+
+	/**
+	 * Return the number of lookups that did not find a cached value.
+	 */
+	public long missCount() {
+		return this.missCount.sum();
+	}
+
+	/**
+	 * Return the number of entries evicted due to the size limit.
+	 */
+	public long evictionCount() {
+		return this.evictionCount.sum();
+	}
+
+	/**
+	 * Return the ratio of lookups that found a cached value,
+	 * or {@code 1.0} if there were no lookups yet.
+	 */
+	public double hitRatio() {
+		long hits = hitCount();
+		long lookups = hits + missCount();
+		return (lookups > 0 ? (double) hits / lookups : 1.0);
+	}
+
+	/**
+	 * Return the key for the segment maps: the key itself for strong references,
+	 * or a lookup key matching the {@link ReferenceNode} for the key otherwise.
+	 */
+	private Object mapKey(K key) {
+		return (this.referenceType != null ? new LookupKey(key) : key);
+	}
+
+	private Node<K, V> createNode(K key, V value) {
+		ToIntBiFunction<? super K, ? super V> weigher = this.weigher;
+		int weight = (this.referenceType != null ? REFERENCE_ENTRY_OVERHEAD : STRONG_ENTRY_OVERHEAD) +
+				(weigher != null ? weigher.applyAsInt(key, value) : 0);
+		if (this.referenceType != null && this.referenceQueue != null) {
+			return new ReferenceNode<>(key, value, weight, this.referenceType, this.referenceQueue);
+		}
+		return new StrongNode<>(key, value, weight);
+	}
+
+	/**
+	 * Remove the entries whose references have been cleared by the garbage collector.
+	 */
+	@SuppressWarnings("unchecked")
+	private void purgeClearedEntries() {
+		ReferenceQueue<Object> queue = this.referenceQueue;
+		if (queue != null) {
+			Reference<?> reference = queue.poll();
+			while (reference != null) {
+				ReferenceNode<K, V> node = ((EntryReference<K, V>) reference).getNode();
+				segmentFor(node).removeNode(node);
+				reference = queue.poll();
+			}
+		}
+	}
+
+	private Segment<K, V> segmentFor(Object mapKey) {
+		int hash = mapKey.hashCode();
+		hash ^= (hash >>> 16);
+		return this.segments[hash & (this.segments.length - 1)];
+	}
+
+	@Override
+	public String toString() {
+		return "ConcurrentLruCache [size = " + size() + ", sizeLimit = " + this.sizeLimit +
+				", hitRatio = " + hitRatio() + ", evictions = " + evictionCount() + "]";
+	}
+
+
+	/**
+	 * A portion of the cache with lock-free reads: lookups go to a concurrent
+	 * map and merely mark the entry as referenced, whereas modifications are
+	 * guarded by the segment lock and maintain the insertion order of entries.
+	 * Eviction gives referenced entries a second chance, moving them to the
+	 * end of the queue, so that recently read entries survive eviction.
+	 */
+	@SuppressWarnings("serial")
+	private static final class Segment<K, V> extends ReentrantLock {
+
+		private final ConcurrentHashMap<Object, Node<K, V>> entries = new ConcurrentHashMap<>(16);
+
+		private final LinkedHashMap<Object, Node<K, V>> queue = new LinkedHashMap<>(16);
+
+		private final LongAdder evictionCount;
+
+		private int limit;
+
+		private volatile long weight;
+
+		Segment(LongAdder evictionCount) {
+			this.evictionCount = evictionCount;
+		}
+
+		void setLimit(int limit) {
+			lock();
+			try {
+				this.limit = limit;
+				evict();
+			}
+			finally {
+				unlock();
+			}
+		}
+
+		@Nullable
+		V get(Object mapKey) {
+			Node<K, V> node = this.entries.get(mapKey);
+			if (node == null) {
+				return null;
+			}
+			node.markReferenced();
+			return node.getValue();
+		}
+
+		@Nullable
+		V putIfAbsent(Object mapKey, Supplier<Node<K, V>> nodeFactory) {
+			V existing = get(mapKey);
+			if (existing != null) {
+				return existing;
+			}
+			lock();
+			try {
+				Node<K, V> existingNode = this.entries.get(mapKey);
+				if (existingNode != null) {
+					existing = existingNode.getValue();
+					if (existing != null) {
+						existingNode.markReferenced();
+						return existing;
+					}
+					// Cleared by the garbage collector but not purged yet
+					removeNode(existingNode);
+				}
+				Node<K, V> node = nodeFactory.get();
+				this.entries.put(node.mapKey(), node);
+				this.queue.put(node.mapKey(), node);
+				this.weight += node.weight;
+				evict();
+				return null;
+			}
+			finally {
+				unlock();
+			}
+		}
+
+		boolean containsKey(Object mapKey) {
+			Node<K, V> node = this.entries.get(mapKey);
+			return (node != null && node.getValue() != null);
+		}
+
+		boolean remove(Object mapKey) {
+			lock();
+			try {
+				Node<K, V> node = this.entries.get(mapKey);
+				return (node != null && removeNode(node));
+			}
+			finally {
+				unlock();
+			}
+		}
+
+		boolean removeNode(Node<K, V> node) {
+			lock();
+			try {
+				if (!this.entries.remove(node.mapKey(), node)) {
+					return false;
+				}
+				this.queue.remove(node.mapKey());
+				this.weight -= node.weight;
+				return true;
+			}
+			finally {
+				unlock();
+			}
+		}
+
+		void removeIf(Predicate<? super K> keyFilter) {
+			lock();
+			try {
+				Iterator<Node<K, V>> it = this.queue.values().iterator();
+				while (it.hasNext()) {
+					Node<K, V> node = it.next();
+					K key = node.getKey();
+					if (key == null || keyFilter.test(key)) {
+						it.remove();
+						this.entries.remove(node.mapKey());
+						this.weight -= node.weight;
+					}
+				}
+			}
+			finally {
+				unlock();
+			}
+		}
+
+		Map<K, V> copyEntries() {
+			Map<K, V> copy = new LinkedHashMap<>(this.entries.size());
+			this.entries.forEach((mapKey, node) -> {
+				K key = node.getKey();
+				V value = node.getValue();
+				if (key != null && value != null) {
+					copy.put(key, value);
+				}
+			});
+			return copy;
+		}
+
+		void clear() {
+			lock();
+			try {
+				this.queue.clear();
+				this.entries.clear();
+				this.weight = 0;
+			}
+			finally {
+				unlock();
+			}
+		}
+
+		int size() {
+			return this.entries.size();
+		}
+
+		long weight() {
+			return this.weight;
+		}
+
+		private void evict() {
+			// Bounded number of second chances, in case of concurrent reads marking entries again
+			int secondChances = this.queue.size();
+			while (this.queue.size() > this.limit) {
+				Iterator<Map.Entry<Object, Node<K, V>>> it = this.queue.entrySet().iterator();
+				Map.Entry<Object, Node<K, V>> eldest = it.next();
+				Object mapKey = eldest.getKey();
+				Node<K, V> node = eldest.getValue();
+				it.remove();
+				if (node.referenced && secondChances-- > 0) {
+					node.referenced = false;
+					this.queue.put(mapKey, node);
+				}
+				else {
+					this.entries.remove(mapKey);
+					this.weight -= node.weight;
+					this.evictionCount.increment();
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * A cache entry, along with its estimated weight and a flag for recent reads.
+	 */
+	private abstract static class Node<K, V> {
+
+		final int weight;
+
+		volatile boolean referenced;
+
+		Node(int weight) {
+			this.weight = weight;
+		}
+
+		/**
+		 * Return the key of this node in the segment maps.
+		 */
+		abstract Object mapKey();
+
+		@Nullable
+		abstract K getKey();
+
+		@Nullable
+		abstract V getValue();
+
+		void markReferenced() {
+			// Avoid writing to the shared field if already set
+			if (!this.referenced) {
+				this.referenced = true;
+			}
+		}
+	}
+
+
+	/**
+	 * A node holding its key and value strongly, mapped by the key itself.
+	 */
+	private static final class StrongNode<K, V> extends Node<K, V> {
+
+		private final K key;
+
+		private final V value;
+
+		StrongNode(K key, V value, int weight) {
+			super(weight);
+			this.key = key;
+			this.value = value;
+		}
+
+		@Override
+		Object mapKey() {
+			return this.key;
+		}
+
+		@Override
+		K getKey() {
+			return this.key;
+		}
+
+		@Override
+		V getValue() {
+			return this.value;
+		}
+	}
+
+
+	/**
+	 * A node holding its key and value through a soft or weak reference,
+	 * serving as its own key in the segment maps: equal to a node or
+	 * {@link LookupKey} for an equal key, as long as not cleared.
+	 */
+	private static final class ReferenceNode<K, V> extends Node<K, V> {
+
+		private final int hash;
+
+		private final Reference<Entry<K, V>> reference;
+
+		ReferenceNode(K key, V value, int weight, ReferenceType referenceType, ReferenceQueue<Object> queue) {
+			super(weight);
+			this.hash = key.hashCode();
+			Entry<K, V> entry = new Entry<>(key, value);
+			this.reference = (referenceType == ReferenceType.SOFT ?
+					new SoftEntryReference<>(entry, queue, this) : new WeakEntryReference<>(entry, queue, this));
+		}
+
+		@Override
+		Object mapKey() {
+			return this;
+		}
+
+		@Override
+		@Nullable
+		K getKey() {
+			Entry<K, V> entry = this.reference.get();
+			return (entry != null ? entry.key : null);
+		}
+
+		@Override
+		@Nullable
+		V getValue() {
+			Entry<K, V> entry = this.reference.get();
+			return (entry != null ? entry.value : null);
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			if (this == other) {
+				return true;
+			}
+			Object key = getKey();
+			Object otherKey = (other instanceof ReferenceNode ? ((ReferenceNode<?, ?>) other).getKey() :
+					(other instanceof LookupKey ? ((LookupKey) other).key : null));
+			return (key != null && key.equals(otherKey));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+	}
+
+
+	/**
+	 * Key for looking up a {@link ReferenceNode} in the segment maps.
+	 */
+	private static final class LookupKey {
+
+		final Object key;
+
+		LookupKey(Object key) {
+			this.key = key;
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			return (this == other || (other instanceof ReferenceNode && other.equals(this)));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.key.hashCode();
+		}
+	}
+
+
+	/**
+	 * The key and value of a {@link ReferenceNode}, only reachable through its reference.
+	 */
+	private static final class Entry<K, V> {
+
+		final K key;
+
+		final V value;
+
+		Entry(K key, V value) {
+			this.key = key;
+			this.value = value;
+		}
+	}
+
+
+	/**
+	 * A reference to an {@link Entry}, exposing the node to purge once cleared.
+	 */
+	private interface EntryReference<K, V> {
+
+		ReferenceNode<K, V> getNode();
+	}
+
+
+	private static final class SoftEntryReference<K, V> extends SoftReference<Entry<K, V>>
+			implements EntryReference<K, V> {
+
+		private final ReferenceNode<K, V> node;
+
+		SoftEntryReference(Entry<K, V> entry, ReferenceQueue<Object> queue, ReferenceNode<K, V> node) {
+			super(entry, queue);
+			this.node = node;
+		}
+
+		@Override
+		public ReferenceNode<K, V> getNode() {
+			return this.node;
+		}
+	}
+
+
+	private static final class WeakEntryReference<K, V> extends WeakReference<Entry<K, V>>
+			implements EntryReference<K, V> {
+
+		private final ReferenceNode<K, V> node;
+
+		WeakEntryReference(Entry<K, V> entry, ReferenceQueue<Object> queue, ReferenceNode<K, V> node) {
+			super(entry, queue);
+			this.node = node;
+		}
+
+		@Override
+		public ReferenceNode<K, V> getNode() {
+			return this.node;
+		}
+	}
+
+}
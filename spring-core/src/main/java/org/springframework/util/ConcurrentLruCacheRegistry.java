@@ -0,0 +1,222 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Registry for named {@link ConcurrentLruCache} instances, as used for the
+ * framework's internal metadata caches, reporting their size, estimated memory
+ * use and hit ratio and allowing for their size limits to be tuned at runtime.
+ *
+ * <p>Several caches may be registered under the same name, e.g. one per
+ * {@code ConversionService} instance, in which case their statistics are
+ * aggregated. Caches are weakly referenced, not preventing their garbage
+ * collection, and a size limit set for a name applies to caches registered
+ * under that name later on as well.
+ *
+ * @author agent
+ * @since 5.2.6
+ * @see ConcurrentLruCache
+ */
+public abstract class ConcurrentLruCacheRegistry {
+
+	private static final Map<String, List<WeakReference<ConcurrentLruCache<?, ?>>>> caches =
+			new ConcurrentHashMap<>(16);
+
+	private static final Map<String, Integer> sizeLimits = new ConcurrentHashMap<>(16);
+
+
+	/**
+	 * Register the given cache under the given name, applying a size limit
+	 * that has been {@linkplain #setSizeLimit set} for that name, if any.
+	 * @param name the name of the cache
+	 * @param cache the cache to register
+	 * @return the given cache, for use in field initializers
+	 */
+	public static <K, V> ConcurrentLruCache<K, V> register(String name, ConcurrentLruCache<K, V> cache) {
+		Assert.hasText(name, "Cache name must not be empty");
+		Assert.notNull(cache, "Cache must not be null");
+		Integer sizeLimit = sizeLimits.get(name);
+		if (sizeLimit != null) {
+			cache.setSizeLimit(sizeLimit);
+		}
+		List<WeakReference<ConcurrentLruCache<?, ?>>> references =
+				caches.computeIfAbsent(name, key -> new CopyOnWriteArrayList<>());
+		references.removeIf(ref -> ref.get() == null);
+		references.add(new WeakReference<>(cache));
+		return cache;
+	}
+
+	/**
+	 * Set the size limit for all caches registered under the given name,
+	 * now and in the future.
+	 * @param name the name of the cache
+	 * @param sizeLimit the maximum number of entries per cache
+	 */
+	public static void setSizeLimit(String name, int sizeLimit) {
+		Assert.isTrue(sizeLimit > 0, "Cache size limit must be positive");
+		sizeLimits.put(name, sizeLimit);
+		for (ConcurrentLruCache<?, ?> cache : getCaches(name)) {
+			cache.setSizeLimit(sizeLimit);
+		}
+	}
+
+	/**
+	 * Return statistics for all registered caches, keyed by cache name.
+	 */
+	public static Map<String, Statistics> getStatistics() {
+		Map<String, Statistics> statistics = new TreeMap<>();
+		for (String name : caches.keySet()) {
+			List<ConcurrentLruCache<?, ?>> namedCaches = getCaches(name);
+			if (!namedCaches.isEmpty()) {
+				statistics.put(name, new Statistics(name, namedCaches));
+			}
+		}
+		return statistics;
+	}
+
+	private static List<ConcurrentLruCache<?, ?>> getCaches(String name) {
+		List<ConcurrentLruCache<?, ?>> result = new ArrayList<>();
+		List<WeakReference<ConcurrentLruCache<?, ?>>> references = caches.get(name);
+		if (references != null) {
+			for (WeakReference<ConcurrentLruCache<?, ?>> reference : references) {
+				ConcurrentLruCache<?, ?> cache = reference.get();
+				if (cache != null) {
+					result.add(cache);
+				}
+			}
+		}
+		return result;
+	}
+
+
+	/**
+	 * Snapshot of the statistics for the caches registered under a name.
+	 */
+	public static final class Statistics {
+
+		private final String name;
+
+		private final int cacheCount;
+
+		private int size;
+
+		private long sizeLimit;
+
+		private long estimatedMemory;
+
+		private long hitCount;
+
+		private long missCount;
+
+		private long evictionCount;
+
+		Statistics(String name, List<ConcurrentLruCache<?, ?>> caches) {
+			this.name = name;
+			this.cacheCount = caches.size();
+			for (ConcurrentLruCache<?, ?> cache : caches) {
+				this.size += cache.size();
+				this.sizeLimit += cache.sizeLimit();
+				this.estimatedMemory += cache.estimatedMemory();
+				this.hitCount += cache.hitCount();
+				this.missCount += cache.missCount();
+				this.evictionCount += cache.evictionCount();
+			}
+		}
+
+		/**
+		 * Return the name that the caches have been registered under.
+		 */
+		public String getName() {
+			return this.name;
+		}
+
+		/**
+		 * Return the number of live caches registered under the name.
+		 */
+		public int getCacheCount() {
+			return this.cacheCount;
+		}
+
+		/**
+		 * Return the total number of entries across the caches.
+		 */
+		public int getSize() {
+			return this.size;
+		}
+
+		/**
+		 * Return the total size limit across the caches.
+		 */
+		public long getSizeLimit() {
+			return this.sizeLimit;
+		}
+
+		/**
+		 * Return the estimated memory in bytes retained by the caches.
+		 * @see ConcurrentLruCache#estimatedMemory()
+		 */
+		public long getEstimatedMemory() {
+			return this.estimatedMemory;
+		}
+
+		/**
+		 * Return the number of lookups that found a cached value.
+		 */
+		public long getHitCount() {
+			return this.hitCount;
+		}
+
+		/**
+		 * Return the number of lookups that did not find a cached value.
+		 */
+		public long getMissCount() {
+			return this.missCount;
+		}
+
+		/**
+		 * Return the number of entries evicted due to the size limit.
+		 */
+		public long getEvictionCount() {
+			return this.evictionCount;
+		}
+
+		/**
+		 * Return the ratio of lookups that found a cached value,
+		 * or {@code 1.0} if there were no lookups yet.
+		 */
+		public double getHitRatio() {
+			long lookups = this.hitCount + this.missCount;
+			return (lookups > 0 ? (double) this.hitCount / lookups : 1.0);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s: %d/%d entries (~%d KB) in %d cache(s), hit ratio %.3f, %d evictions",
+					this.name, this.size, this.sizeLimit, this.estimatedMemory / 1024, this.cacheCount,
+					getHitRatio(), this.evictionCount);
+		}
+	}
+
+}
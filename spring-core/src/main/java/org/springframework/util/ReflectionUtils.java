@@ -25,7 +25,6 @@ import java.lang.reflect.UndeclaredThrowableException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 import org.springframework.lang.Nullable;
 
@@ -75,16 +74,30 @@ public abstract class ReflectionUtils {
 	private static final Object[] EMPTY_OBJECT_ARRAY = new Object[0];
 
 
+	/**
+	 * The default maximum number of classes in each of the declared member caches.
+	 */
+	private static final int DECLARED_MEMBERS_CACHE_LIMIT = 8192;
+
+	/**
+	 * Estimated shallow size in bytes of a {@code Method} or {@code Field} copy.
+	 */
+	private static final int MEMBER_SIZE = 80;
+
 	/**
 	 * Cache for {@link Class#getDeclaredMethods()} plus equivalent default methods
-	 * from Java 8 based interfaces, allowing for fast iteration.
+	 * from Java 8 based interfaces, allowing for fast iteration. Softly referenced,
+	 * not preventing class loaders from being garbage collected.
 	 */
-	private static final Map<Class<?>, Method[]> declaredMethodsCache = new ConcurrentReferenceHashMap<>(256);
+	private static final ConcurrentLruCache<Class<?>, Method[]> declaredMethodsCache =
+			ConcurrentLruCacheRegistry.register("declaredMethods", createDeclaredMembersCache());
 
 	/**
 	 * Cache for {@link Class#getDeclaredFields()}, allowing for fast iteration.
+	 * Softly referenced, not preventing class loaders from being garbage collected.
 	 */
-	private static final Map<Class<?>, Field[]> declaredFieldsCache = new ConcurrentReferenceHashMap<>(256);
+	private static final ConcurrentLruCache<Class<?>, Field[]> declaredFieldsCache =
+			ConcurrentLruCacheRegistry.register("declaredFields", createDeclaredMembersCache());
 
 
 	// Exception handling
@@ -457,7 +470,7 @@ public abstract class ReflectionUtils {
 
 	private static Method[] getDeclaredMethods(Class<?> clazz, boolean defensive) {
 		Assert.notNull(clazz, "Class must not be null");
-		Method[] result = declaredMethodsCache.get(clazz);
+		Method[] result = declaredMethodsCache.getIfPresent(clazz);
 		if (result == null) {
 			try {
 				Method[] declaredMethods = clazz.getDeclaredMethods();
@@ -474,7 +487,7 @@ public abstract class ReflectionUtils {
 				else {
 					result = declaredMethods;
 				}
-				declaredMethodsCache.put(clazz, (result.length == 0 ? EMPTY_METHOD_ARRAY : result));
+				declaredMethodsCache.putIfAbsent(clazz, (result.length == 0 ? EMPTY_METHOD_ARRAY : result));
 			}
 			catch (Throwable ex) {
 				throw new IllegalStateException("Failed to introspect Class [" + clazz.getName() +
@@ -723,11 +736,11 @@ public abstract class ReflectionUtils {
 	 */
 	private static Field[] getDeclaredFields(Class<?> clazz) {
 		Assert.notNull(clazz, "Class must not be null");
-		Field[] result = declaredFieldsCache.get(clazz);
+		Field[] result = declaredFieldsCache.getIfPresent(clazz);
 		if (result == null) {
 			try {
 				result = clazz.getDeclaredFields();
-				declaredFieldsCache.put(clazz, (result.length == 0 ? EMPTY_FIELD_ARRAY : result));
+				declaredFieldsCache.putIfAbsent(clazz, (result.length == 0 ? EMPTY_FIELD_ARRAY : result));
 			}
 			catch (Throwable ex) {
 				throw new IllegalStateException("Failed to introspect Class [" + clazz.getName() +
@@ -795,6 +808,13 @@ public abstract class ReflectionUtils {
 		declaredFieldsCache.clear();
 	}
 
+	private static <T> ConcurrentLruCache<Class<?>, T[]> createDeclaredMembersCache() {
+		ConcurrentLruCache<Class<?>, T[]> cache = new ConcurrentLruCache<>(
+				DECLARED_MEMBERS_CACHE_LIMIT, null, ConcurrentReferenceHashMap.ReferenceType.SOFT);
+		cache.setWeigher((clazz, members) -> 16 + members.length * (4 + MEMBER_SIZE));
+		return cache;
+	}
+
 
 	/**
 	 * Action to take on each method.
@@ -0,0 +1,525 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * {@link AntPathMatcher} variant that precompiles patterns into a trie of
+ * path segments, matching a path against a whole set of patterns in a single
+ * pass over its segments.
+ *
+ * <p>The pattern syntax and matching rules are the same as for
+ * {@code AntPathMatcher}. Segments consisting of literal text, {@code ?},
+ * {@code *} and {@code {name}} variables are matched without regular
+ * expressions; only URI template variables with a custom regular expression,
+ * e.g. {@code {name:[a-z]+}}, fall back to a regex for their segment.
+ * Since all patterns are matched in the same pass, {@code **} wildcards
+ * do not require backtracking either.
+ *
+ * <p>Use {@link #compile(Collection)} to build a {@link PatternSet} for a
+ * given set of patterns, determining all matching patterns or the best match
+ * for a path at once. {@link #match(String, String)} compiles individual
+ * patterns on demand and caches them for subsequent calls.
+ *
+ * @author agent
+ * @since 5.2.6
+ * @see #compile(Collection)
+ */
+public class TriePathMatcher extends AntPathMatcher {
+
+	private static final Pattern GLOB_PATTERN = Pattern.compile("\\?|\\*|\\{((?:\\{[^/]+?}|[^/{}]|\\\\[{}])+?)}");
+
+	private static final String DOUBLE_WILDCARD = "**";
+
+
+	private String pathSeparator;
+
+	private boolean caseSensitive = true;
+
+	private boolean trimTokens = false;
+
+	private final Map<String, PatternSet> patternCache = new ConcurrentReferenceHashMap<>(256);
+
+
+	/**
+	 * Create a new instance with the {@link #DEFAULT_PATH_SEPARATOR}.
+	 */
+	public TriePathMatcher() {
+		this.pathSeparator = DEFAULT_PATH_SEPARATOR;
+	}
+
+	/**
+	 * Create a new instance with a custom path separator.
+	 * @param pathSeparator the path separator to use, must not be {@code null}.
+	 */
+	public TriePathMatcher(String pathSeparator) {
+		super(pathSeparator);
+		this.pathSeparator = pathSeparator;
+	}
+
+
+	@Override
+	public void setPathSeparator(@Nullable String pathSeparator) {
+		super.setPathSeparator(pathSeparator);
+		this.pathSeparator = (pathSeparator != null ? pathSeparator : DEFAULT_PATH_SEPARATOR);
+		this.patternCache.clear();
+	}
+
+	@Override
+	public void setCaseSensitive(boolean caseSensitive) {
+		super.setCaseSensitive(caseSensitive);
+		this.caseSensitive = caseSensitive;
+		this.patternCache.clear();
+	}
+
+	@Override
+	public void setTrimTokens(boolean trimTokens) {
+		super.setTrimTokens(trimTokens);
+		this.trimTokens = trimTokens;
+		this.patternCache.clear();
+	}
+
+
+	@Override
+	public boolean match(String pattern, @Nullable String path) {
+		if (path == null) {
+			return false;
+		}
+		PatternSet patternSet = this.patternCache.get(pattern);
+		if (patternSet == null) {
+			patternSet = compile(Collections.singleton(pattern));
+			this.patternCache.put(pattern, patternSet);
+		}
+		return !patternSet.findMatches(path).isEmpty();
+	}
+
+	/**
+	 * Compile the given patterns into a {@link PatternSet}.
+	 * <p>The resulting pattern set refers to this matcher's settings,
+	 * which are therefore not supposed to change after compilation.
+	 * @param patterns the patterns to compile
+	 * @return the compiled pattern set
+	 */
+	public PatternSet compile(Collection<String> patterns) {
+		Assert.notNull(patterns, "Patterns must not be null");
+		return new PatternSet(patterns);
+	}
+
+	private boolean matchesChar(char patternChar, char c) {
+		return (patternChar == c || (!this.caseSensitive && foldCase(patternChar) == foldCase(c)));
+	}
+
+	private String foldCase(String segment) {
+		if (this.caseSensitive) {
+			return segment;
+		}
+		char[] chars = null;
+		for (int i = 0; i < segment.length(); i++) {
+			char c = segment.charAt(i);
+			char folded = foldCase(c);
+			if (folded != c) {
+				if (chars == null) {
+					chars = segment.toCharArray();
+				}
+				chars[i] = folded;
+			}
+		}
+		return (chars != null ? new String(chars) : segment);
+	}
+
+	/**
+	 * Fold ASCII letters only, in line with {@link Pattern#CASE_INSENSITIVE}.
+	 */
+	private static char foldCase(char c) {
+		return (c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c);
+	}
+
+
+	/**
+	 * A set of patterns compiled into a trie of path segments.
+	 * Instances are immutable and may be shared across threads.
+	 */
+	public final class PatternSet {
+
+		private final Node absoluteRoot = new Node(null);
+
+		private final Node relativeRoot = new Node(null);
+
+		private int patternCount;
+
+		PatternSet(Collection<String> patterns) {
+			for (String pattern : patterns) {
+				addPattern(pattern);
+			}
+		}
+
+		private void addPattern(String pattern) {
+			Node node = (pattern.startsWith(pathSeparator) ? this.absoluteRoot : this.relativeRoot);
+			boolean doubleWildcard = false;
+			for (String segment : tokenizePath(pattern)) {
+				if (DOUBLE_WILDCARD.equals(segment)) {
+					doubleWildcard = true;
+				}
+				node = node.child(segment);
+			}
+			node.addTerminal(new Terminal(pattern, this.patternCount++,
+					pattern.endsWith(pathSeparator), doubleWildcard));
+		}
+
+		/**
+		 * Return all patterns that match the given path, ordered by
+		 * {@linkplain #getPatternComparator(String) specificity}.
+		 * @param path the path to match
+		 * @return the matching patterns, or an empty list if none
+		 */
+		public List<String> getMatchingPatterns(String path) {
+			List<Terminal> matches = findMatches(path);
+			if (matches.isEmpty()) {
+				return Collections.emptyList();
+			}
+			if (matches.size() == 1) {
+				return Collections.singletonList(matches.get(0).pattern);
+			}
+			matches.sort(Comparator.comparingInt(terminal -> terminal.order));
+			List<String> result = new ArrayList<>(matches.size());
+			for (Terminal terminal : matches) {
+				result.add(terminal.pattern);
+			}
+			result.sort(getPatternComparator(path));
+			return result;
+		}
+
+		/**
+		 * Return the most specific pattern that matches the given path.
+		 * @param path the path to match
+		 * @return the best matching pattern, or {@code null} if none
+		 */
+		@Nullable
+		public String getBestMatchingPattern(String path) {
+			List<Terminal> matches = findMatches(path);
+			if (matches.isEmpty()) {
+				return null;
+			}
+			Comparator<String> comparator = getPatternComparator(path);
+			Terminal best = matches.get(0);
+			for (int i = 1; i < matches.size(); i++) {
+				Terminal candidate = matches.get(i);
+				int result = comparator.compare(candidate.pattern, best.pattern);
+				if (result < 0 || (result == 0 && candidate.order < best.order)) {
+					best = candidate;
+				}
+			}
+			return best.pattern;
+		}
+
+		private List<Terminal> findMatches(String path) {
+			boolean absolute = path.startsWith(pathSeparator);
+			List<Node> current = new ArrayList<>();
+			List<Node> next = new ArrayList<>();
+			(absolute ? this.absoluteRoot : this.relativeRoot).addTo(current);
+
+			// Tokenize like tokenizePath, stopping as soon as no pattern matches anymore
+			int length = path.length();
+			int start = 0;
+			while (start < length) {
+				int end = start;
+				while (end < length && pathSeparator.indexOf(path.charAt(end)) == -1) {
+					end++;
+				}
+				String segment = path.substring(start, end);
+				start = end + 1;
+				if (trimTokens) {
+					segment = segment.trim();
+				}
+				if (segment.isEmpty()) {
+					continue;
+				}
+				String key = null;
+				for (Node node : current) {
+					if (node.doubleWildcard) {
+						node.addTo(next);
+					}
+					if (node.literalChildren != null) {
+						if (key == null) {
+							key = foldCase(segment);
+						}
+						Node child = node.literalChildren.get(key);
+						if (child != null) {
+							child.addTo(next);
+						}
+					}
+					if (node.wildcardChildren != null) {
+						for (Node child : node.wildcardChildren) {
+							if (child.matcher.matches(segment)) {
+								child.addTo(next);
+							}
+						}
+					}
+				}
+				if (next.isEmpty()) {
+					return Collections.emptyList();
+				}
+				List<Node> previous = current;
+				current = next;
+				next = previous;
+				next.clear();
+			}
+
+			boolean trailingSeparator = path.endsWith(pathSeparator);
+			List<Terminal> matches = new ArrayList<>();
+			for (Node node : current) {
+				if (node.terminals != null) {
+					for (Terminal terminal : node.terminals) {
+						if (terminal.doubleWildcard || terminal.trailingSeparator == trailingSeparator) {
+							matches.add(terminal);
+						}
+					}
+				}
+				if (trailingSeparator && node.wildcardChildren != null) {
+					// A trailing "*" segment matches the empty segment after a trailing separator
+					for (Node child : node.wildcardChildren) {
+						if (child.terminals != null && "*".equals(child.segment)) {
+							for (Terminal terminal : child.terminals) {
+								if (!terminal.doubleWildcard) {
+									matches.add(terminal);
+								}
+							}
+						}
+					}
+				}
+			}
+			return matches;
+		}
+
+		@Override
+		public String toString() {
+			return "PatternSet with " + this.patternCount + " patterns";
+		}
+	}
+
+
+	/**
+	 * Trie node for a pattern segment.
+	 */
+	private final class Node {
+
+		@Nullable
+		final String segment;
+
+		final boolean doubleWildcard;
+
+		final SegmentMatcher matcher;
+
+		@Nullable
+		Map<String, Node> literalChildren;
+
+		@Nullable
+		List<Node> wildcardChildren;
+
+		@Nullable
+		Node doubleWildcardChild;
+
+		@Nullable
+		List<Terminal> terminals;
+
+		Node(@Nullable String segment) {
+			this.segment = segment;
+			this.doubleWildcard = DOUBLE_WILDCARD.equals(segment);
+			this.matcher = (segment != null && !this.doubleWildcard ? createMatcher(segment) : LITERAL);
+		}
+
+		Node child(String segment) {
+			if (DOUBLE_WILDCARD.equals(segment)) {
+				if (this.doubleWildcardChild == null) {
+					this.doubleWildcardChild = new Node(segment);
+				}
+				return this.doubleWildcardChild;
+			}
+			if (this.wildcardChildren != null) {
+				for (Node child : this.wildcardChildren) {
+					if (segment.equals(child.segment)) {
+						return child;
+					}
+				}
+			}
+			if (this.literalChildren != null) {
+				// Literal segments that only differ in case share a node if case-insensitive
+				Node child = this.literalChildren.get(foldCase(segment));
+				if (child != null) {
+					return child;
+				}
+			}
+			Node child = new Node(segment);
+			if (child.matcher == LITERAL) {
+				if (this.literalChildren == null) {
+					this.literalChildren = new HashMap<>();
+				}
+				this.literalChildren.put(foldCase(segment), child);
+			}
+			else {
+				if (this.wildcardChildren == null) {
+					this.wildcardChildren = new ArrayList<>(4);
+				}
+				this.wildcardChildren.add(child);
+			}
+			return child;
+		}
+
+		void addTerminal(Terminal terminal) {
+			if (this.terminals == null) {
+				this.terminals = new ArrayList<>(1);
+			}
+			for (Terminal existing : this.terminals) {
+				if (existing.pattern.equals(terminal.pattern)) {
+					return;
+				}
+			}
+			this.terminals.add(terminal);
+		}
+
+		/**
+		 * Add this node to the given active nodes, along with any
+		 * {@code **} nodes that may match zero segments from here.
+		 */
+		void addTo(List<Node> nodes) {
+			for (Node node : nodes) {
+				if (node == this) {
+					return;
+				}
+			}
+			nodes.add(this);
+			if (this.doubleWildcardChild != null) {
+				this.doubleWildcardChild.addTo(nodes);
+			}
+		}
+
+		private SegmentMatcher createMatcher(String segment) {
+			StringBuilder glob = new StringBuilder();
+			Matcher matcher = GLOB_PATTERN.matcher(segment);
+			int end = 0;
+			while (matcher.find()) {
+				glob.append(segment, end, matcher.start());
+				String match = matcher.group();
+				if (match.startsWith("{")) {
+					if (match.indexOf(':') != -1) {
+						AntPathStringMatcher stringMatcher = new AntPathStringMatcher(segment, caseSensitive);
+						return str -> stringMatcher.matchStrings(str, null);
+					}
+					glob.append('*');
+				}
+				else {
+					glob.append(match);
+				}
+				end = matcher.end();
+			}
+			if (end == 0) {
+				return LITERAL;
+			}
+			glob.append(segment, end, segment.length());
+			String globPattern = glob.toString();
+			for (int i = 0; i < globPattern.length(); i++) {
+				if (globPattern.charAt(i) != '*') {
+					return str -> matchGlob(globPattern, str);
+				}
+			}
+			return ANY;
+		}
+
+		/**
+		 * Match the given segment against a glob consisting of literal
+		 * characters, {@code ?} and {@code *}, resuming after the most
+		 * recent {@code *} on a mismatch.
+		 */
+		private boolean matchGlob(String glob, String str) {
+			int globIndex = 0;
+			int strIndex = 0;
+			int starIndex = -1;
+			int starMatch = 0;
+			while (strIndex < str.length()) {
+				if (globIndex < glob.length() && glob.charAt(globIndex) == '*') {
+					starIndex = globIndex++;
+					starMatch = strIndex;
+				}
+				else if (globIndex < glob.length() && (glob.charAt(globIndex) == '?' ||
+						matchesChar(glob.charAt(globIndex), str.charAt(strIndex)))) {
+					globIndex++;
+					strIndex++;
+				}
+				else if (starIndex != -1) {
+					globIndex = starIndex + 1;
+					strIndex = ++starMatch;
+				}
+				else {
+					return false;
+				}
+			}
+			while (globIndex < glob.length() && glob.charAt(globIndex) == '*') {
+				globIndex++;
+			}
+			return (globIndex == glob.length());
+		}
+	}
+
+
+	private static final SegmentMatcher LITERAL = str -> false;
+
+	private static final SegmentMatcher ANY = str -> true;
+
+
+	/**
+	 * Strategy for matching a single path segment.
+	 */
+	@FunctionalInterface
+	private interface SegmentMatcher {
+
+		boolean matches(String segment);
+	}
+
+
+	/**
+	 * Holder for a pattern ending at a trie node.
+	 */
+	private static final class Terminal {
+
+		final String pattern;
+
+		final int order;
+
+		final boolean trailingSeparator;
+
+		final boolean doubleWildcard;
+
+		Terminal(String pattern, int order, boolean trailingSeparator, boolean doubleWildcard) {
+			this.pattern = pattern;
+			this.order = order;
+			this.trailingSeparator = trailingSeparator;
+			this.doubleWildcard = doubleWildcard;
+		}
+	}
+
+}
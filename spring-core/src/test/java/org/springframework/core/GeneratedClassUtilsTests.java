@@ -0,0 +1,96 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core;
+
+import java.lang.reflect.Method;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link GeneratedClassUtils}.
+ *
+ * @author agent
+ */
+class GeneratedClassUtilsTests {
+
+	@Test
+	void generateStaticMethodInvoker() throws Exception {
+		Method method = GeneratedClassUtilsTests.class.getDeclaredMethod("scale", long.class, Integer.class);
+		Invoker invoker = generateInvoker(GeneratedClassUtilsTests.class.getName() + "$$ScaleInvoker", method);
+		assertThat(invoker.invoke(new Object[] {3L, 2})).isEqualTo(6L);
+	}
+
+	@Test
+	void generateVoidMethodInvoker() throws Exception {
+		Method method = GeneratedClassUtilsTests.class.getDeclaredMethod("ignore", String.class);
+		Invoker invoker = generateInvoker(GeneratedClassUtilsTests.class.getName() + "$$IgnoreInvoker", method);
+		assertThat(invoker.invoke(new Object[] {"value"})).isNull();
+	}
+
+	@Test
+	void defineClassTwiceReturnsExistingClass() throws Exception {
+		Method method = GeneratedClassUtilsTests.class.getDeclaredMethod("scale", long.class, Integer.class);
+		String className = GeneratedClassUtilsTests.class.getName() + "$$DuplicateInvoker";
+		assertThat(GeneratedClassUtils.findClass(className, getClass().getClassLoader())).isNull();
+		Class<?> first = GeneratedClassUtils.defineClass(className, generateBytes(className, method), getClass());
+		Class<?> second = GeneratedClassUtils.defineClass(className, generateBytes(className, method), getClass());
+		assertThat(second).isSameAs(first);
+		assertThat(GeneratedClassUtils.findClass(className, getClass().getClassLoader())).isSameAs(first);
+	}
+
+
+	private Invoker generateInvoker(String className, Method method) throws Exception {
+		Class<?> invokerClass = GeneratedClassUtils.defineClass(className, generateBytes(className, method), getClass());
+		return (Invoker) invokerClass.getDeclaredConstructor().newInstance();
+	}
+
+	private static byte[] generateBytes(String className, Method method) {
+		ClassWriter cw = GeneratedClassUtils.beginClass(className, Invoker.class);
+		MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "invoke",
+				"([Ljava/lang/Object;)Ljava/lang/Object;", null, null);
+		mv.visitCode();
+		GeneratedClassUtils.loadArguments(mv, 1, method.getParameterTypes());
+		mv.visitMethodInsn(Opcodes.INVOKESTATIC, Type.getInternalName(method.getDeclaringClass()),
+				method.getName(), Type.getMethodDescriptor(method), false);
+		GeneratedClassUtils.box(mv, method.getReturnType());
+		mv.visitInsn(Opcodes.ARETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+		return GeneratedClassUtils.endClass(cw);
+	}
+
+	static long scale(long value, Integer factor) {
+		return value * factor;
+	}
+
+	static void ignore(String value) {
+	}
+
+
+	public interface Invoker {
+
+		Object invoke(Object[] args);
+	}
+
+}
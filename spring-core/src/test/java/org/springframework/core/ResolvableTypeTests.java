@@ -116,6 +116,31 @@ class ResolvableTypeTests {
 		assertThat(type.isAssignableFrom(String.class)).isTrue();
 	}
 
+	@Test
+	void forClassReturnsSharedInstance() {
+		assertThat(ResolvableType.forClass(ExtendsList.class)).isSameAs(ResolvableType.forClass(ExtendsList.class));
+		assertThat(ResolvableType.forClass(null)).isSameAs(ResolvableType.forClass(Object.class));
+		ResolvableType type = ResolvableType.forClass(ExtendsList.class);
+		ResolvableType.clearCache();
+		assertThat(ResolvableType.forClass(ExtendsList.class)).isNotSameAs(type).isEqualTo(type);
+	}
+
+	@Test
+	void isAssignableFromWithCachedTypes() throws Exception {
+		ResolvableType charSequenceList = ResolvableType.forField(Fields.class.getField("charSequenceList"));
+		ResolvableType stringList = ResolvableType.forField(Fields.class.getField("stringList"));
+		ResolvableType wildcard = ResolvableType.forField(Fields.class.getField("wildcardType"));
+		for (int i = 0; i < 3; i++) {
+			assertThat(charSequenceList.isAssignableFrom(stringList)).isFalse();
+			assertThat(charSequenceList.isAssignableFrom(charSequenceList)).isTrue();
+			assertThat(ResolvableType.forField(Fields.class.getField("stringList")).isAssignableFrom(stringList)).isTrue();
+			assertThat(wildcard.isAssignableFrom(stringList)).isFalse();
+			assertThat(ResolvableType.forClass(List.class).isAssignableFrom(stringList)).isTrue();
+			assertThat(stringList.isAssignableFrom(ResolvableType.forClass(ExtendsList.class))).isFalse();
+			assertThat(ResolvableType.forClass(Collection.class).isAssignableFrom(ExtendsList.class)).isTrue();
+		}
+	}
+
 	@Test
 	void forRawClass() throws Exception {
 		ResolvableType type = ResolvableType.forRawClass(ExtendsList.class);
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.annotation;
+
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.core.OverridingClassLoader;
+import org.springframework.core.annotation.MergedAnnotations.SearchStrategy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link MergedAnnotationsCache}.
+ *
+ * @author agent
+ * @since 5.2.6
+ */
+class MergedAnnotationsCacheTests {
+
+	@BeforeEach
+	void clearCache() {
+		AnnotationUtils.clearCache();
+	}
+
+
+	@Test
+	void fromClassIsCachedPerSearchStrategy() {
+		MergedAnnotations annotations = MergedAnnotations.from(Annotated.class, SearchStrategy.TYPE_HIERARCHY);
+		assertThat(MergedAnnotations.from(Annotated.class, SearchStrategy.TYPE_HIERARCHY)).isSameAs(annotations);
+		assertThat(MergedAnnotations.from(Annotated.class, SearchStrategy.DIRECT)).isNotSameAs(annotations);
+		assertThat(MergedAnnotations.from(Annotated.class, SearchStrategy.TYPE_HIERARCHY,
+				RepeatableContainers.none())).isNotSameAs(annotations);
+		assertThat(MergedAnnotationsCache.getSize()).isEqualTo(1);
+		assertThat(MergedAnnotationsCache.getHitCount()).isEqualTo(1);
+		assertThat(MergedAnnotationsCache.getMissCount()).isEqualTo(3);
+	}
+
+	@Test
+	void fromMethodIsCached() throws Exception {
+		Method method = Annotated.class.getMethod("handle");
+		MergedAnnotations annotations = MergedAnnotations.from(method, SearchStrategy.TYPE_HIERARCHY);
+		assertThat(MergedAnnotations.from(Annotated.class.getMethod("handle"), SearchStrategy.TYPE_HIERARCHY))
+				.isSameAs(annotations);
+		assertThat(annotations.get(Marker.class).getString("value")).isEqualTo("base");
+	}
+
+	@Test
+	void fromWithCustomFilterIsNotCached() {
+		MergedAnnotations annotations = MergedAnnotations.from(Annotated.class, SearchStrategy.TYPE_HIERARCHY,
+				RepeatableContainers.standardRepeatables(), AnnotationFilter.NONE);
+		assertThat(MergedAnnotations.from(Annotated.class, SearchStrategy.TYPE_HIERARCHY,
+				RepeatableContainers.standardRepeatables(), AnnotationFilter.NONE)).isNotSameAs(annotations);
+		assertThat(MergedAnnotationsCache.getSize()).isEqualTo(0);
+	}
+
+	@Test
+	void lookupsOnCachedInstanceAreKept() {
+		MergedAnnotations annotations = MergedAnnotations.from(Annotated.class, SearchStrategy.INHERITED_ANNOTATIONS);
+		MergedAnnotation<Marker> marker = annotations.get(Marker.class);
+		assertThat(marker.getString("value")).isEqualTo("base");
+		assertThat(annotations.get(Marker.class)).isSameAs(marker);
+		assertThat(annotations.get(Marker.class.getName())).isSameAs(annotations.get(Marker.class.getName()));
+		assertThat(annotations.get(Marker.class).synthesize()).isSameAs(marker.synthesize());
+		assertThat(annotations.isPresent(Marker.class)).isTrue();
+		assertThat(annotations.isPresent(Inherited.class)).isFalse();
+		assertThat(annotations.get(Inherited.class).isPresent()).isFalse();
+	}
+
+	@Test
+	void lookupsOnCachedInstanceAreBounded() {
+		MergedAnnotations annotations = MergedAnnotations.from(Annotated.class, SearchStrategy.INHERITED_ANNOTATIONS);
+		for (int i = 0; i < 16; i++) {
+			assertThat(annotations.get("com.example.Missing" + i).isPresent()).isFalse();
+		}
+		MergedAnnotation<Marker> marker = annotations.get(Marker.class);
+		assertThat(marker.getString("value")).isEqualTo("base");
+		assertThat(annotations.get(Marker.class)).isNotSameAs(marker);
+		assertThat(annotations.get(Marker.class).getString("value")).isEqualTo("base");
+	}
+
+	@Test
+	void fromClassInOtherClassLoaderDoesNotPreventClassLoaderCollection() throws Exception {
+		WeakReference<ClassLoader> classLoaderRef = annotationsFromThrowawayClassLoader();
+		// Soft references get cleared at the latest before an OutOfMemoryError
+		List<byte[]> garbage = new ArrayList<>();
+		try {
+			while (classLoaderRef.get() != null) {
+				garbage.add(new byte[16 * 1024 * 1024]);
+			}
+		}
+		catch (OutOfMemoryError ex) {
+			garbage.clear();
+		}
+		garbage.clear();
+		System.gc();
+		assertThat(classLoaderRef.get()).isNull();
+	}
+
+	private WeakReference<ClassLoader> annotationsFromThrowawayClassLoader() throws Exception {
+		ClassLoader classLoader = new OverridingClassLoader(getClass().getClassLoader());
+		Class<?> annotated = classLoader.loadClass(Annotated.class.getName());
+		assertThat(annotated).isNotSameAs(Annotated.class);
+		MergedAnnotations annotations = MergedAnnotations.from(annotated, SearchStrategy.TYPE_HIERARCHY);
+		assertThat(MergedAnnotations.from(annotated, SearchStrategy.TYPE_HIERARCHY)).isSameAs(annotations);
+		assertThat(annotations.isPresent(Marker.class.getName())).isTrue();
+		return new WeakReference<>(classLoader);
+	}
+
+	@Test
+	void clearCacheRemovesEntries() {
+		MergedAnnotations annotations = MergedAnnotations.from(Annotated.class, SearchStrategy.TYPE_HIERARCHY);
+		assertThat(MergedAnnotationsCache.getSize()).isEqualTo(1);
+		AnnotationUtils.clearCache();
+		assertThat(MergedAnnotationsCache.getSize()).isEqualTo(0);
+		assertThat(MergedAnnotationsCache.getMissCount()).isEqualTo(0);
+		assertThat(MergedAnnotations.from(Annotated.class, SearchStrategy.TYPE_HIERARCHY)).isNotSameAs(annotations);
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Inherited
+	@interface Marker {
+
+		String value() default "";
+	}
+
+
+	@Marker("base")
+	static class Base {
+
+		@Marker("base")
+		public void handle() {
+		}
+	}
+
+
+	static class Annotated extends Base {
+
+		@Override
+		public void handle() {
+		}
+	}
+
+}
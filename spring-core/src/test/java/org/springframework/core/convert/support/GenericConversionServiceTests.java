@@ -31,6 +31,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Test;
 
@@ -473,6 +474,70 @@ class GenericConversionServiceTests {
 		assertThat(conversionService.canConvert(String.class, Color.class)).isFalse();
 	}
 
+	@Test
+	void classPairCacheInvalidatedOnConverterRegistration() {
+		assertThatExceptionOfType(ConverterNotFoundException.class).isThrownBy(() ->
+				conversionService.convert("#000000", Color.class));
+		assertThat(conversionService.canConvert(String.class, Color.class)).isFalse();
+		conversionService.addConverter(new ColorConverter());
+		assertThat(conversionService.canConvert(String.class, Color.class)).isTrue();
+		assertThat(conversionService.convert("#000000", Color.class)).isEqualTo(Color.BLACK);
+	}
+
+	@Test
+	void classPairCacheSharedWithPlainTypeDescriptors() {
+		MyConditionalConverter converter = new MyConditionalConverter();
+		conversionService.addConverter(new ColorConverter());
+		conversionService.addConverter(converter);
+		assertThat(conversionService.convert("#000000", Color.class)).isEqualTo(Color.BLACK);
+		int matchAttempts = converter.getMatchAttempts();
+		assertThat(conversionService.convert("#000000", Color.class)).isEqualTo(Color.BLACK);
+		assertThat(conversionService.convert("#000000", TypeDescriptor.valueOf(String.class),
+				TypeDescriptor.valueOf(Color.class))).isEqualTo(Color.BLACK);
+		assertThat(converter.getMatchAttempts()).isEqualTo(matchAttempts);
+	}
+
+	@Test
+	void classPairFastPathBypassedForCustomConversion() {
+		GenericConversionService customService = new GenericConversionService() {
+			@Override
+			public boolean canConvert(@Nullable TypeDescriptor sourceType, TypeDescriptor targetType) {
+				return (targetType.getType() == Color.class || super.canConvert(sourceType, targetType));
+			}
+			@Override
+			@Nullable
+			public Object convert(@Nullable Object source, @Nullable TypeDescriptor sourceType, TypeDescriptor targetType) {
+				return (targetType.getType() == Color.class ? Color.BLACK : super.convert(source, sourceType, targetType));
+			}
+		};
+		assertThat(customService.canConvert(String.class, Color.class)).isTrue();
+		assertThat(customService.convert("black", Color.class)).isEqualTo(Color.BLACK);
+	}
+
+	@Test
+	void convertToPrimitiveWithNullResult() {
+		conversionService.addConverter(String.class, Integer.class, source -> null);
+		assertThatExceptionOfType(ConversionFailedException.class).isThrownBy(() ->
+				conversionService.convert("3", int.class));
+		assertThat(conversionService.convert("3", Integer.class)).isNull();
+	}
+
+	@Test
+	void overriddenGetConverterIsConsulted() {
+		AtomicInteger lookups = new AtomicInteger();
+		GenericConversionService conversionService = new GenericConversionService() {
+			@Override
+			protected GenericConverter getConverter(TypeDescriptor sourceType, TypeDescriptor targetType) {
+				lookups.incrementAndGet();
+				return super.getConverter(sourceType, targetType);
+			}
+		};
+		conversionService.addConverter(new ColorConverter());
+		assertThat(conversionService.convert("#000000", Color.class)).isEqualTo(Color.BLACK);
+		assertThat(conversionService.convert("#000000", Color.class)).isEqualTo(Color.BLACK);
+		assertThat(lookups.get()).isEqualTo(2);
+	}
+
 	@Test
 	void conditionalConverter() {
 		MyConditionalConverter converter = new MyConditionalConverter();
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.env;
+
+import java.util.Properties;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.core.testfixture.env.MockPropertySource;
+import org.springframework.util.ConcurrentLruCacheRegistry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Unit tests for {@link CachingPropertySourcesPropertyResolver}.
+ *
+ * @author agent
+ */
+class CachingPropertySourcesPropertyResolverTests {
+
+	private final Properties testProperties = new Properties();
+
+	private final MutablePropertySources propertySources = new MutablePropertySources();
+
+	private final CachingPropertySourcesPropertyResolver propertyResolver =
+			new CachingPropertySourcesPropertyResolver(this.propertySources);
+
+
+	@BeforeEach
+	void setUp() {
+		this.propertySources.addFirst(new PropertiesPropertySource("testProperties", this.testProperties));
+	}
+
+
+	@Test
+	void getPropertyIsCached() {
+		this.testProperties.put("foo", "bar");
+		assertThat(this.propertyResolver.getProperty("foo")).isEqualTo("bar");
+		this.testProperties.put("foo", "baz");
+		assertThat(this.propertyResolver.getProperty("foo")).isEqualTo("bar");
+
+		this.propertyResolver.clearCache();
+		assertThat(this.propertyResolver.getProperty("foo")).isEqualTo("baz");
+	}
+
+	@Test
+	void missingPropertyIsCached() {
+		assertThat(this.propertyResolver.containsProperty("foo")).isFalse();
+		assertThat(this.propertyResolver.getProperty("foo")).isNull();
+		this.testProperties.put("foo", "bar");
+		assertThat(this.propertyResolver.getProperty("foo")).isNull();
+		assertThat(this.propertyResolver.getProperty("foo", "default")).isEqualTo("default");
+	}
+
+	@Test
+	void conversionAppliedToCachedValue() {
+		this.testProperties.put("num", "42");
+		assertThat(this.propertyResolver.getProperty("num")).isEqualTo("42");
+		assertThat(this.propertyResolver.getProperty("num", Integer.class)).isEqualTo(42);
+		assertThat(this.propertyResolver.getProperty("num", Long.class)).isEqualTo(42L);
+	}
+
+	@Test
+	void cacheInvalidatedOnAddFirst() {
+		this.testProperties.put("foo", "bar");
+		assertThat(this.propertyResolver.getProperty("foo")).isEqualTo("bar");
+		this.propertySources.addFirst(new MockPropertySource("override").withProperty("foo", "override"));
+		assertThat(this.propertyResolver.getProperty("foo")).isEqualTo("override");
+	}
+
+	@Test
+	void cacheInvalidatedOnRemoveAndReplace() {
+		MockPropertySource override = new MockPropertySource("override").withProperty("foo", "override");
+		this.propertySources.addFirst(override);
+		this.testProperties.put("foo", "bar");
+		assertThat(this.propertyResolver.getProperty("foo")).isEqualTo("override");
+
+		this.propertySources.replace("override", new MockPropertySource("override").withProperty("foo", "replaced"));
+		assertThat(this.propertyResolver.getProperty("foo")).isEqualTo("replaced");
+
+		this.propertySources.remove("override");
+		assertThat(this.propertyResolver.getProperty("foo")).isEqualTo("bar");
+	}
+
+	@Test
+	void cachesRegisteredOncePerResolver() {
+		this.testProperties.put("foo", "bar");
+		this.propertyResolver.getProperty("foo");
+		int cacheCount = ConcurrentLruCacheRegistry.getStatistics().get("environmentProperties").getCacheCount();
+		for (int i = 0; i < 10; i++) {
+			this.propertySources.addLast(new MockPropertySource("mock" + i));
+			assertThat(this.propertyResolver.getProperty("foo")).isEqualTo("bar");
+		}
+		assertThat(ConcurrentLruCacheRegistry.getStatistics().get("environmentProperties").getCacheCount())
+				.isLessThanOrEqualTo(cacheCount);
+	}
+
+	@Test
+	void nestedPlaceholdersCachedSeparately() {
+		this.testProperties.put("foo", "${bar}");
+		this.testProperties.put("bar", "baz");
+		assertThat(this.propertyResolver.getProperty("foo")).isEqualTo("baz");
+		assertThat(this.propertyResolver.getProperty("foo", String.class, false)).isEqualTo("${bar}");
+		assertThat(this.propertyResolver.getProperty("foo")).isEqualTo("baz");
+	}
+
+	@Test
+	void resolvePlaceholdersIsCached() {
+		this.testProperties.put("foo", "bar");
+		assertThat(this.propertyResolver.resolvePlaceholders("${foo}/${missing}")).isEqualTo("bar/${missing}");
+		assertThat(this.propertyResolver.resolveRequiredPlaceholders("${foo}")).isEqualTo("bar");
+		this.testProperties.put("foo", "baz");
+		assertThat(this.propertyResolver.resolvePlaceholders("${foo}/${missing}")).isEqualTo("bar/${missing}");
+		assertThat(this.propertyResolver.resolveRequiredPlaceholders("${foo}")).isEqualTo("bar");
+		assertThatIllegalArgumentException().isThrownBy(() ->
+				this.propertyResolver.resolveRequiredPlaceholders("${missing}"));
+	}
+
+	@Test
+	void placeholderSettingsClearCache() {
+		this.testProperties.put("foo", "${missing}");
+		this.propertyResolver.setIgnoreUnresolvableNestedPlaceholders(true);
+		assertThat(this.propertyResolver.getProperty("foo")).isEqualTo("${missing}");
+		this.propertyResolver.setIgnoreUnresolvableNestedPlaceholders(false);
+		assertThatIllegalArgumentException().isThrownBy(() -> this.propertyResolver.getProperty("foo"));
+	}
+
+	@Test
+	void environmentWithCachingResolver() {
+		StandardEnvironment environment = new StandardEnvironment() {
+			@Override
+			protected ConfigurablePropertyResolver createPropertyResolver(MutablePropertySources propertySources) {
+				return new CachingPropertySourcesPropertyResolver(propertySources);
+			}
+		};
+		environment.getPropertySources().addFirst(new MockPropertySource().withProperty("foo", "bar"));
+		assertThat(environment.getProperty("foo")).isEqualTo("bar");
+		assertThat(environment.resolvePlaceholders("${foo}")).isEqualTo("bar");
+	}
+
+}
@@ -174,4 +174,19 @@ class SystemEnvironmentPropertySourceTests {
 		assertThat(ps.getProperty("A_KEY")).isEqualTo("a_value");
 	}
 
+	@Test
+	@SuppressWarnings({"rawtypes", "unchecked"})
+	void withActualSystemEnvironment() {
+		Map<String, Object> systemEnv = (Map) System.getenv();
+		ps = new SystemEnvironmentPropertySource("sysEnv", systemEnv);
+		for (Map.Entry<String, Object> entry : systemEnv.entrySet()) {
+			String name = entry.getKey();
+			assertThat(ps.getProperty(name)).isEqualTo(entry.getValue());
+			if (name.equals(name.toUpperCase()) && !systemEnv.containsKey(name.toLowerCase())) {
+				assertThat(ps.getProperty(name.toLowerCase())).isEqualTo(entry.getValue());
+			}
+		}
+		assertThat(ps.containsProperty("no.such-property.for.sure")).isFalse();
+	}
+
 }
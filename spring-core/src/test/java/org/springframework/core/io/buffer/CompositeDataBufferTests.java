@@ -0,0 +1,256 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import org.springframework.util.FileCopyUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Unit tests for {@link CompositeDataBuffer}.
+ *
+ * @author agent
+ */
+class CompositeDataBufferTests {
+
+	private final PooledDataBufferFactory bufferFactory = new PooledDataBufferFactory();
+
+
+	@Test
+	void read() {
+		CompositeDataBuffer composite = composite("foo", "bar", "baz");
+		assertThat(composite.componentCount()).isEqualTo(3);
+		assertThat(composite.readableByteCount()).isEqualTo(9);
+		assertThat(composite.getByte(3)).isEqualTo((byte) 'b');
+		assertThat(composite.read()).isEqualTo((byte) 'f');
+
+		byte[] result = new byte[5];
+		composite.read(result);
+		assertThat(result).isEqualTo("oobar".getBytes(StandardCharsets.UTF_8));
+		assertThat(composite.readPosition()).isEqualTo(6);
+		assertThat(composite.toString(StandardCharsets.UTF_8)).isEqualTo("baz");
+		assertThat(composite.toString(0, 9, StandardCharsets.UTF_8)).isEqualTo("foobarbaz");
+
+		release(composite);
+	}
+
+	@Test
+	void componentReadPositionIsRespected() {
+		DataBuffer first = stringBuffer("xxfoo");
+		first.readPosition(2);
+		CompositeDataBuffer composite = new CompositeDataBuffer(this.bufferFactory,
+				Arrays.asList(first, stringBuffer("bar")));
+		assertThat(composite.toString(StandardCharsets.UTF_8)).isEqualTo("foobar");
+		release(composite);
+	}
+
+	@Test
+	void indexOf() {
+		CompositeDataBuffer composite = composite("ab", "cd", "ab");
+		assertThat(composite.indexOf(b -> b == 'a', 0)).isEqualTo(0);
+		assertThat(composite.indexOf(b -> b == 'a', 1)).isEqualTo(4);
+		assertThat(composite.indexOf(b -> b == 'c', -1)).isEqualTo(2);
+		assertThat(composite.indexOf(b -> b == 'x', 0)).isEqualTo(-1);
+		assertThat(composite.indexOf(b -> b == 'a', 6)).isEqualTo(-1);
+
+		composite.writePosition(4);
+		assertThat(composite.indexOf(b -> b == 'a', 1)).isEqualTo(-1);
+		release(composite);
+	}
+
+	@Test
+	void lastIndexOf() {
+		CompositeDataBuffer composite = composite("ab", "cd", "ab");
+		assertThat(composite.lastIndexOf(b -> b == 'b', 5)).isEqualTo(5);
+		assertThat(composite.lastIndexOf(b -> b == 'b', 4)).isEqualTo(1);
+		assertThat(composite.lastIndexOf(b -> b == 'd', Integer.MAX_VALUE)).isEqualTo(3);
+		assertThat(composite.lastIndexOf(b -> b == 'x', 5)).isEqualTo(-1);
+		assertThat(composite.lastIndexOf(b -> b == 'a', -1)).isEqualTo(-1);
+		release(composite);
+	}
+
+	@Test
+	void asByteBuffer() {
+		CompositeDataBuffer composite = composite("foo", "bar");
+
+		ByteBuffer view = composite.asByteBuffer(3, 3);
+		assertThat(view.isDirect()).isTrue();
+		assertThat(view.get()).isEqualTo((byte) 'b');
+
+		ByteBuffer copy = composite.asByteBuffer(1, 4);
+		assertThat(copy.isReadOnly()).isTrue();
+		byte[] result = new byte[4];
+		copy.get(result);
+		assertThat(result).isEqualTo("ooba".getBytes(StandardCharsets.UTF_8));
+
+		release(composite);
+	}
+
+	@Test
+	void asInputStream() throws IOException {
+		CompositeDataBuffer composite = composite("foo", "bar", "baz");
+		InputStream inputStream = composite.asInputStream(true);
+		assertThat(inputStream.available()).isEqualTo(9);
+		assertThat(inputStream.read()).isEqualTo('f');
+		assertThat(FileCopyUtils.copyToByteArray(inputStream)).isEqualTo("oobarbaz".getBytes(StandardCharsets.UTF_8));
+		assertThat(composite.isAllocated()).isFalse();
+		assertThat(this.bufferFactory.getActiveAllocations()).isEqualTo(0);
+	}
+
+	@Test
+	void slice() {
+		CompositeDataBuffer composite = composite("foo", "bar", "baz");
+		DataBuffer slice = composite.slice(2, 5);
+		assertThat(slice.toString(StandardCharsets.UTF_8)).isEqualTo("obarb");
+		assertThat(slice.indexOf(b -> b == 'b', 0)).isEqualTo(1);
+		assertThat(slice.indexOf(b -> b == 'b', 2)).isEqualTo(4);
+
+		DataBuffer nested = slice.slice(1, 3);
+		assertThat(nested.toString(StandardCharsets.UTF_8)).isEqualTo("bar");
+
+		assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(() -> slice.write((byte) 'x'));
+		release(composite);
+	}
+
+	@Test
+	void retainedSlice() {
+		CompositeDataBuffer composite = composite("foo", "bar");
+		DataBuffer slice = composite.retainedSlice(1, 4);
+		assertThat(DataBufferUtils.release(composite)).isFalse();
+		assertThat(this.bufferFactory.getActiveAllocations()).isEqualTo(2);
+
+		assertThat(slice.toString(StandardCharsets.UTF_8)).isEqualTo("ooba");
+		assertThat(DataBufferUtils.release(slice)).isTrue();
+		assertThat(composite.isAllocated()).isFalse();
+		assertThat(this.bufferFactory.getActiveAllocations()).isEqualTo(0);
+		assertThatIllegalStateException().isThrownBy(composite::retain);
+	}
+
+	@Test
+	void write() throws IOException {
+		CompositeDataBuffer composite = composite("foo");
+		composite.write((byte) 'b');
+		composite.write("ar".getBytes(StandardCharsets.UTF_8));
+		composite.write("baz", StandardCharsets.UTF_8);
+		OutputStream outputStream = composite.asOutputStream();
+		outputStream.write("qux".getBytes(StandardCharsets.UTF_8));
+
+		assertThat(composite.componentCount()).isEqualTo(2);
+		assertThat(composite.writableByteCount()).isGreaterThan(0);
+		assertThat(composite.toString(StandardCharsets.UTF_8)).isEqualTo("foobarbazqux");
+		release(composite);
+	}
+
+	@Test
+	void writeAfterWritePositionMovedBack() {
+		CompositeDataBuffer composite = composite("foo", "bar", "baz");
+		composite.writePosition(4);
+		composite.write("xy", StandardCharsets.UTF_8);
+		assertThat(composite.componentCount()).isEqualTo(3);
+		assertThat(composite.toString(StandardCharsets.UTF_8)).isEqualTo("foobxy");
+
+		composite.writePosition(5);
+		composite.write("z", StandardCharsets.UTF_8);
+		assertThat(composite.toString(StandardCharsets.UTF_8)).isEqualTo("foobxz");
+		release(composite);
+	}
+
+	@Test
+	void capacity() {
+		CompositeDataBuffer composite = composite("foo", "bar");
+		assertThat(composite.capacity()).isEqualTo(6);
+		assertThat(composite.writableByteCount()).isEqualTo(0);
+
+		composite.ensureCapacity(10);
+		assertThat(composite.writableByteCount()).isGreaterThanOrEqualTo(10);
+		assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(() -> composite.capacity(4));
+		release(composite);
+	}
+
+	@Test
+	void composeDefaultBuffers() {
+		DataBuffer first = stringBuffer("foo");
+		assertThat(DataBufferUtils.compose(Arrays.asList(first))).isSameAs(first);
+
+		DataBuffer composed = DataBufferUtils.compose(Arrays.asList(first, stringBuffer("bar")));
+		assertThat(composed).isInstanceOf(CompositeDataBuffer.class);
+		assertThat(composed.toString(StandardCharsets.UTF_8)).isEqualTo("foobar");
+		release(composed);
+	}
+
+	@Test
+	void composeNonPooledBuffers() {
+		DefaultDataBufferFactory defaultBufferFactory = new DefaultDataBufferFactory();
+		DataBuffer foo = defaultBufferFactory.wrap("foo".getBytes(StandardCharsets.UTF_8));
+		DataBuffer bar = defaultBufferFactory.wrap("bar".getBytes(StandardCharsets.UTF_8));
+
+		DataBuffer composed = DataBufferUtils.compose(Arrays.asList(foo, bar));
+		assertThat(composed).isInstanceOf(CompositeDataBuffer.class);
+		assertThat(composed.factory()).isSameAs(defaultBufferFactory);
+		composed.write("baz", StandardCharsets.UTF_8);
+		assertThat(composed.toString(StandardCharsets.UTF_8)).isEqualTo("foobarbaz");
+		assertThat(DataBufferUtils.release(composed)).isTrue();
+	}
+
+	@Test
+	void join() {
+		Flux<DataBuffer> flux = Flux.just(stringBuffer("foo"), stringBuffer("bar"), stringBuffer("baz"));
+
+		StepVerifier.create(DataBufferUtils.join(flux))
+				.consumeNextWith(buffer -> {
+					assertThat(buffer).isInstanceOf(CompositeDataBuffer.class);
+					assertThat(buffer.toString(StandardCharsets.UTF_8)).isEqualTo("foobarbaz");
+					release(buffer);
+				})
+				.verifyComplete();
+	}
+
+
+	private CompositeDataBuffer composite(String... values) {
+		DataBuffer[] buffers = new DataBuffer[values.length];
+		for (int i = 0; i < values.length; i++) {
+			buffers[i] = stringBuffer(values[i]);
+		}
+		return new CompositeDataBuffer(this.bufferFactory, Arrays.asList(buffers));
+	}
+
+	private DataBuffer stringBuffer(String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(bytes.length);
+		buffer.write(bytes);
+		return buffer;
+	}
+
+	private void release(DataBuffer buffer) {
+		assertThat(DataBufferUtils.release(buffer)).isTrue();
+		assertThat(this.bufferFactory.getActiveAllocations()).isEqualTo(0);
+	}
+
+}
@@ -249,6 +249,58 @@ class DataBufferUtilsTests extends AbstractDataBufferAllocatingTests {
 				.verify(Duration.ofSeconds(5));
 	}
 
+	@ParameterizedDataBufferAllocatingTest
+	void readMapped(String displayName, DataBufferFactory bufferFactory) throws Exception {
+		super.bufferFactory = bufferFactory;
+
+		Flux<DataBuffer> flux = DataBufferUtils.readMapped(
+				this.resource.getFile().toPath(), 0, Long.MAX_VALUE, super.bufferFactory, 3);
+
+		verifyReadData(flux);
+	}
+
+	@ParameterizedDataBufferAllocatingTest
+	void readMappedRegion(String displayName, DataBufferFactory bufferFactory) throws Exception {
+		super.bufferFactory = bufferFactory;
+
+		Flux<DataBuffer> flux = DataBufferUtils.readMapped(
+				this.resource.getFile().toPath(), 3, 5, super.bufferFactory, 3);
+
+		StepVerifier.create(flux)
+				.consumeNextWith(stringConsumer("bar"))
+				.consumeNextWith(stringConsumer("ba"))
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+	}
+
+	@ParameterizedDataBufferAllocatingTest
+	void readMappedBeyondEnd(String displayName, DataBufferFactory bufferFactory) throws Exception {
+		super.bufferFactory = bufferFactory;
+
+		Flux<DataBuffer> flux = DataBufferUtils.readMapped(
+				this.resource.getFile().toPath(), 20, 5, super.bufferFactory, 3);
+
+		StepVerifier.create(flux)
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+	}
+
+	@ParameterizedDataBufferAllocatingTest
+	void readMappedOnDemand(String displayName, DataBufferFactory bufferFactory) throws Exception {
+		super.bufferFactory = bufferFactory;
+
+		Flux<DataBuffer> flux = DataBufferUtils.readMapped(
+				this.resource.getFile().toPath(), 0, Long.MAX_VALUE, super.bufferFactory, 3);
+
+		StepVerifier.create(flux, 1)
+				.consumeNextWith(stringConsumer("foo"))
+				.expectNoEvent(Duration.ofMillis(100))
+				.thenRequest(1)
+				.consumeNextWith(stringConsumer("bar"))
+				.thenCancel()
+				.verify(Duration.ofSeconds(5));
+	}
+
 	private void verifyReadData(Flux<DataBuffer> buffers) {
 		StepVerifier.create(buffers)
 				.consumeNextWith(stringConsumer("foo"))
@@ -815,6 +867,9 @@ class DataBufferUtilsTests extends AbstractDataBufferAllocatingTests {
 		StepVerifier.create(result)
 				.consumeNextWith(buf -> {
 					assertThat(buf.toString(StandardCharsets.UTF_8)).isEqualTo("foobarbaz");
+					if (bufferFactory instanceof DefaultDataBufferFactory) {
+						assertThat(buf).isInstanceOf(CompositeDataBuffer.class);
+					}
 					release(buf);
 				})
 				.verifyComplete();
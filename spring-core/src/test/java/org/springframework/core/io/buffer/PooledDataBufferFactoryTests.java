@@ -0,0 +1,212 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Unit tests for {@link PooledDataBufferFactory}.
+ *
+ * @author agent
+ */
+class PooledDataBufferFactoryTests {
+
+	private final PooledDataBufferFactory bufferFactory = new PooledDataBufferFactory();
+
+
+	@Test
+	void allocateAndRelease() {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(100);
+		assertThat(buffer).isInstanceOf(PooledDataBuffer.class);
+		assertThat(buffer.capacity()).isEqualTo(100);
+		assertThat(buffer.asByteBuffer().isDirect()).isTrue();
+		assertThat(this.bufferFactory.getActiveAllocations()).isEqualTo(1);
+
+		assertThat(DataBufferUtils.release(buffer)).isTrue();
+		assertThat(((PooledDataBuffer) buffer).isAllocated()).isFalse();
+		assertThat(this.bufferFactory.getActiveAllocations()).isEqualTo(0);
+		assertThat(DataBufferUtils.release(buffer)).isFalse();
+	}
+
+	@Test
+	void releasedSegmentIsReused() {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(100);
+		long pooledMemory = this.bufferFactory.getPooledMemory();
+		assertThat(pooledMemory).isGreaterThan(0);
+		DataBufferUtils.release(buffer);
+
+		for (int i = 0; i < 1000; i++) {
+			DataBuffer next = this.bufferFactory.allocateBuffer(128);
+			next.write(new byte[128]);
+			DataBufferUtils.release(next);
+		}
+		assertThat(this.bufferFactory.getPooledMemory()).isEqualTo(pooledMemory);
+	}
+
+	@Test
+	void retainAndRelease() {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(10);
+		DataBufferUtils.retain(buffer);
+		assertThat(DataBufferUtils.release(buffer)).isFalse();
+		assertThat(this.bufferFactory.getActiveAllocations()).isEqualTo(1);
+		assertThat(DataBufferUtils.release(buffer)).isTrue();
+		assertThat(this.bufferFactory.getActiveAllocations()).isEqualTo(0);
+		assertThatIllegalStateException().isThrownBy(((PooledDataBuffer) buffer)::retain);
+	}
+
+	@Test
+	void writeAfterRelease() {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(10);
+		DataBufferUtils.release(buffer);
+		assertThatIllegalStateException().isThrownBy(() -> buffer.write((byte) 'a'));
+	}
+
+	@Test
+	void capacityIncrease() {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(2);
+		buffer.write("abcdefghij".getBytes(StandardCharsets.UTF_8));
+		assertThat(buffer.capacity()).isGreaterThanOrEqualTo(10);
+		assertThat(buffer.toString(StandardCharsets.UTF_8)).isEqualTo("abcdefghij");
+		assertThat(this.bufferFactory.getActiveAllocations()).isEqualTo(1);
+		assertThat(DataBufferUtils.release(buffer)).isTrue();
+		assertThat(this.bufferFactory.getActiveAllocations()).isEqualTo(0);
+	}
+
+	@Test
+	void sliceSharesReferenceCount() {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(10);
+		buffer.write("abcdef".getBytes(StandardCharsets.UTF_8));
+		DataBuffer slice = buffer.slice(1, 3);
+		assertThat(slice).isInstanceOf(PooledDataBuffer.class);
+		assertThat(slice.toString(StandardCharsets.UTF_8)).isEqualTo("bcd");
+
+		DataBufferUtils.retain(slice);
+		assertThat(DataBufferUtils.release(buffer)).isFalse();
+		assertThat(((PooledDataBuffer) slice).isAllocated()).isTrue();
+		assertThat(DataBufferUtils.release(slice)).isTrue();
+		assertThat(((PooledDataBuffer) buffer).isAllocated()).isFalse();
+	}
+
+	@Test
+	void readSliceAfterRelease() {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(10);
+		buffer.write("abcdef".getBytes(StandardCharsets.UTF_8));
+		DataBuffer slice = buffer.slice(1, 3);
+		DataBufferUtils.release(buffer);
+
+		DataBuffer other = this.bufferFactory.allocateBuffer(10);
+		other.write("ghijkl".getBytes(StandardCharsets.UTF_8));
+		assertThatIllegalStateException().isThrownBy(slice::read);
+		assertThatIllegalStateException().isThrownBy(() -> slice.getByte(0));
+		assertThatIllegalStateException().isThrownBy(() -> slice.toString(StandardCharsets.UTF_8));
+		assertThatIllegalStateException().isThrownBy(slice::asByteBuffer);
+		assertThatIllegalStateException().isThrownBy(() -> slice.write((byte) 'x'));
+		assertThat(other.toString(StandardCharsets.UTF_8)).isEqualTo("ghijkl");
+		DataBufferUtils.release(other);
+	}
+
+	@Test
+	void inputStreamReleasesOnClose() throws Exception {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(10);
+		buffer.write((byte) 'a');
+		InputStream inputStream = buffer.asInputStream(true);
+		assertThat(inputStream.read()).isEqualTo('a');
+		inputStream.close();
+		inputStream.close();
+		assertThat(((PooledDataBuffer) buffer).isAllocated()).isFalse();
+	}
+
+	@Test
+	void allocateBeyondPooledCapacity() {
+		PooledDataBufferFactory bufferFactory = new PooledDataBufferFactory(256, 1024, 1024 * 1024);
+		DataBuffer buffer = bufferFactory.allocateBuffer(2048);
+		assertThat(buffer.capacity()).isEqualTo(2048);
+		assertThat(bufferFactory.getPooledMemory()).isEqualTo(0);
+		assertThat(DataBufferUtils.release(buffer)).isTrue();
+		assertThat(bufferFactory.getActiveAllocations()).isEqualTo(0);
+	}
+
+	@Test
+	void allocateBeyondPooledMemory() {
+		PooledDataBufferFactory bufferFactory = new PooledDataBufferFactory(256, 1024, 0);
+		DataBuffer buffer = bufferFactory.allocateBuffer(100);
+		buffer.write((byte) 'a');
+		assertThat(bufferFactory.getPooledMemory()).isEqualTo(0);
+		assertThat(DataBufferUtils.release(buffer)).isTrue();
+	}
+
+	@Test
+	void terminatedThreadCacheIsDrained() throws Exception {
+		PooledDataBufferFactory bufferFactory = new PooledDataBufferFactory(64, 64, 1024 * 1024);
+		int segmentsPerChunk = 256 * 1024 / 64;
+		Thread thread = new Thread(() -> {
+			List<DataBuffer> buffers = new ArrayList<>();
+			for (int i = 0; i < segmentsPerChunk; i++) {
+				buffers.add(bufferFactory.allocateBuffer(64));
+			}
+			buffers.forEach(DataBufferUtils::release);
+		});
+		thread.start();
+		thread.join();
+		assertThat(bufferFactory.getPooledMemory()).isEqualTo(256 * 1024);
+
+		List<DataBuffer> buffers = new ArrayList<>();
+		for (int i = 0; i < segmentsPerChunk; i++) {
+			buffers.add(bufferFactory.allocateBuffer(64));
+		}
+		assertThat(bufferFactory.getPooledMemory()).isEqualTo(256 * 1024);
+		buffers.forEach(DataBufferUtils::release);
+	}
+
+	@Test
+	void invalidMaxPooledCapacity() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new PooledDataBufferFactory(256, 1000, 1024));
+	}
+
+	@Test
+	void joinReleasesSourceBuffers() {
+		DataBuffer first = this.bufferFactory.allocateBuffer(3);
+		first.write("foo".getBytes(StandardCharsets.UTF_8));
+		DataBuffer second = this.bufferFactory.allocateBuffer(3);
+		second.write("bar".getBytes(StandardCharsets.UTF_8));
+		DataBuffer result = this.bufferFactory.join(Arrays.asList(first, second));
+		assertThat(result.toString(StandardCharsets.UTF_8)).isEqualTo("foobar");
+		assertThat(this.bufferFactory.getActiveAllocations()).isEqualTo(1);
+		DataBufferUtils.release(result);
+		assertThat(this.bufferFactory.getActiveAllocations()).isEqualTo(0);
+	}
+
+	@Test
+	void leakDetectionWithReleasedBuffer() {
+		this.bufferFactory.setLeakDetection(true);
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(10);
+		DataBufferUtils.release(buffer);
+		this.bufferFactory.allocateBuffer(10);
+		assertThat(this.bufferFactory.getLeakCount()).isEqualTo(0);
+	}
+
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.metrics;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.core.metrics.BufferingApplicationStartup.BufferedStartupStep;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for {@link BufferingApplicationStartup}.
+ *
+ * @author agent
+ * @since 5.2.6
+ */
+class BufferingApplicationStartupTests {
+
+	@Test
+	void defaultApplicationStartupDoesNotEvaluateTags() {
+		StartupStep step = ApplicationStartup.DEFAULT.start("test.step");
+		step.tag("key", () -> {
+			throw new IllegalStateException("Should not be evaluated");
+		});
+		step.end();
+		assertThat(step.getTags()).isEmpty();
+		assertThat(step.getParentId()).isNull();
+	}
+
+	@Test
+	void recordNestedSteps() {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup();
+		StartupStep outer = applicationStartup.start("test.outer");
+		StartupStep inner = applicationStartup.start("test.inner").tag("beanName", "myBean");
+		inner.end();
+		StartupStep sibling = applicationStartup.start("test.sibling");
+		sibling.end();
+		outer.end();
+		StartupStep next = applicationStartup.start("test.next");
+		next.end();
+
+		List<BufferedStartupStep> steps = applicationStartup.getBufferedSteps();
+		assertThat(steps).extracting(StartupStep::getName)
+				.containsExactly("test.outer", "test.inner", "test.sibling", "test.next");
+		assertThat(steps.get(0).getParentId()).isNull();
+		assertThat(steps.get(1).getParentId()).isEqualTo(outer.getId());
+		assertThat(steps.get(2).getParentId()).isEqualTo(outer.getId());
+		assertThat(steps.get(3).getParentId()).isNull();
+		assertThat(steps.get(1).getTags()).hasSize(1);
+		StartupStep.Tag tag = steps.get(1).getTags().iterator().next();
+		assertThat(tag.getKey()).isEqualTo("beanName");
+		assertThat(tag.getValue()).isEqualTo("myBean");
+		assertThat(steps).allSatisfy(step -> assertThat(step.getDuration()).isGreaterThanOrEqualTo(0));
+	}
+
+	@Test
+	void nestingIsPerThread() throws Exception {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup();
+		StartupStep outer = applicationStartup.start("test.outer");
+		AtomicReference<StartupStep> other = new AtomicReference<>();
+		Thread thread = new Thread(() -> {
+			StartupStep step = applicationStartup.start("test.other");
+			step.end();
+			other.set(step);
+		});
+		thread.start();
+		thread.join();
+		outer.end();
+
+		assertThat(other.get().getParentId()).isNull();
+		assertThat(applicationStartup.getBufferedSteps()).hasSize(2);
+	}
+
+	@Test
+	void endingOuterStepClosesRunningInnerSteps() {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup();
+		StartupStep outer = applicationStartup.start("test.outer");
+		StartupStep inner = applicationStartup.start("test.inner");
+		outer.end();
+		StartupStep next = applicationStartup.start("test.next");
+		next.end();
+		inner.end();
+
+		assertThat(next.getParentId()).isNull();
+		assertThat(inner.getParentId()).isEqualTo(outer.getId());
+		assertThat(applicationStartup.getBufferedSteps()).hasSize(3);
+	}
+
+	@Test
+	void startTimeIsBasedOnEpoch() {
+		long before = System.currentTimeMillis();
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup();
+		applicationStartup.start("test.step").end();
+		long after = System.currentTimeMillis();
+
+		long startMillis = applicationStartup.getBufferedSteps().get(0).getStartTime() / 1_000_000L;
+		assertThat(startMillis).isBetween(before, after);
+	}
+
+	@Test
+	void ringBufferOverwritesOldestSteps() {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(2);
+		for (int i = 0; i < 5; i++) {
+			applicationStartup.start("test.step" + i).end();
+		}
+		assertThat(applicationStartup.getCapacity()).isEqualTo(2);
+		assertThat(applicationStartup.getRecordedStepCount()).isEqualTo(5);
+		assertThat(applicationStartup.getBufferedSteps()).extracting(StartupStep::getName)
+				.containsExactly("test.step3", "test.step4");
+
+		applicationStartup.clear();
+		assertThat(applicationStartup.getBufferedSteps()).isEmpty();
+	}
+
+	@Test
+	void endedStepCannotBeModified() {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup();
+		StartupStep step = applicationStartup.start("test.step");
+		step.end();
+		assertThatIllegalStateException().isThrownBy(() -> step.tag("key", "value"));
+		assertThatIllegalStateException().isThrownBy(step::end);
+	}
+
+	@Test
+	void invalidCapacity() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new BufferingApplicationStartup(0));
+	}
+
+	@Test
+	void writeJson() {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup();
+		StartupStep outer = applicationStartup.start("test.outer");
+		applicationStartup.start("test.inner").tag("beanType", "com.example.\"Quoted\"\n").end();
+		outer.end();
+
+		String json = applicationStartup.toJson();
+		assertThat(json).startsWith("[{\"id\":" + outer.getId() + ",\"name\":\"test.outer\",\"thread\":");
+		assertThat(json).contains(",\"parentId\":" + outer.getId() + ",\"name\":\"test.inner\"");
+		assertThat(json).contains("\"tags\":{\"beanType\":\"com.example.\\\"Quoted\\\"\\n\"}}");
+		assertThat(json).endsWith("}]");
+		assertThat(new BufferingApplicationStartup().toJson()).isEqualTo("[]");
+	}
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.util.ClassUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Tests for {@link CachingMetadataReaderFactory}.
+ *
+ * @author agent
+ * @since 5.2.6
+ */
+class CachingMetadataReaderFactoryTests {
+
+	@Test
+	void concurrentRequestsParseOnce() throws Exception {
+		CachingMetadataReaderFactory factory = new CachingMetadataReaderFactory();
+		CountingResource resource = new CountingResource(getClass());
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Callable<MetadataReader>> tasks = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				tasks.add(() -> factory.getMetadataReader(resource));
+			}
+			List<Future<MetadataReader>> results = executor.invokeAll(tasks);
+			MetadataReader first = results.get(0).get();
+			for (Future<MetadataReader> result : results) {
+				assertThat(result.get()).isSameAs(first);
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		assertThat(resource.reads.get()).isEqualTo(1);
+		assertThat(factory.getMetadataReader(resource).getClassMetadata().getClassName())
+				.isEqualTo(getClass().getName());
+	}
+
+	@Test
+	void failedParseNotCached() throws Exception {
+		CachingMetadataReaderFactory factory = new CachingMetadataReaderFactory();
+		Resource resource = new ClassPathResource("NonExistent.class", getClass());
+		assertThatExceptionOfType(IOException.class).isThrownBy(() -> factory.getMetadataReader(resource));
+		assertThatExceptionOfType(IOException.class).isThrownBy(() -> factory.getMetadataReader(resource));
+	}
+
+
+	private static class CountingResource extends ClassPathResource {
+
+		final AtomicInteger reads = new AtomicInteger();
+
+		CountingResource(Class<?> clazz) {
+			super(ClassUtils.convertClassNameToResourcePath(clazz.getName()) + ClassUtils.CLASS_FILE_SUFFIX);
+		}
+
+		@Override
+		public InputStream getInputStream() throws IOException {
+			this.reads.incrementAndGet();
+			try {
+				// Give concurrent requests a chance to arrive while parsing
+				Thread.sleep(50);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			return super.getInputStream();
+		}
+	}
+
+}
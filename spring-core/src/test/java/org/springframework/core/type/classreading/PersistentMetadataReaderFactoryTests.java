@@ -0,0 +1,231 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Array;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Map;
+import java.util.StringJoiner;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.type.AbstractAnnotationMetadataTests;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.lang.Nullable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link PersistentMetadataReaderFactory}, running the common
+ * {@link AnnotationMetadata} tests against metadata read back from a cache file.
+ *
+ * @author agent
+ * @since 5.2.6
+ */
+class PersistentMetadataReaderFactoryTests extends AbstractAnnotationMetadataTests {
+
+	private static final String ANNOTATED_COMPONENT =
+			"org.springframework.core.type.AnnotationMetadataTests$AnnotatedComponent";
+
+	@TempDir
+	Path tempDir;
+
+
+	@Override
+	protected AnnotationMetadata get(Class<?> source) {
+		try {
+			return roundTrip(source.getName(), source.getClassLoader());
+		}
+		catch (Exception ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	@Test
+	void complexAnnotationAttributes() throws Exception {
+		AnnotationMetadata parsed = new SimpleMetadataReaderFactory(getClass().getClassLoader())
+				.getMetadataReader(ANNOTATED_COMPONENT).getAnnotationMetadata();
+		AnnotationMetadata cached = roundTrip(ANNOTATED_COMPONENT, getClass().getClassLoader());
+
+		assertThat(cached.getAnnotationTypes()).isEqualTo(parsed.getAnnotationTypes());
+		for (String annotationType : parsed.getAnnotationTypes()) {
+			assertThat(render(cached.getAnnotationAttributes(annotationType, true)))
+					.isEqualTo(render(parsed.getAnnotationAttributes(annotationType, true)));
+			assertThat(render(cached.getAllAnnotationAttributes(annotationType, true)))
+					.isEqualTo(render(parsed.getAllAnnotationAttributes(annotationType, true)));
+			assertThat(render(cached.getAnnotationAttributes(annotationType, false)))
+					.isEqualTo(render(parsed.getAnnotationAttributes(annotationType, false)));
+		}
+		for (String annotationType : parsed.getAnnotationTypes()) {
+			assertThat(cached.getMetaAnnotationTypes(annotationType))
+					.isEqualTo(parsed.getMetaAnnotationTypes(annotationType));
+		}
+	}
+
+	@Test
+	void annotatedMethods() throws Exception {
+		String className = WithAnnotatedMethod.class.getName();
+		AnnotationMetadata cached = roundTrip(className, getClass().getClassLoader());
+		MethodMetadata method = cached.getAnnotatedMethods(DirectAnnotation1.class.getName()).iterator().next();
+		assertThat(method.getMethodName()).isEqualTo("test");
+		assertThat(method.getDeclaringClassName()).isEqualTo(className);
+		assertThat(method.getReturnTypeName()).isEqualTo("void");
+		assertThat(method.isOverridable()).isTrue();
+		assertThat(method.getAnnotations().get(DirectAnnotation1.class).getSource().toString())
+				.isEqualTo(className + ".test()");
+	}
+
+	@Test
+	void unchangedClassFileNotRead() throws Exception {
+		File classFile = copyClassFile(WithAnnotatedMethod.class);
+		File cacheFile = this.tempDir.resolve("metadata.cache").toFile();
+
+		PersistentMetadataReaderFactory factory = new PersistentMetadataReaderFactory(cacheFile);
+		factory.getMetadataReader(new FileSystemResource(classFile));
+		factory.writeCache();
+		assertThat(cacheFile).exists();
+
+		// Same size and timestamp but unparseable content: only works from the cache
+		long lastModified = classFile.lastModified();
+		Files.write(classFile.toPath(), new byte[(int) classFile.length()]);
+		assertThat(classFile.setLastModified(lastModified)).isTrue();
+
+		factory = new PersistentMetadataReaderFactory(cacheFile);
+		AnnotationMetadata metadata = factory.getMetadataReader(new FileSystemResource(classFile)).getAnnotationMetadata();
+		assertThat(metadata.getClassName()).isEqualTo(WithAnnotatedMethod.class.getName());
+		assertThat(metadata.hasAnnotatedMethods(DirectAnnotation1.class.getName())).isTrue();
+	}
+
+	@Test
+	void changedClassFileReadAgain() throws Exception {
+		File classFile = copyClassFile(WithAnnotatedMethod.class);
+		File cacheFile = this.tempDir.resolve("metadata.cache").toFile();
+
+		PersistentMetadataReaderFactory factory = new PersistentMetadataReaderFactory(cacheFile);
+		factory.getMetadataReader(new FileSystemResource(classFile));
+		factory.writeCache();
+
+		long lastModified = classFile.lastModified();
+		Files.copy(copyClassFile(WithNonAnnotatedMethod.class).toPath(), classFile.toPath(),
+				StandardCopyOption.REPLACE_EXISTING);
+		assertThat(classFile.setLastModified(lastModified + 2000)).isTrue();
+
+		factory = new PersistentMetadataReaderFactory(cacheFile);
+		AnnotationMetadata metadata = factory.getMetadataReader(new FileSystemResource(classFile)).getAnnotationMetadata();
+		assertThat(metadata.getClassName()).isEqualTo(WithNonAnnotatedMethod.class.getName());
+		assertThat(metadata.hasAnnotatedMethods(DirectAnnotation1.class.getName())).isFalse();
+	}
+
+	@Test
+	void cacheFileNotHeldOpen() throws Exception {
+		File classFile = copyClassFile(WithAnnotatedMethod.class);
+		File cacheFile = this.tempDir.resolve("metadata.cache").toFile();
+
+		PersistentMetadataReaderFactory factory = new PersistentMetadataReaderFactory(cacheFile);
+		factory.getMetadataReader(new FileSystemResource(classFile));
+		factory.writeCache();
+
+		// Truncated in place after reading: cached entries still available
+		factory = new PersistentMetadataReaderFactory(cacheFile);
+		Files.write(cacheFile.toPath(), new byte[0]);
+		long lastModified = classFile.lastModified();
+		Files.write(classFile.toPath(), new byte[(int) classFile.length()]);
+		assertThat(classFile.setLastModified(lastModified)).isTrue();
+		AnnotationMetadata metadata = factory.getMetadataReader(new FileSystemResource(classFile)).getAnnotationMetadata();
+		assertThat(metadata.getClassName()).isEqualTo(WithAnnotatedMethod.class.getName());
+
+		// Replacing the cache file with entries from the current run
+		factory.getMetadataReader(new FileSystemResource(copyClassFile(WithNonAnnotatedMethod.class)));
+		factory.writeCache();
+		assertThat(cacheFile.length()).isGreaterThan(0);
+	}
+
+	@Test
+	void metadataReaderCacheBounded() throws Exception {
+		File cacheFile = this.tempDir.resolve("metadata.cache").toFile();
+		PersistentMetadataReaderFactory factory =
+				new PersistentMetadataReaderFactory(getClass().getClassLoader(), cacheFile);
+		assertThat(factory.getCacheLimit()).isEqualTo(CachingMetadataReaderFactory.DEFAULT_CACHE_LIMIT);
+		factory.setCacheLimit(1);
+
+		MetadataReader reader = factory.getMetadataReader(WithAnnotatedMethod.class.getName());
+		assertThat(factory.getMetadataReader(WithAnnotatedMethod.class.getName())).isSameAs(reader);
+		factory.getMetadataReader(WithNonAnnotatedMethod.class.getName());
+		assertThat(factory.getMetadataReader(WithAnnotatedMethod.class.getName())).isNotSameAs(reader);
+	}
+
+	@Test
+	void corruptCacheFileIgnored() throws Exception {
+		File cacheFile = this.tempDir.resolve("metadata.cache").toFile();
+		Files.write(cacheFile.toPath(), new byte[] {1, 2, 3});
+
+		PersistentMetadataReaderFactory factory =
+				new PersistentMetadataReaderFactory(getClass().getClassLoader(), cacheFile);
+		AnnotationMetadata metadata = factory.getMetadataReader(WithAnnotatedMethod.class.getName()).getAnnotationMetadata();
+		assertThat(metadata.hasAnnotatedMethods(DirectAnnotation1.class.getName())).isTrue();
+		factory.writeCache();
+		assertThat(cacheFile.length()).isGreaterThan(3);
+	}
+
+
+	private AnnotationMetadata roundTrip(String className, ClassLoader classLoader) throws IOException {
+		File cacheFile = Files.createTempFile(this.tempDir, "metadata", ".cache").toFile();
+		PersistentMetadataReaderFactory factory = new PersistentMetadataReaderFactory(classLoader, cacheFile);
+		factory.getMetadataReader(className);
+		factory.writeCache();
+		return new PersistentMetadataReaderFactory(classLoader, cacheFile)
+				.getMetadataReader(className).getAnnotationMetadata();
+	}
+
+	private static String render(@Nullable Object value) {
+		if (value instanceof Map) {
+			StringJoiner joiner = new StringJoiner(", ", "{", "}");
+			((Map<?, ?>) value).forEach((key, element) -> joiner.add(key + "=" + render(element)));
+			return joiner.toString();
+		}
+		if (value instanceof Collection) {
+			return render(((Collection<?>) value).toArray());
+		}
+		if (value != null && value.getClass().isArray()) {
+			StringJoiner joiner = new StringJoiner(", ", "[", "]");
+			for (int i = 0; i < Array.getLength(value); i++) {
+				joiner.add(render(Array.get(value, i)));
+			}
+			return joiner.toString();
+		}
+		return String.valueOf(value);
+	}
+
+	private File copyClassFile(Class<?> clazz) throws IOException {
+		String resourceName = clazz.getName().substring(clazz.getName().lastIndexOf('.') + 1) + ".class";
+		File classFile = this.tempDir.resolve(resourceName).toFile();
+		try (InputStream is = clazz.getResourceAsStream(resourceName)) {
+			Files.copy(is, classFile.toPath());
+		}
+		return classFile;
+	}
+
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.util.ConcurrentReferenceHashMap.ReferenceType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Unit tests for {@link ConcurrentLruCache} and {@link ConcurrentLruCacheRegistry}.
+ *
+ * @author agent
+ */
+class ConcurrentLruCacheTests {
+
+	private final AtomicInteger generatorCalls = new AtomicInteger();
+
+	private final ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<>(2, key -> {
+		this.generatorCalls.incrementAndGet();
+		return key + "value";
+	});
+
+
+	@Test
+	void getAndGenerate() {
+		assertThat(this.cache.get("k1")).isEqualTo("k1value");
+		assertThat(this.cache.get("k1")).isEqualTo("k1value");
+		assertThat(this.generatorCalls.get()).isEqualTo(1);
+		assertThat(this.cache.size()).isEqualTo(1);
+		assertThat(this.cache.hitCount()).isEqualTo(1);
+		assertThat(this.cache.missCount()).isEqualTo(1);
+		assertThat(this.cache.hitRatio()).isEqualTo(0.5);
+	}
+
+	@Test
+	void evictLeastRecentlyUsed() {
+		this.cache.get("k1");
+		this.cache.get("k2");
+		this.cache.get("k1");
+		this.cache.get("k3");
+
+		assertThat(this.cache.size()).isEqualTo(2);
+		assertThat(this.cache.containsKey("k1")).isTrue();
+		assertThat(this.cache.containsKey("k2")).isFalse();
+		assertThat(this.cache.containsKey("k3")).isTrue();
+		assertThat(this.cache.evictionCount()).isEqualTo(1);
+	}
+
+	@Test
+	void segmentedSizeLimit() {
+		ConcurrentLruCache<Integer, Integer> cache = new ConcurrentLruCache<>(100, key -> key);
+		for (int i = 0; i < 1000; i++) {
+			cache.get(i);
+		}
+		assertThat(cache.size()).isLessThanOrEqualTo(100);
+		assertThat(cache.evictionCount()).isEqualTo(1000 - cache.size());
+
+		cache.setSizeLimit(10);
+		assertThat(cache.sizeLimit()).isEqualTo(10);
+		assertThat(cache.size()).isLessThanOrEqualTo(10);
+		assertThatIllegalArgumentException().isThrownBy(() -> cache.setSizeLimit(0));
+	}
+
+	@Test
+	void putIfAbsentAndRemove() {
+		ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<>(10);
+		assertThat(cache.getIfPresent("k1")).isNull();
+		assertThat(cache.putIfAbsent("k1", "v1")).isNull();
+		assertThat(cache.putIfAbsent("k1", "v2")).isEqualTo("v1");
+		assertThat(cache.getIfPresent("k1")).isEqualTo("v1");
+		assertThat(cache.hitCount()).isEqualTo(1);
+		assertThat(cache.missCount()).isEqualTo(1);
+
+		cache.putIfAbsent("k2", "v2");
+		cache.removeIf(key -> key.endsWith("2"));
+		assertThat(cache.containsKey("k2")).isFalse();
+		assertThat(cache.remove("k1")).isTrue();
+		assertThat(cache.remove("k1")).isFalse();
+		assertThat(cache.size()).isEqualTo(0);
+		assertThatIllegalStateException().isThrownBy(() -> cache.get("k1"));
+	}
+
+	@Test
+	void forEachWithoutAffectingAccessOrder() {
+		this.cache.get("k1");
+		this.cache.get("k2");
+		Map<String, String> entries = new HashMap<>();
+		this.cache.forEach(entries::put);
+		assertThat(entries).containsEntry("k1", "k1value").containsEntry("k2", "k2value").hasSize(2);
+
+		this.cache.get("k3");
+		assertThat(this.cache.containsKey("k1")).isFalse();
+		assertThat(this.cache.containsKey("k2")).isTrue();
+	}
+
+	@Test
+	void generatorAccessingCache() {
+		AtomicReference<ConcurrentLruCache<Integer, Integer>> fibonacci = new AtomicReference<>();
+		fibonacci.set(new ConcurrentLruCache<>(64,
+				n -> (n < 2 ? n : fibonacci.get().get(n - 1) + fibonacci.get().get(n - 2))));
+		assertThat(fibonacci.get().get(30)).isEqualTo(832040);
+		assertThat(fibonacci.get().size()).isEqualTo(31);
+	}
+
+	@Test
+	void softReferencesWithEqualKeys() {
+		ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<>(10, key -> key + "value", ReferenceType.SOFT);
+		assertThat(cache.get(new String("k1"))).isEqualTo("k1value");
+		assertThat(cache.get(new String("k1"))).isEqualTo("k1value");
+		assertThat(cache.hitCount()).isEqualTo(1);
+		assertThat(cache.putIfAbsent(new String("k1"), "other")).isEqualTo("k1value");
+		assertThat(cache.containsKey("k1")).isTrue();
+
+		cache.get("k2");
+		Map<String, String> entries = new HashMap<>();
+		cache.forEach(entries::put);
+		assertThat(entries).containsEntry("k1", "k1value").containsEntry("k2", "k2value").hasSize(2);
+		cache.removeIf(key -> key.equals("k2"));
+		assertThat(cache.remove(new String("k1"))).isTrue();
+		assertThat(cache.size()).isEqualTo(0);
+	}
+
+	@Test
+	void weakReferencesDoNotPreventGarbageCollection() {
+		ConcurrentLruCache<Object, Object> cache = new ConcurrentLruCache<>(10, key -> new Object(), ReferenceType.WEAK);
+		Object key = new Object();
+		cache.get(key);
+		for (int i = 0; i < 100 && cache.containsKey(key); i++) {
+			System.gc();
+		}
+		assertThat(cache.containsKey(key)).isFalse();
+		assertThat(cache.getIfPresent(key)).isNull();
+		assertThat(cache.get(key)).isNotNull();
+	}
+
+	@Test
+	void estimatedMemory() {
+		ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<>(10);
+		cache.setWeigher((key, value) -> key.length() + value.length());
+		assertThat(cache.estimatedMemory()).isEqualTo(0);
+		cache.putIfAbsent("k1", "v1");
+		long entryMemory = cache.estimatedMemory();
+		assertThat(entryMemory).isGreaterThan(4);
+		cache.putIfAbsent("k2", "v2");
+		assertThat(cache.estimatedMemory()).isEqualTo(2 * entryMemory);
+		cache.remove("k1");
+		assertThat(cache.estimatedMemory()).isEqualTo(entryMemory);
+		cache.clear();
+		assertThat(cache.estimatedMemory()).isEqualTo(0);
+	}
+
+	@Test
+	void registry() {
+		ConcurrentLruCache<String, String> cache1 =
+				ConcurrentLruCacheRegistry.register("testCache", new ConcurrentLruCache<>(10, key -> key));
+		ConcurrentLruCache<String, String> cache2 =
+				ConcurrentLruCacheRegistry.register("testCache", new ConcurrentLruCache<>(10, key -> key));
+		cache1.get("k1");
+		cache1.get("k1");
+		cache2.get("k2");
+
+		ConcurrentLruCacheRegistry.Statistics statistics = ConcurrentLruCacheRegistry.getStatistics().get("testCache");
+		assertThat(statistics.getCacheCount()).isEqualTo(2);
+		assertThat(statistics.getSize()).isEqualTo(2);
+		assertThat(statistics.getSizeLimit()).isEqualTo(20);
+		assertThat(statistics.getHitCount()).isEqualTo(1);
+		assertThat(statistics.getMissCount()).isEqualTo(2);
+		assertThat(statistics.getHitRatio()).isEqualTo(1.0 / 3);
+		assertThat(statistics.getEstimatedMemory()).isEqualTo(cache1.estimatedMemory() + cache2.estimatedMemory());
+		assertThat(statistics.getEstimatedMemory()).isGreaterThan(0);
+
+		ConcurrentLruCacheRegistry.setSizeLimit("testCache", 5);
+		assertThat(cache1.sizeLimit()).isEqualTo(5);
+		ConcurrentLruCache<String, String> cache3 =
+				ConcurrentLruCacheRegistry.register("testCache", new ConcurrentLruCache<>(10, key -> key));
+		assertThat(cache3.sizeLimit()).isEqualTo(5);
+	}
+
+	@Test
+	void frameworkCachesRegistered() {
+		MimeTypeUtils.parseMimeType("text/plain");
+		ReflectionUtils.getDeclaredMethods(getClass());
+		assertThat(ConcurrentLruCacheRegistry.getStatistics()).containsKeys("mimeTypes", "declaredMethods");
+		assertThat(ConcurrentLruCacheRegistry.getStatistics().get("declaredMethods").getEstimatedMemory()).isGreaterThan(0);
+	}
+
+}
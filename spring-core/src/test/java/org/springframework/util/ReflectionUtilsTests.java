@@ -16,17 +16,20 @@
 
 package org.springframework.util;
 
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.rmi.ConnectException;
 import java.rmi.RemoteException;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
+import org.springframework.core.OverridingClassLoader;
 import org.springframework.core.testfixture.EnabledForTestGroups;
 import org.springframework.tests.sample.objects.TestObject;
 
@@ -368,6 +371,33 @@ class ReflectionUtilsTests {
 		assertThat(m1). isNotSameAs(m2);
 	}
 
+	@Test
+	void declaredMembersCacheDoesNotPreventClassLoaderCollection() throws Exception {
+		WeakReference<ClassLoader> classLoaderRef = introspectInThrowawayClassLoader();
+		// Soft references get cleared at the latest before an OutOfMemoryError
+		List<byte[]> garbage = new ArrayList<>();
+		try {
+			while (classLoaderRef.get() != null) {
+				garbage.add(new byte[16 * 1024 * 1024]);
+			}
+		}
+		catch (OutOfMemoryError ex) {
+			garbage.clear();
+		}
+		garbage.clear();
+		System.gc();
+		assertThat(classLoaderRef.get()).isNull();
+	}
+
+	private WeakReference<ClassLoader> introspectInThrowawayClassLoader() throws Exception {
+		ClassLoader classLoader = new OverridingClassLoader(getClass().getClassLoader());
+		Class<?> clazz = classLoader.loadClass(A.class.getName());
+		assertThat(clazz).isNotSameAs(A.class);
+		assertThat(ReflectionUtils.getDeclaredMethods(clazz)).isNotEmpty();
+		ReflectionUtils.doWithLocalFields(clazz, field -> {});
+		return new WeakReference<>(classLoader);
+	}
+
 	private static class ListSavingMethodCallback implements ReflectionUtils.MethodCallback {
 
 		private List<String> methodNames = new LinkedList<>();
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link TriePathMatcher}.
+ *
+ * @author agent
+ */
+class TriePathMatcherTests {
+
+	private static final List<String> PATTERNS = Arrays.asList(
+			"", "/", "*", "/*", "/**", "**", "/*/", "/a", "/a/", "/a/*", "/a/*/", "/a/**", "/a/**/", "/a/b",
+			"/a/b/", "/a/?", "/a/??", "/a/b*", "/a/*b", "/a/*b*c", "/a/**/b", "/a/**/b/**/c", "/**/b",
+			"/**/b/*", "/**/*.html", "/a/{x}", "/a/{x}/{y}", "/a/{x}.{y}", "/a/{x:[0-9]+}", "/a/x{x:[a-z]+}y",
+			"/a/**/**/c", "/*/b/**", "a/b", "a/**", "a/*/c", "/A/B", "/a//b");
+
+	private static final List<String> PATHS = Arrays.asList(
+			"", "/", "//", "a", "a/b", "a/b/c", "/a", "/a/", "/a/b", "/a/b/", "/a/c", "/a/bc", "/a/cb",
+			"/a/xbyc", "/a/b/c", "/a/x/b", "/a/x/y/b", "/a/x/b/y/c", "/a/b/b/c", "/a/c/c", "/x/b",
+			"/x/y/b/z", "/index.html", "/a/b/c/index.html", "/a/12", "/a/1x", "/a/xaby", "/a/x.y",
+			"/a//b", "/A/B", "/a/b/c/");
+
+
+	@Test
+	void matchConsistentWithAntPathMatcher() {
+		assertConsistent(new AntPathMatcher(), new TriePathMatcher());
+	}
+
+	@Test
+	void matchConsistentWithAntPathMatcherCaseInsensitive() {
+		AntPathMatcher antPathMatcher = new AntPathMatcher();
+		antPathMatcher.setCaseSensitive(false);
+		TriePathMatcher triePathMatcher = new TriePathMatcher();
+		triePathMatcher.setCaseSensitive(false);
+		assertConsistent(antPathMatcher, triePathMatcher);
+	}
+
+	@Test
+	void matchConsistentWithAntPathMatcherTrimTokens() {
+		AntPathMatcher antPathMatcher = new AntPathMatcher();
+		antPathMatcher.setTrimTokens(true);
+		TriePathMatcher triePathMatcher = new TriePathMatcher();
+		triePathMatcher.setTrimTokens(true);
+		assertConsistent(antPathMatcher, triePathMatcher);
+		assertThat(triePathMatcher.match("/a/ b ", "/a /b")).isTrue();
+	}
+
+	private void assertConsistent(AntPathMatcher antPathMatcher, TriePathMatcher triePathMatcher) {
+		TriePathMatcher.PatternSet patternSet = triePathMatcher.compile(PATTERNS);
+		for (String path : PATHS) {
+			List<String> expected = new ArrayList<>();
+			for (String pattern : PATTERNS) {
+				boolean match = antPathMatcher.match(pattern, path);
+				assertThat(triePathMatcher.match(pattern, path))
+						.as("Pattern '%s' against path '%s'", pattern, path).isEqualTo(match);
+				if (match) {
+					expected.add(pattern);
+				}
+			}
+			expected.sort(antPathMatcher.getPatternComparator(path));
+			assertThat(patternSet.getMatchingPatterns(path)).as("Path '%s'", path).isEqualTo(expected);
+			assertThat(patternSet.getBestMatchingPattern(path)).as("Path '%s'", path)
+					.isEqualTo(expected.isEmpty() ? null : expected.get(0));
+		}
+	}
+
+	@Test
+	void matchingPatterns() {
+		TriePathMatcher.PatternSet patternSet = new TriePathMatcher().compile(Arrays.asList(
+				"/**", "/hotels/**", "/hotels/{hotel}", "/hotels/new", "/hotels/{hotel}/bookings/{booking}"));
+
+		assertThat(patternSet.getMatchingPatterns("/hotels/new"))
+				.containsExactly("/hotels/new", "/hotels/{hotel}", "/hotels/**", "/**");
+		assertThat(patternSet.getBestMatchingPattern("/hotels/new")).isEqualTo("/hotels/new");
+		assertThat(patternSet.getBestMatchingPattern("/hotels/1")).isEqualTo("/hotels/{hotel}");
+		assertThat(patternSet.getBestMatchingPattern("/hotels/1/bookings/2"))
+				.isEqualTo("/hotels/{hotel}/bookings/{booking}");
+		assertThat(patternSet.getBestMatchingPattern("/hotels/1/reviews")).isEqualTo("/hotels/**");
+		assertThat(patternSet.getBestMatchingPattern("/flights")).isEqualTo("/**");
+		assertThat(patternSet.getMatchingPatterns("flights")).isEmpty();
+		assertThat(patternSet.getBestMatchingPattern("flights")).isNull();
+	}
+
+	@Test
+	void duplicatePatterns() {
+		TriePathMatcher.PatternSet patternSet = new TriePathMatcher().compile(
+				Arrays.asList("/a/*", "/a/*", "/a/**"));
+		assertThat(patternSet.getMatchingPatterns("/a/b")).containsExactly("/a/*", "/a/**");
+	}
+
+	@Test
+	void regexVariables() {
+		TriePathMatcher pathMatcher = new TriePathMatcher();
+		assertThat(pathMatcher.match("/books/{isbn:\\d{3}-\\d{10}}", "/books/978-0321357687")).isTrue();
+		assertThat(pathMatcher.match("/books/{isbn:\\d{3}-\\d{10}}", "/books/spring")).isFalse();
+		assertThat(pathMatcher.extractUriTemplateVariables("/books/{isbn:\\d{3}-\\d{10}}", "/books/978-0321357687"))
+				.containsEntry("isbn", "978-0321357687");
+	}
+
+	@Test
+	void customPathSeparator() {
+		TriePathMatcher pathMatcher = new TriePathMatcher(".");
+		assertThat(pathMatcher.match("order.*.items", "order.42.items")).isTrue();
+		assertThat(pathMatcher.match("order.**", "order.42.items")).isTrue();
+		assertThat(pathMatcher.match("order.*", "order.42.items")).isFalse();
+
+		pathMatcher.setPathSeparator("/");
+		assertThat(pathMatcher.match("order.*", "order.42.items")).isTrue();
+	}
+
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.expression.spel;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+/**
+ * Benchmark for {@link org.springframework.expression.spel.standard.SpelExpression#getValue}
+ * with property navigation, method invocation, arithmetic and boolean expressions,
+ * comparing interpreted evaluation against compiled evaluation.
+ *
+ * @author agent
+ * @since 5.2.6
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SpelExpressionBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"OFF", "IMMEDIATE"})
+		public SpelCompilerMode compilerMode;
+
+		public Order order;
+
+		public EvaluationContext context;
+
+		public Expression propertyNavigation;
+
+		public Expression methodInvocation;
+
+		public Expression arithmetic;
+
+		public Expression booleanCondition;
+
+		public Expression indexedAccess;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			SpelExpressionParser parser = new SpelExpressionParser(
+					new SpelParserConfiguration(this.compilerMode, getClass().getClassLoader()));
+			this.order = new Order(new Customer("Juergen", new Address("Linz")),
+					Arrays.asList(new Item("book", 2, 19.5), new Item("pen", 10, 1.25)));
+			this.context = new StandardEvaluationContext(this.order);
+			this.propertyNavigation = parser.parseExpression("customer.address.city");
+			this.methodInvocation = parser.parseExpression("customer.getName().toUpperCase()");
+			this.arithmetic = parser.parseExpression("items[0].quantity * items[0].price + items[1].quantity * items[1].price");
+			this.booleanCondition = parser.parseExpression("items.size() > 1 and customer.name == 'Juergen'");
+			this.indexedAccess = parser.parseExpression("items[1].name");
+			// Trigger compilation in IMMEDIATE mode before measuring
+			for (int i = 0; i < 3; i++) {
+				this.propertyNavigation.getValue(this.context, this.order);
+				this.methodInvocation.getValue(this.context, this.order);
+				this.arithmetic.getValue(this.context, this.order);
+				this.booleanCondition.getValue(this.context, this.order);
+				this.indexedAccess.getValue(this.context, this.order);
+			}
+		}
+	}
+
+
+	@Benchmark
+	public Object propertyNavigation(BenchmarkState state) {
+		return state.propertyNavigation.getValue(state.context, state.order);
+	}
+
+	@Benchmark
+	public Object methodInvocation(BenchmarkState state) {
+		return state.methodInvocation.getValue(state.context, state.order);
+	}
+
+	@Benchmark
+	public Object arithmetic(BenchmarkState state) {
+		return state.arithmetic.getValue(state.context, state.order);
+	}
+
+	@Benchmark
+	public Object booleanCondition(BenchmarkState state) {
+		return state.booleanCondition.getValue(state.context, state.order);
+	}
+
+	@Benchmark
+	public Object indexedAccess(BenchmarkState state) {
+		return state.indexedAccess.getValue(state.context, state.order);
+	}
+
+
+	public static class Order {
+
+		private final Customer customer;
+
+		private final List<Item> items;
+
+		public Order(Customer customer, List<Item> items) {
+			this.customer = customer;
+			this.items = items;
+		}
+
+		public Customer getCustomer() {
+			return this.customer;
+		}
+
+		public List<Item> getItems() {
+			return this.items;
+		}
+	}
+
+
+	public static class Customer {
+
+		private final String name;
+
+		private final Address address;
+
+		public Customer(String name, Address address) {
+			this.name = name;
+			this.address = address;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public Address getAddress() {
+			return this.address;
+		}
+	}
+
+
+	public static class Address {
+
+		private final String city;
+
+		public Address(String city) {
+			this.city = city;
+		}
+
+		public String getCity() {
+			return this.city;
+		}
+	}
+
+
+	public static class Item {
+
+		private final String name;
+
+		private final int quantity;
+
+		private final double price;
+
+		public Item(String name, int quantity, double price) {
+			this.name = name;
+			this.quantity = quantity;
+			this.price = price;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public int getQuantity() {
+			return this.quantity;
+		}
+
+		public double getPrice() {
+			return this.price;
+		}
+	}
+
+}
@@ -85,9 +85,17 @@ public class CodeFlow implements Opcodes {
 
 	/**
 	 * When code generation requires an intermediate variable within a method,
-	 * this method records the next available variable (variable 0 is 'this').
+	 * this method records the next available variable (variable 0 is 'this',
+	 * variables 1 and 2 are the target and the evaluation context).
 	 */
-	private int nextFreeVariableId = 1;
+	private int nextFreeVariableId = 3;
+
+	/**
+	 * Variables holding the active context objects for nested expression evaluation,
+	 * e.g. the current element within a selection or projection. If empty, the
+	 * target passed into the compiled expression is the active context object.
+	 */
+	private final Deque<Integer> activeContextVariables = new ArrayDeque<>();
 
 
 	/**
@@ -105,11 +113,34 @@ public class CodeFlow implements Opcodes {
 
 	/**
 	 * Push the byte code to load the target (i.e. what was passed as the first argument
-	 * to CompiledExpression.getValue(target, context))
+	 * to CompiledExpression.getValue(target, context)), or the active context object
+	 * if within an {@link #enterActiveContextScope active context scope}.
 	 * @param mv the visitor into which the load instruction should be inserted
 	 */
 	public void loadTarget(MethodVisitor mv) {
-		mv.visitVarInsn(ALOAD, 1);
+		Integer activeContextVariable = this.activeContextVariables.peek();
+		mv.visitVarInsn(ALOAD, (activeContextVariable != null ? activeContextVariable : 1));
+	}
+
+	/**
+	 * Enter a scope in which the given variable holds the active context object,
+	 * to be loaded by {@link #loadTarget} from then on. For example, a selection
+	 * evaluates its criteria against each element of the underlying collection.
+	 * @param variableId the variable holding the active context object
+	 * @since 5.2.6
+	 * @see #nextFreeVariableId()
+	 */
+	public void enterActiveContextScope(int variableId) {
+		this.activeContextVariables.push(variableId);
+	}
+
+	/**
+	 * Exit the current active context scope, returning to the previous
+	 * active context object.
+	 * @since 5.2.6
+	 */
+	public void exitActiveContextScope() {
+		this.activeContextVariables.pop();
 	}
 
 	/**
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.expression.spel.ast;
+
+import java.util.Map;
+
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.expression.spel.CodeFlow;
+import org.springframework.lang.Nullable;
+
+/**
+ * Generates the bytecode for iterating over the elements of a collection,
+ * array or map, exposing each element (or map entry) as the active context
+ * object for a nested expression. Shared by {@link Selection} and {@link Projection}.
+ *
+ * @author agent
+ * @since 5.2.6
+ */
+final class ElementIteration implements Opcodes {
+
+	/**
+	 * Descriptor for a map operand, iterating over its entries.
+	 */
+	static final String MAP = "Ljava/util/Map";
+
+	/**
+	 * Descriptor for a collection or any other {@link Iterable} operand.
+	 */
+	static final String ITERABLE = "Ljava/lang/Iterable";
+
+	/**
+	 * Descriptor for an array operand with a reference component type.
+	 */
+	static final String OBJECT_ARRAY = "[Ljava/lang/Object";
+
+
+	private final String operandDescriptor;
+
+	private final int sourceVariable;
+
+	private final int indexVariable;
+
+	private final int elementVariable;
+
+	private final Label loopStart = new Label();
+
+	private final Label loopEnd = new Label();
+
+
+	/**
+	 * Prepare an iteration over an operand of the given kind.
+	 * @param operandDescriptor the descriptor as returned from {@link #determineOperandDescriptor}
+	 * @param cf the current code flow, providing the local variables
+	 */
+	ElementIteration(String operandDescriptor, CodeFlow cf) {
+		this.operandDescriptor = operandDescriptor;
+		this.sourceVariable = cf.nextFreeVariableId();
+		this.indexVariable = cf.nextFreeVariableId();
+		this.elementVariable = cf.nextFreeVariableId();
+	}
+
+
+	/**
+	 * Generate the start of the loop, consuming the operand on top of the stack
+	 * and storing the current element for {@link #loadElement} access.
+	 */
+	void generateLoopStart(MethodVisitor mv) {
+		boolean isArray = (this.operandDescriptor.charAt(0) == '[');
+		if (isArray) {
+			CodeFlow.insertCheckCast(mv, this.operandDescriptor);
+			mv.visitVarInsn(ASTORE, this.sourceVariable);
+			mv.visitInsn(ICONST_0);
+			mv.visitVarInsn(ISTORE, this.indexVariable);
+		}
+		else {
+			if (MAP.equals(this.operandDescriptor)) {
+				mv.visitTypeInsn(CHECKCAST, "java/util/Map");
+				mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Map", "entrySet", "()Ljava/util/Set;", true);
+			}
+			else {
+				mv.visitTypeInsn(CHECKCAST, "java/lang/Iterable");
+			}
+			mv.visitMethodInsn(INVOKEINTERFACE, "java/lang/Iterable", "iterator", "()Ljava/util/Iterator;", true);
+			mv.visitVarInsn(ASTORE, this.sourceVariable);
+		}
+
+		mv.visitLabel(this.loopStart);
+		if (isArray) {
+			mv.visitVarInsn(ILOAD, this.indexVariable);
+			mv.visitVarInsn(ALOAD, this.sourceVariable);
+			mv.visitInsn(ARRAYLENGTH);
+			mv.visitJumpInsn(IF_ICMPGE, this.loopEnd);
+			mv.visitVarInsn(ALOAD, this.sourceVariable);
+			mv.visitVarInsn(ILOAD, this.indexVariable);
+			String componentDescriptor = this.operandDescriptor.substring(1);
+			insertArrayLoad(mv, componentDescriptor);
+			CodeFlow.insertBoxIfNecessary(mv, componentDescriptor);
+			mv.visitIincInsn(this.indexVariable, 1);
+		}
+		else {
+			mv.visitVarInsn(ALOAD, this.sourceVariable);
+			mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Iterator", "hasNext", "()Z", true);
+			mv.visitJumpInsn(IFEQ, this.loopEnd);
+			mv.visitVarInsn(ALOAD, this.sourceVariable);
+			mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Iterator", "next", "()Ljava/lang/Object;", true);
+		}
+		mv.visitVarInsn(ASTORE, this.elementVariable);
+	}
+
+	/**
+	 * Generate the code for the given expression against the current element,
+	 * leaving its result on top of the stack.
+	 * @return the descriptor of the result
+	 */
+	@Nullable
+	String generateElementCode(SpelNodeImpl expression, MethodVisitor mv, CodeFlow cf) {
+		cf.enterCompilationScope();
+		cf.enterActiveContextScope(this.elementVariable);
+		try {
+			expression.generateCode(mv, cf);
+			return cf.lastDescriptor();
+		}
+		finally {
+			cf.exitActiveContextScope();
+			cf.exitCompilationScope();
+		}
+	}
+
+	/**
+	 * Load the current element, or the current entry in case of a map.
+	 */
+	void loadElement(MethodVisitor mv) {
+		mv.visitVarInsn(ALOAD, this.elementVariable);
+	}
+
+	/**
+	 * Return the label at the start of the loop, for proceeding with the next element.
+	 */
+	Label getLoopStart() {
+		return this.loopStart;
+	}
+
+	/**
+	 * Return the label at the end of the loop, for leaving the loop early.
+	 */
+	Label getLoopEnd() {
+		return this.loopEnd;
+	}
+
+	/**
+	 * Generate the end of the loop.
+	 */
+	void generateLoopEnd(MethodVisitor mv) {
+		mv.visitJumpInsn(GOTO, this.loopStart);
+		mv.visitLabel(this.loopEnd);
+	}
+
+
+	/**
+	 * Determine the kind of iteration for the given operand, if supported.
+	 * @param operand the operand of the selection or projection
+	 * @return {@link #MAP}, {@link #ITERABLE}, {@link #OBJECT_ARRAY},
+	 * a primitive array descriptor, or {@code null} if not iterable
+	 */
+	@Nullable
+	static String determineOperandDescriptor(@Nullable Object operand) {
+		if (operand instanceof Map) {
+			return MAP;
+		}
+		if (operand instanceof Iterable) {
+			return ITERABLE;
+		}
+		if (operand != null && operand.getClass().isArray()) {
+			Class<?> componentType = operand.getClass().getComponentType();
+			return (componentType.isPrimitive() ? CodeFlow.toDescriptor(operand.getClass()) : OBJECT_ARRAY);
+		}
+		return null;
+	}
+
+	private static void insertArrayLoad(MethodVisitor mv, String componentDescriptor) {
+		switch (componentDescriptor.charAt(0)) {
+			case 'I':
+				mv.visitInsn(IALOAD);
+				break;
+			case 'J':
+				mv.visitInsn(LALOAD);
+				break;
+			case 'F':
+				mv.visitInsn(FALOAD);
+				break;
+			case 'D':
+				mv.visitInsn(DALOAD);
+				break;
+			case 'B':
+			case 'Z':
+				mv.visitInsn(BALOAD);
+				break;
+			case 'C':
+				mv.visitInsn(CALOAD);
+				break;
+			case 'S':
+				mv.visitInsn(SALOAD);
+				break;
+			default:
+				mv.visitInsn(AALOAD);
+		}
+	}
+
+}
@@ -99,11 +99,10 @@ public class Elvis extends SpelNodeImpl {
 		mv.visitInsn(POP);
 		cf.enterCompilationScope();
 		this.children[1].generateCode(mv, cf);
-		if (!CodeFlow.isPrimitive(this.exitTypeDescriptor)) {
-			lastDesc = cf.lastDescriptor();
-			Assert.state(lastDesc != null, "No last descriptor");
-			CodeFlow.insertBoxIfNecessary(mv, lastDesc.charAt(0));
-		}
+		// Box in any case, matching the boxed condition value on the other branch
+		lastDesc = cf.lastDescriptor();
+		Assert.state(lastDesc != null, "No last descriptor");
+		CodeFlow.insertBoxIfNecessary(mv, lastDesc.charAt(0));
 		cf.exitCompilationScope();
 		mv.visitLabel(endOfIf);
 		cf.pushDescriptor(this.exitTypeDescriptor);
@@ -115,7 +114,9 @@ public class Elvis extends SpelNodeImpl {
 			String conditionDescriptor = this.children[0].exitTypeDescriptor;
 			String ifNullValueDescriptor = this.children[1].exitTypeDescriptor;
 			if (ObjectUtils.nullSafeEquals(conditionDescriptor, ifNullValueDescriptor)) {
-				this.exitTypeDescriptor = conditionDescriptor;
+				// Both branches leave a boxed value on the stack
+				this.exitTypeDescriptor = (CodeFlow.isPrimitive(conditionDescriptor) ?
+						CodeFlow.toBoxedDescriptor(conditionDescriptor) : conditionDescriptor);
 			}
 			else {
 				// Use the easiest to compute common super type
@@ -128,21 +128,47 @@ public class InlineList extends SpelNodeImpl {
 
 	@Override
 	public boolean isCompilable() {
-		return isConstant();
+		if (isConstant()) {
+			return true;
+		}
+		for (SpelNodeImpl child : this.children) {
+			if (!child.isCompilable()) {
+				return false;
+			}
+		}
+		return true;
 	}
 
 	@Override
 	public void generateCode(MethodVisitor mv, CodeFlow codeflow) {
-		final String constantFieldName = "inlineList$" + codeflow.nextFieldId();
-		final String className = codeflow.getClassName();
+		if (isConstant()) {
+			final String constantFieldName = "inlineList$" + codeflow.nextFieldId();
+			final String className = codeflow.getClassName();
 
-		codeflow.registerNewField((cw, cflow) ->
-				cw.visitField(ACC_PRIVATE | ACC_STATIC | ACC_FINAL, constantFieldName, "Ljava/util/List;", null, null));
+			codeflow.registerNewField((cw, cflow) ->
+					cw.visitField(ACC_PRIVATE | ACC_STATIC | ACC_FINAL, constantFieldName, "Ljava/util/List;", null, null));
 
-		codeflow.registerNewClinit((mVisitor, cflow) ->
-				generateClinitCode(className, constantFieldName, mVisitor, cflow, false));
+			codeflow.registerNewClinit((mVisitor, cflow) ->
+					generateClinitCode(className, constantFieldName, mVisitor, cflow, false));
 
-		mv.visitFieldInsn(GETSTATIC, className, constantFieldName, "Ljava/util/List;");
+			mv.visitFieldInsn(GETSTATIC, className, constantFieldName, "Ljava/util/List;");
+		}
+		else {
+			// Build a new list on each evaluation
+			mv.visitTypeInsn(NEW, "java/util/ArrayList");
+			mv.visitInsn(DUP);
+			CodeFlow.insertOptimalLoad(mv, getChildCount());
+			mv.visitMethodInsn(INVOKESPECIAL, "java/util/ArrayList", "<init>", "(I)V", false);
+			for (SpelNodeImpl child : this.children) {
+				mv.visitInsn(DUP);
+				codeflow.enterCompilationScope();
+				child.generateCode(mv, codeflow);
+				CodeFlow.insertBoxIfNecessary(mv, codeflow.lastDescriptor());
+				codeflow.exitCompilationScope();
+				mv.visitMethodInsn(INVOKEINTERFACE, "java/util/List", "add", "(Ljava/lang/Object;)Z", true);
+				mv.visitInsn(POP);
+			}
+		}
 		codeflow.pushDescriptor("Ljava/util/List");
 	}
 
@@ -17,17 +17,22 @@
 package org.springframework.expression.spel.ast;
 
 import java.lang.reflect.Array;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.ExpressionState;
 import org.springframework.expression.spel.SpelEvaluationException;
 import org.springframework.expression.spel.SpelMessage;
 import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.ObjectUtils;
 
@@ -45,6 +50,14 @@ public class Projection extends SpelNodeImpl {
 
 	private final boolean nullSafe;
 
+	// The kind of operand seen on the last evaluation, for compilation purposes
+	@Nullable
+	private volatile String operandDescriptor;
+
+	// The element type of projected arrays, if determinable from the projection's type
+	@Nullable
+	private volatile String arrayElementDescriptor;
+
 
 	public Projection(boolean nullSafe, int startPos, int endPos, SpelNodeImpl expression) {
 		super(startPos, endPos, expression);
@@ -71,6 +84,8 @@ public class Projection extends SpelNodeImpl {
 		// and value, and they can be referenced in the operation
 		// eg. {'a':'y','b':'n'}.![value=='y'?key:null]" == ['a', null]
 		if (operand instanceof Map) {
+			this.operandDescriptor = ElementIteration.MAP;
+			this.exitTypeDescriptor = "Ljava/util/List";
 			Map<?, ?> mapData = (Map<?, ?>) operand;
 			List<Object> result = new ArrayList<>();
 			for (Map.Entry<?, ?> entry : mapData.entrySet()) {
@@ -88,6 +103,8 @@ public class Projection extends SpelNodeImpl {
 		}
 
 		if (operand instanceof Iterable || operandIsArray) {
+			this.operandDescriptor = ElementIteration.determineOperandDescriptor(operand);
+			this.exitTypeDescriptor = (operandIsArray ? "[Ljava/lang/Object" : "Ljava/util/List");
 			Iterable<?> data = (operand instanceof Iterable ?
 					(Iterable<?>) operand : Arrays.asList(ObjectUtils.toObjectArray(operand)));
 
@@ -113,6 +130,9 @@ public class Projection extends SpelNodeImpl {
 				if (arrayElementType == null) {
 					arrayElementType = Object.class;
 				}
+				else {
+					this.arrayElementDescriptor = determineArrayElementDescriptor(arrayElementType);
+				}
 				Object resultArray = Array.newInstance(arrayElementType, result.size());
 				System.arraycopy(result.toArray(), 0, resultArray, 0, result.size());
 				return new ValueRef.TypedValueHolderValueRef(new TypedValue(resultArray),this);
@@ -137,6 +157,104 @@ public class Projection extends SpelNodeImpl {
 		return "![" + getChild(0).toStringAST() + "]";
 	}
 
+	@Override
+	public boolean isCompilable() {
+		SpelNodeImpl projection = this.children[0];
+		return (this.operandDescriptor != null && this.exitTypeDescriptor != null &&
+				projection.isCompilable() && projection.exitTypeDescriptor != null &&
+				(this.exitTypeDescriptor.charAt(0) != '[' || this.arrayElementDescriptor != null));
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow cf) {
+		String operandDescriptor = this.operandDescriptor;
+		String exitTypeDescriptor = this.exitTypeDescriptor;
+		Assert.state(operandDescriptor != null && exitTypeDescriptor != null, "Projection not compilable");
+		boolean isArray = (exitTypeDescriptor.charAt(0) == '[');
+
+		if (cf.lastDescriptor() == null) {
+			cf.loadTarget(mv);
+		}
+		Label endOfProjection = new Label();
+		if (this.nullSafe) {
+			Label notNull = new Label();
+			mv.visitInsn(DUP);
+			mv.visitJumpInsn(IFNONNULL, notNull);
+			mv.visitInsn(POP);
+			mv.visitInsn(ACONST_NULL);
+			mv.visitJumpInsn(GOTO, endOfProjection);
+			mv.visitLabel(notNull);
+		}
+
+		int resultVariable = cf.nextFreeVariableId();
+		mv.visitTypeInsn(NEW, "java/util/ArrayList");
+		mv.visitInsn(DUP);
+		mv.visitMethodInsn(INVOKESPECIAL, "java/util/ArrayList", "<init>", "()V", false);
+		mv.visitVarInsn(ASTORE, resultVariable);
+		// For arrays: whether any non-null value has been projected
+		int nonNullVariable = cf.nextFreeVariableId();
+		if (isArray) {
+			mv.visitInsn(ICONST_0);
+			mv.visitVarInsn(ISTORE, nonNullVariable);
+		}
+
+		ElementIteration iteration = new ElementIteration(operandDescriptor, cf);
+		iteration.generateLoopStart(mv);
+		mv.visitVarInsn(ALOAD, resultVariable);
+		String valueDescriptor = iteration.generateElementCode(this.children[0], mv, cf);
+		CodeFlow.insertBoxIfNecessary(mv, valueDescriptor);
+		if (isArray) {
+			Label isNull = new Label();
+			mv.visitInsn(DUP);
+			mv.visitJumpInsn(IFNULL, isNull);
+			mv.visitInsn(ICONST_1);
+			mv.visitVarInsn(ISTORE, nonNullVariable);
+			mv.visitLabel(isNull);
+		}
+		mv.visitMethodInsn(INVOKEINTERFACE, "java/util/List", "add", "(Ljava/lang/Object;)Z", true);
+		mv.visitInsn(POP);
+		iteration.generateLoopEnd(mv);
+
+		mv.visitVarInsn(ALOAD, resultVariable);
+		if (isArray) {
+			// Without any non-null values, the common element type is Object
+			String arrayElementDescriptor = this.arrayElementDescriptor;
+			Assert.state(arrayElementDescriptor != null, "No array element descriptor");
+			Label noValues = new Label();
+			Label toArray = new Label();
+			mv.visitVarInsn(ILOAD, nonNullVariable);
+			mv.visitJumpInsn(IFEQ, noValues);
+			CodeFlow.insertNewArrayCode(mv, 0, arrayElementDescriptor);
+			mv.visitJumpInsn(GOTO, toArray);
+			mv.visitLabel(noValues);
+			CodeFlow.insertNewArrayCode(mv, 0, "Ljava/lang/Object");
+			mv.visitLabel(toArray);
+			mv.visitMethodInsn(INVOKEINTERFACE, "java/util/List", "toArray",
+					"([Ljava/lang/Object;)[Ljava/lang/Object;", true);
+		}
+		mv.visitLabel(endOfProjection);
+		CodeFlow.insertCheckCast(mv, exitTypeDescriptor);
+		cf.pushDescriptor(exitTypeDescriptor);
+	}
+
+	/**
+	 * Determine the element type of projected arrays from the given common type,
+	 * as long as the projected values are known to be of that exact type.
+	 */
+	@Nullable
+	private String determineArrayElementDescriptor(Class<?> commonType) {
+		String valueDescriptor = this.children[0].exitTypeDescriptor;
+		if (valueDescriptor == null || !Modifier.isFinal(commonType.getModifiers()) ||
+				!Modifier.isPublic(commonType.getModifiers())) {
+			return null;
+		}
+		String commonDescriptor = CodeFlow.toDescriptor(commonType);
+		if (CodeFlow.isPrimitive(valueDescriptor)) {
+			valueDescriptor = CodeFlow.toBoxedDescriptor(valueDescriptor);
+		}
+		return (commonDescriptor.equals(valueDescriptor) ? commonDescriptor : null);
+	}
+
 	private Class<?> determineCommonType(@Nullable Class<?> oldType, Class<?> newType) {
 		if (oldType == null) {
 			return newType;
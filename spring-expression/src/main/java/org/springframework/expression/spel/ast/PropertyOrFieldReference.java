@@ -60,6 +60,9 @@ public class PropertyOrFieldReference extends SpelNodeImpl {
 	@Nullable
 	private volatile PropertyAccessor cachedReadAccessor;
 
+	@Nullable
+	private volatile OptimalReadAccessor cachedOptimalReadAccessor;
+
 	@Nullable
 	private volatile PropertyAccessor cachedWriteAccessor;
 
@@ -176,7 +179,9 @@ public class PropertyOrFieldReference extends SpelNodeImpl {
 
 		PropertyAccessor accessorToUse = this.cachedReadAccessor;
 		if (accessorToUse != null) {
-			if (evalContext.getPropertyAccessors().contains(accessorToUse)) {
+			OptimalReadAccessor optimalAccessor = this.cachedOptimalReadAccessor;
+			if (evalContext.getPropertyAccessors().contains(accessorToUse) || (optimalAccessor != null &&
+					optimalAccessor.accessor == accessorToUse && optimalAccessor.isApplicable(evalContext, targetObject))) {
 				try {
 					return accessorToUse.read(evalContext, contextObject.getValue(), name);
 				}
@@ -197,8 +202,12 @@ public class PropertyOrFieldReference extends SpelNodeImpl {
 			for (PropertyAccessor accessor : accessorsToTry) {
 				if (accessor.canRead(evalContext, contextObject.getValue(), name)) {
 					if (accessor instanceof ReflectivePropertyAccessor) {
+						PropertyAccessor source = accessor;
 						accessor = ((ReflectivePropertyAccessor) accessor).createOptimalAccessor(
 								evalContext, contextObject.getValue(), name);
+						if (accessor != source && targetObject != null) {
+							this.cachedOptimalReadAccessor = new OptimalReadAccessor(accessor, source, targetObject);
+						}
 					}
 					this.cachedReadAccessor = accessor;
 					return accessor.read(evalContext, contextObject.getValue(), name);
@@ -422,4 +431,38 @@ public class PropertyOrFieldReference extends SpelNodeImpl {
 		}
 	}
 
+
+	/**
+	 * An optimal accessor created by a {@link ReflectivePropertyAccessor}, along
+	 * with the accessor that created it and the target it has been created for.
+	 * The optimal accessor is never registered with the evaluation context itself,
+	 * so it can only be reused while its source accessor is still registered and
+	 * for the same type of target.
+	 */
+	private static final class OptimalReadAccessor {
+
+		final PropertyAccessor accessor;
+
+		private final PropertyAccessor source;
+
+		private final Class<?> targetType;
+
+		private final boolean classTarget;
+
+		OptimalReadAccessor(PropertyAccessor accessor, PropertyAccessor source, Object target) {
+			this.accessor = accessor;
+			this.source = source;
+			this.classTarget = (target instanceof Class);
+			this.targetType = (this.classTarget ? (Class<?>) target : target.getClass());
+		}
+
+		boolean isApplicable(EvaluationContext evalContext, @Nullable Object target) {
+			if (target == null || (target instanceof Class) != this.classTarget ||
+					(this.classTarget ? target : target.getClass()) != this.targetType) {
+				return false;
+			}
+			return evalContext.getPropertyAccessors().contains(this.source);
+		}
+	}
+
 }
@@ -17,18 +17,23 @@
 package org.springframework.expression.spel.ast;
 
 import java.lang.reflect.Array;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
 import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.ExpressionState;
 import org.springframework.expression.spel.SpelEvaluationException;
 import org.springframework.expression.spel.SpelMessage;
+import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.CollectionUtils;
@@ -68,6 +73,10 @@ public class Selection extends SpelNodeImpl {
 
 	private final boolean nullSafe;
 
+	// The kind of operand seen on the last evaluation, for compilation purposes
+	@Nullable
+	private volatile String operandDescriptor;
+
 
 	public Selection(boolean nullSafe, int variant, int startPos, int endPos, SpelNodeImpl expression) {
 		super(startPos, endPos, expression);
@@ -88,6 +97,8 @@ public class Selection extends SpelNodeImpl {
 		SpelNodeImpl selectionCriteria = this.children[0];
 
 		if (operand instanceof Map) {
+			this.operandDescriptor = ElementIteration.MAP;
+			this.exitTypeDescriptor = "Ljava/util/Map";
 			Map<?, ?> mapdata = (Map<?, ?>) operand;
 			// TODO don't lose generic info for the new map
 			Map<Object, Object> result = new HashMap<>();
@@ -135,6 +146,13 @@ public class Selection extends SpelNodeImpl {
 		}
 
 		if (operand instanceof Iterable || ObjectUtils.isArray(operand)) {
+			this.operandDescriptor = ElementIteration.determineOperandDescriptor(operand);
+			if (this.variant != ALL) {
+				this.exitTypeDescriptor = "Ljava/lang/Object";
+			}
+			else if (operand instanceof Iterable) {
+				this.exitTypeDescriptor = "Ljava/util/List";
+			}
 			Iterable<?> data = (operand instanceof Iterable ?
 					(Iterable<?>) operand : Arrays.asList(ObjectUtils.toObjectArray(operand)));
 
@@ -186,6 +204,7 @@ public class Selection extends SpelNodeImpl {
 				}
 			}
 			Assert.state(elementType != null, "Unresolvable element type");
+			this.exitTypeDescriptor = (isPublic(elementType) ? "[" + CodeFlow.toDescriptor(elementType) : null);
 
 			Object resultArray = Array.newInstance(elementType, result.size());
 			System.arraycopy(result.toArray(), 0, resultArray, 0, result.size());
@@ -208,6 +227,139 @@ public class Selection extends SpelNodeImpl {
 		return prefix() + getChild(0).toStringAST() + "]";
 	}
 
+	@Override
+	public boolean isCompilable() {
+		SpelNodeImpl selectionCriteria = this.children[0];
+		return (this.operandDescriptor != null && this.exitTypeDescriptor != null &&
+				selectionCriteria.isCompilable() && CodeFlow.isBooleanCompatible(selectionCriteria.exitTypeDescriptor));
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow cf) {
+		String operandDescriptor = this.operandDescriptor;
+		String exitTypeDescriptor = this.exitTypeDescriptor;
+		Assert.state(operandDescriptor != null && exitTypeDescriptor != null, "Selection not compilable");
+		boolean isMap = ElementIteration.MAP.equals(operandDescriptor);
+
+		if (cf.lastDescriptor() == null) {
+			cf.loadTarget(mv);
+		}
+		Label endOfSelection = new Label();
+		if (this.nullSafe) {
+			Label notNull = new Label();
+			mv.visitInsn(DUP);
+			mv.visitJumpInsn(IFNONNULL, notNull);
+			mv.visitInsn(POP);
+			mv.visitInsn(ACONST_NULL);
+			mv.visitJumpInsn(GOTO, endOfSelection);
+			mv.visitLabel(notNull);
+		}
+
+		// Collect matching map entries into a map, matching elements into a list,
+		// or keep track of the matching element/entry for first and last variants
+		int resultVariable = cf.nextFreeVariableId();
+		if (isMap && this.variant != LAST) {
+			mv.visitTypeInsn(NEW, "java/util/HashMap");
+			mv.visitInsn(DUP);
+			mv.visitMethodInsn(INVOKESPECIAL, "java/util/HashMap", "<init>", "()V", false);
+		}
+		else if (this.variant == ALL) {
+			mv.visitTypeInsn(NEW, "java/util/ArrayList");
+			mv.visitInsn(DUP);
+			mv.visitMethodInsn(INVOKESPECIAL, "java/util/ArrayList", "<init>", "()V", false);
+		}
+		else {
+			mv.visitInsn(ACONST_NULL);
+		}
+		mv.visitVarInsn(ASTORE, resultVariable);
+
+		ElementIteration iteration = new ElementIteration(operandDescriptor, cf);
+		iteration.generateLoopStart(mv);
+		String criteriaDescriptor = iteration.generateElementCode(this.children[0], mv, cf);
+		if ("Ljava/lang/Boolean".equals(criteriaDescriptor)) {
+			mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Boolean", "booleanValue", "()Z", false);
+		}
+		mv.visitJumpInsn(IFEQ, iteration.getLoopStart());
+		if (isMap && this.variant != LAST) {
+			mv.visitVarInsn(ALOAD, resultVariable);
+			mv.visitTypeInsn(CHECKCAST, "java/util/Map");
+			iteration.loadElement(mv);
+			insertPutEntry(mv);
+		}
+		else if (this.variant == ALL) {
+			mv.visitVarInsn(ALOAD, resultVariable);
+			mv.visitTypeInsn(CHECKCAST, "java/util/List");
+			iteration.loadElement(mv);
+			mv.visitMethodInsn(INVOKEINTERFACE, "java/util/List", "add", "(Ljava/lang/Object;)Z", true);
+			mv.visitInsn(POP);
+		}
+		else {
+			iteration.loadElement(mv);
+			mv.visitVarInsn(ASTORE, resultVariable);
+		}
+		if (this.variant == FIRST) {
+			mv.visitJumpInsn(GOTO, iteration.getLoopEnd());
+		}
+		iteration.generateLoopEnd(mv);
+
+		mv.visitVarInsn(ALOAD, resultVariable);
+		if (isMap && this.variant == FIRST) {
+			// No match: null instead of an empty map
+			Label notEmpty = new Label();
+			mv.visitTypeInsn(CHECKCAST, "java/util/Map");
+			mv.visitInsn(DUP);
+			mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Map", "isEmpty", "()Z", true);
+			mv.visitJumpInsn(IFEQ, notEmpty);
+			mv.visitInsn(POP);
+			mv.visitInsn(ACONST_NULL);
+			mv.visitLabel(notEmpty);
+		}
+		else if (isMap && this.variant == LAST) {
+			// Expose the last matching entry as a single-entry map
+			Label noMatch = new Label();
+			mv.visitJumpInsn(IFNULL, noMatch);
+			mv.visitTypeInsn(NEW, "java/util/HashMap");
+			mv.visitInsn(DUP);
+			mv.visitMethodInsn(INVOKESPECIAL, "java/util/HashMap", "<init>", "()V", false);
+			mv.visitInsn(DUP);
+			mv.visitVarInsn(ALOAD, resultVariable);
+			insertPutEntry(mv);
+			mv.visitJumpInsn(GOTO, endOfSelection);
+			mv.visitLabel(noMatch);
+			mv.visitInsn(ACONST_NULL);
+		}
+		else if (this.variant == ALL && exitTypeDescriptor.charAt(0) == '[') {
+			String elementDescriptor = exitTypeDescriptor.substring(1);
+			mv.visitTypeInsn(CHECKCAST, "java/util/List");
+			CodeFlow.insertNewArrayCode(mv, 0, elementDescriptor);
+			mv.visitMethodInsn(INVOKEINTERFACE, "java/util/List", "toArray",
+					"([Ljava/lang/Object;)[Ljava/lang/Object;", true);
+		}
+		mv.visitLabel(endOfSelection);
+		CodeFlow.insertCheckCast(mv, exitTypeDescriptor);
+		cf.pushDescriptor(exitTypeDescriptor);
+	}
+
+	private static void insertPutEntry(MethodVisitor mv) {
+		// Stack: map, entry -> put the entry's key and value into the map
+		mv.visitTypeInsn(CHECKCAST, "java/util/Map$Entry");
+		mv.visitInsn(DUP);
+		mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Map$Entry", "getKey", "()Ljava/lang/Object;", true);
+		mv.visitInsn(SWAP);
+		mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Map$Entry", "getValue", "()Ljava/lang/Object;", true);
+		mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Map", "put",
+				"(Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;", true);
+		mv.visitInsn(POP);
+	}
+
+	private static boolean isPublic(Class<?> type) {
+		Class<?> componentType = type;
+		while (componentType.isArray()) {
+			componentType = componentType.getComponentType();
+		}
+		return Modifier.isPublic(componentType.getModifiers());
+	}
+
 	private String prefix() {
 		switch (this.variant) {
 			case ALL:   return "?[";
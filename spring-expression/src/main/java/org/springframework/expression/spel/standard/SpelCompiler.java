@@ -18,6 +18,8 @@ package org.springframework.expression.spel.standard;
 
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -30,6 +32,7 @@ import org.springframework.asm.Opcodes;
 import org.springframework.expression.Expression;
 import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.CompiledExpression;
+import org.springframework.expression.spel.SpelNode;
 import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.expression.spel.ast.SpelNodeImpl;
 import org.springframework.lang.Nullable;
@@ -114,11 +117,44 @@ public final class SpelCompiler implements Opcodes {
 		}
 
 		if (logger.isDebugEnabled()) {
-			logger.debug("SpEL: unable to compile " + expression.toStringAST());
+			StringBuilder sb = new StringBuilder();
+			for (SpelNode node : getUncompilableNodes(expression)) {
+				sb.append(sb.length() == 0 ? "" : ", ").append(node.toStringAST());
+			}
+			logger.debug("SpEL: unable to compile " + expression.toStringAST() + " - uncompilable nodes: " + sb);
 		}
 		return null;
 	}
 
+	/**
+	 * Determine the nodes that prevent the supplied expression AST from being compiled:
+	 * the innermost nodes that are not compilable, either because they have not been
+	 * evaluated yet (with their exit types unknown) or because they are not supported
+	 * by the compiler in their current form.
+	 * @param expression the expression AST to check
+	 * @return the uncompilable nodes (empty if the entire expression is compilable)
+	 * @since 5.2.6
+	 */
+	static List<SpelNode> getUncompilableNodes(SpelNodeImpl expression) {
+		List<SpelNode> uncompilableNodes = new ArrayList<>();
+		collectUncompilableNodes(expression, uncompilableNodes);
+		return uncompilableNodes;
+	}
+
+	private static void collectUncompilableNodes(SpelNode node, List<SpelNode> uncompilableNodes) {
+		if (node instanceof SpelNodeImpl && ((SpelNodeImpl) node).isCompilable()) {
+			return;
+		}
+		int size = uncompilableNodes.size();
+		for (int i = 0; i < node.getChildCount(); i++) {
+			collectUncompilableNodes(node.getChild(i), uncompilableNodes);
+		}
+		if (uncompilableNodes.size() == size) {
+			// No uncompilable children: the node itself is not compilable
+			uncompilableNodes.add(node);
+		}
+	}
+
 	private int getNextSuffix() {
 		return this.suffixId.incrementAndGet();
 	}
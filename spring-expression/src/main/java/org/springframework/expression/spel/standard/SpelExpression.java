@@ -16,6 +16,10 @@
 
 package org.springframework.expression.spel.standard;
 
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.springframework.core.convert.TypeDescriptor;
@@ -77,6 +81,15 @@ public class SpelExpression implements Expression {
 	// give up trying to compile it when it just doesn't seem to be possible.
 	private final AtomicInteger failedAttempts = new AtomicInteger(0);
 
+	// Executor for compiling the expression in the background in MIXED mode, if any
+	@Nullable
+	private volatile Executor compilationExecutor;
+
+	private volatile int compilationThreshold = INTERPRETED_COUNT_THRESHOLD;
+
+	// Whether a background compilation has been scheduled but not completed yet
+	private final AtomicBoolean compilationScheduled = new AtomicBoolean();
+
 
 	/**
 	 * Construct an expression, only used by the parser.
@@ -107,6 +120,31 @@ public class SpelExpression implements Expression {
 		return this.evaluationContext;
 	}
 
+	/**
+	 * Specify an executor for compiling this expression in the background
+	 * in {@link SpelCompilerMode#MIXED} mode, once it has been interpreted
+	 * the {@linkplain #setCompilationThreshold threshold} number of times.
+	 * <p>By default, the expression is compiled on the evaluating thread.
+	 * With an executor, evaluation proceeds in interpreted form until the
+	 * compiled form becomes available.
+	 * @param compilationExecutor the executor to use, or {@code null} to
+	 * compile on the evaluating thread
+	 * @since 5.2.6
+	 */
+	public void setCompilationExecutor(@Nullable Executor compilationExecutor) {
+		this.compilationExecutor = compilationExecutor;
+	}
+
+	/**
+	 * Specify the number of interpreted evaluations after which this expression
+	 * is compiled in {@link SpelCompilerMode#MIXED} mode. Default is 100.
+	 * @since 5.2.6
+	 */
+	public void setCompilationThreshold(int compilationThreshold) {
+		Assert.isTrue(compilationThreshold >= 0, "Compilation threshold must not be negative");
+		this.compilationThreshold = compilationThreshold;
+	}
+
 
 	// implementing Expression
 
@@ -493,13 +531,43 @@ public class SpelExpression implements Expression {
 			}
 			else {
 				// compilerMode = SpelCompilerMode.MIXED
-				if (this.interpretedCount.get() > INTERPRETED_COUNT_THRESHOLD) {
-					compileExpression();
+				if (this.interpretedCount.get() > this.compilationThreshold) {
+					Executor executor = this.compilationExecutor;
+					if (executor != null) {
+						scheduleCompilation(executor);
+					}
+					else {
+						compileExpression();
+					}
 				}
 			}
 		}
 	}
 
+	/**
+	 * Compile the expression through the given executor, unless a
+	 * compilation has been scheduled already.
+	 */
+	private void scheduleCompilation(Executor executor) {
+		if (this.compiledAst == null && this.failedAttempts.get() <= FAILED_ATTEMPTS_THRESHOLD &&
+				this.compilationScheduled.compareAndSet(false, true)) {
+			try {
+				executor.execute(() -> {
+					try {
+						compileExpression();
+					}
+					finally {
+						this.compilationScheduled.set(false);
+					}
+				});
+			}
+			catch (RejectedExecutionException ex) {
+				// Try again on a later evaluation...
+				this.compilationScheduled.set(false);
+			}
+		}
+	}
+
 	/**
 	 * Perform expression compilation. This will only succeed once exit descriptors for
 	 * all nodes have been determined. If the compilation fails and has failed more than
@@ -537,6 +605,30 @@ public class SpelExpression implements Expression {
 		}
 	}
 
+	/**
+	 * Determine whether this expression is currently in compiled form.
+	 * @since 5.2.6
+	 */
+	public boolean isCompiled() {
+		return (this.compiledAst != null);
+	}
+
+	/**
+	 * Return a compilation coverage report for this expression: the nodes in its
+	 * AST which currently prevent compilation, if any.
+	 * <p>Since compilation relies on the types seen during interpreted evaluation,
+	 * most nodes only become compilable once the expression has been evaluated.
+	 * Nodes that remain in this list afterwards are not supported by the compiler
+	 * in their current form, e.g. method invocations on non-public types.
+	 * @return the innermost uncompilable nodes, or an empty list if this
+	 * expression can be compiled
+	 * @since 5.2.6
+	 * @see #compileExpression()
+	 */
+	public List<SpelNode> getUncompilableNodes() {
+		return SpelCompiler.getUncompilableNodes(this.ast);
+	}
+
 	/**
 	 * Cause an expression to revert to being interpreted if it has been using a compiled
 	 * form. It also resets the compilation attempt failure count (an expression is normally no
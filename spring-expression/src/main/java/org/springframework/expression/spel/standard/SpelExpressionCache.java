@@ -0,0 +1,749 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.expression.spel.standard;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.EvaluationException;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ParseException;
+import org.springframework.expression.ParserContext;
+import org.springframework.expression.common.CompositeStringExpression;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentLruCache;
+import org.springframework.util.ConcurrentLruCacheRegistry;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * A bounded cache of parsed expressions for a given {@link SpelExpressionParser},
+ * sharing each parsed (and possibly compiled) expression between all components
+ * that evaluate the same expression string.
+ *
+ * <p>The least recently used expressions are evicted once the size limit has been
+ * reached. All caches are registered with the {@link ConcurrentLruCacheRegistry}
+ * under the name {@value #CACHE_NAME}, reporting their hit ratio and allowing for
+ * their size limit to be tuned at runtime.
+ *
+ * <p>With a {@linkplain #setCompilationExecutor compilation executor}, expressions
+ * parsed in {@link org.springframework.expression.spel.SpelCompilerMode#MIXED} mode
+ * are compiled in the background once they have been interpreted the
+ * {@linkplain #setCompilationThreshold threshold} number of times, rather than on
+ * the evaluating thread. Evaluation times per expression can be recorded as well,
+ * see {@link #setStatisticsEnabled} and {@link #getStatistics()}.
+ *
+ * <p>Settings apply to expressions parsed after they have been changed, so a cache
+ * is typically configured right after its creation.
+ *
+ * <p>Note that a compiled expression is specialized for the types that it has
+ * been evaluated with, falling back to interpretation (in {@code MIXED} mode) or
+ * failing (in {@code IMMEDIATE} mode) when evaluated against other types. A cache
+ * is therefore meant to be shared between components which evaluate the same
+ * expressions against consistent types, for example within one application
+ * context, rather than globally.
+ *
+ * @author agent
+ * @since 5.2.6
+ * @see SpelExpression#setCompilationExecutor
+ */
+public class SpelExpressionCache {
+
+	/**
+	 * The name that expression caches are registered under:
+	 * {@value}.
+	 * @see ConcurrentLruCacheRegistry#setSizeLimit
+	 */
+	public static final String CACHE_NAME = "spelExpressions";
+
+	/**
+	 * The default maximum number of cached expressions: {@value}.
+	 */
+	public static final int DEFAULT_SIZE_LIMIT = 1024;
+
+	/**
+	 * The default number of interpreted evaluations before compiling
+	 * an expression in the background: {@value}.
+	 */
+	public static final int DEFAULT_COMPILATION_THRESHOLD = 100;
+
+
+	private final SpelExpressionParser parser;
+
+	private final ConcurrentLruCache<ExpressionKey, CachedExpression> cache;
+
+	@Nullable
+	private volatile Executor compilationExecutor;
+
+	private volatile int compilationThreshold = DEFAULT_COMPILATION_THRESHOLD;
+
+	private volatile boolean statisticsEnabled;
+
+
+	/**
+	 * Create a new cache for a default {@link SpelExpressionParser},
+	 * with the {@linkplain #DEFAULT_SIZE_LIMIT default size limit}.
+	 */
+	public SpelExpressionCache() {
+		this(new SpelExpressionParser());
+	}
+
+	/**
+	 * Create a new cache for the given parser,
+	 * with the {@linkplain #DEFAULT_SIZE_LIMIT default size limit}.
+	 * @param parser the parser to use
+	 */
+	public SpelExpressionCache(SpelExpressionParser parser) {
+		this(parser, DEFAULT_SIZE_LIMIT);
+	}
+
+	/**
+	 * Create a new cache for the given parser.
+	 * @param parser the parser to use
+	 * @param sizeLimit the maximum number of cached expressions
+	 */
+	public SpelExpressionCache(SpelExpressionParser parser, int sizeLimit) {
+		Assert.notNull(parser, "SpelExpressionParser must not be null");
+		this.parser = parser;
+		this.cache = ConcurrentLruCacheRegistry.register(CACHE_NAME,
+				new ConcurrentLruCache<>(sizeLimit, this::parseExpression));
+	}
+
+
+	/**
+	 * Return the parser that this cache parses its expressions with.
+	 */
+	public SpelExpressionParser getParser() {
+		return this.parser;
+	}
+
+	/**
+	 * Set the maximum number of cached expressions.
+	 * <p>Default is {@value #DEFAULT_SIZE_LIMIT}.
+	 */
+	public void setSizeLimit(int sizeLimit) {
+		this.cache.setSizeLimit(sizeLimit);
+	}
+
+	/**
+	 * Return the maximum number of cached expressions.
+	 */
+	public int getSizeLimit() {
+		return this.cache.sizeLimit();
+	}
+
+	/**
+	 * Specify an executor for compiling expressions in the background.
+	 * <p>This only applies to expressions in
+	 * {@link org.springframework.expression.spel.SpelCompilerMode#MIXED}
+	 * mode, as determined by the parser's configuration. By default, such
+	 * expressions are compiled on the evaluating thread.
+	 * @see SpelExpression#setCompilationExecutor
+	 */
+	public void setCompilationExecutor(@Nullable Executor compilationExecutor) {
+		this.compilationExecutor = compilationExecutor;
+	}
+
+	/**
+	 * Return the executor for compiling expressions in the background, if any.
+	 */
+	@Nullable
+	public Executor getCompilationExecutor() {
+		return this.compilationExecutor;
+	}
+
+	/**
+	 * Specify the number of interpreted evaluations after which an expression
+	 * is compiled in {@link org.springframework.expression.spel.SpelCompilerMode#MIXED}
+	 * mode. Default is {@value #DEFAULT_COMPILATION_THRESHOLD}.
+	 * @see SpelExpression#setCompilationThreshold
+	 */
+	public void setCompilationThreshold(int compilationThreshold) {
+		Assert.isTrue(compilationThreshold >= 0, "Compilation threshold must not be negative");
+		this.compilationThreshold = compilationThreshold;
+	}
+
+	/**
+	 * Return the number of interpreted evaluations after which an expression is compiled.
+	 */
+	public int getCompilationThreshold() {
+		return this.compilationThreshold;
+	}
+
+	/**
+	 * Specify whether to record the number and duration of evaluations
+	 * per expression, as exposed through {@link #getStatistics()}.
+	 * <p>Default is "false", returning the parsed expressions as-is.
+	 * Switch this flag to "true" for returning expressions which measure
+	 * each {@code getValue} call, at the expense of two timer calls per
+	 * evaluation.
+	 */
+	public void setStatisticsEnabled(boolean statisticsEnabled) {
+		this.statisticsEnabled = statisticsEnabled;
+	}
+
+	/**
+	 * Return whether to record evaluation statistics per expression.
+	 */
+	public boolean isStatisticsEnabled() {
+		return this.statisticsEnabled;
+	}
+
+
+	/**
+	 * Return the expression for the given expression string,
+	 * parsing it if necessary.
+	 * @param expressionString the raw expression string to parse
+	 * @return the cached expression (never {@code null})
+	 * @throws ParseException if an exception occurred during parsing
+	 */
+	public Expression getExpression(String expressionString) throws ParseException {
+		return getExpression(expressionString, null);
+	}
+
+	/**
+	 * Return the expression for the given expression string and parser context,
+	 * parsing it if necessary.
+	 * @param expressionString the raw expression string to parse
+	 * @param context a context for influencing the expression parsing routine
+	 * (e.g. for template expressions)
+	 * @return the cached expression (never {@code null})
+	 * @throws ParseException if an exception occurred during parsing
+	 */
+	public Expression getExpression(String expressionString, @Nullable ParserContext context)
+			throws ParseException {
+
+		Assert.notNull(expressionString, "Expression string must not be null");
+		return this.cache.get(new ExpressionKey(expressionString, context)).expression;
+	}
+
+	/**
+	 * Parse a new expression for the given expression string, configured like
+	 * the cached expressions but not shared through this cache.
+	 * <p>This is meant for callers which hold on to an expression of their own,
+	 * e.g. per annotated element, since a parsed expression caches the accessors
+	 * and methods resolved for the types it has been evaluated with. Such an
+	 * expression is not included in the {@linkplain #getStatistics() statistics}.
+	 * @param expressionString the raw expression string to parse
+	 * @return the new expression (never {@code null})
+	 * @throws ParseException if an exception occurred during parsing
+	 */
+	public Expression createExpression(String expressionString) throws ParseException {
+		Assert.notNull(expressionString, "Expression string must not be null");
+		return parseExpression(new ExpressionKey(expressionString, null)).expression;
+	}
+
+	/**
+	 * Return statistics for the currently cached expressions.
+	 * <p>The parse and compilation times are always recorded;
+	 * evaluation statistics are only available if
+	 * {@linkplain #setStatisticsEnabled enabled}.
+	 */
+	public List<ExpressionStatistics> getStatistics() {
+		List<ExpressionStatistics> statistics = new ArrayList<>(this.cache.size());
+		this.cache.forEach((key, cachedExpression) -> statistics.add(new ExpressionStatistics(cachedExpression)));
+		return statistics;
+	}
+
+	/**
+	 * Return the number of currently cached expressions.
+	 */
+	public int size() {
+		return this.cache.size();
+	}
+
+	/**
+	 * Remove all expressions from this cache.
+	 */
+	public void clear() {
+		this.cache.clear();
+	}
+
+	private CachedExpression parseExpression(ExpressionKey key) {
+		long startTime = System.nanoTime();
+		Expression expression = (key.context != null ?
+				this.parser.parseExpression(key.expressionString, key.context) :
+				this.parser.parseExpression(key.expressionString));
+		CachedExpression cachedExpression = new CachedExpression(expression, System.nanoTime() - startTime);
+
+		Executor executor = this.compilationExecutor;
+		int threshold = this.compilationThreshold;
+		for (SpelExpression spelExpression : cachedExpression.spelExpressions) {
+			spelExpression.setCompilationThreshold(threshold);
+			if (executor != null) {
+				spelExpression.setCompilationExecutor(task -> {
+					// Compile against the types visible to the evaluating thread
+					ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+					executor.execute(() -> {
+						Thread currentThread = Thread.currentThread();
+						ClassLoader previousClassLoader = currentThread.getContextClassLoader();
+						currentThread.setContextClassLoader(classLoader);
+						long compilationStart = System.nanoTime();
+						try {
+							task.run();
+						}
+						finally {
+							cachedExpression.compilationCount.increment();
+							cachedExpression.compilationTime.add(System.nanoTime() - compilationStart);
+							currentThread.setContextClassLoader(previousClassLoader);
+						}
+					});
+				});
+			}
+		}
+		if (this.statisticsEnabled) {
+			cachedExpression.expression = new MeasuredExpression(expression, cachedExpression);
+		}
+		return cachedExpression;
+	}
+
+
+	/**
+	 * Snapshot of the statistics for a cached expression.
+	 * All times are reported in nanoseconds.
+	 */
+	public static final class ExpressionStatistics {
+
+		private final String expressionString;
+
+		private final long parseTime;
+
+		private final long evaluationCount;
+
+		private final long evaluationTime;
+
+		private final long maxEvaluationTime;
+
+		private final long compilationCount;
+
+		private final long compilationTime;
+
+		private final boolean compiled;
+
+		ExpressionStatistics(CachedExpression cachedExpression) {
+			this.expressionString = cachedExpression.expression.getExpressionString();
+			this.parseTime = cachedExpression.parseTime;
+			this.evaluationCount = cachedExpression.evaluationCount.sum();
+			this.evaluationTime = cachedExpression.evaluationTime.sum();
+			this.maxEvaluationTime = cachedExpression.maxEvaluationTime.get();
+			this.compilationCount = cachedExpression.compilationCount.sum();
+			this.compilationTime = cachedExpression.compilationTime.sum();
+			this.compiled = cachedExpression.isCompiled();
+		}
+
+		/**
+		 * Return the expression string.
+		 */
+		public String getExpressionString() {
+			return this.expressionString;
+		}
+
+		/**
+		 * Return the time it took to parse the expression.
+		 */
+		public long getParseTime() {
+			return this.parseTime;
+		}
+
+		/**
+		 * Return the number of recorded evaluations.
+		 */
+		public long getEvaluationCount() {
+			return this.evaluationCount;
+		}
+
+		/**
+		 * Return the total time of all recorded evaluations.
+		 */
+		public long getEvaluationTime() {
+			return this.evaluationTime;
+		}
+
+		/**
+		 * Return the average time of the recorded evaluations,
+		 * or {@code 0} if there were no evaluations yet.
+		 */
+		public long getAverageEvaluationTime() {
+			return (this.evaluationCount > 0 ? this.evaluationTime / this.evaluationCount : 0);
+		}
+
+		/**
+		 * Return the time of the slowest recorded evaluation.
+		 */
+		public long getMaxEvaluationTime() {
+			return this.maxEvaluationTime;
+		}
+
+		/**
+		 * Return the number of background compilation attempts.
+		 */
+		public long getCompilationCount() {
+			return this.compilationCount;
+		}
+
+		/**
+		 * Return the total time spent on background compilation attempts.
+		 */
+		public long getCompilationTime() {
+			return this.compilationTime;
+		}
+
+		/**
+		 * Return whether the expression is currently in compiled form.
+		 */
+		public boolean isCompiled() {
+			return this.compiled;
+		}
+
+		@Override
+		public String toString() {
+			return "ExpressionStatistics [expression = '" + this.expressionString +
+					"', evaluations = " + this.evaluationCount +
+					", averageEvaluationTime = " + getAverageEvaluationTime() +
+					", compiled = " + this.compiled + "]";
+		}
+	}
+
+
+	/**
+	 * Cache key for an expression string and its parser context,
+	 * capturing the template prefix and suffix at the time of lookup.
+	 */
+	private static final class ExpressionKey {
+
+		final String expressionString;
+
+		@Nullable
+		final ParserContext context;
+
+		@Nullable
+		private final String templatePrefix;
+
+		@Nullable
+		private final String templateSuffix;
+
+		ExpressionKey(String expressionString, @Nullable ParserContext context) {
+			this.expressionString = expressionString;
+			this.context = context;
+			boolean isTemplate = (context != null && context.isTemplate());
+			this.templatePrefix = (isTemplate ? context.getExpressionPrefix() : null);
+			this.templateSuffix = (isTemplate ? context.getExpressionSuffix() : null);
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof ExpressionKey)) {
+				return false;
+			}
+			ExpressionKey otherKey = (ExpressionKey) other;
+			return (this.expressionString.equals(otherKey.expressionString) &&
+					ObjectUtils.nullSafeEquals(this.templatePrefix, otherKey.templatePrefix) &&
+					ObjectUtils.nullSafeEquals(this.templateSuffix, otherKey.templateSuffix));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.expressionString.hashCode();
+		}
+	}
+
+
+	/**
+	 * A cached expression along with its compilable parts and its statistics.
+	 */
+	private static final class CachedExpression {
+
+		Expression expression;
+
+		final List<SpelExpression> spelExpressions;
+
+		final long parseTime;
+
+		final LongAdder evaluationCount = new LongAdder();
+
+		final LongAdder evaluationTime = new LongAdder();
+
+		final LongAccumulator maxEvaluationTime = new LongAccumulator(Math::max, 0);
+
+		final LongAdder compilationCount = new LongAdder();
+
+		final LongAdder compilationTime = new LongAdder();
+
+		CachedExpression(Expression expression, long parseTime) {
+			this.expression = expression;
+			this.parseTime = parseTime;
+			if (expression instanceof SpelExpression) {
+				this.spelExpressions = Collections.singletonList((SpelExpression) expression);
+			}
+			else if (expression instanceof CompositeStringExpression) {
+				this.spelExpressions = new ArrayList<>();
+				for (Expression part : ((CompositeStringExpression) expression).getExpressions()) {
+					if (part instanceof SpelExpression) {
+						this.spelExpressions.add((SpelExpression) part);
+					}
+				}
+			}
+			else {
+				this.spelExpressions = Collections.emptyList();
+			}
+		}
+
+		boolean isCompiled() {
+			if (this.spelExpressions.isEmpty()) {
+				return false;
+			}
+			for (SpelExpression spelExpression : this.spelExpressions) {
+				if (!spelExpression.isCompiled()) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		void recordEvaluation(long startTime) {
+			long duration = System.nanoTime() - startTime;
+			this.evaluationCount.increment();
+			this.evaluationTime.add(duration);
+			this.maxEvaluationTime.accumulate(duration);
+		}
+	}
+
+
+	/**
+	 * An {@link Expression} decorator which records the duration of each
+	 * {@code getValue} call in the statistics of its cached expression.
+	 */
+	private static final class MeasuredExpression implements Expression {
+
+		private final Expression target;
+
+		private final CachedExpression statistics;
+
+		MeasuredExpression(Expression target, CachedExpression statistics) {
+			this.target = target;
+			this.statistics = statistics;
+		}
+
+		@Override
+		public String getExpressionString() {
+			return this.target.getExpressionString();
+		}
+
+		@Override
+		@Nullable
+		public Object getValue() throws EvaluationException {
+			long startTime = System.nanoTime();
+			try {
+				return this.target.getValue();
+			}
+			finally {
+				this.statistics.recordEvaluation(startTime);
+			}
+		}
+
+		@Override
+		@Nullable
+		public <T> T getValue(@Nullable Class<T> desiredResultType) throws EvaluationException {
+			long startTime = System.nanoTime();
+			try {
+				return this.target.getValue(desiredResultType);
+			}
+			finally {
+				this.statistics.recordEvaluation(startTime);
+			}
+		}
+
+		@Override
+		@Nullable
+		public Object getValue(@Nullable Object rootObject) throws EvaluationException {
+			long startTime = System.nanoTime();
+			try {
+				return this.target.getValue(rootObject);
+			}
+			finally {
+				this.statistics.recordEvaluation(startTime);
+			}
+		}
+
+		@Override
+		@Nullable
+		public <T> T getValue(@Nullable Object rootObject, @Nullable Class<T> desiredResultType)
+				throws EvaluationException {
+
+			long startTime = System.nanoTime();
+			try {
+				return this.target.getValue(rootObject, desiredResultType);
+			}
+			finally {
+				this.statistics.recordEvaluation(startTime);
+			}
+		}
+
+		@Override
+		@Nullable
+		public Object getValue(EvaluationContext context) throws EvaluationException {
+			long startTime = System.nanoTime();
+			try {
+				return this.target.getValue(context);
+			}
+			finally {
+				this.statistics.recordEvaluation(startTime);
+			}
+		}
+
+		@Override
+		@Nullable
+		public Object getValue(EvaluationContext context, @Nullable Object rootObject) throws EvaluationException {
+			long startTime = System.nanoTime();
+			try {
+				return this.target.getValue(context, rootObject);
+			}
+			finally {
+				this.statistics.recordEvaluation(startTime);
+			}
+		}
+
+		@Override
+		@Nullable
+		public <T> T getValue(EvaluationContext context, @Nullable Class<T> desiredResultType)
+				throws EvaluationException {
+
+			long startTime = System.nanoTime();
+			try {
+				return this.target.getValue(context, desiredResultType);
+			}
+			finally {
+				this.statistics.recordEvaluation(startTime);
+			}
+		}
+
+		@Override
+		@Nullable
+		public <T> T getValue(EvaluationContext context, @Nullable Object rootObject,
+				@Nullable Class<T> desiredResultType) throws EvaluationException {
+
+			long startTime = System.nanoTime();
+			try {
+				return this.target.getValue(context, rootObject, desiredResultType);
+			}
+			finally {
+				this.statistics.recordEvaluation(startTime);
+			}
+		}
+
+		@Override
+		@Nullable
+		public Class<?> getValueType() throws EvaluationException {
+			return this.target.getValueType();
+		}
+
+		@Override
+		@Nullable
+		public Class<?> getValueType(@Nullable Object rootObject) throws EvaluationException {
+			return this.target.getValueType(rootObject);
+		}
+
+		@Override
+		@Nullable
+		public Class<?> getValueType(EvaluationContext context) throws EvaluationException {
+			return this.target.getValueType(context);
+		}
+
+		@Override
+		@Nullable
+		public Class<?> getValueType(EvaluationContext context, @Nullable Object rootObject)
+				throws EvaluationException {
+
+			return this.target.getValueType(context, rootObject);
+		}
+
+		@Override
+		@Nullable
+		public TypeDescriptor getValueTypeDescriptor() throws EvaluationException {
+			return this.target.getValueTypeDescriptor();
+		}
+
+		@Override
+		@Nullable
+		public TypeDescriptor getValueTypeDescriptor(@Nullable Object rootObject) throws EvaluationException {
+			return this.target.getValueTypeDescriptor(rootObject);
+		}
+
+		@Override
+		@Nullable
+		public TypeDescriptor getValueTypeDescriptor(EvaluationContext context) throws EvaluationException {
+			return this.target.getValueTypeDescriptor(context);
+		}
+
+		@Override
+		@Nullable
+		public TypeDescriptor getValueTypeDescriptor(EvaluationContext context, @Nullable Object rootObject)
+				throws EvaluationException {
+
+			return this.target.getValueTypeDescriptor(context, rootObject);
+		}
+
+		@Override
+		public boolean isWritable(@Nullable Object rootObject) throws EvaluationException {
+			return this.target.isWritable(rootObject);
+		}
+
+		@Override
+		public boolean isWritable(EvaluationContext context) throws EvaluationException {
+			return this.target.isWritable(context);
+		}
+
+		@Override
+		public boolean isWritable(EvaluationContext context, @Nullable Object rootObject)
+				throws EvaluationException {
+
+			return this.target.isWritable(context, rootObject);
+		}
+
+		@Override
+		public void setValue(@Nullable Object rootObject, @Nullable Object value) throws EvaluationException {
+			this.target.setValue(rootObject, value);
+		}
+
+		@Override
+		public void setValue(EvaluationContext context, @Nullable Object value) throws EvaluationException {
+			this.target.setValue(context, value);
+		}
+
+		@Override
+		public void setValue(EvaluationContext context, @Nullable Object rootObject, @Nullable Object value)
+				throws EvaluationException {
+
+			this.target.setValue(context, rootObject, value);
+		}
+
+		@Override
+		public String toString() {
+			return this.target.toString();
+		}
+	}
+
+}
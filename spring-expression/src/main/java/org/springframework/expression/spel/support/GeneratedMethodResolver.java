@@ -0,0 +1,112 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.expression.spel.support;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.expression.AccessException;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.MethodExecutor;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+
+/**
+ * A {@link ReflectiveMethodResolver} variant which invokes methods through
+ * generated invoker classes instead of through reflection.
+ *
+ * <p>Method resolution follows the same rules as in the reflective resolver.
+ * The resolved executors remain {@link ReflectiveMethodExecutor} instances,
+ * so {@link org.springframework.expression.spel.SpelCompilerMode compilation}
+ * is unaffected, but call the target method through an invoker class that is
+ * generated and cached per method.
+ *
+ * <p>Register this resolver in place of the default reflective resolver:
+ * e.g. through {@link StandardEvaluationContext#setMethodResolvers}.
+ *
+ * @author agent
+ * @since 5.2.6
+ * @see GeneratedPropertyAccessor
+ */
+public class GeneratedMethodResolver extends ReflectiveMethodResolver {
+
+	/**
+	 * Create a new method resolver, using distance-based matching.
+	 * @see #GeneratedMethodResolver(boolean)
+	 */
+	public GeneratedMethodResolver() {
+		super();
+	}
+
+	/**
+	 * Create a new method resolver, with the given matching strategy.
+	 * @param useDistance whether to use distance-based matching
+	 * @see ReflectiveMethodResolver#ReflectiveMethodResolver(boolean)
+	 */
+	public GeneratedMethodResolver(boolean useDistance) {
+		super(useDistance);
+	}
+
+
+	@Override
+	@Nullable
+	public MethodExecutor resolve(EvaluationContext context, Object targetObject, String name,
+			List<TypeDescriptor> argumentTypes) throws AccessException {
+
+		MethodExecutor executor = super.resolve(context, targetObject, name, argumentTypes);
+		if (executor instanceof ReflectiveMethodExecutor) {
+			return new GeneratedMethodExecutor(((ReflectiveMethodExecutor) executor).getMethod());
+		}
+		return executor;
+	}
+
+
+	/**
+	 * A method executor calling its method through a generated {@link MemberInvoker}.
+	 */
+	private static final class GeneratedMethodExecutor extends ReflectiveMethodExecutor {
+
+		private final MemberInvoker invoker;
+
+		private final boolean isStatic;
+
+		GeneratedMethodExecutor(Method method) {
+			super(method);
+			this.invoker = MemberInvokerGenerator.getInvoker(ClassUtils.getInterfaceMethodIfPossible(method));
+			this.isStatic = Modifier.isStatic(method.getModifiers());
+		}
+
+		@Override
+		@Nullable
+		protected Object invoke(Method method, Object target, Object[] arguments) throws Exception {
+			if (!this.isStatic && !method.getDeclaringClass().isInstance(target)) {
+				throw new IllegalArgumentException("Target of type [" + (target != null ?
+						target.getClass().getName() : "null") + "] is not an instance of " + method.getDeclaringClass());
+			}
+			try {
+				return this.invoker.invoke(target, arguments);
+			}
+			catch (Throwable ex) {
+				throw new InvocationTargetException(ex);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.expression.spel.support;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import org.springframework.expression.AccessException;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.PropertyAccessor;
+import org.springframework.expression.TypedValue;
+import org.springframework.lang.Nullable;
+
+/**
+ * A {@link ReflectivePropertyAccessor} variant which reads properties through
+ * generated accessor classes instead of through reflection.
+ *
+ * <p>Property resolution follows the same rules as in the reflective accessor.
+ * Once a getter method or field has been resolved for a specific target type,
+ * an accessor class for it is generated and cached, with its optimal accessor
+ * calling the member directly on subsequent evaluations of the same expression
+ * node. This brings interpreted expressions close to the performance of
+ * compiled expressions, for example for expressions that cannot be compiled.
+ * The optimal accessor remains compilable, so {@link
+ * org.springframework.expression.spel.SpelCompilerMode compilation} is
+ * unaffected. Writing still happens via reflection.
+ *
+ * <p>Register this accessor in place of the default reflective accessor:
+ * e.g. through {@link StandardEvaluationContext#setPropertyAccessors}.
+ *
+ * @author agent
+ * @since 5.2.6
+ * @see GeneratedMethodResolver
+ */
+public class GeneratedPropertyAccessor extends ReflectivePropertyAccessor {
+
+	private static final Object[] NO_ARGS = new Object[0];
+
+
+	/**
+	 * Create a new property accessor for reading as well writing.
+	 * @see #GeneratedPropertyAccessor(boolean)
+	 */
+	public GeneratedPropertyAccessor() {
+		super();
+	}
+
+	/**
+	 * Create a new property accessor for reading and possibly writing.
+	 * @param allowWrite whether to also allow for write operations
+	 * @see #canWrite
+	 */
+	public GeneratedPropertyAccessor(boolean allowWrite) {
+		super(allowWrite);
+	}
+
+
+	@Override
+	public PropertyAccessor createOptimalAccessor(EvaluationContext context, @Nullable Object target, String name) {
+		PropertyAccessor accessor = super.createOptimalAccessor(context, target, name);
+		if (accessor instanceof OptimalPropertyAccessor) {
+			return new GeneratedOptimalPropertyAccessor((OptimalPropertyAccessor) accessor);
+		}
+		return accessor;
+	}
+
+
+	/**
+	 * An optimal accessor reading a particular property through a generated
+	 * {@link MemberInvoker} for its getter method or field.
+	 */
+	private static final class GeneratedOptimalPropertyAccessor extends OptimalPropertyAccessor {
+
+		private final MemberInvoker invoker;
+
+		private final boolean isStatic;
+
+		GeneratedOptimalPropertyAccessor(OptimalPropertyAccessor original) {
+			super(original);
+			this.invoker = MemberInvokerGenerator.getInvoker(this.member);
+			this.isStatic = Modifier.isStatic(this.member.getModifiers());
+		}
+
+		@Override
+		public TypedValue read(EvaluationContext context, @Nullable Object target, String name) throws AccessException {
+			boolean isMethod = (this.member instanceof Method);
+			if (!this.isStatic && !this.member.getDeclaringClass().isInstance(target)) {
+				throw new AccessException("Unable to access " + (isMethod ? "property '" : "field '") + name +
+						"' on target of type [" + (target != null ? target.getClass().getName() : "null") + "]");
+			}
+			try {
+				Object value = this.invoker.invoke(target, NO_ARGS);
+				return new TypedValue(value, ReflectionHelper.narrowIfNecessary(this.typeDescriptor, value));
+			}
+			catch (Throwable ex) {
+				throw new AccessException(isMethod ? "Unable to access property '" + name + "' through getter method" :
+						"Unable to access field '" + name + "'", new InvocationTargetException(ex));
+			}
+		}
+	}
+
+}
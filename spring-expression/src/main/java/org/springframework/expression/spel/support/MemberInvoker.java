@@ -0,0 +1,46 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.expression.spel.support;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Invoker for a specific method or field, as an alternative to
+ * {@link java.lang.reflect.Method#invoke} and {@link java.lang.reflect.Field#get}.
+ *
+ * <p>Implementations are generated per member by {@link GeneratedPropertyAccessor}
+ * and {@link GeneratedMethodResolver}, accessing the member directly instead of
+ * through reflection. This interface is only public for access from generated
+ * classes; it is not intended to be used in application code.
+ *
+ * @author agent
+ * @since 5.2.6
+ */
+@FunctionalInterface
+public interface MemberInvoker {
+
+	/**
+	 * Invoke the method or read the field on the given target object.
+	 * @param target the target object ({@code null} for a static member)
+	 * @param args the arguments for the method (empty for a field)
+	 * @return the invocation result or field value, if any
+	 * @throws Throwable exactly as thrown by the target method
+	 */
+	@Nullable
+	Object invoke(@Nullable Object target, Object[] args) throws Throwable;
+
+}
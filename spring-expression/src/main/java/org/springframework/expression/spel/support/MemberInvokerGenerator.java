@@ -0,0 +1,244 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.expression.spel.support;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+import org.springframework.core.GeneratedClassUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Generates a {@link MemberInvoker} class per method or field, accessing the
+ * member through a direct invoke or field instruction instead of through reflection.
+ *
+ * <p>The generated class is defined in the package and class loader of the
+ * member's declaring class, so that non-public declaring classes are supported
+ * as well. Public members of public {@code java.*} classes are served by classes
+ * in a class loader of our own instead. Private members as well as members that
+ * a generated class cannot access for any other reason are read via reflection.
+ *
+ * @author agent
+ * @since 5.2.6
+ * @see GeneratedPropertyAccessor
+ * @see GeneratedMethodResolver
+ */
+abstract class MemberInvokerGenerator {
+
+	private static final String INVOKER_CLASS_SUFFIX = "$$SpelInvoker$$";
+
+	private static final String MEMBER_FIELD_NAME = "MEMBER";
+
+	private static final String INVOKE_DESCRIPTOR =
+			"(" + Type.getDescriptor(Object.class) + Type.getDescriptor(Object[].class) + ")" +
+			Type.getDescriptor(Object.class);
+
+	private static final Log logger = LogFactory.getLog(MemberInvokerGenerator.class);
+
+	private static final Map<Member, MemberInvoker> invokerCache = new ConcurrentReferenceHashMap<>(256);
+
+	@Nullable
+	private static InvokerClassLoader jdkInvokerClassLoader;
+
+
+	/**
+	 * Return an invoker for the given method or field, generating it if necessary.
+	 * @param member the target method or field
+	 * @return a generated invoker, or a reflective invoker if the member
+	 * is not eligible for a generated invoker
+	 */
+	static MemberInvoker getInvoker(Member member) {
+		return invokerCache.computeIfAbsent(member, MemberInvokerGenerator::createInvoker);
+	}
+
+	/**
+	 * Determine whether the given invoker has been generated,
+	 * as opposed to falling back to reflection.
+	 */
+	static boolean isGenerated(MemberInvoker invoker) {
+		return invoker.getClass().getName().contains(INVOKER_CLASS_SUFFIX);
+	}
+
+	private static MemberInvoker createInvoker(Member member) {
+		Class<?> declaringClass = member.getDeclaringClass();
+		ClassLoader classLoader = declaringClass.getClassLoader();
+		if (!Modifier.isPrivate(member.getModifiers()) && hasAccessibleParameterTypes(member)) {
+			String signature = getSignature(member);
+			String hash = Integer.toHexString(signature.hashCode());
+			try {
+				Class<?> invokerClass = null;
+				if (classLoader != null && ClassUtils.isVisible(MemberInvoker.class, classLoader)) {
+					String className = declaringClass.getName() + INVOKER_CLASS_SUFFIX + hash;
+					invokerClass = GeneratedClassUtils.findClass(className, classLoader);
+					if (invokerClass == null) {
+						invokerClass = GeneratedClassUtils.defineClass(
+								className, generateInvokerClass(className, member, signature), declaringClass);
+					}
+				}
+				else if (classLoader == null && declaringClass.getName().startsWith("java.") &&
+						Modifier.isPublic(member.getModifiers()) && Modifier.isPublic(declaringClass.getModifiers())) {
+					InvokerClassLoader jdkClassLoader = getJdkInvokerClassLoader();
+					String className = ClassUtils.getPackageName(MemberInvoker.class) + "." +
+							declaringClass.getName().replace('.', '_') + INVOKER_CLASS_SUFFIX + hash;
+					invokerClass = GeneratedClassUtils.findClass(className, jdkClassLoader);
+					if (invokerClass == null) {
+						invokerClass = jdkClassLoader.defineClass(className, generateInvokerClass(className, member, signature));
+					}
+				}
+				if (invokerClass != null && signature.equals(invokerClass.getField(MEMBER_FIELD_NAME).get(null))) {
+					return (MemberInvoker) ReflectionUtils.accessibleConstructor(invokerClass).newInstance();
+				}
+			}
+			catch (Throwable ex) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Could not generate invoker for member [" + member +
+							"] - falling back to reflection: " + ex);
+				}
+			}
+		}
+		return createReflectiveInvoker(member);
+	}
+
+	private static MemberInvoker createReflectiveInvoker(Member member) {
+		if (member instanceof Method) {
+			Method method = (Method) member;
+			ReflectionUtils.makeAccessible(method);
+			return (target, args) -> {
+				try {
+					return method.invoke(target, args);
+				}
+				catch (InvocationTargetException ex) {
+					throw ex.getTargetException();
+				}
+			};
+		}
+		else {
+			Field field = (Field) member;
+			ReflectionUtils.makeAccessible(field);
+			return (target, args) -> field.get(target);
+		}
+	}
+
+	/**
+	 * Check whether the parameter types of the given method can be referenced
+	 * from a generated class, for casting the arguments: either public types or
+	 * types in the declaring class's package (unless declared by a JDK class).
+	 */
+	private static boolean hasAccessibleParameterTypes(Member member) {
+		if (member instanceof Method) {
+			Class<?> declaringClass = member.getDeclaringClass();
+			for (Class<?> parameterType : ((Method) member).getParameterTypes()) {
+				while (parameterType.isArray()) {
+					parameterType = parameterType.getComponentType();
+				}
+				if (!Modifier.isPublic(parameterType.getModifiers()) && !parameterType.isPrimitive() &&
+						(declaringClass.getClassLoader() == null ||
+						parameterType.getClassLoader() != declaringClass.getClassLoader() ||
+						!ClassUtils.getPackageName(parameterType).equals(ClassUtils.getPackageName(declaringClass)))) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private static String getSignature(Member member) {
+		String signature = (member instanceof Method ? member.getName() + Type.getMethodDescriptor((Method) member) :
+				member.getName() + ":" + Type.getDescriptor(((Field) member).getType()));
+		return (Modifier.isStatic(member.getModifiers()) ? "static " + signature : signature);
+	}
+
+	private static synchronized InvokerClassLoader getJdkInvokerClassLoader() {
+		InvokerClassLoader classLoader = jdkInvokerClassLoader;
+		if (classLoader == null) {
+			classLoader = new InvokerClassLoader(MemberInvoker.class.getClassLoader());
+			jdkInvokerClassLoader = classLoader;
+		}
+		return classLoader;
+	}
+
+	private static byte[] generateInvokerClass(String className, Member member, String signature) {
+		Class<?> declaringClass = member.getDeclaringClass();
+		boolean isInterface = declaringClass.isInterface();
+		boolean isStatic = Modifier.isStatic(member.getModifiers());
+		String owner = Type.getInternalName(declaringClass);
+
+		ClassWriter cw = GeneratedClassUtils.beginClass(className, MemberInvoker.class);
+		cw.visitField(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL,
+				MEMBER_FIELD_NAME, Type.getDescriptor(String.class), null, signature).visitEnd();
+
+		MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "invoke", INVOKE_DESCRIPTOR, null,
+				new String[] {Type.getInternalName(Throwable.class)});
+		mv.visitCode();
+		if (!isStatic) {
+			mv.visitVarInsn(Opcodes.ALOAD, 1);
+			mv.visitTypeInsn(Opcodes.CHECKCAST, owner);
+		}
+		Class<?> resultType;
+		if (member instanceof Method) {
+			Method method = (Method) member;
+			GeneratedClassUtils.loadArguments(mv, 2, method.getParameterTypes());
+			int opcode = (isStatic ? Opcodes.INVOKESTATIC :
+					isInterface ? Opcodes.INVOKEINTERFACE : Opcodes.INVOKEVIRTUAL);
+			mv.visitMethodInsn(opcode, owner, method.getName(), Type.getMethodDescriptor(method), isInterface);
+			resultType = method.getReturnType();
+		}
+		else {
+			Field field = (Field) member;
+			mv.visitFieldInsn(isStatic ? Opcodes.GETSTATIC : Opcodes.GETFIELD,
+					owner, field.getName(), Type.getDescriptor(field.getType()));
+			resultType = field.getType();
+		}
+		GeneratedClassUtils.box(mv, resultType);
+		mv.visitInsn(Opcodes.ARETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+		return GeneratedClassUtils.endClass(cw);
+	}
+
+
+	/**
+	 * Class loader for invokers of JDK members, since such invokers cannot
+	 * be defined in the bootstrap class loader next to their target class.
+	 */
+	private static class InvokerClassLoader extends ClassLoader {
+
+		InvokerClassLoader(@Nullable ClassLoader parent) {
+			super(parent);
+		}
+
+		synchronized Class<?> defineClass(String name, byte[] bytes) {
+			Class<?> existing = findLoadedClass(name);
+			return (existing != null ? existing : defineClass(name, bytes, 0, bytes.length));
+		}
+	}
+
+}
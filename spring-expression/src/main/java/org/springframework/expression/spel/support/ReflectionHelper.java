@@ -372,6 +372,24 @@ public abstract class ReflectionHelper {
 		return args;
 	}
 
+	/**
+	 * Narrow the given type descriptor to the type of the given value, reusing
+	 * the descriptor as-is if the value's class is exactly the declared type
+	 * (without any generics to preserve) and therefore nothing to narrow.
+	 * @param typeDescriptor the declared type of a method result or field
+	 * @param value the actual value
+	 * @return the narrowed type descriptor (may be the given descriptor)
+	 * @since 5.2.6
+	 * @see TypeDescriptor#narrow
+	 */
+	static TypeDescriptor narrowIfNecessary(TypeDescriptor typeDescriptor, @Nullable Object value) {
+		if (value == null ||
+				(value.getClass() == typeDescriptor.getType() && !typeDescriptor.getResolvableType().hasGenerics())) {
+			return typeDescriptor;
+		}
+		return typeDescriptor.narrow(value);
+	}
+
 
 	/**
 	 * Arguments match kinds.
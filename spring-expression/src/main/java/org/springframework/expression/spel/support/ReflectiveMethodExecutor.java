@@ -16,6 +16,7 @@
 
 package org.springframework.expression.spel.support;
 
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 
@@ -42,6 +43,8 @@ public class ReflectiveMethodExecutor implements MethodExecutor {
 
 	private final Method methodToInvoke;
 
+	private final TypeDescriptor returnTypeDescriptor;
+
 	@Nullable
 	private final Integer varargsPosition;
 
@@ -60,6 +63,7 @@ public class ReflectiveMethodExecutor implements MethodExecutor {
 	public ReflectiveMethodExecutor(Method method) {
 		this.originalMethod = method;
 		this.methodToInvoke = ClassUtils.getInterfaceMethodIfPossible(method);
+		this.returnTypeDescriptor = new TypeDescriptor(new MethodParameter(method, -1));
 		if (method.isVarArgs()) {
 			this.varargsPosition = method.getParameterCount() - 1;
 		}
@@ -125,13 +129,30 @@ public class ReflectiveMethodExecutor implements MethodExecutor {
 				arguments = ReflectionHelper.setupArgumentsForVarargsInvocation(
 						this.originalMethod.getParameterTypes(), arguments);
 			}
-			ReflectionUtils.makeAccessible(this.methodToInvoke);
-			Object value = this.methodToInvoke.invoke(target, arguments);
-			return new TypedValue(value, new TypeDescriptor(new MethodParameter(this.originalMethod, -1)).narrow(value));
+			Object value = invoke(this.methodToInvoke, target, arguments);
+			return new TypedValue(value, ReflectionHelper.narrowIfNecessary(this.returnTypeDescriptor, value));
 		}
 		catch (Exception ex) {
 			throw new AccessException("Problem invoking method: " + this.methodToInvoke, ex);
 		}
 	}
 
+	/**
+	 * Invoke the given method on the given target, with the arguments
+	 * converted and set up for a varargs invocation already.
+	 * <p>The default implementation invokes the method via reflection.
+	 * @param method the method to invoke (an interface method if possible)
+	 * @param target the target object
+	 * @param arguments the arguments for the method
+	 * @return the invocation result, if any
+	 * @throws InvocationTargetException if the method threw an exception
+	 * @throws Exception if the method could not be invoked
+	 * @since 5.2.6
+	 */
+	@Nullable
+	protected Object invoke(Method method, Object target, Object[] arguments) throws Exception {
+		ReflectionUtils.makeAccessible(method);
+		return method.invoke(target, arguments);
+	}
+
 }
@@ -653,13 +653,23 @@ public class ReflectivePropertyAccessor implements PropertyAccessor {
 		 */
 		public final Member member;
 
-		private final TypeDescriptor typeDescriptor;
+		final TypeDescriptor typeDescriptor;
 
 		OptimalPropertyAccessor(InvokerPair target) {
 			this.member = target.member;
 			this.typeDescriptor = target.typeDescriptor;
 		}
 
+		/**
+		 * Copy constructor for specialized variants of the given accessor.
+		 * @since 5.2.6
+		 * @see GeneratedPropertyAccessor
+		 */
+		OptimalPropertyAccessor(OptimalPropertyAccessor original) {
+			this.member = original.member;
+			this.typeDescriptor = original.typeDescriptor;
+		}
+
 		@Override
 		@Nullable
 		public Class<?>[] getSpecificTargetClasses() {
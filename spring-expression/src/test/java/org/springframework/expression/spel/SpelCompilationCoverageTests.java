@@ -20,9 +20,11 @@ import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -105,7 +107,10 @@ public class SpelCompilationCoverageTests extends AbstractExpressionTests {
 	 * ConstructorReference
 	 * FunctionReference
 	 * InlineList
+	 * InlineMap
 	 * OpModulus
+	 * Projection
+	 * Selection
 	 *
 	 * Not yet compiled (some may never need to be):
 	 * Assign
@@ -116,9 +121,7 @@ public class SpelCompilationCoverageTests extends AbstractExpressionTests {
 	 * OpMatches
 	 * OpPower
 	 * OpInc
-	 * Projection
 	 * QualifiedId
-	 * Selection
 	 */
 
 
@@ -445,6 +448,173 @@ public class SpelCompilationCoverageTests extends AbstractExpressionTests {
 		assertThat(o).isEqualTo("op");
 	}
 
+	@Test
+	public void nonConstantInlineList() throws Exception {
+		expression = parser.parseExpression("{'abc',#root,#root.length()}");
+		Object o = expression.getValue("def");
+		assertThat(o).isEqualTo(Arrays.asList("abc", "def", 3));
+		assertCanCompile(expression);
+		o = expression.getValue("def");
+		assertThat(o).isEqualTo(Arrays.asList("abc", "def", 3));
+		o = expression.getValue("ghij");
+		assertThat(o).isEqualTo(Arrays.asList("abc", "ghij", 4));
+	}
+
+	@Test
+	public void inlineMap() throws Exception {
+		expression = parser.parseExpression("{a:'abc',b:2,c:{d:true},e:{1,2}}");
+		Object o = expression.getValue();
+		assertThat(o.toString()).isEqualTo("{a=abc, b=2, c={d=true}, e=[1, 2]}");
+		assertCanCompile(expression);
+		Map<?, ?> map = expression.getValue(Map.class);
+		assertThat(map.toString()).isEqualTo("{a=abc, b=2, c={d=true}, e=[1, 2]}");
+		assertThat(map).isSameAs(expression.getValue());
+		assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(map::clear);
+
+		expression = parser.parseExpression("{a:'abc',b:#root.length(),'c':{d:#root}}['c']['d']");
+		o = expression.getValue("def");
+		assertThat(o).isEqualTo("def");
+		assertCanCompile(expression);
+		o = expression.getValue("ghi");
+		assertThat(o).isEqualTo("ghi");
+
+		expression = parser.parseExpression("{#root:1}");
+		o = expression.getValue("def");
+		assertThat(o.toString()).isEqualTo("{def=1}");
+		assertCanCompile(expression);
+		o = expression.getValue("ghi");
+		assertThat(o.toString()).isEqualTo("{ghi=1}");
+	}
+
+	@Test
+	public void selection() throws Exception {
+		List<Integer> numbers = Arrays.asList(1, 2, 3, 4);
+		expression = parser.parseExpression("#root.?[#this > 2]");
+		assertThat(expression.getValue(numbers)).isEqualTo(Arrays.asList(3, 4));
+		assertCanCompile(expression);
+		assertThat(expression.getValue(numbers)).isEqualTo(Arrays.asList(3, 4));
+		assertThat(expression.getValue(Arrays.asList(5, 1))).isEqualTo(Collections.singletonList(5));
+
+		expression = parser.parseExpression("#root.^[#this > 1]");
+		assertThat(expression.getValue(numbers)).isEqualTo(2);
+		assertCanCompile(expression);
+		assertThat(expression.getValue(numbers)).isEqualTo(2);
+		assertThat(expression.getValue(Collections.singletonList(1))).isNull();
+
+		expression = parser.parseExpression("#root.$[#this < 4]");
+		assertThat(expression.getValue(numbers)).isEqualTo(3);
+		assertCanCompile(expression);
+		assertThat(expression.getValue(numbers)).isEqualTo(3);
+		assertThat(expression.getValue(Collections.singletonList(5))).isNull();
+
+		expression = parser.parseExpression("#root?.?[#this > 2]");
+		assertThat(expression.getValue(numbers)).isEqualTo(Arrays.asList(3, 4));
+		assertCanCompile(expression);
+		assertThat(expression.getValue((Object) null)).isNull();
+
+		expression = parser.parseExpression("#root.?[length() > 1]");
+		Object o = expression.getValue(new String[] {"a", "bc", "def"});
+		assertThat(o).isEqualTo(new String[] {"bc", "def"});
+		assertCanCompile(expression);
+		o = expression.getValue(new String[] {"a", "bc", "def"});
+		assertThat(o).isEqualTo(new String[] {"bc", "def"});
+
+		expression = parser.parseExpression("#root.?[#this % 2 == 0]");
+		o = expression.getValue(new int[] {1, 2, 3, 4});
+		assertThat(o).isEqualTo(new Integer[] {2, 4});
+		assertCanCompile(expression);
+		o = expression.getValue(new int[] {1, 2, 3, 4});
+		assertThat(o).isEqualTo(new Integer[] {2, 4});
+	}
+
+	@Test
+	public void selectionOnMap() throws Exception {
+		Map<String, Integer> map = new LinkedHashMap<>();
+		map.put("a", 1);
+		map.put("b", 2);
+		map.put("c", 3);
+		Map<String, Integer> noMatch = new LinkedHashMap<>();
+		noMatch.put("d", 0);
+
+		expression = parser.parseExpression("#root.?[value > 1]");
+		assertThat(expression.getValue(map).toString()).isEqualTo("{b=2, c=3}");
+		assertCanCompile(expression);
+		assertThat(expression.getValue(map).toString()).isEqualTo("{b=2, c=3}");
+
+		expression = parser.parseExpression("#root.^[value > 1]");
+		assertThat(expression.getValue(map).toString()).isEqualTo("{b=2}");
+		assertCanCompile(expression);
+		assertThat(expression.getValue(map).toString()).isEqualTo("{b=2}");
+		assertThat(expression.getValue(noMatch)).isNull();
+
+		expression = parser.parseExpression("#root.$[value > 1]");
+		assertThat(expression.getValue(map).toString()).isEqualTo("{c=3}");
+		assertCanCompile(expression);
+		assertThat(expression.getValue(map).toString()).isEqualTo("{c=3}");
+		assertThat(expression.getValue(noMatch)).isNull();
+	}
+
+	@Test
+	public void projection() throws Exception {
+		List<String> strings = Arrays.asList("a", "bc", "def");
+		expression = parser.parseExpression("#root.![length()]");
+		assertThat(expression.getValue(strings)).isEqualTo(Arrays.asList(1, 2, 3));
+		assertCanCompile(expression);
+		assertThat(expression.getValue(strings)).isEqualTo(Arrays.asList(1, 2, 3));
+
+		expression = parser.parseExpression("#root.![#this + 'x'].?[length() > 2]");
+		assertThat(expression.getValue(strings)).isEqualTo(Arrays.asList("bcx", "defx"));
+		assertCanCompile(expression);
+		assertThat(expression.getValue(strings)).isEqualTo(Arrays.asList("bcx", "defx"));
+
+		expression = parser.parseExpression("#root.![length()]");
+		Object o = expression.getValue(new String[] {"a", "bc"});
+		assertThat(o).isEqualTo(new Integer[] {1, 2});
+		assertCanCompile(expression);
+		o = expression.getValue(new String[] {"a", "bc"});
+		assertThat(o).isEqualTo(new Integer[] {1, 2});
+		o = expression.getValue(new String[0]);
+		assertThat(o).isEqualTo(new Object[0]);
+
+		expression = parser.parseExpression("#root.![#this * 2]");
+		o = expression.getValue(new int[] {1, 2});
+		assertThat(o).isEqualTo(new Integer[] {2, 4});
+		assertCanCompile(expression);
+		o = expression.getValue(new int[] {1, 2});
+		assertThat(o).isEqualTo(new Integer[] {2, 4});
+
+		expression = parser.parseExpression("#root.![{#this}]");
+		o = expression.getValue(new String[] {"a"});
+		assertThat(o).isInstanceOf(Object[].class);
+		assertThat(((Object[]) o)[0]).isEqualTo(Collections.singletonList("a"));
+		// Common element type of the projected lists not determinable
+		assertCantCompile(expression);
+
+		Map<String, Integer> map = new LinkedHashMap<>();
+		map.put("a", 1);
+		map.put("b", 2);
+		expression = parser.parseExpression("#root.![key.concat(value.toString())]");
+		assertThat(expression.getValue(map)).isEqualTo(Arrays.asList("a1", "b2"));
+		assertCanCompile(expression);
+		assertThat(expression.getValue(map)).isEqualTo(Arrays.asList("a1", "b2"));
+	}
+
+	@Test
+	public void uncompilableNodes() throws Exception {
+		SpelExpression expression = (SpelExpression) parser.parseExpression("#root.![length()].?[#this > 1 and toString() matches '[0-9]']");
+		assertThat(expression.getUncompilableNodes()).extracting(SpelNode::toStringAST)
+				.containsExactly("#root", "length()", "#this", "toString()");
+		expression.getValue(Arrays.asList("a", "bc", "def"));
+		assertThat(expression.getUncompilableNodes()).extracting(SpelNode::toStringAST)
+				.containsExactly("(toString() matches '[0-9]')");
+		assertCantCompile(expression);
+
+		expression = (SpelExpression) parser.parseExpression("#root.![length()].?[#this > 1]");
+		expression.getValue(Arrays.asList("a", "bc", "def"));
+		assertThat(expression.getUncompilableNodes()).isEmpty();
+		assertCanCompile(expression);
+	}
+
 	@Test
 	public void intLiteral() throws Exception {
 		expression = parser.parseExpression("42");
@@ -892,6 +1062,23 @@ public class SpelCompilationCoverageTests extends AbstractExpressionTests {
 		assertCanCompile(expression);
 	}
 
+	@Test
+	public void elvisWithPrimitives() throws Exception {
+		expression = parser.parseExpression("#root.length() ?: 5");
+		assertThat(expression.getValue("abc")).isEqualTo(3);
+		assertCanCompile(expression);
+		assertThat(expression.getValue("abc")).isEqualTo(3);
+		assertThat(expression.getValue("abcd", Integer.class)).isEqualTo(4);
+	}
+
+	@Test
+	public void variableReference_this() throws Exception {
+		expression = parser.parseExpression("#this.length()");
+		assertThat(expression.getValue("abc")).isEqualTo(3);
+		assertCanCompile(expression);
+		assertThat(expression.getValue("abcd")).isEqualTo(4);
+	}
+
 	@Test
 	public void variableReference_root() throws Exception {
 		String s = "hello";
@@ -1028,8 +1215,8 @@ public class SpelCompilationCoverageTests extends AbstractExpressionTests {
 
 		expression = parser.parseExpression("#negate(#ints.?[#this<2][0])");
 		assertThat(expression.getValue(context, Integer.class).toString()).isEqualTo("-1");
-		// Selection isn't compilable.
-		assertThat(((SpelNodeImpl)((SpelExpression) expression).getAST()).isCompilable()).isFalse();
+		assertCanCompile(expression);
+		assertThat(expression.getValue(context, Integer.class).toString()).isEqualTo("-1");
 	}
 
 	@Test
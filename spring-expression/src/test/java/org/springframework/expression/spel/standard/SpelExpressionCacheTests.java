@@ -0,0 +1,130 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.expression.spel.standard;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.expression.Expression;
+import org.springframework.expression.common.TemplateParserContext;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.util.ConcurrentLruCacheRegistry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link SpelExpressionCache}.
+ *
+ * @author agent
+ */
+class SpelExpressionCacheTests {
+
+	private final SpelExpressionCache cache = new SpelExpressionCache(
+			new SpelExpressionParser(new SpelParserConfiguration(SpelCompilerMode.MIXED, null)), 2);
+
+
+	@Test
+	void sharedExpressions() {
+		Expression expression = this.cache.getExpression("1 + 2");
+		assertThat(expression).isInstanceOf(SpelExpression.class);
+		assertThat(this.cache.getExpression("1 + 2")).isSameAs(expression);
+		assertThat(expression.getValue()).isEqualTo(3);
+	}
+
+	@Test
+	void templateExpressions() {
+		Expression raw = this.cache.getExpression("'a'");
+		Expression template = this.cache.getExpression("'a'", new TemplateParserContext());
+		Expression otherTemplate = this.cache.getExpression("'a'", new TemplateParserContext("${", "}"));
+		assertThat(raw.getValue()).isEqualTo("a");
+		assertThat(template.getValue()).isEqualTo("'a'");
+		assertThat(template).isNotSameAs(raw);
+		assertThat(otherTemplate).isNotSameAs(template);
+		assertThat(this.cache.getExpression("#{'a'}", new TemplateParserContext()).getValue()).isEqualTo("a");
+	}
+
+	@Test
+	void leastRecentlyUsedEviction() {
+		this.cache.getExpression("1");
+		this.cache.getExpression("2");
+		this.cache.getExpression("1");
+		this.cache.getExpression("3");
+		assertThat(this.cache.size()).isEqualTo(2);
+		assertThat(this.cache.getStatistics()).extracting(SpelExpressionCache.ExpressionStatistics::getExpressionString)
+				.containsExactlyInAnyOrder("1", "3");
+		assertThat(ConcurrentLruCacheRegistry.getStatistics()).containsKey(SpelExpressionCache.CACHE_NAME);
+
+		this.cache.clear();
+		assertThat(this.cache.size()).isEqualTo(0);
+	}
+
+	@Test
+	void backgroundCompilation() {
+		List<Runnable> tasks = new ArrayList<>();
+		Executor executor = tasks::add;
+		this.cache.setCompilationExecutor(executor);
+		this.cache.setCompilationThreshold(3);
+		SpelExpression expression = (SpelExpression) this.cache.getExpression("'abc'.length() * 2");
+
+		for (int i = 0; i < 10; i++) {
+			assertThat(expression.getValue()).isEqualTo(6);
+		}
+		assertThat(expression.isCompiled()).isFalse();
+		assertThat(tasks).hasSize(1);
+
+		tasks.get(0).run();
+		assertThat(expression.isCompiled()).isTrue();
+		assertThat(expression.getValue()).isEqualTo(6);
+		SpelExpressionCache.ExpressionStatistics statistics = this.cache.getStatistics().get(0);
+		assertThat(statistics.isCompiled()).isTrue();
+		assertThat(statistics.getCompilationCount()).isEqualTo(1);
+		assertThat(statistics.getCompilationTime()).isPositive();
+	}
+
+	@Test
+	void compilationOnEvaluatingThreadByDefault() {
+		this.cache.setCompilationThreshold(3);
+		SpelExpression expression = (SpelExpression) this.cache.getExpression("'abc'.length() * 2");
+		for (int i = 0; i < 5; i++) {
+			expression.getValue();
+		}
+		assertThat(expression.isCompiled()).isTrue();
+	}
+
+	@Test
+	void evaluationStatistics() {
+		this.cache.setStatisticsEnabled(true);
+		Expression expression = this.cache.getExpression("#root * 2");
+		assertThat(expression).isNotInstanceOf(SpelExpression.class);
+		assertThat(expression.getExpressionString()).isEqualTo("#root * 2");
+		assertThat(expression.getValue(2)).isEqualTo(4);
+		assertThat(expression.getValue(3, Integer.class)).isEqualTo(6);
+
+		SpelExpressionCache.ExpressionStatistics statistics = this.cache.getStatistics().get(0);
+		assertThat(statistics.getExpressionString()).isEqualTo("#root * 2");
+		assertThat(statistics.getEvaluationCount()).isEqualTo(2);
+		assertThat(statistics.getEvaluationTime()).isGreaterThanOrEqualTo(statistics.getMaxEvaluationTime());
+		assertThat(statistics.getAverageEvaluationTime()).isLessThanOrEqualTo(statistics.getMaxEvaluationTime());
+		assertThat(statistics.getParseTime()).isPositive();
+		assertThat(statistics.getCompilationCount()).isEqualTo(0);
+	}
+
+}
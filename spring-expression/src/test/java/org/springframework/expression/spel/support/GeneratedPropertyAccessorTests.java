@@ -0,0 +1,240 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.expression.spel.support;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.PropertyAccessor;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ReflectionUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Unit tests for {@link GeneratedPropertyAccessor} and {@link GeneratedMethodResolver}.
+ *
+ * @author agent
+ */
+class GeneratedPropertyAccessorTests {
+
+	private final SpelExpressionParser parser = new SpelExpressionParser();
+
+	private final StandardEvaluationContext context = new StandardEvaluationContext();
+
+
+	GeneratedPropertyAccessorTests() {
+		this.context.setPropertyAccessors(Collections.singletonList(new GeneratedPropertyAccessor()));
+		this.context.setMethodResolvers(Collections.singletonList(new GeneratedMethodResolver()));
+	}
+
+
+	@Test
+	void generatedAccessorForGetterAndField() throws Exception {
+		GeneratedPropertyAccessor accessor = new GeneratedPropertyAccessor();
+		Person person = new Person("Juergen", 42);
+		PropertyAccessor getter = accessor.createOptimalAccessor(this.context, person, "name");
+		PropertyAccessor field = accessor.createOptimalAccessor(this.context, person, "age");
+		assertThat(getter).isInstanceOf(ReflectivePropertyAccessor.OptimalPropertyAccessor.class);
+		assertThat(field).isInstanceOf(ReflectivePropertyAccessor.OptimalPropertyAccessor.class);
+		assertThat(getter.read(this.context, person, "name").getValue()).isEqualTo("Juergen");
+		assertThat(field.read(this.context, person, "age").getValue()).isEqualTo(42);
+		assertThat(MemberInvokerGenerator.isGenerated(MemberInvokerGenerator.getInvoker(
+				((ReflectivePropertyAccessor.OptimalPropertyAccessor) getter).member))).isTrue();
+		assertThat(MemberInvokerGenerator.isGenerated(MemberInvokerGenerator.getInvoker(
+				Person.class.getField("age")))).isTrue();
+	}
+
+	@Test
+	void propertyChains() {
+		Person person = new Person("Juergen", 42);
+		person.friend = new Person("Sam", 36);
+		Expression expression = this.parser.parseExpression("friend.name + ' ' + friend.age + ' ' + name.length()");
+		assertThat(expression.getValue(this.context, person)).isEqualTo("Sam 36 7");
+		assertThat(expression.getValue(this.context, person)).isEqualTo("Sam 36 7");
+	}
+
+	@Test
+	void staticMembers() {
+		Expression expression = this.parser.parseExpression(
+				"T(org.springframework.expression.spel.support.GeneratedPropertyAccessorTests$Person).DEFAULT_NAME + " +
+				"T(org.springframework.expression.spel.support.GeneratedPropertyAccessorTests$Person).greet('x')");
+		assertThat(expression.getValue(this.context)).isEqualTo("anonymousHello x");
+	}
+
+	@Test
+	void jdkMethods() throws Exception {
+		assertThat(MemberInvokerGenerator.isGenerated(
+				MemberInvokerGenerator.getInvoker(String.class.getMethod("length")))).isTrue();
+		assertThat(this.parser.parseExpression("'abc'.length() + 'abc'.concat('d').length()").getValue(this.context))
+				.isEqualTo(7);
+		assertThat(this.parser.parseExpression("#root.size()").getValue(this.context, Arrays.asList(1, 2)))
+				.isEqualTo(2);
+	}
+
+	@Test
+	void packagePrivateTypes() {
+		Expression expression = this.parser.parseExpression("value + compute(2)");
+		assertThat(expression.getValue(this.context, new PackagePrivateBean())).isEqualTo(7);
+		assertThat(MemberInvokerGenerator.isGenerated(MemberInvokerGenerator.getInvoker(
+				ReflectionUtils.findMethod(PackagePrivateBean.class, "compute", int.class)))).isTrue();
+	}
+
+	@Test
+	void privateMethodFallsBackToReflection() {
+		assertThat(MemberInvokerGenerator.isGenerated(MemberInvokerGenerator.getInvoker(
+				ReflectionUtils.findMethod(Person.class, "secret")))).isFalse();
+	}
+
+	@Test
+	void varargsMethod() {
+		Expression expression = this.parser.parseExpression("join('-', 'a', 'b', 'c')");
+		assertThat(expression.getValue(this.context, new Person("x", 1))).isEqualTo("a-b-c");
+	}
+
+	@Test
+	void changingTargetType() {
+		Expression expression = this.parser.parseExpression("name");
+		assertThat(expression.getValue(this.context, new Person("Juergen", 42))).isEqualTo("Juergen");
+		assertThat(expression.getValue(this.context, new Pet("Rex"))).isEqualTo("Rex");
+		assertThat(expression.getValue(this.context, new Person("Sam", 36))).isEqualTo("Sam");
+	}
+
+	@Test
+	void reuseGeneratedAccessorAcrossEvaluations() {
+		CountingPropertyAccessor accessor = new CountingPropertyAccessor();
+		this.context.setPropertyAccessors(Collections.singletonList(accessor));
+		Expression expression = this.parser.parseExpression("name");
+		for (int i = 0; i < 3; i++) {
+			assertThat(expression.getValue(this.context, new Person("Juergen", 42))).isEqualTo("Juergen");
+		}
+		assertThat(accessor.optimalAccessorCount).isEqualTo(1);
+
+		assertThat(expression.getValue(this.context, new Pet("Rex"))).isEqualTo("Rex");
+		assertThat(expression.getValue(this.context, new Pet("Fido"))).isEqualTo("Fido");
+		assertThat(accessor.optimalAccessorCount).isEqualTo(2);
+
+		CountingPropertyAccessor otherAccessor = new CountingPropertyAccessor();
+		this.context.setPropertyAccessors(Collections.singletonList(otherAccessor));
+		assertThat(expression.getValue(this.context, new Pet("Rex"))).isEqualTo("Rex");
+		assertThat(otherAccessor.optimalAccessorCount).isEqualTo(1);
+	}
+
+	@Test
+	void exceptionFromMethod() {
+		Expression expression = this.parser.parseExpression("fail()");
+		assertThatIllegalStateException().isThrownBy(() -> expression.getValue(this.context, new Person("x", 1)))
+				.withMessage("failed");
+	}
+
+	@Test
+	void compilationWithGeneratedAccessors() {
+		SpelExpressionParser parser = new SpelExpressionParser(
+				new SpelParserConfiguration(SpelCompilerMode.OFF, getClass().getClassLoader()));
+		SpelExpression expression = parser.parseRaw("friend.name.concat(name)");
+		Person person = new Person("Juergen", 42);
+		person.friend = new Person("Sam", 36);
+		assertThat(expression.getValue(this.context, person)).isEqualTo("SamJuergen");
+		assertThat(expression.compileExpression()).isTrue();
+		assertThat(expression.getValue(this.context, person)).isEqualTo("SamJuergen");
+	}
+
+
+	private static class CountingPropertyAccessor extends GeneratedPropertyAccessor {
+
+		int optimalAccessorCount;
+
+		@Override
+		public PropertyAccessor createOptimalAccessor(EvaluationContext context, @Nullable Object target, String name) {
+			this.optimalAccessorCount++;
+			return super.createOptimalAccessor(context, target, name);
+		}
+	}
+
+
+	public static class Person {
+
+		public static final String DEFAULT_NAME = "anonymous";
+
+		private final String name;
+
+		public final int age;
+
+		public Person friend;
+
+		public Person(String name, int age) {
+			this.name = name;
+			this.age = age;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public String join(String separator, String... parts) {
+			return String.join(separator, parts);
+		}
+
+		public void fail() {
+			throw new IllegalStateException("failed");
+		}
+
+		private String secret() {
+			return "secret";
+		}
+
+		public static String greet(String name) {
+			return "Hello " + name;
+		}
+	}
+
+
+	public static class Pet {
+
+		private final String name;
+
+		public Pet(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+	}
+
+
+	static class PackagePrivateBean {
+
+		public int getValue() {
+			return 5;
+		}
+
+		public int compute(int factor) {
+			return factor;
+		}
+	}
+
+}
@@ -23,6 +23,7 @@ import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanFactoryAware;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.beans.factory.support.DefaultSingletonBeanRegistry;
 import org.springframework.lang.Nullable;
 import org.springframework.messaging.handler.annotation.support.DefaultMessageHandlerMethodFactory;
 import org.springframework.messaging.handler.annotation.support.MessageHandlerMethodFactory;
@@ -137,13 +138,20 @@ public class JmsListenerEndpointRegistrar implements BeanFactoryAware, Initializ
 
 	protected void registerAllEndpoints() {
 		Assert.state(this.endpointRegistry != null, "No JmsListenerEndpointRegistry set");
-		synchronized (this.mutex) {
+		doWithMutex(() -> {
+			// Resolve all container factories before registering any endpoint: resolution
+			// may call back into the bean factory and get retried after a conflict with
+			// concurrent singleton creation, whereas registration must happen only once.
+			List<JmsListenerContainerFactory<?>> containerFactories = new ArrayList<>(this.endpointDescriptors.size());
 			for (JmsListenerEndpointDescriptor descriptor : this.endpointDescriptors) {
+				containerFactories.add(resolveContainerFactory(descriptor));
+			}
+			for (int i = 0; i < this.endpointDescriptors.size(); i++) {
 				this.endpointRegistry.registerListenerContainer(
-						descriptor.endpoint, resolveContainerFactory(descriptor));
+						this.endpointDescriptors.get(i).endpoint, containerFactories.get(i));
 			}
 			this.startImmediately = true;  // trigger immediate startup
-		}
+		});
 	}
 
 	private JmsListenerContainerFactory<?> resolveContainerFactory(JmsListenerEndpointDescriptor descriptor) {
@@ -180,15 +188,37 @@ public class JmsListenerEndpointRegistrar implements BeanFactoryAware, Initializ
 		// Factory may be null, we defer the resolution right before actually creating the container
 		JmsListenerEndpointDescriptor descriptor = new JmsListenerEndpointDescriptor(endpoint, factory);
 
-		synchronized (this.mutex) {
+		doWithMutex(() -> {
 			if (this.startImmediately) {  // register and start immediately
 				Assert.state(this.endpointRegistry != null, "No JmsListenerEndpointRegistry set");
-				this.endpointRegistry.registerListenerContainer(descriptor.endpoint,
-						resolveContainerFactory(descriptor), true);
+				JmsListenerContainerFactory<?> containerFactory = resolveContainerFactory(descriptor);
+				this.endpointRegistry.registerListenerContainer(descriptor.endpoint, containerFactory, true);
 			}
 			else {
 				this.endpointDescriptors.add(descriptor);
 			}
+		});
+	}
+
+	/**
+	 * Execute the given action while holding the mutex, going through the bean
+	 * factory's singleton lock handling if available, since resolving a container
+	 * factory may call back into the bean factory.
+	 * <p>The action may get retried after a conflict with concurrent singleton
+	 * creation, so it must not register any endpoint before the last call back
+	 * into the bean factory.
+	 */
+	private void doWithMutex(Runnable action) {
+		if (this.beanFactory instanceof DefaultSingletonBeanRegistry) {
+			((DefaultSingletonBeanRegistry) this.beanFactory).doWithSingletonMutex(this, () -> {
+				action.run();
+				return null;
+			});
+		}
+		else {
+			synchronized (this.mutex) {
+				action.run();
+			}
 		}
 	}
 
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util.pattern;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.http.server.PathContainer;
+
+/**
+ * Benchmark for {@link PathPattern#matches} and {@link PathPattern#matchAndExtract},
+ * matching request paths against the route patterns of a typical REST API the
+ * way a handler mapping does. Uses the same routes and requests as the
+ * {@code AntPathMatcherBenchmark} in {@code spring-core}, adapted to the
+ * {@link PathPattern} syntax where needed.
+ *
+ * @author agent
+ * @since 5.2.6
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PathPatternBenchmark {
+
+	static final List<String> ROUTES = Arrays.asList(
+			"/", "/login", "/logout", "/static/**", "/resources/{*path}", "/webjars/**",
+			"/api/users", "/api/users/{userId}", "/api/users/{userId}/repos", "/api/users/{userId}/followers",
+			"/api/users/{userId}/orgs", "/api/orgs/{org}", "/api/orgs/{org}/members", "/api/orgs/{org}/teams",
+			"/api/orgs/{org}/teams/{team}/members/{member}", "/api/repos/{owner}/{repo}",
+			"/api/repos/{owner}/{repo}/issues", "/api/repos/{owner}/{repo}/issues/{number}",
+			"/api/repos/{owner}/{repo}/issues/{number}/comments", "/api/repos/{owner}/{repo}/pulls",
+			"/api/repos/{owner}/{repo}/pulls/{number}/files", "/api/repos/{owner}/{repo}/commits/{sha}",
+			"/api/repos/{owner}/{repo}/contents/**", "/api/repos/{owner}/{repo}/releases/tags/{tag}",
+			"/api/search/*", "/api/gists/{gistId:[a-f0-9]+}", "/api/gists/{gistId:[a-f0-9]+}/star",
+			"/admin/**", "/files/{filename}.{extension}", "/docs/{version}/reference/**");
+
+	static final List<String> REQUESTS = Arrays.asList(
+			"/", "/login", "/static/css/main.css", "/resources/js/vendor/app.js", "/api/users",
+			"/api/users/jhoeller", "/api/users/jhoeller/repos", "/api/orgs/spring-projects/teams",
+			"/api/orgs/spring-projects/teams/core/members/sbrannen", "/api/repos/spring-projects/spring-framework",
+			"/api/repos/spring-projects/spring-framework/issues/24900/comments",
+			"/api/repos/spring-projects/spring-framework/pulls/24901/files",
+			"/api/repos/spring-projects/spring-framework/contents/spring-core/src/main/java",
+			"/api/search/repositories", "/api/gists/aa5a315d61ae9438b18d", "/api/gists/not-a-gist/star",
+			"/admin/users/42/roles", "/files/report.pdf", "/docs/5.2.6/reference/html/core.html",
+			"/unknown/path/that/does/not/match");
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		public List<PathPattern> patterns;
+
+		public List<PathContainer> requests;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			PathPatternParser parser = new PathPatternParser();
+			this.patterns = ROUTES.stream().map(parser::parse).collect(Collectors.toList());
+			this.requests = REQUESTS.stream().map(PathContainer::parsePath).collect(Collectors.toList());
+		}
+	}
+
+
+	@Benchmark
+	public void matchAllRoutes(BenchmarkState state, Blackhole bh) {
+		for (PathContainer request : state.requests) {
+			for (PathPattern pattern : state.patterns) {
+				bh.consume(pattern.matches(request));
+			}
+		}
+	}
+
+	@Benchmark
+	public void bestMatchWithUriVariables(BenchmarkState state, Blackhole bh) {
+		for (PathContainer request : state.requests) {
+			List<PathPattern> matches = new ArrayList<>();
+			for (PathPattern pattern : state.patterns) {
+				if (pattern.matches(request)) {
+					matches.add(pattern);
+				}
+			}
+			if (!matches.isEmpty()) {
+				matches.sort(PathPattern.SPECIFICITY_COMPARATOR);
+				bh.consume(matches.get(0).matchAndExtract(request));
+			}
+		}
+	}
+
+	@Benchmark
+	public void parseRoutes(Blackhole bh) {
+		PathPatternParser parser = new PathPatternParser();
+		for (String route : ROUTES) {
+			bh.consume(parser.parse(route));
+		}
+	}
+
+}
@@ -36,6 +36,7 @@ import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.core.io.support.ResourceRegion;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpLogging;
@@ -56,6 +57,11 @@ import org.springframework.util.MimeTypeUtils;
  * <p>Also an implementation of {@code HttpMessageWriter} with support for writing one
  * or more {@link ResourceRegion}'s based on the HTTP ranges specified in the request.
  *
+ * <p>File resources are written with zero-copy file transfer if supported by
+ * the underlying runtime. As of 5.2.6, file resources may otherwise be
+ * written through memory-mapped buffers, if enabled through
+ * {@link #setMappedReadThreshold}.
+ *
  * <p>For reading to a Resource, use {@link ResourceDecoder} wrapped with
  * {@link DecoderHttpMessageReader}.
  *
@@ -71,6 +77,8 @@ public class ResourceHttpMessageWriter implements HttpMessageWriter<Resource> {
 
 	private static final ResolvableType REGION_TYPE = ResolvableType.forClass(ResourceRegion.class);
 
+	private static final int MAPPED_WINDOW_SIZE = 1024 * 1024;
+
 	private static final Log logger = HttpLogging.forLogName(ResourceHttpMessageWriter.class);
 
 
@@ -80,6 +88,8 @@ public class ResourceHttpMessageWriter implements HttpMessageWriter<Resource> {
 
 	private final List<MediaType> mediaTypes;
 
+	private long mappedReadThreshold = -1;
+
 
 	public ResourceHttpMessageWriter() {
 		this(ResourceEncoder.DEFAULT_BUFFER_SIZE);
@@ -92,6 +102,37 @@ public class ResourceHttpMessageWriter implements HttpMessageWriter<Resource> {
 	}
 
 
+	/**
+	 * Set the minimum number of bytes to write from a file resource for it to
+	 * be read through memory-mapped buffers, where zero-copy file transfer is
+	 * not supported by the underlying runtime.
+	 * <p>The default is -1, i.e. memory-mapped reads are turned off and file
+	 * content is copied into buffers instead.
+	 * <p><strong>Note:</strong> mappings are not explicitly unmapped but only
+	 * released once their buffers are garbage collected. Until then, the file
+	 * stays locked on some operating systems (e.g. it cannot be deleted or
+	 * replaced on Windows), and truncating the file while the response is
+	 * written may fail the JVM with an unspecified error. Only enable this
+	 * for files that are not modified while being served.
+	 * @param mappedReadThreshold the threshold in bytes, or -1 to turn off
+	 * memory-mapped reads
+	 * @since 5.2.6
+	 * @see DataBufferUtils#readMapped
+	 */
+	public void setMappedReadThreshold(long mappedReadThreshold) {
+		this.mappedReadThreshold = mappedReadThreshold;
+	}
+
+	/**
+	 * Return the configured threshold for memory-mapped reads, or -1 if
+	 * memory-mapped reads are turned off.
+	 * @since 5.2.6
+	 */
+	public long getMappedReadThreshold() {
+		return this.mappedReadThreshold;
+	}
+
+
 	@Override
 	public boolean canWrite(ResolvableType elementType, @Nullable MediaType mediaType) {
 		return this.encoder.canEncode(elementType, mediaType);
@@ -128,12 +169,13 @@ public class ResourceHttpMessageWriter implements HttpMessageWriter<Resource> {
 		}
 
 		return zeroCopy(resource, null, message, hints)
-				.orElseGet(() -> {
-					Mono<Resource> input = Mono.just(resource);
-					DataBufferFactory factory = message.bufferFactory();
-					Flux<DataBuffer> body = this.encoder.encode(input, factory, type, resourceMediaType, hints);
-					return message.writeWith(body);
-				});
+				.orElseGet(() -> mappedRead(resource, null, message, hints)
+						.orElseGet(() -> {
+							Mono<Resource> input = Mono.just(resource);
+							DataBufferFactory factory = message.bufferFactory();
+							Flux<DataBuffer> body = this.encoder.encode(input, factory, type, resourceMediaType, hints);
+							return message.writeWith(body);
+						}));
 	}
 
 	private static MediaType getResourceMediaType(
@@ -182,6 +224,31 @@ public class ResourceHttpMessageWriter implements HttpMessageWriter<Resource> {
 		return Optional.empty();
 	}
 
+	private Optional<Mono<Void>> mappedRead(Resource resource, @Nullable ResourceRegion region,
+			ReactiveHttpOutputMessage message, Map<String, Object> hints) {
+
+		if (this.mappedReadThreshold >= 0 && resource.isFile()) {
+			try {
+				File file = resource.getFile();
+				long pos = region != null ? region.getPosition() : 0;
+				long count = region != null ? region.getCount() : file.length();
+				if (count >= this.mappedReadThreshold) {
+					if (logger.isDebugEnabled()) {
+						String formatted = region != null ? "region " + pos + "-" + (count) + " of " : "";
+						logger.debug(Hints.getLogPrefix(hints) + "Memory-mapped " + formatted + "[" + resource + "]");
+					}
+					Flux<DataBuffer> body = DataBufferUtils.readMapped(
+							file.toPath(), pos, count, message.bufferFactory(), MAPPED_WINDOW_SIZE);
+					return Optional.of(message.writeWith(body));
+				}
+			}
+			catch (IOException ex) {
+				// should not happen
+			}
+		}
+		return Optional.empty();
+	}
+
 
 	// Server-side only: single Resource or sub-regions...
 
@@ -236,11 +303,12 @@ public class ResourceHttpMessageWriter implements HttpMessageWriter<Resource> {
 			Map<String, Object> hints) {
 
 		return zeroCopy(region.getResource(), region, message, hints)
-				.orElseGet(() -> {
-					Publisher<? extends ResourceRegion> input = Mono.just(region);
-					MediaType mediaType = message.getHeaders().getContentType();
-					return encodeAndWriteRegions(input, mediaType, message, hints);
-				});
+				.orElseGet(() -> mappedRead(region.getResource(), region, message, hints)
+						.orElseGet(() -> {
+							Publisher<? extends ResourceRegion> input = Mono.just(region);
+							MediaType mediaType = message.getHeaders().getContentType();
+							return encodeAndWriteRegions(input, mediaType, message, hints);
+						}));
 	}
 
 	private Mono<Void> encodeAndWriteRegions(Publisher<? extends ResourceRegion> publisher,
@@ -17,16 +17,23 @@
 package org.springframework.http.codec;
 
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
@@ -129,6 +136,57 @@ public class ResourceHttpMessageWriterTests {
 				.verify();
 	}
 
+	@Test
+	public void mappedReadTurnedOffByDefault() {
+		assertThat(this.writer.getMappedReadThreshold()).isEqualTo(-1);
+	}
+
+	@Test
+	public void writeLargeFileResource(@TempDir Path tempDir) throws Exception {
+		byte[] content = largeContent();
+		Path file = Files.write(tempDir.resolve("large.txt"), content);
+
+		testWrite(Mono.just(new FileSystemResource(file)), get("/").build());
+
+		assertThat(this.response.getHeaders().getContentLength()).isEqualTo(content.length);
+		StepVerifier.create(DataBufferUtils.join(this.response.getBody()))
+				.consumeNextWith(buffer -> assertThat(toBytes(buffer)).isEqualTo(content))
+				.expectComplete()
+				.verify();
+	}
+
+	@Test
+	public void writeLargeFileResourceWithMappedRead(@TempDir Path tempDir) throws Exception {
+		byte[] content = largeContent();
+		Path file = Files.write(tempDir.resolve("large.txt"), content);
+		this.writer.setMappedReadThreshold(256 * 1024);
+
+		testWrite(Mono.just(new FileSystemResource(file)), get("/").build());
+
+		assertThat(this.response.getHeaders().getContentLength()).isEqualTo(content.length);
+		StepVerifier.create(DataBufferUtils.join(this.response.getBody()))
+				.consumeNextWith(buffer -> assertThat(toBytes(buffer)).isEqualTo(content))
+				.expectComplete()
+				.verify();
+	}
+
+	@Test
+	public void writeLargeFileRegionWithMappedRead(@TempDir Path tempDir) throws Exception {
+		byte[] content = largeContent();
+		Path file = Files.write(tempDir.resolve("large.txt"), content);
+		this.writer.setMappedReadThreshold(256 * 1024);
+
+		testWrite(Mono.just(new FileSystemResource(file)), get("/").range(of(10, 400009)).build());
+
+		assertThat(this.response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE))
+				.isEqualTo("bytes 10-400009/" + content.length);
+		assertThat(this.response.getHeaders().getContentLength()).isEqualTo(400000L);
+		StepVerifier.create(DataBufferUtils.join(this.response.getBody()))
+				.consumeNextWith(buffer -> assertThat(toBytes(buffer)).isEqualTo(Arrays.copyOfRange(content, 10, 400010)))
+				.expectComplete()
+				.verify();
+	}
+
 	@Test
 	public void invalidRange() throws Exception {
 
@@ -140,10 +198,29 @@ public class ResourceHttpMessageWriterTests {
 
 
 	private void testWrite(MockServerHttpRequest request) {
-		Mono<Void> mono = this.writer.write(this.input, null, null, TEXT_PLAIN, request, this.response, HINTS);
+		testWrite(this.input, request);
+	}
+
+	private void testWrite(Mono<Resource> input, MockServerHttpRequest request) {
+		Mono<Void> mono = this.writer.write(input, null, null, TEXT_PLAIN, request, this.response, HINTS);
 		StepVerifier.create(mono).expectComplete().verify();
 	}
 
+	private static byte[] largeContent() {
+		byte[] content = new byte[1500 * 1024];
+		for (int i = 0; i < content.length; i++) {
+			content[i] = (byte) ('a' + i % 26);
+		}
+		return content;
+	}
+
+	private static byte[] toBytes(DataBuffer buffer) {
+		byte[] bytes = new byte[buffer.readableByteCount()];
+		buffer.read(bytes);
+		DataBufferUtils.release(buffer);
+		return bytes;
+	}
+
 	private static HttpRange of(int first, int last) {
 		return HttpRange.createByteRange(first, last);
 	}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.function.server;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.testfixture.http.server.reactive.MockServerHttpRequest;
+import org.springframework.web.testfixture.server.MockServerWebExchange;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.accept;
+
+/**
+ * Benchmark for {@link RouterFunction#route} with a functional endpoint
+ * definition of a typical REST API, resolving the handler for a set of
+ * requests including ones that fall through all routes.
+ *
+ * @author agent
+ * @since 5.2.6
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RouterFunctionBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		public RouterFunction<ServerResponse> routerFunction;
+
+		public List<ServerRequest> requests;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			HandlerFunction<ServerResponse> handler = request -> ServerResponse.ok().build();
+			this.routerFunction = RouterFunctions.route()
+					.GET("/", handler)
+					.GET("/login", handler)
+					.path("/api", api -> api
+							.nest(accept(MediaType.APPLICATION_JSON), json -> json
+									.GET("/users", handler)
+									.POST("/users", handler)
+									.GET("/users/{userId}", handler)
+									.PUT("/users/{userId}", handler)
+									.DELETE("/users/{userId}", handler)
+									.GET("/users/{userId}/repos", handler)
+									.GET("/orgs/{org}", handler)
+									.GET("/orgs/{org}/teams/{team}/members/{member}", handler)
+									.GET("/repos/{owner}/{repo}", handler)
+									.GET("/repos/{owner}/{repo}/issues", handler)
+									.GET("/repos/{owner}/{repo}/issues/{number}/comments", handler)
+									.POST("/repos/{owner}/{repo}/issues/{number}/comments", handler)
+									.GET("/repos/{owner}/{repo}/pulls/{number}/files", handler)
+									.GET("/search/{kind}", handler)))
+					.GET("/static/**", handler)
+					.build();
+
+			this.requests = Stream.of(
+					MockServerHttpRequest.get("/").build(),
+					MockServerHttpRequest.get("/static/css/main.css").build(),
+					MockServerHttpRequest.get("/api/users").accept(MediaType.APPLICATION_JSON).build(),
+					MockServerHttpRequest.post("/api/users").accept(MediaType.APPLICATION_JSON).build(),
+					MockServerHttpRequest.delete("/api/users/jhoeller").accept(MediaType.APPLICATION_JSON).build(),
+					MockServerHttpRequest.get("/api/orgs/spring-projects/teams/core/members/sbrannen")
+							.accept(MediaType.APPLICATION_JSON).build(),
+					MockServerHttpRequest.get("/api/repos/spring-projects/spring-framework/issues/24900/comments")
+							.accept(MediaType.APPLICATION_JSON).build(),
+					MockServerHttpRequest.get("/api/search/repositories").accept(MediaType.APPLICATION_JSON).build(),
+					MockServerHttpRequest.get("/api/users").accept(MediaType.TEXT_HTML).build(),
+					MockServerHttpRequest.get("/unknown/path/that/does/not/match").build())
+					.map(request -> new DefaultServerRequest(MockServerWebExchange.from(request), Collections.emptyList()))
+					.collect(Collectors.toList());
+		}
+	}
+
+
+	@Benchmark
+	public void route(BenchmarkState state, Blackhole bh) {
+		for (ServerRequest request : state.requests) {
+			bh.consume(state.routerFunction.route(request).block());
+		}
+	}
+
+}